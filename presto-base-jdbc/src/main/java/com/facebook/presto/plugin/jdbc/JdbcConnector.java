@@ -17,6 +17,7 @@ import com.facebook.presto.spi.Connector;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexResolver;
 import com.facebook.presto.spi.ConnectorMetadata;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorRecordSetProvider;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
@@ -86,6 +87,12 @@ public class JdbcConnector
         return jdbcRecordSinkProvider;
     }
 
+    @Override
+    public ConnectorPageSinkProvider getPageSinkProvider()
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public ConnectorIndexResolver getIndexResolver()
     {
@@ -18,12 +18,14 @@ import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
 import com.facebook.presto.spi.TableNotFoundException;
+import com.facebook.presto.spi.TableStatistics;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
@@ -121,6 +123,12 @@ public class JdbcMetadata
         return checkType(columnHandle, JdbcColumnHandle.class, "columnHandle").getColumnMetadata();
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorTableHandle tableHandle, List<ConnectorPartition> partitionsOrNull)
+    {
+        return TableStatistics.unknown();
+    }
+
     @Override
     public boolean canCreateSampledTables(ConnectorSession session)
     {
@@ -23,6 +23,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
 import com.facebook.presto.testing.LocalQueryRunner;
 import com.google.common.base.Optional;
@@ -110,7 +111,8 @@ public class HandTpchQuery1
                         ),
                 Optional.<Integer>absent(),
                 10_000,
-                new DataSize(16, MEGABYTE));
+                new DataSize(16, MEGABYTE),
+                Optional.<SpillerFactory>absent());
 
         return ImmutableList.of(tableScanOperator, tpchQuery1Operator, aggregationOperator);
     }
@@ -16,7 +16,9 @@ package com.facebook.presto.benchmark;
 import com.facebook.presto.operator.LimitOperator.LimitOperatorFactory;
 import com.facebook.presto.operator.OperatorFactory;
 import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.testing.LocalQueryRunner;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
@@ -47,7 +49,8 @@ public class OrderByBenchmark
                 ImmutableList.of(1),
                 ROWS,
                 ImmutableList.of(0),
-                ImmutableList.of(ASC_NULLS_LAST));
+                ImmutableList.of(ASC_NULLS_LAST),
+                Optional.<SpillerFactory>absent());
 
         return ImmutableList.of(tableScanOperator, limitOperator, orderByOperator);
     }
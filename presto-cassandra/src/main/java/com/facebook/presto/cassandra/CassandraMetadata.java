@@ -19,6 +19,7 @@ import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
@@ -27,6 +28,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaNotFoundException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -197,6 +199,12 @@ public class CassandraMetadata
         return checkType(columnHandle, CassandraColumnHandle.class, "columnHandle").getColumnMetadata();
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorTableHandle tableHandle, List<ConnectorPartition> partitionsOrNull)
+    {
+        return TableStatistics.unknown();
+    }
+
     @Override
     public String toString()
     {
@@ -17,6 +17,7 @@ import com.facebook.presto.spi.Connector;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexResolver;
 import com.facebook.presto.spi.ConnectorMetadata;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorRecordSetProvider;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
@@ -83,6 +84,12 @@ public class ExampleConnector
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public ConnectorPageSinkProvider getPageSinkProvider()
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public ConnectorIndexResolver getIndexResolver()
     {
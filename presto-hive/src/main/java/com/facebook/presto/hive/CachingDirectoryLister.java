@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Caches directory listings of partitions whose contents only change together with their metadata.
+ * A listing is reused only while the partition version it was listed for is still current, so a
+ * partition rewritten through the metastore is listed again on the next query. Directories of
+ * partitions without a version are always listed.
+ */
+public class CachingDirectoryLister
+        implements DirectoryLister
+{
+    private final DirectoryLister delegate;
+    private final NamenodeStats namenodeStats;
+    private final boolean enabled;
+    private final Cache<Path, CachedListing> cache;
+
+    @Inject
+    public CachingDirectoryLister(HadoopDirectoryLister delegate, NamenodeStats namenodeStats, HiveClientConfig config)
+    {
+        this(delegate, namenodeStats, config.getDirectoryListingCacheTtl(), config.getDirectoryListingCacheMaxEntries());
+    }
+
+    public CachingDirectoryLister(DirectoryLister delegate, NamenodeStats namenodeStats, Duration ttl, long maxEntries)
+    {
+        this.delegate = checkNotNull(delegate, "delegate is null");
+        this.namenodeStats = checkNotNull(namenodeStats, "namenodeStats is null");
+        checkNotNull(ttl, "ttl is null");
+        checkArgument(maxEntries >= 0, "maxEntries is negative");
+
+        this.enabled = ttl.toMillis() > 0 && maxEntries > 0;
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(ttl.toMillis(), MILLISECONDS)
+                .maximumSize(maxEntries)
+                .build();
+    }
+
+    @Override
+    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path, Optional<String> partitionVersion)
+            throws IOException
+    {
+        if (!enabled || !partitionVersion.isPresent()) {
+            return delegate.list(fs, path, partitionVersion);
+        }
+
+        CachedListing cachedListing = cache.getIfPresent(path);
+        if (cachedListing != null && cachedListing.getPartitionVersion().equals(partitionVersion.get())) {
+            namenodeStats.getDirectoryListingCacheHits().update(1);
+            return new ListRemoteIterator(cachedListing.getFiles());
+        }
+        namenodeStats.getDirectoryListingCacheMisses().update(1);
+
+        // failed listings are not cached
+        ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        RemoteIterator<LocatedFileStatus> iterator = delegate.list(fs, path, partitionVersion);
+        while (iterator.hasNext()) {
+            files.add(iterator.next());
+        }
+        cachedListing = new CachedListing(partitionVersion.get(), files.build());
+        cache.put(path, cachedListing);
+
+        return new ListRemoteIterator(cachedListing.getFiles());
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    private static class CachedListing
+    {
+        private final String partitionVersion;
+        private final List<LocatedFileStatus> files;
+
+        private CachedListing(String partitionVersion, List<LocatedFileStatus> files)
+        {
+            this.partitionVersion = checkNotNull(partitionVersion, "partitionVersion is null");
+            this.files = checkNotNull(files, "files is null");
+        }
+
+        public String getPartitionVersion()
+        {
+            return partitionVersion;
+        }
+
+        public List<LocatedFileStatus> getFiles()
+        {
+            return files;
+        }
+    }
+
+    private static class ListRemoteIterator
+            implements RemoteIterator<LocatedFileStatus>
+    {
+        private final Iterator<LocatedFileStatus> iterator;
+
+        private ListRemoteIterator(List<LocatedFileStatus> files)
+        {
+            this.iterator = files.iterator();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public LocatedFileStatus next()
+        {
+            if (!iterator.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return iterator.next();
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.google.common.base.Optional;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
@@ -22,6 +23,12 @@ import java.io.IOException;
 
 public interface DirectoryLister
 {
-    RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+    /**
+     * Lists the entries of a directory.
+     *
+     * @param partitionVersion identifies the metadata of the partition containing the directory, if the
+     * contents of the partition only change together with its metadata
+     */
+    RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path, Optional<String> partitionVersion)
             throws IOException;
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive;
 
+import com.google.common.base.Optional;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.LocatedFileStatus;
 import org.apache.hadoop.fs.Path;
@@ -26,7 +27,7 @@ public class HadoopDirectoryLister
         implements DirectoryLister
 {
     @Override
-    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path)
+    public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path, Optional<String> partitionVersion)
             throws IOException
     {
         return listLocatedStatus(fs, path);
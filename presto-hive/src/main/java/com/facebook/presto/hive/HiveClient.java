@@ -14,13 +14,18 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.hive.metastore.HiveMetastore;
+import com.facebook.presto.hive.orc.OrcPageSink;
+import com.facebook.presto.orc.metadata.CompressionKind;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ColumnStatistics;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexHandle;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorPageSink;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorPartitionResult;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
@@ -33,6 +38,7 @@ import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.Domain;
 import com.facebook.presto.spi.FixedSplitSource;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.RecordPageSink;
 import com.facebook.presto.spi.RecordSink;
 import com.facebook.presto.spi.SchemaNotFoundException;
 import com.facebook.presto.spi.SchemaTableName;
@@ -40,6 +46,7 @@ import com.facebook.presto.spi.SchemaTablePrefix;
 import com.facebook.presto.spi.SerializableNativeValue;
 import com.facebook.presto.spi.SortedRangeSet;
 import com.facebook.presto.spi.TableNotFoundException;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.ViewNotFoundException;
 import com.facebook.presto.spi.type.StandardTypes;
@@ -68,8 +75,13 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.common.FileUtils;
 import org.apache.hadoop.hive.metastore.ProtectMode;
 import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.BooleanColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.DoubleColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -88,6 +100,7 @@ import org.joda.time.DateTimeZone;
 import javax.annotation.Nullable;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -102,6 +115,7 @@ import static com.facebook.presto.hive.HiveBucketing.HiveBucket;
 import static com.facebook.presto.hive.HiveBucketing.getHiveBucket;
 import static com.facebook.presto.hive.HiveColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_SCHEMA_MISMATCH;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_ERROR;
 import static com.facebook.presto.hive.HivePartition.UNPARTITIONED_ID;
 import static com.facebook.presto.hive.HiveSessionProperties.getHiveStorageFormat;
 import static com.facebook.presto.hive.HiveType.columnTypeToHiveType;
@@ -152,10 +166,11 @@ import static org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspe
 
 @SuppressWarnings("deprecation")
 public class HiveClient
-        implements ConnectorMetadata, ConnectorSplitManager, ConnectorRecordSinkProvider, ConnectorHandleResolver
+        implements ConnectorMetadata, ConnectorSplitManager, ConnectorRecordSinkProvider, ConnectorPageSinkProvider, ConnectorHandleResolver
 {
     public static final String PRESTO_OFFLINE = "presto_offline";
     private static final String PARTITION_VALUE_WILDCARD = "";
+    private static final String ROW_COUNT_PARAMETER = "numRows";
 
     private static final Logger log = Logger.get(HiveClient.class);
 
@@ -563,6 +578,107 @@ public class HiveClient
         return checkType(columnHandle, HiveColumnHandle.class, "columnHandle").getColumnMetadata(typeManager);
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorTableHandle tableHandle, List<ConnectorPartition> partitionsOrNull)
+    {
+        SchemaTableName tableName = getTableName(tableHandle);
+        Table table = getTable(tableName);
+
+        Optional<Long> rowCount = getRowCount(table, partitionsOrNull);
+        if (!rowCount.isPresent()) {
+            return TableStatistics.unknown();
+        }
+
+        // the metastore keeps the column statistics of partitioned tables per partition, so only unpartitioned tables have them
+        ImmutableMap.Builder<ConnectorColumnHandle, ColumnStatistics> columnStatistics = ImmutableMap.builder();
+        if (table.getPartitionKeys().isEmpty()) {
+            Map<String, ColumnStatisticsObj> statistics;
+            try {
+                statistics = metastore.getTableColumnStatistics(tableName.getSchemaName(), tableName.getTableName());
+            }
+            catch (NoSuchObjectException e) {
+                throw new TableNotFoundException(tableName);
+            }
+            for (HiveColumnHandle columnHandle : getColumnHandles(table, false)) {
+                ColumnStatisticsObj statisticsObj = statistics.get(columnHandle.getName());
+                if (statisticsObj != null) {
+                    columnStatistics.put(columnHandle, toColumnStatistics(statisticsObj.getStatsData()));
+                }
+            }
+        }
+        return new TableStatistics(rowCount.get(), columnStatistics.build());
+    }
+
+    private Optional<Long> getRowCount(Table table, List<ConnectorPartition> partitionsOrNull)
+    {
+        if (table.getPartitionKeys().isEmpty()) {
+            return getRowCount(table.getParameters());
+        }
+
+        try {
+            // only fetch the partitions that are read, which are usually far fewer than the partitions of the table
+            List<String> partitionNames;
+            if (partitionsOrNull == null) {
+                partitionNames = metastore.getPartitionNames(table.getDbName(), table.getTableName());
+            }
+            else {
+                partitionNames = Lists.transform(partitionsOrNull, partitionIdGetter());
+            }
+
+            long rowCount = 0;
+            for (List<String> partitionNameBatch : Lists.partition(partitionNames, maxPartitionBatchSize)) {
+                for (Partition partition : metastore.getPartitionsByNames(table.getDbName(), table.getTableName(), partitionNameBatch).values()) {
+                    Optional<Long> partitionRowCount = getRowCount(partition.getParameters());
+                    if (!partitionRowCount.isPresent()) {
+                        return Optional.absent();
+                    }
+                    rowCount += partitionRowCount.get();
+                }
+            }
+            return Optional.of(rowCount);
+        }
+        catch (NoSuchObjectException e) {
+            throw new TableNotFoundException(new SchemaTableName(table.getDbName(), table.getTableName()));
+        }
+    }
+
+    private static Optional<Long> getRowCount(Map<String, String> parameters)
+    {
+        String rowCount = parameters.get(ROW_COUNT_PARAMETER);
+        if (rowCount == null) {
+            return Optional.absent();
+        }
+        try {
+            long value = Long.parseLong(rowCount);
+            // Hive records -1 when the statistics are not accurate
+            return value < 0 ? Optional.<Long>absent() : Optional.of(value);
+        }
+        catch (NumberFormatException e) {
+            return Optional.absent();
+        }
+    }
+
+    private static ColumnStatistics toColumnStatistics(ColumnStatisticsData data)
+    {
+        if (data.isSetLongStats()) {
+            LongColumnStatsData statistics = data.getLongStats();
+            return new ColumnStatistics(statistics.getNumDVs(), statistics.getLowValue(), statistics.getHighValue());
+        }
+        if (data.isSetDoubleStats()) {
+            DoubleColumnStatsData statistics = data.getDoubleStats();
+            return new ColumnStatistics(statistics.getNumDVs(), statistics.getLowValue(), statistics.getHighValue());
+        }
+        if (data.isSetStringStats()) {
+            return new ColumnStatistics(data.getStringStats().getNumDVs(), null, null);
+        }
+        if (data.isSetBooleanStats()) {
+            BooleanColumnStatsData statistics = data.getBooleanStats();
+            long distinctValues = (statistics.getNumTrues() > 0 ? 1 : 0) + (statistics.getNumFalses() > 0 ? 1 : 0);
+            return new ColumnStatistics(distinctValues, null, null);
+        }
+        return new ColumnStatistics(ColumnStatistics.UNKNOWN_DISTINCT_VALUES_COUNT, null, null);
+    }
+
     @Override
     public ConnectorTableHandle createTable(ConnectorSession session, ConnectorTableMetadata tableMetadata)
     {
@@ -770,6 +886,46 @@ public class HiveClient
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public ConnectorPageSink createPageSink(ConnectorOutputTableHandle tableHandle)
+    {
+        HiveOutputTableHandle handle = checkType(tableHandle, HiveOutputTableHandle.class, "tableHandle");
+
+        if (handle.getHiveStorageFormat() == HiveStorageFormat.ORC && OrcPageSink.isSupported(handle.getColumnTypes())) {
+            Path target = new Path(handle.getTemporaryPath(), randomUUID().toString());
+            // compress the same way the Hive serializer path would
+            Optional<CompressionKind> compression = OrcPageSink.getCompression(hdfsEnvironment.getConfiguration(target));
+            if (compression.isPresent()) {
+                return new OrcPageSink(createFile(target), handle.getColumnNames(), handle.getColumnTypes(), handle.getColumnNames().indexOf(SAMPLE_WEIGHT_COLUMN_NAME), compression.get());
+            }
+        }
+
+        // other formats and compressions are written with the Hive serializers
+        ImmutableList.Builder<Type> types = ImmutableList.builder();
+        for (int i = 0; i < handle.getColumnNames().size(); i++) {
+            if (!handle.getColumnNames().get(i).equals(SAMPLE_WEIGHT_COLUMN_NAME)) {
+                types.add(handle.getColumnTypes().get(i));
+            }
+        }
+        return new RecordPageSink(getRecordSink(tableHandle), types.build());
+    }
+
+    @Override
+    public ConnectorPageSink createPageSink(ConnectorInsertTableHandle tableHandle)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    private OutputStream createFile(Path path)
+    {
+        try {
+            return hdfsEnvironment.getFileSystem(path).create(path);
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_ERROR, "Failed to create file: " + path, e);
+        }
+    }
+
     private Database getDatabase(String database)
     {
         try {
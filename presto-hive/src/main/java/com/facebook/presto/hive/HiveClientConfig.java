@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class HiveClientConfig
@@ -55,6 +56,8 @@ public class HiveClientConfig
 
     private Duration metastoreCacheTtl = new Duration(1, TimeUnit.HOURS);
     private Duration metastoreRefreshInterval = new Duration(2, TimeUnit.MINUTES);
+    private Duration directoryListingCacheTtl = new Duration(0, TimeUnit.SECONDS);
+    private long directoryListingCacheMaxEntries = 10_000;
     private int maxMetastoreRefreshThreads = 100;
     private HostAndPort metastoreSocksProxy;
     private Duration metastoreTimeout = new Duration(10, TimeUnit.SECONDS);
@@ -87,6 +90,19 @@ public class HiveClientConfig
     private boolean optimizedReaderEnabled = true;
 
     private DataSize orcMaxMergeDistance = new DataSize(1, MEGABYTE);
+    private DataSize orcMetadataCacheSize = new DataSize(64, MEGABYTE);
+    private Duration orcMetadataCacheTtl = new Duration(1, TimeUnit.HOURS);
+    // stripes read ahead are not accounted in the query memory, so read ahead is opt-in and small
+    private boolean orcReadAheadEnabled;
+    private DataSize orcMaxReadAheadSize = new DataSize(8, MEGABYTE);
+    private int orcReadAheadThreads = 16;
+
+    private boolean parquetOptimizedReaderEnabled;
+
+    private boolean localCacheEnabled;
+    private List<String> localCacheDirectories = ImmutableList.of();
+    private DataSize localCacheMaxSize = new DataSize(10, GIGABYTE);
+    private DataSize localCacheBlockSize = new DataSize(1, MEGABYTE);
 
     public int getMaxInitialSplits()
     {
@@ -265,6 +281,33 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public Duration getDirectoryListingCacheTtl()
+    {
+        return directoryListingCacheTtl;
+    }
+
+    @Config("hive.directory-listing-cache-ttl")
+    @ConfigDescription("How long to reuse the listings of partitions that have not changed in the metastore (0s to disable)")
+    public HiveClientConfig setDirectoryListingCacheTtl(Duration directoryListingCacheTtl)
+    {
+        this.directoryListingCacheTtl = directoryListingCacheTtl;
+        return this;
+    }
+
+    @Min(0)
+    public long getDirectoryListingCacheMaxEntries()
+    {
+        return directoryListingCacheMaxEntries;
+    }
+
+    @Config("hive.directory-listing-cache-max-entries")
+    public HiveClientConfig setDirectoryListingCacheMaxEntries(long directoryListingCacheMaxEntries)
+    {
+        this.directoryListingCacheMaxEntries = directoryListingCacheMaxEntries;
+        return this;
+    }
+
     @Min(1)
     public int getMaxMetastoreRefreshThreads()
     {
@@ -625,4 +668,143 @@ public class HiveClientConfig
         this.orcMaxMergeDistance = orcMaxMergeDistance;
         return this;
     }
+
+    @NotNull
+    public DataSize getOrcMetadataCacheSize()
+    {
+        return orcMetadataCacheSize;
+    }
+
+    @Config("hive.orc.metadata-cache-size")
+    @ConfigDescription("Maximum estimated heap size of the decoded ORC file footers and stripe footers kept in memory")
+    public HiveClientConfig setOrcMetadataCacheSize(DataSize orcMetadataCacheSize)
+    {
+        this.orcMetadataCacheSize = orcMetadataCacheSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getOrcMetadataCacheTtl()
+    {
+        return orcMetadataCacheTtl;
+    }
+
+    @Config("hive.orc.metadata-cache-ttl")
+    public HiveClientConfig setOrcMetadataCacheTtl(Duration orcMetadataCacheTtl)
+    {
+        this.orcMetadataCacheTtl = orcMetadataCacheTtl;
+        return this;
+    }
+
+    public boolean isOrcReadAheadEnabled()
+    {
+        return orcReadAheadEnabled;
+    }
+
+    @Config("hive.orc.read-ahead.enabled")
+    @ConfigDescription("Read the next stripe of an ORC file while the current stripe is decoded (the stripe is not accounted in the query memory)")
+    public HiveClientConfig setOrcReadAheadEnabled(boolean orcReadAheadEnabled)
+    {
+        this.orcReadAheadEnabled = orcReadAheadEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcMaxReadAheadSize()
+    {
+        return orcMaxReadAheadSize;
+    }
+
+    @Config("hive.orc.max-read-ahead-size")
+    @ConfigDescription("Stripes larger than this are read when they are needed instead of ahead of time")
+    public HiveClientConfig setOrcMaxReadAheadSize(DataSize orcMaxReadAheadSize)
+    {
+        this.orcMaxReadAheadSize = orcMaxReadAheadSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getOrcReadAheadThreads()
+    {
+        return orcReadAheadThreads;
+    }
+
+    @Config("hive.orc.read-ahead-threads")
+    public HiveClientConfig setOrcReadAheadThreads(int orcReadAheadThreads)
+    {
+        this.orcReadAheadThreads = orcReadAheadThreads;
+        return this;
+    }
+
+    public boolean isParquetOptimizedReaderEnabled()
+    {
+        return parquetOptimizedReaderEnabled;
+    }
+
+    @Config("hive.parquet-optimized-reader.enabled")
+    @ConfigDescription("Read Parquet files directly into pages instead of through the record cursor")
+    public HiveClientConfig setParquetOptimizedReaderEnabled(boolean parquetOptimizedReaderEnabled)
+    {
+        this.parquetOptimizedReaderEnabled = parquetOptimizedReaderEnabled;
+        return this;
+    }
+
+    public boolean isLocalCacheEnabled()
+    {
+        return localCacheEnabled;
+    }
+
+    @Config("hive.local-cache.enabled")
+    @ConfigDescription("Keep blocks of remote files on local disks of the worker")
+    public HiveClientConfig setLocalCacheEnabled(boolean localCacheEnabled)
+    {
+        this.localCacheEnabled = localCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public List<String> getLocalCacheDirectories()
+    {
+        return localCacheDirectories;
+    }
+
+    @Config("hive.local-cache.directories")
+    public HiveClientConfig setLocalCacheDirectories(String directories)
+    {
+        this.localCacheDirectories = (directories == null) ? null : SPLITTER.splitToList(directories);
+        return this;
+    }
+
+    public HiveClientConfig setLocalCacheDirectories(List<String> directories)
+    {
+        this.localCacheDirectories = (directories == null) ? null : ImmutableList.copyOf(directories);
+        return this;
+    }
+
+    @NotNull
+    public DataSize getLocalCacheMaxSize()
+    {
+        return localCacheMaxSize;
+    }
+
+    @Config("hive.local-cache.max-size")
+    @ConfigDescription("Maximum total size of the blocks kept in the local cache directories")
+    public HiveClientConfig setLocalCacheMaxSize(DataSize localCacheMaxSize)
+    {
+        this.localCacheMaxSize = localCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getLocalCacheBlockSize()
+    {
+        return localCacheBlockSize;
+    }
+
+    @Config("hive.local-cache.block-size")
+    public HiveClientConfig setLocalCacheBlockSize(DataSize localCacheBlockSize)
+    {
+        this.localCacheBlockSize = localCacheBlockSize;
+        return this;
+    }
 }
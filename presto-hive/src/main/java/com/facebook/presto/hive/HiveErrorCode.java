@@ -28,7 +28,8 @@ public enum HiveErrorCode
     HIVE_UNKNOWN_ERROR(0x0100_0005),
     HIVE_PARTITION_OFFLINE(0x0100_0006),
     HIVE_BAD_DATA(0x0100_0007),
-    HIVE_PARTITION_SCHEMA_MISMATCH(0x0100_0008);
+    HIVE_PARTITION_SCHEMA_MISMATCH(0x0100_0008),
+    HIVE_WRITER_ERROR(0x0100_0009);
 
     private final ErrorCode errorCode;
 
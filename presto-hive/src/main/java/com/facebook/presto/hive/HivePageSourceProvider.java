@@ -18,7 +18,11 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.FixedPageSource;
+import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.SerializableNativeValue;
 import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
@@ -32,11 +36,13 @@ import org.joda.time.DateTimeZone;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
 import static com.facebook.presto.hive.HiveColumnHandle.hiveColumnHandle;
 import static com.facebook.presto.hive.HiveColumnHandle.nativeTypeGetter;
+import static com.facebook.presto.hive.HiveUtil.parsePartitionValue;
 import static com.facebook.presto.hive.util.Types.checkType;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.transform;
@@ -69,6 +75,12 @@ public class HivePageSourceProvider
 
     @Override
     public ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns)
+    {
+        return createPageSource(split, columns, TupleDomain.<ConnectorColumnHandle>all());
+    }
+
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns, TupleDomain<ConnectorColumnHandle> dynamicFilter)
     {
         HiveSplit hiveSplit = checkType(split, HiveSplit.class, "split");
 
@@ -81,11 +93,16 @@ public class HivePageSourceProvider
 
         Configuration configuration = hdfsEnvironment.getConfiguration(path);
 
-        TupleDomain<HiveColumnHandle> effectivePredicate = hiveSplit.getEffectivePredicate();
+        // the dynamic filter narrows the predicate, so readers like ORC can skip stripes and row groups with it
+        TupleDomain<HiveColumnHandle> effectivePredicate = hiveSplit.getEffectivePredicate().intersect(dynamicFilter.transform(hiveColumnHandleFunction()));
 
         Properties schema = hiveSplit.getSchema();
 
         List<HivePartitionKey> partitionKeys = hiveSplit.getPartitionKeys();
+        if (effectivePredicate.isNone() || !partitionMatches(partitionKeys, effectivePredicate)) {
+            return new FixedPageSource(ImmutableList.<Page>of());
+        }
+
         List<HiveColumnHandle> hiveColumns = ImmutableList.copyOf(transform(columns, hiveColumnHandle()));
 
         for (HivePageSourceFactory pageSourceFactory : pageSourceFactories) {
@@ -115,6 +132,38 @@ public class HivePageSourceProvider
         throw new RuntimeException("Could not find a file reader for split " + hiveSplit);
     }
 
+    private boolean partitionMatches(List<HivePartitionKey> partitionKeys, TupleDomain<HiveColumnHandle> predicate)
+    {
+        for (Map.Entry<HiveColumnHandle, Domain> entry : predicate.getDomains().entrySet()) {
+            HiveColumnHandle column = entry.getKey();
+            if (!column.isPartitionKey()) {
+                continue;
+            }
+            for (HivePartitionKey partitionKey : partitionKeys) {
+                if (partitionKey.getName().equals(column.getName())) {
+                    SerializableNativeValue value = parsePartitionValue(partitionKey.getName(), partitionKey.getValue(), partitionKey.getHiveType(), hiveStorageTimeZone);
+                    Domain domain = entry.getValue();
+                    if (value.getValue() == null ? !domain.isNullAllowed() : !domain.includesValue(value.getValue())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private static TupleDomain.Function<ConnectorColumnHandle, HiveColumnHandle> hiveColumnHandleFunction()
+    {
+        return new TupleDomain.Function<ConnectorColumnHandle, HiveColumnHandle>()
+        {
+            @Override
+            public HiveColumnHandle apply(ConnectorColumnHandle handle)
+            {
+                return checkType(handle, HiveColumnHandle.class, "columnHandle");
+            }
+        };
+    }
+
     protected HiveRecordCursor getHiveRecordCursor(
             String clientId,
             ConnectorSession session,
@@ -24,6 +24,7 @@ public final class HiveSessionProperties
     public static final String STORAGE_FORMAT_PROPERTY = "storage_format";
     private static final String OPTIMIZED_READER_ENABLED = "optimized_reader_enabled";
     private static final String ORC_MAX_MERGE_DISTANCE = "orc_max_merge_distance";
+    private static final String PARQUET_OPTIMIZED_READER_ENABLED = "parquet_optimized_reader_enabled";
 
     private HiveSessionProperties()
     {
@@ -49,6 +50,11 @@ public final class HiveSessionProperties
         return isEnabled(OPTIMIZED_READER_ENABLED, session, defaultValue);
     }
 
+    public static boolean isParquetOptimizedReaderEnabled(ConnectorSession session, boolean defaultValue)
+    {
+        return isEnabled(PARQUET_OPTIMIZED_READER_ENABLED, session, defaultValue);
+    }
+
     public static DataSize getOrcMaxMergeDistance(ConnectorSession session, DataSize defaultValue)
     {
         String maxMergeDistanceString = session.getProperties().get(ORC_MAX_MERGE_DISTANCE);
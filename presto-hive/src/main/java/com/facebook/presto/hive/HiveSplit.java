@@ -13,8 +13,8 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.spi.AffinitySplit;
 import com.facebook.presto.spi.ConnectorSession;
-import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.TupleDomain;
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -30,7 +30,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class HiveSplit
-        implements ConnectorSplit
+        implements AffinitySplit
 {
     private final String clientId;
     private final String path;
@@ -174,6 +174,12 @@ public class HiveSplit
         return !forceLocalScheduling;
     }
 
+    @Override
+    public String getAffinityKey()
+    {
+        return path + ":" + start;
+    }
+
     @Override
     public Object getInfo()
     {
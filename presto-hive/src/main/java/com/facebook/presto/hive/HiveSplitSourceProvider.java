@@ -30,9 +30,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.BlockLocation;
 import org.apache.hadoop.fs.FileStatus;
@@ -66,6 +68,7 @@ import java.util.concurrent.FutureTask;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.hadoop.HadoopFileStatus.isFile;
@@ -80,6 +83,7 @@ import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.DDL_TIME;
 
 class HiveSplitSourceProvider
 {
@@ -120,7 +124,7 @@ class HiveSplitSourceProvider
     private final DataSize maxSplitSize;
     private final int maxPartitionBatchSize;
     private final DataSize maxInitialSplitSize;
-    private long remainingInitialSplits;
+    private final AtomicLong remainingInitialSplits;
     private final ConnectorSession session;
     private final boolean recursiveDirWalkerEnabled;
     private final boolean forceLocalScheduling;
@@ -158,7 +162,7 @@ class HiveSplitSourceProvider
         this.session = session;
         this.classLoader = Thread.currentThread().getContextClassLoader();
         this.maxInitialSplitSize = maxInitialSplitSize;
-        this.remainingInitialSplits = maxInitialSplits;
+        this.remainingInitialSplits = new AtomicLong(maxInitialSplits);
         this.recursiveDirWalkerEnabled = recursiveDirWalkerEnabled;
         this.forceLocalScheduling = forceLocalScheduling;
     }
@@ -186,72 +190,14 @@ class HiveSplitSourceProvider
         return splitSource;
     }
 
-    private void loadPartitionSplits(final HiveSplitSource hiveSplitSource, SuspendingExecutor suspendingExecutor, final ConnectorSession session)
+    private void loadPartitionSplits(final HiveSplitSource hiveSplitSource, final SuspendingExecutor suspendingExecutor, final ConnectorSession session)
     {
+        final long startTime = System.nanoTime();
         final Semaphore semaphore = new Semaphore(maxPartitionBatchSize);
         try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
             ImmutableList.Builder<ListenableFuture<Void>> futureBuilder = ImmutableList.builder();
 
-            for (HivePartitionMetadata partition : partitions) {
-                final String partitionName = partition.getHivePartition().getPartitionId();
-                final Properties schema = getPartitionSchema(table, partition.getPartition());
-                final List<HivePartitionKey> partitionKeys = getPartitionKeys(table, partition.getPartition());
-                final TupleDomain<HiveColumnHandle> effectivePredicate = partition.getHivePartition().getEffectivePredicate();
-
-                Path path = new Path(getPartitionLocation(table, partition.getPartition()));
-                Configuration configuration = hdfsEnvironment.getConfiguration(path);
-                final InputFormat<?, ?> inputFormat = getInputFormat(configuration, schema, false);
-
-                if (inputFormat instanceof SymlinkTextInputFormat) {
-                    JobConf jobConf = new JobConf(configuration);
-                    FileInputFormat.setInputPaths(jobConf, path);
-                    InputSplit[] splits = inputFormat.getSplits(jobConf, 0);
-                    for (InputSplit rawSplit : splits) {
-                        FileSplit split = ((SymlinkTextInputFormat.SymlinkTextInputSplit) rawSplit).getTargetSplit();
-
-                        // get the filesystem for the target path -- it may be a different hdfs instance
-                        FileSystem targetFilesystem = hdfsEnvironment.getFileSystem(split.getPath());
-                        FileStatus fileStatus = targetFilesystem.getFileStatus(split.getPath());
-                        hiveSplitSource.addToQueue(createHiveSplits(
-                                partitionName,
-                                fileStatus,
-                                targetFilesystem.getFileBlockLocations(fileStatus, split.getStart(), split.getLength()),
-                                split.getStart(),
-                                split.getLength(),
-                                schema,
-                                partitionKeys,
-                                false,
-                                session,
-                                effectivePredicate));
-                    }
-                    continue;
-                }
-
-                // TODO: this is currently serial across all partitions and should be done in suspendingExecutor
-                FileSystem fs = hdfsEnvironment.getFileSystem(path);
-                if (bucket.isPresent()) {
-                    Optional<FileStatus> bucketFile = getBucketFile(bucket.get(), fs, path);
-                    if (bucketFile.isPresent()) {
-                        FileStatus file = bucketFile.get();
-                        BlockLocation[] blockLocations = fs.getFileBlockLocations(file, 0, file.getLen());
-                        boolean splittable = isSplittable(inputFormat, fs, file.getPath());
-
-                        hiveSplitSource.addToQueue(createHiveSplits(
-                                partitionName,
-                                file,
-                                blockLocations,
-                                0,
-                                file.getLen(),
-                                schema,
-                                partitionKeys,
-                                splittable,
-                                session,
-                                effectivePredicate));
-
-                        continue;
-                    }
-                }
-
+            for (final HivePartitionMetadata partition : partitions) {
                 // Acquire semaphore so that we only have a fixed number of outstanding partitions being processed asynchronously
                 // NOTE: there must not be any calls that throw in the space between acquiring the semaphore and setting the Future
                 // callback to release it. Otherwise, we will need a try-finally block around this section.
@@ -263,31 +209,7 @@ class HiveSplitSourceProvider
                     return;
                 }
 
-                ListenableFuture<Void> partitionFuture = createAsyncWalker(fs, suspendingExecutor).beginWalk(path, new FileStatusCallback()
-                {
-                    @Override
-                    public void process(FileStatus file, BlockLocation[] blockLocations)
-                    {
-                        try {
-                            boolean splittable = isSplittable(inputFormat, hdfsEnvironment.getFileSystem(file.getPath()), file.getPath());
-
-                            hiveSplitSource.addToQueue(createHiveSplits(
-                                    partitionName,
-                                    file,
-                                    blockLocations,
-                                    0,
-                                    file.getLen(),
-                                    schema,
-                                    partitionKeys,
-                                    splittable,
-                                    session,
-                                    effectivePredicate));
-                        }
-                        catch (IOException e) {
-                            hiveSplitSource.fail(e);
-                        }
-                    }
-                });
+                final SettableFuture<Void> partitionFuture = SettableFuture.create();
 
                 // release the semaphore when the partition finishes
                 Futures.addCallback(partitionFuture, new FutureCallback<Void>()
@@ -305,6 +227,36 @@ class HiveSplitSourceProvider
                     }
                 });
 
+                // listing, bucket file resolution and block location lookups all run in the suspendingExecutor,
+                // so partitions are loaded concurrently and stop loading while the split queue is full
+                suspendingExecutor.execute(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try (SetThreadName ignoredName = new SetThreadName("HivePartitionLoader");
+                                ThreadContextClassLoader ignoredClassLoader = new ThreadContextClassLoader(classLoader)) {
+                            Futures.addCallback(loadPartition(partition, hiveSplitSource, suspendingExecutor, session), new FutureCallback<Void>()
+                            {
+                                @Override
+                                public void onSuccess(Void result)
+                                {
+                                    partitionFuture.set(null);
+                                }
+
+                                @Override
+                                public void onFailure(Throwable t)
+                                {
+                                    partitionFuture.setException(t);
+                                }
+                            });
+                        }
+                        catch (Throwable t) {
+                            partitionFuture.setException(t);
+                        }
+                    }
+                });
+
                 futureBuilder.add(partitionFuture);
             }
 
@@ -314,6 +266,7 @@ class HiveSplitSourceProvider
                 @Override
                 public void onSuccess(List<Void> result)
                 {
+                    namenodeStats.getSplitSourceListingTime().add(Duration.nanosSince(startTime));
                     hiveSplitSource.finished();
                 }
 
@@ -330,11 +283,113 @@ class HiveSplitSourceProvider
         }
     }
 
+    private ListenableFuture<Void> loadPartition(HivePartitionMetadata partition, final HiveSplitSource hiveSplitSource, SuspendingExecutor suspendingExecutor, final ConnectorSession session)
+            throws IOException
+    {
+        final String partitionName = partition.getHivePartition().getPartitionId();
+        final Properties schema = getPartitionSchema(table, partition.getPartition());
+        final List<HivePartitionKey> partitionKeys = getPartitionKeys(table, partition.getPartition());
+        final TupleDomain<HiveColumnHandle> effectivePredicate = partition.getHivePartition().getEffectivePredicate();
+
+        Path path = new Path(getPartitionLocation(table, partition.getPartition()));
+        Configuration configuration = hdfsEnvironment.getConfiguration(path);
+        final InputFormat<?, ?> inputFormat = getInputFormat(configuration, schema, false);
+
+        if (inputFormat instanceof SymlinkTextInputFormat) {
+            JobConf jobConf = new JobConf(configuration);
+            FileInputFormat.setInputPaths(jobConf, path);
+            InputSplit[] splits = inputFormat.getSplits(jobConf, 0);
+            for (InputSplit rawSplit : splits) {
+                FileSplit split = ((SymlinkTextInputFormat.SymlinkTextInputSplit) rawSplit).getTargetSplit();
+
+                // get the filesystem for the target path -- it may be a different hdfs instance
+                FileSystem targetFilesystem = hdfsEnvironment.getFileSystem(split.getPath());
+                FileStatus fileStatus = targetFilesystem.getFileStatus(split.getPath());
+                hiveSplitSource.addToQueue(createHiveSplits(
+                        partitionName,
+                        fileStatus,
+                        targetFilesystem.getFileBlockLocations(fileStatus, split.getStart(), split.getLength()),
+                        split.getStart(),
+                        split.getLength(),
+                        schema,
+                        partitionKeys,
+                        false,
+                        session,
+                        effectivePredicate));
+            }
+            return Futures.immediateFuture(null);
+        }
+
+        FileSystem fs = hdfsEnvironment.getFileSystem(path);
+        if (bucket.isPresent()) {
+            Optional<FileStatus> bucketFile = getBucketFile(bucket.get(), fs, path);
+            if (bucketFile.isPresent()) {
+                FileStatus file = bucketFile.get();
+                BlockLocation[] blockLocations = fs.getFileBlockLocations(file, 0, file.getLen());
+                boolean splittable = isSplittable(inputFormat, fs, file.getPath());
+
+                hiveSplitSource.addToQueue(createHiveSplits(
+                        partitionName,
+                        file,
+                        blockLocations,
+                        0,
+                        file.getLen(),
+                        schema,
+                        partitionKeys,
+                        splittable,
+                        session,
+                        effectivePredicate));
+
+                return Futures.immediateFuture(null);
+            }
+        }
+
+        Optional<String> partitionVersion = getPartitionVersion(table, partition.getPartition());
+        return createAsyncWalker(fs, suspendingExecutor).beginWalk(path, partitionVersion, new FileStatusCallback()
+        {
+            @Override
+            public void process(FileStatus file, BlockLocation[] blockLocations)
+            {
+                try {
+                    boolean splittable = isSplittable(inputFormat, hdfsEnvironment.getFileSystem(file.getPath()), file.getPath());
+
+                    hiveSplitSource.addToQueue(createHiveSplits(
+                            partitionName,
+                            file,
+                            blockLocations,
+                            0,
+                            file.getLen(),
+                            schema,
+                            partitionKeys,
+                            splittable,
+                            session,
+                            effectivePredicate));
+                }
+                catch (IOException e) {
+                    hiveSplitSource.fail(e);
+                }
+            }
+        });
+    }
+
     private AsyncWalker createAsyncWalker(FileSystem fs, SuspendingExecutor suspendingExecutor)
     {
         return new AsyncWalker(fs, suspendingExecutor, directoryLister, namenodeStats, recursiveDirWalkerEnabled);
     }
 
+    /**
+     * Hive updates the last DDL time of a partition whenever it rewrites the partition, so it
+     * identifies the contents of partitions that are only written through Hive.
+     */
+    private static Optional<String> getPartitionVersion(Table table, Partition partition)
+    {
+        Map<String, String> parameters = isUnpartitioned(partition) ? table.getParameters() : partition.getParameters();
+        if (parameters == null) {
+            return Optional.absent();
+        }
+        return Optional.fromNullable(parameters.get(DDL_TIME));
+    }
+
     private static Optional<FileStatus> getBucketFile(HiveBucket bucket, FileSystem fs, Path path)
     {
         FileStatus[] statuses = listStatus(fs, path);
@@ -395,7 +450,7 @@ class HiveSplitSourceProvider
 
                 long maxBytes = maxSplitSize.toBytes();
 
-                if (remainingInitialSplits > 0) {
+                if (remainingInitialSplits.get() > 0) {
                     maxBytes = maxInitialSplitSize.toBytes();
                 }
 
@@ -424,7 +479,7 @@ class HiveSplitSourceProvider
                             effectivePredicate));
 
                     chunkOffset += chunkLength;
-                    remainingInitialSplits--;
+                    remainingInitialSplits.decrementAndGet();
                 }
                 checkState(chunkOffset == blockLocation.getLength(), "Error splitting blocks");
             }
@@ -0,0 +1,461 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.base.Throwables.propagateIfInstanceOf;
+
+/**
+ * Worker-local read-through cache for remote files. Files are split into aligned blocks of
+ * a fixed size and every block read from the remote file system is written to one of the
+ * cache directories. Later reads of the block map the local copy instead of going to the
+ * remote file system. A cached block is mapped on its first hit, and the mapping is kept
+ * with the block for later hits. Blocks are keyed by path, modification time and offset, so a
+ * rewritten file is never served from stale blocks. The least recently used blocks are
+ * evicted once the cache exceeds its maximum size.
+ */
+public class LocalBlockCache
+{
+    private static final Logger log = Logger.get(LocalBlockCache.class);
+
+    private static final String BLOCK_FILE_SUFFIX = ".block";
+
+    private final boolean enabled;
+    private final List<File> directories;
+    private final long blockSize;
+    private final Cache<BlockKey, CachedBlock> cache;
+    private final AtomicLong nextBlockId = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+
+    @Inject
+    public LocalBlockCache(HiveConnectorId connectorId, HiveClientConfig config)
+    {
+        this(config.isLocalCacheEnabled(), getConnectorDirectories(connectorId, config.getLocalCacheDirectories()), config.getLocalCacheMaxSize(), config.getLocalCacheBlockSize());
+    }
+
+    public LocalBlockCache(List<File> directories, DataSize maxSize, DataSize blockSize)
+    {
+        this(true, directories, maxSize, blockSize);
+    }
+
+    private LocalBlockCache(boolean enabled, List<File> directories, DataSize maxSize, DataSize blockSize)
+    {
+        checkNotNull(directories, "directories is null");
+        checkNotNull(maxSize, "maxSize is null");
+        checkNotNull(blockSize, "blockSize is null");
+        checkArgument(!enabled || !directories.isEmpty(), "local cache is enabled but no cache directories are configured");
+        checkArgument(blockSize.toBytes() > 0 && blockSize.toBytes() <= Integer.MAX_VALUE, "blockSize must be between 1 byte and 2GB");
+
+        this.enabled = enabled;
+        this.directories = ImmutableList.copyOf(directories);
+        this.blockSize = blockSize.toBytes();
+
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(new Weigher<BlockKey, CachedBlock>()
+                {
+                    @Override
+                    public int weigh(BlockKey key, CachedBlock block)
+                    {
+                        return key.getLength();
+                    }
+                })
+                .removalListener(new RemovalListener<BlockKey, CachedBlock>()
+                {
+                    @Override
+                    public void onRemoval(RemovalNotification<BlockKey, CachedBlock> notification)
+                    {
+                        // readers that already mapped the block keep their mapping after the file is deleted
+                        deleteBlockFile(notification.getValue().getFile());
+                    }
+                })
+                .recordStats()
+                .build();
+
+        if (enabled) {
+            // blocks left behind by a previous process are not in the index and can never be read
+            for (File directory : this.directories) {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IllegalArgumentException("Cannot create local cache directory " + directory);
+                }
+                deleteBlockFiles(directory);
+            }
+        }
+    }
+
+    public static LocalBlockCache disabled()
+    {
+        return new LocalBlockCache(false, ImmutableList.<File>of(), new DataSize(0, DataSize.Unit.BYTE), new DataSize(1, DataSize.Unit.MEGABYTE));
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Wraps the file system so that files opened through it are read through this cache.
+     * Returns the file system unchanged when the cache is disabled.
+     */
+    public FileSystem wrap(FileSystem fileSystem)
+    {
+        checkNotNull(fileSystem, "fileSystem is null");
+        if (!enabled) {
+            return fileSystem;
+        }
+        return new LocalCacheFileSystem(fileSystem, this);
+    }
+
+    /**
+     * Opens a file of the remote file system, reading it through this cache when the cache is enabled.
+     */
+    public FSDataInputStream open(FileSystem fileSystem, FileStatus fileStatus)
+            throws IOException
+    {
+        checkNotNull(fileSystem, "fileSystem is null");
+        checkNotNull(fileStatus, "fileStatus is null");
+
+        FSDataInputStream inputStream = fileSystem.open(fileStatus.getPath());
+        if (!enabled) {
+            return inputStream;
+        }
+        return new FSDataInputStream(new LocalCacheInputStream(
+                this,
+                fileStatus.getPath().toString(),
+                fileStatus.getModificationTime(),
+                fileStatus.getLen(),
+                inputStream));
+    }
+
+    long getBlockSize()
+    {
+        return blockSize;
+    }
+
+    /**
+     * Returns the block of the file starting at the specified offset, loading it from the
+     * remote file if it is not cached. The offset must be a multiple of the block size.
+     */
+    Slice getBlock(String path, long modificationTime, long offset, int length, BlockLoader loader)
+            throws IOException
+    {
+        checkArgument(offset % blockSize == 0, "offset is not aligned to the block size");
+
+        BlockKey key = new BlockKey(path, modificationTime, offset, length);
+        while (true) {
+            // concurrent readers of a missing block wait for a single load instead of each reading the remote file
+            BlockLoad load = new BlockLoad(key, loader);
+            CachedBlock block;
+            try {
+                block = cache.get(key, load);
+            }
+            catch (ExecutionException e) {
+                if (load.getData() != null) {
+                    // this thread read the block but could not write it to the cache
+                    return Slices.wrappedBuffer(load.getData());
+                }
+                if (e.getCause() instanceof BlockWriteException) {
+                    // another thread read the block but could not write it to the cache
+                    return Slices.wrappedBuffer(readBlock(key, loader));
+                }
+                propagateIfInstanceOf(e.getCause(), IOException.class);
+                throw propagate(e.getCause());
+            }
+            catch (UncheckedExecutionException | ExecutionError e) {
+                throw propagate(e.getCause());
+            }
+
+            if (load.getData() != null) {
+                return Slices.wrappedBuffer(load.getData());
+            }
+            try {
+                return block.getData();
+            }
+            catch (FileNotFoundException e) {
+                // evicted between the lookup and the mapping
+                cache.asMap().remove(key, block);
+            }
+        }
+    }
+
+    private File writeBlock(byte[] data)
+            throws BlockWriteException
+    {
+        long blockId = nextBlockId.getAndIncrement();
+        File file = new File(directories.get(Ints.checkedCast(blockId % directories.size())), blockId + BLOCK_FILE_SUFFIX);
+        try {
+            Files.write(data, file);
+        }
+        catch (IOException e) {
+            // a full or failed cache disk must not fail the query
+            writeFailures.incrementAndGet();
+            log.warn(e, "Failed to write block to local cache file %s", file);
+            deleteBlockFile(file);
+            throw new BlockWriteException(e);
+        }
+        return file;
+    }
+
+    private static byte[] readBlock(BlockKey key, BlockLoader loader)
+            throws IOException
+    {
+        byte[] data = new byte[key.getLength()];
+        loader.readFully(key.getOffset(), data);
+        return data;
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        cache.invalidateAll();
+    }
+
+    @Managed
+    public long getBlockCount()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getWriteFailures()
+    {
+        return writeFailures.get();
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    private static List<File> getConnectorDirectories(HiveConnectorId connectorId, List<String> directories)
+    {
+        // each catalog owns a subdirectory, since the blocks of a directory are deleted on startup
+        ImmutableList.Builder<File> connectorDirectories = ImmutableList.builder();
+        for (String directory : directories) {
+            connectorDirectories.add(new File(directory, connectorId.toString()));
+        }
+        return connectorDirectories.build();
+    }
+
+    private static void deleteBlockFiles(File directory)
+    {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().endsWith(BLOCK_FILE_SUFFIX)) {
+                deleteBlockFile(file);
+            }
+        }
+    }
+
+    private static void deleteBlockFile(File file)
+    {
+        if (!file.delete() && file.exists()) {
+            log.warn("Failed to delete local cache file %s", file);
+        }
+    }
+
+    interface BlockLoader
+    {
+        void readFully(long position, byte[] buffer)
+                throws IOException;
+    }
+
+    /**
+     * Reads a missing block from the remote file and writes it to a cache file. The data
+     * is kept for the thread that performed the load, so it does not have to map the file.
+     */
+    private class BlockLoad
+            implements Callable<CachedBlock>
+    {
+        private final BlockKey key;
+        private final BlockLoader loader;
+        private volatile byte[] data;
+
+        private BlockLoad(BlockKey key, BlockLoader loader)
+        {
+            this.key = key;
+            this.loader = loader;
+        }
+
+        public byte[] getData()
+        {
+            return data;
+        }
+
+        @Override
+        public CachedBlock call()
+                throws IOException
+        {
+            byte[] data = readBlock(key, loader);
+            this.data = data;
+            return new CachedBlock(writeBlock(data));
+        }
+    }
+
+    private static final class CachedBlock
+    {
+        private final File file;
+        @GuardedBy("this")
+        private Slice data;
+
+        private CachedBlock(File file)
+        {
+            this.file = file;
+        }
+
+        public File getFile()
+        {
+            return file;
+        }
+
+        public synchronized Slice getData()
+                throws IOException
+        {
+            if (data == null) {
+                data = Slices.mapFileReadOnly(file);
+            }
+            return data;
+        }
+    }
+
+    private static class BlockWriteException
+            extends IOException
+    {
+        private BlockWriteException(IOException cause)
+        {
+            super(cause);
+        }
+    }
+
+    private static final class BlockKey
+    {
+        private final String path;
+        private final long modificationTime;
+        private final long offset;
+        private final int length;
+
+        private BlockKey(String path, long modificationTime, long offset, int length)
+        {
+            this.path = checkNotNull(path, "path is null");
+            this.modificationTime = modificationTime;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, modificationTime, offset);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            BlockKey other = (BlockKey) obj;
+            return Objects.equals(this.path, other.path) &&
+                    this.modificationTime == other.modificationTime &&
+                    this.offset == other.offset;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("modificationTime", modificationTime)
+                    .add("offset", offset)
+                    .add("length", length)
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * File system whose input streams read through a {@link LocalBlockCache}, for readers
+ * such as RCFile that open the file themselves.
+ */
+class LocalCacheFileSystem
+        extends FilterFileSystem
+{
+    private final LocalBlockCache cache;
+
+    public LocalCacheFileSystem(FileSystem fileSystem, LocalBlockCache cache)
+    {
+        super(fileSystem);
+        this.cache = checkNotNull(cache, "cache is null");
+        setConf(fileSystem.getConf());
+    }
+
+    @Override
+    public FSDataInputStream open(Path path, int bufferSize)
+            throws IOException
+    {
+        return cache.open(fs, fs.getFileStatus(path));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.LocalBlockCache.BlockLoader;
+import com.google.common.primitives.Ints;
+import io.airlift.slice.Slice;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads a remote file one cache block at a time through a {@link LocalBlockCache}. The
+ * block of the last read is kept, so reads within the same block do not go to the cache.
+ */
+class LocalCacheInputStream
+        extends FSInputStream
+{
+    private final LocalBlockCache cache;
+    private final String path;
+    private final long modificationTime;
+    private final long length;
+    private final FSDataInputStream remoteStream;
+    private final BlockLoader blockLoader;
+    private long position;
+    // replaced as a whole, since positioned reads may come from several threads
+    private volatile CurrentBlock currentBlock;
+
+    public LocalCacheInputStream(LocalBlockCache cache, String path, long modificationTime, long length, final FSDataInputStream remoteStream)
+    {
+        this.cache = checkNotNull(cache, "cache is null");
+        this.path = checkNotNull(path, "path is null");
+        this.modificationTime = modificationTime;
+        checkArgument(length >= 0, "length is negative");
+        this.length = length;
+        this.remoteStream = checkNotNull(remoteStream, "remoteStream is null");
+        this.blockLoader = new BlockLoader()
+        {
+            @Override
+            public void readFully(long position, byte[] buffer)
+                    throws IOException
+            {
+                remoteStream.readFully(position, buffer);
+            }
+        };
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position >= this.length) {
+            return -1;
+        }
+
+        long blockSize = cache.getBlockSize();
+        int bytesRead = 0;
+        while (bytesRead < length && position < this.length) {
+            long blockOffset = position - (position % blockSize);
+            int blockLength = Ints.checkedCast(Math.min(blockSize, this.length - blockOffset));
+            Slice block = getBlock(blockOffset, blockLength);
+
+            int positionInBlock = (int) (position - blockOffset);
+            int chunk = Math.min(length - bytesRead, blockLength - positionInBlock);
+            block.getBytes(positionInBlock, buffer, offset + bytesRead, chunk);
+
+            bytesRead += chunk;
+            position += chunk;
+        }
+        return bytesRead;
+    }
+
+    private Slice getBlock(long blockOffset, int blockLength)
+            throws IOException
+    {
+        CurrentBlock currentBlock = this.currentBlock;
+        if (currentBlock == null || currentBlock.getOffset() != blockOffset) {
+            currentBlock = new CurrentBlock(blockOffset, cache.getBlock(path, modificationTime, blockOffset, blockLength, blockLoader));
+            this.currentBlock = currentBlock;
+        }
+        return currentBlock.getData();
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        int bytesRead = read(position, buffer, offset, length);
+        if (bytesRead > 0) {
+            position += bytesRead;
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        byte[] buffer = new byte[1];
+        if (read(buffer, 0, 1) <= 0) {
+            return -1;
+        }
+        return buffer[0] & 0xFF;
+    }
+
+    @Override
+    public void seek(long position)
+            throws IOException
+    {
+        if (position < 0 || position > length) {
+            throw new EOFException("Cannot seek to " + position + " in " + path + " of length " + length);
+        }
+        this.position = position;
+    }
+
+    @Override
+    public long getPos()
+    {
+        return position;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPosition)
+    {
+        return false;
+    }
+
+    @Override
+    public int available()
+    {
+        return Ints.saturatedCast(length - position);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        currentBlock = null;
+        remoteStream.close();
+    }
+
+    private static final class CurrentBlock
+    {
+        private final long offset;
+        private final Slice data;
+
+        private CurrentBlock(long offset, Slice data)
+        {
+            this.offset = offset;
+            this.data = data;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public Slice getData()
+        {
+            return data;
+        }
+    }
+}
@@ -24,6 +24,9 @@ public class NamenodeStats
 {
     private final CallStats listLocatedStatus = new CallStats();
     private final CallStats remoteIteratorNext = new CallStats();
+    private final TimeStat splitSourceListingTime = new TimeStat();
+    private final CounterStat directoryListingCacheHits = new CounterStat();
+    private final CounterStat directoryListingCacheMisses = new CounterStat();
 
     @Managed
     @Nested
@@ -39,6 +42,30 @@ public class NamenodeStats
         return remoteIteratorNext;
     }
 
+    /**
+     * Time from the creation of a split source until all of its partitions are listed, recorded once per query.
+     */
+    @Managed
+    @Nested
+    public TimeStat getSplitSourceListingTime()
+    {
+        return splitSourceListingTime;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDirectoryListingCacheHits()
+    {
+        return directoryListingCacheHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDirectoryListingCacheMisses()
+    {
+        return directoryListingCacheMisses;
+    }
+
     public static class CallStats
     {
         private final TimeStat time = new TimeStat();
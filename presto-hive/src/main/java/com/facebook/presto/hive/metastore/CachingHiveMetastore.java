@@ -40,7 +40,10 @@ import org.apache.hadoop.hive.common.FileUtils;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.ColumnStatistics;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.InvalidObjectException;
 import org.apache.hadoop.hive.metastore.api.InvalidOperationException;
 import org.apache.hadoop.hive.metastore.api.MetaException;
@@ -88,6 +91,7 @@ public class CachingHiveMetastore
     private final LoadingCache<String, List<String>> viewNamesCache;
     private final LoadingCache<HiveTableName, List<String>> partitionNamesCache;
     private final LoadingCache<HiveTableName, Table> tableCache;
+    private final LoadingCache<HiveTableName, Map<String, ColumnStatisticsObj>> tableColumnStatisticsCache;
     private final LoadingCache<HivePartitionName, Partition> partitionCache;
     private final LoadingCache<PartitionFilter, List<String>> partitionFilterCache;
 
@@ -161,6 +165,19 @@ public class CachingHiveMetastore
                     }
                 });
 
+        tableColumnStatisticsCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
+                .refreshAfterWrite(refreshMills, MILLISECONDS)
+                .build(new BackgroundCacheLoader<HiveTableName, Map<String, ColumnStatisticsObj>>(listeningExecutor)
+                {
+                    @Override
+                    public Map<String, ColumnStatisticsObj> load(HiveTableName hiveTableName)
+                            throws Exception
+                    {
+                        return loadTableColumnStatistics(hiveTableName);
+                    }
+                });
+
         viewNamesCache = CacheBuilder.newBuilder()
                 .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
                 .refreshAfterWrite(refreshMills, MILLISECONDS)
@@ -238,6 +255,7 @@ public class CachingHiveMetastore
         partitionNamesCache.invalidateAll();
         databaseCache.invalidateAll();
         tableCache.invalidateAll();
+        tableColumnStatisticsCache.invalidateAll();
         partitionCache.invalidateAll();
         partitionFilterCache.invalidateAll();
     }
@@ -477,6 +495,7 @@ public class CachingHiveMetastore
                         client.drop_table(databaseName, tableName, true);
                     }
                     tableCache.invalidate(new HiveTableName(databaseName, tableName));
+                    tableColumnStatisticsCache.invalidate(new HiveTableName(databaseName, tableName));
                     tableNamesCache.invalidate(databaseName);
                     viewNamesCache.invalidate(databaseName);
                     return null;
@@ -517,6 +536,8 @@ public class CachingHiveMetastore
                                 client.alter_table(databaseName, tableName, table);
                             }
                             tableCache.invalidate(new HiveTableName(databaseName, tableName));
+                            tableColumnStatisticsCache.invalidate(new HiveTableName(databaseName, tableName));
+                    tableColumnStatisticsCache.invalidate(new HiveTableName(databaseName, tableName));
                             tableNamesCache.invalidate(databaseName);
                             viewNamesCache.invalidate(databaseName);
                             return null;
@@ -565,6 +586,52 @@ public class CachingHiveMetastore
         }
     }
 
+    @Override
+    public Map<String, ColumnStatisticsObj> getTableColumnStatistics(String databaseName, String tableName)
+            throws NoSuchObjectException
+    {
+        return get(tableColumnStatisticsCache, HiveTableName.table(databaseName, tableName), NoSuchObjectException.class);
+    }
+
+    private Map<String, ColumnStatisticsObj> loadTableColumnStatistics(final HiveTableName hiveTableName)
+            throws Exception
+    {
+        final Table table = getTable(hiveTableName.getDatabaseName(), hiveTableName.getTableName());
+        try {
+            return retry().stopOn(NoSuchObjectException.class).stopOnIllegalExceptions().run("getTableColumnStatistics", stats.getGetTableColumnStatistics().wrap(new Callable<Map<String, ColumnStatisticsObj>>()
+            {
+                @Override
+                public Map<String, ColumnStatisticsObj> call()
+                        throws Exception
+                {
+                    ImmutableMap.Builder<String, ColumnStatisticsObj> columnStatistics = ImmutableMap.builder();
+                    try (HiveMetastoreClient client = clientProvider.createMetastoreClient()) {
+                        for (FieldSchema column : table.getSd().getCols()) {
+                            ColumnStatistics statistics;
+                            try {
+                                statistics = client.get_table_column_statistics(hiveTableName.getDatabaseName(), hiveTableName.getTableName(), column.getName());
+                            }
+                            catch (NoSuchObjectException e) {
+                                // the column has never been analyzed
+                                continue;
+                            }
+                            for (ColumnStatisticsObj statisticsObj : statistics.getStatsObj()) {
+                                columnStatistics.put(statisticsObj.getColName(), statisticsObj);
+                            }
+                        }
+                    }
+                    return columnStatistics.build();
+                }
+            }));
+        }
+        catch (NoSuchObjectException e) {
+            throw e;
+        }
+        catch (TException e) {
+            throw new PrestoException(HIVE_METASTORE_ERROR, e);
+        }
+    }
+
     @Override
     public List<String> getPartitionNames(String databaseName, String tableName)
             throws NoSuchObjectException
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.metastore;
 
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
@@ -55,4 +56,11 @@ public interface HiveMetastore
 
     Table getTable(String databaseName, String tableName)
             throws NoSuchObjectException;
+
+    /**
+     * Returns the statistics of the data columns of an unpartitioned table, keyed by column name.
+     * Columns without statistics are not included.
+     */
+    Map<String, ColumnStatisticsObj> getTableColumnStatistics(String databaseName, String tableName)
+            throws NoSuchObjectException;
 }
@@ -14,10 +14,12 @@
 package com.facebook.presto.hive.orc;
 
 import com.facebook.hive.orc.OrcSerde;
+import com.facebook.presto.hive.ForHiveReadAhead;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HivePageSourceFactory;
 import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.LocalBlockCache;
 import com.facebook.presto.orc.metadata.DwrfMetadataReader;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
@@ -35,6 +37,8 @@ import javax.inject.Inject;
 
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveSessionProperties.isOptimizedReaderEnabled;
@@ -48,24 +52,50 @@ public class DwrfPageSourceFactory
     private final TypeManager typeManager;
     private final boolean enabled;
     private final DataSize orcMaxMergeDistance;
+    private final OrcFileMetadataCache metadataCache;
+    private final LocalBlockCache localCache;
+    private final Optional<Executor> readAheadExecutor;
+    private final DataSize maxReadAheadSize;
 
     @Inject
-    public DwrfPageSourceFactory(TypeManager typeManager, HiveClientConfig config)
+    public DwrfPageSourceFactory(
+            TypeManager typeManager,
+            HiveClientConfig config,
+            OrcFileMetadataCache metadataCache,
+            LocalBlockCache localCache,
+            @ForHiveReadAhead ExecutorService readAheadExecutor)
     {
         //noinspection deprecation
-        this(typeManager, config.isOptimizedReaderEnabled(), config.getOrcMaxMergeDistance());
+        this(typeManager,
+                config.isOptimizedReaderEnabled(),
+                config.getOrcMaxMergeDistance(),
+                metadataCache,
+                localCache,
+                config.isOrcReadAheadEnabled() ? Optional.<Executor>of(readAheadExecutor) : Optional.<Executor>absent(),
+                config.getOrcMaxReadAheadSize());
     }
 
     public DwrfPageSourceFactory(TypeManager typeManager)
     {
-        this(typeManager, true, new DataSize(1, Unit.MEGABYTE));
+        this(typeManager, true, new DataSize(1, Unit.MEGABYTE), new OrcFileMetadataCache(new HiveClientConfig()), LocalBlockCache.disabled(), Optional.<Executor>absent(), new DataSize(0, Unit.BYTE));
     }
 
-    public DwrfPageSourceFactory(TypeManager typeManager, boolean enabled, DataSize orcMaxMergeDistance)
+    public DwrfPageSourceFactory(
+            TypeManager typeManager,
+            boolean enabled,
+            DataSize orcMaxMergeDistance,
+            OrcFileMetadataCache metadataCache,
+            LocalBlockCache localCache,
+            Optional<Executor> readAheadExecutor,
+            DataSize maxReadAheadSize)
     {
         this.typeManager = checkNotNull(typeManager, "typeManager is null");
         this.enabled = enabled;
         this.orcMaxMergeDistance = checkNotNull(orcMaxMergeDistance, "orcMaxMergeDistance is null");
+        this.metadataCache = checkNotNull(metadataCache, "metadataCache is null");
+        this.localCache = checkNotNull(localCache, "localCache is null");
+        this.readAheadExecutor = checkNotNull(readAheadExecutor, "readAheadExecutor is null");
+        this.maxReadAheadSize = checkNotNull(maxReadAheadSize, "maxReadAheadSize is null");
     }
 
     @Override
@@ -101,6 +131,10 @@ public class DwrfPageSourceFactory
                 effectivePredicate,
                 hiveStorageTimeZone,
                 typeManager,
-                getOrcMaxMergeDistance(session, orcMaxMergeDistance)));
+                getOrcMaxMergeDistance(session, orcMaxMergeDistance),
+                metadataCache,
+                localCache,
+                readAheadExecutor,
+                maxReadAheadSize));
     }
 }
@@ -37,7 +37,7 @@ public class HdfsOrcDataSource
     private final String path;
     private final long size;
     private final DataSize maxMergeDistance;
-    private long readTimeNanos;
+    private volatile long readTimeNanos;
 
     public HdfsOrcDataSource(String path, FSDataInputStream inputStream, long size, DataSize maxMergeDistance)
     {
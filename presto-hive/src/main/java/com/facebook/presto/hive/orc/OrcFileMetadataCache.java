@@ -0,0 +1,311 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.hive.HiveClientConfig;
+import com.facebook.presto.orc.OrcFileTail;
+import com.facebook.presto.orc.OrcMetadataCache;
+import com.facebook.presto.orc.metadata.BloomFilter;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.OrcType;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Shares the decoded file tails and stripe footers of ORC and DWRF files between splits.
+ * Entries are keyed by the path, length and modification time of the file, so a rewritten
+ * file is never served stale metadata. The cache is bounded by an estimate of the heap used by
+ * the decoded metadata: the compressed protobuf in the file is often an order of magnitude
+ * smaller than the objects it decodes to, so the serialized size would let the cache grow far
+ * beyond its configured limit.
+ */
+public class OrcFileMetadataCache
+{
+    private static final long FILE_TAIL = -1;
+
+    // approximate retained sizes of the decoded metadata objects, including object headers,
+    // references and the slots of the lists holding them
+    private static final int ENTRY_SIZE = 128;
+    private static final int STRIPE_INFORMATION_SIZE = 64;
+    private static final int TYPE_SIZE = 64;
+    private static final int TYPE_FIELD_SIZE = 80;
+    private static final int COLUMN_STATISTICS_SIZE = 192;
+    private static final int STREAM_SIZE = 40;
+    private static final int COLUMN_ENCODING_SIZE = 32;
+
+    private final Cache<CacheKey, CacheEntry> cache;
+
+    @Inject
+    public OrcFileMetadataCache(HiveClientConfig config)
+    {
+        this(config.getOrcMetadataCacheSize(), config.getOrcMetadataCacheTtl());
+    }
+
+    public OrcFileMetadataCache(DataSize maxSize, Duration ttl)
+    {
+        checkNotNull(maxSize, "maxSize is null");
+        checkNotNull(ttl, "ttl is null");
+
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher(new Weigher<CacheKey, CacheEntry>()
+                {
+                    @Override
+                    public int weigh(CacheKey key, CacheEntry entry)
+                    {
+                        return entry.getWeight();
+                    }
+                })
+                .expireAfterAccess(ttl.toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public OrcMetadataCache getFileMetadataCache(final String path, final long length, final long modificationTime)
+    {
+        checkNotNull(path, "path is null");
+        return new OrcMetadataCache()
+        {
+            @Override
+            public OrcFileTail getFileTail(final Callable<OrcFileTail> loader)
+                    throws IOException
+            {
+                CacheEntry entry = get(new CacheKey(path, length, modificationTime, FILE_TAIL), new Callable<CacheEntry>()
+                {
+                    @Override
+                    public CacheEntry call()
+                            throws Exception
+                    {
+                        OrcFileTail fileTail = loader.call();
+                        return new CacheEntry(fileTail, Ints.saturatedCast(estimateRetainedSize(fileTail)));
+                    }
+                });
+                return (OrcFileTail) entry.getValue();
+            }
+
+            @Override
+            public StripeFooter getStripeFooter(final StripeInformation stripe, final Callable<StripeFooter> loader)
+                    throws IOException
+            {
+                CacheEntry entry = get(new CacheKey(path, length, modificationTime, stripe.getOffset()), new Callable<CacheEntry>()
+                {
+                    @Override
+                    public CacheEntry call()
+                            throws Exception
+                    {
+                        StripeFooter stripeFooter = loader.call();
+                        return new CacheEntry(stripeFooter, Ints.saturatedCast(estimateRetainedSize(stripeFooter)));
+                    }
+                });
+                return (StripeFooter) entry.getValue();
+            }
+        };
+    }
+
+    @VisibleForTesting
+    static long estimateRetainedSize(OrcFileTail fileTail)
+    {
+        Footer footer = fileTail.getFooter();
+        long size = ENTRY_SIZE;
+        size += (long) footer.getStripes().size() * STRIPE_INFORMATION_SIZE;
+        for (OrcType type : footer.getTypes()) {
+            size += TYPE_SIZE + (long) type.getFieldCount() * TYPE_FIELD_SIZE;
+            for (String fieldName : type.getFieldNames()) {
+                size += estimateStringSize(fieldName);
+            }
+        }
+        size += estimateRetainedSize(footer.getFileStats());
+        for (StripeStatistics stripeStatistics : fileTail.getMetadata().getStripeStatsList()) {
+            size += estimateRetainedSize(stripeStatistics.getColumnStatistics());
+        }
+        return size;
+    }
+
+    @VisibleForTesting
+    static long estimateRetainedSize(StripeFooter stripeFooter)
+    {
+        return ENTRY_SIZE +
+                (long) stripeFooter.getStreams().size() * STREAM_SIZE +
+                (long) stripeFooter.getColumnEncodings().size() * COLUMN_ENCODING_SIZE;
+    }
+
+    private static long estimateRetainedSize(List<ColumnStatistics> columnStatistics)
+    {
+        long size = 0;
+        for (ColumnStatistics statistics : columnStatistics) {
+            size += COLUMN_STATISTICS_SIZE;
+            StringStatistics stringStatistics = statistics.getStringStatistics();
+            if (stringStatistics != null) {
+                size += estimateStringSize(stringStatistics.getMin()) + estimateStringSize(stringStatistics.getMax());
+            }
+            BloomFilter bloomFilter = statistics.getBloomFilter();
+            if (bloomFilter != null) {
+                size += (long) bloomFilter.getBitset().length * SIZE_OF_LONG;
+            }
+        }
+        return size;
+    }
+
+    private static long estimateStringSize(String value)
+    {
+        return value == null ? 0 : (long) value.length() * (Character.SIZE / Byte.SIZE);
+    }
+
+    private CacheEntry get(CacheKey key, Callable<CacheEntry> loader)
+            throws IOException
+    {
+        try {
+            return cache.get(key, loader);
+        }
+        catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable t = e.getCause();
+            Throwables.propagateIfInstanceOf(t, IOException.class);
+            throw Throwables.propagate(t);
+        }
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public void flushCache()
+    {
+        cache.invalidateAll();
+    }
+
+    private static final class CacheKey
+    {
+        private final String path;
+        private final long length;
+        private final long modificationTime;
+        private final long stripeOffset;
+
+        private CacheKey(String path, long length, long modificationTime, long stripeOffset)
+        {
+            this.path = path;
+            this.length = length;
+            this.modificationTime = modificationTime;
+            this.stripeOffset = stripeOffset;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, length, modificationTime, stripeOffset);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) obj;
+            return Objects.equals(this.path, other.path) &&
+                    this.length == other.length &&
+                    this.modificationTime == other.modificationTime &&
+                    this.stripeOffset == other.stripeOffset;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("length", length)
+                    .add("modificationTime", modificationTime)
+                    .add("stripeOffset", stripeOffset)
+                    .toString();
+        }
+    }
+
+    private static final class CacheEntry
+    {
+        private final Object value;
+        private final int weight;
+
+        private CacheEntry(Object value, int weight)
+        {
+            this.value = checkNotNull(value, "value is null");
+            this.weight = weight;
+        }
+
+        public Object getValue()
+        {
+            return value;
+        }
+
+        public int getWeight()
+        {
+            return weight;
+        }
+    }
+}
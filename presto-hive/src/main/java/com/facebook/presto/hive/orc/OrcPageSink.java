@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.orc.OrcWriter;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.spi.ConnectorPageSink;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.conf.Configuration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_WRITER_ERROR;
+import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Writes pages straight from their blocks to an ORC file, without going through the Hive
+ * serializer and object inspectors.
+ */
+public class OrcPageSink
+        implements ConnectorPageSink
+{
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.<Type>of(BOOLEAN, BIGINT, DOUBLE, VARCHAR, VARBINARY);
+
+    // the settings the Hive ORC writer reads when the table does not specify a compression, newest first
+    private static final List<String> COMPRESSION_PROPERTIES = ImmutableList.of("hive.exec.orc.default.compress", "hive.exec.orc.compress");
+
+    private final OrcWriter orcWriter;
+    private final int columnCount;
+    private final int sampleWeightField;
+
+    /**
+     * @param sampleWeightField the position of the sample weight column in the file, or -1 if the table is not sampled
+     */
+    public OrcPageSink(OutputStream output, List<String> columnNames, List<Type> columnTypes, int sampleWeightField, CompressionKind compression)
+    {
+        checkNotNull(output, "output is null");
+        checkNotNull(columnNames, "columnNames is null");
+        checkNotNull(columnTypes, "columnTypes is null");
+        checkNotNull(compression, "compression is null");
+        checkArgument(isSupported(columnTypes), "Unsupported column types: %s", columnTypes);
+        checkArgument(sampleWeightField < columnTypes.size(), "Invalid sample weight field %s", sampleWeightField);
+
+        this.columnCount = columnTypes.size();
+        this.sampleWeightField = sampleWeightField;
+        try {
+            this.orcWriter = new OrcWriter(output, columnNames, columnTypes, compression);
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_ERROR, "Failed to create ORC writer", e);
+        }
+    }
+
+    public static boolean isSupported(List<Type> columnTypes)
+    {
+        return SUPPORTED_TYPES.containsAll(columnTypes);
+    }
+
+    /**
+     * Returns the compression the Hive ORC writer would use with this configuration, or absent
+     * if the native writer does not support it.
+     */
+    public static Optional<CompressionKind> getCompression(Configuration configuration)
+    {
+        String compression = ZLIB.name();
+        for (String property : COMPRESSION_PROPERTIES) {
+            String value = configuration.get(property);
+            if (value != null) {
+                compression = value;
+                break;
+            }
+        }
+
+        switch (compression.toUpperCase(ENGLISH)) {
+            case "NONE":
+                return Optional.of(UNCOMPRESSED);
+            case "ZLIB":
+                return Optional.of(ZLIB);
+            case "SNAPPY":
+                return Optional.of(SNAPPY);
+            default:
+                return Optional.absent();
+        }
+    }
+
+    @Override
+    public void appendPage(Page page, Block sampleWeightBlock)
+    {
+        Block[] blocks = new Block[columnCount];
+        int channel = 0;
+        for (int field = 0; field < columnCount; field++) {
+            if (field == sampleWeightField) {
+                checkArgument(sampleWeightBlock != null, "sampleWeightBlock is null");
+                blocks[field] = sampleWeightBlock;
+            }
+            else {
+                blocks[field] = page.getBlock(channel);
+                channel++;
+            }
+        }
+        checkArgument(channel == page.getChannelCount(), "Expected page with %s channels, but got %s", channel, page.getChannelCount());
+
+        try {
+            orcWriter.write(new Page(page.getPositionCount(), blocks));
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_ERROR, "Failed to write ORC file", e);
+        }
+    }
+
+    @Override
+    public String commit()
+    {
+        try {
+            orcWriter.close();
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_WRITER_ERROR, "Failed to close ORC file", e);
+        }
+
+        return ""; // the committer can list the directory
+    }
+}
@@ -22,27 +22,33 @@ import com.facebook.presto.orc.LongVector;
 import com.facebook.presto.orc.OrcDataSource;
 import com.facebook.presto.orc.OrcRecordReader;
 import com.facebook.presto.orc.SliceVector;
-import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.ReadAheadPageSource;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.block.LazyBlockLoader;
 import com.facebook.presto.spi.block.LazyFixedWidthBlock;
 import com.facebook.presto.spi.block.LazySliceArrayBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.block.SelectiveLazyBlockLoader;
+import com.facebook.presto.spi.block.SliceArrayBlock;
 import com.facebook.presto.spi.type.FixedWidthType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.ISODateTimeFormat;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -69,6 +75,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Maps.uniqueIndex;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
 import static io.airlift.slice.Slices.wrappedBooleanArray;
 import static io.airlift.slice.Slices.wrappedDoubleArray;
 import static io.airlift.slice.Slices.wrappedLongArray;
@@ -76,7 +83,7 @@ import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 public class OrcPageSource
-        implements ConnectorPageSource
+        implements ReadAheadPageSource
 {
     private static final long MILLIS_IN_DAY = TimeUnit.DAYS.toMillis(1);
 
@@ -90,6 +97,10 @@ public class OrcPageSource
     private final Block[] constantBlocks;
     private final int[] hiveColumnIndexes;
 
+    // the dictionary block is reused for every batch read from the same dictionary
+    private final Slice[][] dictionaryValues;
+    private final Block[] dictionaryBlocks;
+
     private long completedBytes;
 
     private int batchId;
@@ -114,6 +125,8 @@ public class OrcPageSource
 
         this.constantBlocks = new Block[size];
         this.hiveColumnIndexes = new int[size];
+        this.dictionaryValues = new Slice[size][];
+        this.dictionaryBlocks = new Block[size];
 
         ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
         ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
@@ -140,9 +153,7 @@ public class OrcPageSource
                 BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
 
                 if (HiveUtil.isHiveNull(bytes)) {
-                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                        blockBuilder.appendNull();
-                    }
+                    blockBuilder.appendNull();
                 }
                 else if (type.equals(BOOLEAN)) {
                     boolean value;
@@ -156,58 +167,44 @@ public class OrcPageSource
                         String valueString = new String(bytes, Charsets.UTF_8);
                         throw new IllegalArgumentException(String.format("Invalid partition value '%s' for BOOLEAN partition key %s", valueString, name));
                     }
-                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                        BOOLEAN.writeBoolean(blockBuilder, value);
-                    }
+                    BOOLEAN.writeBoolean(blockBuilder, value);
                 }
                 else if (type.equals(BIGINT)) {
                     if (bytes.length == 0) {
                         throw new IllegalArgumentException(String.format("Invalid partition value '' for BIGINT partition key %s", name));
                     }
                     long value = parseLong(bytes, 0, bytes.length);
-                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                        BIGINT.writeLong(blockBuilder, value);
-                    }
+                    BIGINT.writeLong(blockBuilder, value);
                 }
                 else if (type.equals(DOUBLE)) {
                     if (bytes.length == 0) {
                         throw new IllegalArgumentException(String.format("Invalid partition value '' for DOUBLE partition key %s", name));
                     }
                     double value = parseDouble(bytes, 0, bytes.length);
-                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                        DOUBLE.writeDouble(blockBuilder, value);
-                    }
+                    DOUBLE.writeDouble(blockBuilder, value);
                 }
                 else if (type.equals(VARCHAR)) {
                     Slice value = Slices.wrappedBuffer(bytes);
-                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                        VARCHAR.writeSlice(blockBuilder, value);
-                    }
+                    VARCHAR.writeSlice(blockBuilder, value);
                 }
                 else if (type.equals(DATE)) {
                     long value = ISODateTimeFormat.date().withZone(DateTimeZone.UTC).parseMillis(partitionKey.getValue());
-                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                        DATE.writeLong(blockBuilder, value);
-                    }
+                    DATE.writeLong(blockBuilder, value);
                 }
                 else if (type.equals(TIMESTAMP)) {
                     long value = parseHiveTimestamp(partitionKey.getValue(), hiveStorageTimeZone);
-                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                        DATE.writeLong(blockBuilder, value);
-                    }
+                    DATE.writeLong(blockBuilder, value);
                 }
                 else {
                     throw new UnsupportedOperationException("Partition key " + name + " had an unsupported column type " + type);
                 }
 
-                constantBlocks[columnIndex] = blockBuilder.build();
+                constantBlocks[columnIndex] = new RunLengthEncodedBlock(blockBuilder.build(), MAX_VECTOR_LENGTH);
             }
             else if (!recordReader.isColumnPresent(column.getHiveColumnIndex())) {
                 BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
-                for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
-                    blockBuilder.appendNull();
-                }
-                constantBlocks[columnIndex] = blockBuilder.build();
+                blockBuilder.appendNull();
+                constantBlocks[columnIndex] = new RunLengthEncodedBlock(blockBuilder.build(), MAX_VECTOR_LENGTH);
             }
         }
         types = typesBuilder.build();
@@ -238,6 +235,32 @@ public class OrcPageSource
         return closed;
     }
 
+    @Override
+    public boolean isReady(Runnable listener)
+    {
+        if (closed) {
+            return true;
+        }
+        ListenableFuture<?> blocked = recordReader.isBlocked();
+        if (blocked.isDone()) {
+            return true;
+        }
+        blocked.addListener(listener, sameThreadExecutor());
+        return false;
+    }
+
+    @Override
+    public long getPrefetchedBytes()
+    {
+        return recordReader.getPrefetchedBytes();
+    }
+
+    @Override
+    public long getWastedPrefetchBytes()
+    {
+        return recordReader.getWastedPrefetchBytes();
+    }
+
     @Override
     public Page getNextPage()
     {
@@ -267,6 +290,10 @@ public class OrcPageSource
                 else if (DOUBLE.equals(type)) {
                     blocks[fieldId] = new LazyFixedWidthBlock(DOUBLE.getFixedSize(), batchSize, new LazyDoubleBlockLoader(hiveColumnIndexes[fieldId], batchSize));
                 }
+                else if (VARCHAR.equals(type) && recordReader.isDictionaryEncoded(hiveColumnIndexes[fieldId])) {
+                    // dictionary ids are cheap to decode, so they are read eagerly
+                    blocks[fieldId] = readDictionaryBlock(fieldId, batchSize);
+                }
                 else if (VARCHAR.equals(type) || VARBINARY.equals(type) || isStructuralType[fieldId]) {
                     blocks[fieldId] = new LazySliceArrayBlock(batchSize, new LazySliceBlockLoader(hiveColumnIndexes[fieldId]));
                 }
@@ -287,6 +314,20 @@ public class OrcPageSource
         }
     }
 
+    private Block readDictionaryBlock(int fieldId, int batchSize)
+            throws IOException
+    {
+        SliceVector vector = new SliceVector();
+        recordReader.readVector(hiveColumnIndexes[fieldId], vector);
+        checkState(vector.dictionary != null, "Dictionary encoded column was read without a dictionary");
+
+        if (vector.dictionary != dictionaryValues[fieldId]) {
+            dictionaryValues[fieldId] = vector.dictionary;
+            dictionaryBlocks[fieldId] = new SliceArrayBlock(vector.dictionary.length, vector.dictionary);
+        }
+        return new DictionaryBlock(batchSize, dictionaryBlocks[fieldId], Arrays.copyOf(vector.ids, batchSize));
+    }
+
     @Override
     public void close()
     {
@@ -445,7 +486,7 @@ public class OrcPageSource
     }
 
     private final class LazySliceBlockLoader
-            implements LazyBlockLoader<LazySliceArrayBlock>
+            implements SelectiveLazyBlockLoader<LazySliceArrayBlock>
     {
         private final int expectedBatchId = batchId;
 
@@ -469,5 +510,22 @@ public class OrcPageSource
                 throw Throwables.propagate(e);
             }
         }
+
+        @Override
+        public void load(LazySliceArrayBlock block, int[] positions, int positionCount)
+        {
+            checkState(batchId == expectedBatchId);
+            try {
+                SliceVector vector = new SliceVector();
+                // when no position is selected the column is skipped along with the next batch
+                if (positionCount > 0) {
+                    recordReader.readVector(hiveColumnIndex, vector, positions, positionCount);
+                }
+                block.setValues(vector.vector);
+            }
+            catch (IOException e) {
+                throw Throwables.propagate(e);
+            }
+        }
     }
 }
@@ -13,13 +13,16 @@
  */
 package com.facebook.presto.hive.orc;
 
+import com.facebook.presto.hive.ForHiveReadAhead;
 import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HivePageSourceFactory;
 import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.LocalBlockCache;
 import com.facebook.presto.orc.TupleDomainOrcPredicate;
 import com.facebook.presto.orc.TupleDomainOrcPredicate.ColumnReference;
 import com.facebook.presto.orc.OrcDataSource;
+import com.facebook.presto.orc.OrcMetadataCache;
 import com.facebook.presto.orc.OrcPredicate;
 import com.facebook.presto.orc.OrcReader;
 import com.facebook.presto.orc.OrcRecordReader;
@@ -38,6 +41,7 @@ import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
@@ -49,6 +53,8 @@ import javax.inject.Inject;
 import java.io.IOException;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveSessionProperties.getOrcMaxMergeDistance;
 import static com.facebook.presto.hive.HiveSessionProperties.isOptimizedReaderEnabled;
@@ -61,24 +67,50 @@ public class OrcPageSourceFactory
     private final TypeManager typeManager;
     private final boolean enabled;
     private final DataSize orcMaxMergeDistance;
+    private final OrcFileMetadataCache metadataCache;
+    private final LocalBlockCache localCache;
+    private final Optional<Executor> readAheadExecutor;
+    private final DataSize maxReadAheadSize;
 
     @Inject
-    public OrcPageSourceFactory(TypeManager typeManager, HiveClientConfig config)
+    public OrcPageSourceFactory(
+            TypeManager typeManager,
+            HiveClientConfig config,
+            OrcFileMetadataCache metadataCache,
+            LocalBlockCache localCache,
+            @ForHiveReadAhead ExecutorService readAheadExecutor)
     {
         //noinspection deprecation
-        this(typeManager, config.isOptimizedReaderEnabled(), config.getOrcMaxMergeDistance());
+        this(typeManager,
+                config.isOptimizedReaderEnabled(),
+                config.getOrcMaxMergeDistance(),
+                metadataCache,
+                localCache,
+                config.isOrcReadAheadEnabled() ? Optional.<Executor>of(readAheadExecutor) : Optional.<Executor>absent(),
+                config.getOrcMaxReadAheadSize());
     }
 
     public OrcPageSourceFactory(TypeManager typeManager)
     {
-        this(typeManager, true, new DataSize(1, Unit.MEGABYTE));
+        this(typeManager, true, new DataSize(1, Unit.MEGABYTE), new OrcFileMetadataCache(new HiveClientConfig()), LocalBlockCache.disabled(), Optional.<Executor>absent(), new DataSize(0, Unit.BYTE));
     }
 
-    public OrcPageSourceFactory(TypeManager typeManager, boolean enabled, DataSize orcMaxMergeDistance)
+    public OrcPageSourceFactory(
+            TypeManager typeManager,
+            boolean enabled,
+            DataSize orcMaxMergeDistance,
+            OrcFileMetadataCache metadataCache,
+            LocalBlockCache localCache,
+            Optional<Executor> readAheadExecutor,
+            DataSize maxReadAheadSize)
     {
         this.typeManager = checkNotNull(typeManager, "typeManager is null");
         this.enabled = enabled;
         this.orcMaxMergeDistance = checkNotNull(orcMaxMergeDistance, "orcMaxMergeDistance is null");
+        this.metadataCache = checkNotNull(metadataCache, "metadataCache is null");
+        this.localCache = checkNotNull(localCache, "localCache is null");
+        this.readAheadExecutor = checkNotNull(readAheadExecutor, "readAheadExecutor is null");
+        this.maxReadAheadSize = checkNotNull(maxReadAheadSize, "maxReadAheadSize is null");
     }
 
     @Override
@@ -115,7 +147,11 @@ public class OrcPageSourceFactory
                 effectivePredicate,
                 hiveStorageTimeZone,
                 typeManager,
-                getOrcMaxMergeDistance(session, orcMaxMergeDistance)));
+                getOrcMaxMergeDistance(session, orcMaxMergeDistance),
+                metadataCache,
+                localCache,
+                readAheadExecutor,
+                maxReadAheadSize));
     }
 
     public static OrcPageSource createOrcPageSource(MetadataReader metadataReader,
@@ -128,14 +164,21 @@ public class OrcPageSourceFactory
             TupleDomain<HiveColumnHandle> effectivePredicate,
             DateTimeZone hiveStorageTimeZone,
             TypeManager typeManager,
-            DataSize maxMergeDistance)
+            DataSize maxMergeDistance,
+            OrcFileMetadataCache metadataCache,
+            LocalBlockCache localCache,
+            Optional<Executor> readAheadExecutor,
+            DataSize maxReadAheadSize)
     {
         OrcDataSource orcDataSource;
+        OrcMetadataCache fileMetadataCache;
         try {
             FileSystem fileSystem = path.getFileSystem(configuration);
-            long size = fileSystem.getFileStatus(path).getLen();
-            FSDataInputStream inputStream = fileSystem.open(path);
+            FileStatus fileStatus = fileSystem.getFileStatus(path);
+            long size = fileStatus.getLen();
+            FSDataInputStream inputStream = localCache.open(fileSystem, fileStatus);
             orcDataSource = new HdfsOrcDataSource(path.toString(), inputStream, size, maxMergeDistance);
+            fileMetadataCache = metadataCache.getFileMetadataCache(path.toString(), size, fileStatus.getModificationTime());
         }
         catch (Exception e) {
             throw Throwables.propagate(e);
@@ -154,13 +197,15 @@ public class OrcPageSourceFactory
         OrcPredicate predicate = new TupleDomainOrcPredicate<>(effectivePredicate, columnReferences.build());
 
         try {
-            OrcReader reader = new OrcReader(orcDataSource, metadataReader);
+            OrcReader reader = new OrcReader(orcDataSource, metadataReader, fileMetadataCache);
             OrcRecordReader recordReader = reader.createRecordReader(
                     includedColumns.build(),
                     predicate,
                     start,
                     length,
-                    hiveStorageTimeZone);
+                    hiveStorageTimeZone,
+                    readAheadExecutor,
+                    maxReadAheadSize);
 
             return new OrcPageSource(
                     recordReader,
@@ -0,0 +1,442 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.HiveUtil;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.FixedWidthBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.block.SliceArrayBlock;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.base.Charsets;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.ISODateTimeFormat;
+import parquet.column.ColumnDescriptor;
+import parquet.column.ColumnReader;
+import parquet.column.impl.ColumnReadStoreImpl;
+import parquet.column.page.PageReadStore;
+import parquet.hadoop.ParquetFileReader;
+import parquet.io.api.Converter;
+import parquet.io.api.GroupConverter;
+import parquet.io.api.PrimitiveConverter;
+import parquet.schema.MessageType;
+import parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.hive.HiveBooleanParser.isFalse;
+import static com.facebook.presto.hive.HiveBooleanParser.isTrue;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
+import static com.facebook.presto.hive.HiveUtil.parseHiveTimestamp;
+import static com.facebook.presto.hive.NumberParser.parseDouble;
+import static com.facebook.presto.hive.NumberParser.parseLong;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static io.airlift.slice.Slices.wrappedBooleanArray;
+import static io.airlift.slice.Slices.wrappedDoubleArray;
+import static io.airlift.slice.Slices.wrappedLongArray;
+import static java.lang.Math.min;
+
+/**
+ * Decodes the projected top level primitive columns of a Parquet file directly into blocks.
+ * Each column chunk is read with its own {@link ColumnReader}, so no record is ever assembled.
+ */
+public class ParquetPageSource
+        implements ConnectorPageSource
+{
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private static final GroupConverter NULL_CONVERTER = new GroupConverter()
+    {
+        private final PrimitiveConverter primitiveConverter = new PrimitiveConverter() {};
+
+        @Override
+        public Converter getConverter(int fieldIndex)
+        {
+            // values are read directly from the column readers, so the converters are never called
+            return primitiveConverter;
+        }
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void end()
+        {
+        }
+    };
+
+    private final ParquetFileReader parquetReader;
+    private final MessageType requestedSchema;
+    private final long totalBytes;
+    private final long totalRowCount;
+
+    private final List<String> columnNames;
+    private final List<Type> types;
+
+    private final Block[] constantBlocks;
+    private final ColumnDescriptor[] columnDescriptors;
+    private final ColumnReader[] columnReaders;
+
+    private long completedRowCount;
+    private long rowGroupRemainingRowCount;
+    private boolean closed;
+
+    public ParquetPageSource(
+            ParquetFileReader parquetReader,
+            MessageType requestedSchema,
+            long totalBytes,
+            long totalRowCount,
+            List<HivePartitionKey> partitionKeys,
+            List<HiveColumnHandle> columns,
+            DateTimeZone hiveStorageTimeZone,
+            TypeManager typeManager)
+    {
+        this.parquetReader = checkNotNull(parquetReader, "parquetReader is null");
+        this.requestedSchema = checkNotNull(requestedSchema, "requestedSchema is null");
+        checkArgument(totalBytes >= 0, "totalBytes is negative");
+        this.totalBytes = totalBytes;
+        checkArgument(totalRowCount >= 0, "totalRowCount is negative");
+        this.totalRowCount = totalRowCount;
+
+        Map<String, HivePartitionKey> partitionKeysByName = uniqueIndex(checkNotNull(partitionKeys, "partitionKeys is null"), HivePartitionKey.nameGetter());
+
+        int size = checkNotNull(columns, "columns is null").size();
+
+        this.constantBlocks = new Block[size];
+        this.columnDescriptors = new ColumnDescriptor[size];
+        this.columnReaders = new ColumnReader[size];
+
+        ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            HiveColumnHandle column = columns.get(columnIndex);
+
+            String name = column.getName();
+            Type type = typeManager.getType(column.getTypeSignature());
+
+            namesBuilder.add(name);
+            typesBuilder.add(type);
+
+            if (column.isPartitionKey()) {
+                HivePartitionKey partitionKey = partitionKeysByName.get(name);
+                checkArgument(partitionKey != null, "No value provided for partition key %s", name);
+
+                byte[] bytes = partitionKey.getValue().getBytes(Charsets.UTF_8);
+
+                BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
+
+                if (HiveUtil.isHiveNull(bytes)) {
+                    blockBuilder.appendNull();
+                }
+                else if (type.equals(BOOLEAN)) {
+                    boolean value;
+                    if (isTrue(bytes, 0, bytes.length)) {
+                        value = true;
+                    }
+                    else if (isFalse(bytes, 0, bytes.length)) {
+                        value = false;
+                    }
+                    else {
+                        String valueString = new String(bytes, Charsets.UTF_8);
+                        throw new IllegalArgumentException(String.format("Invalid partition value '%s' for BOOLEAN partition key %s", valueString, name));
+                    }
+                    BOOLEAN.writeBoolean(blockBuilder, value);
+                }
+                else if (type.equals(BIGINT)) {
+                    if (bytes.length == 0) {
+                        throw new IllegalArgumentException(String.format("Invalid partition value '' for BIGINT partition key %s", name));
+                    }
+                    long value = parseLong(bytes, 0, bytes.length);
+                    BIGINT.writeLong(blockBuilder, value);
+                }
+                else if (type.equals(DOUBLE)) {
+                    if (bytes.length == 0) {
+                        throw new IllegalArgumentException(String.format("Invalid partition value '' for DOUBLE partition key %s", name));
+                    }
+                    double value = parseDouble(bytes, 0, bytes.length);
+                    DOUBLE.writeDouble(blockBuilder, value);
+                }
+                else if (type.equals(VARCHAR)) {
+                    Slice value = Slices.wrappedBuffer(bytes);
+                    VARCHAR.writeSlice(blockBuilder, value);
+                }
+                else if (type.equals(DATE)) {
+                    long value = ISODateTimeFormat.date().withZone(DateTimeZone.UTC).parseMillis(partitionKey.getValue());
+                    DATE.writeLong(blockBuilder, value);
+                }
+                else if (type.equals(TIMESTAMP)) {
+                    long value = parseHiveTimestamp(partitionKey.getValue(), hiveStorageTimeZone);
+                    TIMESTAMP.writeLong(blockBuilder, value);
+                }
+                else {
+                    throw new UnsupportedOperationException("Partition key " + name + " had an unsupported column type " + type);
+                }
+
+                constantBlocks[columnIndex] = new RunLengthEncodedBlock(blockBuilder.build(), MAX_BATCH_SIZE);
+            }
+            else if (!requestedSchema.containsField(name)) {
+                // the column was added to the table after this file was written
+                BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
+                blockBuilder.appendNull();
+                constantBlocks[columnIndex] = new RunLengthEncodedBlock(blockBuilder.build(), MAX_BATCH_SIZE);
+            }
+            else {
+                columnDescriptors[columnIndex] = requestedSchema.getColumnDescription(new String[] {name});
+            }
+        }
+        types = typesBuilder.build();
+        columnNames = namesBuilder.build();
+    }
+
+    @Override
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        if (totalRowCount == 0) {
+            return totalBytes;
+        }
+        return (long) (totalBytes * ((double) completedRowCount / totalRowCount));
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed;
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        try {
+            if (closed) {
+                return null;
+            }
+
+            if (rowGroupRemainingRowCount == 0 && !advanceToNextRowGroup()) {
+                close();
+                return null;
+            }
+
+            int batchSize = (int) min(MAX_BATCH_SIZE, rowGroupRemainingRowCount);
+
+            Block[] blocks = new Block[columnDescriptors.length];
+            for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+                Type type = types.get(fieldId);
+                if (constantBlocks[fieldId] != null) {
+                    blocks[fieldId] = constantBlocks[fieldId].getRegion(0, batchSize);
+                }
+                else if (BOOLEAN.equals(type)) {
+                    blocks[fieldId] = readBooleanBlock(fieldId, batchSize);
+                }
+                else if (BIGINT.equals(type)) {
+                    blocks[fieldId] = readLongBlock(fieldId, batchSize);
+                }
+                else if (DOUBLE.equals(type)) {
+                    blocks[fieldId] = readDoubleBlock(fieldId, batchSize);
+                }
+                else if (VARCHAR.equals(type)) {
+                    blocks[fieldId] = readSliceBlock(fieldId, batchSize);
+                }
+                else {
+                    throw new UnsupportedOperationException("Unsupported column type: " + type);
+                }
+            }
+
+            rowGroupRemainingRowCount -= batchSize;
+            completedRowCount += batchSize;
+
+            return new Page(batchSize, blocks);
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_CURSOR_ERROR, e);
+        }
+    }
+
+    private boolean advanceToNextRowGroup()
+            throws IOException
+    {
+        PageReadStore rowGroup = parquetReader.readNextRowGroup();
+        while (rowGroup != null && rowGroup.getRowCount() == 0) {
+            rowGroup = parquetReader.readNextRowGroup();
+        }
+        if (rowGroup == null) {
+            return false;
+        }
+
+        rowGroupRemainingRowCount = rowGroup.getRowCount();
+
+        ColumnReadStoreImpl columnReadStore = new ColumnReadStoreImpl(rowGroup, NULL_CONVERTER, requestedSchema);
+        for (int fieldId = 0; fieldId < columnDescriptors.length; fieldId++) {
+            if (columnDescriptors[fieldId] != null) {
+                columnReaders[fieldId] = columnReadStore.getColumnReader(columnDescriptors[fieldId]);
+            }
+        }
+        return true;
+    }
+
+    private Block readBooleanBlock(int fieldId, int batchSize)
+    {
+        ColumnReader columnReader = columnReaders[fieldId];
+        int maxDefinitionLevel = columnDescriptors[fieldId].getMaxDefinitionLevel();
+
+        boolean[] values = new boolean[batchSize];
+        boolean[] isNull = new boolean[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            if (columnReader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                isNull[i] = true;
+            }
+            else {
+                values[i] = columnReader.getBoolean();
+            }
+            columnReader.consume();
+        }
+        return new FixedWidthBlock(BOOLEAN.getFixedSize(), batchSize, wrappedBooleanArray(values), isNull);
+    }
+
+    private Block readLongBlock(int fieldId, int batchSize)
+    {
+        ColumnReader columnReader = columnReaders[fieldId];
+        ColumnDescriptor descriptor = columnDescriptors[fieldId];
+        int maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+        boolean isInt32 = descriptor.getType() == PrimitiveTypeName.INT32;
+
+        long[] values = new long[batchSize];
+        boolean[] isNull = new boolean[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            if (columnReader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                isNull[i] = true;
+            }
+            else if (isInt32) {
+                values[i] = columnReader.getInteger();
+            }
+            else {
+                values[i] = columnReader.getLong();
+            }
+            columnReader.consume();
+        }
+        return new FixedWidthBlock(BIGINT.getFixedSize(), batchSize, wrappedLongArray(values), isNull);
+    }
+
+    private Block readDoubleBlock(int fieldId, int batchSize)
+    {
+        ColumnReader columnReader = columnReaders[fieldId];
+        ColumnDescriptor descriptor = columnDescriptors[fieldId];
+        int maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+        boolean isFloat = descriptor.getType() == PrimitiveTypeName.FLOAT;
+
+        double[] values = new double[batchSize];
+        boolean[] isNull = new boolean[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            if (columnReader.getCurrentDefinitionLevel() < maxDefinitionLevel) {
+                isNull[i] = true;
+            }
+            else if (isFloat) {
+                values[i] = columnReader.getFloat();
+            }
+            else {
+                values[i] = columnReader.getDouble();
+            }
+            columnReader.consume();
+        }
+        return new FixedWidthBlock(DOUBLE.getFixedSize(), batchSize, wrappedDoubleArray(values), isNull);
+    }
+
+    private Block readSliceBlock(int fieldId, int batchSize)
+    {
+        ColumnReader columnReader = columnReaders[fieldId];
+        int maxDefinitionLevel = columnDescriptors[fieldId].getMaxDefinitionLevel();
+
+        Slice[] values = new Slice[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+                values[i] = Slices.wrappedBuffer(columnReader.getBinary().getBytes());
+            }
+            columnReader.consume();
+        }
+        return new SliceArrayBlock(batchSize, values);
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            parquetReader.close();
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columnNames", columnNames)
+                .add("types", types)
+                .toString();
+    }
+
+    protected void closeWithSuppression(Throwable throwable)
+    {
+        checkNotNull(throwable, "throwable is null");
+        try {
+            close();
+        }
+        catch (RuntimeException e) {
+            throwable.addSuppressed(e);
+        }
+    }
+}
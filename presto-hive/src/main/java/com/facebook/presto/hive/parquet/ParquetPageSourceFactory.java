@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.HiveClientConfig;
+import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.hive.HivePageSourceFactory;
+import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.HiveType;
+import com.facebook.presto.hive.parquet.TupleDomainParquetPredicate.ColumnReference;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe;
+import org.apache.hadoop.hive.serde2.Deserializer;
+import org.joda.time.DateTimeZone;
+import parquet.column.ColumnDescriptor;
+import parquet.hadoop.ParquetFileReader;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.schema.MessageType;
+
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static com.facebook.presto.hive.HiveSessionProperties.isParquetOptimizedReaderEnabled;
+import static com.facebook.presto.hive.HiveType.HIVE_BOOLEAN;
+import static com.facebook.presto.hive.HiveType.HIVE_BYTE;
+import static com.facebook.presto.hive.HiveType.HIVE_DOUBLE;
+import static com.facebook.presto.hive.HiveType.HIVE_FLOAT;
+import static com.facebook.presto.hive.HiveType.HIVE_INT;
+import static com.facebook.presto.hive.HiveType.HIVE_LONG;
+import static com.facebook.presto.hive.HiveType.HIVE_SHORT;
+import static com.facebook.presto.hive.HiveType.HIVE_STRING;
+import static com.facebook.presto.hive.HiveUtil.getDeserializer;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class ParquetPageSourceFactory
+        implements HivePageSourceFactory
+{
+    private static final Set<HiveType> SUPPORTED_TYPES = ImmutableSet.of(HIVE_BOOLEAN, HIVE_BYTE, HIVE_SHORT, HIVE_INT, HIVE_LONG, HIVE_FLOAT, HIVE_DOUBLE, HIVE_STRING);
+
+    private final TypeManager typeManager;
+    private final boolean enabled;
+
+    @Inject
+    public ParquetPageSourceFactory(TypeManager typeManager, HiveClientConfig config)
+    {
+        this(typeManager, config.isParquetOptimizedReaderEnabled());
+    }
+
+    public ParquetPageSourceFactory(TypeManager typeManager)
+    {
+        this(typeManager, true);
+    }
+
+    public ParquetPageSourceFactory(TypeManager typeManager, boolean enabled)
+    {
+        this.typeManager = checkNotNull(typeManager, "typeManager is null");
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Optional<? extends ConnectorPageSource> createPageSource(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            Properties schema,
+            List<HiveColumnHandle> columns,
+            List<HivePartitionKey> partitionKeys,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            DateTimeZone hiveStorageTimeZone)
+    {
+        if (!isParquetOptimizedReaderEnabled(session, enabled)) {
+            return Optional.absent();
+        }
+
+        @SuppressWarnings("deprecation")
+        Deserializer deserializer = getDeserializer(schema);
+        if (!(deserializer instanceof ParquetHiveSerDe)) {
+            return Optional.absent();
+        }
+
+        // nested columns are still read with the record cursor
+        for (HiveColumnHandle column : columns) {
+            if (!column.isPartitionKey() && !SUPPORTED_TYPES.contains(column.getHiveType())) {
+                return Optional.absent();
+            }
+        }
+
+        return Optional.of(createParquetPageSource(
+                configuration,
+                path,
+                start,
+                length,
+                columns,
+                partitionKeys,
+                effectivePredicate,
+                hiveStorageTimeZone,
+                typeManager));
+    }
+
+    public static ParquetPageSource createParquetPageSource(
+            Configuration configuration,
+            Path path,
+            long start,
+            long length,
+            List<HiveColumnHandle> columns,
+            List<HivePartitionKey> partitionKeys,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            DateTimeZone hiveStorageTimeZone,
+            TypeManager typeManager)
+    {
+        try {
+            ParquetMetadata parquetMetadata = ParquetFileReader.readFooter(configuration, path);
+            MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+
+            ImmutableList.Builder<parquet.schema.Type> fields = ImmutableList.builder();
+            ImmutableList.Builder<ColumnReference<HiveColumnHandle>> columnReferences = ImmutableList.builder();
+            for (HiveColumnHandle column : columns) {
+                if (!column.isPartitionKey() && column.getHiveColumnIndex() < fileSchema.getFieldCount()) {
+                    parquet.schema.Type field = fileSchema.getType(column.getName());
+                    fields.add(field);
+
+                    ColumnDescriptor descriptor = fileSchema.getColumnDescription(new String[] {field.getName()});
+                    int ordinal = fileSchema.getColumns().indexOf(descriptor);
+                    columnReferences.add(new ColumnReference<>(column, ordinal, typeManager.getType(column.getTypeSignature())));
+                }
+            }
+            MessageType requestedSchema = new MessageType(fileSchema.getName(), fields.build());
+
+            TupleDomainParquetPredicate<HiveColumnHandle> predicate = new TupleDomainParquetPredicate<>(effectivePredicate, columnReferences.build());
+
+            // a row group belongs to the split containing its first data page
+            ImmutableList.Builder<BlockMetaData> rowGroups = ImmutableList.builder();
+            long rowCount = 0;
+            for (BlockMetaData block : parquetMetadata.getBlocks()) {
+                long firstDataPage = block.getColumns().get(0).getFirstDataPageOffset();
+                if (firstDataPage >= start && firstDataPage < start + length && predicate.matches(block)) {
+                    rowGroups.add(block);
+                    rowCount += block.getRowCount();
+                }
+            }
+
+            ParquetFileReader parquetReader = new ParquetFileReader(configuration, path, rowGroups.build(), requestedSchema.getColumns());
+
+            return new ParquetPageSource(
+                    parquetReader,
+                    requestedSchema,
+                    length,
+                    rowCount,
+                    partitionKeys,
+                    columns,
+                    hiveStorageTimeZone,
+                    typeManager);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+}
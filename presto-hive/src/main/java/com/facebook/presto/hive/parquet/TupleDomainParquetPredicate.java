@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+import parquet.column.statistics.BooleanStatistics;
+import parquet.column.statistics.DoubleStatistics;
+import parquet.column.statistics.FloatStatistics;
+import parquet.column.statistics.IntStatistics;
+import parquet.column.statistics.LongStatistics;
+import parquet.column.statistics.Statistics;
+import parquet.hadoop.metadata.BlockMetaData;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Decides from the column chunk statistics in the file footer whether a row group can contain rows matching the predicate.
+ */
+public class TupleDomainParquetPredicate<C>
+{
+    private final TupleDomain<C> effectivePredicate;
+    private final List<ColumnReference<C>> columnReferences;
+
+    public TupleDomainParquetPredicate(TupleDomain<C> effectivePredicate, List<ColumnReference<C>> columnReferences)
+    {
+        this.effectivePredicate = checkNotNull(effectivePredicate, "effectivePredicate is null");
+        this.columnReferences = ImmutableList.copyOf(checkNotNull(columnReferences, "columnReferences is null"));
+    }
+
+    public boolean matches(BlockMetaData rowGroup)
+    {
+        ImmutableMap.Builder<C, Domain> domains = ImmutableMap.builder();
+
+        for (ColumnReference<C> columnReference : columnReferences) {
+            Statistics<?> statistics = rowGroup.getColumns().get(columnReference.getOrdinal()).getStatistics();
+            domains.put(columnReference.getColumn(), getDomain(columnReference.getType(), rowGroup.getRowCount(), statistics));
+        }
+        TupleDomain<C> rowGroupDomain = TupleDomain.withColumnDomains(domains.build());
+
+        return effectivePredicate.overlaps(rowGroupDomain);
+    }
+
+    private static Domain getDomain(Type type, long rowCount, Statistics<?> statistics)
+    {
+        Class<?> boxedJavaType = Primitives.wrap(type.getJavaType());
+        if (rowCount == 0) {
+            return Domain.none(boxedJavaType);
+        }
+
+        if (statistics == null) {
+            return Domain.all(boxedJavaType);
+        }
+
+        if (statistics.getNumNulls() == rowCount) {
+            return Domain.onlyNull(boxedJavaType);
+        }
+
+        // files written before statistics were added to the format have empty statistics
+        if (statistics.isEmpty()) {
+            return Domain.all(boxedJavaType);
+        }
+
+        boolean hasNullValue = statistics.getNumNulls() != 0;
+
+        if (boxedJavaType == Boolean.class && statistics instanceof BooleanStatistics) {
+            BooleanStatistics booleanStatistics = (BooleanStatistics) statistics;
+            if (booleanStatistics.getMin() == booleanStatistics.getMax()) {
+                return Domain.create(SortedRangeSet.singleValue(booleanStatistics.getMin()), hasNullValue);
+            }
+        }
+        else if (boxedJavaType == Long.class && statistics instanceof IntStatistics) {
+            IntStatistics intStatistics = (IntStatistics) statistics;
+            return createDomain(hasNullValue, (long) intStatistics.getMin(), (long) intStatistics.getMax());
+        }
+        else if (boxedJavaType == Long.class && statistics instanceof LongStatistics) {
+            LongStatistics longStatistics = (LongStatistics) statistics;
+            return createDomain(hasNullValue, longStatistics.getMin(), longStatistics.getMax());
+        }
+        else if (boxedJavaType == Double.class && statistics instanceof FloatStatistics) {
+            FloatStatistics floatStatistics = (FloatStatistics) statistics;
+            if (!Float.isNaN(floatStatistics.getMin()) && !Float.isNaN(floatStatistics.getMax())) {
+                return createDomain(hasNullValue, (double) floatStatistics.getMin(), (double) floatStatistics.getMax());
+            }
+        }
+        else if (boxedJavaType == Double.class && statistics instanceof DoubleStatistics) {
+            DoubleStatistics doubleStatistics = (DoubleStatistics) statistics;
+            if (!Double.isNaN(doubleStatistics.getMin()) && !Double.isNaN(doubleStatistics.getMax())) {
+                return createDomain(hasNullValue, doubleStatistics.getMin(), doubleStatistics.getMax());
+            }
+        }
+        // binary statistics are not used: older writers compare signed bytes, which does not match the ordering of varchar
+        return Domain.create(SortedRangeSet.all(boxedJavaType), hasNullValue);
+    }
+
+    private static <T extends Comparable<T>> Domain createDomain(boolean hasNullValue, T min, T max)
+    {
+        return Domain.create(SortedRangeSet.of(Range.range(min, true, max, true)), hasNullValue);
+    }
+
+    public static class ColumnReference<C>
+    {
+        private final C column;
+        private final int ordinal;
+        private final Type type;
+
+        public ColumnReference(C column, int ordinal, Type type)
+        {
+            this.column = checkNotNull(column, "column is null");
+            checkArgument(ordinal >= 0, "ordinal is negative");
+            this.ordinal = ordinal;
+            this.type = checkNotNull(type, "type is null");
+        }
+
+        public C getColumn()
+        {
+            return column;
+        }
+
+        /**
+         * Position of the column chunk within a row group, which is the position of the column in the file schema.
+         */
+        public int getOrdinal()
+        {
+            return ordinal;
+        }
+
+        public Type getType()
+        {
+            return type;
+        }
+
+        @Override
+        public String toString()
+        {
+            return MoreObjects.toStringHelper(this)
+                    .add("column", column)
+                    .add("ordinal", ordinal)
+                    .add("type", type)
+                    .toString();
+        }
+    }
+}
@@ -26,6 +26,7 @@ import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.LazyBlockLoader;
 import com.facebook.presto.spi.block.LazyFixedWidthBlock;
 import com.facebook.presto.spi.block.LazySliceArrayBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.FixedWidthType;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
@@ -170,9 +171,7 @@ public class RcFilePageSource
                 BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
 
                 if (HiveUtil.isHiveNull(bytes)) {
-                    for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                        blockBuilder.appendNull();
-                    }
+                    blockBuilder.appendNull();
                 }
                 else if (type.equals(BOOLEAN)) {
                     boolean value;
@@ -186,60 +185,46 @@ public class RcFilePageSource
                         String valueString = new String(bytes, Charsets.UTF_8);
                         throw new IllegalArgumentException(String.format("Invalid partition value '%s' for BOOLEAN partition key %s", valueString, name));
                     }
-                    for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                        BOOLEAN.writeBoolean(blockBuilder, value);
-                    }
+                    BOOLEAN.writeBoolean(blockBuilder, value);
                 }
                 else if (type.equals(BIGINT)) {
                     if (bytes.length == 0) {
                         throw new IllegalArgumentException(String.format("Invalid partition value '' for BIGINT partition key %s", name));
                     }
                     long value = parseLong(bytes, 0, bytes.length);
-                    for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                        BIGINT.writeLong(blockBuilder, value);
-                    }
+                    BIGINT.writeLong(blockBuilder, value);
                 }
                 else if (type.equals(DOUBLE)) {
                     if (bytes.length == 0) {
                         throw new IllegalArgumentException(String.format("Invalid partition value '' for DOUBLE partition key %s", name));
                     }
                     double value = parseDouble(bytes, 0, bytes.length);
-                    for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                        DOUBLE.writeDouble(blockBuilder, value);
-                    }
+                    DOUBLE.writeDouble(blockBuilder, value);
                 }
                 else if (type.equals(VARCHAR)) {
                     Slice value = Slices.wrappedBuffer(bytes);
-                    for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                        VARCHAR.writeSlice(blockBuilder, value);
-                    }
+                    VARCHAR.writeSlice(blockBuilder, value);
                 }
                 else if (type.equals(DATE)) {
                     long value = ISODateTimeFormat.date().withZone(DateTimeZone.UTC).parseMillis(partitionKey.getValue());
-                    for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                        DATE.writeLong(blockBuilder, value);
-                    }
+                    DATE.writeLong(blockBuilder, value);
                 }
                 else if (TIMESTAMP.equals(type)) {
                     long value = parseHiveTimestamp(partitionKey.getValue(), hiveStorageTimeZone);
-                    for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                        DATE.writeLong(blockBuilder, value);
-                    }
+                    DATE.writeLong(blockBuilder, value);
                 }
                 else {
                     throw new UnsupportedOperationException("Partition key " + name + " had an unsupported column type " + type);
                 }
 
-                constantBlocks[columnIndex] = blockBuilder.build();
+                constantBlocks[columnIndex] = new RunLengthEncodedBlock(blockBuilder.build(), MAX_PAGE_SIZE);
             }
             else if (hiveColumnIndexes[columnIndex] >= recordReader.getCurrentKeyBufferObj().getColumnNumber()) {
                 // this partition may contain fewer fields than what's declared in the schema
                 // this happens when additional columns are added to the hive table after a partition has been created
                 BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus());
-                for (int i = 0; i < MAX_PAGE_SIZE; i++) {
-                    blockBuilder.appendNull();
-                }
-                constantBlocks[columnIndex] = blockBuilder.build();
+                blockBuilder.appendNull();
+                constantBlocks[columnIndex] = new RunLengthEncodedBlock(blockBuilder.build(), MAX_PAGE_SIZE);
             }
         }
         types = typesBuilder.build();
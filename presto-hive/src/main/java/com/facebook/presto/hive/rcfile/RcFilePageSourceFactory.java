@@ -17,6 +17,7 @@ import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
 import com.facebook.presto.hive.HivePageSourceFactory;
 import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.LocalBlockCache;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.TupleDomain;
@@ -53,23 +54,25 @@ public class RcFilePageSourceFactory
 {
     private final TypeManager typeManager;
     private final boolean enabled;
+    private final LocalBlockCache localCache;
 
     @Inject
-    public RcFilePageSourceFactory(TypeManager typeManager, HiveClientConfig config)
+    public RcFilePageSourceFactory(TypeManager typeManager, HiveClientConfig config, LocalBlockCache localCache)
     {
         //noinspection deprecation
-        this(typeManager, config.isOptimizedReaderEnabled());
+        this(typeManager, config.isOptimizedReaderEnabled(), localCache);
     }
 
     public RcFilePageSourceFactory(TypeManager typeManager)
     {
-        this(typeManager, true);
+        this(typeManager, true, LocalBlockCache.disabled());
     }
 
-    public RcFilePageSourceFactory(TypeManager typeManager, boolean enabled)
+    public RcFilePageSourceFactory(TypeManager typeManager, boolean enabled, LocalBlockCache localCache)
     {
         this.typeManager = checkNotNull(typeManager, "typeManager is null");
         this.enabled = enabled;
+        this.localCache = checkNotNull(localCache, "localCache is null");
     }
 
     @Override
@@ -120,7 +123,7 @@ public class RcFilePageSourceFactory
 
         RCFile.Reader recordReader;
         try {
-            FileSystem fileSystem = path.getFileSystem(configuration);
+            FileSystem fileSystem = localCache.wrap(path.getFileSystem(configuration));
             recordReader = new RCFile.Reader(fileSystem, path, configuration);
         }
         catch (Exception e) {
@@ -15,6 +15,7 @@ package com.facebook.presto.hive.util;
 
 import com.facebook.presto.hive.DirectoryLister;
 import com.facebook.presto.hive.NamenodeStats;
+import com.google.common.base.Optional;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.concurrent.SetThreadName;
@@ -56,12 +57,18 @@ public class AsyncWalker
 
     public ListenableFuture<Void> beginWalk(Path path, FileStatusCallback callback)
     {
+        return beginWalk(path, Optional.<String>absent(), callback);
+    }
+
+    public ListenableFuture<Void> beginWalk(Path path, Optional<String> partitionVersion, FileStatusCallback callback)
+    {
+        checkNotNull(partitionVersion, "partitionVersion is null");
         SettableFuture<Void> future = SettableFuture.create();
-        recursiveWalk(path, callback, new AtomicLong(), future);
+        recursiveWalk(path, partitionVersion, callback, new AtomicLong(), future);
         return future;
     }
 
-    private void recursiveWalk(final Path path, final FileStatusCallback callback, final AtomicLong taskCount, final SettableFuture<Void> future)
+    private void recursiveWalk(final Path path, final Optional<String> partitionVersion, final FileStatusCallback callback, final AtomicLong taskCount, final SettableFuture<Void> future)
     {
         taskCount.incrementAndGet();
         try {
@@ -70,7 +77,7 @@ public class AsyncWalker
                 @Override
                 public void run()
                 {
-                    doWalk(path, callback, taskCount, future);
+                    doWalk(path, partitionVersion, callback, taskCount, future);
                 }
             });
         }
@@ -79,10 +86,10 @@ public class AsyncWalker
         }
     }
 
-    private void doWalk(Path path, FileStatusCallback callback, AtomicLong taskCount, SettableFuture<Void> future)
+    private void doWalk(Path path, Optional<String> partitionVersion, FileStatusCallback callback, AtomicLong taskCount, SettableFuture<Void> future)
     {
         try (SetThreadName ignored = new SetThreadName("HiveHdfsWalker")) {
-            RemoteIterator<LocatedFileStatus> iterator = getLocatedFileStatusRemoteIterator(path);
+            RemoteIterator<LocatedFileStatus> iterator = getLocatedFileStatusRemoteIterator(path, partitionVersion);
 
             while (iterator.hasNext()) {
                 LocatedFileStatus status = getLocatedFileStatus(iterator);
@@ -96,7 +103,7 @@ public class AsyncWalker
                     callback.process(status, status.getBlockLocations());
                 }
                 else if (recursive) {
-                    recursiveWalk(status.getPath(), callback, taskCount, future);
+                    recursiveWalk(status.getPath(), partitionVersion, callback, taskCount, future);
                 }
                 if (future.isDone()) {
                     return;
@@ -116,11 +123,11 @@ public class AsyncWalker
         }
     }
 
-    private RemoteIterator<LocatedFileStatus> getLocatedFileStatusRemoteIterator(Path path)
+    private RemoteIterator<LocatedFileStatus> getLocatedFileStatusRemoteIterator(Path path, Optional<String> partitionVersion)
             throws IOException
     {
         try (TimeStat.BlockTimer timer = namenodeStats.getListLocatedStatus().time()) {
-            return directoryLister.list(fileSystem, path);
+            return directoryLister.list(fileSystem, path, partitionVersion);
         }
         catch (IOException | RuntimeException e) {
             namenodeStats.getListLocatedStatus().recordException(e);
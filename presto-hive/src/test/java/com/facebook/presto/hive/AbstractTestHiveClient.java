@@ -25,6 +25,8 @@ import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorPageSink;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorPartition;
@@ -37,6 +39,7 @@ import com.facebook.presto.spi.ConnectorSplitSource;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.RecordSink;
@@ -176,6 +179,7 @@ public abstract class AbstractTestHiveClient
     protected ConnectorSplitManager splitManager;
     protected ConnectorPageSourceProvider pageSourceProvider;
     protected ConnectorRecordSinkProvider recordSinkProvider;
+    protected ConnectorPageSinkProvider pageSinkProvider;
     protected ExecutorService executor;
 
     @BeforeClass
@@ -313,6 +317,7 @@ public abstract class AbstractTestHiveClient
         metadata = client;
         splitManager = client;
         recordSinkProvider = client;
+        pageSinkProvider = client;
 
         pageSourceProvider = new HivePageSourceProvider(hiveClientConfig, hdfsEnvironment, DEFAULT_HIVE_RECORD_CURSOR_PROVIDER, DEFAULT_HIVE_DATA_STREAM_FACTORIES, TYPE_MANAGER);
     }
@@ -1251,32 +1256,31 @@ public abstract class AbstractTestHiveClient
         ConnectorOutputTableHandle outputHandle = metadata.beginCreateTable(session, tableMetadata);
 
         // write the records
-        RecordSink sink = recordSinkProvider.getRecordSink(outputHandle);
-
-        sink.beginRecord(1);
-        sink.appendLong(1);
-        sink.appendString("hello".getBytes(UTF_8));
-        sink.appendLong(123);
-        sink.appendDouble(43.5);
-        sink.appendBoolean(true);
-        sink.finishRecord();
-
-        sink.beginRecord(1);
-        sink.appendLong(2);
-        sink.appendNull();
-        sink.appendNull();
-        sink.appendNull();
-        sink.appendNull();
-        sink.finishRecord();
-
-        sink.beginRecord(1);
-        sink.appendLong(3);
-        sink.appendString("bye".getBytes(UTF_8));
-        sink.appendLong(456);
-        sink.appendDouble(98.1);
-        sink.appendBoolean(false);
-        sink.finishRecord();
-
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT, VARCHAR, BIGINT, DOUBLE, BOOLEAN));
+
+        pageBuilder.declarePosition();
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(0), 1);
+        VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice("hello"));
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(2), 123);
+        DOUBLE.writeDouble(pageBuilder.getBlockBuilder(3), 43.5);
+        BOOLEAN.writeBoolean(pageBuilder.getBlockBuilder(4), true);
+
+        pageBuilder.declarePosition();
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(0), 2);
+        pageBuilder.getBlockBuilder(1).appendNull();
+        pageBuilder.getBlockBuilder(2).appendNull();
+        pageBuilder.getBlockBuilder(3).appendNull();
+        pageBuilder.getBlockBuilder(4).appendNull();
+
+        pageBuilder.declarePosition();
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(0), 3);
+        VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice("bye"));
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(2), 456);
+        DOUBLE.writeDouble(pageBuilder.getBlockBuilder(3), 98.1);
+        BOOLEAN.writeBoolean(pageBuilder.getBlockBuilder(4), false);
+
+        ConnectorPageSink sink = pageSinkProvider.createPageSink(outputHandle);
+        sink.appendPage(pageBuilder.build(), null);
         String fragment = sink.commit();
 
         // commit the table
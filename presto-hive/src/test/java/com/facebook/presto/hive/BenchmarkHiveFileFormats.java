@@ -18,6 +18,7 @@ import com.facebook.presto.hive.orc.DwrfPageSourceFactory;
 import com.facebook.presto.hive.orc.DwrfRecordCursorProvider;
 import com.facebook.presto.hive.orc.OrcPageSourceFactory;
 import com.facebook.presto.hive.orc.OrcRecordCursorProvider;
+import com.facebook.presto.hive.parquet.ParquetPageSourceFactory;
 import com.facebook.presto.hive.rcfile.RcFilePageSourceFactory;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
@@ -208,6 +209,7 @@ public final class BenchmarkHiveFileFormats
                                 .add(new ParquetRecordCursorProvider())
                                 .build(),
                         ImmutableList.<HivePageSourceFactory>builder()
+                                .add(new ParquetPageSourceFactory(TYPE_MANAGER))
                                 .build()))
 
                 .add(new BenchmarkFile(
@@ -0,0 +1,173 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocatedFileStatus;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RemoteIterator;
+import org.testng.annotations.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.fail;
+
+public class TestCachingDirectoryLister
+{
+    private static final Path PATH = new Path("s3://bucket/table/ds=2014-11-01");
+    private static final List<LocatedFileStatus> FILES = ImmutableList.of(
+            locatedFileStatus(new Path(PATH, "file1")),
+            locatedFileStatus(new Path(PATH, "file2")));
+
+    @Test
+    public void testListingIsReusedForSamePartitionVersion()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        NamenodeStats stats = new NamenodeStats();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, stats, new Duration(1, TimeUnit.HOURS), 100);
+
+        assertEquals(toList(lister.list(null, PATH, Optional.of("1000"))), FILES);
+        assertEquals(toList(lister.list(null, PATH, Optional.of("1000"))), FILES);
+
+        assertEquals(delegate.getListCount(), 1);
+        assertEquals(stats.getDirectoryListingCacheHits().getTotalCount(), 1);
+        assertEquals(stats.getDirectoryListingCacheMisses().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testChangedPartitionIsListedAgain()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new NamenodeStats(), new Duration(1, TimeUnit.HOURS), 100);
+
+        toList(lister.list(null, PATH, Optional.of("1000")));
+        toList(lister.list(null, PATH, Optional.of("2000")));
+        toList(lister.list(null, PATH, Optional.of("2000")));
+
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testUnversionedPartitionIsNotCached()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        NamenodeStats stats = new NamenodeStats();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, stats, new Duration(1, TimeUnit.HOURS), 100);
+
+        toList(lister.list(null, PATH, Optional.<String>absent()));
+        toList(lister.list(null, PATH, Optional.<String>absent()));
+
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(lister.getSize(), 0);
+        assertEquals(stats.getDirectoryListingCacheMisses().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new NamenodeStats(), new Duration(0, TimeUnit.SECONDS), 100);
+
+        toList(lister.list(null, PATH, Optional.of("1000")));
+        toList(lister.list(null, PATH, Optional.of("1000")));
+
+        assertEquals(delegate.getListCount(), 2);
+    }
+
+    @Test
+    public void testFailedListingIsNotCached()
+            throws Exception
+    {
+        CountingDirectoryLister delegate = new CountingDirectoryLister();
+        CachingDirectoryLister lister = new CachingDirectoryLister(delegate, new NamenodeStats(), new Duration(1, TimeUnit.HOURS), 100);
+
+        Path missing = new Path(PATH, "missing");
+        for (int i = 0; i < 2; i++) {
+            try {
+                lister.list(null, missing, Optional.of("1000"));
+                fail("expected FileNotFoundException");
+            }
+            catch (FileNotFoundException expected) {
+            }
+        }
+        assertEquals(delegate.getListCount(), 2);
+        assertEquals(lister.getSize(), 0);
+    }
+
+    private static List<LocatedFileStatus> toList(RemoteIterator<LocatedFileStatus> iterator)
+            throws IOException
+    {
+        ImmutableList.Builder<LocatedFileStatus> files = ImmutableList.builder();
+        while (iterator.hasNext()) {
+            files.add(iterator.next());
+        }
+        return files.build();
+    }
+
+    private static LocatedFileStatus locatedFileStatus(Path path)
+    {
+        return new LocatedFileStatus(new FileStatus(100, false, 1, 64 * 1024 * 1024, 0, path), new BlockLocation[0]);
+    }
+
+    private static class CountingDirectoryLister
+            implements DirectoryLister
+    {
+        private int listCount;
+
+        @Override
+        public RemoteIterator<LocatedFileStatus> list(FileSystem fs, Path path, Optional<String> partitionVersion)
+                throws IOException
+        {
+            listCount++;
+            if (!path.equals(PATH)) {
+                throw new FileNotFoundException(path.toString());
+            }
+
+            final Iterator<LocatedFileStatus> iterator = FILES.iterator();
+            return new RemoteIterator<LocatedFileStatus>()
+            {
+                @Override
+                public boolean hasNext()
+                {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public LocatedFileStatus next()
+                {
+                    return iterator.next();
+                }
+            };
+        }
+
+        public int getListCount()
+        {
+            return listCount;
+        }
+    }
+}
@@ -48,6 +48,8 @@ public class TestHiveClientConfig
                 .setAllowCorruptWritesForTesting(false)
                 .setMetastoreCacheTtl(new Duration(1, TimeUnit.HOURS))
                 .setMetastoreRefreshInterval(new Duration(2, TimeUnit.MINUTES))
+                .setDirectoryListingCacheTtl(new Duration(0, TimeUnit.SECONDS))
+                .setDirectoryListingCacheMaxEntries(10_000)
                 .setMaxMetastoreRefreshThreads(100)
                 .setMetastoreSocksProxy(null)
                 .setMetastoreTimeout(new Duration(10, TimeUnit.SECONDS))
@@ -77,7 +79,17 @@ public class TestHiveClientConfig
                 .setS3MaxConnections(500)
                 .setS3StagingDirectory(new File(StandardSystemProperty.JAVA_IO_TMPDIR.value()))
                 .setOptimizedReaderEnabled(true)
-                .setOrcMaxMergeDistance(new DataSize(1, Unit.MEGABYTE)));
+                .setOrcMaxMergeDistance(new DataSize(1, Unit.MEGABYTE))
+                .setOrcMetadataCacheSize(new DataSize(64, Unit.MEGABYTE))
+                .setOrcMetadataCacheTtl(new Duration(1, TimeUnit.HOURS))
+                .setOrcReadAheadEnabled(false)
+                .setOrcMaxReadAheadSize(new DataSize(8, Unit.MEGABYTE))
+                .setOrcReadAheadThreads(16)
+                .setParquetOptimizedReaderEnabled(false)
+                .setLocalCacheEnabled(false)
+                .setLocalCacheDirectories("")
+                .setLocalCacheMaxSize(new DataSize(10, Unit.GIGABYTE))
+                .setLocalCacheBlockSize(new DataSize(1, Unit.MEGABYTE)));
     }
 
     @Test
@@ -94,6 +106,8 @@ public class TestHiveClientConfig
                 .put("hive.allow-corrupt-writes-for-testing", "true")
                 .put("hive.metastore-cache-ttl", "2h")
                 .put("hive.metastore-refresh-interval", "30m")
+                .put("hive.directory-listing-cache-ttl", "5m")
+                .put("hive.directory-listing-cache-max-entries", "500")
                 .put("hive.metastore-refresh-max-threads", "2500")
                 .put("hive.metastore.thrift.client.socks-proxy", "localhost:1080")
                 .put("hive.metastore-timeout", "20s")
@@ -124,6 +138,16 @@ public class TestHiveClientConfig
                 .put("hive.s3.staging-directory", "/s3-staging")
                 .put("hive.optimized-reader.enabled", "false")
                 .put("hive.orc.max-merge-distance", "22kB")
+                .put("hive.orc.metadata-cache-size", "3MB")
+                .put("hive.orc.metadata-cache-ttl", "10m")
+                .put("hive.orc.read-ahead.enabled", "true")
+                .put("hive.orc.max-read-ahead-size", "16MB")
+                .put("hive.orc.read-ahead-threads", "4")
+                .put("hive.parquet-optimized-reader.enabled", "true")
+                .put("hive.local-cache.enabled", "true")
+                .put("hive.local-cache.directories", "/ssd1/presto,/ssd2/presto")
+                .put("hive.local-cache.max-size", "200GB")
+                .put("hive.local-cache.block-size", "4MB")
                 .build();
 
         HiveClientConfig expected = new HiveClientConfig()
@@ -137,6 +161,8 @@ public class TestHiveClientConfig
                 .setAllowCorruptWritesForTesting(true)
                 .setMetastoreCacheTtl(new Duration(2, TimeUnit.HOURS))
                 .setMetastoreRefreshInterval(new Duration(30, TimeUnit.MINUTES))
+                .setDirectoryListingCacheTtl(new Duration(5, TimeUnit.MINUTES))
+                .setDirectoryListingCacheMaxEntries(500)
                 .setMaxMetastoreRefreshThreads(2500)
                 .setMetastoreSocksProxy(HostAndPort.fromParts("localhost", 1080))
                 .setMetastoreTimeout(new Duration(20, TimeUnit.SECONDS))
@@ -166,7 +192,17 @@ public class TestHiveClientConfig
                 .setS3MaxConnections(77)
                 .setS3StagingDirectory(new File("/s3-staging"))
                 .setOptimizedReaderEnabled(false)
-                .setOrcMaxMergeDistance(new DataSize(22, Unit.KILOBYTE));
+                .setOrcMaxMergeDistance(new DataSize(22, Unit.KILOBYTE))
+                .setOrcMetadataCacheSize(new DataSize(3, Unit.MEGABYTE))
+                .setOrcMetadataCacheTtl(new Duration(10, TimeUnit.MINUTES))
+                .setOrcReadAheadEnabled(true)
+                .setOrcMaxReadAheadSize(new DataSize(16, Unit.MEGABYTE))
+                .setOrcReadAheadThreads(4)
+                .setParquetOptimizedReaderEnabled(true)
+                .setLocalCacheEnabled(true)
+                .setLocalCacheDirectories(ImmutableList.of("/ssd1/presto", "/ssd2/presto"))
+                .setLocalCacheMaxSize(new DataSize(200, Unit.GIGABYTE))
+                .setLocalCacheBlockSize(new DataSize(4, Unit.MEGABYTE));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -17,9 +17,11 @@ import com.facebook.presto.hive.orc.DwrfPageSourceFactory;
 import com.facebook.presto.hive.orc.DwrfRecordCursorProvider;
 import com.facebook.presto.hive.orc.OrcPageSourceFactory;
 import com.facebook.presto.hive.orc.OrcRecordCursorProvider;
+import com.facebook.presto.hive.parquet.ParquetPageSourceFactory;
 import com.facebook.presto.hive.rcfile.RcFilePageSourceFactory;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.Domain;
 import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.TimeZoneKey;
 import com.facebook.presto.type.TypeRegistry;
@@ -27,6 +29,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hive.ql.io.HiveOutputFormat;
 import org.apache.hadoop.hive.ql.io.RCFileInputFormat;
@@ -40,6 +43,7 @@ import org.apache.hadoop.hive.serde2.columnar.LazyBinaryColumnarSerDe;
 import org.apache.hadoop.hive.serde2.objectinspector.ListObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.MapObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
@@ -67,6 +71,8 @@ import static java.util.Locale.ENGLISH;
 import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.FILE_INPUT_FORMAT;
 import static org.apache.hadoop.hive.serde.serdeConstants.SERIALIZATION_LIB;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 public class TestHiveFileFormats
         extends AbstractTestHiveFileFormats
@@ -242,6 +248,90 @@ public class TestHiveFileFormats
         }
     }
 
+    @Test
+    public void testParquetPageSource()
+            throws Exception
+    {
+        List<TestColumn> testColumns = getParquetPageSourceTestColumns();
+
+        HiveOutputFormat<?, ?> outputFormat = new MapredParquetOutputFormat();
+        InputFormat<?, ?> inputFormat = new MapredParquetInputFormat();
+        @SuppressWarnings("deprecation")
+        SerDe serde = new ParquetHiveSerDe();
+        File file = File.createTempFile("presto_test", "parquet");
+        file.delete();
+        try {
+            FileSplit split = createTestFile(file.getAbsolutePath(), outputFormat, serde, null, testColumns);
+            testPageSourceFactory(new ParquetPageSourceFactory(TYPE_MANAGER), split, inputFormat, serde, testColumns);
+        }
+        finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParquetPageSourceSkipsRowGroups()
+            throws Exception
+    {
+        List<TestColumn> testColumns = ImmutableList.copyOf(filter(getParquetPageSourceTestColumns(), not(partitionKeyFilter())));
+
+        HiveOutputFormat<?, ?> outputFormat = new MapredParquetOutputFormat();
+        @SuppressWarnings("deprecation")
+        SerDe serde = new ParquetHiveSerDe();
+        File file = File.createTempFile("presto_test", "parquet");
+        file.delete();
+        try {
+            FileSplit split = createTestFile(file.getAbsolutePath(), outputFormat, serde, null, testColumns);
+            List<HiveColumnHandle> columnHandles = getColumnHandles(testColumns);
+
+            HiveColumnHandle bigintColumn = null;
+            for (HiveColumnHandle columnHandle : columnHandles) {
+                if (columnHandle.getName().equals("t_bigint")) {
+                    bigintColumn = columnHandle;
+                }
+            }
+
+            // every row has t_bigint = 4, so the statistics exclude the only row group
+            TupleDomain<HiveColumnHandle> effectivePredicate = TupleDomain.withColumnDomains(ImmutableMap.of(bigintColumn, Domain.singleValue(5L)));
+            ConnectorPageSource pageSource = ParquetPageSourceFactory.createParquetPageSource(
+                    new Configuration(),
+                    split.getPath(),
+                    split.getStart(),
+                    split.getLength(),
+                    columnHandles,
+                    ImmutableList.<HivePartitionKey>of(),
+                    effectivePredicate,
+                    DateTimeZone.getDefault(),
+                    TYPE_MANAGER);
+            assertNull(pageSource.getNextPage());
+            assertTrue(pageSource.isFinished());
+        }
+        finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
+    private static List<TestColumn> getParquetPageSourceTestColumns()
+    {
+        return ImmutableList.copyOf(filter(TEST_COLUMNS, new Predicate<TestColumn>()
+        {
+            @Override
+            public boolean apply(TestColumn testColumn)
+            {
+                if (testColumn.isPartitionKey()) {
+                    return true;
+                }
+
+                // the page source only reads primitive columns, and Parquet does not support DATE, TIMESTAMP, or BINARY
+                ObjectInspector objectInspector = testColumn.getObjectInspector();
+                return objectInspector.getCategory() == Category.PRIMITIVE &&
+                        !hasType(objectInspector, PrimitiveCategory.DATE, PrimitiveCategory.TIMESTAMP, PrimitiveCategory.BINARY);
+            }
+        }));
+    }
+
     @Test
     public void testDwrf()
             throws Exception
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.metastore.InMemoryHiveMetastore;
+import com.facebook.presto.spi.ConnectorColumnHandle;
+import com.facebook.presto.spi.ConnectorPartition;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorTableHandle;
+import com.facebook.presto.spi.SchemaTableName;
+import com.facebook.presto.spi.SerializableNativeValue;
+import com.facebook.presto.spi.TableStatistics;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.type.TypeRegistry;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.spi.type.TimeZoneKey.UTC_KEY;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.Locale.ENGLISH;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestHiveTableStatistics
+{
+    private static final ConnectorSession SESSION = new ConnectorSession("user", UTC_KEY, ENGLISH, System.currentTimeMillis(), null);
+    private static final String DATABASE = "test";
+    private static final String TABLE = "partitioned";
+
+    private PartitionRecordingMetastore metastore;
+    private HiveClient client;
+    private ConnectorTableHandle tableHandle;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        metastore = new PartitionRecordingMetastore(ImmutableMap.of(
+                "ds=2015-01-01", partition("2015-01-01", "10"),
+                "ds=2015-01-02", partition("2015-01-02", "20"),
+                "ds=2015-01-03", partition("2015-01-03", "-1")));
+
+        Table table = new Table();
+        table.setDbName(DATABASE);
+        table.setTableName(TABLE);
+        table.setTableType(TableType.MANAGED_TABLE.name());
+        table.setPartitionKeys(ImmutableList.of(new FieldSchema("ds", "string", null)));
+        table.setParameters(ImmutableMap.<String, String>of());
+        metastore.createTable(table);
+
+        HiveClientConfig hiveClientConfig = new HiveClientConfig();
+        client = new HiveClient(
+                new HiveConnectorId("hive"),
+                metastore,
+                new NamenodeStats(),
+                new HdfsEnvironment(new HdfsConfiguration(hiveClientConfig)),
+                new HadoopDirectoryLister(),
+                DateTimeZone.UTC,
+                sameThreadExecutor(),
+                hiveClientConfig.getMaxSplitSize(),
+                hiveClientConfig.getMaxOutstandingSplits(),
+                hiveClientConfig.getMaxSplitIteratorThreads(),
+                hiveClientConfig.getMinPartitionBatchSize(),
+                hiveClientConfig.getMaxPartitionBatchSize(),
+                hiveClientConfig.getMaxInitialSplitSize(),
+                hiveClientConfig.getMaxInitialSplits(),
+                false,
+                false,
+                false,
+                false,
+                hiveClientConfig.getHiveStorageFormat(),
+                false,
+                new TypeRegistry());
+        tableHandle = new HiveTableHandle("hive", DATABASE, TABLE, SESSION);
+    }
+
+    @Test
+    public void testRowCountOfPrunedPartitions()
+    {
+        List<ConnectorPartition> partitions = ImmutableList.of(hivePartition("ds=2015-01-01"), hivePartition("ds=2015-01-02"));
+        TableStatistics statistics = client.getTableStatistics(tableHandle, partitions);
+        assertEquals(statistics.getRowCount(), 30);
+
+        // the pruned partition is never fetched from the metastore
+        assertEquals(metastore.getRequestedPartitions(), ImmutableList.of("ds=2015-01-01", "ds=2015-01-02"));
+    }
+
+    @Test
+    public void testRowCountOfNoPartitions()
+    {
+        TableStatistics statistics = client.getTableStatistics(tableHandle, ImmutableList.<ConnectorPartition>of());
+        assertEquals(statistics.getRowCount(), 0);
+        assertEquals(metastore.getRequestedPartitions(), ImmutableList.of());
+    }
+
+    @Test
+    public void testRowCountUnknownForPartitionWithoutStatistics()
+    {
+        TableStatistics statistics = client.getTableStatistics(tableHandle, ImmutableList.of(hivePartition("ds=2015-01-01"), hivePartition("ds=2015-01-03")));
+        assertFalse(statistics.isRowCountKnown());
+    }
+
+    private static ConnectorPartition hivePartition(String partitionId)
+    {
+        return new HivePartition(
+                new SchemaTableName(DATABASE, TABLE),
+                TupleDomain.<HiveColumnHandle>all(),
+                partitionId,
+                ImmutableMap.<ConnectorColumnHandle, SerializableNativeValue>of(),
+                Optional.<HiveBucket>absent());
+    }
+
+    private static Partition partition(String ds, String rowCount)
+    {
+        Partition partition = new Partition();
+        partition.setDbName(DATABASE);
+        partition.setTableName(TABLE);
+        partition.setValues(ImmutableList.of(ds));
+        partition.setParameters(ImmutableMap.of("numRows", rowCount));
+        return partition;
+    }
+
+    private static class PartitionRecordingMetastore
+            extends InMemoryHiveMetastore
+    {
+        private final Map<String, Partition> partitions;
+        private final List<String> requestedPartitions = new ArrayList<>();
+
+        private PartitionRecordingMetastore(Map<String, Partition> partitions)
+        {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public List<String> getPartitionNames(String databaseName, String tableName)
+        {
+            return ImmutableList.copyOf(partitions.keySet());
+        }
+
+        @Override
+        public Map<String, Partition> getPartitionsByNames(String databaseName, String tableName, List<String> partitionNames)
+                throws NoSuchObjectException
+        {
+            requestedPartitions.addAll(partitionNames);
+            ImmutableMap.Builder<String, Partition> result = ImmutableMap.builder();
+            for (String partitionName : partitionNames) {
+                result.put(partitionName, partitions.get(partitionName));
+            }
+            return result.build();
+        }
+
+        public List<String> getRequestedPartitions()
+        {
+            return requestedPartitions;
+        }
+    }
+}
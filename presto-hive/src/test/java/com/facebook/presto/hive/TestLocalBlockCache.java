@@ -0,0 +1,323 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import com.google.common.primitives.Ints;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalBlockCache
+{
+    private File tempDir;
+    private File cacheDir;
+    private FileSystem fileSystem;
+
+    @BeforeMethod
+    public void setUp()
+            throws Exception
+    {
+        tempDir = Files.createTempDir();
+        cacheDir = new File(tempDir, "cache");
+        fileSystem = FileSystem.getLocal(new Configuration());
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(tempDir);
+    }
+
+    @Test
+    public void testReadThrough()
+            throws Exception
+    {
+        byte[] data = createData(10_000);
+        File file = writeFile("data", data);
+        LocalBlockCache cache = new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+
+        // first read loads every block from the remote file
+        assertEquals(readFully(cache, file, 0, data.length), data);
+        assertEquals(cache.getMissCount(), 10);
+        assertEquals(cache.getHitCount(), 0);
+        assertEquals(cache.getBlockCount(), 10);
+        assertEquals(countBlockFiles(), 10);
+
+        // a range spanning two blocks is served from the local copies
+        assertEquals(readFully(cache, file, 1000, 100), Arrays.copyOfRange(data, 1000, 1100));
+        assertEquals(cache.getMissCount(), 10);
+        assertEquals(cache.getHitCount(), 2);
+    }
+
+    @Test
+    public void testSequentialRead()
+            throws Exception
+    {
+        byte[] data = createData(3_000);
+        File file = writeFile("data", data);
+        LocalBlockCache cache = new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+
+        try (FSDataInputStream inputStream = cache.open(fileSystem, getFileStatus(file))) {
+            inputStream.seek(2_000);
+            byte[] buffer = new byte[1_000];
+            inputStream.readFully(buffer);
+            assertEquals(buffer, Arrays.copyOfRange(data, 2_000, 3_000));
+            assertEquals(inputStream.getPos(), 3_000);
+            assertEquals(inputStream.read(), -1);
+        }
+    }
+
+    @Test
+    public void testStreamReusesCurrentBlock()
+            throws Exception
+    {
+        byte[] data = createData(3_000);
+        File file = writeFile("data", data);
+        LocalBlockCache cache = new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+
+        for (int pass = 0; pass < 2; pass++) {
+            try (FSDataInputStream inputStream = cache.open(fileSystem, getFileStatus(file))) {
+                for (int i = 0; i < data.length; i++) {
+                    assertEquals(inputStream.read(), data[i] & 0xFF);
+                }
+            }
+        }
+
+        // each stream asks the cache for every block once, however small the reads are
+        assertEquals(cache.getMissCount(), 3);
+        assertEquals(cache.getHitCount(), 3);
+    }
+
+    @Test
+    public void testCachedBlockIsMappedOnce()
+            throws Exception
+    {
+        final byte[] data = createData(1_000);
+        LocalBlockCache cache = new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+        LocalBlockCache.BlockLoader loader = new LocalBlockCache.BlockLoader()
+        {
+            @Override
+            public void readFully(long position, byte[] buffer)
+            {
+                System.arraycopy(data, Ints.checkedCast(position), buffer, 0, buffer.length);
+            }
+        };
+
+        cache.getBlock("data", 0, 0, data.length, loader);
+        Slice block = cache.getBlock("data", 0, 0, data.length, loader);
+        assertEquals(block.getBytes(), data);
+        assertSame(cache.getBlock("data", 0, 0, data.length, loader), block);
+        assertEquals(cache.getHitCount(), 2);
+    }
+
+    @Test
+    public void testConcurrentReadsLoadBlockOnce()
+            throws Exception
+    {
+        final byte[] data = createData(1_000);
+        final LocalBlockCache cache = new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final LocalBlockCache.BlockLoader loader = new LocalBlockCache.BlockLoader()
+        {
+            @Override
+            public void readFully(long position, byte[] buffer)
+                    throws IOException
+            {
+                loads.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                System.arraycopy(data, Ints.checkedCast(position), buffer, 0, buffer.length);
+            }
+        };
+
+        ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+        try {
+            List<Future<Slice>> blocks = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                blocks.add(executor.submit(new Callable<Slice>()
+                {
+                    @Override
+                    public Slice call()
+                            throws IOException
+                    {
+                        return cache.getBlock("data", 0, 0, data.length, loader);
+                    }
+                }));
+            }
+
+            // hold the first load until the other readers had a chance to request the block
+            loading.await();
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<Slice> block : blocks) {
+                assertEquals(block.get().getBytes(), data);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getBlockCount(), 1);
+        assertEquals(countBlockFiles(), 1);
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded()
+            throws Exception
+    {
+        File file = writeFile("data", createData(1_000));
+        LocalBlockCache cache = new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+        readFully(cache, file, 0, 1_000);
+
+        byte[] newData = createData(1_000);
+        newData[0] = 42;
+        writeFile("data", newData);
+        assertTrue(file.setLastModified(file.lastModified() + 10_000));
+
+        assertEquals(readFully(cache, file, 0, 1_000), newData);
+        assertEquals(cache.getHitCount(), 0);
+        assertEquals(cache.getMissCount(), 2);
+    }
+
+    @Test
+    public void testEvictionDeletesBlockFiles()
+            throws Exception
+    {
+        File file = writeFile("data", createData(10_000));
+        LocalBlockCache cache = new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(2_000, BYTE), new DataSize(100, BYTE));
+        readFully(cache, file, 0, 10_000);
+
+        assertTrue(cache.getBlockCount() <= 20);
+        assertTrue(cache.getEvictionCount() >= 80);
+        assertEquals(countBlockFiles(), cache.getBlockCount());
+
+        cache.flushCache();
+        assertEquals(countBlockFiles(), 0);
+    }
+
+    @Test
+    public void testStaleBlocksAreDeletedOnStartup()
+            throws Exception
+    {
+        assertTrue(cacheDir.mkdirs());
+        Files.write(new byte[10], new File(cacheDir, "7.block"));
+
+        new LocalBlockCache(ImmutableList.of(cacheDir), new DataSize(1, MEGABYTE), new DataSize(1, KILOBYTE));
+        assertEquals(countBlockFiles(), 0);
+    }
+
+    @Test
+    public void testDisabled()
+            throws Exception
+    {
+        LocalBlockCache cache = LocalBlockCache.disabled();
+        assertFalse(cache.isEnabled());
+        assertSame(cache.wrap(fileSystem), fileSystem);
+
+        byte[] data = createData(100);
+        assertEquals(readFully(cache, writeFile("data", data), 0, 100), data);
+        assertEquals(cache.getMissCount(), 0);
+    }
+
+    private byte[] readFully(LocalBlockCache cache, File file, long position, int length)
+            throws IOException
+    {
+        byte[] buffer = new byte[length];
+        try (FSDataInputStream inputStream = cache.open(fileSystem, getFileStatus(file))) {
+            inputStream.readFully(position, buffer);
+        }
+        return buffer;
+    }
+
+    private FileStatus getFileStatus(File file)
+            throws IOException
+    {
+        return fileSystem.getFileStatus(new Path(file.toURI()));
+    }
+
+    private File writeFile(String name, byte[] data)
+            throws IOException
+    {
+        File file = new File(tempDir, name);
+        Files.write(data, file);
+        return file;
+    }
+
+    private long countBlockFiles()
+    {
+        String[] files = cacheDir.list(new FilenameFilter()
+        {
+            @Override
+            public boolean accept(File directory, String name)
+            {
+                return name.endsWith(".block");
+            }
+        });
+        return files == null ? 0 : files.length;
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+        return data;
+    }
+}
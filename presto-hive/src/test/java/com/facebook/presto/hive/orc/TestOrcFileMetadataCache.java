@@ -0,0 +1,199 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.orc.OrcFileTail;
+import com.facebook.presto.orc.OrcMetadataCache;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.OrcType;
+import com.facebook.presto.orc.metadata.Stream;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestOrcFileMetadataCache
+{
+    private static final String PATH = "hdfs://namenode/warehouse/table/000000_0";
+
+    @Test
+    public void testFileTailIsLoadedOnce()
+            throws Exception
+    {
+        OrcFileMetadataCache cache = new OrcFileMetadataCache(new DataSize(1, MEGABYTE), new Duration(1, TimeUnit.HOURS));
+        CountingLoader<OrcFileTail> loader = new CountingLoader<>(createFileTail(100));
+
+        OrcFileTail first = cache.getFileMetadataCache(PATH, 1000, 1).getFileTail(loader);
+        OrcFileTail second = cache.getFileMetadataCache(PATH, 1000, 1).getFileTail(loader);
+
+        assertSame(second, first);
+        assertEquals(loader.getLoadCount(), 1);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+        assertEquals(cache.getSize(), 1);
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded()
+            throws Exception
+    {
+        OrcFileMetadataCache cache = new OrcFileMetadataCache(new DataSize(1, MEGABYTE), new Duration(1, TimeUnit.HOURS));
+        CountingLoader<OrcFileTail> loader = new CountingLoader<>(createFileTail(100));
+
+        cache.getFileMetadataCache(PATH, 1000, 1).getFileTail(loader);
+        cache.getFileMetadataCache(PATH, 1000, 2).getFileTail(loader);
+        cache.getFileMetadataCache(PATH, 2000, 2).getFileTail(loader);
+
+        assertEquals(loader.getLoadCount(), 3);
+        assertEquals(cache.getHitCount(), 0);
+    }
+
+    @Test
+    public void testStripeFootersAreCachedPerStripe()
+            throws Exception
+    {
+        OrcFileMetadataCache cache = new OrcFileMetadataCache(new DataSize(1, MEGABYTE), new Duration(1, TimeUnit.HOURS));
+        OrcMetadataCache fileCache = cache.getFileMetadataCache(PATH, 1000, 1);
+        CountingLoader<StripeFooter> loader = new CountingLoader<>(new StripeFooter(ImmutableList.<Stream>of(), ImmutableList.<ColumnEncoding>of()));
+
+        StripeInformation firstStripe = new StripeInformation(10, 3, 10, 100, 20);
+        StripeInformation secondStripe = new StripeInformation(10, 133, 10, 100, 20);
+        fileCache.getStripeFooter(firstStripe, loader);
+        fileCache.getStripeFooter(secondStripe, loader);
+        fileCache.getStripeFooter(firstStripe, loader);
+
+        assertEquals(loader.getLoadCount(), 2);
+        assertEquals(cache.getHitCount(), 1);
+    }
+
+    @Test
+    public void testCacheIsBoundedByDecodedSize()
+            throws Exception
+    {
+        // a tail that is tiny in the file but decodes to many column statistics
+        OrcFileTail fileTail = createFileTail(100, 200);
+        long retainedSize = OrcFileMetadataCache.estimateRetainedSize(fileTail);
+        assertTrue(retainedSize > 100 * fileTail.getSerializedSize());
+
+        DataSize maxSize = new DataSize(64, KILOBYTE);
+        OrcFileMetadataCache cache = new OrcFileMetadataCache(maxSize, new Duration(1, TimeUnit.HOURS));
+        for (int i = 0; i < 10; i++) {
+            cache.getFileMetadataCache(PATH + i, 1000, 1).getFileTail(new CountingLoader<>(fileTail));
+            assertTrue(cache.getSize() * retainedSize <= maxSize.toBytes());
+        }
+        assertTrue(cache.getEvictionCount() >= 9);
+    }
+
+    @Test
+    public void testStripeFooterWeightGrowsWithStreams()
+    {
+        StripeFooter empty = new StripeFooter(ImmutableList.<Stream>of(), ImmutableList.<ColumnEncoding>of());
+        ImmutableList.Builder<Stream> streams = ImmutableList.builder();
+        ImmutableList.Builder<ColumnEncoding> encodings = ImmutableList.builder();
+        for (int column = 0; column < 100; column++) {
+            streams.add(new Stream(column, Stream.StreamKind.DATA, 1000, true));
+            encodings.add(new ColumnEncoding(ColumnEncoding.ColumnEncodingKind.DIRECT, 0));
+        }
+        StripeFooter stripeFooter = new StripeFooter(streams.build(), encodings.build());
+
+        assertTrue(OrcFileMetadataCache.estimateRetainedSize(stripeFooter) >= OrcFileMetadataCache.estimateRetainedSize(empty) + 100 * (40 + 32));
+    }
+
+    @Test
+    public void testLoadFailureIsNotCached()
+            throws Exception
+    {
+        OrcFileMetadataCache cache = new OrcFileMetadataCache(new DataSize(1, MEGABYTE), new Duration(1, TimeUnit.HOURS));
+        OrcMetadataCache fileCache = cache.getFileMetadataCache(PATH, 1000, 1);
+        try {
+            fileCache.getFileTail(new Callable<OrcFileTail>()
+            {
+                @Override
+                public OrcFileTail call()
+                        throws IOException
+                {
+                    throw new IOException("read failed");
+                }
+            });
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertEquals(e.getMessage(), "read failed");
+        }
+
+        CountingLoader<OrcFileTail> loader = new CountingLoader<>(createFileTail(100));
+        fileCache.getFileTail(loader);
+        assertEquals(loader.getLoadCount(), 1);
+    }
+
+    private static OrcFileTail createFileTail(int serializedSize)
+    {
+        return createFileTail(serializedSize, 0);
+    }
+
+    private static OrcFileTail createFileTail(int serializedSize, int columnCount)
+    {
+        ImmutableList.Builder<ColumnStatistics> fileStats = ImmutableList.builder();
+        for (int column = 0; column < columnCount; column++) {
+            fileStats.add(new ColumnStatistics(1000L, null, null, null, new StringStatistics("aaaa", "zzzz"), null));
+        }
+        Footer footer = new Footer(0, 10_000, ImmutableList.<StripeInformation>of(), ImmutableList.<OrcType>of(), fileStats.build());
+        Metadata metadata = new Metadata(ImmutableList.<StripeStatistics>of());
+        return new OrcFileTail(ZLIB, 256 * 1024, footer, metadata, serializedSize);
+    }
+
+    private static class CountingLoader<T>
+            implements Callable<T>
+    {
+        private final T value;
+        private final AtomicInteger loadCount = new AtomicInteger();
+
+        private CountingLoader(T value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public T call()
+        {
+            loadCount.incrementAndGet();
+            return value;
+        }
+
+        public int getLoadCount()
+        {
+            return loadCount.get();
+        }
+    }
+}
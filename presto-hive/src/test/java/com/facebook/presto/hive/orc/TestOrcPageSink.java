@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.orc.FileOrcDataSource;
+import com.facebook.presto.orc.LongVector;
+import com.facebook.presto.orc.OrcPredicate;
+import com.facebook.presto.orc.OrcReader;
+import com.facebook.presto.orc.OrcRecordReader;
+import com.facebook.presto.orc.SliceVector;
+import com.facebook.presto.orc.metadata.OrcMetadataReader;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import static com.facebook.presto.hive.HiveColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME;
+import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcPageSink
+{
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("id", SAMPLE_WEIGHT_COLUMN_NAME, "name");
+    private static final List<Type> COLUMN_TYPES = ImmutableList.<Type>of(BIGINT, BIGINT, VARCHAR);
+    private static final List<Type> PAGE_TYPES = ImmutableList.<Type>of(BIGINT, VARCHAR);
+    private static final int PAGE_COUNT = 3;
+    private static final int PAGE_ROW_COUNT = 100;
+
+    @Test
+    public void testRoundTrip()
+            throws Exception
+    {
+        File file = File.createTempFile("test", ".orc");
+        try {
+            OrcPageSink pageSink = new OrcPageSink(new FileOutputStream(file), COLUMN_NAMES, COLUMN_TYPES, 1, SNAPPY);
+            for (int page = 0; page < PAGE_COUNT; page++) {
+                int start = page * PAGE_ROW_COUNT;
+                pageSink.appendPage(createPage(start), createSampleWeightBlock(start));
+            }
+            assertEquals(pageSink.commit(), "");
+
+            OrcReader orcReader = new OrcReader(new FileOrcDataSource(file, new DataSize(1, MEGABYTE)), new OrcMetadataReader());
+            assertEquals(orcReader.getColumnNames(), COLUMN_NAMES);
+            assertEquals(orcReader.getCompressionKind(), SNAPPY);
+
+            OrcRecordReader recordReader = orcReader.createRecordReader(ImmutableSet.of(0, 1, 2), OrcPredicate.TRUE, 0, file.length(), DateTimeZone.UTC);
+            assertEquals(recordReader.getTotalRowCount(), PAGE_COUNT * PAGE_ROW_COUNT);
+
+            LongVector idVector = new LongVector();
+            LongVector sampleWeightVector = new LongVector();
+            SliceVector nameVector = new SliceVector();
+            int row = 0;
+            for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+                recordReader.readVector(0, idVector);
+                recordReader.readVector(1, sampleWeightVector);
+                recordReader.readVector(2, nameVector);
+                for (int i = 0; i < batchSize; i++) {
+                    assertEquals(idVector.vector[i], (long) row);
+                    assertEquals(sampleWeightVector.vector[i], sampleWeight(row));
+                    assertEquals(nameVector.vector[i], isNullName(row) ? null : utf8Slice(name(row)));
+                    row++;
+                }
+            }
+            assertEquals(row, PAGE_COUNT * PAGE_ROW_COUNT);
+            recordReader.close();
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testCompressionFromConfiguration()
+    {
+        Configuration configuration = new Configuration(false);
+        assertEquals(OrcPageSink.getCompression(configuration), Optional.of(ZLIB));
+
+        configuration.set("hive.exec.orc.compress", "SNAPPY");
+        assertEquals(OrcPageSink.getCompression(configuration), Optional.of(SNAPPY));
+
+        // the newer setting takes precedence
+        configuration.set("hive.exec.orc.default.compress", "none");
+        assertEquals(OrcPageSink.getCompression(configuration), Optional.of(UNCOMPRESSED));
+
+        // the native writer can not write LZO, so the table is written with the Hive serializer
+        configuration.set("hive.exec.orc.default.compress", "LZO");
+        assertEquals(OrcPageSink.getCompression(configuration), Optional.absent());
+    }
+
+    private static Page createPage(int start)
+    {
+        PageBuilder pageBuilder = new PageBuilder(PAGE_TYPES);
+        for (int row = start; row < start + PAGE_ROW_COUNT; row++) {
+            pageBuilder.declarePosition();
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(0), row);
+            if (isNullName(row)) {
+                pageBuilder.getBlockBuilder(1).appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice(name(row)));
+            }
+        }
+        return pageBuilder.build();
+    }
+
+    private static Block createSampleWeightBlock(int start)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+        for (int row = start; row < start + PAGE_ROW_COUNT; row++) {
+            BIGINT.writeLong(blockBuilder, sampleWeight(row));
+        }
+        return blockBuilder.build();
+    }
+
+    private static long sampleWeight(int row)
+    {
+        return (row % 4) + 1;
+    }
+
+    private static boolean isNullName(int row)
+    {
+        return row % 7 == 0;
+    }
+
+    private static String name(int row)
+    {
+        return "name" + row;
+    }
+}
@@ -130,9 +130,12 @@ public final class HashPagePartitionFunction
 
     private int getPartitionHashBucket(int position, Page page)
     {
-        int rawHash = hashGenerator.hashPosition(position, page);
+        return getPartitionHashBucket(hashGenerator.hashPosition(position, page), partitionCount);
+    }
 
-         // clear the sign bit
+    public static int getPartitionHashBucket(int rawHash, int partitionCount)
+    {
+        // clear the sign bit
         rawHash &= 0x7fff_ffffL;
 
         int bucket = rawHash % partitionCount;
@@ -173,7 +176,7 @@ public final class HashPagePartitionFunction
                 .toString();
     }
 
-    private static HashGenerator createHashGenerator(Optional<Integer> hashChannel, List<Integer> partitioningChannels, List<Type> types)
+    public static HashGenerator createHashGenerator(Optional<Integer> hashChannel, List<Integer> partitioningChannels, List<Type> types)
     {
         if (hashChannel.isPresent()) {
             return new PrecomputedHashGenerator(hashChannel.get());
@@ -25,12 +25,19 @@ public class ScheduledSplit
 {
     private final long sequenceId;
     private final Split split;
+    private final boolean speculative;
+
+    public ScheduledSplit(long sequenceId, Split split)
+    {
+        this(sequenceId, split, false);
+    }
 
     @JsonCreator
-    public ScheduledSplit(@JsonProperty("sequenceId") long sequenceId, @JsonProperty("split") Split split)
+    public ScheduledSplit(@JsonProperty("sequenceId") long sequenceId, @JsonProperty("split") Split split, @JsonProperty("speculative") boolean speculative)
     {
         this.sequenceId = sequenceId;
         this.split = checkNotNull(split, "split is null");
+        this.speculative = speculative;
     }
 
     @JsonProperty
@@ -45,6 +52,16 @@ public class ScheduledSplit
         return split;
     }
 
+    /**
+     * A speculative split is a copy of a split that runs in another task. Its output is held
+     * until the coordinator commits it.
+     */
+    @JsonProperty
+    public boolean isSpeculative()
+    {
+        return speculative;
+    }
+
     @Override
     public int hashCode()
     {
@@ -70,6 +87,7 @@ public class ScheduledSplit
         return toStringHelper(this)
                 .add("sequenceId", sequenceId)
                 .add("split", split)
+                .add("speculative", speculative)
                 .toString();
     }
 }
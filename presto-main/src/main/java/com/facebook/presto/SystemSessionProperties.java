@@ -17,6 +17,12 @@ public final class SystemSessionProperties
 {
     private static final String BIG_QUERY = "experimental_big_query";
     private static final String OPTIMIZE_HASH_GENERATION = "optimize_hash_generation";
+    private static final String SPILL_ENABLED = "experimental_spill_enabled";
+    private static final String TASK_CONCURRENCY = "task_concurrency";
+    private static final String TASK_WRITER_COUNT = "task_writer_count";
+    private static final String DYNAMIC_FILTERING_ENABLED = "experimental_dynamic_filtering_enabled";
+    private static final String REORDER_JOINS = "reorder_joins";
+    private static final String SPECULATIVE_EXECUTION = "experimental_speculative_execution";
 
     private SystemSessionProperties() {}
 
@@ -39,4 +45,48 @@ public final class SystemSessionProperties
     {
         return isEnabled(OPTIMIZE_HASH_GENERATION, session, defaultValue);
     }
+
+    public static boolean isSpillEnabled(Session session, boolean defaultValue)
+    {
+        return isEnabled(SPILL_ENABLED, session, defaultValue);
+    }
+
+    public static boolean isDynamicFilteringEnabled(Session session, boolean defaultValue)
+    {
+        return isEnabled(DYNAMIC_FILTERING_ENABLED, session, defaultValue);
+    }
+
+    public static boolean isReorderJoinsEnabled(Session session, boolean defaultValue)
+    {
+        return isEnabled(REORDER_JOINS, session, defaultValue);
+    }
+
+    public static boolean isSpeculativeExecutionEnabled(Session session, boolean defaultValue)
+    {
+        return isEnabled(SPECULATIVE_EXECUTION, session, defaultValue);
+    }
+
+    public static int getTaskConcurrency(Session session, int defaultValue)
+    {
+        return getPositiveInt(TASK_CONCURRENCY, session, defaultValue);
+    }
+
+    public static int getTaskWriterCount(Session session, int defaultValue)
+    {
+        return getPositiveInt(TASK_WRITER_COUNT, session, defaultValue);
+    }
+
+    private static int getPositiveInt(String propertyName, Session session, int defaultValue)
+    {
+        String property = session.getSystemProperties().get(propertyName);
+        if (property == null) {
+            return defaultValue;
+        }
+
+        int value = Integer.parseInt(property);
+        if (value < 1) {
+            throw new IllegalArgumentException(propertyName + " must be at least 1: " + property);
+        }
+        return value;
+    }
 }
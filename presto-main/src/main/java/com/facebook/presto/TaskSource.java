@@ -17,6 +17,7 @@ import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 
 import java.util.Set;
 
@@ -29,16 +30,27 @@ public class TaskSource
     private final PlanNodeId planNodeId;
     private final Set<ScheduledSplit> splits;
     private final boolean noMoreSplits;
+    private final Set<Long> committedSplits;
+    private final Set<Long> abortedSplits;
+
+    public TaskSource(PlanNodeId planNodeId, Set<ScheduledSplit> splits, boolean noMoreSplits)
+    {
+        this(planNodeId, splits, noMoreSplits, ImmutableSet.<Long>of(), ImmutableSet.<Long>of());
+    }
 
     @JsonCreator
     public TaskSource(
             @JsonProperty("planNodeId") PlanNodeId planNodeId,
             @JsonProperty("splits") Set<ScheduledSplit> splits,
-            @JsonProperty("noMoreSplits") boolean noMoreSplits)
+            @JsonProperty("noMoreSplits") boolean noMoreSplits,
+            @JsonProperty("committedSplits") Set<Long> committedSplits,
+            @JsonProperty("abortedSplits") Set<Long> abortedSplits)
     {
         this.planNodeId = checkNotNull(planNodeId, "planNodeId is null");
         this.splits = ImmutableSet.copyOf(checkNotNull(splits, "splits is null"));
         this.noMoreSplits = noMoreSplits;
+        this.committedSplits = ImmutableSet.copyOf(checkNotNull(committedSplits, "committedSplits is null"));
+        this.abortedSplits = ImmutableSet.copyOf(checkNotNull(abortedSplits, "abortedSplits is null"));
     }
 
     @JsonProperty
@@ -59,6 +71,24 @@ public class TaskSource
         return noMoreSplits;
     }
 
+    /**
+     * Sequence ids of the finished speculative splits whose output must be published.
+     */
+    @JsonProperty
+    public Set<Long> getCommittedSplits()
+    {
+        return committedSplits;
+    }
+
+    /**
+     * Sequence ids of the splits whose output must be discarded, because another copy of the split is used.
+     */
+    @JsonProperty
+    public Set<Long> getAbortedSplits()
+    {
+        return abortedSplits;
+    }
+
     public TaskSource update(TaskSource source)
     {
         checkArgument(planNodeId.equals(source.getPlanNodeId()), "Expected source %s, but got source %s", planNodeId, source.getPlanNodeId());
@@ -75,7 +105,9 @@ public class TaskSource
 
             return new TaskSource(planNodeId,
                     newSplits,
-                    source.isNoMoreSplits());
+                    source.isNoMoreSplits(),
+                    Sets.union(committedSplits, source.getCommittedSplits()),
+                    Sets.union(abortedSplits, source.getAbortedSplits()));
         }
         else {
             // the specified source is older than this one
@@ -86,9 +118,11 @@ public class TaskSource
     private boolean isNewer(TaskSource source)
     {
         // the specified source is newer if it changes the no more
-        // splits flag or if it contains new splits
+        // splits flag or if it contains new splits or split decisions
         return (!noMoreSplits && source.isNoMoreSplits()) ||
-                (!splits.containsAll(source.getSplits()));
+                (!splits.containsAll(source.getSplits())) ||
+                (!committedSplits.containsAll(source.getCommittedSplits())) ||
+                (!abortedSplits.containsAll(source.getAbortedSplits()));
     }
 
     @Override
@@ -98,6 +132,8 @@ public class TaskSource
                 .add("planNodeId", planNodeId)
                 .add("splits", splits)
                 .add("noMoreSplits", noMoreSplits)
+                .add("committedSplits", committedSplits)
+                .add("abortedSplits", abortedSplits)
                 .toString();
     }
 }
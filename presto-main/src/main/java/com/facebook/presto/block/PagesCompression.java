@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compression of serialized pages sent between workers. The codec is requested by the
+ * reader with the {@code X-Presto-Page-Compression} header and echoed by the writer when
+ * it is used, so a peer that does not know the header reads and writes uncompressed pages.
+ */
+public enum PagesCompression
+{
+    NONE,
+    SNAPPY;
+
+    /**
+     * Returns the codec named by the header, or {@link #NONE} when the header is missing
+     * or names a codec this node does not support.
+     */
+    public static PagesCompression fromHeader(@Nullable String value)
+    {
+        if (value == null) {
+            return NONE;
+        }
+        for (PagesCompression compression : values()) {
+            if (compression.name().equalsIgnoreCase(value.trim())) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+}
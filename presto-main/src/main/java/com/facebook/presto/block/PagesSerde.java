@@ -18,13 +18,21 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockEncoding;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.google.common.collect.AbstractIterator;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import org.iq80.snappy.Snappy;
 
 import java.util.Iterator;
 
+import static com.facebook.presto.block.PagesCompression.NONE;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static java.util.Arrays.asList;
+import static sun.misc.Unsafe.ARRAY_BYTE_BASE_OFFSET;
 
 // layout is:
 //   - position count (int)
@@ -32,6 +40,11 @@ import static java.util.Arrays.asList;
 //   - sequence of:
 //       - block encoding
 //       - block
+//
+// compressed layout is a sequence of:
+//   - uncompressed size (int)
+//   - compressed size (int)
+//   - one page in the above layout, compressed
 public final class PagesSerde
 {
     private PagesSerde() {}
@@ -54,9 +67,76 @@ public final class PagesSerde
         }
     }
 
+    /**
+     * Writes the pages in the layout of the specified compression, and records the size of
+     * the pages before and after compression in the stats.
+     */
+    public static void writePages(BlockEncodingSerde blockEncodingSerde, PagesCompression compression, SliceOutput sliceOutput, Iterable<Page> pages, PagesTransferStats stats)
+    {
+        checkNotNull(compression, "compression is null");
+        checkNotNull(stats, "stats is null");
+
+        if (compression == NONE) {
+            int start = sliceOutput.size();
+            writePages(blockEncodingSerde, sliceOutput, pages);
+            int size = sliceOutput.size() - start;
+            stats.update(size, size);
+            return;
+        }
+
+        checkArgument(compression == PagesCompression.SNAPPY, "Unsupported compression %s", compression);
+        DynamicSliceOutput buffer = new DynamicSliceOutput(64 * 1024);
+        PagesWriter pagesWriter = new PagesWriter(blockEncodingSerde, buffer);
+        byte[] compressed = new byte[0];
+        for (Page page : pages) {
+            buffer.reset();
+            pagesWriter.append(page);
+            Slice uncompressed = buffer.slice();
+
+            int maxCompressedLength = Snappy.maxCompressedLength(uncompressed.length());
+            if (compressed.length < maxCompressedLength) {
+                compressed = new byte[maxCompressedLength];
+            }
+            byte[] inArray = (byte[]) uncompressed.getBase();
+            int inOffset = (int) (uncompressed.getAddress() - ARRAY_BYTE_BASE_OFFSET);
+            int compressedLength = Snappy.compress(inArray, inOffset, uncompressed.length(), compressed, 0);
+
+            sliceOutput.writeInt(uncompressed.length());
+            sliceOutput.writeInt(compressedLength);
+            sliceOutput.writeBytes(compressed, 0, compressedLength);
+            stats.update(uncompressed.length(), compressedLength + 2 * SIZE_OF_INT);
+        }
+    }
+
     public static Iterator<Page> readPages(BlockEncodingSerde blockEncodingSerde, SliceInput sliceInput)
     {
-        return new PagesReader(blockEncodingSerde, sliceInput);
+        return new PagesReader(blockEncodingSerde, sliceInput, new PagesTransferStats());
+    }
+
+    /**
+     * Reads pages written in the layout of the specified compression, and records the size of
+     * the pages before and after compression in the stats as they are read.
+     */
+    public static Iterator<Page> readPages(BlockEncodingSerde blockEncodingSerde, PagesCompression compression, SliceInput sliceInput, PagesTransferStats stats)
+    {
+        checkNotNull(compression, "compression is null");
+        if (compression == NONE) {
+            return new PagesReader(blockEncodingSerde, sliceInput, stats);
+        }
+        checkArgument(compression == PagesCompression.SNAPPY, "Unsupported compression %s", compression);
+        return new SnappyPagesReader(blockEncodingSerde, sliceInput, stats);
+    }
+
+    private static Page readPage(BlockEncodingSerde serde, SliceInput input)
+    {
+        int positions = input.readInt();
+        int numberOfBlocks = input.readInt();
+        Block[] blocks = new Block[numberOfBlocks];
+        for (int i = 0; i < blocks.length; i++) {
+            BlockEncoding encoding = serde.readBlockEncoding(input);
+            blocks[i] = encoding.readBlock(input);
+        }
+        return new Page(positions, blocks);
     }
 
     private static class PagesWriter
@@ -93,11 +173,13 @@ public final class PagesSerde
     {
         private final BlockEncodingSerde serde;
         private final SliceInput input;
+        private final PagesTransferStats stats;
 
-        public PagesReader(BlockEncodingSerde serde, SliceInput input)
+        public PagesReader(BlockEncodingSerde serde, SliceInput input, PagesTransferStats stats)
         {
             this.serde = checkNotNull(serde, "serde is null");
             this.input = checkNotNull(input, "input is null");
+            this.stats = checkNotNull(stats, "stats is null");
         }
 
         @Override
@@ -107,17 +189,45 @@ public final class PagesSerde
                 return endOfData();
             }
 
-            int positions = input.readInt();
-            int numberOfBlocks = input.readInt();
-            Block[] blocks = new Block[numberOfBlocks];
-            for (int i = 0; i < blocks.length; i++) {
-                BlockEncoding encoding = serde.readBlockEncoding(input);
-                blocks[i] = encoding.readBlock(input);
+            int start = input.position();
+            Page page = readPage(serde, input);
+            int size = input.position() - start;
+            stats.update(size, size);
+            return page;
+        }
+    }
+
+    private static class SnappyPagesReader
+            extends AbstractIterator<Page>
+    {
+        private final BlockEncodingSerde serde;
+        private final SliceInput input;
+        private final PagesTransferStats stats;
+
+        public SnappyPagesReader(BlockEncodingSerde serde, SliceInput input, PagesTransferStats stats)
+        {
+            this.serde = checkNotNull(serde, "serde is null");
+            this.input = checkNotNull(input, "input is null");
+            this.stats = checkNotNull(stats, "stats is null");
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (!input.isReadable()) {
+                return endOfData();
             }
 
-            @SuppressWarnings("UnnecessaryLocalVariable")
-            Page page = new Page(positions, blocks);
-            return page;
+            int uncompressedLength = input.readInt();
+            int compressedLength = input.readInt();
+            byte[] compressed = new byte[compressedLength];
+            input.readBytes(compressed);
+
+            byte[] uncompressed = new byte[uncompressedLength];
+            Snappy.uncompress(compressed, 0, compressedLength, uncompressed, 0);
+            stats.update(uncompressedLength, compressedLength + 2 * SIZE_OF_INT);
+
+            return readPage(serde, Slices.wrappedBuffer(uncompressed).getInput());
         }
     }
 }
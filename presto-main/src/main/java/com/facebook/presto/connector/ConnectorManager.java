@@ -19,12 +19,13 @@ import com.facebook.presto.connector.informationSchema.InformationSchemaSplitMan
 import com.facebook.presto.index.IndexManager;
 import com.facebook.presto.metadata.HandleResolver;
 import com.facebook.presto.metadata.MetadataManager;
-import com.facebook.presto.operator.RecordSinkManager;
+import com.facebook.presto.operator.PageSinkManager;
 import com.facebook.presto.spi.Connector;
 import com.facebook.presto.spi.ConnectorFactory;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexResolver;
 import com.facebook.presto.spi.ConnectorMetadata;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorRecordSetProvider;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
@@ -53,7 +54,7 @@ public class ConnectorManager
     private final PageSourceManager pageSourceManager;
     private final IndexManager indexManager;
 
-    private final RecordSinkManager recordSinkManager;
+    private final PageSinkManager pageSinkManager;
     private final HandleResolver handleResolver;
     private final NodeManager nodeManager;
 
@@ -66,7 +67,7 @@ public class ConnectorManager
             SplitManager splitManager,
             PageSourceManager pageSourceManager,
             IndexManager indexManager,
-            RecordSinkManager recordSinkManager,
+            PageSinkManager pageSinkManager,
             HandleResolver handleResolver,
             Map<String, ConnectorFactory> connectorFactories,
             NodeManager nodeManager)
@@ -75,7 +76,7 @@ public class ConnectorManager
         this.splitManager = splitManager;
         this.pageSourceManager = pageSourceManager;
         this.indexManager = indexManager;
-        this.recordSinkManager = recordSinkManager;
+        this.pageSinkManager = pageSinkManager;
         this.handleResolver = handleResolver;
         this.nodeManager = nodeManager;
         this.connectorFactories.putAll(connectorFactories);
@@ -147,14 +148,24 @@ public class ConnectorManager
         ConnectorHandleResolver connectorHandleResolver = connector.getHandleResolver();
         checkNotNull(connectorHandleResolver, "Connector %s does not have a handle resolver", connectorId);
 
-        ConnectorRecordSinkProvider connectorRecordSinkProvider = null;
+        ConnectorPageSinkProvider connectorPageSinkProvider = null;
         try {
-            connectorRecordSinkProvider = connector.getRecordSinkProvider();
-            checkNotNull(connectorRecordSinkProvider, "Connector %s returned a null record sink provider", connectorId);
+            connectorPageSinkProvider = connector.getPageSinkProvider();
+            checkNotNull(connectorPageSinkProvider, "Connector %s returned a null page sink provider", connectorId);
         }
         catch (UnsupportedOperationException ignored) {
         }
 
+        ConnectorRecordSinkProvider connectorRecordSinkProvider = null;
+        if (connectorPageSinkProvider == null) {
+            try {
+                connectorRecordSinkProvider = connector.getRecordSinkProvider();
+                checkNotNull(connectorRecordSinkProvider, "Connector %s returned a null record sink provider", connectorId);
+            }
+            catch (UnsupportedOperationException ignored) {
+            }
+        }
+
         ConnectorIndexResolver indexResolver = null;
         try {
             indexResolver = connector.getIndexResolver();
@@ -176,8 +187,11 @@ public class ConnectorManager
         handleResolver.addHandleResolver(connectorId, connectorHandleResolver);
         pageSourceManager.addConnectorPageSourceProvider(connectorId, connectorPageSourceProvider);
 
-        if (connectorRecordSinkProvider != null) {
-            recordSinkManager.addConnectorRecordSinkProvider(connectorId, connectorRecordSinkProvider);
+        if (connectorPageSinkProvider != null) {
+            pageSinkManager.addConnectorPageSinkProvider(connectorId, connectorPageSinkProvider);
+        }
+        else if (connectorRecordSinkProvider != null) {
+            pageSinkManager.addConnectorRecordSinkProvider(connectorId, connectorRecordSinkProvider);
         }
 
         if (indexResolver != null) {
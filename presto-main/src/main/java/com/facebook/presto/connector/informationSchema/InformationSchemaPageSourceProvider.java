@@ -105,6 +105,12 @@ public class InformationSchemaPageSourceProvider
         return new FixedPageSource(pages.build());
     }
 
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns, TupleDomain<ConnectorColumnHandle> dynamicFilter)
+    {
+        return createPageSource(split, columns);
+    }
+
     private InternalTable getInternalTable(ConnectorSplit connectorSplit, List<ConnectorColumnHandle> columns)
     {
         InformationSchemaSplit split = checkType(connectorSplit, InformationSchemaSplit.class, "split");
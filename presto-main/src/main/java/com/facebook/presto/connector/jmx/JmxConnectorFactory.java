@@ -18,6 +18,7 @@ import com.facebook.presto.spi.ConnectorFactory;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexResolver;
 import com.facebook.presto.spi.ConnectorMetadata;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorRecordSetProvider;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
@@ -91,6 +92,12 @@ public class JmxConnectorFactory
                 throw new UnsupportedOperationException();
             }
 
+            @Override
+            public ConnectorPageSinkProvider getPageSinkProvider()
+            {
+                throw new UnsupportedOperationException();
+            }
+
             @Override
             public ConnectorIndexResolver getIndexResolver()
             {
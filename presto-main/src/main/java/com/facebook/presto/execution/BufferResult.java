@@ -15,6 +15,7 @@ package com.facebook.presto.execution;
 
 import com.facebook.presto.PagePartitionFunction;
 import com.facebook.presto.UnpartitionedPagePartitionFunction;
+import com.facebook.presto.block.PagesTransferStats;
 import com.facebook.presto.spi.Page;
 import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableList;
@@ -36,6 +37,7 @@ public class BufferResult
     private final boolean bufferClosed;
     private final List<Page> pages;
     private final PagePartitionFunction partitionFunction;
+    private final PagesTransferStats transferStats;
 
     public BufferResult(long token, long nextToken, boolean bufferClosed, List<Page> pages)
     {
@@ -43,12 +45,18 @@ public class BufferResult
     }
 
     public BufferResult(long token, long nextToken, boolean bufferClosed, List<Page> pages, PagePartitionFunction partitionFunction)
+    {
+        this(token, nextToken, bufferClosed, pages, partitionFunction, new PagesTransferStats());
+    }
+
+    public BufferResult(long token, long nextToken, boolean bufferClosed, List<Page> pages, PagePartitionFunction partitionFunction, PagesTransferStats transferStats)
     {
         this.token = token;
         this.nextToken = nextToken;
         this.bufferClosed = bufferClosed;
         this.pages = ImmutableList.copyOf(checkNotNull(pages, "pages is null"));
         this.partitionFunction = partitionFunction;
+        this.transferStats = checkNotNull(transferStats, "transferStats is null");
     }
 
     public long getToken()
@@ -71,6 +79,14 @@ public class BufferResult
         return partitionFunction.partition(pages);
     }
 
+    /**
+     * Stats of the buffer the pages were taken from, updated when the pages are serialized.
+     */
+    public PagesTransferStats getTransferStats()
+    {
+        return transferStats;
+    }
+
     public int size()
     {
         return pages.size();
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The load of a node as seen by the stage that is placing splits.
+ */
+public class NodeLoad
+{
+    private final int partitionedSplitCount;
+    private final double relativeSplitThroughput;
+
+    /**
+     * @param partitionedSplitCount the partitioned splits queued or running on the node, for all tasks
+     * @param relativeSplitThroughput how fast the stage's task on the node completes splits, relative
+     *      to the average of the stage's tasks; 1.0 if it is not known yet
+     */
+    public NodeLoad(int partitionedSplitCount, double relativeSplitThroughput)
+    {
+        checkArgument(partitionedSplitCount >= 0, "partitionedSplitCount is negative");
+        checkArgument(relativeSplitThroughput > 0, "relativeSplitThroughput must be positive");
+        this.partitionedSplitCount = partitionedSplitCount;
+        this.relativeSplitThroughput = relativeSplitThroughput;
+    }
+
+    public int getPartitionedSplitCount()
+    {
+        return partitionedSplitCount;
+    }
+
+    public double getRelativeSplitThroughput()
+    {
+        return relativeSplitThroughput;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("partitionedSplitCount", partitionedSplitCount)
+                .add("relativeSplitThroughput", relativeSplitThroughput)
+                .toString();
+    }
+}
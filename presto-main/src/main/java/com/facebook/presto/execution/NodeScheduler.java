@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.AffinitySplit;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.NodeManager;
@@ -28,6 +29,8 @@ import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
 import com.google.common.net.InetAddresses;
 import org.weakref.jmx.Managed;
 
@@ -50,13 +53,17 @@ import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static com.facebook.presto.util.Failures.checkCondition;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class NodeScheduler
 {
+    private static final HashFunction AFFINITY_HASH = Hashing.murmur3_128();
+
     private final NodeManager nodeManager;
     private final AtomicLong scheduleLocal = new AtomicLong();
     private final AtomicLong scheduleRack = new AtomicLong();
     private final AtomicLong scheduleRandom = new AtomicLong();
+    private final AtomicLong scheduleAffinity = new AtomicLong();
     private final int minCandidates;
     private final boolean locationAwareScheduling;
     private final boolean includeCoordinator;
@@ -64,6 +71,8 @@ public class NodeScheduler
     private final int maxSplitsPerNodePerTaskWhenFull;
     private final NodeTaskMap nodeTaskMap;
     private final boolean doubleScheduling;
+    private final boolean splitAffinityScheduling;
+    private final SplitPlacementPolicy splitPlacementPolicy;
 
     @Inject
     public NodeScheduler(NodeManager nodeManager, NodeSchedulerConfig config, NodeTaskMap nodeTaskMap)
@@ -73,8 +82,10 @@ public class NodeScheduler
         this.locationAwareScheduling = config.isLocationAwareSchedulingEnabled();
         this.includeCoordinator = config.isIncludeCoordinator();
         this.doubleScheduling = config.isMultipleTasksPerNodeEnabled();
+        this.splitAffinityScheduling = config.isSplitAffinitySchedulingEnabled();
         this.maxSplitsPerNode = config.getMaxSplitsPerNode();
         this.maxSplitsPerNodePerTaskWhenFull = config.getMaxPendingSplitsPerNodePerTask();
+        this.splitPlacementPolicy = config.getSplitPlacementPolicy().getPolicy();
         this.nodeTaskMap = checkNotNull(nodeTaskMap, "nodeTaskMap is null");
         checkArgument(maxSplitsPerNode > maxSplitsPerNodePerTaskWhenFull, "maxSplitsPerNode must be > maxSplitsPerNodePerTaskWhenFull");
     }
@@ -97,12 +108,19 @@ public class NodeScheduler
         return scheduleRandom.get();
     }
 
+    @Managed
+    public long getScheduleAffinity()
+    {
+        return scheduleAffinity.get();
+    }
+
     @Managed
     public void reset()
     {
         scheduleLocal.set(0);
         scheduleRack.set(0);
         scheduleRandom.set(0);
+        scheduleAffinity.set(0);
     }
 
     public NodeSelector createNodeSelector(final String dataSourceName)
@@ -210,19 +228,34 @@ public class NodeScheduler
 
             Map<String, Integer> queuedSplitCountByNode = new HashMap<>();
 
+            // how fast the tasks of this stage complete splits on each node, if known
+            Map<String, Double> splitThroughputByNode = new HashMap<>();
+            double totalSplitThroughput = 0;
+
             for (RemoteTask task : existingTasks) {
                 String nodeId = task.getNodeId();
                 if (!queuedSplitCountByNode.containsKey(nodeId)) {
                     queuedSplitCountByNode.put(nodeId, 0);
                 }
                 queuedSplitCountByNode.put(nodeId, queuedSplitCountByNode.get(nodeId) + task.getQueuedPartitionedSplitCount());
+
+                double splitThroughput = task.getPartitionedSplitThroughput();
+                if (splitThroughput > 0) {
+                    Double nodeSplitThroughput = splitThroughputByNode.get(nodeId);
+                    splitThroughputByNode.put(nodeId, (nodeSplitThroughput == null ? 0 : nodeSplitThroughput) + splitThroughput);
+                    totalSplitThroughput += splitThroughput;
+                }
             }
+            double averageSplitThroughput = splitThroughputByNode.isEmpty() ? 0 : totalSplitThroughput / splitThroughputByNode.size();
 
             for (Split split : splits) {
                 List<Node> candidateNodes;
                 if (locationAwareScheduling || !split.isRemotelyAccessible()) {
                     candidateNodes = selectCandidateNodes(nodeMap.get().get(), split);
                 }
+                else if (splitAffinityScheduling && split.getConnectorSplit() instanceof AffinitySplit) {
+                    candidateNodes = selectAffinityNodes(nodeMap.get().get(), split);
+                }
                 else {
                     candidateNodes = selectRandomNodes(minCandidates);
                 }
@@ -235,18 +268,24 @@ public class NodeScheduler
                     }
                 }
                 Node chosenNode = null;
-                int min = Integer.MAX_VALUE;
+                double minCost = Double.MAX_VALUE;
 
                 for (Node node : candidateNodes) {
                     int assignedSplitCount = assignmentCount.containsKey(node) ? assignmentCount.get(node) : 0;
                     int totalSplitCount = assignedSplitCount + splitCountByNode.get(node);
 
-                    if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
-                        chosenNode = node;
-                        min = totalSplitCount;
+                    if (totalSplitCount < maxSplitsPerNode) {
+                        Double splitThroughput = splitThroughputByNode.get(node.getNodeIdentifier());
+                        double relativeSplitThroughput = splitThroughput == null ? 1.0 : splitThroughput / averageSplitThroughput;
+                        double cost = splitPlacementPolicy.getCost(new NodeLoad(splitCountByNode.get(node), relativeSplitThroughput), assignedSplitCount);
+                        if (cost < minCost) {
+                            chosenNode = node;
+                            minCost = cost;
+                        }
                     }
                 }
                 if (chosenNode == null) {
+                    int min = Integer.MAX_VALUE;
                     for (Node node : candidateNodes) {
                         int assignedSplitCount = assignmentCount.containsKey(node) ? assignmentCount.get(node) : 0;
                         int queuedSplitCount = 0;
@@ -301,6 +340,11 @@ public class NodeScheduler
                 }
             }
 
+            // without a local node, prefer the nodes that read this split before and may still have its data cached
+            if (splitAffinityScheduling && split.isRemotelyAccessible() && split.getConnectorSplit() instanceof AffinitySplit && chosen.isEmpty()) {
+                return selectAffinityNodes(nodeMap, split);
+            }
+
             // add nodes in same rack, if below the minimum count
             if (split.isRemotelyAccessible() && chosen.size() < minCandidates) {
                 for (HostAddress hint : split.getAddresses()) {
@@ -343,6 +387,49 @@ public class NodeScheduler
 
             return ImmutableList.copyOf(chosen);
         }
+
+        /**
+         * Selects the nodes with the highest rendezvous hash for the split, so that a split is
+         * scheduled on the same few nodes on every query, and only splits of a node that leaves
+         * or joins the cluster move to another node.
+         */
+        private List<Node> selectAffinityNodes(NodeMap nodeMap, Split split)
+        {
+            String splitKey = split.getConnectorId() + ":" + ((AffinitySplit) split.getConnectorSplit()).getAffinityKey();
+
+            Node first = null;
+            long firstHash = Long.MIN_VALUE;
+            Node second = null;
+            long secondHash = Long.MIN_VALUE;
+            for (Node node : nodeMap.getNodesByHostAndPort().values()) {
+                long hash = AFFINITY_HASH.newHasher()
+                        .putString(splitKey, UTF_8)
+                        .putString(node.getNodeIdentifier(), UTF_8)
+                        .hash()
+                        .asLong();
+                if (first == null || hash > firstHash) {
+                    second = first;
+                    secondHash = firstHash;
+                    first = node;
+                    firstHash = hash;
+                }
+                else if (second == null || hash > secondHash) {
+                    second = node;
+                    secondHash = hash;
+                }
+            }
+
+            ImmutableList.Builder<Node> chosen = ImmutableList.builder();
+            if (first != null) {
+                chosen.add(first);
+                scheduleAffinity.incrementAndGet();
+            }
+            // a second choice keeps a hot split from overloading a single node
+            if (second != null) {
+                chosen.add(second);
+            }
+            return chosen.build();
+        }
     }
 
     private static <T> Iterable<T> lazyShuffle(final Iterable<T> iterable)
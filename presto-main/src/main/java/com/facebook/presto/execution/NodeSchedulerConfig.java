@@ -17,6 +17,7 @@ import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
 
 public class NodeSchedulerConfig
 {
@@ -26,6 +27,8 @@ public class NodeSchedulerConfig
     private boolean multipleTasksPerNode;
     private int maxSplitsPerNode = 100;
     private int maxPendingSplitsPerNodePerTask = 10;
+    private boolean splitAffinityScheduling;
+    private SplitPlacementPolicyType splitPlacementPolicy = SplitPlacementPolicyType.SPLIT_COUNT;
 
     public boolean isMultipleTasksPerNodeEnabled()
     {
@@ -100,4 +103,31 @@ public class NodeSchedulerConfig
         this.maxSplitsPerNode = maxSplitsPerNode;
         return this;
     }
+
+    public boolean isSplitAffinitySchedulingEnabled()
+    {
+        return splitAffinityScheduling;
+    }
+
+    @ConfigDescription("Schedule splits that are not local to any node on the same nodes on every query, so node-local caches are reused")
+    @Config("node-scheduler.split-affinity-scheduling-enabled")
+    public NodeSchedulerConfig setSplitAffinitySchedulingEnabled(boolean splitAffinityScheduling)
+    {
+        this.splitAffinityScheduling = splitAffinityScheduling;
+        return this;
+    }
+
+    @NotNull
+    public SplitPlacementPolicyType getSplitPlacementPolicy()
+    {
+        return splitPlacementPolicy;
+    }
+
+    @ConfigDescription("How the node scheduler chooses between the candidate nodes of a split")
+    @Config("node-scheduler.split-placement-policy")
+    public NodeSchedulerConfig setSplitPlacementPolicy(SplitPlacementPolicyType splitPlacementPolicy)
+    {
+        this.splitPlacementPolicy = splitPlacementPolicy;
+        return this;
+    }
 }
@@ -18,6 +18,8 @@ import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
 import javax.annotation.Nullable;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -43,6 +45,11 @@ public class QueryManagerConfig
     private int remoteTaskMaxConsecutiveErrorCount = 10;
     private Duration remoteTaskMinErrorDuration = new Duration(2, TimeUnit.MINUTES);
     private int remoteTaskMaxCallbackThreads = 1000;
+    private Duration remoteTaskInfoRefreshInterval = new Duration(1, TimeUnit.SECONDS);
+    private boolean remoteTaskSmileEnabled = true;
+
+    private double speculativeExecutionCompletedSplitRatio = 0.75;
+    private double speculativeExecutionSlowSplitMultiplier = 1.5;
 
     @Min(1)
     public int getScheduleSplitBatchSize()
@@ -240,4 +247,56 @@ public class QueryManagerConfig
         this.remoteTaskMaxCallbackThreads = remoteTaskMaxCallbackThreads;
         return this;
     }
+
+    @NotNull
+    public Duration getRemoteTaskInfoRefreshInterval()
+    {
+        return remoteTaskInfoRefreshInterval;
+    }
+
+    @Config("query.remote-task.info-refresh-interval")
+    public QueryManagerConfig setRemoteTaskInfoRefreshInterval(Duration remoteTaskInfoRefreshInterval)
+    {
+        this.remoteTaskInfoRefreshInterval = remoteTaskInfoRefreshInterval;
+        return this;
+    }
+
+    public boolean isRemoteTaskSmileEnabled()
+    {
+        return remoteTaskSmileEnabled;
+    }
+
+    @Config("query.remote-task.smile-enabled")
+    public QueryManagerConfig setRemoteTaskSmileEnabled(boolean remoteTaskSmileEnabled)
+    {
+        this.remoteTaskSmileEnabled = remoteTaskSmileEnabled;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getSpeculativeExecutionCompletedSplitRatio()
+    {
+        return speculativeExecutionCompletedSplitRatio;
+    }
+
+    @Config("query.speculative-execution.completed-split-ratio")
+    public QueryManagerConfig setSpeculativeExecutionCompletedSplitRatio(double speculativeExecutionCompletedSplitRatio)
+    {
+        this.speculativeExecutionCompletedSplitRatio = speculativeExecutionCompletedSplitRatio;
+        return this;
+    }
+
+    @DecimalMin("1.0")
+    public double getSpeculativeExecutionSlowSplitMultiplier()
+    {
+        return speculativeExecutionSlowSplitMultiplier;
+    }
+
+    @Config("query.speculative-execution.slow-split-multiplier")
+    public QueryManagerConfig setSpeculativeExecutionSlowSplitMultiplier(double speculativeExecutionSlowSplitMultiplier)
+    {
+        this.speculativeExecutionSlowSplitMultiplier = speculativeExecutionSlowSplitMultiplier;
+        return this;
+    }
 }
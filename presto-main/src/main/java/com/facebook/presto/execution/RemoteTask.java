@@ -19,6 +19,8 @@ import com.facebook.presto.metadata.Split;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import io.airlift.units.Duration;
 
+import java.util.Map;
+
 public interface RemoteTask
 {
     String getNodeId();
@@ -29,18 +31,57 @@ public interface RemoteTask
 
     void addSplits(PlanNodeId sourceId, Iterable<Split> split);
 
+    /**
+     * Adds a copy of a partitioned split that runs slowly in another task. The output of
+     * the copy is held by the task until it is committed or aborted.
+     */
+    void addSpeculativeSplit(Split split);
+
+    /**
+     * Publishes the output of a finished speculative split.
+     */
+    void commitSplit(Split split);
+
+    /**
+     * Discards the output of a partitioned split, unless it has already been published.
+     */
+    void abortSplit(Split split);
+
+    /**
+     * The started partitioned splits of a task running with speculative execution whose
+     * output has not been published.
+     */
+    Map<Split, SplitStatus> getStagedSplits();
+
+    /**
+     * Median running time of the partitioned splits whose output has been published,
+     * or zero if not known yet.
+     */
+    Duration getStagedSplitMedianTime();
+
     void noMoreSplits(PlanNodeId sourceId);
 
     void setOutputBuffers(OutputBuffers outputBuffers);
 
     void addStateChangeListener(StateChangeListener<TaskInfo> stateChangeListener);
 
+    /**
+     * Listens to every status received for the task. Statuses are received far more often
+     * than the task info changes, and carry the staged splits and partitioned split counts.
+     */
+    void addStatusListener(StateChangeListener<TaskStatus> statusListener);
+
     void cancel();
 
     int getPartitionedSplitCount();
 
     int getQueuedPartitionedSplitCount();
 
+    /**
+     * Partitioned splits completed per second by the task, or zero if not known yet.
+     */
+    double getPartitionedSplitThroughput();
+
     Duration waitForTaskToFinish(Duration maxWait)
             throws InterruptedException;
 }
@@ -13,8 +13,11 @@
  */
 package com.facebook.presto.execution;
 
+import com.facebook.presto.HashPagePartitionFunction;
 import com.facebook.presto.OutputBuffers;
 import com.facebook.presto.PagePartitionFunction;
+import com.facebook.presto.UnpartitionedPagePartitionFunction;
+import com.facebook.presto.block.PagesTransferStats;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.spi.Page;
 import com.google.common.collect.ImmutableList;
@@ -126,6 +129,16 @@ public class SharedBuffer
     @GuardedBy("this")
     private final Set<TaskId> abortedBuffers = new HashSet<>();
 
+    /**
+     * Buffers of a hash partitioned output indexed by partition, or null if the output is not partitioned.
+     * Each of these buffers holds only the pages of its own partition, so the master buffer is not used.
+     */
+    @GuardedBy("this")
+    private NamedBuffer[] partitions;
+    @GuardedBy("this")
+    private long maxPartitionBufferedBytes;
+    private final SettableFuture<Integer> partitionCount = SettableFuture.create();
+
     private final StateMachine<BufferState> state;
 
     @GuardedBy("this")
@@ -133,6 +146,8 @@ public class SharedBuffer
 
     private final AtomicLong pagesAdded = new AtomicLong();
 
+    private final PagesTransferStats transferStats = new PagesTransferStats();
+
     public SharedBuffer(TaskId taskId, Executor executor, DataSize maxBufferSize)
     {
         checkNotNull(taskId, "taskId is null");
@@ -144,6 +159,11 @@ public class SharedBuffer
         this.maxBufferedBytes = maxBufferSize.toBytes();
     }
 
+    public long getMaxBufferedBytes()
+    {
+        return maxBufferedBytes;
+    }
+
     public void addStateChangeListener(StateChangeListener<BufferState> stateChangeListener)
     {
         state.addStateChangeListener(stateChangeListener);
@@ -165,7 +185,13 @@ public class SharedBuffer
         for (NamedBuffer namedBuffer : namedBuffers.values()) {
             infos.add(namedBuffer.getInfo());
         }
-        return new SharedBufferInfo(state.get(), masterSequenceId.get(), pagesAdded.get(), infos.build());
+        return new SharedBufferInfo(
+                state.get(),
+                masterSequenceId.get(),
+                pagesAdded.get(),
+                transferStats.getUncompressedBytes(),
+                transferStats.getCompressedBytes(),
+                infos.build());
     }
 
     public synchronized void setOutputBuffers(OutputBuffers newOutputBuffers)
@@ -197,6 +223,11 @@ public class SharedBuffer
             }
         }
 
+        // hash partitioned buffers are always declared together, so the partition layout is complete
+        if (outputBuffers.isNoMoreBufferIds() && partitions == null) {
+            createPartitions();
+        }
+
         // update state if no more buffers is set
         if (outputBuffers.isNoMoreBufferIds()) {
             state.compareAndSet(OPEN, NO_MORE_BUFFERS);
@@ -206,9 +237,45 @@ public class SharedBuffer
         updateState();
     }
 
+    private void createPartitions()
+    {
+        checkState(Thread.holdsLock(this), "Thread must hold a lock on the %s", SharedBuffer.class.getSimpleName());
+
+        List<NamedBuffer> hashBuffers = new ArrayList<>();
+        for (NamedBuffer namedBuffer : namedBuffers.values()) {
+            if (namedBuffer.isPartitioned()) {
+                hashBuffers.add(namedBuffer);
+            }
+        }
+        if (hashBuffers.isEmpty()) {
+            return;
+        }
+        checkState(hashBuffers.size() == namedBuffers.size(), "Output mixes partitioned and unpartitioned buffers");
+
+        NamedBuffer[] partitions = new NamedBuffer[hashBuffers.size()];
+        for (NamedBuffer namedBuffer : hashBuffers) {
+            int partition = namedBuffer.getPartition();
+            checkState(partition >= 0 && partition < partitions.length && partitions[partition] == null, "Invalid partition %s for buffer %s", partition, namedBuffer);
+            partitions[partition] = namedBuffer;
+        }
+        this.partitions = partitions;
+        this.maxPartitionBufferedBytes = Math.max(maxBufferedBytes / partitions.length, 1);
+        partitionCount.set(partitions.length);
+    }
+
+    /**
+     * Gets the number of partitions of a hash partitioned output. The future completes once the
+     * buffers of all consumers are known. A value of zero means the buffer was destroyed first.
+     */
+    public ListenableFuture<Integer> getPartitionCount()
+    {
+        return partitionCount;
+    }
+
     public synchronized ListenableFuture<?> enqueue(Page page)
     {
         checkNotNull(page, "page is null");
+        checkState(partitions == null, "Pages of a partitioned output must be enqueued to a partition");
 
         // ignore pages after no more pages is set
         // this can happen with a limit query
@@ -228,6 +295,27 @@ public class SharedBuffer
         return queuedPage.getFuture();
     }
 
+    /**
+     * Adds a page to the buffer of a single partition. Memory is accounted for, and the writer is
+     * blocked, per partition, so a slow consumer only holds back the pages that are destined for it.
+     */
+    public synchronized ListenableFuture<?> enqueue(int partition, Page page)
+    {
+        checkNotNull(page, "page is null");
+
+        // ignore pages after no more pages is set
+        // this can happen with a limit query
+        if (!state.get().canAddPages()) {
+            return immediateFuture(true);
+        }
+
+        checkState(partitions != null, "Partitions of the output are not known yet");
+        checkArgument(partition >= 0 && partition < partitions.length, "Invalid partition %s", partition);
+        ListenableFuture<?> future = partitions[partition].enqueue(page);
+        processPendingReads();
+        return future;
+    }
+
     private synchronized void addInternal(Page page)
     {
         // add page
@@ -316,6 +404,9 @@ public class SharedBuffer
         for (NamedBuffer namedBuffer : namedBuffers.values()) {
             namedBuffer.abort();
         }
+
+        // release writers still waiting for the partition layout
+        partitionCount.set(0);
         processPendingReads();
     }
 
@@ -351,10 +442,16 @@ public class SharedBuffer
                     queuedPage.getFuture().set(null);
                 }
                 queuedPages.clear();
+
+                if (partitions != null) {
+                    for (NamedBuffer partition : partitions) {
+                        partition.discardQueuedPages();
+                    }
+                }
             }
 
             // advanced master queue
-            if (!state.canAddBuffers() && !namedBuffers.isEmpty()) {
+            if (partitions == null && !state.canAddBuffers() && !namedBuffers.isEmpty()) {
                 // advance master sequence id
                 long oldMasterSequenceId = masterSequenceId.get();
                 long newMasterSequenceId = Long.MAX_VALUE;
@@ -415,12 +512,102 @@ public class SharedBuffer
         private final AtomicLong sequenceId = new AtomicLong();
         private final AtomicBoolean finished = new AtomicBoolean();
 
+        // pages of a hash partitioned output, starting at sequenceId
+        private final LinkedList<Page> partitionPages = new LinkedList<>();
+        private final BlockingQueue<QueuedPage> queuedPartitionPages = new LinkedBlockingQueue<>();
+        private final AtomicLong partitionPagesAdded = new AtomicLong();
+        private long partitionBufferedBytes;
+
         private NamedBuffer(TaskId bufferId, PagePartitionFunction partitionFunction)
         {
             this.bufferId = bufferId;
             this.partitionFunction = partitionFunction;
         }
 
+        public boolean isPartitioned()
+        {
+            return partitionFunction instanceof HashPagePartitionFunction;
+        }
+
+        public int getPartition()
+        {
+            return ((HashPagePartitionFunction) partitionFunction).getPartition();
+        }
+
+        public ListenableFuture<?> enqueue(Page page)
+        {
+            checkState(Thread.holdsLock(SharedBuffer.this), "Thread must hold a lock on the %s", SharedBuffer.class.getSimpleName());
+
+            // the consumer is gone, so drop the page
+            if (finished.get()) {
+                return immediateFuture(true);
+            }
+
+            if (partitionBufferedBytes < maxPartitionBufferedBytes) {
+                addPartitionPage(page);
+                return immediateFuture(true);
+            }
+
+            QueuedPage queuedPage = new QueuedPage(page);
+            queuedPartitionPages.add(queuedPage);
+            return queuedPage.getFuture();
+        }
+
+        private void addPartitionPage(Page page)
+        {
+            partitionPages.add(page);
+            partitionPagesAdded.incrementAndGet();
+            pagesAdded.incrementAndGet();
+            partitionBufferedBytes += page.getSizeInBytes();
+        }
+
+        private void acknowledgePartitionPages(long pageCount)
+        {
+            // an aborted buffer has already released its pages
+            if (finished.get()) {
+                return;
+            }
+
+            for (long i = 0; i < pageCount; i++) {
+                Page page = partitionPages.removeFirst();
+                partitionBufferedBytes -= page.getSizeInBytes();
+            }
+
+            // refill buffer from queued pages
+            while (!queuedPartitionPages.isEmpty() && partitionBufferedBytes < maxPartitionBufferedBytes) {
+                QueuedPage queuedPage = queuedPartitionPages.remove();
+                addPartitionPage(queuedPage.getPage());
+                queuedPage.getFuture().set(null);
+            }
+        }
+
+        private List<Page> getPartitionPages(DataSize maxSize)
+        {
+            long maxBytes = maxSize.toBytes();
+            List<Page> pages = new ArrayList<>();
+            long bytes = 0;
+
+            for (Page page : partitionPages) {
+                bytes += page.getSizeInBytes();
+                // break (and don't add) if this page would exceed the limit
+                if (!pages.isEmpty() && bytes > maxBytes) {
+                    break;
+                }
+                pages.add(page);
+            }
+            return ImmutableList.copyOf(pages);
+        }
+
+        public void discardQueuedPages()
+        {
+            checkState(Thread.holdsLock(SharedBuffer.this), "Thread must hold a lock on the %s", SharedBuffer.class.getSimpleName());
+
+            for (QueuedPage queuedPage : queuedPartitionPages) {
+                queuedPage.getFuture().set(null);
+            }
+            queuedPartitionPages.clear();
+        }
+
         public BufferInfo getInfo()
         {
             //
@@ -433,7 +620,13 @@ public class SharedBuffer
                 return new BufferInfo(bufferId, true, 0, sequenceId);
             }
 
-            int size = Math.max(Ints.checkedCast(pagesAdded.get() + queuedPages.size() - sequenceId), 0);
+            int size;
+            if (isPartitioned()) {
+                size = Math.max(Ints.checkedCast(partitionPagesAdded.get() + queuedPartitionPages.size() - sequenceId), 0);
+            }
+            else {
+                size = Math.max(Ints.checkedCast(pagesAdded.get() + queuedPages.size() - sequenceId), 0);
+            }
             return new BufferInfo(bufferId, finished.get(), size, sequenceId);
         }
 
@@ -454,6 +647,9 @@ public class SharedBuffer
 
             // acknowledge previous pages
             if (startingSequenceId > sequenceId) {
+                if (isPartitioned()) {
+                    acknowledgePartitionPages(startingSequenceId - sequenceId);
+                }
                 this.sequenceId.set(startingSequenceId);
                 sequenceId = startingSequenceId;
             }
@@ -462,8 +658,14 @@ public class SharedBuffer
                 return emptyResults(startingSequenceId, true);
             }
 
+            if (isPartitioned()) {
+                // pages were partitioned when they were added
+                List<Page> pages = getPartitionPages(maxSize);
+                return new BufferResult(startingSequenceId, startingSequenceId + pages.size(), false, pages, new UnpartitionedPagePartitionFunction(), transferStats);
+            }
+
             List<Page> pages = getPagesInternal(maxSize, sequenceId);
-            return new BufferResult(startingSequenceId, startingSequenceId + pages.size(), false, pages, partitionFunction);
+            return new BufferResult(startingSequenceId, startingSequenceId + pages.size(), false, pages, partitionFunction, transferStats);
         }
 
         public void abort()
@@ -471,6 +673,11 @@ public class SharedBuffer
             checkState(Thread.holdsLock(SharedBuffer.this), "Thread must hold a lock on the %s", SharedBuffer.class.getSimpleName());
 
             finished.set(true);
+
+            // free the pages of the partition and release the writers waiting on it
+            partitionPages.clear();
+            partitionBufferedBytes = 0;
+            discardQueuedPages();
         }
 
         public boolean checkCompletion()
@@ -481,7 +688,8 @@ public class SharedBuffer
                 return true;
             }
 
-            if (!state.get().canAddPages() && sequenceId.get() >= pagesAdded.get()) {
+            long pageCount = isPartitioned() ? partitionPagesAdded.get() : pagesAdded.get();
+            if (!state.get().canAddPages() && sequenceId.get() >= pageCount) {
                 // WARNING: finish must set before the call to checkFlushComplete of the short circuit above will not trigger and the code enter an infinite recursion
                 finished.set(true);
 
@@ -28,6 +28,8 @@ public final class SharedBufferInfo
     private final BufferState state;
     private final long masterSequenceId;
     private final long pagesAdded;
+    private final long uncompressedBytesSent;
+    private final long compressedBytesSent;
     private final List<BufferInfo> buffers;
 
     @JsonCreator
@@ -35,11 +37,15 @@ public final class SharedBufferInfo
             @JsonProperty("state") BufferState state,
             @JsonProperty("masterSequenceId") long masterSequenceId,
             @JsonProperty("pagesAdded") long pagesAdded,
+            @JsonProperty("uncompressedBytesSent") long uncompressedBytesSent,
+            @JsonProperty("compressedBytesSent") long compressedBytesSent,
             @JsonProperty("buffers") List<BufferInfo> buffers)
     {
         this.state = state;
         this.masterSequenceId = masterSequenceId;
         this.pagesAdded = pagesAdded;
+        this.uncompressedBytesSent = uncompressedBytesSent;
+        this.compressedBytesSent = compressedBytesSent;
         this.buffers = ImmutableList.copyOf(buffers);
     }
 
@@ -61,6 +67,18 @@ public final class SharedBufferInfo
         return pagesAdded;
     }
 
+    @JsonProperty
+    public long getUncompressedBytesSent()
+    {
+        return uncompressedBytesSent;
+    }
+
+    @JsonProperty
+    public long getCompressedBytesSent()
+    {
+        return compressedBytesSent;
+    }
+
     @JsonProperty
     public List<BufferInfo> getBuffers()
     {
@@ -70,7 +88,7 @@ public final class SharedBufferInfo
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(state, pagesAdded, buffers, masterSequenceId);
+        return Objects.hashCode(state, pagesAdded, uncompressedBytesSent, compressedBytesSent, buffers, masterSequenceId);
     }
 
     @Override
@@ -85,6 +103,8 @@ public final class SharedBufferInfo
         SharedBufferInfo other = (SharedBufferInfo) obj;
         return Objects.equal(this.state, other.state) &&
                 Objects.equal(this.pagesAdded, other.pagesAdded) &&
+                Objects.equal(this.uncompressedBytesSent, other.uncompressedBytesSent) &&
+                Objects.equal(this.compressedBytesSent, other.compressedBytesSent) &&
                 Objects.equal(this.buffers, other.buffers) &&
                 Objects.equal(this.masterSequenceId, other.masterSequenceId);
     }
@@ -95,6 +115,8 @@ public final class SharedBufferInfo
         return toStringHelper(this)
                 .add("state", state)
                 .add("pagesAdded", pagesAdded)
+                .add("uncompressedBytesSent", uncompressedBytesSent)
+                .add("compressedBytesSent", compressedBytesSent)
                 .add("buffers", buffers)
                 .add("masterSequenceId", masterSequenceId)
                 .toString();
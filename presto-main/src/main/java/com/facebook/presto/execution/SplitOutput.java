@@ -0,0 +1,346 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.spi.Page;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+
+/**
+ * Stages the output of a single partitioned split of a task that runs with speculative execution,
+ * so the consumers of the task see either all of the output of the split or none of it. When the
+ * split finishes, its pages are published to the shared buffer, unless the split is a speculative
+ * copy of a split that runs on another node: the output of a copy is held until the coordinator
+ * commits it. Output that has not been published can be aborted, which discards it.
+ * <p>
+ * The staged output is limited to the size of the shared buffer. An original split that outgrows
+ * the limit publishes its output early and sends the rest of it directly to the shared buffer, so
+ * it is no longer a candidate for speculation. A speculative copy can not publish without a commit,
+ * so it aborts itself and leaves the race to the original.
+ */
+@ThreadSafe
+public class SplitOutput
+{
+    public enum State
+    {
+        /**
+         * The split is running and its output is staged.
+         */
+        RUNNING,
+        /**
+         * The speculative copy has finished and its output is held until it is committed or aborted.
+         */
+        FINISHED,
+        /**
+         * The output has been added to the shared buffer.
+         * This is a terminal state.
+         */
+        PUBLISHED,
+        /**
+         * The output has been discarded.
+         * This is a terminal state.
+         */
+        ABORTED
+    }
+
+    private static final int UNPARTITIONED = -1;
+
+    private final long splitId;
+    private final boolean speculative;
+    private final SharedBuffer sharedBuffer;
+    private final long maxStagedBytes;
+
+    private final SettableFuture<?> done = SettableFuture.create();
+
+    @GuardedBy("this")
+    private final List<StagedPage> stagedPages = new ArrayList<>();
+    @GuardedBy("this")
+    private long stagedBytes;
+    @GuardedBy("this")
+    private State state = State.RUNNING;
+    // the output is sent directly to the shared buffer after the staged output outgrew the limit
+    @GuardedBy("this")
+    private boolean streaming;
+    @GuardedBy("this")
+    private final List<ListenableFuture<?>> pendingStreamedPages = new ArrayList<>();
+
+    public SplitOutput(long splitId, boolean speculative, SharedBuffer sharedBuffer)
+    {
+        this(splitId, speculative, sharedBuffer, checkNotNull(sharedBuffer, "sharedBuffer is null").getMaxBufferedBytes());
+    }
+
+    public SplitOutput(long splitId, boolean speculative, SharedBuffer sharedBuffer, long maxStagedBytes)
+    {
+        checkArgument(maxStagedBytes > 0, "maxStagedBytes must be greater than zero");
+        this.splitId = splitId;
+        this.speculative = speculative;
+        this.sharedBuffer = checkNotNull(sharedBuffer, "sharedBuffer is null");
+        this.maxStagedBytes = maxStagedBytes;
+    }
+
+    public long getSplitId()
+    {
+        return splitId;
+    }
+
+    public boolean isSpeculative()
+    {
+        return speculative;
+    }
+
+    public synchronized State getState()
+    {
+        return state;
+    }
+
+    public synchronized boolean isAborted()
+    {
+        return state == State.ABORTED;
+    }
+
+    public synchronized long getStagedBytes()
+    {
+        return stagedBytes;
+    }
+
+    /**
+     * Adds a page to the output of the split. The returned future completes when the
+     * output of the split can accept more pages.
+     */
+    public ListenableFuture<?> enqueue(Page page)
+    {
+        return stage(UNPARTITIONED, page);
+    }
+
+    /**
+     * Adds a page to a partition of the output of the split. The returned future completes
+     * when the output of the split can accept more pages.
+     */
+    public ListenableFuture<?> enqueue(int partition, Page page)
+    {
+        checkArgument(partition >= 0, "partition is negative");
+        return stage(partition, page);
+    }
+
+    private ListenableFuture<?> stage(int partition, Page page)
+    {
+        checkNotNull(page, "page is null");
+
+        List<ListenableFuture<?>> pending;
+        synchronized (this) {
+            if (streaming) {
+                removeAcceptedPages();
+                ListenableFuture<?> future = addToSharedBuffer(new StagedPage(partition, page));
+                if (!future.isDone()) {
+                    pendingStreamedPages.add(future);
+                }
+                return future;
+            }
+
+            // the output of an aborted split is not needed
+            if (state != State.RUNNING) {
+                return Futures.immediateFuture(null);
+            }
+            stagedPages.add(new StagedPage(partition, page));
+            stagedBytes += page.getSizeInBytes();
+            if (stagedBytes <= maxStagedBytes) {
+                return Futures.immediateFuture(null);
+            }
+
+            if (speculative) {
+                pending = null;
+            }
+            else {
+                pending = publish();
+                streaming = true;
+                pendingStreamedPages.addAll(pending);
+            }
+        }
+
+        if (pending == null) {
+            abort();
+            return Futures.immediateFuture(null);
+        }
+        if (pending.isEmpty()) {
+            return Futures.immediateFuture(null);
+        }
+        return Futures.allAsList(pending);
+    }
+
+    /**
+     * Called once the split has produced all of its output. The returned future completes when
+     * the output has been accepted by the shared buffer or has been discarded.
+     */
+    public ListenableFuture<?> finish()
+    {
+        List<ListenableFuture<?>> pending;
+        synchronized (this) {
+            if (streaming) {
+                // the output has been published, but the last pages may not have been accepted yet
+                pending = ImmutableList.copyOf(pendingStreamedPages);
+                pendingStreamedPages.clear();
+                streaming = false;
+            }
+            else {
+                if (state != State.RUNNING) {
+                    return done;
+                }
+                if (speculative) {
+                    state = State.FINISHED;
+                    return done;
+                }
+                pending = publish();
+            }
+        }
+        setDoneWhenAccepted(pending);
+        return done;
+    }
+
+    /**
+     * Publishes the output of a finished speculative copy.
+     *
+     * @return false if the output has been aborted
+     */
+    public boolean commit()
+    {
+        List<ListenableFuture<?>> pending;
+        synchronized (this) {
+            checkState(state != State.RUNNING, "Split %s can not be committed before it is finished", splitId);
+            if (state != State.FINISHED) {
+                return state == State.PUBLISHED;
+            }
+            pending = publish();
+        }
+        setDoneWhenAccepted(pending);
+        return true;
+    }
+
+    /**
+     * Discards the output of the split, unless it has already been published.
+     *
+     * @return false if the output has been published
+     */
+    public boolean abort()
+    {
+        synchronized (this) {
+            if (state == State.PUBLISHED) {
+                return false;
+            }
+            state = State.ABORTED;
+            stagedPages.clear();
+            stagedBytes = 0;
+        }
+        done.set(null);
+        return true;
+    }
+
+    @GuardedBy("this")
+    private List<ListenableFuture<?>> publish()
+    {
+        ImmutableList.Builder<ListenableFuture<?>> pending = ImmutableList.builder();
+        for (StagedPage stagedPage : stagedPages) {
+            ListenableFuture<?> future = addToSharedBuffer(stagedPage);
+            if (!future.isDone()) {
+                pending.add(future);
+            }
+        }
+        stagedPages.clear();
+        stagedBytes = 0;
+        state = State.PUBLISHED;
+        return pending.build();
+    }
+
+    @GuardedBy("this")
+    private void removeAcceptedPages()
+    {
+        for (Iterator<ListenableFuture<?>> iterator = pendingStreamedPages.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private ListenableFuture<?> addToSharedBuffer(StagedPage stagedPage)
+    {
+        if (stagedPage.getPartition() == UNPARTITIONED) {
+            return sharedBuffer.enqueue(stagedPage.getPage());
+        }
+        return sharedBuffer.enqueue(stagedPage.getPartition(), stagedPage.getPage());
+    }
+
+    private void setDoneWhenAccepted(List<ListenableFuture<?>> pending)
+    {
+        if (pending.isEmpty()) {
+            done.set(null);
+            return;
+        }
+        Futures.allAsList(pending).addListener(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                done.set(null);
+            }
+        }, sameThreadExecutor());
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return toStringHelper(this)
+                .add("splitId", splitId)
+                .add("speculative", speculative)
+                .add("state", state)
+                .add("stagedBytes", stagedBytes)
+                .add("streaming", streaming)
+                .toString();
+    }
+
+    private static class StagedPage
+    {
+        private final int partition;
+        private final Page page;
+
+        private StagedPage(int partition, Page page)
+        {
+            this.partition = partition;
+            this.page = page;
+        }
+
+        public int getPartition()
+        {
+            return partition;
+        }
+
+        public Page getPage()
+        {
+            return page;
+        }
+    }
+}
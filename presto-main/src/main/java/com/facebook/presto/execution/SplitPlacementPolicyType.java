@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public enum SplitPlacementPolicyType
+{
+    SPLIT_COUNT(new SplitCountPlacementPolicy()),
+    LOAD_AWARE(new LoadAwarePlacementPolicy());
+
+    private final SplitPlacementPolicy policy;
+
+    SplitPlacementPolicyType(SplitPlacementPolicy policy)
+    {
+        this.policy = checkNotNull(policy, "policy is null");
+    }
+
+    public SplitPlacementPolicy getPolicy()
+    {
+        return policy;
+    }
+
+    /**
+     * Prefers the node with the fewest splits.
+     */
+    private static class SplitCountPlacementPolicy
+            implements SplitPlacementPolicy
+    {
+        @Override
+        public double getCost(NodeLoad load, int assignedSplitCount)
+        {
+            return load.getPartitionedSplitCount() + assignedSplitCount;
+        }
+    }
+
+    /**
+     * Prefers the node that is expected to start the split first: the splits ahead of it
+     * are scaled by how fast the node works through its splits compared to the other nodes.
+     * Until the throughput of a node is known, this is the same as the split count.
+     */
+    private static class LoadAwarePlacementPolicy
+            implements SplitPlacementPolicy
+    {
+        private static final double MIN_RELATIVE_THROUGHPUT = 0.25;
+        private static final double MAX_RELATIVE_THROUGHPUT = 4.0;
+
+        @Override
+        public double getCost(NodeLoad load, int assignedSplitCount)
+        {
+            // bound the throughput so a single measurement can not starve or flood a node
+            double relativeThroughput = Math.min(Math.max(load.getRelativeSplitThroughput(), MIN_RELATIVE_THROUGHPUT), MAX_RELATIVE_THROUGHPUT);
+            return (load.getPartitionedSplitCount() + assignedSplitCount) / relativeThroughput;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.metadata.Split;
+import com.google.common.base.Function;
+import com.google.common.collect.Ordering;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Runs copies of slow partitioned splits on idle tasks of the stage. Once most of the splits
+ * of the stage have completed, a running split that takes much longer than the median split
+ * is copied to a task on another node. Both copies race, and the output of the first copy to
+ * finish is used:
+ * <ul>
+ * <li>if the original split publishes its output, the copy is aborted</li>
+ * <li>if the copy finishes first, the original is aborted, and the copy is committed once the
+ * task of the original has confirmed the abort, so the output of the split is never used twice</li>
+ * </ul>
+ */
+@NotThreadSafe
+public class SplitSpeculator
+{
+    private final double minCompletedSplitRatio;
+    private final double slowSplitMultiplier;
+
+    private final Map<Split, Race> races = new HashMap<>();
+    private final Set<Split> speculatedSplits = new HashSet<>();
+
+    public SplitSpeculator(double minCompletedSplitRatio, double slowSplitMultiplier)
+    {
+        checkArgument(minCompletedSplitRatio >= 0 && minCompletedSplitRatio <= 1, "minCompletedSplitRatio must be between 0 and 1");
+        checkArgument(slowSplitMultiplier >= 1, "slowSplitMultiplier must be at least 1");
+        this.minCompletedSplitRatio = minCompletedSplitRatio;
+        this.slowSplitMultiplier = slowSplitMultiplier;
+    }
+
+    /**
+     * Resolves the running races and starts copies of the slow splits.
+     *
+     * @param tasks the tasks of the stage, which have been assigned all of the splits of the stage
+     * @param totalSplits the number of splits assigned to the tasks, excluding copies
+     * @return true when all splits have completed and no race is left to be decided
+     */
+    public boolean process(Collection<RemoteTask> tasks, int totalSplits)
+    {
+        checkNotNull(tasks, "tasks is null");
+
+        Map<RemoteTask, Map<Split, SplitStatus>> stagedSplits = new HashMap<>();
+        int remainingSplits = 0;
+        for (RemoteTask task : tasks) {
+            stagedSplits.put(task, task.getStagedSplits());
+            remainingSplits += task.getPartitionedSplitCount();
+        }
+
+        for (Iterator<Entry<Split, Race>> iterator = races.entrySet().iterator(); iterator.hasNext(); ) {
+            Entry<Split, Race> entry = iterator.next();
+            if (entry.getValue().update(entry.getKey(), stagedSplits)) {
+                iterator.remove();
+            }
+        }
+
+        if (remainingSplits == 0 && races.isEmpty()) {
+            return true;
+        }
+
+        // the running time of a typical split is only known once most splits have completed
+        if (totalSplits == 0 || 1.0 - (double) remainingSplits / totalSplits < minCompletedSplitRatio) {
+            return false;
+        }
+        Duration medianTime = getMedianTime(tasks);
+        if (medianTime.toMillis() == 0) {
+            return false;
+        }
+        double slowSplitMillis = medianTime.toMillis() * slowSplitMultiplier;
+
+        List<SlowSplit> slowSplits = new ArrayList<>();
+        for (Entry<RemoteTask, Map<Split, SplitStatus>> entry : stagedSplits.entrySet()) {
+            for (Entry<Split, SplitStatus> splitEntry : entry.getValue().entrySet()) {
+                Split split = splitEntry.getKey();
+                SplitStatus splitStatus = splitEntry.getValue();
+                if (splitStatus.getState() == SplitOutput.State.RUNNING &&
+                        splitStatus.getElapsedTime().toMillis() > slowSplitMillis &&
+                        split.isRemotelyAccessible() &&
+                        !speculatedSplits.contains(split)) {
+                    slowSplits.add(new SlowSplit(entry.getKey(), split, splitStatus.getElapsedTime()));
+                }
+            }
+        }
+
+        // copy the slowest splits first
+        Collections.sort(slowSplits, Ordering.natural().reverse().onResultOf(SlowSplit.elapsedTimeGetter()));
+
+        // a failed task fails the stage, which stops the speculation
+        List<RemoteTask> idleTasks = new ArrayList<>();
+        for (RemoteTask task : tasks) {
+            if (task.getPartitionedSplitCount() == 0) {
+                idleTasks.add(task);
+            }
+        }
+
+        for (SlowSplit slowSplit : slowSplits) {
+            RemoteTask copyTask = null;
+            for (RemoteTask task : idleTasks) {
+                // a copy on the same node would be as slow as the original
+                if (!task.getNodeId().equals(slowSplit.getTask().getNodeId())) {
+                    copyTask = task;
+                    break;
+                }
+            }
+            if (copyTask == null) {
+                continue;
+            }
+            idleTasks.remove(copyTask);
+
+            copyTask.addSpeculativeSplit(slowSplit.getSplit());
+            speculatedSplits.add(slowSplit.getSplit());
+            races.put(slowSplit.getSplit(), new Race(slowSplit.getTask(), copyTask));
+        }
+        return false;
+    }
+
+    private static Duration getMedianTime(Collection<RemoteTask> tasks)
+    {
+        List<Duration> medianTimes = new ArrayList<>();
+        for (RemoteTask task : tasks) {
+            Duration medianTime = task.getStagedSplitMedianTime();
+            if (medianTime.toMillis() > 0) {
+                medianTimes.add(medianTime);
+            }
+        }
+        if (medianTimes.isEmpty()) {
+            return new Duration(0, MILLISECONDS);
+        }
+        Collections.sort(medianTimes);
+        return medianTimes.get(medianTimes.size() / 2);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("races", races.size())
+                .add("speculatedSplits", speculatedSplits.size())
+                .toString();
+    }
+
+    private enum RaceState
+    {
+        RUNNING,
+        ABORTING_ORIGINAL
+    }
+
+    private static class Race
+    {
+        private final RemoteTask originalTask;
+        private final RemoteTask copyTask;
+        private RaceState state = RaceState.RUNNING;
+
+        private Race(RemoteTask originalTask, RemoteTask copyTask)
+        {
+            this.originalTask = checkNotNull(originalTask, "originalTask is null");
+            this.copyTask = checkNotNull(copyTask, "copyTask is null");
+        }
+
+        /**
+         * @return true once the race has been decided
+         */
+        public boolean update(Split split, Map<RemoteTask, Map<Split, SplitStatus>> stagedSplits)
+        {
+            // a split is no longer staged once its output has been published
+            SplitStatus original = stagedSplits.get(originalTask).get(split);
+            if (original == null) {
+                copyTask.abortSplit(split);
+                return true;
+            }
+
+            if (state == RaceState.RUNNING) {
+                SplitStatus copy = stagedSplits.get(copyTask).get(split);
+                if (copy != null && copy.getState() == SplitOutput.State.FINISHED) {
+                    originalTask.abortSplit(split);
+                    state = RaceState.ABORTING_ORIGINAL;
+                }
+                return false;
+            }
+
+            // the original may still publish its output until the abort has been applied
+            if (original.getState() == SplitOutput.State.ABORTED) {
+                copyTask.commitSplit(split);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class SlowSplit
+    {
+        private final RemoteTask task;
+        private final Split split;
+        private final Duration elapsedTime;
+
+        private SlowSplit(RemoteTask task, Split split, Duration elapsedTime)
+        {
+            this.task = task;
+            this.split = split;
+            this.elapsedTime = elapsedTime;
+        }
+
+        public RemoteTask getTask()
+        {
+            return task;
+        }
+
+        public Split getSplit()
+        {
+            return split;
+        }
+
+        public Duration getElapsedTime()
+        {
+            return elapsedTime;
+        }
+
+        public static Function<SlowSplit, Duration> elapsedTimeGetter()
+        {
+            return new Function<SlowSplit, Duration>()
+            {
+                @Override
+                public Duration apply(SlowSplit slowSplit)
+                {
+                    return slowSplit.getElapsedTime();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.execution.SplitOutput.State;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.Immutable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * State of a partitioned split whose output is staged for speculative execution.
+ */
+@Immutable
+public class SplitStatus
+{
+    private final long splitId;
+    private final State state;
+    private final Duration elapsedTime;
+
+    @JsonCreator
+    public SplitStatus(
+            @JsonProperty("splitId") long splitId,
+            @JsonProperty("state") State state,
+            @JsonProperty("elapsedTime") Duration elapsedTime)
+    {
+        this.splitId = splitId;
+        this.state = checkNotNull(state, "state is null");
+        this.elapsedTime = checkNotNull(elapsedTime, "elapsedTime is null");
+    }
+
+    /**
+     * Sequence id of the split within the task.
+     */
+    @JsonProperty
+    public long getSplitId()
+    {
+        return splitId;
+    }
+
+    @JsonProperty
+    public State getState()
+    {
+        return state;
+    }
+
+    /**
+     * Time since the split started running.
+     */
+    @JsonProperty
+    public Duration getElapsedTime()
+    {
+        return elapsedTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("splitId", splitId)
+                .add("state", state)
+                .add("elapsedTime", elapsedTime)
+                .toString();
+    }
+}
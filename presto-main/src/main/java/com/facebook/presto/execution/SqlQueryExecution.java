@@ -75,6 +75,8 @@ public class SqlQueryExecution
     private final LocationFactory locationFactory;
     private final int scheduleSplitBatchSize;
     private final int initialHashPartitions;
+    private final double speculativeExecutionCompletedSplitRatio;
+    private final double speculativeExecutionSlowSplitMultiplier;
     private final boolean experimentalSyntaxEnabled;
     private final boolean distributedIndexJoinsEnabled;
     private final boolean distributedJoinsEnabled;
@@ -99,6 +101,8 @@ public class SqlQueryExecution
             int scheduleSplitBatchSize,
             int maxPendingSplitsPerNode,
             int initialHashPartitions,
+            double speculativeExecutionCompletedSplitRatio,
+            double speculativeExecutionSlowSplitMultiplier,
             boolean experimentalSyntaxEnabled,
             boolean distributedIndexJoinsEnabled,
             boolean distributedJoinsEnabled,
@@ -126,6 +130,8 @@ public class SqlQueryExecution
 
             checkArgument(initialHashPartitions > 0, "initialHashPartitions must be greater than 0");
             this.initialHashPartitions = initialHashPartitions;
+            this.speculativeExecutionCompletedSplitRatio = speculativeExecutionCompletedSplitRatio;
+            this.speculativeExecutionSlowSplitMultiplier = speculativeExecutionSlowSplitMultiplier;
 
             checkNotNull(queryId, "queryId is null");
             checkNotNull(query, "query is null");
@@ -244,6 +250,8 @@ public class SqlQueryExecution
                 stateMachine.getSession(),
                 scheduleSplitBatchSize,
                 initialHashPartitions,
+                speculativeExecutionCompletedSplitRatio,
+                speculativeExecutionSlowSplitMultiplier,
                 queryExecutor,
                 nodeTaskMap,
                 ROOT_OUTPUT_BUFFERS);
@@ -392,6 +400,8 @@ public class SqlQueryExecution
         private final int maxPendingSplitsPerNode;
         private final int initialHashPartitions;
         private final Integer bigQueryInitialHashPartitions;
+        private final double speculativeExecutionCompletedSplitRatio;
+        private final double speculativeExecutionSlowSplitMultiplier;
         private final boolean experimentalSyntaxEnabled;
         private final boolean distributedIndexJoinsEnabled;
         private final boolean distributedJoinsEnabled;
@@ -425,6 +435,8 @@ public class SqlQueryExecution
             this.maxPendingSplitsPerNode = config.getMaxPendingSplitsPerNode();
             this.initialHashPartitions = config.getInitialHashPartitions();
             this.bigQueryInitialHashPartitions = config.getBigQueryInitialHashPartitions();
+            this.speculativeExecutionCompletedSplitRatio = config.getSpeculativeExecutionCompletedSplitRatio();
+            this.speculativeExecutionSlowSplitMultiplier = config.getSpeculativeExecutionSlowSplitMultiplier();
             this.metadata = checkNotNull(metadata, "metadata is null");
             this.sqlParser = checkNotNull(sqlParser, "sqlParser is null");
             this.locationFactory = checkNotNull(locationFactory, "locationFactory is null");
@@ -471,6 +483,8 @@ public class SqlQueryExecution
                     scheduleSplitBatchSize,
                     maxPendingSplitsPerNode,
                     initialHashPartitions,
+                    speculativeExecutionCompletedSplitRatio,
+                    speculativeExecutionSlowSplitMultiplier,
                     experimentalSyntaxEnabled,
                     distributedIndexJoinsEnabled,
                     isBigQueryEnabled(session, distributedJoinsEnabled),
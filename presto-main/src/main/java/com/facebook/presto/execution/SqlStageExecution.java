@@ -33,6 +33,7 @@ import com.facebook.presto.sql.planner.plan.ExchangeNode;
 import com.facebook.presto.sql.planner.plan.PlanFragmentId;
 import com.facebook.presto.sql.planner.plan.PlanNode;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.TableWriterNode;
 import com.facebook.presto.util.IterableTransformer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
@@ -76,6 +77,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.OutputBuffers.INITIAL_EMPTY_OUTPUT_BUFFERS;
+import static com.facebook.presto.SystemSessionProperties.isSpeculativeExecutionEnabled;
 import static com.facebook.presto.execution.StageInfo.stageStateGetter;
 import static com.facebook.presto.execution.TaskInfo.taskStateGetter;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
@@ -121,6 +123,11 @@ public class SqlStageExecution
 
     private final int initialHashPartitions;
 
+    private final Optional<SplitSpeculator> splitSpeculator;
+    private final AtomicInteger assignedSplits = new AtomicInteger();
+    @GuardedBy("this")
+    private long taskStatusUpdates;
+
     private final StateMachine<StageState> stageState;
 
     private final LinkedBlockingQueue<Throwable> failureCauses = new LinkedBlockingQueue<>();
@@ -154,6 +161,8 @@ public class SqlStageExecution
             Session session,
             int splitBatchSize,
             int initialHashPartitions,
+            double speculativeExecutionCompletedSplitRatio,
+            double speculativeExecutionSlowSplitMultiplier,
             ExecutorService executor,
             NodeTaskMap nodeTaskMap,
             OutputBuffers nextOutputBuffers)
@@ -168,6 +177,8 @@ public class SqlStageExecution
                 session,
                 splitBatchSize,
                 initialHashPartitions,
+                speculativeExecutionCompletedSplitRatio,
+                speculativeExecutionSlowSplitMultiplier,
                 executor,
                 nodeTaskMap);
 
@@ -185,6 +196,8 @@ public class SqlStageExecution
             Session session,
             int splitBatchSize,
             int initialHashPartitions,
+            double speculativeExecutionCompletedSplitRatio,
+            double speculativeExecutionSlowSplitMultiplier,
             ExecutorService executor,
             NodeTaskMap nodeTaskMap)
     {
@@ -211,6 +224,14 @@ public class SqlStageExecution
             this.initialHashPartitions = initialHashPartitions;
             this.executor = executor;
 
+            // the output of a writer is not staged per split, so writes can not be speculated
+            if (isSpeculativeExecutionEnabled(session, false) && fragment.getDistribution() == PlanDistribution.SOURCE && !containsTableWriter(fragment.getRoot())) {
+                this.splitSpeculator = Optional.of(new SplitSpeculator(speculativeExecutionCompletedSplitRatio, speculativeExecutionSlowSplitMultiplier));
+            }
+            else {
+                this.splitSpeculator = Optional.absent();
+            }
+
             ImmutableMap.Builder<PlanFragmentId, StageExecutionNode> subStages = ImmutableMap.builder();
             for (StageExecutionPlan subStagePlan : plan.getSubStages()) {
                 PlanFragmentId subStageFragmentId = subStagePlan.getFragment().getId();
@@ -224,6 +245,8 @@ public class SqlStageExecution
                         session,
                         splitBatchSize,
                         initialHashPartitions,
+                        speculativeExecutionCompletedSplitRatio,
+                        speculativeExecutionSlowSplitMultiplier,
                         executor,
                         nodeTaskMap);
 
@@ -660,6 +683,10 @@ public class SqlStageExecution
             }
         }
 
+        if (splitSpeculator.isPresent()) {
+            speculateSlowSplits(splitSpeculator.get());
+        }
+
         for (RemoteTask task : tasks.values()) {
             task.noMoreSplits(fragment.getPartitionedSource());
         }
@@ -669,10 +696,57 @@ public class SqlStageExecution
         setNoMoreStageNodes();
     }
 
+    /**
+     * Copies slow splits to the idle tasks of the stage until all splits have completed. The tasks
+     * stay open for new splits until then, so the stage nodes must be fixed first.
+     */
+    private void speculateSlowSplits(SplitSpeculator splitSpeculator)
+    {
+        setNoMoreStageNodes();
+
+        while (true) {
+            long taskStatusUpdates;
+            synchronized (this) {
+                taskStatusUpdates = this.taskStatusUpdates;
+            }
+            if (getState().isDone() || splitSpeculator.process(tasks.values(), assignedSplits.get())) {
+                break;
+            }
+
+            synchronized (this) {
+                try {
+                    // the staged splits only change when a task reports a new status
+                    if (this.taskStatusUpdates == taskStatusUpdates) {
+                        TimeUnit.SECONDS.timedWait(this, 1);
+                    }
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw Throwables.propagate(e);
+                }
+            }
+            updateNewExchangesAndBuffers(false);
+        }
+    }
+
+    private static boolean containsTableWriter(PlanNode node)
+    {
+        if (node instanceof TableWriterNode) {
+            return true;
+        }
+        for (PlanNode source : node.getSources()) {
+            if (containsTableWriter(source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void assignSplits(AtomicInteger nextTaskId, Multimap<Node, Split> splitAssignment)
     {
         for (Entry<Node, Collection<Split>> taskSplits : splitAssignment.asMap().entrySet()) {
             long scheduleSplitStart = System.nanoTime();
+            assignedSplits.addAndGet(taskSplits.getValue().size());
             Node node = taskSplits.getKey();
 
             TaskId taskId = Iterables.getOnlyElement(localNodeTaskMap.get(node), null);
@@ -769,6 +843,16 @@ public class SqlStageExecution
                 doUpdateState();
             }
         });
+        if (splitSpeculator.isPresent()) {
+            task.addStatusListener(new StateChangeListener<TaskStatus>()
+            {
+                @Override
+                public void stateChanged(TaskStatus taskStatus)
+                {
+                    taskStatusUpdated();
+                }
+            });
+        }
 
         // create and update task
         task.start();
@@ -789,6 +873,13 @@ public class SqlStageExecution
         return task;
     }
 
+    private synchronized void taskStatusUpdated()
+    {
+        // wake up the split speculator
+        taskStatusUpdates++;
+        this.notifyAll();
+    }
+
     private void updateNewExchangesAndBuffers(boolean waitUntilFinished)
     {
         checkState(!Thread.holdsLock(this), "Can not add exchanges or buffers to tasks while holding a lock on this");
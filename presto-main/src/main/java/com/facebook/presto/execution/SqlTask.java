@@ -22,6 +22,7 @@ import com.facebook.presto.operator.TaskStats;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.Futures;
@@ -29,6 +30,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 import org.joda.time.DateTime;
 
 import javax.annotation.Nullable;
@@ -43,6 +45,8 @@ import java.util.concurrent.atomic.AtomicReference;
 import static com.facebook.presto.util.Failures.toFailures;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class SqlTask
 {
@@ -57,6 +61,8 @@ public class SqlTask
 
     private final AtomicReference<DateTime> lastHeartbeat = new AtomicReference<>(DateTime.now());
     private final AtomicLong nextTaskInfoVersion = new AtomicLong(TaskInfo.STARTING_VERSION);
+    private final StateMachine<Long> taskStatusVersion;
+    private final AtomicLong reportedTaskStatusVersion = new AtomicLong(TaskStatus.STARTING_VERSION);
 
     private final AtomicReference<TaskHolder> taskHolderReference = new AtomicReference<>(new TaskHolder());
 
@@ -77,11 +83,15 @@ public class SqlTask
 
         sharedBuffer = new SharedBuffer(taskId, taskNotificationExecutor, maxBufferSize);
         taskStateMachine = new TaskStateMachine(taskId, taskNotificationExecutor);
+        taskStatusVersion = new StateMachine<>("task status version " + taskId, taskNotificationExecutor, TaskStatus.STARTING_VERSION);
         taskStateMachine.addStateChangeListener(new StateChangeListener<TaskState>()
         {
             @Override
             public void stateChanged(TaskState taskState)
             {
+                // wake up clients waiting for a status change
+                incrementTaskStatusVersion();
+
                 if (!taskState.isDone()) {
                     return;
                 }
@@ -204,7 +214,95 @@ public class SqlTask
         });
     }
 
-    public TaskInfo updateTask(Session session, PlanFragment fragment, List<TaskSource> sources, OutputBuffers outputBuffers)
+    public TaskStatus getTaskStatus()
+    {
+        lastHeartbeat.set(DateTime.now());
+
+        try (SetThreadName ignored = new SetThreadName("Task-%s", taskId)) {
+            return createTaskStatus();
+        }
+    }
+
+    private TaskStatus createTaskStatus()
+    {
+        // read the version first, so a concurrent change is reported again with the next version
+        long versionNumber = taskStatusVersion.get();
+        while (true) {
+            long reportedVersion = reportedTaskStatusVersion.get();
+            if (reportedVersion >= versionNumber || reportedTaskStatusVersion.compareAndSet(reportedVersion, versionNumber)) {
+                break;
+            }
+        }
+
+        TaskState state = taskStateMachine.getState();
+        List<ExecutionFailureInfo> failures = ImmutableList.of();
+        if (state == TaskState.FAILED) {
+            failures = toFailures(taskStateMachine.getFailureCauses());
+        }
+
+        int queuedPartitionedDrivers = 0;
+        int runningPartitionedDrivers = 0;
+        double partitionedSplitThroughput = 0;
+        List<SplitStatus> stagedSplits = ImmutableList.of();
+        Duration stagedSplitMedianTime = new Duration(0, MILLISECONDS);
+        SqlTaskExecution taskExecution = taskHolderReference.get().getTaskExecution();
+        if (taskExecution != null) {
+            TaskContext taskContext = taskExecution.getTaskContext();
+            queuedPartitionedDrivers = taskContext.getQueuedPartitionedDrivers();
+            runningPartitionedDrivers = taskContext.getRunningPartitionedDrivers();
+            partitionedSplitThroughput = taskContext.getPartitionedSplitThroughput();
+            stagedSplits = taskExecution.getStagedSplits();
+            stagedSplitMedianTime = taskExecution.getStagedSplitMedianTime();
+        }
+
+        return new TaskStatus(taskStateMachine.getTaskId(),
+                versionNumber,
+                state,
+                location,
+                queuedPartitionedDrivers,
+                runningPartitionedDrivers,
+                partitionedSplitThroughput,
+                stagedSplits,
+                stagedSplitMedianTime,
+                failures);
+    }
+
+    public ListenableFuture<TaskStatus> getTaskStatus(long callersCurrentVersion)
+    {
+        lastHeartbeat.set(DateTime.now());
+
+        ListenableFuture<Long> futureVersion = taskStatusVersion.getStateChange(callersCurrentVersion);
+        return Futures.transform(futureVersion, new Function<Long, TaskStatus>()
+        {
+            @Nullable
+            @Override
+            public TaskStatus apply(@Nullable Long version)
+            {
+                return getTaskStatus();
+            }
+        });
+    }
+
+    private void incrementTaskStatusVersion()
+    {
+        while (true) {
+            long version = taskStatusVersion.get();
+            if (taskStatusVersion.compareAndSet(version, version + 1)) {
+                return;
+            }
+        }
+    }
+
+    private void taskStatusChanged()
+    {
+        // if the current version has not been reported yet, the next status already includes this change
+        long version = taskStatusVersion.get();
+        if (reportedTaskStatusVersion.get() >= version) {
+            taskStatusVersion.compareAndSet(version, version + 1);
+        }
+    }
+
+    public TaskInfo updateTask(Session session, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers)
     {
         // assure the task execution is only created once
         SqlTaskExecution taskExecution;
@@ -216,8 +314,19 @@ public class SqlTask
             }
             taskExecution = taskHolder.getTaskExecution();
             if (taskExecution == null) {
-                taskExecution = sqlTaskExecutionFactory.create(session, taskStateMachine, sharedBuffer, fragment, sources);
+                checkState(fragment.isPresent(), "fragment must be present for the first update of task %s", taskId);
+                taskExecution = sqlTaskExecutionFactory.create(session, taskStateMachine, sharedBuffer, fragment.get(), sources);
+                taskExecution.addStatusChangeListener(new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        taskStatusChanged();
+                    }
+                });
                 taskHolderReference.compareAndSet(taskHolder, new TaskHolder(taskExecution));
+                // the initial sources were added before the listener
+                taskStatusChanged();
             }
         }
 
@@ -23,14 +23,18 @@ import com.facebook.presto.operator.Driver;
 import com.facebook.presto.operator.DriverContext;
 import com.facebook.presto.operator.DriverFactory;
 import com.facebook.presto.operator.DriverStats;
+import com.facebook.presto.operator.OutputFactory;
+import com.facebook.presto.operator.PartitionedOutputOperator.PartitionedOutputFactory;
 import com.facebook.presto.operator.PipelineContext;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskOutputOperator.TaskOutputFactory;
 import com.facebook.presto.sql.planner.LocalExecutionPlanner;
 import com.facebook.presto.sql.planner.LocalExecutionPlanner.LocalExecutionPlan;
 import com.facebook.presto.sql.planner.PlanFragment;
+import com.facebook.presto.sql.planner.PlanFragment.OutputPartitioning;
 import com.facebook.presto.sql.planner.PlanFragment.PlanDistribution;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -38,6 +42,8 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
+import io.airlift.stats.Distribution;
+import io.airlift.stats.Distribution.DistributionSnapshot;
 import io.airlift.units.Duration;
 
 import javax.annotation.Nullable;
@@ -48,6 +54,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -56,11 +63,13 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.facebook.presto.SystemSessionProperties.isSpeculativeExecutionEnabled;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class SqlTaskExecution
 {
@@ -95,6 +104,18 @@ public class SqlTaskExecution
 
     private final List<DriverSplitRunnerFactory> unpartitionedDriverFactories;
 
+    private final boolean stageSplitOutput;
+
+    /**
+     * Partitioned splits whose output is staged until it is published or aborted, by sequence id.
+     * Splits are removed once their output is published; aborted splits are kept, so the
+     * coordinator can see the abort has been applied.
+     */
+    private final ConcurrentMap<Long, DriverContext> stagedSplits = new ConcurrentHashMap<>();
+    private final Distribution publishedSplitTime = new Distribution();
+
+    private final List<Runnable> statusChangeListeners = new CopyOnWriteArrayList<>();
+
     public static SqlTaskExecution createSqlTaskExecution(
             TaskStateMachine taskStateMachine,
             TaskContext taskContext,
@@ -144,7 +165,14 @@ public class SqlTaskExecution
         try (SetThreadName ignored = new SetThreadName("Task-%s", taskId)) {
             List<DriverFactory> driverFactories;
             try {
-                LocalExecutionPlan localExecutionPlan = planner.plan(taskContext.getSession(), fragment.getRoot(), fragment.getSymbols(), new TaskOutputFactory(sharedBuffer));
+                OutputFactory outputFactory;
+                if (fragment.getOutputPartitioning() == OutputPartitioning.HASH) {
+                    outputFactory = new PartitionedOutputFactory(sharedBuffer, fragment.getPartitioningChannels(), fragment.getHashChannel());
+                }
+                else {
+                    outputFactory = new TaskOutputFactory(sharedBuffer);
+                }
+                LocalExecutionPlan localExecutionPlan = planner.plan(taskContext.getSession(), fragment.getRoot(), fragment.getSymbols(), outputFactory);
                 driverFactories = localExecutionPlan.getDriverFactories();
             }
             catch (Throwable e) {
@@ -175,6 +203,11 @@ public class SqlTaskExecution
             this.partitionedSourceId = fragment.getPartitionedSource();
             this.partitionedDriverFactory = partitionedDriverFactory;
 
+            // the output can only be staged per split if the split drives the output of the task
+            this.stageSplitOutput = partitionedDriverFactory != null &&
+                    partitionedDriverFactory.isOutputDriver() &&
+                    isSpeculativeExecutionEnabled(taskContext.getSession(), false);
+
             // don't register the task if it is already completed (most likely failed during planning above)
             if (!taskStateMachine.getState().isDone()) {
                 taskHandle = taskExecutor.addTask(taskId);
@@ -196,7 +229,9 @@ public class SqlTaskExecution
         // start unpartitioned drivers
         List<DriverSplitRunner> runners = new ArrayList<>();
         for (DriverSplitRunnerFactory driverFactory : unpartitionedDriverFactories) {
-            runners.add(driverFactory.createDriverRunner(null, false));
+            for (int i = 0; i < driverFactory.getDriverInstances(); i++) {
+                runners.add(driverFactory.createDriverRunner(null, false));
+            }
             driverFactory.setNoMoreSplits();
         }
         enqueueDrivers(true, runners);
@@ -212,6 +247,21 @@ public class SqlTaskExecution
         return taskContext;
     }
 
+    /**
+     * Adds a listener that is called when the partitioned drivers or the staged splits change.
+     */
+    public void addStatusChangeListener(Runnable listener)
+    {
+        statusChangeListeners.add(checkNotNull(listener, "listener is null"));
+    }
+
+    private void fireStatusChanged()
+    {
+        for (Runnable listener : statusChangeListeners) {
+            listener.run();
+        }
+    }
+
     public void addSources(List<TaskSource> sources)
     {
         checkNotNull(sources, "sources is null");
@@ -221,6 +271,13 @@ public class SqlTaskExecution
             // update our record of sources and schedule drivers for new partitioned splits
             Map<PlanNodeId, TaskSource> updatedUnpartitionedSources = updateSources(sources);
 
+            // publish or discard the staged output of splits as decided by the coordinator
+            for (TaskSource source : sources) {
+                if (source.getPlanNodeId().equals(partitionedSourceId)) {
+                    applySplitDecisions(source);
+                }
+            }
+
             // tell existing drivers about the new splits; it is safe to update drivers
             // multiple times and out of order because sources contain full record of
             // the unpartitioned splits
@@ -242,7 +299,61 @@ public class SqlTaskExecution
 
             // we may have transitioned to no more splits, so check for completion
             checkTaskCompletion();
+
+            for (TaskSource source : sources) {
+                if (source.getPlanNodeId().equals(partitionedSourceId)) {
+                    // new partitioned drivers are queued, or staged splits were committed or aborted
+                    fireStatusChanged();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void applySplitDecisions(TaskSource source)
+    {
+        for (long sequenceId : source.getCommittedSplits()) {
+            DriverContext driverContext = stagedSplits.get(sequenceId);
+            // the split may have been published and removed already
+            if (driverContext != null) {
+                driverContext.getSplitOutput().get().commit();
+            }
+        }
+        for (long sequenceId : source.getAbortedSplits()) {
+            DriverContext driverContext = stagedSplits.get(sequenceId);
+            if (driverContext != null) {
+                driverContext.getSplitOutput().get().abort();
+            }
+        }
+    }
+
+    /**
+     * Status of the started partitioned splits whose output has not been published yet.
+     */
+    public List<SplitStatus> getStagedSplits()
+    {
+        ImmutableList.Builder<SplitStatus> splitStatuses = ImmutableList.builder();
+        for (Entry<Long, DriverContext> entry : stagedSplits.entrySet()) {
+            DriverContext driverContext = entry.getValue();
+            SplitOutput.State state = driverContext.getSplitOutput().get().getState();
+            if (state == SplitOutput.State.PUBLISHED || (state == SplitOutput.State.RUNNING && !driverContext.isStarted())) {
+                continue;
+            }
+            splitStatuses.add(new SplitStatus(entry.getKey(), state, driverContext.getElapsedTimeSinceStart()));
+        }
+        return splitStatuses.build();
+    }
+
+    /**
+     * Median running time of the partitioned splits whose output has been published.
+     */
+    public Duration getStagedSplitMedianTime()
+    {
+        DistributionSnapshot snapshot = publishedSplitTime.snapshot();
+        if (snapshot.getCount() == 0) {
+            return new Duration(0, MILLISECONDS);
         }
+        return new Duration(snapshot.getP50(), MILLISECONDS);
     }
 
     private synchronized Map<PlanNodeId, TaskSource> updateSources(List<TaskSource> sources)
@@ -324,8 +435,16 @@ public class SqlTaskExecution
                         // record driver is finished
                         remainingDrivers.decrementAndGet();
 
+                        if (splitRunner.getSplitOutput().isPresent()) {
+                            recordSplitFinished(splitRunner.getPartitionedSplit().getSequenceId(), splitRunner.getSplitOutput().get());
+                        }
+
                         checkTaskCompletion();
 
+                        if (splitRunner.getPartitionedSplit() != null) {
+                            fireStatusChanged();
+                        }
+
                         queryMonitor.splitCompletionEvent(taskId, getDriverStats());
                     }
                 }
@@ -362,6 +481,17 @@ public class SqlTaskExecution
         }
     }
 
+    private void recordSplitFinished(long sequenceId, SplitOutput splitOutput)
+    {
+        if (splitOutput.getState() != SplitOutput.State.PUBLISHED) {
+            return;
+        }
+        DriverContext driverContext = stagedSplits.remove(sequenceId);
+        if (driverContext != null) {
+            publishedSplitTime.add(driverContext.getElapsedTimeSinceStart().toMillis());
+        }
+    }
+
     public Set<PlanNodeId> getNoMoreSplits()
     {
         ImmutableSet.Builder<PlanNodeId> noMoreSplits = ImmutableSet.builder();
@@ -441,12 +571,30 @@ public class SqlTaskExecution
             this.pipelineContext = taskContext.addPipelineContext(driverFactory.isInputDriver(), driverFactory.isOutputDriver());
         }
 
+        private int getDriverInstances()
+        {
+            return driverFactory.getDriverInstances();
+        }
+
+        private boolean isOutputDriver()
+        {
+            return driverFactory.isOutputDriver();
+        }
+
         private DriverSplitRunner createDriverRunner(@Nullable ScheduledSplit partitionedSplit, boolean partitioned)
         {
             pendingCreation.incrementAndGet();
             // create driver context immediately so the driver existence is recorded in the stats
             // the number of drivers is used to balance work across nodes
             DriverContext driverContext = pipelineContext.addDriverContext(partitioned);
+            if (partitionedSplit != null) {
+                checkArgument(stageSplitOutput || !partitionedSplit.isSpeculative(), "Speculative split %s requires speculative execution", partitionedSplit.getSequenceId());
+                if (stageSplitOutput) {
+                    // the output operator picks up the staged output when the driver is created
+                    driverContext.setSplitOutput(new SplitOutput(partitionedSplit.getSequenceId(), partitionedSplit.isSpeculative(), sharedBuffer));
+                    stagedSplits.put(partitionedSplit.getSequenceId(), driverContext);
+                }
+            }
             return new DriverSplitRunner(this, driverContext, partitionedSplit);
         }
 
@@ -471,6 +619,12 @@ public class SqlTaskExecution
             pendingCreation.decrementAndGet();
             closeDriverFactoryIfFullyCreated();
 
+            if (partitionedSplit != null) {
+                // the driver of the split moves from queued to running; start it before reporting the change
+                driverContext.startProcessTimer();
+                fireStatusChanged();
+            }
+
             return driver;
         }
 
@@ -523,6 +677,17 @@ public class SqlTaskExecution
             return driver.getDriverContext();
         }
 
+        @Nullable
+        public ScheduledSplit getPartitionedSplit()
+        {
+            return partitionedSplit;
+        }
+
+        public Optional<SplitOutput> getSplitOutput()
+        {
+            return driverContext.getSplitOutput();
+        }
+
         @Override
         public synchronized boolean isFinished()
         {
@@ -20,6 +20,7 @@ import com.facebook.presto.event.query.QueryMonitor;
 import com.facebook.presto.sql.planner.LocalExecutionPlanner;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
@@ -212,7 +213,23 @@ public class SqlTaskManager
     }
 
     @Override
-    public TaskInfo updateTask(Session session, TaskId taskId, PlanFragment fragment, List<TaskSource> sources, OutputBuffers outputBuffers)
+    public TaskStatus getTaskStatus(TaskId taskId)
+    {
+        checkNotNull(taskId, "taskId is null");
+
+        return tasks.getUnchecked(taskId).getTaskStatus();
+    }
+
+    @Override
+    public ListenableFuture<TaskStatus> getTaskStatus(TaskId taskId, long currentVersion)
+    {
+        checkNotNull(taskId, "taskId is null");
+
+        return tasks.getUnchecked(taskId).getTaskStatus(currentVersion);
+    }
+
+    @Override
+    public TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers)
     {
         checkNotNull(session, "session is null");
         checkNotNull(taskId, "taskId is null");
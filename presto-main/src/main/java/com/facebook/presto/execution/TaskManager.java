@@ -17,6 +17,7 @@ import com.facebook.presto.OutputBuffers;
 import com.facebook.presto.Session;
 import com.facebook.presto.TaskSource;
 import com.facebook.presto.sql.planner.PlanFragment;
+import com.google.common.base.Optional;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 
@@ -50,11 +51,28 @@ public interface TaskManager
      */
     ListenableFuture<TaskInfo> getTaskInfo(TaskId taskId, TaskState currentState);
 
+    /**
+     * Gets the status for the specified task.  The status is a small subset of
+     * the task info that is cheap to create and transfer.  If the task has not
+     * been created yet, an uninitialized task is created and the status is
+     * returned.
+     */
+    TaskStatus getTaskStatus(TaskId taskId);
+
+    /**
+     * Gets future status for the task after the status version changes from
+     * {@code currentVersion}.  If the task has not been created yet, an
+     * uninitialized task is created and the future is returned.  If the
+     * version has already changed, the status is returned immediately.
+     */
+    ListenableFuture<TaskStatus> getTaskStatus(TaskId taskId, long currentVersion);
+
     /**
      * Updates the task plan, sources and output buffers.  If the task does not
-     * already exist, is is created and then updated.
+     * already exist, is is created and then updated.  The plan is only
+     * required for the update that creates the task execution.
      */
-    TaskInfo updateTask(Session session, TaskId taskId, PlanFragment fragment, List<TaskSource> sources, OutputBuffers outputBuffers);
+    TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers);
 
     /**
      * Cancels a task.  If the task does not already exist, is is created and then
@@ -0,0 +1,186 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.net.URI;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The small part of {@link TaskInfo} the coordinator needs on every poll. Unlike
+ * the task info, it does not contain the buffer and operator statistics.
+ */
+@Immutable
+public class TaskStatus
+{
+    /**
+     * The version of a task that has just been created.  The version is
+     * incremented each time the status of the task changes.
+     */
+    public static final long STARTING_VERSION = 1;
+
+    /**
+     * A value lower than {@link #STARTING_VERSION}, which a client can use
+     * before it has received a status.
+     */
+    public static final long MIN_VERSION = 0;
+
+    private final TaskId taskId;
+    private final long version;
+    private final TaskState state;
+    private final URI self;
+    private final int queuedPartitionedDrivers;
+    private final int runningPartitionedDrivers;
+    private final double partitionedSplitThroughput;
+    private final List<SplitStatus> stagedSplits;
+    private final Duration stagedSplitMedianTime;
+    private final List<ExecutionFailureInfo> failures;
+
+    @JsonCreator
+    public TaskStatus(@JsonProperty("taskId") TaskId taskId,
+            @JsonProperty("version") long version,
+            @JsonProperty("state") TaskState state,
+            @JsonProperty("self") URI self,
+            @JsonProperty("queuedPartitionedDrivers") int queuedPartitionedDrivers,
+            @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
+            @JsonProperty("partitionedSplitThroughput") double partitionedSplitThroughput,
+            @JsonProperty("stagedSplits") List<SplitStatus> stagedSplits,
+            @JsonProperty("stagedSplitMedianTime") Duration stagedSplitMedianTime,
+            @JsonProperty("failures") List<ExecutionFailureInfo> failures)
+    {
+        this.taskId = checkNotNull(taskId, "taskId is null");
+        this.version = version;
+        this.state = checkNotNull(state, "state is null");
+        this.self = checkNotNull(self, "self is null");
+
+        checkArgument(queuedPartitionedDrivers >= 0, "queuedPartitionedDrivers is negative");
+        this.queuedPartitionedDrivers = queuedPartitionedDrivers;
+        checkArgument(runningPartitionedDrivers >= 0, "runningPartitionedDrivers is negative");
+        this.runningPartitionedDrivers = runningPartitionedDrivers;
+        checkArgument(partitionedSplitThroughput >= 0, "partitionedSplitThroughput is negative");
+        this.partitionedSplitThroughput = partitionedSplitThroughput;
+        this.stagedSplits = ImmutableList.copyOf(checkNotNull(stagedSplits, "stagedSplits is null"));
+        this.stagedSplitMedianTime = checkNotNull(stagedSplitMedianTime, "stagedSplitMedianTime is null");
+
+        if (failures != null) {
+            this.failures = ImmutableList.copyOf(failures);
+        }
+        else {
+            this.failures = ImmutableList.of();
+        }
+    }
+
+    @JsonProperty
+    public TaskId getTaskId()
+    {
+        return taskId;
+    }
+
+    @JsonProperty
+    public long getVersion()
+    {
+        return version;
+    }
+
+    @JsonProperty
+    public TaskState getState()
+    {
+        return state;
+    }
+
+    @JsonProperty
+    public URI getSelf()
+    {
+        return self;
+    }
+
+    @JsonProperty
+    public int getQueuedPartitionedDrivers()
+    {
+        return queuedPartitionedDrivers;
+    }
+
+    @JsonProperty
+    public int getRunningPartitionedDrivers()
+    {
+        return runningPartitionedDrivers;
+    }
+
+    /**
+     * Partitioned splits completed per second since the task started running them.
+     */
+    @JsonProperty
+    public double getPartitionedSplitThroughput()
+    {
+        return partitionedSplitThroughput;
+    }
+
+    /**
+     * Partitioned splits of a task running with speculative execution whose output has not been published.
+     */
+    @JsonProperty
+    public List<SplitStatus> getStagedSplits()
+    {
+        return stagedSplits;
+    }
+
+    /**
+     * Median running time of the partitioned splits of a task running with speculative execution.
+     */
+    @JsonProperty
+    public Duration getStagedSplitMedianTime()
+    {
+        return stagedSplitMedianTime;
+    }
+
+    @JsonProperty
+    public List<ExecutionFailureInfo> getFailures()
+    {
+        return failures;
+    }
+
+    public static TaskStatus fromTaskInfo(TaskInfo taskInfo)
+    {
+        return new TaskStatus(taskInfo.getTaskId(),
+                taskInfo.getVersion(),
+                taskInfo.getState(),
+                taskInfo.getSelf(),
+                taskInfo.getStats().getQueuedPartitionedDrivers(),
+                taskInfo.getStats().getRunningPartitionedDrivers(),
+                0,
+                ImmutableList.<SplitStatus>of(),
+                new Duration(0, MILLISECONDS),
+                taskInfo.getFailures());
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("taskId", taskId)
+                .add("state", state)
+                .toString();
+    }
+}
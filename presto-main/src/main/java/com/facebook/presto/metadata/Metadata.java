@@ -15,6 +15,7 @@ package com.facebook.presto.metadata;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.TypeSignature;
@@ -99,6 +100,15 @@ public interface Metadata
     @NotNull
     ColumnMetadata getColumnMetadata(TableHandle tableHandle, ColumnHandle columnHandle);
 
+    /**
+     * Gets the statistics of the specified partitions of a table, or of the whole table if the partitions are absent.
+     * The column statistics are keyed by the connector column handles.
+     *
+     * @throws RuntimeException if table handle is no longer valid
+     */
+    @NotNull
+    TableStatistics getTableStatistics(TableHandle tableHandle, Optional<List<Partition>> partitions);
+
     /**
      * Gets the metadata for all columns that match the specified table prefix.
      */
@@ -22,12 +22,14 @@ import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.facebook.presto.spi.type.TypeSignature;
@@ -61,6 +63,7 @@ import java.util.concurrent.ConcurrentMap;
 
 import static com.facebook.presto.metadata.ColumnHandle.fromConnectorHandle;
 import static com.facebook.presto.metadata.MetadataUtil.checkCatalogName;
+import static com.facebook.presto.metadata.Partition.connectorPartitionGetter;
 import static com.facebook.presto.metadata.QualifiedTableName.convertFromSchemaTableName;
 import static com.facebook.presto.metadata.ViewDefinition.ViewColumn;
 import static com.facebook.presto.spi.StandardErrorCode.INVALID_VIEW;
@@ -232,6 +235,19 @@ public class MetadataManager
         return lookupConnectorFor(tableHandle).getColumnMetadata(tableHandle.getConnectorHandle(), columnHandle.getConnectorHandle());
     }
 
+    @Override
+    public TableStatistics getTableStatistics(TableHandle tableHandle, Optional<List<Partition>> partitions)
+    {
+        checkNotNull(tableHandle, "tableHandle is null");
+        checkNotNull(partitions, "partitions is null");
+
+        List<ConnectorPartition> connectorPartitions = null;
+        if (partitions.isPresent()) {
+            connectorPartitions = ImmutableList.copyOf(transform(partitions.get(), connectorPartitionGetter()));
+        }
+        return lookupConnectorFor(tableHandle).getTableStatistics(tableHandle.getConnectorHandle(), connectorPartitions);
+    }
+
     @Override
     public List<QualifiedTableName> listTables(Session session, QualifiedTablePrefix prefix)
     {
@@ -14,7 +14,9 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.execution.SplitOutput;
 import com.facebook.presto.execution.TaskId;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.stats.CounterStat;
@@ -36,6 +38,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import static com.facebook.presto.operator.OperatorContext.operatorStatsGetter;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.getFirst;
 import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.transform;
@@ -79,6 +82,8 @@ public class DriverContext
     private final List<OperatorContext> operatorContexts = new CopyOnWriteArrayList<>();
     private final boolean partitioned;
 
+    private final AtomicReference<SplitOutput> splitOutput = new AtomicReference<>();
+
     public DriverContext(PipelineContext pipelineContext, Executor executor, boolean partitioned)
     {
         this.pipelineContext = checkNotNull(pipelineContext, "pipelineContext is null");
@@ -176,6 +181,41 @@ public class DriverContext
         finished.set(true);
     }
 
+    public boolean isStarted()
+    {
+        return startNanos.get() != 0;
+    }
+
+    /**
+     * Time the driver has been running, which excludes the time it was queued.
+     */
+    public Duration getElapsedTimeSinceStart()
+    {
+        long startNanos = this.startNanos.get();
+        if (startNanos == 0) {
+            return new Duration(0, NANOSECONDS);
+        }
+        long endNanos = this.endNanos.get();
+        if (endNanos < startNanos) {
+            endNanos = System.nanoTime();
+        }
+        return new Duration(endNanos - startNanos, NANOSECONDS).convertToMostSuccinctTimeUnit();
+    }
+
+    /**
+     * The staged output of the partitioned split of this driver, if the task runs with speculative execution.
+     */
+    public Optional<SplitOutput> getSplitOutput()
+    {
+        return Optional.fromNullable(splitOutput.get());
+    }
+
+    public void setSplitOutput(SplitOutput splitOutput)
+    {
+        checkNotNull(splitOutput, "splitOutput is null");
+        checkState(this.splitOutput.compareAndSet(null, splitOutput), "splitOutput is already set");
+    }
+
     public boolean isDone()
     {
         return finished.get() || pipelineContext.isDone();
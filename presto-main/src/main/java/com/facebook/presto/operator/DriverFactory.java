@@ -32,6 +32,7 @@ public class DriverFactory
     private final boolean outputDriver;
     private final List<OperatorFactory> operatorFactories;
     private final Set<PlanNodeId> sourceIds;
+    private final int driverInstances;
     private boolean closed;
 
     public DriverFactory(boolean inputDriver, boolean outputDriver, OperatorFactory firstOperatorFactory, OperatorFactory... otherOperatorFactories)
@@ -47,6 +48,13 @@ public class DriverFactory
 
     public DriverFactory(boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories)
     {
+        this(inputDriver, outputDriver, operatorFactories, 1);
+    }
+
+    public DriverFactory(boolean inputDriver, boolean outputDriver, List<OperatorFactory> operatorFactories, int driverInstances)
+    {
+        checkArgument(driverInstances > 0, "driverInstances must be greater than zero");
+        this.driverInstances = driverInstances;
         this.inputDriver = inputDriver;
         this.outputDriver = outputDriver;
         this.operatorFactories = ImmutableList.copyOf(checkNotNull(operatorFactories, "operatorFactories is null"));
@@ -77,6 +85,14 @@ public class DriverFactory
         return sourceIds;
     }
 
+    /**
+     * Number of drivers to create for this pipeline when it is not driven by splits.
+     */
+    public int getDriverInstances()
+    {
+        return driverInstances;
+    }
+
     public synchronized Driver createDriver(DriverContext driverContext)
     {
         checkState(!closed, "DriverFactory is already closed");
@@ -0,0 +1,289 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.ColumnHandle;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.primitives.Primitives.wrap;
+
+/**
+ * Summary of the join keys seen by the build side of a hash join, used to filter the scan on the
+ * probe side of the join. Every build operator collects the distinct keys it receives, or only
+ * their range once there are too many of them, and the last operator of the build publishes the
+ * union of the summaries as a {@link TupleDomain} over the probe columns.
+ * <p>
+ * Rows with a null key never match in an inner join, so the published domains do not allow null.
+ */
+@ThreadSafe
+public class DynamicFilter
+{
+    public static final int DEFAULT_MAX_DISTINCT_VALUES = 1000;
+
+    private final List<ColumnHandle> columns;
+    private final List<Type> types;
+    private final int maxDistinctValues;
+    private final SettableFuture<TupleDomain<ColumnHandle>> tupleDomain = SettableFuture.create();
+
+    @GuardedBy("this")
+    private final List<Domain> domains;
+
+    public DynamicFilter(List<ColumnHandle> columns, List<Type> types)
+    {
+        this(columns, types, DEFAULT_MAX_DISTINCT_VALUES);
+    }
+
+    public DynamicFilter(List<ColumnHandle> columns, List<Type> types, int maxDistinctValues)
+    {
+        this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        checkArgument(columns.size() == types.size(), "columns and types do not match");
+        checkArgument(maxDistinctValues > 0, "maxDistinctValues must be greater than zero");
+        this.maxDistinctValues = maxDistinctValues;
+
+        this.domains = new ArrayList<>();
+        for (Type type : types) {
+            checkArgument(isSupportedType(type), "Type %s is not supported", type);
+            domains.add(Domain.none(wrap(type.getJavaType())));
+        }
+    }
+
+    /**
+     * Types with a total order whose native values compare the same way as the SQL values.
+     */
+    public static boolean isSupportedType(Type type)
+    {
+        return type.equals(BIGINT) || type.equals(VARCHAR) || type.equals(DATE) || type.equals(TIMESTAMP);
+    }
+
+    public List<ColumnHandle> getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * Returns a future for the filter, which is done once the build side of the join is complete.
+     */
+    public ListenableFuture<TupleDomain<ColumnHandle>> getTupleDomain()
+    {
+        return tupleDomain;
+    }
+
+    /**
+     * Returns a future for the intersection of the specified filters, which is done once all of them are published.
+     */
+    public static ListenableFuture<TupleDomain<ColumnHandle>> intersect(List<DynamicFilter> dynamicFilters)
+    {
+        if (dynamicFilters.isEmpty()) {
+            return Futures.immediateFuture(TupleDomain.<ColumnHandle>all());
+        }
+
+        ImmutableList.Builder<ListenableFuture<TupleDomain<ColumnHandle>>> tupleDomains = ImmutableList.builder();
+        for (DynamicFilter dynamicFilter : dynamicFilters) {
+            tupleDomains.add(dynamicFilter.getTupleDomain());
+        }
+        return Futures.transform(Futures.allAsList(tupleDomains.build()), new Function<List<TupleDomain<ColumnHandle>>, TupleDomain<ColumnHandle>>()
+        {
+            @Override
+            public TupleDomain<ColumnHandle> apply(List<TupleDomain<ColumnHandle>> tupleDomains)
+            {
+                TupleDomain<ColumnHandle> result = TupleDomain.all();
+                for (TupleDomain<ColumnHandle> tupleDomain : tupleDomains) {
+                    result = result.intersect(tupleDomain);
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Creates a collector for a build operator, reading the keys of the columns from the specified build channels.
+     */
+    public Collector createCollector(List<Integer> buildChannels)
+    {
+        return new Collector(buildChannels);
+    }
+
+    private synchronized void addDomains(List<Domain> collectedDomains)
+    {
+        checkState(!tupleDomain.isDone(), "Dynamic filter is already published");
+        for (int column = 0; column < domains.size(); column++) {
+            Domain domain = domains.get(column).union(collectedDomains.get(column));
+            if (domain.getRanges().getRangeCount() > maxDistinctValues) {
+                domain = Domain.create(SortedRangeSet.of(domain.getRanges().getSpan()), false);
+            }
+            domains.set(column, domain);
+        }
+    }
+
+    /**
+     * Publishes the filter. Called by the last operator of the build, after every collector is finished.
+     */
+    public void publish()
+    {
+        Map<ColumnHandle, Domain> columnDomains = new HashMap<>();
+        synchronized (this) {
+            for (int column = 0; column < columns.size(); column++) {
+                // a probe column can be compared with more than one build column
+                Domain domain = domains.get(column);
+                Domain previous = columnDomains.get(columns.get(column));
+                columnDomains.put(columns.get(column), previous == null ? domain : previous.intersect(domain));
+            }
+        }
+        boolean wasSet = tupleDomain.set(TupleDomain.withColumnDomains(columnDomains));
+        checkState(wasSet, "Dynamic filter is already published");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Comparable left, Comparable right)
+    {
+        return left.compareTo(right);
+    }
+
+    /**
+     * Collects the keys received by one build operator. Not thread safe.
+     */
+    public final class Collector
+    {
+        private final List<Integer> buildChannels;
+        private final List<Set<Comparable<?>>> distinctValues;
+        private final Comparable<?>[] minValues;
+        private final Comparable<?>[] maxValues;
+        private final boolean[] overLimit;
+        private boolean finished;
+
+        private Collector(List<Integer> buildChannels)
+        {
+            this.buildChannels = ImmutableList.copyOf(checkNotNull(buildChannels, "buildChannels is null"));
+            checkArgument(buildChannels.size() == columns.size(), "buildChannels and columns do not match");
+
+            ImmutableList.Builder<Set<Comparable<?>>> distinctValues = ImmutableList.builder();
+            for (int column = 0; column < columns.size(); column++) {
+                distinctValues.add(new HashSet<Comparable<?>>());
+            }
+            this.distinctValues = distinctValues.build();
+            this.minValues = new Comparable<?>[columns.size()];
+            this.maxValues = new Comparable<?>[columns.size()];
+            this.overLimit = new boolean[columns.size()];
+        }
+
+        public void addPage(Page page)
+        {
+            checkState(!finished, "Collector is already finished");
+            for (int column = 0; column < buildChannels.size(); column++) {
+                Block block = page.getBlock(buildChannels.get(column));
+                // every position of a run length encoded block has the same key
+                int positionCount = block instanceof RunLengthEncodedBlock ? Math.min(1, block.getPositionCount()) : block.getPositionCount();
+                for (int position = 0; position < positionCount; position++) {
+                    if (!block.isNull(position)) {
+                        addValue(column, block, position);
+                    }
+                }
+            }
+        }
+
+        private void addValue(int column, Block block, int position)
+        {
+            Type type = types.get(column);
+            Comparable<?> value;
+            if (type.getJavaType() == long.class) {
+                value = type.getLong(block, position);
+            }
+            else {
+                Slice slice = type.getSlice(block, position);
+                if (!overLimit[column] && distinctValues.get(column).contains(slice)) {
+                    return;
+                }
+                // do not retain the whole block in the summary
+                value = Slices.copyOf(slice);
+            }
+
+            if (minValues[column] == null || compare(value, minValues[column]) < 0) {
+                minValues[column] = value;
+            }
+            if (maxValues[column] == null || compare(value, maxValues[column]) > 0) {
+                maxValues[column] = value;
+            }
+
+            if (!overLimit[column]) {
+                Set<Comparable<?>> values = distinctValues.get(column);
+                values.add(value);
+                if (values.size() > maxDistinctValues) {
+                    // too many keys to filter on, so only keep the range
+                    overLimit[column] = true;
+                    values.clear();
+                }
+            }
+        }
+
+        /**
+         * Adds the collected keys to the filter.
+         */
+        public void finish()
+        {
+            checkState(!finished, "Collector is already finished");
+            finished = true;
+
+            ImmutableList.Builder<Domain> collectedDomains = ImmutableList.builder();
+            for (int column = 0; column < columns.size(); column++) {
+                Class<?> javaType = wrap(types.get(column).getJavaType());
+                if (minValues[column] == null) {
+                    collectedDomains.add(Domain.none(javaType));
+                }
+                else if (overLimit[column]) {
+                    collectedDomains.add(Domain.create(SortedRangeSet.of(Range.range(minValues[column], true, maxValues[column], true)), false));
+                }
+                else {
+                    List<Range> ranges = new ArrayList<>();
+                    for (Comparable<?> value : distinctValues.get(column)) {
+                        ranges.add(Range.equal(value));
+                    }
+                    collectedDomains.add(Domain.create(SortedRangeSet.copyOf(javaType, ranges), false));
+                }
+            }
+            addDomains(collectedDomains.build());
+        }
+    }
+}
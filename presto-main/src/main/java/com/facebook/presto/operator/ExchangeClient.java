@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PagesCompression;
+import com.facebook.presto.block.PagesTransferStats;
 import com.facebook.presto.operator.HttpPageBufferClient.ClientCallback;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
@@ -56,6 +58,7 @@ public class ExchangeClient
     private static final Page NO_MORE_PAGES = new Page(0);
 
     private final BlockEncodingSerde blockEncodingSerde;
+    private final PagesCompression compression;
     private final long maxBufferedBytes;
     private final DataSize maxResponseSize;
     private final int concurrentRequestMultiplier;
@@ -87,11 +90,14 @@ public class ExchangeClient
     @GuardedBy("this")
     private long averageBytesPerRequest;
 
+    private final PagesTransferStats transferStats = new PagesTransferStats();
+
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicReference<Throwable> failure = new AtomicReference<>();
 
     public ExchangeClient(
             BlockEncodingSerde blockEncodingSerde,
+            PagesCompression compression,
             DataSize maxBufferedBytes,
             DataSize maxResponseSize,
             int concurrentRequestMultiplier,
@@ -100,6 +106,7 @@ public class ExchangeClient
             ScheduledExecutorService executor)
     {
         this.blockEncodingSerde = blockEncodingSerde;
+        this.compression = compression;
         this.maxBufferedBytes = maxBufferedBytes.toBytes();
         this.maxResponseSize = maxResponseSize;
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
@@ -119,7 +126,14 @@ public class ExchangeClient
         for (HttpPageBufferClient client : allClients.values()) {
             exchangeStatus.add(client.getStatus());
         }
-        return new ExchangeClientStatus(bufferBytes, averageBytesPerRequest, bufferedPages, noMoreLocations, exchangeStatus.build());
+        return new ExchangeClientStatus(
+                bufferBytes,
+                averageBytesPerRequest,
+                bufferedPages,
+                transferStats.getUncompressedBytes(),
+                transferStats.getCompressedBytes(),
+                noMoreLocations,
+                exchangeStatus.build());
     }
 
     public synchronized void addLocation(URI location)
@@ -255,6 +269,8 @@ public class ExchangeClient
                         location,
                         new ExchangeClientCallback(),
                         blockEncodingSerde,
+                        compression,
+                        transferStats,
                         executor);
                 allClients.put(location, client);
                 queuedClients.add(client);
@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PagesCompression;
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
@@ -31,6 +33,7 @@ public class ExchangeClientConfig
     private int concurrentRequestMultiplier = 3;
     private Duration minErrorDuration = new Duration(1, TimeUnit.MINUTES);
     private DataSize maxResponseSize = new HttpClientConfig().getMaxContentLength();
+    private PagesCompression compression = PagesCompression.NONE;
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -84,4 +87,18 @@ public class ExchangeClientConfig
         this.maxResponseSize = maxResponseSize;
         return this;
     }
+
+    @NotNull
+    public PagesCompression getCompression()
+    {
+        return compression;
+    }
+
+    @Config("exchange.compression")
+    @ConfigDescription("Compression requested for pages sent by other workers, if they support it")
+    public ExchangeClientConfig setCompression(PagesCompression compression)
+    {
+        this.compression = compression;
+        return this;
+    }
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PagesCompression;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.google.common.base.Supplier;
 import io.airlift.http.client.HttpClient;
@@ -30,6 +31,7 @@ public class ExchangeClientFactory
         implements Supplier<ExchangeClient>
 {
     private final BlockEncodingSerde blockEncodingSerde;
+    private final PagesCompression compression;
     private final DataSize maxBufferedBytes;
     private final int concurrentRequestMultiplier;
     private final Duration minErrorDuration;
@@ -44,6 +46,7 @@ public class ExchangeClientFactory
             @ForExchange ScheduledExecutorService executor)
     {
         this(blockEncodingSerde,
+                config.getCompression(),
                 config.getMaxBufferSize(),
                 config.getMaxResponseSize(),
                 config.getConcurrentRequestMultiplier(),
@@ -54,6 +57,7 @@ public class ExchangeClientFactory
 
     public ExchangeClientFactory(
             BlockEncodingSerde blockEncodingSerde,
+            PagesCompression compression,
             DataSize maxBufferedBytes,
             DataSize maxResponseSize,
             int concurrentRequestMultiplier,
@@ -62,6 +66,7 @@ public class ExchangeClientFactory
             ScheduledExecutorService executor)
     {
         this.blockEncodingSerde = blockEncodingSerde;
+        this.compression = checkNotNull(compression, "compression is null");
         this.maxBufferedBytes = checkNotNull(maxBufferedBytes, "maxBufferedBytes is null");
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
         this.minErrorDuration = checkNotNull(minErrorDuration, "minErrorDuration is null");
@@ -79,6 +84,7 @@ public class ExchangeClientFactory
     {
         return new ExchangeClient(
                 blockEncodingSerde,
+                compression,
                 maxBufferedBytes,
                 maxResponseSize,
                 concurrentRequestMultiplier,
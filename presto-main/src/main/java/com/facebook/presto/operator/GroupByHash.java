@@ -17,6 +17,8 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.util.array.LongBigArray;
@@ -133,6 +135,11 @@ public class GroupByHash
         return nextGroupId;
     }
 
+    public int getRawHash(int groupId)
+    {
+        return hashPosition(groupAddress.get(groupId));
+    }
+
     public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long address = groupAddress.get(groupId);
@@ -154,6 +161,22 @@ public class GroupByHash
             hashBlocks[i] = page.getBlock(channels[i]);
         }
 
+        if (positionCount > 0 && isRunLengthEncoded(hashBlocks)) {
+            // every position has the same values, so the whole page belongs to a single group
+            int groupId = putIfAbsent(0, page, hashBlocks);
+            for (int position = 0; position < positionCount; position++) {
+                BIGINT.writeLong(blockBuilder, groupId);
+            }
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+
+        if (hashBlocks.length == 1 && hashBlocks[0] instanceof DictionaryBlock) {
+            DictionaryBlock dictionaryBlock = (DictionaryBlock) hashBlocks[0];
+            if (dictionaryBlock.getDictionary().getPositionCount() <= positionCount) {
+                return getDictionaryGroupIds(page, dictionaryBlock, blockBuilder);
+            }
+        }
+
         // get the group id for each position
         for (int position = 0; position < positionCount; position++) {
             // get the group for the current row
@@ -165,6 +188,36 @@ public class GroupByHash
         return new GroupByIdBlock(nextGroupId, blockBuilder.build());
     }
 
+    private GroupByIdBlock getDictionaryGroupIds(Page page, DictionaryBlock dictionaryBlock, BlockBuilder blockBuilder)
+    {
+        Block[] hashBlocks = new Block[] {dictionaryBlock};
+
+        // positions with the same dictionary entry have the same group, so each entry is hashed only once
+        int[] dictionaryGroupIds = new int[dictionaryBlock.getDictionary().getPositionCount()];
+        Arrays.fill(dictionaryGroupIds, -1);
+
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            int id = dictionaryBlock.getId(position);
+            int groupId = dictionaryGroupIds[id];
+            if (groupId < 0) {
+                groupId = putIfAbsent(position, page, hashBlocks);
+                dictionaryGroupIds[id] = groupId;
+            }
+            BIGINT.writeLong(blockBuilder, groupId);
+        }
+        return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+    }
+
+    private static boolean isRunLengthEncoded(Block[] blocks)
+    {
+        for (Block block : blocks) {
+            if (!(block instanceof RunLengthEncodedBlock)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public boolean contains(int position, Page page)
     {
         // if hash is not provided, compute it using all the blocks in the page
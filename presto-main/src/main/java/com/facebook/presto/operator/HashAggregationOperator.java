@@ -20,6 +20,8 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
 import com.google.common.base.Optional;
 import com.google.common.collect.AbstractIterator;
@@ -27,19 +29,26 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntIterators;
 
+import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
+import static com.facebook.presto.operator.HashPartitions.getSpillPartition;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 public class HashAggregationOperator
-        implements Operator
+        implements Operator, Closeable
 {
+    private static final int SPILL_PARTITIONS = 16;
+
     public static class HashAggregationOperatorFactory
             implements OperatorFactory
     {
@@ -54,6 +63,7 @@ public class HashAggregationOperator
         private final List<Type> types;
         private boolean closed;
         private final long maxPartialMemory;
+        private final Optional<SpillerFactory> spillerFactory;
 
         public HashAggregationOperatorFactory(
                 int operatorId,
@@ -63,7 +73,8 @@ public class HashAggregationOperator
                 List<AccumulatorFactory> accumulatorFactories,
                 Optional<Integer> hashChannel,
                 int expectedGroups,
-                DataSize maxPartialMemory)
+                DataSize maxPartialMemory,
+                Optional<SpillerFactory> spillerFactory)
         {
             this.operatorId = operatorId;
             this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
@@ -73,6 +84,8 @@ public class HashAggregationOperator
             this.accumulatorFactories = ImmutableList.copyOf(accumulatorFactories);
             this.expectedGroups = expectedGroups;
             this.maxPartialMemory = checkNotNull(maxPartialMemory, "maxPartialMemory is null").toBytes();
+            this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+            checkArgument(step != Step.PARTIAL || !spillerFactory.isPresent(), "partial aggregation flushes instead of spilling");
 
             this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
         }
@@ -102,7 +115,8 @@ public class HashAggregationOperator
                     step,
                     accumulatorFactories,
                     hashChannel,
-                    expectedGroups);
+                    expectedGroups,
+                    spillerFactory);
         }
 
         @Override
@@ -119,6 +133,7 @@ public class HashAggregationOperator
     private final List<AccumulatorFactory> accumulatorFactories;
     private final Optional<Integer> hashChannel;
     private final int expectedGroups;
+    private final Optional<SpillerFactory> spillerFactory;
 
     private final List<Type> types;
     private final MemoryManager memoryManager;
@@ -127,6 +142,10 @@ public class HashAggregationOperator
     private Iterator<Page> outputIterator;
     private boolean finishing;
 
+    // one spiller per partition of the group-by key space; empty until the first spill
+    private List<Spiller> spillers = ImmutableList.of();
+    private int nextMergePartition;
+
     public HashAggregationOperator(
             OperatorContext operatorContext,
             List<Type> groupByTypes,
@@ -134,7 +153,8 @@ public class HashAggregationOperator
             Step step,
             List<AccumulatorFactory> accumulatorFactories,
             Optional<Integer> hashChannel,
-            int expectedGroups)
+            int expectedGroups,
+            Optional<SpillerFactory> spillerFactory)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         checkNotNull(step, "step is null");
@@ -148,6 +168,7 @@ public class HashAggregationOperator
         this.step = step;
 
         this.expectedGroups = expectedGroups;
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
         this.memoryManager = new MemoryManager(operatorContext);
 
         this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
@@ -174,7 +195,7 @@ public class HashAggregationOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && aggregationBuilder == null && (outputIterator == null || !outputIterator.hasNext());
+        return finishing && aggregationBuilder == null && !hasUnmergedSpills() && (outputIterator == null || !outputIterator.hasNext());
     }
 
     @Override
@@ -196,8 +217,7 @@ public class HashAggregationOperator
         checkNotNull(page, "page is null");
         if (aggregationBuilder == null) {
             aggregationBuilder = new GroupByHashAggregationBuilder(
-                    accumulatorFactories,
-                    step,
+                    createAggregators(accumulatorFactories, step),
                     expectedGroups,
                     groupByTypes,
                     groupByChannels,
@@ -219,23 +239,38 @@ public class HashAggregationOperator
             // current output iterator is done
             outputIterator = null;
 
-            // no data
-            if (aggregationBuilder == null) {
-                return null;
-            }
+            if (aggregationBuilder != null) {
+                // only flush if we are finishing or the aggregation builder is full
+                if (!finishing && !aggregationBuilder.isFull()) {
+                    return null;
+                }
 
-            // only flush if we are finishing or the aggregation builder is full
-            if (!finishing && !aggregationBuilder.isFull()) {
-                return null;
-            }
+                // Only partial aggregation can flush early, other steps must spill the partial state to disk
+                if (!finishing && step != Step.PARTIAL) {
+                    if (!spillerFactory.isPresent()) {
+                        throw new ExceededMemoryLimitException(memoryManager.getMaxMemorySize());
+                    }
+                    spillAggregationBuilder();
+                    return null;
+                }
 
-            // Only partial aggregation can flush early. Also, check that we are not flushing tiny bits at a time
-            if (!finishing && step != Step.PARTIAL) {
-                throw new ExceededMemoryLimitException(memoryManager.getMaxMemorySize());
+                if (spillers.isEmpty()) {
+                    outputIterator = aggregationBuilder.build();
+                    aggregationBuilder = null;
+                }
+                else {
+                    // the remaining state must be merged with the spilled state, so spill it as well
+                    spillAggregationBuilder();
+                }
             }
 
-            outputIterator = aggregationBuilder.build();
-            aggregationBuilder = null;
+            if (outputIterator == null) {
+                if (!finishing || !hasUnmergedSpills()) {
+                    return null;
+                }
+                outputIterator = mergeSpilledPartition(nextMergePartition);
+                nextMergePartition++;
+            }
 
             if (!outputIterator.hasNext()) {
                 // current output iterator is done
@@ -247,6 +282,84 @@ public class HashAggregationOperator
         return outputIterator.next();
     }
 
+    @Override
+    public void close()
+    {
+        for (Spiller spiller : spillers) {
+            spiller.close();
+        }
+    }
+
+    private boolean hasUnmergedSpills()
+    {
+        return nextMergePartition < spillers.size();
+    }
+
+    private void spillAggregationBuilder()
+    {
+        if (spillers.isEmpty()) {
+            ImmutableList.Builder<Spiller> builder = ImmutableList.builder();
+            for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+                builder.add(spillerFactory.get().create());
+            }
+            spillers = builder.build();
+        }
+
+        long spilledBytes = aggregationBuilder.spill(spillers);
+        aggregationBuilder = null;
+        operatorContext.recordSpill(spilledBytes);
+    }
+
+    private Iterator<Page> mergeSpilledPartition(int partition)
+    {
+        // the spilled pages contain the group by columns, the hash and the intermediate state of each aggregation
+        int groupByChannelCount = groupByTypes.size();
+        int intermediateChannel = groupByChannelCount + (hashChannel.isPresent() ? 1 : 0);
+
+        ImmutableList.Builder<Aggregator> aggregators = ImmutableList.builder();
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            aggregators.add(new Aggregator(accumulatorFactory, step, intermediateChannel));
+            intermediateChannel++;
+        }
+
+        ImmutableList.Builder<Integer> mergeChannels = ImmutableList.builder();
+        for (int channel = 0; channel < groupByChannelCount; channel++) {
+            mergeChannels.add(channel);
+        }
+        Optional<Integer> mergeHashChannel = hashChannel.isPresent() ? Optional.of(groupByChannelCount) : Optional.<Integer>absent();
+
+        GroupByHashAggregationBuilder mergeBuilder = new GroupByHashAggregationBuilder(
+                aggregators.build(),
+                expectedGroups,
+                groupByTypes,
+                mergeChannels.build(),
+                mergeHashChannel,
+                memoryManager);
+
+        try (Spiller spiller = spillers.get(partition)) {
+            for (Iterator<Page> spill : spiller.getSpills()) {
+                while (spill.hasNext()) {
+                    mergeBuilder.processPage(spill.next());
+                    if (mergeBuilder.isFull()) {
+                        throw new ExceededMemoryLimitException(memoryManager.getMaxMemorySize());
+                    }
+                }
+            }
+        }
+        return mergeBuilder.build();
+    }
+
+    private static List<Aggregator> createAggregators(List<AccumulatorFactory> accumulatorFactories, Step step)
+    {
+        // wrapper each function with an aggregator
+        ImmutableList.Builder<Aggregator> builder = ImmutableList.builder();
+        checkNotNull(accumulatorFactories, "accumulatorFactories is null");
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            builder.add(new Aggregator(accumulatorFactory, step));
+        }
+        return builder.build();
+    }
+
     private static List<Type> toTypes(List<? extends Type> groupByType, Step step, List<AccumulatorFactory> factories, Optional<Integer> hashChannel)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
@@ -267,8 +380,7 @@ public class HashAggregationOperator
         private final MemoryManager memoryManager;
 
         private GroupByHashAggregationBuilder(
-                List<AccumulatorFactory> accumulatorFactories,
-                Step step,
+                List<Aggregator> aggregators,
                 int expectedGroups,
                 List<Type> groupByTypes,
                 List<Integer> groupByChannels,
@@ -276,16 +388,8 @@ public class HashAggregationOperator
                 MemoryManager memoryManager)
         {
             this.groupByHash = new GroupByHash(groupByTypes, Ints.toArray(groupByChannels), hashChannel, expectedGroups);
+            this.aggregators = ImmutableList.copyOf(checkNotNull(aggregators, "aggregators is null"));
             this.memoryManager = memoryManager;
-
-            // wrapper each function with an aggregator
-            ImmutableList.Builder<Aggregator> builder = ImmutableList.builder();
-            checkNotNull(accumulatorFactories, "accumulatorFactories is null");
-            for (int i = 0; i < accumulatorFactories.size(); i++) {
-                AccumulatorFactory accumulatorFactory = accumulatorFactories.get(i);
-                builder.add(new Aggregator(accumulatorFactory, step));
-            }
-            aggregators = builder.build();
         }
 
         private void processPage(Page page)
@@ -312,33 +416,80 @@ public class HashAggregationOperator
             for (Aggregator aggregator : aggregators) {
                 types.add(aggregator.getType());
             }
+            return buildPages(types, IntIterators.fromTo(0, groupByHash.getGroupCount()), false);
+        }
+
+        /**
+         * Writes the group by values and the intermediate state of every group to the
+         * spiller for the partition of the group, and returns the number of bytes spilled.
+         */
+        public long spill(List<Spiller> spillers)
+        {
+            int groupCount = groupByHash.getGroupCount();
+            int partitionCount = spillers.size();
+
+            // bucket sort the group ids by partition
+            int[] groupPartitions = new int[groupCount];
+            int[] partitionOffsets = new int[partitionCount + 1];
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                int partition = getSpillPartition(groupByHash.getRawHash(groupId), partitionCount);
+                groupPartitions[groupId] = partition;
+                partitionOffsets[partition + 1]++;
+            }
+            for (int partition = 0; partition < partitionCount; partition++) {
+                partitionOffsets[partition + 1] += partitionOffsets[partition];
+            }
+            int[] sortedGroupIds = new int[groupCount];
+            int[] nextOffsets = Arrays.copyOf(partitionOffsets, partitionCount);
+            for (int groupId = 0; groupId < groupCount; groupId++) {
+                sortedGroupIds[nextOffsets[groupPartitions[groupId]]++] = groupId;
+            }
+
+            List<Type> types = new ArrayList<>(groupByHash.getTypes());
+            for (Aggregator aggregator : aggregators) {
+                types.add(aggregator.getIntermediateType());
+            }
+
+            long spilledBytes = 0;
+            for (int partition = 0; partition < partitionCount; partition++) {
+                int start = partitionOffsets[partition];
+                int length = partitionOffsets[partition + 1] - start;
+                if (length > 0) {
+                    spilledBytes += spillers.get(partition).spill(buildPages(types, IntIterators.wrap(sortedGroupIds, start, length), true));
+                }
+            }
+            return spilledBytes;
+        }
 
+        private Iterator<Page> buildPages(List<Type> types, final IntIterator groupIds, final boolean intermediate)
+        {
             final PageBuilder pageBuilder = new PageBuilder(types);
             return new AbstractIterator<Page>()
             {
-                private final int groupCount = groupByHash.getGroupCount();
-                private int groupId;
-
                 @Override
                 protected Page computeNext()
                 {
-                    if (groupId >= groupCount) {
+                    if (!groupIds.hasNext()) {
                         return endOfData();
                     }
 
                     pageBuilder.reset();
 
                     List<Type> types = groupByHash.getTypes();
-                    while (!pageBuilder.isFull() && groupId < groupCount) {
+                    while (!pageBuilder.isFull() && groupIds.hasNext()) {
+                        int groupId = groupIds.nextInt();
                         groupByHash.appendValuesTo(groupId, pageBuilder, 0);
 
                         for (int i = 0; i < aggregators.size(); i++) {
                             Aggregator aggregator = aggregators.get(i);
                             BlockBuilder output = pageBuilder.getBlockBuilder(types.size() + i);
-                            aggregator.evaluate(groupId, output);
+                            if (intermediate) {
+                                aggregator.evaluateIntermediate(groupId, output);
+                            }
+                            else {
+                                aggregator.evaluate(groupId, output);
+                            }
                         }
-
-                        groupId++;
                     }
 
                     return pageBuilder.build();
@@ -367,6 +518,15 @@ public class HashAggregationOperator
             this.step = step;
         }
 
+        private Aggregator(AccumulatorFactory accumulatorFactory, Step step, int intermediateChannel)
+        {
+            // combines intermediate state read from the given channel and produces the output of the step
+            checkArgument(intermediateChannel >= 0, "intermediateChannel is negative");
+            this.intermediateChannel = intermediateChannel;
+            this.aggregation = accumulatorFactory.createGroupedIntermediateAccumulator();
+            this.step = step;
+        }
+
         public long getEstimatedSize()
         {
             return aggregation.getEstimatedSize();
@@ -382,9 +542,14 @@ public class HashAggregationOperator
             }
         }
 
+        public Type getIntermediateType()
+        {
+            return aggregation.getIntermediateType();
+        }
+
         public void processPage(GroupByIdBlock groupIds, Page page)
         {
-            if (step == Step.FINAL) {
+            if (intermediateChannel >= 0) {
                 aggregation.addIntermediate(groupIds, page.getBlock(intermediateChannel));
             }
             else {
@@ -401,5 +566,10 @@ public class HashAggregationOperator
                 aggregation.evaluateFinal(groupId, output);
             }
         }
+
+        public void evaluateIntermediate(int groupId, BlockBuilder output)
+        {
+            aggregation.evaluateIntermediate(groupId, output);
+        }
     }
 }
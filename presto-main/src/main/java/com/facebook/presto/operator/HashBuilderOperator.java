@@ -13,24 +13,37 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
+import static com.facebook.presto.operator.HashPartitions.getSpillPartition;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 @ThreadSafe
 public class HashBuilderOperator
-        implements Operator
+        implements Operator, Closeable
 {
+    private static final int SPILL_PARTITIONS = 16;
+
     public static class HashBuilderOperatorFactory
             implements OperatorFactory
     {
@@ -40,6 +53,10 @@ public class HashBuilderOperator
         private final Optional<Integer> hashChannel;
 
         private final int expectedPositions;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final ParallelBuild parallelBuild;
+        private final Optional<DynamicFilter> dynamicFilter;
+        private final List<Integer> dynamicFilterChannels;
         private boolean closed;
 
         public HashBuilderOperatorFactory(
@@ -47,7 +64,43 @@ public class HashBuilderOperator
                 List<Type> types,
                 List<Integer> hashChannels,
                 Optional<Integer> hashChannel,
-                int expectedPositions)
+                int expectedPositions,
+                Optional<SpillerFactory> spillerFactory)
+        {
+            this(operatorId, types, hashChannels, hashChannel, expectedPositions, spillerFactory, 1);
+        }
+
+        /**
+         * Creates a factory for a build that runs in the specified number of operators. Every operator
+         * indexes the pages it receives, and the last operator to finish merges the indexes into a
+         * single lookup source.
+         */
+        public HashBuilderOperatorFactory(
+                int operatorId,
+                List<Type> types,
+                List<Integer> hashChannels,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                Optional<SpillerFactory> spillerFactory,
+                int buildOperators)
+        {
+            this(operatorId, types, hashChannels, hashChannel, expectedPositions, spillerFactory, buildOperators, Optional.<DynamicFilter>absent(), ImmutableList.<Integer>of());
+        }
+
+        /**
+         * Creates a factory for a build that also collects the keys in the dynamic filter channels
+         * into the dynamic filter, which is published before the lookup source.
+         */
+        public HashBuilderOperatorFactory(
+                int operatorId,
+                List<Type> types,
+                List<Integer> hashChannels,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                Optional<SpillerFactory> spillerFactory,
+                int buildOperators,
+                Optional<DynamicFilter> dynamicFilter,
+                List<Integer> dynamicFilterChannels)
         {
             this.operatorId = operatorId;
             this.lookupSourceSupplier = new SettableLookupSourceSupplier(checkNotNull(types, "types is null"));
@@ -57,6 +110,11 @@ public class HashBuilderOperator
             this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
 
             this.expectedPositions = checkNotNull(expectedPositions, "expectedPositions is null");
+            this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+            checkArgument(buildOperators == 1 || !spillerFactory.isPresent(), "spilling is not supported for a parallel build");
+            this.parallelBuild = new ParallelBuild(buildOperators);
+            this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
+            this.dynamicFilterChannels = ImmutableList.copyOf(checkNotNull(dynamicFilterChannels, "dynamicFilterChannels is null"));
         }
 
         public LookupSourceSupplier getLookupSourceSupplier()
@@ -75,12 +133,17 @@ public class HashBuilderOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, HashBuilderOperator.class.getSimpleName());
+            parallelBuild.addOperator();
             return new HashBuilderOperator(
                     operatorContext,
                     lookupSourceSupplier,
+                    parallelBuild,
                     hashChannels,
                     hashChannel,
-                    expectedPositions);
+                    expectedPositions,
+                    spillerFactory,
+                    dynamicFilter,
+                    dynamicFilterChannels);
         }
 
         @Override
@@ -92,29 +155,66 @@ public class HashBuilderOperator
 
     private final OperatorContext operatorContext;
     private final SettableLookupSourceSupplier lookupSourceSupplier;
+    private final ParallelBuild parallelBuild;
     private final List<Integer> hashChannels;
     private final Optional<Integer> hashChannel;
 
     private final PagesIndex pagesIndex;
+    private final Optional<SpillerFactory> spillerFactory;
+    private final HashGenerator hashGenerator;
+    private final Optional<DynamicFilter> dynamicFilter;
+    private final Optional<DynamicFilter.Collector> dynamicFilterCollector;
+
+    // partitions at or above this number are spilled, the partitions below it are held in memory
+    private int spilledPartitionStart = SPILL_PARTITIONS;
+    // one spiller per partition; empty until the first spill
+    private List<Spiller> spillers = ImmutableList.of();
+    private List<PageBuilder> spillBuilders = ImmutableList.of();
 
     private boolean finished;
 
     public HashBuilderOperator(
             OperatorContext operatorContext,
             SettableLookupSourceSupplier lookupSourceSupplier,
+            ParallelBuild parallelBuild,
             List<Integer> hashChannels,
             Optional<Integer> hashChannel,
-            int expectedPositions)
+            int expectedPositions,
+            Optional<SpillerFactory> spillerFactory,
+            Optional<DynamicFilter> dynamicFilter,
+            List<Integer> dynamicFilterChannels)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
 
         this.lookupSourceSupplier = checkNotNull(lookupSourceSupplier, "hashSupplier is null");
+        this.parallelBuild = checkNotNull(parallelBuild, "parallelBuild is null");
 
         Preconditions.checkArgument(!hashChannels.isEmpty(), "hashChannels is empty");
         this.hashChannels = ImmutableList.copyOf(checkNotNull(hashChannels, "hashChannels is null"));
         this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
 
         this.pagesIndex = new PagesIndex(lookupSourceSupplier.getTypes(), expectedPositions, operatorContext);
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+
+        if (hashChannel.isPresent()) {
+            this.hashGenerator = new PrecomputedHashGenerator(hashChannel.get());
+        }
+        else {
+            ImmutableList.Builder<Type> hashChannelTypes = ImmutableList.builder();
+            for (int channel : hashChannels) {
+                hashChannelTypes.add(lookupSourceSupplier.getTypes().get(channel));
+            }
+            this.hashGenerator = new InterpretedHashGenerator(hashChannelTypes.build(), Ints.toArray(hashChannels));
+        }
+
+        this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
+        checkNotNull(dynamicFilterChannels, "dynamicFilterChannels is null");
+        if (dynamicFilter.isPresent()) {
+            this.dynamicFilterCollector = Optional.of(dynamicFilter.get().createCollector(dynamicFilterChannels));
+        }
+        else {
+            this.dynamicFilterCollector = Optional.absent();
+        }
     }
 
     @Override
@@ -136,7 +236,48 @@ public class HashBuilderOperator
             return;
         }
 
+        if (dynamicFilterCollector.isPresent()) {
+            dynamicFilterCollector.get().finish();
+        }
+
+        List<PagesIndex> partialIndexes = parallelBuild.operatorFinished(pagesIndex, operatorContext);
+        if (partialIndexes.isEmpty()) {
+            // another operator of the build publishes the lookup source
+            finished = true;
+            return;
+        }
+
+        // the probe side scans can start before the lookup source is built
+        if (dynamicFilter.isPresent()) {
+            dynamicFilter.get().publish();
+        }
+
+        for (PagesIndex partialIndex : partialIndexes) {
+            if (partialIndex != pagesIndex) {
+                pagesIndex.addPagesIndex(partialIndex);
+            }
+        }
+
+        if (!spillers.isEmpty()) {
+            // the reservation still covers the rows that were moved to disk, so give that memory
+            // back to the task where the probe side can use it to load the spilled partitions
+            operatorContext.trimMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
+        }
+
         LookupSource lookupSource = pagesIndex.createLookupSource(hashChannels, hashChannel);
+        if (!spillers.isEmpty()) {
+            for (int partition = spilledPartitionStart; partition < SPILL_PARTITIONS; partition++) {
+                flushSpillBuilder(partition);
+            }
+            lookupSource = new PartitionedLookupSource(
+                    lookupSource,
+                    spilledPartitionStart,
+                    spillers,
+                    lookupSourceSupplier.getTypes(),
+                    hashChannels,
+                    hashChannel,
+                    spillerFactory.get());
+        }
         lookupSourceSupplier.setLookupSource(lookupSource);
         finished = true;
     }
@@ -165,8 +306,26 @@ public class HashBuilderOperator
         checkNotNull(page, "page is null");
         checkState(!isFinished(), "Operator is already finished");
 
-        pagesIndex.addPage(page);
         operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
+
+        if (dynamicFilterCollector.isPresent()) {
+            dynamicFilterCollector.get().addPage(page);
+        }
+
+        if (!spillerFactory.isPresent()) {
+            pagesIndex.addPage(page);
+            return;
+        }
+
+        if (!spillers.isEmpty()) {
+            page = spillRows(page);
+            if (page.getPositionCount() == 0) {
+                return;
+            }
+        }
+        if (!pagesIndex.tryAddPage(page)) {
+            spillPartitions();
+        }
     }
 
     @Override
@@ -174,4 +333,151 @@ public class HashBuilderOperator
     {
         return null;
     }
+
+    @Override
+    public void close()
+    {
+        // once the lookup source is published, the spilled partitions are owned by the lookup source supplier
+        if (!finished) {
+            for (Spiller spiller : spillers) {
+                spiller.close();
+            }
+        }
+    }
+
+    /**
+     * Halves the number of partitions held in memory until the rows of the remaining partitions fit in the index.
+     */
+    private void spillPartitions()
+    {
+        if (spillers.isEmpty()) {
+            ImmutableList.Builder<Spiller> spillers = ImmutableList.builder();
+            ImmutableList.Builder<PageBuilder> spillBuilders = ImmutableList.builder();
+            for (int partition = 0; partition < SPILL_PARTITIONS; partition++) {
+                spillers.add(spillerFactory.get().create());
+                spillBuilders.add(new PageBuilder(lookupSourceSupplier.getTypes()));
+            }
+            this.spillers = spillers.build();
+            this.spillBuilders = spillBuilders.build();
+        }
+
+        boolean reserved;
+        do {
+            checkState(spilledPartitionStart > 0, "All partitions are already spilled");
+            spilledPartitionStart /= 2;
+
+            List<Page> inMemoryPages = new ArrayList<>();
+            Iterator<Page> pages = pagesIndex.getPages();
+            while (pages.hasNext()) {
+                Page page = spillRows(pages.next());
+                if (page.getPositionCount() > 0) {
+                    inMemoryPages.add(page);
+                }
+            }
+
+            pagesIndex.clear();
+            reserved = true;
+            for (Page page : inMemoryPages) {
+                if (!pagesIndex.tryAddPage(page)) {
+                    reserved = false;
+                }
+            }
+        }
+        while (!reserved);
+    }
+
+    /**
+     * Buffers the rows of spilled partitions for spilling, and returns the rows of the partitions held in memory.
+     */
+    private Page spillRows(Page page)
+    {
+        List<Type> types = lookupSourceSupplier.getTypes();
+        if (hashGenerator.isConstantHash(page) && page.getPositionCount() > 0) {
+            int partition = getSpillPartition(hashGenerator.hashPosition(0, page), SPILL_PARTITIONS);
+            if (partition < spilledPartitionStart) {
+                return page;
+            }
+        }
+
+        PageBuilder inMemoryRows = new PageBuilder(types);
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            int partition = getSpillPartition(hashGenerator.hashPosition(position, page), SPILL_PARTITIONS);
+            PageBuilder pageBuilder = partition < spilledPartitionStart ? inMemoryRows : spillBuilders.get(partition);
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+            if (partition >= spilledPartitionStart && pageBuilder.isFull()) {
+                flushSpillBuilder(partition);
+            }
+        }
+        return inMemoryRows.build();
+    }
+
+    private void flushSpillBuilder(int partition)
+    {
+        PageBuilder pageBuilder = spillBuilders.get(partition);
+        if (pageBuilder.isEmpty()) {
+            return;
+        }
+
+        long spilledBytes = spillers.get(partition).spill(ImmutableList.of(pageBuilder.build()).iterator());
+        operatorContext.recordSpill(spilledBytes);
+        pageBuilder.reset();
+    }
+
+    /**
+     * Tracks the operators of a build, so the last one to finish can create the lookup source from the indexes of all of them.
+     */
+    @ThreadSafe
+    static final class ParallelBuild
+    {
+        private final int operatorCount;
+
+        @GuardedBy("this")
+        private final List<PagesIndex> partialIndexes = new ArrayList<>();
+        @GuardedBy("this")
+        private int createdOperators;
+        @GuardedBy("this")
+        private long handedOverBytes;
+
+        ParallelBuild(int operatorCount)
+        {
+            checkArgument(operatorCount > 0, "operatorCount must be greater than zero");
+            this.operatorCount = operatorCount;
+        }
+
+        synchronized void addOperator()
+        {
+            checkState(createdOperators < operatorCount, "All %s build operators are already created", operatorCount);
+            createdOperators++;
+        }
+
+        /**
+         * Returns the indexes of all operators of the build if the specified index is the last one, otherwise an empty list.
+         * <p>
+         * An index handed over to another operator outlives the driver of its operator, so its memory reservation
+         * moves from the operator to the task until the last operator merges the indexes. The merged index is then
+         * charged to the last operator, so every row is reserved exactly once.
+         */
+        synchronized List<PagesIndex> operatorFinished(PagesIndex pagesIndex, OperatorContext operatorContext)
+        {
+            partialIndexes.add(pagesIndex);
+            TaskContext taskContext = operatorContext.getDriverContext().getPipelineContext().getTaskContext();
+            if (partialIndexes.size() < operatorCount) {
+                long bytes = pagesIndex.getEstimatedSize().toBytes();
+                operatorContext.trimMemoryReservation(0);
+                if (!taskContext.reserveMemory(bytes)) {
+                    throw new ExceededMemoryLimitException(taskContext.getMaxMemorySize());
+                }
+                handedOverBytes += bytes;
+                return ImmutableList.of();
+            }
+
+            taskContext.freeMemory(handedOverBytes);
+            handedOverBytes = 0;
+            List<PagesIndex> indexes = ImmutableList.copyOf(partialIndexes);
+            partialIndexes.clear();
+            return indexes;
+        }
+    }
 }
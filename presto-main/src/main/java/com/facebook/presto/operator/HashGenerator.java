@@ -18,4 +18,10 @@ import com.facebook.presto.spi.Page;
 public interface HashGenerator
 {
     int hashPosition(int position, Page page);
+
+    /**
+     * Does every position of the page have the same hash? This is the case when
+     * all the hashed blocks are run length encoded.
+     */
+    boolean isConstantHash(Page page);
 }
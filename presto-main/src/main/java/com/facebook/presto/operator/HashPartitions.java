@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import io.airlift.slice.XxHash64;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Methods for assigning a raw row hash to a partition.
+ * Hash tables pick slots with the low 32 bits of {@code XxHash64.hash(rawHash)}, so the local exchange
+ * partitions on the high 32 bits of the same value.  Spill partitions are taken from a second round of
+ * hashing, so that the rows routed to one exchange partition still spread over all spill partitions.
+ */
+public final class HashPartitions
+{
+    private HashPartitions()
+    {
+    }
+
+    public static int getExchangePartition(int rawHash, int partitionCount)
+    {
+        checkArgument(partitionCount > 0, "partitionCount must be positive");
+        return (int) ((XxHash64.hash(rawHash) >>> 32) % partitionCount);
+    }
+
+    public static int getSpillPartition(int rawHash, int partitionCount)
+    {
+        checkArgument(partitionCount > 0, "partitionCount must be positive");
+        return (int) ((XxHash64.hash(XxHash64.hash(rawHash)) >>> 32) % partitionCount);
+    }
+}
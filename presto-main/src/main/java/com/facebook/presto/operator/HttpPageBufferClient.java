@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PagesCompression;
+import com.facebook.presto.block.PagesTransferStats;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
@@ -52,6 +54,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES_TYPE;
 import static com.facebook.presto.block.PagesSerde.readPages;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
 import static com.facebook.presto.operator.HttpPageBufferClient.PagesResponse.createClosedResponse;
@@ -101,6 +104,8 @@ public final class HttpPageBufferClient
     private final URI location;
     private final ClientCallback clientCallback;
     private final BlockEncodingSerde blockEncodingSerde;
+    private final PagesCompression compression;
+    private final PagesTransferStats transferStats;
     private final ScheduledExecutorService executor;
 
     @GuardedBy("this")
@@ -132,9 +137,11 @@ public final class HttpPageBufferClient
             URI location,
             ClientCallback clientCallback,
             BlockEncodingSerde blockEncodingSerde,
+            PagesCompression compression,
+            PagesTransferStats transferStats,
             ScheduledExecutorService executor)
     {
-        this(httpClient, maxResponseSize, minErrorDuration, location, clientCallback, blockEncodingSerde, executor, Stopwatch.createUnstarted());
+        this(httpClient, maxResponseSize, minErrorDuration, location, clientCallback, blockEncodingSerde, compression, transferStats, executor, Stopwatch.createUnstarted());
     }
 
     public HttpPageBufferClient(
@@ -146,6 +153,21 @@ public final class HttpPageBufferClient
             BlockEncodingSerde blockEncodingSerde,
             ScheduledExecutorService executor,
             Stopwatch errorStopwatch)
+    {
+        this(httpClient, maxResponseSize, minErrorDuration, location, clientCallback, blockEncodingSerde, PagesCompression.NONE, new PagesTransferStats(), executor, errorStopwatch);
+    }
+
+    public HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration minErrorDuration,
+            URI location,
+            ClientCallback clientCallback,
+            BlockEncodingSerde blockEncodingSerde,
+            PagesCompression compression,
+            PagesTransferStats transferStats,
+            ScheduledExecutorService executor,
+            Stopwatch errorStopwatch)
     {
         this.httpClient = checkNotNull(httpClient, "httpClient is null");
         this.maxResponseSize = checkNotNull(maxResponseSize, "maxResponseSize is null");
@@ -153,6 +175,8 @@ public final class HttpPageBufferClient
         this.location = checkNotNull(location, "location is null");
         this.clientCallback = checkNotNull(clientCallback, "clientCallback is null");
         this.blockEncodingSerde = checkNotNull(blockEncodingSerde, "blockEncodingManager is null");
+        this.compression = checkNotNull(compression, "compression is null");
+        this.transferStats = checkNotNull(transferStats, "transferStats is null");
         this.executor = checkNotNull(executor, "executor is null");
         this.errorStopwatch = checkNotNull(errorStopwatch, "errorStopwatch is null").reset();
     }
@@ -255,11 +279,13 @@ public final class HttpPageBufferClient
         }
 
         final URI uri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(token)).build();
-        future = httpClient.executeAsync(
-                prepareGet()
-                        .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
-                        .setUri(uri).build(),
-                new PageResponseHandler(blockEncodingSerde));
+        Request.Builder request = prepareGet()
+                .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
+                .setUri(uri);
+        if (compression != PagesCompression.NONE) {
+            request.setHeader(PRESTO_PAGE_COMPRESSION, compression.name());
+        }
+        future = httpClient.executeAsync(request.build(), new PageResponseHandler(blockEncodingSerde, transferStats));
 
         Futures.addCallback(future, new FutureCallback<PagesResponse>()
         {
@@ -426,10 +452,12 @@ public final class HttpPageBufferClient
             implements ResponseHandler<PagesResponse, RuntimeException>
     {
         private final BlockEncodingSerde blockEncodingSerde;
+        private final PagesTransferStats transferStats;
 
-        public PageResponseHandler(BlockEncodingSerde blockEncodingSerde)
+        public PageResponseHandler(BlockEncodingSerde blockEncodingSerde, PagesTransferStats transferStats)
         {
             this.blockEncodingSerde = blockEncodingSerde;
+            this.transferStats = transferStats;
         }
 
         @Override
@@ -465,8 +493,11 @@ public final class HttpPageBufferClient
             long token = getToken(response);
             long nextToken = getNextToken(response);
 
+            // the server only compresses when it supports the requested codec, and says so in the response
+            PagesCompression compression = PagesCompression.fromHeader(response.getHeader(PRESTO_PAGE_COMPRESSION));
+
             try (SliceInput input = new InputStreamSliceInput(response.getInputStream())) {
-                List<Page> pages = ImmutableList.copyOf(readPages(blockEncodingSerde, input));
+                List<Page> pages = ImmutableList.copyOf(readPages(blockEncodingSerde, compression, input, transferStats));
                 return createPagesResponse(token, nextToken, pages);
             }
             catch (IOException e) {
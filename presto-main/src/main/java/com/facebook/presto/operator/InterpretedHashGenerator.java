@@ -16,6 +16,7 @@ package com.facebook.presto.operator;
 import com.facebook.presto.operator.scalar.CombineHashFunction;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.planner.optimizations.HashGenerationOptimizer;
 import com.facebook.presto.type.TypeUtils;
@@ -52,6 +53,17 @@ public class InterpretedHashGenerator
         return result;
     }
 
+    @Override
+    public boolean isConstantHash(Page page)
+    {
+        for (int channel : hashChannels) {
+            if (!(page.getBlock(channel) instanceof RunLengthEncodedBlock)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String toString()
     {
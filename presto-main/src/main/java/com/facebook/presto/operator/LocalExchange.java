@@ -0,0 +1,402 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static com.facebook.presto.operator.HashPartitions.getExchangePartition;
+import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+/**
+ * Exchange between the pipelines of a task that distributes pages over a fixed number of partitions,
+ * each read by a single source operator. Pages are assigned to partitions round-robin, or, when
+ * partition channels are specified, rows are assigned to partitions by the hash of those channels.
+ * Buffered pages are reserved against the memory of the task until they are read.
+ */
+@ThreadSafe
+public class LocalExchange
+{
+    private final List<Type> types;
+    private final int partitionCount;
+    private final Optional<HashGenerator> partitionHashGenerator;
+    private final long maxBufferedBytes;
+
+    @GuardedBy("this")
+    private final List<Queue<Page>> buffers;
+
+    @GuardedBy("this")
+    private final boolean[] partitionFinished;
+
+    @GuardedBy("this")
+    private final List<SettableFuture<?>> readerFutures;
+
+    @GuardedBy("this")
+    private boolean finishing;
+
+    @GuardedBy("this")
+    private boolean noMoreSinkFactories;
+
+    @GuardedBy("this")
+    private int sinkFactories;
+
+    @GuardedBy("this")
+    private int sinks;
+
+    @GuardedBy("this")
+    private int sources;
+
+    @GuardedBy("this")
+    private int nextPartition;
+
+    @GuardedBy("this")
+    private long bufferBytes;
+
+    @GuardedBy("this")
+    private SettableFuture<?> writerFuture;
+
+    @GuardedBy("this")
+    private TaskContext taskContext;
+
+    public LocalExchange(List<Type> types, int partitionCount, Optional<List<Integer>> partitionChannels, Optional<Integer> hashChannel)
+    {
+        this(types, partitionCount, partitionChannels, hashChannel, new DataSize(32, MEGABYTE));
+    }
+
+    public LocalExchange(List<Type> types, int partitionCount, Optional<List<Integer>> partitionChannels, Optional<Integer> hashChannel, DataSize maxBufferedBytes)
+    {
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        checkNotNull(partitionChannels, "partitionChannels is null");
+        checkNotNull(hashChannel, "hashChannel is null");
+
+        checkArgument(partitionCount > 0, "partitionCount must be greater than zero");
+        this.partitionCount = partitionCount;
+
+        if (!partitionChannels.isPresent()) {
+            this.partitionHashGenerator = Optional.absent();
+        }
+        else if (hashChannel.isPresent()) {
+            this.partitionHashGenerator = Optional.<HashGenerator>of(new PrecomputedHashGenerator(hashChannel.get()));
+        }
+        else {
+            ImmutableList.Builder<Type> partitionChannelTypes = ImmutableList.builder();
+            for (int channel : partitionChannels.get()) {
+                partitionChannelTypes.add(types.get(channel));
+            }
+            this.partitionHashGenerator = Optional.<HashGenerator>of(new InterpretedHashGenerator(partitionChannelTypes.build(), Ints.toArray(partitionChannels.get())));
+        }
+
+        checkArgument(maxBufferedBytes.toBytes() > 0, "maxBufferedBytes must be greater than zero");
+        this.maxBufferedBytes = maxBufferedBytes.toBytes();
+
+        ImmutableList.Builder<Queue<Page>> buffers = ImmutableList.builder();
+        List<SettableFuture<?>> readerFutures = new ArrayList<>(partitionCount);
+        for (int partition = 0; partition < partitionCount; partition++) {
+            buffers.add(new ArrayDeque<Page>());
+            readerFutures.add(null);
+        }
+        this.buffers = buffers.build();
+        this.readerFutures = readerFutures;
+        this.partitionFinished = new boolean[partitionCount];
+    }
+
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    public synchronized OperatorFactory createSinkFactory(int operatorId)
+    {
+        sinkFactories++;
+        return new LocalExchangeSinkOperatorFactory(operatorId);
+    }
+
+    public OperatorFactory createSourceFactory(int operatorId)
+    {
+        return new LocalExchangeSourceOperator.LocalExchangeSourceOperatorFactory(operatorId, this);
+    }
+
+    private synchronized void addSink(TaskContext taskContext)
+    {
+        checkState(sinkFactories > 0, "All sink factories already closed");
+        checkArgument(this.taskContext == null || this.taskContext == taskContext, "All sinks must belong to the same task");
+        this.taskContext = taskContext;
+        sinks++;
+    }
+
+    synchronized int addSource()
+    {
+        checkState(sources < partitionCount, "All %s partitions already have a source", partitionCount);
+        return sources++;
+    }
+
+    public synchronized void sinkFinished()
+    {
+        checkState(sinks != 0, "All sinks are already complete");
+        sinks--;
+        updateState();
+    }
+
+    public synchronized void noMoreSinkFactories()
+    {
+        this.noMoreSinkFactories = true;
+        updateState();
+    }
+
+    private synchronized void sinkFactoryClosed()
+    {
+        checkState(sinkFactories != 0, "All sinks factories are already closed");
+        sinkFactories--;
+        updateState();
+    }
+
+    private void updateState()
+    {
+        if (noMoreSinkFactories && (sinkFactories == 0) && (sinks == 0)) {
+            finishing = true;
+            for (int partition = 0; partition < partitionCount; partition++) {
+                notifyBlockedReader(partition);
+            }
+        }
+    }
+
+    public synchronized boolean isFinishing()
+    {
+        return finishing || allPartitionsFinished();
+    }
+
+    private boolean allPartitionsFinished()
+    {
+        for (boolean finished : partitionFinished) {
+            if (!finished) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Called when the reader of a partition no longer needs input. The buffered
+     * pages of the partition are dropped, and new pages for it are discarded.
+     */
+    public synchronized void finishPartition(int partition)
+    {
+        partitionFinished[partition] = true;
+        Queue<Page> buffer = buffers.get(partition);
+        long freedBytes = 0;
+        for (Page page : buffer) {
+            freedBytes += page.getSizeInBytes();
+        }
+        buffer.clear();
+        freeMemory(freedBytes);
+        notifyBlockedReader(partition);
+        notifyBlockedWriters();
+    }
+
+    public synchronized boolean isFinished(int partition)
+    {
+        return partitionFinished[partition] || (finishing && buffers.get(partition).isEmpty());
+    }
+
+    public void addPage(Page page)
+    {
+        if (!partitionHashGenerator.isPresent()) {
+            addPage(nextRoundRobinPartition(), page);
+            return;
+        }
+
+        if (partitionCount == 1) {
+            addPage(0, page);
+            return;
+        }
+
+        HashGenerator hashGenerator = partitionHashGenerator.get();
+        if (hashGenerator.isConstantHash(page)) {
+            if (page.getPositionCount() > 0) {
+                addPage(getExchangePartition(hashGenerator.hashPosition(0, page), partitionCount), page);
+            }
+            return;
+        }
+
+        // split the page by partition before taking the lock
+        PageBuilder[] partitionPageBuilders = new PageBuilder[partitionCount];
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            int partition = getExchangePartition(hashGenerator.hashPosition(position, page), partitionCount);
+            PageBuilder pageBuilder = partitionPageBuilders[partition];
+            if (pageBuilder == null) {
+                pageBuilder = new PageBuilder(types);
+                partitionPageBuilders[partition] = pageBuilder;
+            }
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+        }
+
+        for (int partition = 0; partition < partitionCount; partition++) {
+            PageBuilder pageBuilder = partitionPageBuilders[partition];
+            if (pageBuilder != null) {
+                addPage(partition, pageBuilder.build());
+            }
+        }
+    }
+
+    private synchronized int nextRoundRobinPartition()
+    {
+        for (int i = 0; i < partitionCount; i++) {
+            int partition = nextPartition;
+            nextPartition = (nextPartition + 1) % partitionCount;
+            if (!partitionFinished[partition]) {
+                return partition;
+            }
+        }
+        // every partition is finished, so the page will be discarded
+        return 0;
+    }
+
+    private synchronized void addPage(int partition, Page page)
+    {
+        if (finishing || partitionFinished[partition]) {
+            return;
+        }
+        long bytes = page.getSizeInBytes();
+        if (!taskContext.reserveMemory(bytes)) {
+            throw new ExceededMemoryLimitException(taskContext.getMaxMemorySize());
+        }
+        buffers.get(partition).add(page);
+        bufferBytes += bytes;
+        notifyBlockedReader(partition);
+    }
+
+    private void freeMemory(long bytes)
+    {
+        if (bytes > 0) {
+            bufferBytes -= bytes;
+            taskContext.freeMemory(bytes);
+        }
+    }
+
+    private void notifyBlockedReader(int partition)
+    {
+        SettableFuture<?> readerFuture = readerFutures.get(partition);
+        if (readerFuture != null) {
+            readerFuture.set(null);
+            readerFutures.set(partition, null);
+        }
+    }
+
+    public synchronized ListenableFuture<?> waitForReading(int partition)
+    {
+        if (isFinished(partition) || !buffers.get(partition).isEmpty()) {
+            return NOT_BLOCKED;
+        }
+        SettableFuture<?> readerFuture = readerFutures.get(partition);
+        if (readerFuture == null) {
+            readerFuture = SettableFuture.create();
+            readerFutures.set(partition, readerFuture);
+        }
+        return readerFuture;
+    }
+
+    public synchronized Page removePage(int partition)
+    {
+        Page page = buffers.get(partition).poll();
+        if (page != null) {
+            freeMemory(page.getSizeInBytes());
+        }
+        if (bufferBytes < maxBufferedBytes) {
+            notifyBlockedWriters();
+        }
+        return page;
+    }
+
+    private void notifyBlockedWriters()
+    {
+        if (writerFuture != null) {
+            writerFuture.set(null);
+            writerFuture = null;
+        }
+    }
+
+    public synchronized ListenableFuture<?> waitForWriting()
+    {
+        if (bufferBytes < maxBufferedBytes) {
+            return NOT_BLOCKED;
+        }
+        if (writerFuture == null) {
+            writerFuture = SettableFuture.create();
+        }
+        return writerFuture;
+    }
+
+    private class LocalExchangeSinkOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private boolean closed;
+
+        private LocalExchangeSinkOperatorFactory(int operatorId)
+        {
+            this.operatorId = operatorId;
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return types;
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, LocalExchangeSinkOperator.class.getSimpleName());
+            addSink(driverContext.getPipelineContext().getTaskContext());
+            return new LocalExchangeSinkOperator(operatorContext, LocalExchange.this);
+        }
+
+        @Override
+        public void close()
+        {
+            if (!closed) {
+                closed = true;
+                sinkFactoryClosed();
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+public class LocalExchangeSourceOperator
+        implements Operator
+{
+    public static class LocalExchangeSourceOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final LocalExchange exchange;
+        private boolean closed;
+
+        public LocalExchangeSourceOperatorFactory(int operatorId, LocalExchange exchange)
+        {
+            this.operatorId = operatorId;
+            this.exchange = checkNotNull(exchange, "exchange is null");
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return exchange.getTypes();
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            checkState(!closed, "Factory is already closed");
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, LocalExchangeSourceOperator.class.getSimpleName());
+            return new LocalExchangeSourceOperator(operatorContext, exchange, exchange.addSource());
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final LocalExchange exchange;
+    private final int partition;
+
+    public LocalExchangeSourceOperator(OperatorContext operatorContext, LocalExchange exchange, int partition)
+    {
+        this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
+        this.exchange = checkNotNull(exchange, "exchange is null");
+        this.partition = partition;
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return exchange.getTypes();
+    }
+
+    @Override
+    public void finish()
+    {
+        exchange.finishPartition(partition);
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return exchange.isFinished(partition);
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        ListenableFuture<?> blocked = exchange.waitForReading(partition);
+        if (blocked.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return false;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        Page page = exchange.removePage(partition);
+        if (page != null) {
+            operatorContext.recordGeneratedInput(page.getSizeInBytes(), page.getPositionCount());
+        }
+        return page;
+    }
+}
@@ -16,10 +16,14 @@ package com.facebook.presto.operator;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.util.MoreFutures.tryGetUnchecked;
@@ -32,23 +36,39 @@ public class LookupJoinOperator
     private final ListenableFuture<LookupSource> lookupSourceFuture;
 
     private final OperatorContext operatorContext;
+    private final LookupSourceSupplier lookupSourceSupplier;
     private final JoinProbeFactory joinProbeFactory;
     private final boolean enableOuterJoin;
+    private final List<Type> probeTypes;
     private final List<Type> types;
     private final PageBuilder pageBuilder;
+    private final HashGenerator probeHashGenerator;
 
     private LookupSource lookupSource;
     private JoinProbe probe;
 
     private boolean finishing;
     private long joinPosition = -1;
+    private boolean closed;
+
+    // set when some partitions of the build side are spilled; the probe rows of those partitions
+    // are spilled as well, and joined one partition at a time after the input is exhausted
+    private PartitionedLookupSource partitionedLookupSource;
+    private Spiller[] probeSpillers;
+    private PageBuilder[] probeSpillBuilders;
+    private int nextSpilledPartition;
+    private Iterator<Page> spilledProbePages;
+    // the spilled build partition being joined, which is shared with the other probe operators
+    private int acquiredPartition = -1;
+    private ListenableFuture<LookupSource> spilledPartition;
 
     public LookupJoinOperator(
             OperatorContext operatorContext,
             LookupSourceSupplier lookupSourceSupplier,
             List<Type> probeTypes,
             boolean enableOuterJoin,
-            JoinProbeFactory joinProbeFactory)
+            JoinProbeFactory joinProbeFactory,
+            HashGenerator probeHashGenerator)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
 
@@ -56,9 +76,13 @@ public class LookupJoinOperator
         checkNotNull(lookupSourceSupplier, "lookupSourceSupplier is null");
         checkNotNull(probeTypes, "probeTypes is null");
 
+        this.lookupSourceSupplier = lookupSourceSupplier;
         this.lookupSourceFuture = lookupSourceSupplier.getLookupSource(operatorContext);
         this.joinProbeFactory = joinProbeFactory;
         this.enableOuterJoin = enableOuterJoin;
+        this.probeTypes = ImmutableList.copyOf(probeTypes);
+        this.probeHashGenerator = checkNotNull(probeHashGenerator, "probeHashGenerator is null");
+        lookupSourceSupplier.retain();
 
         this.types = ImmutableList.<Type>builder()
                 .addAll(probeTypes)
@@ -82,13 +106,23 @@ public class LookupJoinOperator
     @Override
     public void finish()
     {
+        if (finishing) {
+            return;
+        }
         finishing = true;
+
+        if (probeSpillers != null) {
+            for (int partition = 0; partition < probeSpillers.length; partition++) {
+                flushProbeSpillBuilder(partition);
+            }
+            probeSpillBuilders = null;
+        }
     }
 
     @Override
     public boolean isFinished()
     {
-        boolean finished = finishing && probe == null && pageBuilder.isEmpty();
+        boolean finished = finishing && probe == null && pageBuilder.isEmpty() && !hasSpilledProbeRows();
 
         // if finished drop references so memory is freed early
         if (finished) {
@@ -96,6 +130,7 @@ public class LookupJoinOperator
                 lookupSource.close();
                 lookupSource = null;
             }
+            releaseSpilledPartition();
             probe = null;
             pageBuilder.reset();
         }
@@ -105,6 +140,9 @@ public class LookupJoinOperator
     @Override
     public ListenableFuture<?> isBlocked()
     {
+        if (spilledPartition != null && !spilledPartition.isDone()) {
+            return spilledPartition;
+        }
         return lookupSourceFuture;
     }
 
@@ -117,6 +155,9 @@ public class LookupJoinOperator
 
         if (lookupSource == null) {
             lookupSource = tryGetUnchecked(lookupSourceFuture);
+            if (lookupSource instanceof PartitionedLookupSource) {
+                partitionedLookupSource = (PartitionedLookupSource) lookupSource;
+            }
         }
         return lookupSource != null && probe == null;
     }
@@ -129,6 +170,13 @@ public class LookupJoinOperator
         checkState(lookupSource != null, "Lookup source has not been built yet");
         checkState(probe == null, "Current page has not been completely processed yet");
 
+        if (partitionedLookupSource != null) {
+            page = spillProbeRows(page);
+            if (page.getPositionCount() == 0) {
+                return;
+            }
+        }
+
         // create probe
         probe = joinProbeFactory.createJoinProbe(lookupSource, page);
 
@@ -139,6 +187,10 @@ public class LookupJoinOperator
     @Override
     public Page getOutput()
     {
+        if (finishing && probe == null && hasSpilledProbeRows()) {
+            probeNextSpilledPage();
+        }
+
         // join probe page with the lookup source
         if (probe != null) {
             while (joinCurrentPosition()) {
@@ -168,6 +220,147 @@ public class LookupJoinOperator
             lookupSource.close();
             lookupSource = null;
         }
+        releaseSpilledPartition();
+
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        if (probeSpillers != null) {
+            for (Spiller spiller : probeSpillers) {
+                if (spiller != null) {
+                    spiller.close();
+                }
+            }
+        }
+        lookupSourceSupplier.release();
+    }
+
+    /**
+     * Spills the rows of the page that belong to spilled partitions, and returns the remaining rows.
+     */
+    private Page spillProbeRows(Page page)
+    {
+        int[] partitions = new int[page.getPositionCount()];
+        boolean hasSpilledRows = false;
+        if (probeHashGenerator.isConstantHash(page)) {
+            if (page.getPositionCount() > 0) {
+                Arrays.fill(partitions, partitionedLookupSource.getPartition(probeHashGenerator.hashPosition(0, page)));
+                hasSpilledRows = partitionedLookupSource.isSpilled(partitions[0]);
+            }
+        }
+        else {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                partitions[position] = partitionedLookupSource.getPartition(probeHashGenerator.hashPosition(position, page));
+                hasSpilledRows |= partitionedLookupSource.isSpilled(partitions[position]);
+            }
+        }
+        if (!hasSpilledRows) {
+            return page;
+        }
+
+        if (probeSpillers == null) {
+            probeSpillers = new Spiller[partitionedLookupSource.getPartitionCount()];
+            probeSpillBuilders = new PageBuilder[partitionedLookupSource.getPartitionCount()];
+        }
+
+        PageBuilder inMemoryRows = new PageBuilder(probeTypes);
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            int partition = partitions[position];
+            if (!partitionedLookupSource.isSpilled(partition)) {
+                appendRow(page, position, inMemoryRows);
+                continue;
+            }
+
+            if (probeSpillBuilders[partition] == null) {
+                probeSpillers[partition] = partitionedLookupSource.createProbeSpiller();
+                probeSpillBuilders[partition] = new PageBuilder(probeTypes);
+            }
+            appendRow(page, position, probeSpillBuilders[partition]);
+            if (probeSpillBuilders[partition].isFull()) {
+                flushProbeSpillBuilder(partition);
+            }
+        }
+        return inMemoryRows.build();
+    }
+
+    private void appendRow(Page page, int position, PageBuilder pageBuilder)
+    {
+        for (int channel = 0; channel < probeTypes.size(); channel++) {
+            probeTypes.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+        }
+    }
+
+    private void flushProbeSpillBuilder(int partition)
+    {
+        PageBuilder pageBuilder = probeSpillBuilders[partition];
+        if (pageBuilder == null || pageBuilder.isEmpty()) {
+            return;
+        }
+
+        long spilledBytes = probeSpillers[partition].spill(Iterators.singletonIterator(pageBuilder.build()));
+        operatorContext.recordSpill(spilledBytes);
+        pageBuilder.reset();
+    }
+
+    private boolean hasSpilledProbeRows()
+    {
+        if (probeSpillers == null) {
+            return false;
+        }
+        return nextSpilledPartition < probeSpillers.length ||
+                spilledPartition != null ||
+                (spilledProbePages != null && spilledProbePages.hasNext());
+    }
+
+    /**
+     * Creates a probe for the next page of spilled probe rows, acquiring the matching build partition when a new partition is started.
+     * Returns without a probe while another operator is loading the partition.
+     */
+    private void probeNextSpilledPage()
+    {
+        while (spilledProbePages == null || !spilledProbePages.hasNext()) {
+            if (spilledPartition != null) {
+                LookupSource partitionLookupSource = tryGetUnchecked(spilledPartition);
+                if (partitionLookupSource == null) {
+                    return;
+                }
+                spilledPartition = null;
+                lookupSource = partitionLookupSource;
+                spilledProbePages = Iterators.concat(probeSpillers[acquiredPartition].getSpills().iterator());
+                continue;
+            }
+
+            // the previous partition is done
+            releaseSpilledPartition();
+
+            while (nextSpilledPartition < probeSpillers.length && probeSpillers[nextSpilledPartition] == null) {
+                nextSpilledPartition++;
+            }
+            if (nextSpilledPartition == probeSpillers.length) {
+                spilledProbePages = ImmutableList.<Page>of().iterator();
+                return;
+            }
+
+            acquiredPartition = nextSpilledPartition;
+            nextSpilledPartition++;
+            spilledPartition = partitionedLookupSource.acquireSpilledPartition(acquiredPartition, operatorContext);
+        }
+
+        probe = joinProbeFactory.createJoinProbe(lookupSource, spilledProbePages.next());
+        joinPosition = -1;
+    }
+
+    private void releaseSpilledPartition()
+    {
+        if (acquiredPartition < 0) {
+            return;
+        }
+        probeSpillers[acquiredPartition].close();
+        partitionedLookupSource.releaseSpilledPartition(acquiredPartition);
+        acquiredPartition = -1;
+        spilledPartition = null;
     }
 
     private boolean joinCurrentPosition()
@@ -14,7 +14,9 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 
 import java.util.List;
 
@@ -29,11 +31,14 @@ public class LookupJoinOperatorFactory
     private final boolean enableOuterJoin;
     private final List<Type> types;
     private final JoinProbeFactory joinProbeFactory;
+    private final HashGenerator probeHashGenerator;
     private boolean closed;
 
     public LookupJoinOperatorFactory(int operatorId,
             LookupSourceSupplier lookupSourceSupplier,
             List<Type> probeTypes,
+            List<Integer> probeJoinChannels,
+            Optional<Integer> probeHashChannel,
             boolean enableOuterJoin,
             JoinProbeFactory joinProbeFactory)
     {
@@ -44,6 +49,21 @@ public class LookupJoinOperatorFactory
 
         this.joinProbeFactory = joinProbeFactory;
 
+        // used to route probe rows to the partitions of a spilled build side
+        if (probeHashChannel.isPresent()) {
+            this.probeHashGenerator = new PrecomputedHashGenerator(probeHashChannel.get());
+        }
+        else {
+            ImmutableList.Builder<Type> probeJoinTypes = ImmutableList.builder();
+            for (int channel : probeJoinChannels) {
+                probeJoinTypes.add(probeTypes.get(channel));
+            }
+            this.probeHashGenerator = new InterpretedHashGenerator(probeJoinTypes.build(), Ints.toArray(probeJoinChannels));
+        }
+
+        // the lookup source must outlive every operator created by this factory
+        lookupSourceSupplier.retain();
+
         this.types = ImmutableList.<Type>builder()
                 .addAll(probeTypes)
                 .addAll(lookupSourceSupplier.getTypes())
@@ -61,12 +81,16 @@ public class LookupJoinOperatorFactory
     {
         checkState(!closed, "Factory is already closed");
         OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, LookupJoinOperator.class.getSimpleName());
-        return new LookupJoinOperator(operatorContext, lookupSourceSupplier, probeTypes, enableOuterJoin, joinProbeFactory);
+        return new LookupJoinOperator(operatorContext, lookupSourceSupplier, probeTypes, enableOuterJoin, joinProbeFactory, probeHashGenerator);
     }
 
     @Override
     public void close()
     {
+        if (closed) {
+            return;
+        }
         closed = true;
+        lookupSourceSupplier.release();
     }
 }
@@ -23,4 +23,12 @@ public interface LookupSourceSupplier
     List<Type> getTypes();
 
     ListenableFuture<LookupSource> getLookupSource(OperatorContext operatorContext);
+
+    /**
+     * Registers a user of the lookup source. Resources shared by all users, such as
+     * spilled partitions, are released after every user has called {@link #release}.
+     */
+    void retain();
+
+    void release();
 }
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.ints.IntHeapPriorityQueue;
+
+import java.util.Iterator;
+import java.util.List;
+
+import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Merges runs of pages, each sorted on the same ordering, into a single sorted stream of pages.
+ * <p>
+ * The current page of every run is held in a small {@link PagesIndex} with one position per run,
+ * so rows are compared with the same compiled ordering that was used to sort the runs.
+ */
+public class MergingPageIterator
+        extends AbstractIterator<Page>
+{
+    private final List<Type> types;
+    private final List<Iterator<Page>> runs;
+    private final Page[] currentPages;
+    private final int[] currentPositions;
+    private final PagesIndex runHeads;
+    private final IntHeapPriorityQueue queue;
+    private final PageBuilder pageBuilder;
+
+    public MergingPageIterator(
+            List<Type> types,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            List<Iterator<Page>> runs,
+            OperatorContext operatorContext)
+    {
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        this.runs = ImmutableList.copyOf(checkNotNull(runs, "runs is null"));
+        checkNotNull(sortChannels, "sortChannels is null");
+        checkNotNull(sortOrders, "sortOrders is null");
+
+        ImmutableList.Builder<Type> sortTypes = ImmutableList.builder();
+        for (int channel : sortChannels) {
+            sortTypes.add(types.get(channel));
+        }
+
+        this.currentPages = new Page[this.runs.size()];
+        this.currentPositions = new int[this.runs.size()];
+
+        // position N of the index is the current row of run N, and block N of each channel is the current page of run N
+        this.runHeads = new PagesIndex(types, this.runs.size(), operatorContext);
+        for (int run = 0; run < this.runs.size(); run++) {
+            for (int channel = 0; channel < types.size(); channel++) {
+                runHeads.getChannel(channel).add(null);
+            }
+            runHeads.getValueAddresses().add(0);
+        }
+
+        this.queue = new IntHeapPriorityQueue(this.runs.size(), runHeads.createComparator(sortTypes.build(), sortChannels, sortOrders));
+        for (int run = 0; run < this.runs.size(); run++) {
+            if (advanceToNextPage(run)) {
+                queue.enqueue(run);
+            }
+        }
+
+        this.pageBuilder = new PageBuilder(this.types);
+    }
+
+    @Override
+    protected Page computeNext()
+    {
+        if (queue.isEmpty()) {
+            return endOfData();
+        }
+
+        pageBuilder.reset();
+        while (!pageBuilder.isFull() && !queue.isEmpty()) {
+            int run = queue.firstInt();
+
+            for (int channel = 0; channel < types.size(); channel++) {
+                runHeads.appendTo(channel, run, pageBuilder.getBlockBuilder(channel));
+            }
+
+            currentPositions[run]++;
+            if (currentPositions[run] < currentPages[run].getPositionCount()) {
+                runHeads.getValueAddresses().set(run, encodeSyntheticAddress(run, currentPositions[run]));
+                queue.changed();
+            }
+            else if (advanceToNextPage(run)) {
+                queue.changed();
+            }
+            else {
+                queue.dequeueInt();
+            }
+        }
+
+        return pageBuilder.build();
+    }
+
+    private boolean advanceToNextPage(int run)
+    {
+        Iterator<Page> pages = runs.get(run);
+        while (pages.hasNext()) {
+            Page page = pages.next();
+            if (page.getPositionCount() == 0) {
+                continue;
+            }
+
+            currentPages[run] = page;
+            currentPositions[run] = 0;
+            for (int channel = 0; channel < types.size(); channel++) {
+                Block block = page.getBlock(channel);
+                runHeads.getChannel(channel).set(run, block);
+            }
+            runHeads.getValueAddresses().set(run, encodeSyntheticAddress(run, 0));
+            return true;
+        }
+
+        // release the last page of the finished run
+        currentPages[run] = null;
+        for (int channel = 0; channel < types.size(); channel++) {
+            runHeads.getChannel(channel).set(run, null);
+        }
+        return false;
+    }
+}
@@ -75,6 +75,10 @@ public class OperatorContext
     private final AtomicLong memoryReservation = new AtomicLong();
     private final long maxMemoryReservation;
 
+    private final AtomicLong spilledDataSize = new AtomicLong();
+    private final AtomicLong prefetchedDataSize = new AtomicLong();
+    private final AtomicLong wastedPrefetchDataSize = new AtomicLong();
+
     private final AtomicReference<Supplier<Object>> infoSupplier = new AtomicReference<>();
     private final boolean collectTimings;
 
@@ -225,17 +229,49 @@ public class OperatorContext
     }
 
     public synchronized long setMemoryReservation(long newMemoryReservation)
+    {
+        if (!trySetMemoryReservation(newMemoryReservation)) {
+            throw new ExceededMemoryLimitException(getMaxMemorySize());
+        }
+
+        return newMemoryReservation;
+    }
+
+    public synchronized boolean trySetMemoryReservation(long newMemoryReservation)
     {
         checkArgument(newMemoryReservation >= 0, "newMemoryReservation is negative");
 
         long delta = newMemoryReservation - memoryReservation.get();
 
         // currently, operator memory is not be released
-        if (delta > 0 && !reserveMemory(delta)) {
-            throw new ExceededMemoryLimitException(getMaxMemorySize());
+        return delta <= 0 || reserveMemory(delta);
+    }
+
+    /**
+     * Lowers the memory reservation of the operator, returning the released memory to the task.
+     */
+    public synchronized void trimMemoryReservation(long newMemoryReservation)
+    {
+        checkArgument(newMemoryReservation >= 0, "newMemoryReservation is negative");
+
+        long delta = memoryReservation.get() - newMemoryReservation;
+        if (delta > 0) {
+            freeMemory(delta);
         }
+    }
 
-        return newMemoryReservation;
+    public void recordSpill(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        spilledDataSize.getAndAdd(bytes);
+    }
+
+    public void recordPrefetch(long prefetchedBytes, long wastedBytes)
+    {
+        checkArgument(prefetchedBytes >= 0, "prefetchedBytes is negative");
+        checkArgument(wastedBytes >= 0, "wastedBytes is negative");
+        prefetchedDataSize.getAndAdd(prefetchedBytes);
+        wastedPrefetchDataSize.getAndAdd(wastedBytes);
     }
 
     public void setInfoSupplier(Supplier<Object> infoSupplier)
@@ -298,6 +334,9 @@ public class OperatorContext
                 new Duration(finishUserNanos.get(), NANOSECONDS).convertToMostSuccinctTimeUnit(),
 
                 new DataSize(memoryReservation.get(), BYTE).convertToMostSuccinctDataSize(),
+                new DataSize(spilledDataSize.get(), BYTE).convertToMostSuccinctDataSize(),
+                new DataSize(prefetchedDataSize.get(), BYTE).convertToMostSuccinctDataSize(),
+                new DataSize(wastedPrefetchDataSize.get(), BYTE).convertToMostSuccinctDataSize(),
                 info);
     }
 
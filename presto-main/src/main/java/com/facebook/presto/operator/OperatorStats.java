@@ -55,6 +55,9 @@ public class OperatorStats
     private final Duration finishUser;
 
     private final DataSize memoryReservation;
+    private final DataSize spilledDataSize;
+    private final DataSize prefetchedDataSize;
+    private final DataSize wastedPrefetchDataSize;
 
     private final Object info;
 
@@ -85,6 +88,9 @@ public class OperatorStats
             @JsonProperty("finishUser") Duration finishUser,
 
             @JsonProperty("memoryReservation") DataSize memoryReservation,
+            @JsonProperty("spilledDataSize") DataSize spilledDataSize,
+            @JsonProperty("prefetchedDataSize") DataSize prefetchedDataSize,
+            @JsonProperty("wastedPrefetchDataSize") DataSize wastedPrefetchDataSize,
 
             @JsonProperty("info") Object info)
     {
@@ -116,6 +122,9 @@ public class OperatorStats
         this.finishUser = checkNotNull(finishUser, "finishUser is null");
 
         this.memoryReservation = checkNotNull(memoryReservation, "memoryReservation is null");
+        this.spilledDataSize = checkNotNull(spilledDataSize, "spilledDataSize is null");
+        this.prefetchedDataSize = checkNotNull(prefetchedDataSize, "prefetchedDataSize is null");
+        this.wastedPrefetchDataSize = checkNotNull(wastedPrefetchDataSize, "wastedPrefetchDataSize is null");
 
         this.info = info;
     }
@@ -240,6 +249,24 @@ public class OperatorStats
         return memoryReservation;
     }
 
+    @JsonProperty
+    public DataSize getSpilledDataSize()
+    {
+        return spilledDataSize;
+    }
+
+    @JsonProperty
+    public DataSize getPrefetchedDataSize()
+    {
+        return prefetchedDataSize;
+    }
+
+    @JsonProperty
+    public DataSize getWastedPrefetchDataSize()
+    {
+        return wastedPrefetchDataSize;
+    }
+
     @Nullable
     @JsonProperty
     public Object getInfo()
@@ -276,6 +303,9 @@ public class OperatorStats
         long finishUser = this.finishUser.roundTo(NANOSECONDS);
 
         long memoryReservation = this.memoryReservation.toBytes();
+        long spilledDataSize = this.spilledDataSize.toBytes();
+        long prefetchedDataSize = this.prefetchedDataSize.toBytes();
+        long wastedPrefetchDataSize = this.wastedPrefetchDataSize.toBytes();
 
         Mergeable<?> base = null;
         if (info instanceof Mergeable) {
@@ -306,6 +336,9 @@ public class OperatorStats
             blockedWall += operator.getBlockedWall().roundTo(NANOSECONDS);
 
             memoryReservation += operator.getMemoryReservation().toBytes();
+            spilledDataSize += operator.getSpilledDataSize().toBytes();
+            prefetchedDataSize += operator.getPrefetchedDataSize().toBytes();
+            wastedPrefetchDataSize += operator.getWastedPrefetchDataSize().toBytes();
 
             Object info = operator.getInfo();
             if (base != null && info != null && base.getClass() == info.getClass()) {
@@ -339,6 +372,9 @@ public class OperatorStats
                 new Duration(finishUser, NANOSECONDS).convertToMostSuccinctTimeUnit(),
 
                 new DataSize(memoryReservation, BYTE).convertToMostSuccinctDataSize(),
+                new DataSize(spilledDataSize, BYTE).convertToMostSuccinctDataSize(),
+                new DataSize(prefetchedDataSize, BYTE).convertToMostSuccinctDataSize(),
+                new DataSize(wastedPrefetchDataSize, BYTE).convertToMostSuccinctDataSize(),
 
                 base);
     }
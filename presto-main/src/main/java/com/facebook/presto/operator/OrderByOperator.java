@@ -15,19 +15,25 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.Closeable;
+import java.util.Iterator;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 public class OrderByOperator
-        implements Operator
+        implements Operator, Closeable
 {
     public static class OrderByOperatorFactory
             implements OperatorFactory
@@ -40,6 +46,7 @@ public class OrderByOperator
         private final List<Integer> sortChannels;
         private final List<SortOrder> sortOrder;
         private final List<Type> types;
+        private final Optional<SpillerFactory> spillerFactory;
         private boolean closed;
 
         public OrderByOperatorFactory(
@@ -48,7 +55,8 @@ public class OrderByOperator
                 List<Integer> outputChannels,
                 int expectedPositions,
                 List<Integer> sortChannels,
-                List<SortOrder> sortOrder)
+                List<SortOrder> sortOrder,
+                Optional<SpillerFactory> spillerFactory)
         {
             this.operatorId = operatorId;
             this.sourceTypes = ImmutableList.copyOf(checkNotNull(sourceTypes, "sourceTypes is null"));
@@ -61,6 +69,7 @@ public class OrderByOperator
             this.expectedPositions = expectedPositions;
             this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
             this.sortOrder = ImmutableList.copyOf(checkNotNull(sortOrder, "sortOrder is null"));
+            this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
 
             this.types = toTypes(sourceTypes, outputChannels);
         }
@@ -84,7 +93,8 @@ public class OrderByOperator
                     expectedPositions,
                     sortTypes,
                     sortChannels,
-                    sortOrder);
+                    sortOrder,
+                    spillerFactory);
         }
 
         @Override
@@ -102,6 +112,7 @@ public class OrderByOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final List<Type> sortTypes;
     private final List<Integer> sortChannels;
     private final List<SortOrder> sortOrder;
@@ -109,10 +120,15 @@ public class OrderByOperator
     private final List<Type> types;
 
     private final PagesIndex pageIndex;
+    private final Optional<SpillerFactory> spillerFactory;
 
     private final PageBuilder pageBuilder;
     private int currentPosition;
 
+    // sorted runs spilled to disk; absent until the first spill
+    private Optional<Spiller> spiller = Optional.absent();
+    private Iterator<Page> mergedPages;
+
     private State state = State.NEEDS_INPUT;
 
     public OrderByOperator(
@@ -122,14 +138,17 @@ public class OrderByOperator
             int expectedPositions,
             List<Type> sortTypes,
             List<Integer> sortChannels,
-            List<SortOrder> sortOrder)
+            List<SortOrder> sortOrder,
+            Optional<SpillerFactory> spillerFactory)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
+        this.sourceTypes = ImmutableList.copyOf(checkNotNull(sourceTypes, "sourceTypes is null"));
         this.outputChannels = Ints.toArray(checkNotNull(outputChannels, "outputChannels is null"));
         this.types = toTypes(sourceTypes, outputChannels);
         this.sortTypes = ImmutableList.copyOf(checkNotNull(sortTypes, "sortTypes is null"));
         this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
         this.sortOrder = ImmutableList.copyOf(checkNotNull(sortOrder, "sortOrder is null"));
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
 
         this.pageIndex = new PagesIndex(sourceTypes, expectedPositions, operatorContext);
 
@@ -156,6 +175,15 @@ public class OrderByOperator
 
             // sort the index
             pageIndex.sort(sortTypes, sortChannels, sortOrder);
+
+            if (spiller.isPresent()) {
+                // merge the spilled runs with the run still in memory
+                List<Iterator<Page>> runs = ImmutableList.<Iterator<Page>>builder()
+                        .addAll(spiller.get().getSpills())
+                        .add(pageIndex.getPages())
+                        .build();
+                mergedPages = new MergingPageIterator(sourceTypes, sortChannels, sortOrder, runs, operatorContext);
+            }
         }
     }
 
@@ -183,7 +211,26 @@ public class OrderByOperator
         checkState(state == State.NEEDS_INPUT, "Operator is already finishing");
         checkNotNull(page, "page is null");
 
-        pageIndex.addPage(page);
+        if (!spillerFactory.isPresent()) {
+            pageIndex.addPage(page);
+            return;
+        }
+
+        if (!pageIndex.tryAddPage(page)) {
+            spillSortedRun();
+        }
+    }
+
+    private void spillSortedRun()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.get().create());
+        }
+
+        pageIndex.sort(sortTypes, sortChannels, sortOrder);
+        long spilledBytes = spiller.get().spill(pageIndex.getPages());
+        operatorContext.recordSpill(spilledBytes);
+        pageIndex.clear();
     }
 
     @Override
@@ -193,6 +240,21 @@ public class OrderByOperator
             return null;
         }
 
+        if (mergedPages != null) {
+            if (!mergedPages.hasNext()) {
+                state = State.FINISHED;
+                close();
+                return null;
+            }
+
+            Page page = mergedPages.next();
+            Block[] blocks = new Block[outputChannels.length];
+            for (int i = 0; i < outputChannels.length; i++) {
+                blocks[i] = page.getBlock(outputChannels[i]);
+            }
+            return new Page(page.getPositionCount(), blocks);
+        }
+
         if (currentPosition >= pageIndex.getPositionCount()) {
             state = State.FINISHED;
             return null;
@@ -212,6 +274,14 @@ public class OrderByOperator
         return page;
     }
 
+    @Override
+    public void close()
+    {
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.InsertTableHandle;
+import com.facebook.presto.metadata.OutputTableHandle;
+import com.facebook.presto.spi.ConnectorPageSink;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
+import com.facebook.presto.spi.ConnectorRecordSinkProvider;
+import com.facebook.presto.spi.RecordPageSink;
+import com.facebook.presto.spi.type.Type;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Creates the page sinks of connectors. Connectors that only write records are
+ * wrapped in a {@link RecordPageSink}.
+ */
+public class PageSinkManager
+        implements PageSinkProvider
+{
+    private final ConcurrentMap<String, ConnectorPageSinkProvider> pageSinkProviders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConnectorRecordSinkProvider> recordSinkProviders = new ConcurrentHashMap<>();
+
+    public void addConnectorPageSinkProvider(String connectorId, ConnectorPageSinkProvider pageSinkProvider)
+    {
+        checkArgument(!recordSinkProviders.containsKey(connectorId), "Record sink provider already registered for connector '%s'", connectorId);
+        ConnectorPageSinkProvider previous = pageSinkProviders.putIfAbsent(connectorId, pageSinkProvider);
+        checkArgument(previous == null, "Page sink provider already registered for connector '%s'", connectorId);
+    }
+
+    public void addConnectorRecordSinkProvider(String connectorId, ConnectorRecordSinkProvider recordSinkProvider)
+    {
+        checkArgument(!pageSinkProviders.containsKey(connectorId), "Page sink provider already registered for connector '%s'", connectorId);
+        ConnectorRecordSinkProvider previous = recordSinkProviders.putIfAbsent(connectorId, recordSinkProvider);
+        checkArgument(previous == null, "Record sink provider already registered for connector '%s'", connectorId);
+    }
+
+    @Override
+    public ConnectorPageSink createPageSink(OutputTableHandle tableHandle, List<Type> types)
+    {
+        String connectorId = tableHandle.getConnectorId();
+        ConnectorPageSinkProvider pageSinkProvider = pageSinkProviders.get(connectorId);
+        if (pageSinkProvider != null) {
+            return pageSinkProvider.createPageSink(tableHandle.getConnectorHandle());
+        }
+        return new RecordPageSink(recordSinkProviderFor(connectorId).getRecordSink(tableHandle.getConnectorHandle()), types);
+    }
+
+    @Override
+    public ConnectorPageSink createPageSink(InsertTableHandle tableHandle, List<Type> types)
+    {
+        String connectorId = tableHandle.getConnectorId();
+        ConnectorPageSinkProvider pageSinkProvider = pageSinkProviders.get(connectorId);
+        if (pageSinkProvider != null) {
+            return pageSinkProvider.createPageSink(tableHandle.getConnectorHandle());
+        }
+        return new RecordPageSink(recordSinkProviderFor(connectorId).getRecordSink(tableHandle.getConnectorHandle()), types);
+    }
+
+    private ConnectorRecordSinkProvider recordSinkProviderFor(String connectorId)
+    {
+        ConnectorRecordSinkProvider provider = recordSinkProviders.get(connectorId);
+        checkArgument(provider != null, "No page sink provider for connector '%s'", connectorId);
+        return provider;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.InsertTableHandle;
+import com.facebook.presto.metadata.OutputTableHandle;
+import com.facebook.presto.spi.ConnectorPageSink;
+import com.facebook.presto.spi.type.Type;
+
+import java.util.List;
+
+public interface PageSinkProvider
+{
+    /**
+     * @param types the types of the columns of the pages written to the sink
+     */
+    ConnectorPageSink createPageSink(OutputTableHandle tableHandle, List<Type> types);
+
+    /**
+     * @param types the types of the columns of the pages written to the sink
+     */
+    ConnectorPageSink createPageSink(InsertTableHandle tableHandle, List<Type> types);
+}
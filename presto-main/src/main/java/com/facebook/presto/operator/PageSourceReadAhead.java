@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ReadAheadPageSource;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Lets a driver wait for a {@link ReadAheadPageSource} without holding its thread,
+ * and records the bytes the page source read ahead in the operator stats.
+ */
+final class PageSourceReadAhead
+{
+    private final OperatorContext operatorContext;
+
+    private ListenableFuture<?> blocked = NOT_BLOCKED;
+    private long prefetchedBytes;
+    private long wastedPrefetchBytes;
+
+    public PageSourceReadAhead(OperatorContext operatorContext)
+    {
+        this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
+    }
+
+    public ListenableFuture<?> isBlocked(ConnectorPageSource pageSource)
+    {
+        if (!(pageSource instanceof ReadAheadPageSource)) {
+            return NOT_BLOCKED;
+        }
+        if (!blocked.isDone()) {
+            return blocked;
+        }
+
+        final SettableFuture<?> future = SettableFuture.create();
+        boolean ready = ((ReadAheadPageSource) pageSource).isReady(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                future.set(null);
+            }
+        });
+        if (ready) {
+            return NOT_BLOCKED;
+        }
+        blocked = future;
+        return future;
+    }
+
+    public void recordStats(ConnectorPageSource pageSource)
+    {
+        if (!(pageSource instanceof ReadAheadPageSource)) {
+            return;
+        }
+        ReadAheadPageSource readAheadPageSource = (ReadAheadPageSource) pageSource;
+
+        long endPrefetchedBytes = readAheadPageSource.getPrefetchedBytes();
+        long endWastedPrefetchBytes = readAheadPageSource.getWastedPrefetchBytes();
+        operatorContext.recordPrefetch(endPrefetchedBytes - prefetchedBytes, endWastedPrefetchBytes - wastedPrefetchBytes);
+        prefetchedBytes = endPrefetchedBytes;
+        wastedPrefetchBytes = endWastedPrefetchBytes;
+    }
+}
@@ -22,6 +22,7 @@ import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.OrderingCompiler;
 import com.google.common.base.Optional;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -33,12 +34,14 @@ import it.unimi.dsi.fastutil.ints.IntComparator;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
 import static com.facebook.presto.sql.gen.JoinCompiler.LookupSourceFactory;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static io.airlift.slice.SizeOf.sizeOf;
 
@@ -105,6 +108,61 @@ public class PagesIndex
     }
 
     public void addPage(Page page)
+    {
+        appendPage(page);
+        estimatedSize = operatorContext.setMemoryReservation(calculateEstimatedSize());
+    }
+
+    /**
+     * Adds the pages of the other index to this index. The blocks are shared, not copied.
+     */
+    public void addPagesIndex(PagesIndex other)
+    {
+        checkNotNull(other, "other is null");
+        checkArgument(types.equals(other.types), "Index types %s do not match %s", other.types, types);
+
+        for (int pageIndex = 0; pageIndex < other.channels[0].size(); pageIndex++) {
+            Block[] blocks = new Block[channels.length];
+            for (int channel = 0; channel < channels.length; channel++) {
+                blocks[channel] = other.channels[channel].get(pageIndex);
+            }
+            appendPage(new Page(blocks));
+        }
+        estimatedSize = operatorContext.setMemoryReservation(calculateEstimatedSize());
+    }
+
+    /**
+     * Adds the page to the index and returns false if the memory for the index could not be reserved.
+     * The page is added in either case, so the caller can spill the contents of the index and {@link #clear} it.
+     */
+    public boolean tryAddPage(Page page)
+    {
+        appendPage(page);
+
+        long newEstimatedSize = calculateEstimatedSize();
+        if (!operatorContext.trySetMemoryReservation(newEstimatedSize)) {
+            return false;
+        }
+        estimatedSize = newEstimatedSize;
+        return true;
+    }
+
+    /**
+     * Removes all pages from the index. The memory reservation is not released,
+     * so the operator can refill the index up to the same size.
+     */
+    public void clear()
+    {
+        for (ObjectArrayList<Block> channel : channels) {
+            channel.clear();
+        }
+        valueAddresses.clear();
+        positionCount = 0;
+        pagesMemorySize = 0;
+        estimatedSize = calculateEstimatedSize();
+    }
+
+    private void appendPage(Page page)
     {
         positionCount += page.getPositionCount();
 
@@ -119,8 +177,6 @@ public class PagesIndex
             long sliceAddress = encodeSyntheticAddress(pageIndex, position);
             valueAddresses.add(sliceAddress);
         }
-
-        estimatedSize = operatorContext.setMemoryReservation(calculateEstimatedSize());
     }
 
     public DataSize getEstimatedSize()
@@ -170,6 +226,44 @@ public class PagesIndex
         return position;
     }
 
+    /**
+     * Returns the rows of the index in index order, with all channels.
+     */
+    public Iterator<Page> getPages()
+    {
+        return getPages(0);
+    }
+
+    /**
+     * Returns the rows of the index starting at the specified position, with all channels.
+     * The rows are copied, so the pages remain valid after the index is cleared.
+     */
+    public Iterator<Page> getPages(final int startPosition)
+    {
+        final int[] allChannels = new int[types.size()];
+        for (int i = 0; i < allChannels.length; i++) {
+            allChannels[i] = i;
+        }
+
+        return new AbstractIterator<Page>()
+        {
+            private final PageBuilder pageBuilder = new PageBuilder(types);
+            private int currentPosition = startPosition;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (currentPosition >= positionCount) {
+                    return endOfData();
+                }
+
+                pageBuilder.reset();
+                currentPosition = buildPage(currentPosition, allChannels, pageBuilder);
+                return pageBuilder.build();
+            }
+        };
+    }
+
     public void appendTo(int channel, int position, BlockBuilder output)
     {
         long pageAddress = valueAddresses.getLong(position);
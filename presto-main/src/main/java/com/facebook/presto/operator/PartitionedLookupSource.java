@@ -0,0 +1,277 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.operator.HashPartitions.getSpillPartition;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Lookup source for a build side that was hash partitioned, with the partitions at or above
+ * {@code spilledPartitionStart} spilled to disk. Lookups are answered from the partitions held in
+ * memory, so probe rows that belong to a spilled partition must be set aside and joined against
+ * the partition acquired with {@link #acquireSpilledPartition}. A spilled partition is read from
+ * disk once and shared by all probe operators that join against it at the same time.
+ * <p>
+ * A single instance is shared by all probe operators, so {@link #close} does nothing. The spill
+ * files are released by the {@link SettableLookupSourceSupplier} once no operator uses them.
+ */
+@ThreadSafe
+public final class PartitionedLookupSource
+        implements LookupSource
+{
+    private final LookupSource inMemoryLookupSource;
+    private final int partitionCount;
+    private final int spilledPartitionStart;
+    private final List<Spiller> spillers;
+    private final List<Type> types;
+    private final List<Integer> hashChannels;
+    private final Optional<Integer> hashChannel;
+    private final SpillerFactory spillerFactory;
+
+    @GuardedBy("this")
+    private final Map<Integer, LoadedPartition> loadedPartitions = new HashMap<>();
+
+    public PartitionedLookupSource(
+            LookupSource inMemoryLookupSource,
+            int spilledPartitionStart,
+            List<Spiller> spillers,
+            List<Type> types,
+            List<Integer> hashChannels,
+            Optional<Integer> hashChannel,
+            SpillerFactory spillerFactory)
+    {
+        this.inMemoryLookupSource = checkNotNull(inMemoryLookupSource, "inMemoryLookupSource is null");
+        this.spillers = ImmutableList.copyOf(checkNotNull(spillers, "spillers is null"));
+        this.partitionCount = this.spillers.size();
+        this.spilledPartitionStart = checkPositionIndex(spilledPartitionStart, partitionCount, "spilledPartitionStart");
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        this.hashChannels = ImmutableList.copyOf(checkNotNull(hashChannels, "hashChannels is null"));
+        this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+    }
+
+    public int getPartitionCount()
+    {
+        return partitionCount;
+    }
+
+    public int getPartition(int rawHash)
+    {
+        return getSpillPartition(rawHash, partitionCount);
+    }
+
+    public boolean isSpilled(int partition)
+    {
+        return partition >= spilledPartitionStart;
+    }
+
+    /**
+     * Creates a spiller for the probe rows of a spilled partition.
+     */
+    public Spiller createProbeSpiller()
+    {
+        return spillerFactory.create();
+    }
+
+    /**
+     * Returns the build rows of a spilled partition. The first operator to acquire the partition reads
+     * it from disk, and the operators that acquire it while it is loaded share it. Every call must be
+     * followed by {@link #releaseSpilledPartition} once the operator has joined the partition.
+     * <p>
+     * The memory of the partition is reserved once for the task, and freed when the last operator
+     * releases the partition.
+     */
+    public ListenableFuture<LookupSource> acquireSpilledPartition(int partition, OperatorContext operatorContext)
+    {
+        checkArgument(isSpilled(partition), "partition %s is not spilled", partition);
+        checkNotNull(operatorContext, "operatorContext is null");
+
+        LoadedPartition loadedPartition;
+        boolean load = false;
+        synchronized (this) {
+            loadedPartition = loadedPartitions.get(partition);
+            if (loadedPartition == null) {
+                loadedPartition = new LoadedPartition(operatorContext.getDriverContext().getPipelineContext().getTaskContext());
+                loadedPartitions.put(partition, loadedPartition);
+                load = true;
+            }
+            loadedPartition.retain();
+        }
+
+        if (load) {
+            loadedPartition.load(partition, operatorContext);
+        }
+        return loadedPartition.getLookupSource();
+    }
+
+    public void releaseSpilledPartition(int partition)
+    {
+        LoadedPartition loadedPartition;
+        synchronized (this) {
+            loadedPartition = loadedPartitions.get(partition);
+            checkState(loadedPartition != null, "partition %s is not acquired", partition);
+            if (!loadedPartition.release()) {
+                return;
+            }
+            loadedPartitions.remove(partition);
+        }
+        loadedPartition.freeMemory();
+    }
+
+    private Iterator<Page> readSpilledPartition(int partition)
+    {
+        // the spiller is not thread safe, but the returned iterators read the spill file through their own channels
+        Spiller spiller = spillers.get(partition);
+        synchronized (spiller) {
+            return Iterators.concat(spiller.getSpills().iterator());
+        }
+    }
+
+    private class LoadedPartition
+    {
+        private final TaskContext taskContext;
+        private final SettableFuture<LookupSource> lookupSource = SettableFuture.create();
+
+        @GuardedBy("PartitionedLookupSource.this")
+        private int referenceCount;
+        private volatile long reservedBytes;
+
+        private LoadedPartition(TaskContext taskContext)
+        {
+            this.taskContext = taskContext;
+        }
+
+        public ListenableFuture<LookupSource> getLookupSource()
+        {
+            return lookupSource;
+        }
+
+        @GuardedBy("PartitionedLookupSource.this")
+        public void retain()
+        {
+            referenceCount++;
+        }
+
+        /**
+         * @return true if the partition is no longer used
+         */
+        @GuardedBy("PartitionedLookupSource.this")
+        public boolean release()
+        {
+            checkState(referenceCount > 0, "Partition is not acquired");
+            referenceCount--;
+            return referenceCount == 0;
+        }
+
+        public void load(int partition, OperatorContext operatorContext)
+        {
+            try {
+                PagesIndex pagesIndex = new PagesIndex(types, 10_000, operatorContext);
+                Iterator<Page> pages = readSpilledPartition(partition);
+                while (pages.hasNext()) {
+                    pagesIndex.addPage(pages.next());
+                }
+                LookupSource lookupSource = pagesIndex.createLookupSource(hashChannels, hashChannel);
+
+                // the partition outlives the use by the loading operator, so its memory moves to the task
+                long bytes = pagesIndex.getEstimatedSize().toBytes();
+                operatorContext.trimMemoryReservation(0);
+                if (!taskContext.reserveMemory(bytes)) {
+                    throw new ExceededMemoryLimitException(taskContext.getMaxMemorySize());
+                }
+                reservedBytes = bytes;
+                this.lookupSource.set(lookupSource);
+            }
+            catch (Throwable e) {
+                // the operators waiting for the partition fail as well
+                this.lookupSource.setException(e);
+                throw Throwables.propagate(e);
+            }
+        }
+
+        public void freeMemory()
+        {
+            taskContext.freeMemory(reservedBytes);
+            reservedBytes = 0;
+        }
+    }
+
+    void releaseSpilledPartitions()
+    {
+        for (Spiller spiller : spillers) {
+            synchronized (spiller) {
+                spiller.close();
+            }
+        }
+    }
+
+    @Override
+    public int getChannelCount()
+    {
+        return inMemoryLookupSource.getChannelCount();
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page page, int rawHash)
+    {
+        return inMemoryLookupSource.getJoinPosition(position, page, rawHash);
+    }
+
+    @Override
+    public long getJoinPosition(int position, Page page)
+    {
+        return inMemoryLookupSource.getJoinPosition(position, page);
+    }
+
+    @Override
+    public long getNextJoinPosition(long currentPosition)
+    {
+        return inMemoryLookupSource.getNextJoinPosition(currentPosition);
+    }
+
+    @Override
+    public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        inMemoryLookupSource.appendTo(position, pageBuilder, outputChannelOffset);
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.SharedBuffer;
+import com.facebook.presto.execution.SplitOutput;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.HashPagePartitionFunction.createHashGenerator;
+import static com.facebook.presto.HashPagePartitionFunction.getPartitionHashBucket;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Splits the output of a hash partitioned task by destination. Every row is hashed once, when it
+ * is produced, and copied into the page of its partition, instead of every consumer scanning all
+ * pages when they are read from the buffer.
+ */
+public class PartitionedOutputOperator
+        implements Operator
+{
+    public static class PartitionedOutputFactory
+            implements OutputFactory
+    {
+        private final SharedBuffer sharedBuffer;
+        private final List<Integer> partitionChannels;
+        private final Optional<Integer> hashChannel;
+
+        public PartitionedOutputFactory(SharedBuffer sharedBuffer, List<Integer> partitionChannels, Optional<Integer> hashChannel)
+        {
+            this.sharedBuffer = checkNotNull(sharedBuffer, "sharedBuffer is null");
+            this.partitionChannels = ImmutableList.copyOf(checkNotNull(partitionChannels, "partitionChannels is null"));
+            this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
+        }
+
+        @Override
+        public OperatorFactory createOutputOperator(int operatorId, List<Type> sourceTypes)
+        {
+            return new PartitionedOutputOperatorFactory(operatorId, sourceTypes, partitionChannels, hashChannel, sharedBuffer);
+        }
+    }
+
+    public static class PartitionedOutputOperatorFactory
+            implements OperatorFactory
+    {
+        private final int operatorId;
+        private final List<Type> sourceTypes;
+        private final List<Integer> partitionChannels;
+        private final Optional<Integer> hashChannel;
+        private final SharedBuffer sharedBuffer;
+
+        public PartitionedOutputOperatorFactory(int operatorId, List<Type> sourceTypes, List<Integer> partitionChannels, Optional<Integer> hashChannel, SharedBuffer sharedBuffer)
+        {
+            this.operatorId = operatorId;
+            this.sourceTypes = ImmutableList.copyOf(checkNotNull(sourceTypes, "sourceTypes is null"));
+            this.partitionChannels = ImmutableList.copyOf(checkNotNull(partitionChannels, "partitionChannels is null"));
+            this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
+            this.sharedBuffer = checkNotNull(sharedBuffer, "sharedBuffer is null");
+        }
+
+        @Override
+        public List<Type> getTypes()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Operator createOperator(DriverContext driverContext)
+        {
+            OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, PartitionedOutputOperator.class.getSimpleName());
+            return new PartitionedOutputOperator(operatorContext, sourceTypes, createHashGenerator(hashChannel, partitionChannels, sourceTypes), sharedBuffer);
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
+    private final HashGenerator hashGenerator;
+    private final SharedBuffer sharedBuffer;
+    private final ListenableFuture<Integer> partitionCount;
+    private final Optional<SplitOutput> splitOutput;
+
+    private PageBuilder[] pageBuilders;
+    private ListenableFuture<?> blocked = NOT_BLOCKED;
+    private boolean finished;
+
+    public PartitionedOutputOperator(OperatorContext operatorContext, List<Type> sourceTypes, HashGenerator hashGenerator, SharedBuffer sharedBuffer)
+    {
+        this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
+        this.sourceTypes = ImmutableList.copyOf(checkNotNull(sourceTypes, "sourceTypes is null"));
+        this.hashGenerator = checkNotNull(hashGenerator, "hashGenerator is null");
+        this.sharedBuffer = checkNotNull(sharedBuffer, "sharedBuffer is null");
+        this.partitionCount = sharedBuffer.getPartitionCount();
+        this.splitOutput = operatorContext.getDriverContext().getSplitOutput();
+    }
+
+    @Override
+    public OperatorContext getOperatorContext()
+    {
+        return operatorContext;
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return ImmutableList.of();
+    }
+
+    @Override
+    public void finish()
+    {
+        if (finished) {
+            return;
+        }
+        finished = true;
+
+        // no input is accepted before the partitions are known
+        if (pageBuilders != null) {
+            flush(true);
+        }
+
+        // staged output is released once the whole split has been processed
+        if (splitOutput.isPresent()) {
+            blocked = splitOutput.get().finish();
+        }
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        if (splitOutput.isPresent()) {
+            // the output of an aborted split is discarded, so there is no reason to keep processing it
+            if (splitOutput.get().isAborted() || (finished && blocked.isDone())) {
+                operatorContext.trimMemoryReservation(0);
+                return true;
+            }
+            return false;
+        }
+
+        // nothing was buffered if the partitions were never needed
+        return finished && (pageBuilders == null || isBlocked().isDone());
+    }
+
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        // the rows can not be partitioned until the consumers are known
+        if (!partitionCount.isDone()) {
+            return partitionCount;
+        }
+        if (blocked != NOT_BLOCKED && blocked.isDone()) {
+            blocked = NOT_BLOCKED;
+        }
+        return blocked;
+    }
+
+    @Override
+    public boolean needsInput()
+    {
+        return !finished && isBlocked() == NOT_BLOCKED;
+    }
+
+    @Override
+    public void addInput(Page page)
+    {
+        checkNotNull(page, "page is null");
+        checkState(isBlocked() == NOT_BLOCKED, "output is already blocked");
+
+        PageBuilder[] pageBuilders = getPageBuilders();
+
+        // the buffer was destroyed before the consumers were known
+        if (pageBuilders.length == 0) {
+            return;
+        }
+
+        // all rows of the page belong to the same partition
+        if (hashGenerator.isConstantHash(page)) {
+            int partition = getPartitionHashBucket(hashGenerator.hashPosition(0, page), pageBuilders.length);
+            updateBlocked(ImmutableList.<ListenableFuture<?>>of(enqueue(partition, page)));
+            return;
+        }
+
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            PageBuilder pageBuilder = pageBuilders[getPartitionHashBucket(hashGenerator.hashPosition(position, page), pageBuilders.length)];
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < sourceTypes.size(); channel++) {
+                sourceTypes.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+        }
+
+        flush(false);
+    }
+
+    @Override
+    public Page getOutput()
+    {
+        return null;
+    }
+
+    private PageBuilder[] getPageBuilders()
+    {
+        if (pageBuilders == null) {
+            int partitions = Futures.getUnchecked(partitionCount);
+            pageBuilders = new PageBuilder[partitions];
+            for (int partition = 0; partition < partitions; partition++) {
+                pageBuilders[partition] = new PageBuilder(sourceTypes);
+            }
+        }
+        return pageBuilders;
+    }
+
+    private void flush(boolean force)
+    {
+        List<ListenableFuture<?>> futures = new ArrayList<>();
+        for (int partition = 0; partition < pageBuilders.length; partition++) {
+            PageBuilder pageBuilder = pageBuilders[partition];
+            if (!pageBuilder.isEmpty() && (force || pageBuilder.isFull())) {
+                Page page = pageBuilder.build();
+                pageBuilder.reset();
+                futures.add(enqueue(partition, page));
+            }
+        }
+        updateBlocked(futures);
+    }
+
+    private ListenableFuture<?> enqueue(int partition, Page page)
+    {
+        operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
+        if (splitOutput.isPresent()) {
+            ListenableFuture<?> future = splitOutput.get().enqueue(partition, page);
+            // the staged output is released when the split outgrows it and publishes early
+            long stagedBytes = splitOutput.get().getStagedBytes();
+            operatorContext.setMemoryReservation(stagedBytes);
+            operatorContext.trimMemoryReservation(stagedBytes);
+            return future;
+        }
+        return sharedBuffer.enqueue(partition, page);
+    }
+
+    private void updateBlocked(List<ListenableFuture<?>> futures)
+    {
+        List<ListenableFuture<?>> pending = new ArrayList<>();
+        for (ListenableFuture<?> future : futures) {
+            if (!future.isDone()) {
+                pending.add(future);
+            }
+        }
+        if (!pending.isEmpty()) {
+            blocked = Futures.allAsList(pending);
+        }
+    }
+}
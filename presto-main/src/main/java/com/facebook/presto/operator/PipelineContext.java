@@ -56,6 +56,8 @@ public class PipelineContext
     private final List<DriverContext> drivers = new CopyOnWriteArrayList<>();
 
     private final AtomicInteger completedDrivers = new AtomicInteger();
+    private final AtomicInteger completedPartitionedDrivers = new AtomicInteger();
+    private final AtomicLong completedPartitionedDriverNanos = new AtomicLong();
 
     private final AtomicLong memoryReservation = new AtomicLong();
 
@@ -134,6 +136,10 @@ public class PipelineContext
         DriverStats driverStats = driverContext.getDriverStats();
 
         completedDrivers.getAndIncrement();
+        if (driverContext.isPartitioned() && driverContext.isStarted()) {
+            completedPartitionedDrivers.getAndIncrement();
+            completedPartitionedDriverNanos.getAndAdd(driverContext.getElapsedTimeSinceStart().roundTo(NANOSECONDS));
+        }
 
         // remove the memory reservation
         freeMemory(driverStats.getMemoryReservation().toBytes());
@@ -226,6 +232,41 @@ public class PipelineContext
         return taskContext.isCpuTimerEnabled();
     }
 
+    public int getQueuedPartitionedDrivers()
+    {
+        int queuedPartitionedDrivers = 0;
+        for (DriverContext driver : drivers) {
+            if (driver.isPartitioned() && !driver.isStarted()) {
+                queuedPartitionedDrivers++;
+            }
+        }
+        return queuedPartitionedDrivers;
+    }
+
+    public int getRunningPartitionedDrivers()
+    {
+        int runningPartitionedDrivers = 0;
+        for (DriverContext driver : drivers) {
+            if (driver.isPartitioned() && driver.isStarted()) {
+                runningPartitionedDrivers++;
+            }
+        }
+        return runningPartitionedDrivers;
+    }
+
+    public int getCompletedPartitionedDrivers()
+    {
+        return completedPartitionedDrivers.get();
+    }
+
+    /**
+     * Total running time of the completed partitioned drivers.
+     */
+    public long getCompletedPartitionedDriverNanos()
+    {
+        return completedPartitionedDriverNanos.get();
+    }
+
     public CounterStat getInputDataSize()
     {
         CounterStat stat = new CounterStat();
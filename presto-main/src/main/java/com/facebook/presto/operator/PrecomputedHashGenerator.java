@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.spi.type.BigintType;
 import com.google.common.base.MoreObjects;
 
@@ -33,6 +34,12 @@ public class PrecomputedHashGenerator
         return (int) BigintType.BIGINT.getLong(page.getBlock(hashChannel), position);
     }
 
+    @Override
+    public boolean isConstantHash(Page page)
+    {
+        return page.getBlock(hashChannel) instanceof RunLengthEncodedBlock;
+    }
+
     @Override
     public String toString()
     {
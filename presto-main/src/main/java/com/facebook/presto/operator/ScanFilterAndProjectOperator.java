@@ -20,12 +20,14 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.RecordCursor;
 import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import javax.annotation.concurrent.GuardedBy;
@@ -50,6 +52,12 @@ public class ScanFilterAndProjectOperator
     private final PageBuilder pageBuilder;
     private final CursorProcessor cursorProcessor;
     private final PageProcessor pageProcessor;
+    private final ListenableFuture<TupleDomain<ColumnHandle>> dynamicFilter;
+    private final PageSourceReadAhead readAhead;
+
+    // split waiting for the dynamic filter before its page source is created
+    @GuardedBy("this")
+    private Split pendingSplit;
 
     @GuardedBy("this")
     private RecordCursor cursor;
@@ -72,7 +80,8 @@ public class ScanFilterAndProjectOperator
             CursorProcessor cursorProcessor,
             PageProcessor pageProcessor,
             Iterable<ColumnHandle> columns,
-            Iterable<Type> types)
+            Iterable<Type> types,
+            ListenableFuture<TupleDomain<ColumnHandle>> dynamicFilter)
     {
         this.cursorProcessor = checkNotNull(cursorProcessor, "cursorProcessor is null");
         this.pageProcessor = checkNotNull(pageProcessor, "pageProcessor is null");
@@ -81,6 +90,8 @@ public class ScanFilterAndProjectOperator
         this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceManager is null");
         this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
         this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
+        this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
+        this.readAhead = new PageSourceReadAhead(operatorContext);
 
         this.pageBuilder = new PageBuilder(getTypes());
     }
@@ -101,26 +112,37 @@ public class ScanFilterAndProjectOperator
     public synchronized void addSplit(Split split)
     {
         checkNotNull(split, "split is null");
-        checkState(cursor == null && pageSource == null, "split already set");
+        checkState(cursor == null && pageSource == null && pendingSplit == null, "split already set");
+
+        Object splitInfo = split.getInfo();
+        if (splitInfo != null) {
+            operatorContext.setInfoSupplier(Suppliers.ofInstance(splitInfo));
+        }
 
-        ConnectorPageSource pageSource = pageSourceProvider.createPageSource(split, columns);
+        pendingSplit = split;
+        createPageSourceIfFilterReady();
+    }
+
+    private synchronized void createPageSourceIfFilterReady()
+    {
+        if (pendingSplit == null || !dynamicFilter.isDone() || finishing) {
+            return;
+        }
+
+        ConnectorPageSource pageSource = pageSourceProvider.createPageSource(pendingSplit, columns, Futures.getUnchecked(dynamicFilter));
         if (pageSource instanceof RecordPageSource) {
             cursor = ((RecordPageSource) pageSource).getCursor();
         }
         else {
             this.pageSource = pageSource;
         }
-
-        Object splitInfo = split.getInfo();
-        if (splitInfo != null) {
-            operatorContext.setInfoSupplier(Suppliers.ofInstance(splitInfo));
-        }
+        pendingSplit = null;
     }
 
     @Override
     public synchronized void noMoreSplits()
     {
-        if (cursor == null && pageSource == null) {
+        if (cursor == null && pageSource == null && pendingSplit == null) {
             finishing = true;
         }
     }
@@ -147,6 +169,7 @@ public class ScanFilterAndProjectOperator
             catch (IOException e) {
                 throw Throwables.propagate(e);
             }
+            readAhead.recordStats(pageSource);
         }
         else if (cursor != null) {
             cursor.close();
@@ -165,8 +188,14 @@ public class ScanFilterAndProjectOperator
     }
 
     @Override
-    public ListenableFuture<?> isBlocked()
+    public synchronized ListenableFuture<?> isBlocked()
     {
+        if (pendingSplit != null && !finishing) {
+            return dynamicFilter;
+        }
+        if (pageSource != null && currentPage == null && !finishing) {
+            return readAhead.isBlocked(pageSource);
+        }
         return NOT_BLOCKED;
     }
 
@@ -185,7 +214,8 @@ public class ScanFilterAndProjectOperator
     @Override
     public Page getOutput()
     {
-        if (!finishing) {
+        createPageSourceIfFilterReady();
+        if (!finishing && (cursor != null || pageSource != null)) {
             if (cursor != null) {
                 int rowsProcessed = cursorProcessor.process(operatorContext.getSession().toConnectorSession(), cursor, ROWS_PER_PAGE, pageBuilder);
                 long bytesProcessed = cursor.getCompletedBytes() - completedBytes;
@@ -210,6 +240,7 @@ public class ScanFilterAndProjectOperator
                         completedBytes = endCompletedBytes;
                         readTimeNanos = endReadTimeNanos;
                     }
+                    readAhead.recordStats(pageSource);
 
                     currentPosition = 0;
                 }
@@ -244,6 +275,7 @@ public class ScanFilterAndProjectOperator
         private final PageSourceProvider pageSourceProvider;
         private final List<ColumnHandle> columns;
         private final List<Type> types;
+        private final ListenableFuture<TupleDomain<ColumnHandle>> dynamicFilter;
         private boolean closed;
 
         public ScanFilterAndProjectOperatorFactory(
@@ -254,6 +286,22 @@ public class ScanFilterAndProjectOperator
                 PageProcessor pageProcessor,
                 Iterable<ColumnHandle> columns,
                 List<Type> types)
+        {
+            this(operatorId, sourceId, pageSourceProvider, cursorProcessor, pageProcessor, columns, types, ImmutableList.<DynamicFilter>of());
+        }
+
+        /**
+         * Creates a factory for operators that wait for the specified dynamic filters before reading a split.
+         */
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                CursorProcessor cursorProcessor,
+                PageProcessor pageProcessor,
+                Iterable<ColumnHandle> columns,
+                List<Type> types,
+                List<DynamicFilter> dynamicFilters)
         {
             this.operatorId = operatorId;
             this.cursorProcessor = checkNotNull(cursorProcessor, "cursorProcessor is null");
@@ -262,6 +310,7 @@ public class ScanFilterAndProjectOperator
             this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceProvider is null");
             this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
             this.types = checkNotNull(types, "types is null");
+            this.dynamicFilter = DynamicFilter.intersect(checkNotNull(dynamicFilters, "dynamicFilters is null"));
         }
 
         @Override
@@ -288,7 +337,8 @@ public class ScanFilterAndProjectOperator
                     cursorProcessor,
                     pageProcessor,
                     columns,
-                    types);
+                    types,
+                    dynamicFilter);
         }
 
         @Override
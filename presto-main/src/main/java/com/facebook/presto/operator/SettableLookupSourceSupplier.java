@@ -18,6 +18,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
+import javax.annotation.concurrent.GuardedBy;
+
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -29,6 +31,13 @@ public final class SettableLookupSourceSupplier
     private final List<Type> types;
     private final SettableFuture<LookupSource> lookupSourceFuture = SettableFuture.create();
 
+    @GuardedBy("this")
+    private LookupSource lookupSource;
+    @GuardedBy("this")
+    private int referenceCount;
+    @GuardedBy("this")
+    private boolean released;
+
     public SettableLookupSourceSupplier(List<Type> types)
     {
         this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
@@ -49,7 +58,40 @@ public final class SettableLookupSourceSupplier
     public void setLookupSource(LookupSource lookupSource)
     {
         checkNotNull(lookupSource, "lookupSource is null");
+        synchronized (this) {
+            this.lookupSource = lookupSource;
+            if (released) {
+                // every user is already gone
+                releaseLookupSource();
+            }
+        }
         boolean wasSet = lookupSourceFuture.set(lookupSource);
         checkState(wasSet, "Lookup source already set");
     }
+
+    @Override
+    public synchronized void retain()
+    {
+        checkState(!released, "Lookup source already released");
+        referenceCount++;
+    }
+
+    @Override
+    public synchronized void release()
+    {
+        checkState(referenceCount > 0, "Lookup source is not retained");
+        referenceCount--;
+        if (referenceCount == 0) {
+            released = true;
+            releaseLookupSource();
+        }
+    }
+
+    @GuardedBy("this")
+    private void releaseLookupSource()
+    {
+        if (lookupSource instanceof PartitionedLookupSource) {
+            ((PartitionedLookupSource) lookupSource).releaseSpilledPartitions();
+        }
+    }
 }
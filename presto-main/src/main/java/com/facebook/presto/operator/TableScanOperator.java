@@ -17,12 +17,14 @@ import com.facebook.presto.metadata.ColumnHandle;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
@@ -47,6 +49,7 @@ public class TableScanOperator
         private final PageSourceProvider pageSourceProvider;
         private final List<Type> types;
         private final List<ColumnHandle> columns;
+        private final ListenableFuture<TupleDomain<ColumnHandle>> dynamicFilter;
         private boolean closed;
 
         public TableScanOperatorFactory(
@@ -55,12 +58,27 @@ public class TableScanOperator
                 PageSourceProvider pageSourceProvider,
                 List<Type> types,
                 Iterable<ColumnHandle> columns)
+        {
+            this(operatorId, sourceId, pageSourceProvider, types, columns, ImmutableList.<DynamicFilter>of());
+        }
+
+        /**
+         * Creates a factory for operators that wait for the specified dynamic filters before reading a split.
+         */
+        public TableScanOperatorFactory(
+                int operatorId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                List<Type> types,
+                Iterable<ColumnHandle> columns,
+                List<DynamicFilter> dynamicFilters)
         {
             this.operatorId = operatorId;
             this.sourceId = checkNotNull(sourceId, "sourceId is null");
             this.types = checkNotNull(types, "types is null");
             this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceManager is null");
             this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
+            this.dynamicFilter = DynamicFilter.intersect(checkNotNull(dynamicFilters, "dynamicFilters is null"));
         }
 
         @Override
@@ -85,7 +103,8 @@ public class TableScanOperator
                     sourceId,
                     pageSourceProvider,
                     types,
-                    columns);
+                    columns,
+                    dynamicFilter);
         }
 
         @Override
@@ -101,6 +120,12 @@ public class TableScanOperator
     private final List<Type> types;
     private final List<ColumnHandle> columns;
     private final SettableFuture<?> blocked;
+    private final ListenableFuture<TupleDomain<ColumnHandle>> dynamicFilter;
+    private final PageSourceReadAhead readAhead;
+
+    // split waiting for the dynamic filter before its page source is created
+    @GuardedBy("this")
+    private Split pendingSplit;
 
     @GuardedBy("this")
     private ConnectorPageSource source;
@@ -114,6 +139,17 @@ public class TableScanOperator
             PageSourceProvider pageSourceProvider,
             List<Type> types,
             Iterable<ColumnHandle> columns)
+    {
+        this(operatorContext, planNodeId, pageSourceProvider, types, columns, Futures.immediateFuture(TupleDomain.<ColumnHandle>all()));
+    }
+
+    public TableScanOperator(
+            OperatorContext operatorContext,
+            PlanNodeId planNodeId,
+            PageSourceProvider pageSourceProvider,
+            List<Type> types,
+            Iterable<ColumnHandle> columns,
+            ListenableFuture<TupleDomain<ColumnHandle>> dynamicFilter)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.planNodeId = checkNotNull(planNodeId, "planNodeId is null");
@@ -121,6 +157,8 @@ public class TableScanOperator
         this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceManager is null");
         this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
         this.blocked = SettableFuture.create();
+        this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
+        this.readAhead = new PageSourceReadAhead(operatorContext);
     }
 
     @Override
@@ -139,21 +177,22 @@ public class TableScanOperator
     public synchronized void addSplit(Split split)
     {
         checkNotNull(split, "split is null");
-        checkState(getSource() == null, "Table scan split already set");
-
-        source = pageSourceProvider.createPageSource(split, columns);
+        checkState(getSource() == null && pendingSplit == null, "Table scan split already set");
 
         Object splitInfo = split.getInfo();
         if (splitInfo != null) {
             operatorContext.setInfoSupplier(Suppliers.ofInstance(splitInfo));
         }
+
+        pendingSplit = split;
+        createPageSourceIfFilterReady();
         blocked.set(null);
     }
 
     @Override
     public synchronized void noMoreSplits()
     {
-        if (source == null) {
+        if (source == null && pendingSplit == null) {
             source = FINISHED_PAGE_SOURCE;
         }
     }
@@ -163,6 +202,15 @@ public class TableScanOperator
         return source;
     }
 
+    private synchronized ConnectorPageSource createPageSourceIfFilterReady()
+    {
+        if (source == null && pendingSplit != null && dynamicFilter.isDone()) {
+            source = pageSourceProvider.createPageSource(pendingSplit, columns, Futures.getUnchecked(dynamicFilter));
+            pendingSplit = null;
+        }
+        return source;
+    }
+
     @Override
     public List<Type> getTypes()
     {
@@ -172,6 +220,11 @@ public class TableScanOperator
     @Override
     public synchronized void close()
     {
+        if (source == null && pendingSplit != null) {
+            // the split is never read
+            pendingSplit = null;
+            source = FINISHED_PAGE_SOURCE;
+        }
         finish();
     }
 
@@ -188,6 +241,7 @@ public class TableScanOperator
         catch (IOException e) {
             throw Throwables.propagate(e);
         }
+        readAhead.recordStats(delegate);
     }
 
     @Override
@@ -198,11 +252,13 @@ public class TableScanOperator
     }
 
     @Override
-    public ListenableFuture<?> isBlocked()
+    public synchronized ListenableFuture<?> isBlocked()
     {
-        ConnectorPageSource delegate = getSource();
-        if (delegate != null) {
-            return NOT_BLOCKED;
+        if (source != null) {
+            return readAhead.isBlocked(source);
+        }
+        if (pendingSplit != null) {
+            return dynamicFilter;
         }
         return blocked;
     }
@@ -222,7 +278,7 @@ public class TableScanOperator
     @Override
     public Page getOutput()
     {
-        ConnectorPageSource delegate = getSource();
+        ConnectorPageSource delegate = createPageSourceIfFilterReady();
         if (delegate == null) {
             return null;
         }
@@ -239,6 +295,7 @@ public class TableScanOperator
             completedBytes = endCompletedBytes;
             readTimeNanos = endReadTimeNanos;
         }
+        readAhead.recordStats(delegate);
 
         return page;
     }
@@ -13,17 +13,18 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.spi.ConnectorPageSink;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
-import com.facebook.presto.spi.RecordSink;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
-import com.google.common.base.Function;
+import com.facebook.presto.sql.planner.plan.TableWriterNode.CreateHandle;
+import com.facebook.presto.sql.planner.plan.TableWriterNode.InsertHandle;
+import com.facebook.presto.sql.planner.plan.TableWriterNode.WriterTarget;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
-import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 
 import java.util.List;
@@ -42,28 +43,29 @@ public class TableWriterOperator
             implements OperatorFactory
     {
         private final int operatorId;
-        private final RecordSink recordSink;
+        private final PageSinkProvider pageSinkProvider;
+        private final WriterTarget target;
+        private final List<Type> types;
         private final List<Integer> inputChannels;
-        private final List<Type> recordTypes;
         private final Optional<Integer> sampleWeightChannel;
         private boolean closed;
 
-        public TableWriterOperatorFactory(int operatorId, RecordSink recordSink, List<Type> recordTypes, List<Integer> inputChannels, Optional<Integer> sampleWeightChannel)
+        /**
+         * Every operator created by the factory writes to its own page sink, so that a task can write with several drivers.
+         */
+        public TableWriterOperatorFactory(
+                int operatorId,
+                PageSinkProvider pageSinkProvider,
+                WriterTarget target,
+                List<Type> types,
+                List<Integer> inputChannels,
+                Optional<Integer> sampleWeightChannel)
         {
             this.operatorId = operatorId;
-            this.inputChannels = checkNotNull(inputChannels, "inputChannels is null");
-            this.recordSink = checkNotNull(recordSink, "recordSink is null");
-
-            checkNotNull(recordTypes, "types is null");
-            this.recordTypes = ImmutableList.copyOf(Iterables.transform(recordTypes, new Function<Type, Type>()
-            {
-                @Override
-                public Type apply(Type type)
-                {
-                    return type;
-                }
-            }));
-
+            this.pageSinkProvider = checkNotNull(pageSinkProvider, "pageSinkProvider is null");
+            this.target = checkNotNull(target, "target is null");
+            this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+            this.inputChannels = ImmutableList.copyOf(checkNotNull(inputChannels, "inputChannels is null"));
             this.sampleWeightChannel = checkNotNull(sampleWeightChannel, "sampleWeightChannel is null");
         }
 
@@ -78,7 +80,18 @@ public class TableWriterOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext context = driverContext.addOperatorContext(operatorId, TableWriterOperator.class.getSimpleName());
-            return new TableWriterOperator(context, recordSink, recordTypes, inputChannels, sampleWeightChannel);
+            return new TableWriterOperator(context, createPageSink(), inputChannels, sampleWeightChannel);
+        }
+
+        private ConnectorPageSink createPageSink()
+        {
+            if (target instanceof CreateHandle) {
+                return pageSinkProvider.createPageSink(((CreateHandle) target).getHandle(), types);
+            }
+            if (target instanceof InsertHandle) {
+                return pageSinkProvider.createPageSink(((InsertHandle) target).getHandle(), types);
+            }
+            throw new AssertionError("Unhandled target type: " + target.getClass().getName());
         }
 
         @Override
@@ -94,25 +107,22 @@ public class TableWriterOperator
     }
 
     private final OperatorContext operatorContext;
-    private final RecordSink recordSink;
+    private final ConnectorPageSink pageSink;
     private final Optional<Integer> sampleWeightChannel;
-    private final List<Type> recordTypes;
-    private final List<Integer> inputChannels;
+    private final int[] inputChannels;
 
     private State state = State.RUNNING;
     private long rowCount;
 
     public TableWriterOperator(OperatorContext operatorContext,
-            RecordSink recordSink,
-            List<Type> recordTypes,
+            ConnectorPageSink pageSink,
             List<Integer> inputChannels,
             Optional<Integer> sampleWeightChannel)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
-        this.recordSink = checkNotNull(recordSink, "recordSink is null");
-        this.recordTypes = recordTypes;
+        this.pageSink = checkNotNull(pageSink, "pageSink is null");
         this.sampleWeightChannel = checkNotNull(sampleWeightChannel, "sampleWeightChannel is null");
-        this.inputChannels = checkNotNull(inputChannels, "inputChannels is null");
+        this.inputChannels = Ints.toArray(checkNotNull(inputChannels, "inputChannels is null"));
     }
 
     @Override
@@ -164,49 +174,15 @@ public class TableWriterOperator
             sampleWeightBlock = page.getBlock(sampleWeightChannel.get());
         }
 
-        Block[] blocks = new Block[inputChannels.size()];
-        for (int outputChannel = 0; outputChannel < inputChannels.size(); outputChannel++) {
-            blocks[outputChannel] = page.getBlock(inputChannels.get(outputChannel));
+        Block[] blocks = new Block[inputChannels.length];
+        for (int outputChannel = 0; outputChannel < inputChannels.length; outputChannel++) {
+            blocks[outputChannel] = page.getBlock(inputChannels[outputChannel]);
         }
 
-        for (int position = 0; position < page.getPositionCount(); position++) {
-            long sampleWeight = 1;
-            if (sampleWeightBlock != null) {
-                sampleWeight = BIGINT.getLong(sampleWeightBlock, position);
-            }
-            recordSink.beginRecord(sampleWeight);
-            for (int i = 0; i < blocks.length; i++) {
-                writeField(position, blocks[i], recordTypes.get(i));
-            }
-            recordSink.finishRecord();
-        }
+        pageSink.appendPage(new Page(page.getPositionCount(), blocks), sampleWeightBlock);
         rowCount += page.getPositionCount();
     }
 
-    private void writeField(int position, Block block, Type type)
-    {
-        if (block.isNull(position)) {
-            recordSink.appendNull();
-            return;
-        }
-
-        if (type.getJavaType() == boolean.class) {
-            recordSink.appendBoolean(type.getBoolean(block, position));
-        }
-        else if (type.getJavaType() == long.class) {
-            recordSink.appendLong(type.getLong(block, position));
-        }
-        else if (type.getJavaType() == double.class) {
-            recordSink.appendDouble(type.getDouble(block, position));
-        }
-        else if (type.getJavaType() == Slice.class) {
-            recordSink.appendString(type.getSlice(block, position).getBytes());
-        }
-        else {
-            throw new AssertionError("unimplemented type: " + type);
-        }
-    }
-
     @Override
     public Page getOutput()
     {
@@ -215,7 +191,7 @@ public class TableWriterOperator
         }
         state = State.FINISHED;
 
-        String fragment = recordSink.commit();
+        String fragment = pageSink.commit();
 
         PageBuilder page = new PageBuilder(TYPES);
         BIGINT.writeLong(page.getBlockBuilder(0), rowCount);
@@ -203,6 +203,43 @@ public class TaskContext
         return cpuTimerEnabled;
     }
 
+    public int getQueuedPartitionedDrivers()
+    {
+        int queuedPartitionedDrivers = 0;
+        for (PipelineContext pipelineContext : pipelineContexts) {
+            queuedPartitionedDrivers += pipelineContext.getQueuedPartitionedDrivers();
+        }
+        return queuedPartitionedDrivers;
+    }
+
+    public int getRunningPartitionedDrivers()
+    {
+        int runningPartitionedDrivers = 0;
+        for (PipelineContext pipelineContext : pipelineContexts) {
+            runningPartitionedDrivers += pipelineContext.getRunningPartitionedDrivers();
+        }
+        return runningPartitionedDrivers;
+    }
+
+    /**
+     * Returns the partitioned drivers completed per second of their running time, which is
+     * how fast this task works through a split. Time the task spends without splits does
+     * not count, so a node that receives few splits does not appear slow.
+     */
+    public double getPartitionedSplitThroughput()
+    {
+        int completedPartitionedDrivers = 0;
+        long completedPartitionedDriverNanos = 0;
+        for (PipelineContext pipelineContext : pipelineContexts) {
+            completedPartitionedDrivers += pipelineContext.getCompletedPartitionedDrivers();
+            completedPartitionedDriverNanos += pipelineContext.getCompletedPartitionedDriverNanos();
+        }
+        if (completedPartitionedDriverNanos <= 0) {
+            return 0;
+        }
+        return completedPartitionedDrivers / (completedPartitionedDriverNanos / 1.0e9);
+    }
+
     public CounterStat getInputDataSize()
     {
         CounterStat stat = new CounterStat();
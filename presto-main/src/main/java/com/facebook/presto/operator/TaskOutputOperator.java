@@ -14,8 +14,10 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.execution.SharedBuffer;
+import com.facebook.presto.execution.SplitOutput;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -77,6 +79,7 @@ public class TaskOutputOperator
 
     private final OperatorContext operatorContext;
     private final SharedBuffer sharedBuffer;
+    private final Optional<SplitOutput> splitOutput;
     private ListenableFuture<?> blocked = NOT_BLOCKED;
     private boolean finished;
 
@@ -84,6 +87,7 @@ public class TaskOutputOperator
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.sharedBuffer = checkNotNull(sharedBuffer, "sharedBuffer is null");
+        this.splitOutput = operatorContext.getDriverContext().getSplitOutput();
     }
 
     @Override
@@ -101,17 +105,37 @@ public class TaskOutputOperator
     @Override
     public void finish()
     {
+        if (finished) {
+            return;
+        }
         finished = true;
+
+        // staged output is released once the whole split has been processed
+        if (splitOutput.isPresent()) {
+            blocked = splitOutput.get().finish();
+        }
     }
 
     @Override
     public boolean isFinished()
     {
+        // the output of an aborted split is discarded, so there is no reason to keep processing it
+        if (splitOutput.isPresent() && splitOutput.get().isAborted()) {
+            operatorContext.trimMemoryReservation(0);
+            return true;
+        }
+
         if (blocked != NOT_BLOCKED && blocked.isDone()) {
             blocked = NOT_BLOCKED;
         }
 
-        return finished && blocked == NOT_BLOCKED;
+        if (finished && blocked == NOT_BLOCKED) {
+            if (splitOutput.isPresent()) {
+                operatorContext.trimMemoryReservation(0);
+            }
+            return true;
+        }
+        return false;
     }
 
     @Override
@@ -137,7 +161,17 @@ public class TaskOutputOperator
     {
         checkNotNull(page, "page is null");
         checkState(blocked == NOT_BLOCKED, "output is already blocked");
-        ListenableFuture<?> future = sharedBuffer.enqueue(page);
+        ListenableFuture<?> future;
+        if (splitOutput.isPresent()) {
+            future = splitOutput.get().enqueue(page);
+            // the staged output is released when the split outgrows it and publishes early
+            long stagedBytes = splitOutput.get().getStagedBytes();
+            operatorContext.setMemoryReservation(stagedBytes);
+            operatorContext.trimMemoryReservation(stagedBytes);
+        }
+        else {
+            future = sharedBuffer.enqueue(page);
+        }
         if (!future.isDone()) {
             this.blocked = future;
         }
@@ -18,12 +18,17 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 import it.unimi.dsi.fastutil.ints.IntComparator;
 
+import java.io.Closeable;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
@@ -32,7 +37,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.concat;
 
 public class WindowOperator
-        implements Operator
+        implements Operator, Closeable
 {
     public static class WindowOperatorFactory
             implements OperatorFactory
@@ -48,6 +53,7 @@ public class WindowOperator
         private final List<SortOrder> sortOrder;
         private final int expectedPositions;
         private final List<Type> types;
+        private final Optional<SpillerFactory> spillerFactory;
         private boolean closed;
 
         public WindowOperatorFactory(
@@ -58,7 +64,8 @@ public class WindowOperator
                 List<Integer> partitionChannels,
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrder,
-                int expectedPositions)
+                int expectedPositions,
+                Optional<SpillerFactory> spillerFactory)
         {
             this.operatorId = operatorId;
             this.sourceTypes = ImmutableList.copyOf(sourceTypes);
@@ -78,6 +85,7 @@ public class WindowOperator
             this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
             this.sortOrder = ImmutableList.copyOf(checkNotNull(sortOrder, "sortOrder is null"));
             this.expectedPositions = expectedPositions;
+            this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
 
             this.types = toTypes(sourceTypes, outputChannels, toWindowFunctions(windowFunctionDefinitions));
         }
@@ -104,7 +112,8 @@ public class WindowOperator
                     sortTypes,
                     sortChannels,
                     sortOrder,
-                    expectedPositions);
+                    expectedPositions,
+                    spillerFactory);
         }
 
         @Override
@@ -131,7 +140,12 @@ public class WindowOperator
     private final List<SortOrder> sortOrder;
     private final List<Type> types;
 
+    private final List<Integer> orderChannels;
+    private final List<SortOrder> ordering;
+    private final List<Type> orderingTypes;
+
     private final PagesIndex pagesIndex;
+    private final Optional<SpillerFactory> spillerFactory;
 
     private final PageBuilder pageBuilder;
 
@@ -146,6 +160,12 @@ public class WindowOperator
     private int peerGroupEnd;
     private int peerGroupCount;
 
+    // runs spilled to disk; absent until the first spill
+    private Optional<Spiller> spiller = Optional.absent();
+    private Iterator<Page> mergedPages;
+    // number of positions in the index that belong to complete partitions
+    private int completePositionCount;
+
     public WindowOperator(
             OperatorContext operatorContext,
             List<Type> sourceTypes,
@@ -154,7 +174,8 @@ public class WindowOperator
             List<Type> partitionTypes, List<Integer> partitionChannels,
             List<Type> sortTypes, List<Integer> sortChannels,
             List<SortOrder> sortOrder,
-            int expectedPositions)
+            int expectedPositions,
+            Optional<SpillerFactory> spillerFactory)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.outputChannels = Ints.toArray(checkNotNull(outputChannels, "outputChannels is null"));
@@ -164,9 +185,18 @@ public class WindowOperator
         this.sortTypes = ImmutableList.copyOf(checkNotNull(sortTypes, "sortTypes is null"));
         this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
         this.sortOrder = ImmutableList.copyOf(checkNotNull(sortOrder, "sortOrder is null"));
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
 
         this.types = toTypes(sourceTypes, outputChannels, windowFunctions);
 
+        // we partition by ordering the values so partitions are sequential values
+        List<SortOrder> partitionOrder = Collections.nCopies(partitionChannels.size(), ASC_NULLS_LAST);
+
+        // sort everything by partition channels, then sort channels
+        this.orderChannels = ImmutableList.copyOf(concat(partitionChannels, sortChannels));
+        this.ordering = ImmutableList.copyOf(concat(partitionOrder, sortOrder));
+        this.orderingTypes = ImmutableList.copyOf(concat(partitionTypes, sortTypes));
+
         this.pagesIndex = new PagesIndex(sourceTypes, expectedPositions, operatorContext);
         this.pageBuilder = new PageBuilder(this.types);
     }
@@ -189,22 +219,24 @@ public class WindowOperator
         if (state == State.NEEDS_INPUT) {
             state = State.HAS_OUTPUT;
 
-            // we partition by ordering the values so partitions are sequential values
-            List<SortOrder> partitionOrder = Collections.nCopies(partitionChannels.size(), ASC_NULLS_LAST);
-
-            // sort everything by partition channels, then sort channels
-            List<Integer> orderChannels = ImmutableList.copyOf(concat(partitionChannels, sortChannels));
-            List<SortOrder> ordering = ImmutableList.copyOf(concat(partitionOrder, sortOrder));
-            List<Type> orderingTypes = ImmutableList.copyOf(concat(partitionTypes, sortTypes));
-
-            // sort the index
-            pagesIndex.sort(orderingTypes, orderChannels, ordering);
-
             // create partition comparator
+            List<SortOrder> partitionOrder = Collections.nCopies(partitionChannels.size(), ASC_NULLS_LAST);
             partitionComparator = pagesIndex.createComparator(orderingTypes, partitionChannels, partitionOrder);
 
             // create order comparator
             orderComparator = pagesIndex.createComparator(orderingTypes, sortChannels, sortOrder);
+
+            if (!spiller.isPresent()) {
+                // sort the index
+                pagesIndex.sort(orderingTypes, orderChannels, ordering);
+                completePositionCount = pagesIndex.getPositionCount();
+                return;
+            }
+
+            // spill the rest of the input, so the index can be reused to process the merged runs one group of partitions at a time
+            spillSortedRun();
+            mergedPages = new MergingPageIterator(pagesIndex.getTypes(), orderChannels, ordering, spiller.get().getSpills(), operatorContext);
+            loadCompletePartitions();
         }
     }
 
@@ -232,7 +264,62 @@ public class WindowOperator
         checkState(state == State.NEEDS_INPUT, "Operator is already finishing");
         checkNotNull(page, "page is null");
 
-        pagesIndex.addPage(page);
+        if (!spillerFactory.isPresent()) {
+            pagesIndex.addPage(page);
+            return;
+        }
+
+        if (!pagesIndex.tryAddPage(page)) {
+            spillSortedRun();
+        }
+    }
+
+    private void spillSortedRun()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(spillerFactory.get().create());
+        }
+
+        pagesIndex.sort(orderingTypes, orderChannels, ordering);
+        long spilledBytes = spiller.get().spill(pagesIndex.getPages());
+        operatorContext.recordSpill(spilledBytes);
+        pagesIndex.clear();
+    }
+
+    /**
+     * Replaces the processed partitions in the index with rows from the merged runs, until the index
+     * holds at least one complete partition or all rows have been loaded. A partition is complete when a
+     * row of the next partition has been loaded, so the rows of the last partition are carried over.
+     */
+    private void loadCompletePartitions()
+    {
+        List<Page> carryOver = ImmutableList.copyOf(pagesIndex.getPages(completePositionCount));
+        pagesIndex.clear();
+        for (Page page : carryOver) {
+            pagesIndex.addPage(page);
+        }
+
+        currentPosition = 0;
+        partitionEnd = 0;
+        peerGroupEnd = 0;
+
+        while (mergedPages.hasNext()) {
+            pagesIndex.addPage(mergedPages.next());
+
+            // the rows are sorted by partition, so the index spans multiple partitions when the first and last rows differ
+            int lastPosition = pagesIndex.getPositionCount() - 1;
+            if (partitionComparator.compare(0, lastPosition) != 0) {
+                // find the start of the last partition
+                int lastPartitionStart = lastPosition;
+                while (partitionComparator.compare(lastPartitionStart - 1, lastPosition) == 0) {
+                    lastPartitionStart--;
+                }
+                completePositionCount = lastPartitionStart;
+                return;
+            }
+        }
+
+        completePositionCount = pagesIndex.getPositionCount();
     }
 
     @Override
@@ -242,20 +329,25 @@ public class WindowOperator
             return null;
         }
 
-        if (currentPosition >= pagesIndex.getPositionCount()) {
+        if (currentPosition >= completePositionCount && mergedPages != null && completePositionCount < pagesIndex.getPositionCount()) {
+            loadCompletePartitions();
+        }
+
+        if (currentPosition >= completePositionCount) {
             state = State.FINISHED;
+            close();
             return null;
         }
 
         // iterate through the positions sequentially until we have one full page
         pageBuilder.reset();
-        while (!pageBuilder.isFull() && currentPosition < pagesIndex.getPositionCount()) {
+        while (!pageBuilder.isFull() && currentPosition < completePositionCount) {
             // check for new partition
             boolean newPartition = (currentPosition == 0) || (currentPosition == partitionEnd);
             if (newPartition) {
                 // find end of partition
                 partitionEnd++;
-                while ((partitionEnd < pagesIndex.getPositionCount()) &&
+                while ((partitionEnd < completePositionCount) &&
                         (partitionComparator.compare(partitionEnd - 1, partitionEnd) == 0)) {
                     partitionEnd++;
                 }
@@ -304,6 +396,14 @@ public class WindowOperator
         return page;
     }
 
+    @Override
+    public void close()
+    {
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels, List<WindowFunction> windowFunctions)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
@@ -54,4 +54,14 @@ public class IndexLookupSourceSupplier
         indexLoader.setContext(operatorContext.getDriverContext().getPipelineContext().getTaskContext());
         return Futures.<LookupSource>immediateFuture(new IndexLookupSource(indexLoader));
     }
+
+    @Override
+    public void retain()
+    {
+    }
+
+    @Override
+    public void release()
+    {
+    }
 }
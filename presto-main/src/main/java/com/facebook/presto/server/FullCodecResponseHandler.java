@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.MediaType;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.json.JsonCodec;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.facebook.presto.PrestoMediaTypes.JACKSON_SMILE_TYPE;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Buffers the full response and decodes it with the codec matching the response content type,
+ * so a worker that does not produce Smile is still understood through JSON.
+ */
+public class FullCodecResponseHandler<T>
+        implements ResponseHandler<FullCodecResponseHandler.CodecResponse<T>, RuntimeException>
+{
+    private final JsonCodec<T> jsonCodec;
+    private final SmileCodec<T> smileCodec;
+
+    public static <T> FullCodecResponseHandler<T> createFullCodecResponseHandler(JsonCodec<T> jsonCodec, SmileCodec<T> smileCodec)
+    {
+        return new FullCodecResponseHandler<>(jsonCodec, smileCodec);
+    }
+
+    private FullCodecResponseHandler(JsonCodec<T> jsonCodec, SmileCodec<T> smileCodec)
+    {
+        this.jsonCodec = checkNotNull(jsonCodec, "jsonCodec is null");
+        this.smileCodec = checkNotNull(smileCodec, "smileCodec is null");
+    }
+
+    @Override
+    public CodecResponse<T> handleException(Request request, Exception exception)
+    {
+        throw Throwables.propagate(exception);
+    }
+
+    @Override
+    public CodecResponse<T> handle(Request request, Response response)
+    {
+        byte[] bytes = readResponseBytes(response);
+        String contentType = response.getHeader(CONTENT_TYPE);
+        if (contentType == null) {
+            return new CodecResponse<>(response.getStatusCode(), response.getStatusMessage(), bytes);
+        }
+
+        MediaType mediaType = MediaType.parse(contentType).withoutParameters();
+        try {
+            if (mediaType.is(JACKSON_SMILE_TYPE)) {
+                return new CodecResponse<>(response.getStatusCode(), response.getStatusMessage(), bytes, smileCodec.fromSmile(bytes));
+            }
+            if (mediaType.is(JSON_UTF_8.withoutParameters())) {
+                return new CodecResponse<>(response.getStatusCode(), response.getStatusMessage(), bytes, jsonCodec.fromJson(new String(bytes, UTF_8)));
+            }
+        }
+        catch (IllegalArgumentException e) {
+            return new CodecResponse<>(response.getStatusCode(), response.getStatusMessage(), bytes, e);
+        }
+        return new CodecResponse<>(response.getStatusCode(), response.getStatusMessage(), bytes);
+    }
+
+    private static byte[] readResponseBytes(Response response)
+    {
+        try (InputStream inputStream = response.getInputStream()) {
+            return ByteStreams.toByteArray(inputStream);
+        }
+        catch (IOException e) {
+            throw new RuntimeException("Error reading response from server", e);
+        }
+    }
+
+    public static class CodecResponse<T>
+    {
+        private final int statusCode;
+        private final String statusMessage;
+        private final byte[] responseBytes;
+        private final boolean hasValue;
+        private final T value;
+        private final IllegalArgumentException exception;
+
+        public CodecResponse(int statusCode, String statusMessage, byte[] responseBytes)
+        {
+            this.statusCode = statusCode;
+            this.statusMessage = statusMessage;
+            this.responseBytes = checkNotNull(responseBytes, "responseBytes is null");
+            this.hasValue = false;
+            this.value = null;
+            this.exception = null;
+        }
+
+        public CodecResponse(int statusCode, String statusMessage, byte[] responseBytes, T value)
+        {
+            this.statusCode = statusCode;
+            this.statusMessage = statusMessage;
+            this.responseBytes = checkNotNull(responseBytes, "responseBytes is null");
+            this.hasValue = true;
+            this.value = value;
+            this.exception = null;
+        }
+
+        public CodecResponse(int statusCode, String statusMessage, byte[] responseBytes, IllegalArgumentException exception)
+        {
+            this.statusCode = statusCode;
+            this.statusMessage = statusMessage;
+            this.responseBytes = checkNotNull(responseBytes, "responseBytes is null");
+            this.hasValue = false;
+            this.value = null;
+            this.exception = checkNotNull(exception, "exception is null");
+        }
+
+        public int getStatusCode()
+        {
+            return statusCode;
+        }
+
+        public String getStatusMessage()
+        {
+            return statusMessage;
+        }
+
+        public boolean hasValue()
+        {
+            return hasValue;
+        }
+
+        public T getValue()
+        {
+            if (!hasValue) {
+                throw new IllegalStateException("Response does not contain a value", exception);
+            }
+            return value;
+        }
+
+        public IllegalArgumentException getException()
+        {
+            return exception;
+        }
+
+        public String getResponseBody()
+        {
+            return new String(responseBytes, UTF_8);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("statusCode", statusCode)
+                    .add("statusMessage", statusMessage)
+                    .add("hasValue", hasValue)
+                    .add("value", value)
+                    .toString();
+        }
+    }
+}
@@ -23,21 +23,28 @@ import com.facebook.presto.execution.ExecutionFailureInfo;
 import com.facebook.presto.execution.RemoteTask;
 import com.facebook.presto.execution.SharedBuffer.BufferState;
 import com.facebook.presto.execution.SharedBufferInfo;
+import com.facebook.presto.execution.SplitStatus;
 import com.facebook.presto.execution.StateMachine;
 import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.execution.TaskState;
+import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.operator.TaskStats;
+import com.facebook.presto.server.FullCodecResponseHandler.CodecResponse;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
@@ -48,7 +55,6 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.RateLimiter;
 import io.airlift.concurrent.SetThreadName;
-import io.airlift.http.client.FullJsonResponseHandler.JsonResponse;
 import io.airlift.http.client.HttpClient;
 import io.airlift.http.client.HttpStatus;
 import io.airlift.http.client.Request;
@@ -66,11 +72,13 @@ import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
@@ -79,21 +87,26 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.facebook.presto.PrestoMediaTypes.JACKSON_SMILE_TYPE;
+import static com.facebook.presto.SystemSessionProperties.isSpeculativeExecutionEnabled;
 import static com.facebook.presto.spi.StandardErrorCode.REMOTE_TASK_ERROR;
 import static com.facebook.presto.spi.StandardErrorCode.TOO_MANY_REQUESTS_FAILED;
+import static com.facebook.presto.server.FullCodecResponseHandler.createFullCodecResponseHandler;
 import static com.facebook.presto.util.Failures.toFailure;
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.transform;
-import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.airlift.http.client.JsonBodyGenerator.jsonBodyGenerator;
 import static io.airlift.http.client.Request.Builder.prepareDelete;
 import static io.airlift.http.client.Request.Builder.prepareGet;
 import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
 import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class HttpRemoteTask
         implements RemoteTask
@@ -107,10 +120,19 @@ public class HttpRemoteTask
     private final PlanFragment planFragment;
     private final int maxConsecutiveErrorCount;
     private final Duration minErrorDuration;
+    private final Duration taskInfoRefreshInterval;
+    private final boolean speculativeExecution;
 
     private final AtomicLong nextSplitId = new AtomicLong();
 
     private final StateMachine<TaskInfo> taskInfo;
+    // the last status received after the last task info, which has the most recent driver counts
+    private final AtomicReference<TaskStatus> taskStatus = new AtomicReference<>();
+    private final List<StateChangeListener<TaskStatus>> statusListeners = new CopyOnWriteArrayList<>();
+    private volatile double partitionedSplitThroughput;
+    // staged splits as reported by the last status, by the sequence id of the split on the worker
+    private volatile List<SplitStatus> stagedSplits = ImmutableList.of();
+    private volatile Duration stagedSplitMedianTime = new Duration(0, MILLISECONDS);
 
     @GuardedBy("this")
     private Future<?> currentRequest;
@@ -121,6 +143,13 @@ public class HttpRemoteTask
     private final SetMultimap<PlanNodeId, ScheduledSplit> pendingSplits = HashMultimap.create();
     @GuardedBy("this")
     private final Set<PlanNodeId> noMoreSplits = new HashSet<>();
+    // partitioned splits by sequence id, which are only tracked with speculative execution
+    @GuardedBy("this")
+    private final BiMap<Long, Split> partitionedSplits = HashBiMap.create();
+    @GuardedBy("this")
+    private final Set<Long> pendingCommittedSplits = new HashSet<>();
+    @GuardedBy("this")
+    private final Set<Long> pendingAbortedSplits = new HashSet<>();
     @GuardedBy("this")
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
 
@@ -130,15 +159,22 @@ public class HttpRemoteTask
     private final HttpClient httpClient;
     private final Executor executor;
     private final JsonCodec<TaskInfo> taskInfoCodec;
+    private final JsonCodec<TaskStatus> taskStatusCodec;
     private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final SmileCodec<TaskInfo> taskInfoSmileCodec;
+    private final SmileCodec<TaskStatus> taskStatusSmileCodec;
+    private final SmileCodec<TaskUpdateRequest> taskUpdateRequestSmileCodec;
+    private final boolean smileEnabled;
 
     private final RateLimiter errorRequestRateLimiter = RateLimiter.create(0.1);
 
     private final AtomicLong lastSuccessfulRequest = new AtomicLong(System.nanoTime());
+    private final AtomicLong lastTaskInfoUpdate = new AtomicLong(System.nanoTime());
     private final AtomicLong errorCount = new AtomicLong();
     private final Queue<Throwable> errorsSinceLastSuccess = new ConcurrentLinkedQueue<>();
 
     private final AtomicBoolean needsUpdate = new AtomicBoolean(true);
+    private final AtomicBoolean sendPlan = new AtomicBoolean(true);
 
     public HttpRemoteTask(Session session,
             TaskId taskId,
@@ -151,8 +187,14 @@ public class HttpRemoteTask
             Executor executor,
             int maxConsecutiveErrorCount,
             Duration minErrorDuration,
+            Duration taskInfoRefreshInterval,
             JsonCodec<TaskInfo> taskInfoCodec,
-            JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec)
+            JsonCodec<TaskStatus> taskStatusCodec,
+            JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            SmileCodec<TaskInfo> taskInfoSmileCodec,
+            SmileCodec<TaskStatus> taskStatusSmileCodec,
+            SmileCodec<TaskUpdateRequest> taskUpdateRequestSmileCodec,
+            boolean smileEnabled)
     {
         checkNotNull(session, "session is null");
         checkNotNull(taskId, "taskId is null");
@@ -162,8 +204,13 @@ public class HttpRemoteTask
         checkNotNull(outputBuffers, "outputBuffers is null");
         checkNotNull(httpClient, "httpClient is null");
         checkNotNull(executor, "executor is null");
+        checkNotNull(taskInfoRefreshInterval, "taskInfoRefreshInterval is null");
         checkNotNull(taskInfoCodec, "taskInfoCodec is null");
+        checkNotNull(taskStatusCodec, "taskStatusCodec is null");
         checkNotNull(taskUpdateRequestCodec, "taskUpdateRequestCodec is null");
+        checkNotNull(taskInfoSmileCodec, "taskInfoSmileCodec is null");
+        checkNotNull(taskStatusSmileCodec, "taskStatusSmileCodec is null");
+        checkNotNull(taskUpdateRequestSmileCodec, "taskUpdateRequestSmileCodec is null");
 
         try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
             this.taskId = taskId;
@@ -174,13 +221,19 @@ public class HttpRemoteTask
             this.httpClient = httpClient;
             this.executor = executor;
             this.taskInfoCodec = taskInfoCodec;
+            this.taskStatusCodec = taskStatusCodec;
             this.taskUpdateRequestCodec = taskUpdateRequestCodec;
+            this.taskInfoSmileCodec = taskInfoSmileCodec;
+            this.taskStatusSmileCodec = taskStatusSmileCodec;
+            this.taskUpdateRequestSmileCodec = taskUpdateRequestSmileCodec;
+            this.smileEnabled = smileEnabled;
             this.maxConsecutiveErrorCount = maxConsecutiveErrorCount;
             this.minErrorDuration = minErrorDuration;
+            this.taskInfoRefreshInterval = taskInfoRefreshInterval;
+            this.speculativeExecution = isSpeculativeExecutionEnabled(session, false);
 
             for (Entry<PlanNodeId, Split> entry : checkNotNull(initialSplits, "initialSplits is null").entries()) {
-                ScheduledSplit scheduledSplit = new ScheduledSplit(nextSplitId.getAndIncrement(), entry.getValue());
-                pendingSplits.put(entry.getKey(), scheduledSplit);
+                addPendingSplit(entry.getKey(), entry.getValue(), false);
             }
 
             List<BufferInfo> bufferStates = ImmutableList.copyOf(transform(outputBuffers.getBuffers().keySet(), new Function<TaskId, BufferInfo>()
@@ -200,7 +253,7 @@ public class HttpRemoteTask
                     TaskState.PLANNED,
                     location,
                     DateTime.now(),
-                    new SharedBufferInfo(BufferState.OPEN, 0, 0, bufferStates),
+                    new SharedBufferInfo(BufferState.OPEN, 0, 0, 0, 0, bufferStates),
                     ImmutableSet.<PlanNodeId>of(),
                     taskStats,
                     ImmutableList.<ExecutionFailureInfo>of()));
@@ -239,7 +292,7 @@ public class HttpRemoteTask
             // only add pending split if not done
             if (!getTaskInfo().getState().isDone()) {
                 for (Split split : splits) {
-                    pendingSplits.put(sourceId, new ScheduledSplit(nextSplitId.getAndIncrement(), split));
+                    addPendingSplit(sourceId, split, false);
                 }
                 needsUpdate.set(true);
             }
@@ -248,6 +301,93 @@ public class HttpRemoteTask
         }
     }
 
+    @Override
+    public synchronized void addSpeculativeSplit(Split split)
+    {
+        try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
+            checkNotNull(split, "split is null");
+            checkState(speculativeExecution, "speculative execution is not enabled for %s", taskId);
+            PlanNodeId sourceId = planFragment.getPartitionedSource();
+            checkState(!noMoreSplits.contains(sourceId), "noMoreSplits has already been set for %s", sourceId);
+
+            if (!getTaskInfo().getState().isDone()) {
+                addPendingSplit(sourceId, split, true);
+                needsUpdate.set(true);
+            }
+
+            scheduleUpdate();
+        }
+    }
+
+    @Override
+    public synchronized void commitSplit(Split split)
+    {
+        try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
+            // the splits are forgotten when the task is done
+            if (getTaskInfo().getState().isDone()) {
+                return;
+            }
+            if (pendingCommittedSplits.add(getSequenceId(split))) {
+                needsUpdate.set(true);
+                scheduleUpdate();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void abortSplit(Split split)
+    {
+        try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
+            // the splits are forgotten when the task is done
+            if (getTaskInfo().getState().isDone()) {
+                return;
+            }
+            if (pendingAbortedSplits.add(getSequenceId(split))) {
+                needsUpdate.set(true);
+                scheduleUpdate();
+            }
+        }
+    }
+
+    @Override
+    public synchronized Map<Split, SplitStatus> getStagedSplits()
+    {
+        ImmutableMap.Builder<Split, SplitStatus> splits = ImmutableMap.builder();
+        for (SplitStatus splitStatus : stagedSplits) {
+            // the split is unknown once the task is done
+            Split split = partitionedSplits.get(splitStatus.getSplitId());
+            if (split != null) {
+                splits.put(split, splitStatus);
+            }
+        }
+        return splits.build();
+    }
+
+    @Override
+    public Duration getStagedSplitMedianTime()
+    {
+        return stagedSplitMedianTime;
+    }
+
+    @GuardedBy("this")
+    private void addPendingSplit(PlanNodeId sourceId, Split split, boolean speculative)
+    {
+        ScheduledSplit scheduledSplit = new ScheduledSplit(nextSplitId.getAndIncrement(), split, speculative);
+        pendingSplits.put(sourceId, scheduledSplit);
+        if (speculativeExecution && sourceId.equals(planFragment.getPartitionedSource())) {
+            partitionedSplits.put(scheduledSplit.getSequenceId(), split);
+        }
+    }
+
+    @GuardedBy("this")
+    private long getSequenceId(Split split)
+    {
+        checkNotNull(split, "split is null");
+        Long sequenceId = partitionedSplits.inverse().get(split);
+        checkArgument(sequenceId != null, "Split %s is not a partitioned split of %s", split, taskId);
+        return sequenceId;
+    }
+
     @Override
     public synchronized void noMoreSplits(PlanNodeId sourceId)
     {
@@ -279,6 +419,10 @@ public class HttpRemoteTask
     public synchronized int getPartitionedSplitCount()
     {
         int splitCount = pendingSplits.get(planFragment.getPartitionedSource()).size();
+        TaskStatus taskStatus = this.taskStatus.get();
+        if (taskStatus != null) {
+            return splitCount + taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers();
+        }
         return splitCount + taskInfo.get().getStats().getQueuedPartitionedDrivers() + taskInfo.get().getStats().getRunningPartitionedDrivers();
     }
 
@@ -286,9 +430,19 @@ public class HttpRemoteTask
     public synchronized int getQueuedPartitionedSplitCount()
     {
         int splitCount = pendingSplits.get(planFragment.getPartitionedSource()).size();
+        TaskStatus taskStatus = this.taskStatus.get();
+        if (taskStatus != null) {
+            return splitCount + taskStatus.getQueuedPartitionedDrivers();
+        }
         return splitCount + taskInfo.get().getStats().getQueuedPartitionedDrivers();
     }
 
+    @Override
+    public double getPartitionedSplitThroughput()
+    {
+        return partitionedSplitThroughput;
+    }
+
     @Override
     public void addStateChangeListener(StateChangeListener<TaskInfo> stateChangeListener)
     {
@@ -297,6 +451,12 @@ public class HttpRemoteTask
         }
     }
 
+    @Override
+    public void addStatusListener(StateChangeListener<TaskStatus> statusListener)
+    {
+        statusListeners.add(checkNotNull(statusListener, "statusListener is null"));
+    }
+
     @Override
     public Duration waitForTaskToFinish(Duration maxWait)
             throws InterruptedException
@@ -317,6 +477,9 @@ public class HttpRemoteTask
         if (newValue.getState().isDone()) {
             // splits can be huge so clear the list
             pendingSplits.clear();
+            partitionedSplits.clear();
+            pendingCommittedSplits.clear();
+            pendingAbortedSplits.clear();
         }
 
         // change to new value if old value is not changed and new value has a newer version
@@ -363,19 +526,28 @@ public class HttpRemoteTask
             errorRequestRateLimiter.acquire();
         }
 
+        // the plan is only sent until the worker has accepted an update
+        Optional<PlanFragment> fragment = sendPlan.get() ? Optional.of(planFragment) : Optional.<PlanFragment>absent();
         List<TaskSource> sources = getSources();
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(session,
-                planFragment,
+                fragment,
                 sources,
                 outputBuffers.get());
 
-        Request request = preparePost()
+        Request.Builder requestBuilder = preparePost()
                 .setUri(uriBuilderFrom(taskInfo.get().getSelf()).addParameter("summarize").build())
-                .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
-                .setBodyGenerator(jsonBodyGenerator(taskUpdateRequestCodec, updateRequest))
-                .build();
+                .setHeader(HttpHeaders.ACCEPT, getAcceptHeader());
+        if (smileEnabled) {
+            requestBuilder.setHeader(HttpHeaders.CONTENT_TYPE, JACKSON_SMILE_TYPE.toString())
+                    .setBodyGenerator(createStaticBodyGenerator(taskUpdateRequestSmileCodec.toSmile(updateRequest)));
+        }
+        else {
+            requestBuilder.setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
+                    .setBodyGenerator(jsonBodyGenerator(taskUpdateRequestCodec, updateRequest));
+        }
+        Request request = requestBuilder.build();
 
-        ListenableFuture<JsonResponse<TaskInfo>> future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        ListenableFuture<CodecResponse<TaskInfo>> future = httpClient.executeAsync(request, createFullCodecResponseHandler(taskInfoCodec, taskInfoSmileCodec));
         currentRequest = future;
         currentRequestStartNanos = System.nanoTime();
 
@@ -386,14 +558,29 @@ public class HttpRemoteTask
         Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources), request.getUri()), executor);
     }
 
+    private String getAcceptHeader()
+    {
+        // workers that cannot produce Smile answer with JSON, which the response handler also decodes
+        if (smileEnabled) {
+            return JACKSON_SMILE_TYPE + ", " + MediaType.JSON_UTF_8.withoutParameters() + ";q=0.5";
+        }
+        return MediaType.JSON_UTF_8.withoutParameters().toString();
+    }
+
     private synchronized List<TaskSource> getSources()
     {
         ImmutableList.Builder<TaskSource> sources = ImmutableList.builder();
         for (PlanNodeId planNodeId : planFragment.getSourceIds()) {
             Set<ScheduledSplit> splits = pendingSplits.get(planNodeId);
             boolean noMoreSplits = this.noMoreSplits.contains(planNodeId);
-            if (!splits.isEmpty() || noMoreSplits) {
-                sources.add(new TaskSource(planNodeId, splits, noMoreSplits));
+            Set<Long> committedSplits = ImmutableSet.of();
+            Set<Long> abortedSplits = ImmutableSet.of();
+            if (planNodeId.equals(planFragment.getPartitionedSource())) {
+                committedSplits = ImmutableSet.copyOf(pendingCommittedSplits);
+                abortedSplits = ImmutableSet.copyOf(pendingAbortedSplits);
+            }
+            if (!splits.isEmpty() || noMoreSplits || !committedSplits.isEmpty() || !abortedSplits.isEmpty()) {
+                sources.add(new TaskSource(planNodeId, splits, noMoreSplits, committedSplits, abortedSplits));
             }
         }
         return sources.build();
@@ -405,6 +592,7 @@ public class HttpRemoteTask
         try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
             // clear pending splits to free memory
             pendingSplits.clear();
+            partitionedSplits.clear();
 
             // cancel pending request
             if (currentRequest != null) {
@@ -464,9 +652,9 @@ public class HttpRemoteTask
     {
         try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
             updateTaskInfo(newValue);
-            lastSuccessfulRequest.set(System.nanoTime());
-            errorCount.set(0);
-            errorsSinceLastSuccess.clear();
+            taskStatus.set(null);
+            lastTaskInfoUpdate.set(System.nanoTime());
+            resetErrors();
 
             // remove acknowledged splits, which frees memory
             for (TaskSource source : sources) {
@@ -474,6 +662,8 @@ public class HttpRemoteTask
                 for (ScheduledSplit split : source.getSplits()) {
                     pendingSplits.remove(planNodeId, split);
                 }
+                pendingCommittedSplits.removeAll(source.getCommittedSplits());
+                pendingAbortedSplits.removeAll(source.getAbortedSplits());
             }
 
             if (continuousTaskInfoFetcher == null) {
@@ -483,6 +673,13 @@ public class HttpRemoteTask
         }
     }
 
+    private void resetErrors()
+    {
+        lastSuccessfulRequest.set(System.nanoTime());
+        errorCount.set(0);
+        errorsSinceLastSuccess.clear();
+    }
+
     private synchronized void requestFailed(Throwable reason)
     {
         // cancellation is not a failure
@@ -571,6 +768,8 @@ public class HttpRemoteTask
         {
             try (SetThreadName ignored = new SetThreadName("UpdateResponseHandler-%s", taskId)) {
                 try {
+                    // the worker has created the task execution, so the plan is no longer needed
+                    sendPlan.set(false);
                     requestSucceeded(value, sources);
                 }
                 finally {
@@ -605,18 +804,25 @@ public class HttpRemoteTask
     }
 
     /**
-     * Continuous update loop for task info.  Wait for a short period for task state to change, and
-     * if it does not, return the current state of the task.  This will cause stats to be updated at a
-     * regular interval, and state changes will be immediately recorded.
+     * Continuous update loop for task status.  The worker holds each status request until the status
+     * version changes or the refresh interval expires, so a task has a single outstanding request and
+     * a state change is seen as soon as it happens.  The full task info is only fetched when the state
+     * changes or the last info is older than the refresh interval.
      */
     private class ContinuousTaskInfoFetcher
-            implements SimpleHttpResponseCallback<TaskInfo>
+            implements SimpleHttpResponseCallback<TaskStatus>
     {
         @GuardedBy("this")
         private boolean running;
 
         @GuardedBy("this")
-        private ListenableFuture<JsonResponse<TaskInfo>> future;
+        private boolean taskInfoRequired;
+
+        @GuardedBy("this")
+        private long taskStatusVersion = TaskStatus.MIN_VERSION;
+
+        @GuardedBy("this")
+        private ListenableFuture<?> future;
 
         public synchronized void start()
         {
@@ -653,24 +859,67 @@ public class HttpRemoteTask
                     return;
                 }
 
+                if (taskInfoRequired || Duration.nanosSince(lastTaskInfoUpdate.get()).compareTo(taskInfoRefreshInterval) >= 0) {
+                    Request request = prepareGet()
+                            .setUri(uriBuilderFrom(taskInfo.getSelf()).addParameter("summarize").build())
+                            .setHeader(HttpHeaders.ACCEPT, getAcceptHeader())
+                            .build();
+
+                    ListenableFuture<CodecResponse<TaskInfo>> taskInfoFuture = httpClient.executeAsync(request, createFullCodecResponseHandler(taskInfoCodec, taskInfoSmileCodec));
+                    future = taskInfoFuture;
+                    Futures.addCallback(taskInfoFuture, new SimpleHttpResponseHandler<>(new TaskInfoResponseCallback(), request.getUri()), executor);
+                    return;
+                }
+
                 Request request = prepareGet()
-                        .setUri(uriBuilderFrom(taskInfo.getSelf()).addParameter("summarize").build())
-                        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
-                        .setHeader(PrestoHeaders.PRESTO_CURRENT_STATE, taskInfo.getState().toString())
-                        .setHeader(PrestoHeaders.PRESTO_MAX_WAIT, "200ms")
+                        .setUri(uriBuilderFrom(taskInfo.getSelf()).appendPath("status").build())
+                        .setHeader(HttpHeaders.ACCEPT, getAcceptHeader())
+                        .setHeader(PrestoHeaders.PRESTO_CURRENT_VERSION, String.valueOf(taskStatusVersion))
+                        .setHeader(PrestoHeaders.PRESTO_MAX_WAIT, taskInfoRefreshInterval.toString())
                         .build();
 
-                future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
-                Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri()), executor);
+                ListenableFuture<CodecResponse<TaskStatus>> taskStatusFuture = httpClient.executeAsync(request, createFullCodecResponseHandler(taskStatusCodec, taskStatusSmileCodec));
+                future = taskStatusFuture;
+                Futures.addCallback(taskStatusFuture, new SimpleHttpResponseHandler<>(this, request.getUri()), executor);
             }
         }
 
         @Override
-        public void success(TaskInfo value)
+        public void success(TaskStatus value)
         {
             try (SetThreadName ignored = new SetThreadName("ContinuousTaskInfoFetcher-%s", taskId)) {
                 synchronized (this) {
                     future = null;
+                    taskStatusVersion = Math.max(taskStatusVersion, value.getVersion());
+                    taskStatus.set(value);
+                    partitionedSplitThroughput = value.getPartitionedSplitThroughput();
+                    stagedSplits = value.getStagedSplits();
+                    stagedSplitMedianTime = value.getStagedSplitMedianTime();
+
+                    // a changed state is always followed by the full info, which carries the final stats and failures
+                    if (value.getState() != taskInfo.get().getState()) {
+                        taskInfoRequired = true;
+                    }
+                }
+
+                try {
+                    for (StateChangeListener<TaskStatus> statusListener : statusListeners) {
+                        statusListener.stateChanged(value);
+                    }
+                    resetErrors();
+                }
+                finally {
+                    scheduleNextRequest();
+                }
+            }
+        }
+
+        private void taskInfoSucceeded(TaskInfo value)
+        {
+            try (SetThreadName ignored = new SetThreadName("ContinuousTaskInfoFetcher-%s", taskId)) {
+                synchronized (this) {
+                    future = null;
+                    taskInfoRequired = false;
                 }
 
                 try {
@@ -712,10 +961,32 @@ public class HttpRemoteTask
                 failTask(cause);
             }
         }
+
+        private class TaskInfoResponseCallback
+                implements SimpleHttpResponseCallback<TaskInfo>
+        {
+            @Override
+            public void success(TaskInfo value)
+            {
+                taskInfoSucceeded(value);
+            }
+
+            @Override
+            public void failed(Throwable cause)
+            {
+                ContinuousTaskInfoFetcher.this.failed(cause);
+            }
+
+            @Override
+            public void fatal(Throwable cause)
+            {
+                ContinuousTaskInfoFetcher.this.fatal(cause);
+            }
+        }
     }
 
     public static class SimpleHttpResponseHandler<T>
-            implements FutureCallback<JsonResponse<T>>
+            implements FutureCallback<CodecResponse<T>>
     {
         private final SimpleHttpResponseCallback<T> callback;
 
@@ -728,7 +999,7 @@ public class HttpRemoteTask
         }
 
         @Override
-        public void onSuccess(JsonResponse<T> response)
+        public void onSuccess(CodecResponse<T> response)
         {
             try {
                 if (response.getStatusCode() == HttpStatus.OK.code() && response.hasValue()) {
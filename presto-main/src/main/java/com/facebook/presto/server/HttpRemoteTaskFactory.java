@@ -21,10 +21,12 @@ import com.facebook.presto.execution.RemoteTask;
 import com.facebook.presto.execution.RemoteTaskFactory;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskInfo;
+import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.operator.ForScheduler;
 import com.facebook.presto.sql.planner.PlanFragment;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Multimap;
 import io.airlift.concurrent.BoundedExecutor;
 import io.airlift.concurrent.ExecutorServiceAdapter;
@@ -40,6 +42,7 @@ import javax.inject.Inject;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
 
+import static com.facebook.presto.server.SmileCodec.smileCodec;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 
@@ -49,9 +52,15 @@ public class HttpRemoteTaskFactory
     private final HttpClient httpClient;
     private final LocationFactory locationFactory;
     private final JsonCodec<TaskInfo> taskInfoCodec;
+    private final JsonCodec<TaskStatus> taskStatusCodec;
     private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private final SmileCodec<TaskInfo> taskInfoSmileCodec;
+    private final SmileCodec<TaskStatus> taskStatusSmileCodec;
+    private final SmileCodec<TaskUpdateRequest> taskUpdateRequestSmileCodec;
+    private final boolean smileEnabled;
     private final int maxConsecutiveErrorCount;
     private final Duration minErrorDuration;
+    private final Duration taskInfoRefreshInterval;
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorMBean;
 
@@ -60,14 +69,22 @@ public class HttpRemoteTaskFactory
             @ForScheduler HttpClient httpClient,
             LocationFactory locationFactory,
             JsonCodec<TaskInfo> taskInfoCodec,
-            JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec)
+            JsonCodec<TaskStatus> taskStatusCodec,
+            JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
+            ObjectMapper objectMapper)
     {
         this.httpClient = httpClient;
         this.locationFactory = locationFactory;
         this.taskInfoCodec = taskInfoCodec;
+        this.taskStatusCodec = taskStatusCodec;
         this.taskUpdateRequestCodec = taskUpdateRequestCodec;
+        this.taskInfoSmileCodec = smileCodec(objectMapper, TaskInfo.class);
+        this.taskStatusSmileCodec = smileCodec(objectMapper, TaskStatus.class);
+        this.taskUpdateRequestSmileCodec = smileCodec(objectMapper, TaskUpdateRequest.class);
+        this.smileEnabled = config.isRemoteTaskSmileEnabled();
         this.maxConsecutiveErrorCount = config.getRemoteTaskMaxConsecutiveErrorCount();
         this.minErrorDuration = config.getRemoteTaskMinErrorDuration();
+        this.taskInfoRefreshInterval = config.getRemoteTaskInfoRefreshInterval();
         ExecutorService coreExecutor = newCachedThreadPool(daemonThreadsNamed("remote-task-callback-%d"));
         this.executor = ExecutorServiceAdapter.from(new BoundedExecutor(coreExecutor, config.getRemoteTaskMaxCallbackThreads()));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) coreExecutor);
@@ -99,8 +116,14 @@ public class HttpRemoteTaskFactory
                 executor,
                 maxConsecutiveErrorCount,
                 minErrorDuration,
+                taskInfoRefreshInterval,
                 taskInfoCodec,
-                taskUpdateRequestCodec
+                taskStatusCodec,
+                taskUpdateRequestCodec,
+                taskInfoSmileCodec,
+                taskStatusSmileCodec,
+                taskUpdateRequestSmileCodec,
+                smileEnabled
         );
     }
 }
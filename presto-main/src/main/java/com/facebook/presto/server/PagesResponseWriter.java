@@ -13,11 +13,8 @@
  */
 package com.facebook.presto.server;
 
-import com.facebook.presto.spi.Page;
 import com.facebook.presto.block.PagesSerde;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
-import com.google.common.base.Throwables;
-import com.google.common.reflect.TypeToken;
 import io.airlift.slice.OutputStreamSliceOutput;
 
 import javax.inject.Inject;
@@ -32,26 +29,15 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
-import java.util.List;
 
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
 
 @Provider
 @Produces(PRESTO_PAGES)
 public class PagesResponseWriter
-        implements MessageBodyWriter<List<Page>>
+        implements MessageBodyWriter<SerializablePages>
 {
     private static final MediaType PRESTO_PAGES_TYPE = MediaType.valueOf(PRESTO_PAGES);
-    private static final Type LIST_GENERIC_TOKEN;
-
-    static {
-        try {
-            LIST_GENERIC_TOKEN = List.class.getMethod("get", int.class).getGenericReturnType();
-        }
-        catch (NoSuchMethodException e) {
-            throw Throwables.propagate(e);
-        }
-    }
 
     private final BlockEncodingSerde blockEncodingSerde;
 
@@ -64,19 +50,17 @@ public class PagesResponseWriter
     @Override
     public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
     {
-        return List.class.isAssignableFrom(type) &&
-                TypeToken.of(genericType).resolveType(LIST_GENERIC_TOKEN).getRawType().equals(Page.class) &&
-                mediaType.isCompatible(PRESTO_PAGES_TYPE);
+        return SerializablePages.class.isAssignableFrom(type) && mediaType.isCompatible(PRESTO_PAGES_TYPE);
     }
 
     @Override
-    public long getSize(List<Page> pages, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+    public long getSize(SerializablePages pages, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
     {
         return -1;
     }
 
     @Override
-    public void writeTo(List<Page> pages,
+    public void writeTo(SerializablePages pages,
             Class<?> type,
             Type genericType,
             Annotation[] annotations,
@@ -85,6 +69,6 @@ public class PagesResponseWriter
             OutputStream output)
             throws IOException, WebApplicationException
     {
-        PagesSerde.writePages(blockEncodingSerde, new OutputStreamSliceOutput(output), pages);
+        PagesSerde.writePages(blockEncodingSerde, pages.getCompression(), new OutputStreamSliceOutput(output), pages.getPages(), pages.getTransferStats());
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.block.PagesCompression;
+import com.facebook.presto.block.PagesTransferStats;
+import com.facebook.presto.spi.Page;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Pages of a task results response, with the compression negotiated for the request and
+ * the stats of the buffer the pages were taken from.
+ */
+public class SerializablePages
+{
+    private final List<Page> pages;
+    private final PagesCompression compression;
+    private final PagesTransferStats transferStats;
+
+    public SerializablePages(List<Page> pages, PagesCompression compression, PagesTransferStats transferStats)
+    {
+        this.pages = ImmutableList.copyOf(checkNotNull(pages, "pages is null"));
+        this.compression = checkNotNull(compression, "compression is null");
+        this.transferStats = checkNotNull(transferStats, "transferStats is null");
+    }
+
+    public List<Page> getPages()
+    {
+        return pages;
+    }
+
+    public PagesCompression getCompression()
+    {
+        return compression;
+    }
+
+    public PagesTransferStats getTransferStats()
+    {
+        return transferStats;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Encodes objects with Smile, the binary form of JSON. The objects are mapped by the same
+ * {@link ObjectMapper} as the JSON codecs, so every type that can be sent as JSON can be
+ * sent as Smile.
+ */
+public class SmileCodec<T>
+{
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+    private final ObjectMapper objectMapper;
+    private final JavaType type;
+
+    public static <T> SmileCodec<T> smileCodec(ObjectMapper objectMapper, Class<T> type)
+    {
+        return new SmileCodec<>(objectMapper, type);
+    }
+
+    private SmileCodec(ObjectMapper objectMapper, Type type)
+    {
+        this.objectMapper = checkNotNull(objectMapper, "objectMapper is null");
+        this.type = objectMapper.getTypeFactory().constructType(checkNotNull(type, "type is null"));
+    }
+
+    public T fromSmile(byte[] smile)
+    {
+        try (JsonParser parser = SMILE_FACTORY.createParser(smile)) {
+            return readValue(objectMapper, parser, type);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Invalid Smile data for " + type, e);
+        }
+    }
+
+    public byte[] toSmile(T instance)
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            writeValue(objectMapper, output, instance);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Cannot encode " + type + " with Smile", e);
+        }
+        return output.toByteArray();
+    }
+
+    static Object readValue(ObjectMapper objectMapper, InputStream input, Type type)
+            throws IOException
+    {
+        // the parser must not close the input, which belongs to the caller
+        JsonParser parser = SMILE_FACTORY.createParser(input);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return readValue(objectMapper, parser, objectMapper.getTypeFactory().constructType(type));
+    }
+
+    static void writeValue(ObjectMapper objectMapper, OutputStream output, Object value)
+            throws IOException
+    {
+        // the generator must not close the output, which belongs to the caller
+        JsonGenerator generator = SMILE_FACTORY.createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setCodec(objectMapper);
+        objectMapper.writeValue(generator, value);
+        generator.close();
+    }
+
+    private static <T> T readValue(ObjectMapper objectMapper, JsonParser parser, JavaType type)
+            throws IOException
+    {
+        parser.setCodec(objectMapper);
+        return objectMapper.readValue(parser, type);
+    }
+}
@@ -13,16 +13,17 @@
  */
 package com.facebook.presto.server;
 
+import com.facebook.presto.block.PagesCompression;
 import com.facebook.presto.execution.BufferResult;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.execution.TaskManager;
 import com.facebook.presto.execution.TaskState;
+import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.util.MoreFutures;
 import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
-import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
@@ -41,9 +42,9 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
-import javax.ws.rs.core.GenericEntity;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
@@ -51,9 +52,12 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ScheduledExecutorService;
 
+import static com.facebook.presto.PrestoMediaTypes.APPLICATION_JACKSON_SMILE;
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_STATE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_VERSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_WAIT;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
 import static com.facebook.presto.execution.TaskInfo.summarizeTaskInfo;
@@ -95,8 +99,8 @@ public class TaskResource
 
     @POST
     @Path("{taskId}")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     public Response createOrUpdateTask(@PathParam("taskId") TaskId taskId, TaskUpdateRequest taskUpdateRequest, @Context UriInfo uriInfo)
     {
         checkNotNull(taskUpdateRequest, "taskUpdateRequest is null");
@@ -116,7 +120,7 @@ public class TaskResource
 
     @GET
     @Path("{taskId}")
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
     public void getTaskInfo(@PathParam("taskId") final TaskId taskId,
             @HeaderParam(PRESTO_CURRENT_STATE) TaskState currentState,
             @HeaderParam(PRESTO_MAX_WAIT) Duration maxWait,
@@ -164,6 +168,41 @@ public class TaskResource
                 .withTimeout(timeout);
     }
 
+    @GET
+    @Path("{taskId}/status")
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_JACKSON_SMILE})
+    public void getTaskStatus(@PathParam("taskId") final TaskId taskId,
+            @HeaderParam(PRESTO_CURRENT_VERSION) Long currentVersion,
+            @HeaderParam(PRESTO_MAX_WAIT) Duration maxWait,
+            @Suspended AsyncResponse asyncResponse)
+    {
+        checkNotNull(taskId, "taskId is null");
+
+        // the request is held until the status changes, so an unchanged task costs one request per max wait
+        if (currentVersion == null || maxWait == null) {
+            asyncResponse.resume(taskManager.getTaskStatus(taskId));
+            return;
+        }
+
+        ListenableFuture<TaskStatus> futureTaskStatus = MoreFutures.addTimeout(
+                taskManager.getTaskStatus(taskId, currentVersion),
+                new Callable<TaskStatus>()
+                {
+                    @Override
+                    public TaskStatus call()
+                    {
+                        return taskManager.getTaskStatus(taskId);
+                    }
+                },
+                maxWait,
+                executor);
+
+        // For hard timeout, add an additional 5 seconds to max wait for thread scheduling contention and GC
+        Duration timeout = new Duration(maxWait.toMillis() + 5000, MILLISECONDS);
+        bindAsyncResponse(asyncResponse, futureTaskStatus, executor)
+                .withTimeout(timeout);
+    }
+
     @DELETE
     @Path("{taskId}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -184,12 +223,16 @@ public class TaskResource
     public void getResults(@PathParam("taskId") TaskId taskId,
             @PathParam("outputId") TaskId outputId,
             @PathParam("token") final long token,
+            @HeaderParam(PRESTO_PAGE_COMPRESSION) String compressionHeader,
             @Suspended AsyncResponse asyncResponse)
             throws InterruptedException
     {
         checkNotNull(taskId, "taskId is null");
         checkNotNull(outputId, "outputId is null");
 
+        // peers that do not send the header get uncompressed pages
+        final PagesCompression compression = PagesCompression.fromHeader(compressionHeader);
+
         ListenableFuture<BufferResult> bufferResultFuture = taskManager.getTaskResults(taskId, outputId, token, DEFAULT_MAX_SIZE);
         bufferResultFuture = MoreFutures.addTimeout(
                 bufferResultFuture,
@@ -211,10 +254,10 @@ public class TaskResource
             {
                 List<Page> pages = result.getPages();
 
-                GenericEntity<?> entity = null;
+                SerializablePages entity = null;
                 Status status;
                 if (!pages.isEmpty()) {
-                    entity = new GenericEntity<>(pages, new TypeToken<List<Page>>() {}.getType());
+                    entity = new SerializablePages(pages, compression, result.getTransferStats());
                     status = Status.OK;
                 }
                 else if (result.isBufferClosed()) {
@@ -224,11 +267,14 @@ public class TaskResource
                     status = Status.NO_CONTENT;
                 }
 
-                return Response.status(status)
+                ResponseBuilder response = Response.status(status)
                         .entity(entity)
                         .header(PRESTO_PAGE_TOKEN, result.getToken())
-                        .header(PRESTO_PAGE_NEXT_TOKEN, result.getNextToken())
-                        .build();
+                        .header(PRESTO_PAGE_NEXT_TOKEN, result.getNextToken());
+                if (entity != null && compression != PagesCompression.NONE) {
+                    response.header(PRESTO_PAGE_COMPRESSION, compression.name());
+                }
+                return response.build();
             }
         });
 
@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+import com.google.common.io.CountingOutputStream;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.facebook.presto.block.PagesSerde.readPages;
+import static com.facebook.presto.block.PagesSerde.writePages;
+import static com.facebook.presto.spi.StandardErrorCode.INTERNAL_ERROR;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Appends all runs to a single spill file using the same serialized page format as the exchange.
+ * A run is only opened for reading when its iterator is first used, and closed once it is read.
+ */
+@NotThreadSafe
+public class BinaryFileSpiller
+        implements Spiller
+{
+    private static final String SPILL_FILE_PREFIX = "spill";
+    private static final String SPILL_FILE_SUFFIX = ".bin";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Path spillPath;
+    private final SpillSpaceTracker spillSpaceTracker;
+
+    private final List<SpillRun> spillRuns = new ArrayList<>();
+    private final Closer closer = Closer.create();
+    private Path spillFile;
+    private CountingOutputStream spillFileSize;
+    private OutputStreamSliceOutput output;
+    private long spilledBytes;
+    private boolean closed;
+
+    public BinaryFileSpiller(BlockEncodingSerde blockEncodingSerde, Path spillPath, SpillSpaceTracker spillSpaceTracker)
+    {
+        this.blockEncodingSerde = checkNotNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.spillPath = checkNotNull(spillPath, "spillPath is null");
+        this.spillSpaceTracker = checkNotNull(spillSpaceTracker, "spillSpaceTracker is null");
+    }
+
+    @Override
+    public long spill(Iterator<Page> pageIterator)
+    {
+        checkState(!closed, "Spiller is closed");
+        checkNotNull(pageIterator, "pageIterator is null");
+
+        if (output == null) {
+            openSpillFile();
+        }
+
+        long runStart = spillFileSize.getCount();
+        long runBytes = 0;
+        try {
+            while (pageIterator.hasNext()) {
+                writePages(blockEncodingSerde, output, pageIterator.next());
+
+                // account for the bytes as they are produced so a runaway spill fails before filling the disk
+                long written = spillFileSize.getCount() - runStart;
+                spillSpaceTracker.reserve(written - runBytes);
+                spilledBytes += written - runBytes;
+                runBytes = written;
+            }
+            // the run must be readable as soon as it is complete
+            output.flush();
+        }
+        catch (IOException e) {
+            throw new PrestoException(INTERNAL_ERROR, "Failed to write spill file " + spillFile, e);
+        }
+        spillRuns.add(new SpillRun(runStart, runBytes));
+        return runBytes;
+    }
+
+    @Override
+    public List<Iterator<Page>> getSpills()
+    {
+        checkState(!closed, "Spiller is closed");
+
+        ImmutableList.Builder<Iterator<Page>> spills = ImmutableList.builder();
+        for (SpillRun spillRun : spillRuns) {
+            spills.add(new SpillRunIterator(spillRun));
+        }
+        return spills.build();
+    }
+
+    @Override
+    public long getSpilledBytes()
+    {
+        return spilledBytes;
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            closer.close();
+            if (spillFile != null) {
+                Files.deleteIfExists(spillFile);
+            }
+        }
+        catch (IOException e) {
+            throw new PrestoException(INTERNAL_ERROR, "Failed to delete spill file " + spillFile, e);
+        }
+        finally {
+            spillSpaceTracker.free(spilledBytes);
+        }
+    }
+
+    private void openSpillFile()
+    {
+        try {
+            Files.createDirectories(spillPath);
+            spillFile = Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX);
+            // count the bytes here, as the slice output can not report a file size beyond 2GB
+            spillFileSize = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(spillFile), BUFFER_SIZE));
+            output = closer.register(new OutputStreamSliceOutput(spillFileSize));
+        }
+        catch (IOException e) {
+            throw new PrestoException(INTERNAL_ERROR, "Failed to create spill file in " + spillPath, e);
+        }
+    }
+
+    // runs are opened lazily, possibly by readers in other threads, so guard the closer
+    private synchronized SliceInput openSpillRun(SpillRun spillRun)
+    {
+        checkState(!closed, "Spiller is closed");
+        try {
+            SeekableByteChannel channel = Files.newByteChannel(spillFile);
+            channel.position(spillRun.getOffset());
+            InputStream input = ByteStreams.limit(Channels.newInputStream(channel), spillRun.getLength());
+            return closer.register(new InputStreamSliceInput(new BufferedInputStream(input, BUFFER_SIZE)));
+        }
+        catch (IOException e) {
+            throw new PrestoException(INTERNAL_ERROR, "Failed to read spill file " + spillFile, e);
+        }
+    }
+
+    private static class SpillRun
+    {
+        private final long offset;
+        private final long length;
+
+        private SpillRun(long offset, long length)
+        {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public long getLength()
+        {
+            return length;
+        }
+    }
+
+    private class SpillRunIterator
+            extends AbstractIterator<Page>
+    {
+        private final SpillRun spillRun;
+        private SliceInput input;
+        private Iterator<Page> pages;
+
+        private SpillRunIterator(SpillRun spillRun)
+        {
+            this.spillRun = spillRun;
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (pages == null) {
+                input = openSpillRun(spillRun);
+                pages = readPages(blockEncodingSerde, input);
+            }
+            if (pages.hasNext()) {
+                return pages.next();
+            }
+            // release the file handle as soon as the run is consumed
+            input.close();
+            return endOfData();
+        }
+    }
+}
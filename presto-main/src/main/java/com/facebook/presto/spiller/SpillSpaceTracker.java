@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.PrestoException;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.facebook.presto.spi.StandardErrorCode.EXCEEDED_SPILL_LIMIT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.String.format;
+
+@ThreadSafe
+public class SpillSpaceTracker
+{
+    private final long maxBytes;
+    private final AtomicLong currentBytes = new AtomicLong();
+
+    public SpillSpaceTracker(DataSize maxSize)
+    {
+        this.maxBytes = checkNotNull(maxSize, "maxSize is null").toBytes();
+    }
+
+    public void reserve(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        long newBytes = currentBytes.addAndGet(bytes);
+        if (newBytes > maxBytes) {
+            currentBytes.addAndGet(-bytes);
+            throw new PrestoException(EXCEEDED_SPILL_LIMIT, format("Worker exceeded max spill size of %s", new DataSize(maxBytes, DataSize.Unit.BYTE).convertToMostSuccinctDataSize()));
+        }
+    }
+
+    public void free(long bytes)
+    {
+        checkArgument(bytes >= 0, "bytes is negative");
+        currentBytes.addAndGet(-bytes);
+    }
+
+    public long getCurrentBytes()
+    {
+        return currentBytes.get();
+    }
+
+    public long getMaxBytes()
+    {
+        return maxBytes;
+    }
+}
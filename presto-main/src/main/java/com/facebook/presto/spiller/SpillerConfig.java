@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+import io.airlift.units.DataSize.Unit;
+
+import javax.validation.constraints.NotNull;
+
+import java.io.File;
+
+public class SpillerConfig
+{
+    private boolean spillEnabled;
+    private File spillPath = new File(System.getProperty("java.io.tmpdir"), "presto-spill");
+    private DataSize maxSpillSize = new DataSize(100, Unit.GIGABYTE);
+
+    public boolean isSpillEnabled()
+    {
+        return spillEnabled;
+    }
+
+    @Config("experimental.spill-enabled")
+    @ConfigDescription("Spill operator state to local disk when the task runs out of memory")
+    public SpillerConfig setSpillEnabled(boolean spillEnabled)
+    {
+        this.spillEnabled = spillEnabled;
+        return this;
+    }
+
+    @NotNull
+    public File getSpillPath()
+    {
+        return spillPath;
+    }
+
+    @Config("experimental.spill-path")
+    @ConfigDescription("Local directory used for spill files")
+    public SpillerConfig setSpillPath(File spillPath)
+    {
+        this.spillPath = spillPath;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxSpillSize()
+    {
+        return maxSpillSize;
+    }
+
+    @Config("experimental.max-spill-size")
+    @ConfigDescription("Maximum amount of spilled data held on local disk by this worker")
+    public SpillerConfig setMaxSpillSize(DataSize maxSpillSize)
+    {
+        this.maxSpillSize = maxSpillSize;
+        return this;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import org.weakref.jmx.Managed;
+
+import javax.inject.Inject;
+
+import java.nio.file.Path;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class SpillerFactory
+{
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Path spillPath;
+    private final boolean spillEnabled;
+    private final SpillSpaceTracker spillSpaceTracker;
+
+    @Inject
+    public SpillerFactory(BlockEncodingSerde blockEncodingSerde, SpillerConfig config)
+    {
+        this.blockEncodingSerde = checkNotNull(blockEncodingSerde, "blockEncodingSerde is null");
+        checkNotNull(config, "config is null");
+        this.spillPath = config.getSpillPath().toPath();
+        this.spillEnabled = config.isSpillEnabled();
+        this.spillSpaceTracker = new SpillSpaceTracker(config.getMaxSpillSize());
+    }
+
+    public boolean isSpillEnabled()
+    {
+        return spillEnabled;
+    }
+
+    public Spiller create()
+    {
+        return new BinaryFileSpiller(blockEncodingSerde, spillPath, spillSpaceTracker);
+    }
+
+    @Managed
+    public long getSpilledBytes()
+    {
+        return spillSpaceTracker.getCurrentBytes();
+    }
+
+    @Managed
+    public long getMaxSpilledBytes()
+    {
+        return spillSpaceTracker.getMaxBytes();
+    }
+}
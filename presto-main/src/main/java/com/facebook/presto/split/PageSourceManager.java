@@ -20,6 +20,7 @@ import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
+import com.facebook.presto.spi.TupleDomain;
 import com.google.common.collect.Lists;
 
 import javax.inject.Inject;
@@ -29,6 +30,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import static com.facebook.presto.metadata.ColumnHandle.connectorHandleGetter;
+import static com.facebook.presto.metadata.Util.toConnectorDomain;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -59,6 +61,18 @@ public class PageSourceManager
         return getPageSourceProvider(split).createPageSource(split.getConnectorSplit(), handles);
     }
 
+    @Override
+    public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        checkNotNull(split, "split is null");
+        checkNotNull(columns, "columns is null");
+        checkNotNull(dynamicFilter, "dynamicFilter is null");
+
+        List<ConnectorColumnHandle> handles = Lists.transform(columns, connectorHandleGetter());
+
+        return getPageSourceProvider(split).createPageSource(split.getConnectorSplit(), handles, toConnectorDomain(dynamicFilter));
+    }
+
     private ConnectorPageSourceProvider getPageSourceProvider(Split split)
     {
         ConnectorPageSourceProvider provider = pageSourceProviders.get(split.getConnectorId());
@@ -19,6 +19,7 @@ import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorRecordSetProvider;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.TupleDomain;
 
 import java.util.List;
 
@@ -39,4 +40,10 @@ public class RecordPageSourceProvider
     {
         return new RecordPageSource(recordSetProvider.getRecordSet(split, columns));
     }
+
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns, TupleDomain<ConnectorColumnHandle> dynamicFilter)
+    {
+        return createPageSource(split, columns);
+    }
 }
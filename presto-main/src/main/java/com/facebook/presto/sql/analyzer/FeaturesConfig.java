@@ -14,7 +14,13 @@
 package com.facebook.presto.sql.analyzer;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.LegacyConfig;
+import io.airlift.units.DataSize;
+
+import javax.validation.constraints.NotNull;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class FeaturesConfig
 {
@@ -23,6 +29,8 @@ public class FeaturesConfig
     private boolean distributedJoinsEnabled;
     private boolean optimizeMetadataQueries;
     private boolean optimizeHashGeneration;
+    private boolean reorderJoins;
+    private DataSize maxReplicatedJoinSize = new DataSize(100, MEGABYTE);
 
     @LegacyConfig("analyzer.experimental-syntax-enabled")
     @Config("experimental-syntax-enabled")
@@ -84,4 +92,31 @@ public class FeaturesConfig
         this.optimizeHashGeneration = optimizeHashGeneration;
         return this;
     }
+
+    public boolean isReorderJoins()
+    {
+        return reorderJoins;
+    }
+
+    @Config("optimizer.reorder-joins")
+    @ConfigDescription("Reorder inner joins and choose their distribution based on table statistics")
+    public FeaturesConfig setReorderJoins(boolean reorderJoins)
+    {
+        this.reorderJoins = reorderJoins;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxReplicatedJoinSize()
+    {
+        return maxReplicatedJoinSize;
+    }
+
+    @Config("optimizer.max-replicated-join-size")
+    @ConfigDescription("Largest estimated build side of a join that is sent to every node instead of being hash partitioned")
+    public FeaturesConfig setMaxReplicatedJoinSize(DataSize maxReplicatedJoinSize)
+    {
+        this.maxReplicatedJoinSize = maxReplicatedJoinSize;
+        return this;
+    }
 }
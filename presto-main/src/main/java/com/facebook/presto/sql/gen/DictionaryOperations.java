@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.type.Type;
+
+import javax.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Memoizes filters and projections that read a single dictionary encoded channel, so each is
+ * evaluated once per dictionary entry used by a page instead of once per position. A run length
+ * encoded channel is treated as a dictionary with a single entry. A memo is null when the channel
+ * is not encoded this way, and every method then falls back to evaluation.
+ */
+// This methods are statically bound by the compiler
+@SuppressWarnings("UnusedDeclaration")
+public final class DictionaryOperations
+{
+    private static final byte UNKNOWN = 0;
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+
+    private DictionaryOperations()
+    {
+    }
+
+    @Nullable
+    public static byte[] createFilterMemo(Block block, int start, int end)
+    {
+        if (!isMemoizable(block, start, end)) {
+            return null;
+        }
+        return new byte[getDictionarySize(block)];
+    }
+
+    public static boolean isFilterMemoized(@Nullable byte[] memo, Block block, int position)
+    {
+        return memo != null && memo[getId(block, position)] != UNKNOWN;
+    }
+
+    public static boolean getMemoizedFilter(byte[] memo, Block block, int position)
+    {
+        return memo[getId(block, position)] == TRUE;
+    }
+
+    public static boolean memoizeFilter(@Nullable byte[] memo, Block block, int position, boolean value)
+    {
+        if (memo != null) {
+            memo[getId(block, position)] = value ? TRUE : FALSE;
+        }
+        return value;
+    }
+
+    @Nullable
+    public static int[] createProjectionMemo(Block block, int start, int end)
+    {
+        if (!isMemoizable(block, start, end)) {
+            return null;
+        }
+        int[] memo = new int[getDictionarySize(block)];
+        Arrays.fill(memo, -1);
+        return memo;
+    }
+
+    public static boolean isProjectionMemoized(@Nullable int[] memo, Block block, int position)
+    {
+        return memo != null && memo[getId(block, position)] >= 0;
+    }
+
+    /**
+     * Appends the value projected for an earlier position with the same dictionary entry.
+     */
+    public static void appendMemoizedProjection(Type type, int[] memo, Block block, int position, BlockBuilder output)
+    {
+        type.appendTo(output, memo[getId(block, position)], output);
+    }
+
+    /**
+     * Records the output position the projection of the specified position is about to be written to.
+     */
+    public static void memoizeProjection(@Nullable int[] memo, Block block, int position, BlockBuilder output)
+    {
+        if (memo != null) {
+            memo[getId(block, position)] = output.getPositionCount();
+        }
+    }
+
+    private static boolean isMemoizable(Block block, int start, int end)
+    {
+        if (block instanceof RunLengthEncodedBlock) {
+            return true;
+        }
+        // a dictionary larger than the page would cost more to memoize than to evaluate
+        return block instanceof DictionaryBlock && ((DictionaryBlock) block).getDictionary().getPositionCount() <= end - start;
+    }
+
+    private static int getDictionarySize(Block block)
+    {
+        if (block instanceof RunLengthEncodedBlock) {
+            return 1;
+        }
+        return ((DictionaryBlock) block).getDictionary().getPositionCount();
+    }
+
+    private static int getId(Block block, int position)
+    {
+        if (block instanceof RunLengthEncodedBlock) {
+            return 0;
+        }
+        return ((DictionaryBlock) block).getId(position);
+    }
+}
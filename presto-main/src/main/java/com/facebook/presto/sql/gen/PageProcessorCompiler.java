@@ -24,6 +24,7 @@ import com.facebook.presto.byteCode.Variable;
 import com.facebook.presto.byteCode.control.ForLoop;
 import com.facebook.presto.byteCode.control.IfStatement;
 import com.facebook.presto.byteCode.instruction.LabelNode;
+import com.facebook.presto.metadata.FunctionInfo;
 import com.facebook.presto.metadata.Metadata;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
@@ -41,6 +42,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Primitives;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.TreeSet;
 
@@ -70,7 +72,7 @@ public class PageProcessorCompiler
     @Override
     public void generateMethods(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, RowExpression filter, List<RowExpression> projections)
     {
-        generateProcessMethod(classDefinition, filter, projections);
+        generateProcessMethod(classDefinition, callSiteBinder, filter, projections);
         generateFilterMethod(classDefinition, callSiteBinder, filter);
 
         for (int i = 0; i < projections.size(); i++) {
@@ -78,7 +80,7 @@ public class PageProcessorCompiler
         }
     }
 
-    private void generateProcessMethod(ClassDefinition classDefinition, RowExpression filter, List<RowExpression> projections)
+    private void generateProcessMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, RowExpression filter, List<RowExpression> projections)
     {
         CompilerContext context = new CompilerContext(BOOTSTRAP_METHOD);
         MethodDefinition method = classDefinition.declareMethod(context,
@@ -115,6 +117,38 @@ public class PageProcessorCompiler
                     .putVariable(blockVariable);
         }
 
+        // expressions of a single dictionary encoded channel are evaluated once per dictionary entry
+        Variable filterMemoVariable = null;
+        if (isMemoizable(filter)) {
+            filterMemoVariable = context.declareVariable(byte[].class, "filterMemo");
+            method.getBody().append(createMemo(context, "createFilterMemo", byte[].class, getInputChannels(filter).get(0), filterMemoVariable, startVariable, endVariable));
+        }
+        Variable[] projectionMemoVariables = new Variable[projections.size()];
+        for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+            RowExpression projection = projections.get(projectionIndex);
+            if (isMemoizable(projection) && !(projection instanceof InputReferenceExpression)) {
+                projectionMemoVariables[projectionIndex] = context.declareVariable(int[].class, "projectionMemo_" + projectionIndex);
+                method.getBody().append(createMemo(context, "createProjectionMemo", int[].class, getInputChannels(projection).get(0), projectionMemoVariables[projectionIndex], startVariable, endVariable));
+            }
+        }
+
+        // when the filter is evaluated ahead of the projections, unloaded lazy blocks read only by
+        // the projections are loaded for the selected positions alone
+        List<Integer> filterChannels = getInputChannels(filter);
+        List<Integer> lateChannels = new ArrayList<>(getInputChannels(projections));
+        lateChannels.removeAll(filterChannels);
+        Variable selectedPositionsVariable = null;
+        Variable filterEvaluatedVariable = null;
+        if (!filterChannels.isEmpty() && !lateChannels.isEmpty() && isDeterministic(filter)) {
+            selectedPositionsVariable = context.declareVariable(SelectedPositions.class, "selectedPositions");
+            filterEvaluatedVariable = context.declareVariable(boolean.class, "filterEvaluated");
+            method.getBody()
+                    .pushNull()
+                    .putVariable(selectedPositionsVariable)
+                    .putVariable(filterEvaluatedVariable, false)
+                    .append(generateSelectPositions(context, classDefinition, filter, lateChannels, filterMemoVariable, selectedPositionsVariable, filterEvaluatedVariable));
+        }
+
         //
         // for loop loop body
         //
@@ -144,19 +178,17 @@ public class PageProcessorCompiler
         IfStatementBuilder filterBlock = new IfStatementBuilder(context);
 
         Block trueBlock = new Block(context);
-        filterBlock.condition(new Block(context)
-                .pushThis()
-                .getVariable(sessionVariable)
-                .append(pushBlockVariables(context, getInputChannels(filter)))
-                .getVariable(positionVariable)
-                .invokeVirtual(classDefinition.getType(),
-                        "filter",
-                        type(boolean.class),
-                        ImmutableList.<ParameterizedType>builder()
-                                .add(type(ConnectorSession.class))
-                                .addAll(nCopies(getInputChannels(filter).size(), type(com.facebook.presto.spi.block.Block.class)))
-                                .add(type(int.class))
-                                .build()))
+        ByteCodeNode filterCall = generateFilterCall(context, classDefinition, filter, positionVariable, filterMemoVariable);
+        if (selectedPositionsVariable != null) {
+            filterCall = new IfStatement(context,
+                    new Block(context).getVariable(filterEvaluatedVariable),
+                    new Block(context)
+                            .getVariable(selectedPositionsVariable)
+                            .getVariable(positionVariable)
+                            .invokeVirtual(SelectedPositions.class, "isSelected", boolean.class, int.class),
+                    filterCall);
+        }
+        filterBlock.condition(filterCall)
                 .ifTrue(trueBlock);
 
         if (projections.size() == 0) {
@@ -167,17 +199,22 @@ public class PageProcessorCompiler
             for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
                 List<Integer> inputChannels = getInputChannels(projections.get(projectionIndex));
 
-                trueBlock.pushThis()
+                Block projectBlock = new Block(context);
+                Variable projectionMemoVariable = projectionMemoVariables[projectionIndex];
+                if (projectionMemoVariable != null) {
+                    projectBlock.append(pushMemoArguments(context, projectionMemoVariable, "block_" + inputChannels.get(0), positionVariable))
+                            .append(getBlockBuilder(context, pageBuilderVariable, projectionIndex))
+                            .invokeStatic(DictionaryOperations.class, "memoizeProjection", void.class, int[].class, com.facebook.presto.spi.block.Block.class, int.class, BlockBuilder.class);
+                }
+
+                projectBlock.pushThis()
                         .getVariable(sessionVariable)
                         .append(pushBlockVariables(context, inputChannels))
                         .getVariable(positionVariable);
 
-                trueBlock.comment("pageBuilder.getBlockBuilder(" + projectionIndex + ")")
-                        .getVariable(pageBuilderVariable)
-                        .push(projectionIndex)
-                        .invokeVirtual(PageBuilder.class, "getBlockBuilder", BlockBuilder.class, int.class);
+                projectBlock.append(getBlockBuilder(context, pageBuilderVariable, projectionIndex));
 
-                trueBlock.comment("project_" + projectionIndex + "(session, block_" + inputChannels + ", position, blockBuilder)")
+                projectBlock.comment("project_" + projectionIndex + "(session, block_" + inputChannels + ", position, blockBuilder)")
                         .invokeVirtual(classDefinition.getType(),
                                 "project_" + projectionIndex,
                                 type(void.class),
@@ -187,6 +224,23 @@ public class PageProcessorCompiler
                                         .add(type(int.class))
                                         .add(type(BlockBuilder.class))
                                         .build());
+
+                if (projectionMemoVariable == null) {
+                    trueBlock.append(projectBlock);
+                }
+                else {
+                    String blockName = "block_" + inputChannels.get(0);
+                    Block appendMemoizedBlock = pushMemoArguments(context, projectionMemoVariable, blockName, positionVariable)
+                            .append(getBlockBuilder(context, pageBuilderVariable, projectionIndex))
+                            .invokeStatic(DictionaryOperations.class, "appendMemoizedProjection", void.class, Type.class, int[].class, com.facebook.presto.spi.block.Block.class, int.class, BlockBuilder.class);
+                    trueBlock.append(new IfStatement(context,
+                            pushMemoArguments(context, projectionMemoVariable, blockName, positionVariable)
+                                    .invokeStatic(DictionaryOperations.class, "isProjectionMemoized", boolean.class, int[].class, com.facebook.presto.spi.block.Block.class, int.class),
+                            new Block(context)
+                                    .append(loadConstant(context, callSiteBinder.bind(projections.get(projectionIndex).getType(), Type.class)))
+                                    .append(appendMemoizedBlock),
+                            projectBlock));
+                }
             }
         }
         loopBody.append(filterBlock.build());
@@ -199,6 +253,98 @@ public class PageProcessorCompiler
                 .retInt();
     }
 
+    private static ByteCodeNode generateFilterCall(CompilerContext context, ClassDefinition classDefinition, RowExpression filter, Variable positionVariable, Variable filterMemoVariable)
+    {
+        ByteCodeNode filterCall = new Block(context)
+                .pushThis()
+                .getVariable("session")
+                .append(pushBlockVariables(context, getInputChannels(filter)))
+                .getVariable(positionVariable)
+                .invokeVirtual(classDefinition.getType(),
+                        "filter",
+                        type(boolean.class),
+                        ImmutableList.<ParameterizedType>builder()
+                                .add(type(ConnectorSession.class))
+                                .addAll(nCopies(getInputChannels(filter).size(), type(com.facebook.presto.spi.block.Block.class)))
+                                .add(type(int.class))
+                                .build());
+        if (filterMemoVariable != null) {
+            String blockName = "block_" + getInputChannels(filter).get(0);
+            filterCall = new IfStatement(context,
+                    pushMemoArguments(context, filterMemoVariable, blockName, positionVariable)
+                            .invokeStatic(DictionaryOperations.class, "isFilterMemoized", boolean.class, byte[].class, com.facebook.presto.spi.block.Block.class, int.class),
+                    pushMemoArguments(context, filterMemoVariable, blockName, positionVariable)
+                            .invokeStatic(DictionaryOperations.class, "getMemoizedFilter", boolean.class, byte[].class, com.facebook.presto.spi.block.Block.class, int.class),
+                    pushMemoArguments(context, filterMemoVariable, blockName, positionVariable)
+                            .append(filterCall)
+                            .invokeStatic(DictionaryOperations.class, "memoizeFilter", boolean.class, byte[].class, com.facebook.presto.spi.block.Block.class, int.class, boolean.class));
+        }
+        return filterCall;
+    }
+
+    private static ByteCodeNode generateSelectPositions(
+            CompilerContext context,
+            ClassDefinition classDefinition,
+            RowExpression filter,
+            List<Integer> lateChannels,
+            Variable filterMemoVariable,
+            Variable selectedPositionsVariable,
+            Variable filterEvaluatedVariable)
+    {
+        Variable positionVariable = context.declareVariable(int.class, "selectPosition");
+
+        Block isLoadPending = new Block(context)
+                .comment("isLoadPending(block_%s)", lateChannels.get(0))
+                .getVariable("block_" + lateChannels.get(0))
+                .invokeStatic(SelectedPositions.class, "isLoadPending", boolean.class, com.facebook.presto.spi.block.Block.class);
+        for (int channel : lateChannels.subList(1, lateChannels.size())) {
+            isLoadPending.comment("| isLoadPending(block_%s)", channel)
+                    .getVariable("block_" + channel)
+                    .invokeStatic(SelectedPositions.class, "isLoadPending", boolean.class, com.facebook.presto.spi.block.Block.class)
+                    .intBitOr();
+        }
+
+        Block selectPositions = new Block(context)
+                .comment("selectedPositions = new SelectedPositions(start, end);")
+                .newObject(SelectedPositions.class)
+                .dup()
+                .getVariable("start")
+                .getVariable("end")
+                .invokeConstructor(SelectedPositions.class, int.class, int.class)
+                .putVariable(selectedPositionsVariable);
+
+        selectPositions.append(ForLoop.forLoopBuilder(context)
+                .initialize(new Block(context)
+                        .comment("int selectPosition = start;")
+                        .getVariable("start")
+                        .putVariable(positionVariable))
+                .condition(new Block(context)
+                        .comment("selectPosition < end")
+                        .getVariable(positionVariable)
+                        .getVariable("end")
+                        .invokeStatic(CompilerOperations.class, "lessThan", boolean.class, int.class, int.class))
+                .update(new Block(context)
+                        .comment("selectPosition++")
+                        .incrementVariable(positionVariable, (byte) 1))
+                .body(new Block(context)
+                        .comment("selectedPositions.select(selectPosition, filter(...));")
+                        .getVariable(selectedPositionsVariable)
+                        .getVariable(positionVariable)
+                        .append(generateFilterCall(context, classDefinition, filter, positionVariable, filterMemoVariable))
+                        .invokeVirtual(SelectedPositions.class, "select", void.class, int.class, boolean.class))
+                .build());
+
+        for (int channel : lateChannels) {
+            selectPositions.comment("selectedPositions.load(block_%s);", channel)
+                    .getVariable(selectedPositionsVariable)
+                    .getVariable("block_" + channel)
+                    .invokeVirtual(SelectedPositions.class, "load", void.class, com.facebook.presto.spi.block.Block.class);
+        }
+        selectPositions.putVariable(filterEvaluatedVariable, true);
+
+        return new IfStatement(context, isLoadPending, selectPositions, NOP);
+    }
+
     private void generateFilterMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, RowExpression filter)
     {
         CompilerContext context = new CompilerContext(BOOTSTRAP_METHOD);
@@ -271,6 +417,52 @@ public class PageProcessorCompiler
                 .ret();
     }
 
+    private boolean isMemoizable(RowExpression expression)
+    {
+        return getInputChannels(expression).size() == 1 && isDeterministic(expression);
+    }
+
+    private boolean isDeterministic(RowExpression expression)
+    {
+        for (RowExpression subExpression : Expressions.subExpressions(ImmutableList.of(expression))) {
+            if (subExpression instanceof CallExpression) {
+                FunctionInfo function = metadata.getFunctionRegistry().getExactFunction(((CallExpression) subExpression).getSignature());
+                if (function != null && !function.isDeterministic()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static ByteCodeNode createMemo(CompilerContext context, String factoryMethod, Class<?> memoType, int channel, Variable memoVariable, Variable startVariable, Variable endVariable)
+    {
+        return new Block(context)
+                .comment("%s = DictionaryOperations.%s(block_%s, start, end);", memoVariable.getName(), factoryMethod, channel)
+                .getVariable("block_" + channel)
+                .getVariable(startVariable)
+                .getVariable(endVariable)
+                .invokeStatic(DictionaryOperations.class, factoryMethod, memoType, com.facebook.presto.spi.block.Block.class, int.class, int.class)
+                .putVariable(memoVariable);
+    }
+
+    private static Block pushMemoArguments(CompilerContext context, Variable memoVariable, String blockName, Variable positionVariable)
+    {
+        return new Block(context)
+                .getVariable(memoVariable)
+                .getVariable(blockName)
+                .getVariable(positionVariable);
+    }
+
+    private static ByteCodeNode getBlockBuilder(CompilerContext context, Variable pageBuilderVariable, int projectionIndex)
+    {
+        return new Block(context)
+                .comment("pageBuilder.getBlockBuilder(" + projectionIndex + ")")
+                .getVariable(pageBuilderVariable)
+                .push(projectionIndex)
+                .invokeVirtual(PageBuilder.class, "getBlockBuilder", BlockBuilder.class, int.class);
+    }
+
     private static List<Integer> getInputChannels(Iterable<RowExpression> expressions)
     {
         TreeSet<Integer> channels = new TreeSet<>();
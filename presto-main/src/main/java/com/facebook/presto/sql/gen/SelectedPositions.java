@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.LazyFixedWidthBlock;
+import com.facebook.presto.spi.block.LazySliceArrayBlock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The positions of a page that pass the filter, computed before any projection reads the
+ * page. Lazy blocks that only the projections read are then loaded for these positions
+ * alone, so a selective filter avoids decoding most of the values of the other columns.
+ */
+// These methods are statically bound by the compiler
+@SuppressWarnings("UnusedDeclaration")
+public final class SelectedPositions
+{
+    private final int start;
+    private final boolean[] selected;
+    private final int[] positions;
+    private int positionCount;
+
+    public SelectedPositions(int start, int end)
+    {
+        checkArgument(start <= end, "start is after end");
+        this.start = start;
+        this.selected = new boolean[end - start];
+        this.positions = new int[end - start];
+    }
+
+    public void select(int position, boolean value)
+    {
+        if (value) {
+            selected[position - start] = true;
+            positions[positionCount] = position;
+            positionCount++;
+        }
+    }
+
+    public boolean isSelected(int position)
+    {
+        return selected[position - start];
+    }
+
+    public void load(Block block)
+    {
+        if (block instanceof LazyFixedWidthBlock) {
+            ((LazyFixedWidthBlock) block).assureLoaded(positions, positionCount);
+        }
+        else if (block instanceof LazySliceArrayBlock) {
+            ((LazySliceArrayBlock) block).assureLoaded(positions, positionCount);
+        }
+    }
+
+    public static boolean isLoadPending(Block block)
+    {
+        if (block instanceof LazyFixedWidthBlock) {
+            return !((LazyFixedWidthBlock) block).isLoaded();
+        }
+        if (block instanceof LazySliceArrayBlock) {
+            return !((LazySliceArrayBlock) block).isLoaded();
+        }
+        return false;
+    }
+}
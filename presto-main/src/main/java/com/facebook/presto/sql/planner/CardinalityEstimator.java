@@ -0,0 +1,391 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner;
+
+import com.facebook.presto.metadata.ColumnHandle;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.metadata.Partition;
+import com.facebook.presto.spi.ColumnStatistics;
+import com.facebook.presto.spi.TableStatistics;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.DistinctLimitNode;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.IndexJoinNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
+import com.facebook.presto.sql.planner.plan.OutputNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanVisitor;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.RowNumberNode;
+import com.facebook.presto.sql.planner.plan.SampleNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.sql.planner.plan.SinkNode;
+import com.facebook.presto.sql.planner.plan.SortNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.planner.plan.TopNNode;
+import com.facebook.presto.sql.planner.plan.UnionNode;
+import com.facebook.presto.sql.planner.plan.ValuesNode;
+import com.facebook.presto.sql.planner.plan.WindowNode;
+import com.facebook.presto.sql.tree.ComparisonExpression;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.Literal;
+import com.facebook.presto.sql.tree.QualifiedNameReference;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.sql.ExpressionUtils.extractConjuncts;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Estimates the number of rows produced by a plan node, and the number of distinct values of its
+ * output symbols, from the table statistics reported by the connectors. Unknown values are NaN,
+ * so any estimate that depends on an unknown statistic is unknown as well.
+ * <p>
+ * Estimates are cached per node instance, so an instance should only be used for a single plan.
+ */
+public class CardinalityEstimator
+{
+    // selectivity of a filter conjunct whose selectivity can not be derived from statistics
+    private static final double DEFAULT_FILTER_SELECTIVITY = 0.5;
+
+    private final Metadata metadata;
+    private final Map<PlanNode, Estimate> estimates = new IdentityHashMap<>();
+
+    public CardinalityEstimator(Metadata metadata)
+    {
+        this.metadata = checkNotNull(metadata, "metadata is null");
+    }
+
+    public Estimate estimate(PlanNode node)
+    {
+        Estimate estimate = estimates.get(node);
+        if (estimate == null) {
+            estimate = node.accept(new Visitor(), null);
+            estimates.put(node, estimate);
+        }
+        return estimate;
+    }
+
+    public static final class Estimate
+    {
+        private static final Estimate UNKNOWN = new Estimate(Double.NaN, ImmutableMap.<Symbol, Double>of());
+
+        private final double rowCount;
+        private final Map<Symbol, Double> distinctValues;
+
+        public Estimate(double rowCount, Map<Symbol, Double> distinctValues)
+        {
+            this.rowCount = rowCount;
+            this.distinctValues = ImmutableMap.copyOf(checkNotNull(distinctValues, "distinctValues is null"));
+        }
+
+        public static Estimate unknown()
+        {
+            return UNKNOWN;
+        }
+
+        public boolean isRowCountKnown()
+        {
+            return !Double.isNaN(rowCount);
+        }
+
+        public double getRowCount()
+        {
+            return rowCount;
+        }
+
+        public double getDistinctValues(Symbol symbol)
+        {
+            Double value = distinctValues.get(symbol);
+            if (value == null) {
+                return Double.NaN;
+            }
+            return value;
+        }
+
+        private Map<Symbol, Double> getDistinctValues()
+        {
+            return distinctValues;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("rowCount", rowCount)
+                    .add("distinctValues", distinctValues)
+                    .toString();
+        }
+    }
+
+    private class Visitor
+            extends PlanVisitor<Void, Estimate>
+    {
+        @Override
+        protected Estimate visitPlan(PlanNode node, Void context)
+        {
+            return Estimate.unknown();
+        }
+
+        @Override
+        public Estimate visitTableScan(TableScanNode node, Void context)
+        {
+            // only the partitions left after partition pruning are read
+            Optional<List<Partition>> partitions = Optional.absent();
+            if (node.getGeneratedPartitions().isPresent()) {
+                partitions = Optional.of(node.getGeneratedPartitions().get().getPartitions());
+            }
+            TableStatistics statistics = metadata.getTableStatistics(node.getTable(), partitions);
+            if (!statistics.isRowCountKnown()) {
+                return Estimate.unknown();
+            }
+
+            double rowCount = statistics.getRowCount();
+            Map<Symbol, Double> distinctValues = new HashMap<>();
+            for (Map.Entry<Symbol, ColumnHandle> entry : node.getAssignments().entrySet()) {
+                ColumnStatistics columnStatistics = statistics.getColumnStatistics().get(entry.getValue().getConnectorHandle());
+                if (columnStatistics != null && columnStatistics.isDistinctValuesCountKnown()) {
+                    distinctValues.put(entry.getKey(), Math.min((double) columnStatistics.getDistinctValuesCount(), rowCount));
+                }
+            }
+            return new Estimate(rowCount, distinctValues);
+        }
+
+        @Override
+        public Estimate visitValues(ValuesNode node, Void context)
+        {
+            return new Estimate(node.getRows().size(), ImmutableMap.<Symbol, Double>of());
+        }
+
+        @Override
+        public Estimate visitFilter(FilterNode node, Void context)
+        {
+            Estimate source = estimate(node.getSource());
+
+            double selectivity = 1.0;
+            Map<Symbol, Double> distinctValues = new HashMap<>(source.getDistinctValues());
+            for (Expression conjunct : extractConjuncts(node.getPredicate())) {
+                Symbol symbol = getEqualityWithConstantSymbol(conjunct);
+                if (symbol != null && !Double.isNaN(source.getDistinctValues(symbol))) {
+                    selectivity /= Math.max(source.getDistinctValues(symbol), 1);
+                    distinctValues.put(symbol, 1.0);
+                }
+                else {
+                    selectivity *= DEFAULT_FILTER_SELECTIVITY;
+                }
+            }
+            return withRowCount(distinctValues, source.getRowCount() * selectivity);
+        }
+
+        @Override
+        public Estimate visitProject(ProjectNode node, Void context)
+        {
+            Estimate source = estimate(node.getSource());
+
+            Map<Symbol, Double> distinctValues = new HashMap<>();
+            for (Map.Entry<Symbol, Expression> entry : node.getAssignments().entrySet()) {
+                if (entry.getValue() instanceof QualifiedNameReference) {
+                    Symbol sourceSymbol = Symbol.fromQualifiedName(((QualifiedNameReference) entry.getValue()).getName());
+                    double value = source.getDistinctValues(sourceSymbol);
+                    if (!Double.isNaN(value)) {
+                        distinctValues.put(entry.getKey(), value);
+                    }
+                }
+            }
+            return new Estimate(source.getRowCount(), distinctValues);
+        }
+
+        @Override
+        public Estimate visitAggregation(AggregationNode node, Void context)
+        {
+            Estimate source = estimate(node.getSource());
+            if (node.getGroupBy().isEmpty()) {
+                return new Estimate(1, ImmutableMap.<Symbol, Double>of());
+            }
+
+            // assume the grouping columns are independent, which is an upper bound for the number of groups
+            double groups = 1;
+            Map<Symbol, Double> distinctValues = new HashMap<>();
+            for (Symbol symbol : node.getGroupBy()) {
+                double value = source.getDistinctValues(symbol);
+                groups *= value;
+                if (!Double.isNaN(value)) {
+                    distinctValues.put(symbol, value);
+                }
+            }
+            if (Double.isNaN(groups)) {
+                groups = source.getRowCount();
+            }
+            return withRowCount(distinctValues, Math.min(groups, source.getRowCount()));
+        }
+
+        @Override
+        public Estimate visitJoin(JoinNode node, Void context)
+        {
+            Estimate left = estimate(node.getLeft());
+            Estimate right = estimate(node.getRight());
+
+            double rowCount = left.getRowCount() * right.getRowCount();
+            if (!node.getCriteria().isEmpty()) {
+                // assume the keys of the side with fewer distinct values all appear on the other side
+                for (JoinNode.EquiJoinClause clause : node.getCriteria()) {
+                    double distinctKeys = Math.max(left.getDistinctValues(clause.getLeft()), right.getDistinctValues(clause.getRight()));
+                    rowCount /= Math.max(distinctKeys, 1);
+                }
+                if (Double.isNaN(rowCount)) {
+                    // without key statistics, assume a join on a unique key of one side
+                    rowCount = Math.max(left.getRowCount(), right.getRowCount());
+                }
+            }
+
+            // outer joins keep every row of the outer side
+            if (node.getType() == JoinNode.Type.LEFT) {
+                rowCount = Math.max(rowCount, left.getRowCount());
+            }
+            else if (node.getType() == JoinNode.Type.RIGHT) {
+                rowCount = Math.max(rowCount, right.getRowCount());
+            }
+
+            Map<Symbol, Double> distinctValues = new HashMap<>();
+            distinctValues.putAll(left.getDistinctValues());
+            distinctValues.putAll(right.getDistinctValues());
+            return withRowCount(distinctValues, rowCount);
+        }
+
+        @Override
+        public Estimate visitSemiJoin(SemiJoinNode node, Void context)
+        {
+            return estimate(node.getSource());
+        }
+
+        @Override
+        public Estimate visitIndexJoin(IndexJoinNode node, Void context)
+        {
+            return estimate(node.getProbeSource());
+        }
+
+        @Override
+        public Estimate visitUnion(UnionNode node, Void context)
+        {
+            double rowCount = 0;
+            for (PlanNode source : node.getSources()) {
+                rowCount += estimate(source).getRowCount();
+            }
+            return new Estimate(rowCount, ImmutableMap.<Symbol, Double>of());
+        }
+
+        @Override
+        public Estimate visitLimit(LimitNode node, Void context)
+        {
+            return limit(estimate(node.getSource()), node.getCount());
+        }
+
+        @Override
+        public Estimate visitTopN(TopNNode node, Void context)
+        {
+            return limit(estimate(node.getSource()), node.getCount());
+        }
+
+        @Override
+        public Estimate visitDistinctLimit(DistinctLimitNode node, Void context)
+        {
+            return limit(estimate(node.getSource()), node.getLimit());
+        }
+
+        @Override
+        public Estimate visitSample(SampleNode node, Void context)
+        {
+            Estimate source = estimate(node.getSource());
+            return withRowCount(source.getDistinctValues(), source.getRowCount() * node.getSampleRatio());
+        }
+
+        @Override
+        public Estimate visitSort(SortNode node, Void context)
+        {
+            return estimate(node.getSource());
+        }
+
+        @Override
+        public Estimate visitWindow(WindowNode node, Void context)
+        {
+            return estimate(node.getSource());
+        }
+
+        @Override
+        public Estimate visitMarkDistinct(MarkDistinctNode node, Void context)
+        {
+            return estimate(node.getSource());
+        }
+
+        @Override
+        public Estimate visitRowNumber(RowNumberNode node, Void context)
+        {
+            return estimate(node.getSource());
+        }
+
+        @Override
+        public Estimate visitOutput(OutputNode node, Void context)
+        {
+            return estimate(node.getSource());
+        }
+
+        @Override
+        public Estimate visitSink(SinkNode node, Void context)
+        {
+            return estimate(node.getSource());
+        }
+
+        private Estimate limit(Estimate source, long count)
+        {
+            if (!source.isRowCountKnown()) {
+                return new Estimate(count, ImmutableMap.<Symbol, Double>of());
+            }
+            return withRowCount(source.getDistinctValues(), Math.min(source.getRowCount(), count));
+        }
+    }
+
+    private static Estimate withRowCount(Map<Symbol, Double> distinctValues, double rowCount)
+    {
+        // no symbol has more distinct values than there are rows
+        Map<Symbol, Double> capped = new HashMap<>();
+        for (Map.Entry<Symbol, Double> entry : distinctValues.entrySet()) {
+            capped.put(entry.getKey(), Double.isNaN(rowCount) ? entry.getValue() : Math.min(entry.getValue(), Math.max(rowCount, 1)));
+        }
+        return new Estimate(rowCount, capped);
+    }
+
+    private static Symbol getEqualityWithConstantSymbol(Expression expression)
+    {
+        if (!(expression instanceof ComparisonExpression) || ((ComparisonExpression) expression).getType() != ComparisonExpression.Type.EQUAL) {
+            return null;
+        }
+        Expression left = ((ComparisonExpression) expression).getLeft();
+        Expression right = ((ComparisonExpression) expression).getRight();
+        if (left instanceof QualifiedNameReference && right instanceof Literal) {
+            return Symbol.fromQualifiedName(((QualifiedNameReference) left).getName());
+        }
+        if (right instanceof QualifiedNameReference && left instanceof Literal) {
+            return Symbol.fromQualifiedName(((QualifiedNameReference) right).getName());
+        }
+        return null;
+    }
+}
@@ -542,7 +542,7 @@ public class DistributedLogicalPlanner
                     case INNER:
                     case LEFT:
                         right.setRoot(new SinkNode(idAllocator.getNextId(), right.getRoot(), right.getRoot().getOutputSymbols()));
-                        if (distributedJoins) {
+                        if (isPartitioned(node)) {
                             right.setHashOutputPartitioning(rightSymbols, node.getRightHashSymbol().transform(channelGetter(right.getRoot())));
                             left = hashDistributeSubplan(left, leftSymbols, node.getLeftHashSymbol());
                         }
@@ -550,13 +550,13 @@ public class DistributedLogicalPlanner
                                 node.getType(),
                                 left.getRoot(),
                                 new ExchangeNode(idAllocator.getNextId(), right.getId(), right.getRoot().getOutputSymbols()),
-                                node.getCriteria(), node.getLeftHashSymbol(), node.getRightHashSymbol()));
+                                node.getCriteria(), node.getLeftHashSymbol(), node.getRightHashSymbol(), node.getDistributionType()));
                         left.addChild(right.build());
 
                         return left;
                     case RIGHT:
                         left.setRoot(new SinkNode(idAllocator.getNextId(), left.getRoot(), left.getRoot().getOutputSymbols()));
-                        if (distributedJoins) {
+                        if (isPartitioned(node)) {
                             left.setHashOutputPartitioning(leftSymbols, node.getLeftHashSymbol().transform(channelGetter(left.getRoot())));
                             right = hashDistributeSubplan(right, rightSymbols,  node.getRightHashSymbol());
                         }
@@ -564,7 +564,7 @@ public class DistributedLogicalPlanner
                                 node.getType(),
                                 new ExchangeNode(idAllocator.getNextId(), left.getId(), left.getRoot().getOutputSymbols()),
                                 right.getRoot(),
-                                node.getCriteria(), node.getLeftHashSymbol(), node.getRightHashSymbol()));
+                                node.getCriteria(), node.getLeftHashSymbol(), node.getRightHashSymbol(), node.getDistributionType()));
                         right.addChild(left.build());
 
                         return right;
@@ -573,12 +573,21 @@ public class DistributedLogicalPlanner
                 }
             }
             else {
-                JoinNode join = new JoinNode(node.getId(), node.getType(), left.getRoot(), right.getRoot(), node.getCriteria(), node.getLeftHashSymbol(), node.getRightHashSymbol());
+                JoinNode join = new JoinNode(node.getId(), node.getType(), left.getRoot(), right.getRoot(), node.getCriteria(), node.getLeftHashSymbol(), node.getRightHashSymbol(), node.getDistributionType());
                 return createSingleNodePlan(join)
                         .setChildren(Iterables.concat(left.getChildren(), right.getChildren()));
             }
         }
 
+        private boolean isPartitioned(JoinNode node)
+        {
+            // the optimizer picks the distribution of joins it has statistics for
+            if (node.getDistributionType().isPresent()) {
+                return node.getDistributionType().get() == JoinNode.DistributionType.PARTITIONED;
+            }
+            return distributedJoins;
+        }
+
         public SubPlanBuilder hashDistributeSubplan(SubPlanBuilder subPlan, List<Symbol> symbols, Optional<Symbol> hashSymbol)
         {
             PlanNode sink = new SinkNode(idAllocator.getNextId(), subPlan.getRoot(), subPlan.getRoot().getOutputSymbols());
@@ -14,6 +14,7 @@
 package com.facebook.presto.sql.planner;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.SystemSessionProperties;
 import com.facebook.presto.block.BlockUtils;
 import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.index.IndexManager;
@@ -23,6 +24,7 @@ import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.operator.AggregationOperator.AggregationOperatorFactory;
 import com.facebook.presto.operator.CursorProcessor;
 import com.facebook.presto.operator.DriverFactory;
+import com.facebook.presto.operator.DynamicFilter;
 import com.facebook.presto.operator.ExchangeClient;
 import com.facebook.presto.operator.ExchangeOperator.ExchangeOperatorFactory;
 import com.facebook.presto.operator.FilterAndProjectOperator;
@@ -36,6 +38,7 @@ import com.facebook.presto.operator.HashSemiJoinOperator.HashSemiJoinOperatorFac
 import com.facebook.presto.operator.InMemoryExchange;
 import com.facebook.presto.operator.InMemoryExchangeSourceOperator.InMemoryExchangeSourceOperatorFactory;
 import com.facebook.presto.operator.LimitOperator.LimitOperatorFactory;
+import com.facebook.presto.operator.LocalExchange;
 import com.facebook.presto.operator.LookupJoinOperators;
 import com.facebook.presto.operator.LookupSourceSupplier;
 import com.facebook.presto.operator.MarkDistinctOperator.MarkDistinctOperatorFactory;
@@ -43,9 +46,9 @@ import com.facebook.presto.operator.OperatorFactory;
 import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
 import com.facebook.presto.operator.OutputFactory;
 import com.facebook.presto.operator.PageProcessor;
+import com.facebook.presto.operator.PageSinkManager;
 import com.facebook.presto.operator.ProjectionFunction;
 import com.facebook.presto.operator.ProjectionFunctions;
-import com.facebook.presto.operator.RecordSinkManager;
 import com.facebook.presto.operator.RowNumberOperator;
 import com.facebook.presto.operator.SampleOperator.SampleOperatorFactory;
 import com.facebook.presto.operator.ScanFilterAndProjectOperator;
@@ -69,9 +72,9 @@ import com.facebook.presto.spi.Index;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.RecordSet;
-import com.facebook.presto.spi.RecordSink;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.split.MappedRecordSet;
 import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
@@ -88,6 +91,7 @@ import com.facebook.presto.sql.planner.plan.LimitNode;
 import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.ProjectNode;
 import com.facebook.presto.sql.planner.plan.RowNumberNode;
@@ -119,12 +123,14 @@ import com.google.common.base.Optional;
 import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
@@ -147,6 +153,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
+import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static com.facebook.presto.operator.TableCommitOperator.TableCommitOperatorFactory;
 import static com.facebook.presto.operator.TableCommitOperator.TableCommitter;
@@ -180,13 +188,17 @@ public class LocalExecutionPlanner
 
     private final PageSourceProvider pageSourceProvider;
     private final IndexManager indexManager;
-    private final RecordSinkManager recordSinkManager;
+    private final PageSinkManager pageSinkManager;
     private final Supplier<ExchangeClient> exchangeClientSupplier;
     private final ExpressionCompiler compiler;
     private final boolean interpreterEnabled;
     private final DataSize maxIndexMemorySize;
     private final IndexJoinLookupStats indexJoinLookupStats;
     private final DataSize maxPartialAggregationMemorySize;
+    private final SpillerFactory spillerFactory;
+    private final int taskConcurrency;
+    private final int writerCount;
+    private final boolean dynamicFilteringEnabled;
 
     @Inject
     public LocalExecutionPlanner(
@@ -194,12 +206,13 @@ public class LocalExecutionPlanner
             SqlParser sqlParser,
             PageSourceProvider pageSourceProvider,
             IndexManager indexManager,
-            RecordSinkManager recordSinkManager,
+            PageSinkManager pageSinkManager,
             Supplier<ExchangeClient> exchangeClientSupplier,
             ExpressionCompiler compiler,
             IndexJoinLookupStats indexJoinLookupStats,
             CompilerConfig compilerConfig,
-            TaskManagerConfig taskManagerConfig)
+            TaskManagerConfig taskManagerConfig,
+            SpillerFactory spillerFactory)
     {
         checkNotNull(compilerConfig, "compilerConfig is null");
         this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceProvider is null");
@@ -207,11 +220,15 @@ public class LocalExecutionPlanner
         this.exchangeClientSupplier = exchangeClientSupplier;
         this.metadata = checkNotNull(metadata, "metadata is null");
         this.sqlParser = checkNotNull(sqlParser, "sqlParser is null");
-        this.recordSinkManager = checkNotNull(recordSinkManager, "recordSinkManager is null");
+        this.pageSinkManager = checkNotNull(pageSinkManager, "pageSinkManager is null");
         this.compiler = checkNotNull(compiler, "compiler is null");
         this.indexJoinLookupStats = checkNotNull(indexJoinLookupStats, "indexJoinLookupStats is null");
         this.maxIndexMemorySize = checkNotNull(taskManagerConfig, "taskManagerConfig is null").getMaxTaskIndexMemoryUsage();
         this.maxPartialAggregationMemorySize = taskManagerConfig.getMaxPartialAggregationMemoryUsage();
+        this.taskConcurrency = taskManagerConfig.getTaskConcurrency();
+        this.writerCount = taskManagerConfig.getWriterCount();
+        this.dynamicFilteringEnabled = taskManagerConfig.isDynamicFilteringEnabled();
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
 
         interpreterEnabled = compilerConfig.isInterpreterEnabled();
     }
@@ -230,7 +247,8 @@ public class LocalExecutionPlanner
                 ImmutableList.<OperatorFactory>builder()
                         .addAll(physicalOperation.getOperatorFactories())
                         .add(outputOperatorFactory.createOutputOperator(context.getNextOperatorId(), physicalOperation.getTypes()))
-                        .build());
+                        .build(),
+                context.getDriverInstanceCount());
         context.addDriverFactory(driverFactory);
 
         return new LocalExecutionPlan(context.getDriverFactories());
@@ -242,21 +260,29 @@ public class LocalExecutionPlanner
         private final Map<Symbol, Type> types;
         private final List<DriverFactory> driverFactories;
         private final Optional<IndexSourceContext> indexSourceContext;
+        private final ListMultimap<PlanNodeId, DynamicFilter> dynamicFilters;
 
         private int nextOperatorId;
         private boolean inputDriver = true;
+        private int driverInstanceCount = 1;
 
         public LocalExecutionPlanContext(Session session, Map<Symbol, Type> types)
         {
-            this(session, types, new ArrayList<DriverFactory>(), Optional.<IndexSourceContext>absent());
+            this(session, types, new ArrayList<DriverFactory>(), Optional.<IndexSourceContext>absent(), ArrayListMultimap.<PlanNodeId, DynamicFilter>create());
         }
 
-        private LocalExecutionPlanContext(Session session, Map<Symbol, Type> types, List<DriverFactory> driverFactories, Optional<IndexSourceContext> indexSourceContext)
+        private LocalExecutionPlanContext(
+                Session session,
+                Map<Symbol, Type> types,
+                List<DriverFactory> driverFactories,
+                Optional<IndexSourceContext> indexSourceContext,
+                ListMultimap<PlanNodeId, DynamicFilter> dynamicFilters)
         {
             this.session = session;
             this.types = types;
             this.driverFactories = driverFactories;
             this.indexSourceContext = indexSourceContext;
+            this.dynamicFilters = dynamicFilters;
         }
 
         public void addDriverFactory(DriverFactory driverFactory)
@@ -284,6 +310,19 @@ public class LocalExecutionPlanner
             return indexSourceContext;
         }
 
+        /**
+         * Registers a dynamic filter for a table scan. The scan must be planned after the filter is registered.
+         */
+        public void addDynamicFilter(PlanNodeId tableScanId, DynamicFilter dynamicFilter)
+        {
+            dynamicFilters.put(tableScanId, checkNotNull(dynamicFilter, "dynamicFilter is null"));
+        }
+
+        public List<DynamicFilter> getDynamicFilters(PlanNodeId tableScanId)
+        {
+            return ImmutableList.copyOf(dynamicFilters.get(tableScanId));
+        }
+
         private int getNextOperatorId()
         {
             return nextOperatorId++;
@@ -299,15 +338,48 @@ public class LocalExecutionPlanner
             this.inputDriver = inputDriver;
         }
 
+        private int getDriverInstanceCount()
+        {
+            return driverInstanceCount;
+        }
+
+        private void setDriverInstanceCount(int driverInstanceCount)
+        {
+            checkArgument(driverInstanceCount > 0, "driverInstanceCount must be greater than zero");
+            this.driverInstanceCount = driverInstanceCount;
+        }
+
         public LocalExecutionPlanContext createSubContext()
         {
             checkState(!indexSourceContext.isPresent(), "index build plan can not have sub-contexts");
-            return new LocalExecutionPlanContext(session, types, driverFactories, indexSourceContext);
+            return new LocalExecutionPlanContext(session, types, driverFactories, indexSourceContext, dynamicFilters);
         }
 
         public LocalExecutionPlanContext createIndexSourceSubContext(IndexSourceContext indexSourceContext)
         {
-            return new LocalExecutionPlanContext(session, types, driverFactories, Optional.of(indexSourceContext));
+            return new LocalExecutionPlanContext(session, types, driverFactories, Optional.of(indexSourceContext), dynamicFilters);
+        }
+    }
+
+    private static class TableScanColumn
+    {
+        private final PlanNodeId tableScanId;
+        private final ColumnHandle column;
+
+        public TableScanColumn(PlanNodeId tableScanId, ColumnHandle column)
+        {
+            this.tableScanId = checkNotNull(tableScanId, "tableScanId is null");
+            this.column = checkNotNull(column, "column is null");
+        }
+
+        public PlanNodeId getTableScanId()
+        {
+            return tableScanId;
+        }
+
+        public ColumnHandle getColumn()
+        {
+            return column;
         }
     }
 
@@ -396,7 +468,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitRowNumber(RowNumberNode node, LocalExecutionPlanContext context)
         {
-            final PhysicalOperation source = node.getSource().accept(this, context);
+            final PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             List<Symbol> partitionBySymbols = node.getPartitionBy();
             List<Integer> partitionChannels = ImmutableList.copyOf(getChannelsForSymbols(partitionBySymbols, source.getLayout()));
@@ -438,7 +510,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTopNRowNumber(final TopNRowNumberNode node, LocalExecutionPlanContext context)
         {
-            final PhysicalOperation source = node.getSource().accept(this, context);
+            final PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             List<Symbol> partitionBySymbols = node.getPartitionBy();
             List<Integer> partitionChannels = ImmutableList.copyOf(getChannelsForSymbols(partitionBySymbols, source.getLayout()));
@@ -497,7 +569,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitWindow(final WindowNode node, LocalExecutionPlanContext context)
         {
-            final PhysicalOperation source = node.getSource().accept(this, context);
+            final PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             List<Symbol> partitionBySymbols = node.getPartitionBy();
             List<Symbol> orderBySymbols = node.getOrderBy();
@@ -556,7 +628,8 @@ public class LocalExecutionPlanner
                         partitionChannels,
                         sortChannels,
                         sortOrder,
-                        1_000_000);
+                        1_000_000,
+                        getSpillerFactory());
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
         }
@@ -565,6 +638,9 @@ public class LocalExecutionPlanner
         public PhysicalOperation visitTopN(TopNNode node, LocalExecutionPlanContext context)
         {
             PhysicalOperation source = node.getSource().accept(this, context);
+            if (!node.isPartial()) {
+                source = gatherSource(source, context);
+            }
 
             List<Symbol> orderBySymbols = node.getOrderBy();
 
@@ -589,7 +665,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitSort(SortNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
+            PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             List<Symbol> orderBySymbols = node.getOrderBy();
 
@@ -611,7 +687,8 @@ public class LocalExecutionPlanner
                     outputChannels.build(),
                     10_000,
                     orderByChannels,
-                    sortOrder.build());
+                    sortOrder.build(),
+                    getSpillerFactory());
 
             return new PhysicalOperation(operator, source.getLayout(), source);
         }
@@ -619,7 +696,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitLimit(LimitNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
+            PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             OperatorFactory operatorFactory = new LimitOperatorFactory(context.getNextOperatorId(), source.getTypes(), node.getCount());
             return new PhysicalOperation(operatorFactory, source.getLayout(), source);
@@ -628,7 +705,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitDistinctLimit(DistinctLimitNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
+            PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             Optional<Integer> hashChannel = node.getHashSymbol().transform(channelGetter(source));
             List<Integer> distinctChannels = getChannelsForSymbols(node.getDistinctSymbols(), source.getLayout());
@@ -647,6 +724,18 @@ public class LocalExecutionPlanner
         {
             PhysicalOperation source = node.getSource().accept(this, context);
 
+            // partial aggregations can run in any number of drivers, but the other steps need all rows of a group in one driver
+            if (node.getStep() != AggregationNode.Step.PARTIAL) {
+                if (node.getGroupBy().isEmpty()) {
+                    source = gatherSource(source, context);
+                }
+                else if (context.getDriverInstanceCount() > 1 || canRunInParallel(source, context)) {
+                    List<Integer> groupByChannels = ImmutableList.copyOf(getChannelsForSymbols(node.getGroupBy(), source.getLayout()));
+                    Optional<Integer> hashChannel = node.getHashSymbol().transform(channelGetter(source));
+                    source = createLocalExchange(source, context, getTaskConcurrency(), Optional.of(groupByChannels), hashChannel);
+                }
+            }
+
             if (node.getGroupBy().isEmpty()) {
                 return planGlobalAggregation(context.getNextOperatorId(), node, source);
             }
@@ -657,7 +746,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitMarkDistinct(MarkDistinctNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
+            PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             List<Integer> channels = getChannelsForSymbols(node.getDistinctSymbols(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashSymbol().transform(channelGetter(source));
@@ -802,7 +891,8 @@ public class LocalExecutionPlanner
                             cursorProcessor,
                             pageProcessor,
                             columns,
-                            Lists.transform(rewrittenProjections, forMap(expressionTypes)));
+                            Lists.transform(rewrittenProjections, forMap(expressionTypes)),
+                            context.getDynamicFilters(sourceNode.getId()));
 
                     return new PhysicalOperation(operatorFactory, outputMappings);
                 }
@@ -863,7 +953,8 @@ public class LocalExecutionPlanner
                         new GenericCursorProcessor(filterFunction, projectionFunctions),
                         new GenericPageProcessor(filterFunction, projectionFunctions),
                         columns,
-                        toTypes(projectionFunctions));
+                        toTypes(projectionFunctions),
+                        context.getDynamicFilters(sourceNode.getId()));
 
                 return new PhysicalOperation(operatorFactory, outputMappings);
             }
@@ -895,7 +986,7 @@ public class LocalExecutionPlanner
             }
 
             List<Type> types = getSourceOperatorTypes(node, context.getTypes());
-            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, types, columns);
+            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, types, columns, context.getDynamicFilters(node.getId()));
             return new PhysicalOperation(operatorFactory, makeLayout(node));
         }
 
@@ -1069,7 +1160,7 @@ public class LocalExecutionPlanner
             List<Symbol> indexSymbols = Lists.transform(clauses, indexGetter());
 
             // Plan probe side
-            PhysicalOperation probeSource = node.getProbeSource().accept(this, context);
+            PhysicalOperation probeSource = gatherSource(node.getProbeSource().accept(this, context), context);
             List<Integer> probeChannels = getChannelsForSymbols(probeSymbols, probeSource.getLayout());
             Optional<Integer> probeHashChannel = node.getProbeHashSymbol().transform(channelGetter(probeSource));
 
@@ -1181,23 +1272,52 @@ public class LocalExecutionPlanner
                 Optional<Symbol> buildHashSymbol,
                 LocalExecutionPlanContext context)
         {
+            // the dynamic filter must be registered before the scan it filters is planned
+            List<Integer> dynamicFilterClauses = new ArrayList<>();
+            Optional<DynamicFilter> dynamicFilter = Optional.absent();
+            if (node.getType() == JoinNode.Type.INNER && isDynamicFilteringEnabled(session, dynamicFilteringEnabled) && !context.getIndexSourceContext().isPresent()) {
+                dynamicFilter = createDynamicFilter(probeNode, probeSymbols, dynamicFilterClauses, context);
+            }
+
             // Plan probe and introduce a projection to put all fields from the probe side into a single channel if necessary
             PhysicalOperation probeSource = probeNode.accept(this, context);
+            if (context.getDriverInstanceCount() == 1 && canRunInParallel(probeSource, context)) {
+                probeSource = createLocalExchange(probeSource, context, getTaskConcurrency(), Optional.<List<Integer>>absent(), Optional.<Integer>absent());
+            }
             List<Integer> probeChannels = ImmutableList.copyOf(getChannelsForSymbols(probeSymbols, probeSource.getLayout()));
             Optional<Integer> probeHashChannel = probeHashSymbol.transform(channelGetter(probeSource));
 
             // do the same on the build side
             LocalExecutionPlanContext buildContext = context.createSubContext();
             PhysicalOperation buildSource = buildNode.accept(this, buildContext);
+
+            // a spilling build partitions the rows itself, so it runs in a single driver
+            Optional<SpillerFactory> buildSpillerFactory = getSpillerFactory();
+            if (buildSpillerFactory.isPresent()) {
+                buildSource = gatherSource(buildSource, buildContext);
+            }
+            else if (buildContext.getDriverInstanceCount() == 1 && canRunInParallel(buildSource, buildContext)) {
+                buildSource = createLocalExchange(buildSource, buildContext, getTaskConcurrency(), Optional.<List<Integer>>absent(), Optional.<Integer>absent());
+            }
+
             List<Integer> buildChannels = ImmutableList.copyOf(getChannelsForSymbols(buildSymbols, buildSource.getLayout()));
             Optional<Integer> buildHashChannel = buildHashSymbol.transform(channelGetter(buildSource));
 
+            ImmutableList.Builder<Integer> dynamicFilterChannels = ImmutableList.builder();
+            for (int clause : dynamicFilterClauses) {
+                dynamicFilterChannels.add(buildChannels.get(clause));
+            }
+
             HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(
                     buildContext.getNextOperatorId(),
                     buildSource.getTypes(),
                     buildChannels,
                     buildHashChannel,
-                    100_000);
+                    100_000,
+                    buildSpillerFactory,
+                    buildContext.getDriverInstanceCount(),
+                    dynamicFilter,
+                    dynamicFilterChannels.build());
             LookupSourceSupplier lookupSourceSupplier = hashBuilderOperatorFactory.getLookupSourceSupplier();
             DriverFactory buildDriverFactory = new DriverFactory(
                     buildContext.isInputDriver(),
@@ -1205,7 +1325,8 @@ public class LocalExecutionPlanner
                     ImmutableList.<OperatorFactory>builder()
                             .addAll(buildSource.getOperatorFactories())
                             .add(hashBuilderOperatorFactory)
-                            .build());
+                            .build(),
+                    buildContext.getDriverInstanceCount());
             context.addDriverFactory(buildDriverFactory);
 
             ImmutableMap.Builder<Symbol, Integer> outputMappings = ImmutableMap.builder();
@@ -1223,6 +1344,77 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operator, outputMappings.build(), probeSource);
         }
 
+        /**
+         * Creates a dynamic filter on the table scan that produces the probe keys, and adds the
+         * indexes of the join clauses it covers to {@code dynamicFilterClauses}. Only keys read
+         * directly from a single scan in this task can be filtered.
+         */
+        private Optional<DynamicFilter> createDynamicFilter(PlanNode probeNode, List<Symbol> probeSymbols, List<Integer> dynamicFilterClauses, LocalExecutionPlanContext context)
+        {
+            PlanNodeId tableScanId = null;
+            ImmutableList.Builder<ColumnHandle> columns = ImmutableList.builder();
+            ImmutableList.Builder<Type> types = ImmutableList.builder();
+            for (int clause = 0; clause < probeSymbols.size(); clause++) {
+                Symbol symbol = probeSymbols.get(clause);
+                Type type = context.getTypes().get(symbol);
+                if (!DynamicFilter.isSupportedType(type)) {
+                    continue;
+                }
+
+                Optional<TableScanColumn> scanColumn = findTableScanColumn(probeNode, symbol);
+                if (!scanColumn.isPresent() || (tableScanId != null && !tableScanId.equals(scanColumn.get().getTableScanId()))) {
+                    continue;
+                }
+                tableScanId = scanColumn.get().getTableScanId();
+
+                columns.add(scanColumn.get().getColumn());
+                types.add(type);
+                dynamicFilterClauses.add(clause);
+            }
+
+            if (tableScanId == null) {
+                return Optional.absent();
+            }
+            DynamicFilter dynamicFilter = new DynamicFilter(columns.build(), types.build());
+            context.addDynamicFilter(tableScanId, dynamicFilter);
+            return Optional.of(dynamicFilter);
+        }
+
+        /**
+         * Finds the table scan column that produces the values of the symbol. The plan is followed through
+         * filters, projections that rename the symbol, and the probe side of inner joins, since the rows
+         * those drop would be dropped by the join anyway.
+         */
+        private Optional<TableScanColumn> findTableScanColumn(PlanNode node, Symbol symbol)
+        {
+            while (true) {
+                if (node instanceof TableScanNode) {
+                    ColumnHandle column = ((TableScanNode) node).getAssignments().get(symbol);
+                    if (column == null) {
+                        return Optional.absent();
+                    }
+                    return Optional.of(new TableScanColumn(node.getId(), column));
+                }
+                if (node instanceof FilterNode) {
+                    node = ((FilterNode) node).getSource();
+                }
+                else if (node instanceof ProjectNode) {
+                    Expression expression = ((ProjectNode) node).getAssignments().get(symbol);
+                    if (!(expression instanceof QualifiedNameReference)) {
+                        return Optional.absent();
+                    }
+                    symbol = Symbol.fromQualifiedName(((QualifiedNameReference) expression).getName());
+                    node = ((ProjectNode) node).getSource();
+                }
+                else if (node instanceof JoinNode && ((JoinNode) node).getType() == JoinNode.Type.INNER && ((JoinNode) node).getLeft().getOutputSymbols().contains(symbol)) {
+                    node = ((JoinNode) node).getLeft();
+                }
+                else {
+                    return Optional.absent();
+                }
+            }
+        }
+
         private OperatorFactory createJoinOperator(
                 JoinNode.Type type,
                 LookupSourceSupplier lookupSourceSupplier,
@@ -1250,7 +1442,7 @@ public class LocalExecutionPlanner
 
             // do the same on the build side
             LocalExecutionPlanContext buildContext = context.createSubContext();
-            PhysicalOperation buildSource = node.getFilteringSource().accept(this, buildContext);
+            PhysicalOperation buildSource = gatherSource(node.getFilteringSource().accept(this, buildContext), buildContext);
 
             int probeChannel = probeSource.getLayout().get(node.getSourceJoinSymbol());
             int buildChannel = buildSource.getLayout().get(node.getFilteringSourceJoinSymbol());
@@ -1308,14 +1500,20 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTableWriter(TableWriterNode node, LocalExecutionPlanContext context)
         {
-            // serialize writes by forcing data through a single writer
-            PhysicalOperation exchange = createInMemoryExchange(node.getSource(), context);
+            PhysicalOperation exchange;
+            int taskWriterCount = getTaskWriterCount();
+            if (taskWriterCount == 1) {
+                // serialize writes by forcing data through a single writer
+                exchange = createInMemoryExchange(node.getSource(), context);
+            }
+            else {
+                // spread the pages over the writers, each of which writes its own files
+                PhysicalOperation source = node.getSource().accept(this, context);
+                exchange = createLocalExchange(source, context, taskWriterCount, Optional.<List<Integer>>absent(), Optional.<Integer>absent());
+            }
 
             Optional<Integer> sampleWeightChannel = node.getSampleWeightSymbol().transform(exchange.channelGetter());
 
-            // create the table writer
-            RecordSink recordSink = getRecordSink(node);
-
             List<Type> types = IterableTransformer.on(node.getColumns())
                     .transform(forMap(context.getTypes()))
                     .list();
@@ -1324,7 +1522,8 @@ public class LocalExecutionPlanner
                     .transform(exchange.channelGetter())
                     .list();
 
-            OperatorFactory operatorFactory = new TableWriterOperatorFactory(context.getNextOperatorId(), recordSink, types, inputChannels, sampleWeightChannel);
+            // create the table writer
+            OperatorFactory operatorFactory = new TableWriterOperatorFactory(context.getNextOperatorId(), pageSinkManager, node.getTarget(), types, inputChannels, sampleWeightChannel);
 
             Map<Symbol, Integer> layout = ImmutableMap.<Symbol, Integer>builder()
                     .put(node.getOutputSymbols().get(0), 0)
@@ -1348,7 +1547,7 @@ public class LocalExecutionPlanner
                     .build();
 
             // add sub-context to current context
-            context.addDriverFactory(new DriverFactory(subContext.isInputDriver(), false, factories));
+            context.addDriverFactory(new DriverFactory(subContext.isInputDriver(), false, factories, subContext.getDriverInstanceCount()));
 
             exchange.noMoreSinkFactories();
 
@@ -1363,7 +1562,7 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTableCommit(TableCommitNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
+            PhysicalOperation source = gatherSource(node.getSource().accept(this, context), context);
 
             OperatorFactory operatorFactory = new TableCommitOperatorFactory(context.getNextOperatorId(), createTableCommitter(node, metadata));
             Map<Symbol, Integer> layout = ImmutableMap.of(node.getOutputSymbols().get(0), 0);
@@ -1401,7 +1600,7 @@ public class LocalExecutionPlanner
 
                 operatorFactories.add(inMemoryExchange.createSinkFactory(subContext.getNextOperatorId()));
 
-                DriverFactory driverFactory = new DriverFactory(subContext.isInputDriver(), false, operatorFactories);
+                DriverFactory driverFactory = new DriverFactory(subContext.isInputDriver(), false, operatorFactories, subContext.getDriverInstanceCount());
                 context.addDriverFactory(driverFactory);
             }
             inMemoryExchange.noMoreSinkFactories();
@@ -1513,6 +1712,12 @@ public class LocalExecutionPlanner
 
             Optional<Integer> hashChannel = node.getHashSymbol().transform(channelGetter(source));
 
+            // partial aggregations flush when full, so only the other steps need to spill
+            Optional<SpillerFactory> aggregationSpillerFactory = Optional.absent();
+            if (node.getStep() != AggregationNode.Step.PARTIAL) {
+                aggregationSpillerFactory = getSpillerFactory();
+            }
+
             OperatorFactory operatorFactory = new HashAggregationOperatorFactory(
                     context.getNextOperatorId(),
                     groupByTypes,
@@ -1521,22 +1726,84 @@ public class LocalExecutionPlanner
                     accumulatorFactories,
                     hashChannel,
                     10_000,
-                    maxPartialAggregationMemorySize);
+                    maxPartialAggregationMemorySize,
+                    aggregationSpillerFactory);
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
         }
-    }
 
-    private RecordSink getRecordSink(TableWriterNode node)
-    {
-        WriterTarget target = node.getTarget();
-        if (target instanceof CreateHandle) {
-            return recordSinkManager.getRecordSink(((CreateHandle) target).getHandle());
+        private int getTaskConcurrency()
+        {
+            return SystemSessionProperties.getTaskConcurrency(session, taskConcurrency);
+        }
+
+        private int getTaskWriterCount()
+        {
+            return SystemSessionProperties.getTaskWriterCount(session, writerCount);
+        }
+
+        /**
+         * Returns true if the pipeline of the source can be split across multiple drivers. Pipelines
+         * that read splits already run one driver per split, and index lookups are not thread safe.
+         */
+        private boolean canRunInParallel(PhysicalOperation source, LocalExecutionPlanContext context)
+        {
+            if (getTaskConcurrency() == 1 || context.getIndexSourceContext().isPresent()) {
+                return false;
+            }
+            for (OperatorFactory operatorFactory : source.getOperatorFactories()) {
+                if (operatorFactory instanceof SourceOperatorFactory && !(operatorFactory instanceof ExchangeOperatorFactory)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Ends the current pipeline with a local exchange, and continues the plan in a new pipeline
+         * that runs one driver per partition of the exchange.
+         */
+        private PhysicalOperation createLocalExchange(
+                PhysicalOperation source,
+                LocalExecutionPlanContext context,
+                int partitionCount,
+                Optional<List<Integer>> partitionChannels,
+                Optional<Integer> hashChannel)
+        {
+            LocalExchange exchange = new LocalExchange(source.getTypes(), partitionCount, partitionChannels, hashChannel);
+
+            List<OperatorFactory> factories = ImmutableList.<OperatorFactory>builder()
+                    .addAll(source.getOperatorFactories())
+                    .add(exchange.createSinkFactory(context.getNextOperatorId()))
+                    .build();
+            context.addDriverFactory(new DriverFactory(context.isInputDriver(), false, factories, context.getDriverInstanceCount()));
+            exchange.noMoreSinkFactories();
+
+            // the pipeline feeding the exchange is the input for the plan
+            context.setInputDriver(false);
+            context.setDriverInstanceCount(partitionCount);
+
+            return new PhysicalOperation(exchange.createSourceFactory(context.getNextOperatorId()), source.getLayout());
         }
-        if (target instanceof InsertHandle) {
-            return recordSinkManager.getRecordSink(((InsertHandle) target).getHandle());
+
+        /**
+         * Collects the output of a pipeline that runs in multiple drivers into a single driver.
+         */
+        private PhysicalOperation gatherSource(PhysicalOperation source, LocalExecutionPlanContext context)
+        {
+            if (context.getDriverInstanceCount() == 1) {
+                return source;
+            }
+            return createLocalExchange(source, context, 1, Optional.<List<Integer>>absent(), Optional.<Integer>absent());
+        }
+
+        private Optional<SpillerFactory> getSpillerFactory()
+        {
+            if (isSpillEnabled(session, spillerFactory.isSpillEnabled())) {
+                return Optional.of(spillerFactory);
+            }
+            return Optional.absent();
         }
-        throw new AssertionError("Unhandled target type: " + target.getClass().getName());
     }
 
     public static List<Type> toTypes(List<ProjectionFunction> projections)
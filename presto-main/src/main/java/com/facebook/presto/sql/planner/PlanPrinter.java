@@ -87,6 +87,7 @@ public class PlanPrinter
 {
     private final StringBuilder output = new StringBuilder();
     private final Metadata metadata;
+    private final CardinalityEstimator estimator;
 
     private PlanPrinter(PlanNode plan, Map<Symbol, Type> types, Metadata metadata, Optional<Map<PlanFragmentId, PlanFragment>> fragmentsById)
     {
@@ -96,6 +97,7 @@ public class PlanPrinter
         checkNotNull(metadata, "metadata is null");
 
         this.metadata = metadata;
+        this.estimator = new CardinalityEstimator(metadata);
 
         Visitor visitor = new Visitor(types, fragmentsById);
         plan.accept(visitor, 0);
@@ -172,6 +174,16 @@ public class PlanPrinter
             }
 
             print(indent, "- %s[%s] => [%s]", node.getType().getJoinLabel(), Joiner.on(" AND ").join(joinExpressions), formatOutputs(node.getOutputSymbols()));
+            if (node.getDistributionType().isPresent()) {
+                print(indent + 2, "Distribution: %s", node.getDistributionType().get());
+            }
+            CardinalityEstimator.Estimate estimate = estimator.estimate(node);
+            if (estimate.isRowCountKnown()) {
+                print(indent + 2, "Estimated rows: %.0f (left: %.0f, right: %.0f)",
+                        estimate.getRowCount(),
+                        estimator.estimate(node.getLeft()).getRowCount(),
+                        estimator.estimate(node.getRight()).getRowCount());
+            }
             node.getLeft().accept(this, indent + 1);
             node.getRight().accept(this, indent + 1);
 
@@ -296,7 +296,8 @@ class RelationPlanner
                     rightPlanBuilder.getRoot(),
                     ImmutableList.<JoinNode.EquiJoinClause>of(),
                     Optional.<Symbol>absent(),
-                    Optional.<Symbol>absent());
+                    Optional.<Symbol>absent(),
+                    Optional.<JoinNode.DistributionType>absent());
             root = new FilterNode(idAllocator.getNextId(), root, postInnerJoinCriteria);
         }
         else {
@@ -306,7 +307,8 @@ class RelationPlanner
                     rightPlanBuilder.getRoot(),
                     equiClauses.build(),
                     Optional.<Symbol>absent(),
-                    Optional.<Symbol>absent());
+                    Optional.<Symbol>absent(),
+                    Optional.<JoinNode.DistributionType>absent());
         }
         Optional<Symbol> sampleWeight = Optional.absent();
         if (leftPlanBuilder.getSampleWeight().isPresent() || rightPlanBuilder.getSampleWeight().isPresent()) {
@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.SystemSessionProperties;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.CardinalityEstimator;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeRewriter;
+import com.facebook.presto.sql.planner.plan.PlanRewriter;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Uses the table statistics of the connectors to reorder trees of inner joins so that the build
+ * sides are small, and to choose for every join whether its build side is replicated to all nodes
+ * or both sides are hash partitioned. Joins over sources without statistics are left unchanged,
+ * and keep the distribution configured with {@code distributed-joins-enabled}.
+ */
+public class CostBasedJoinOptimizer
+        extends PlanOptimizer
+{
+    // assumed size of a value of a variable width type, such as a varchar
+    private static final int VARIABLE_WIDTH_VALUE_SIZE = 32;
+
+    private final Metadata metadata;
+    private final boolean reorderJoins;
+    private final DataSize maxReplicatedJoinSize;
+
+    public CostBasedJoinOptimizer(Metadata metadata, boolean reorderJoins, DataSize maxReplicatedJoinSize)
+    {
+        this.metadata = checkNotNull(metadata, "metadata is null");
+        this.reorderJoins = reorderJoins;
+        this.maxReplicatedJoinSize = checkNotNull(maxReplicatedJoinSize, "maxReplicatedJoinSize is null");
+    }
+
+    @Override
+    public PlanNode optimize(PlanNode plan, Session session, Map<Symbol, Type> types, SymbolAllocator symbolAllocator, PlanNodeIdAllocator idAllocator)
+    {
+        checkNotNull(plan, "plan is null");
+        checkNotNull(session, "session is null");
+        checkNotNull(types, "types is null");
+        checkNotNull(symbolAllocator, "symbolAllocator is null");
+        checkNotNull(idAllocator, "idAllocator is null");
+
+        if (SystemSessionProperties.isReorderJoinsEnabled(session, reorderJoins)) {
+            return PlanRewriter.rewriteWith(new Rewriter(new CardinalityEstimator(metadata), types, idAllocator, maxReplicatedJoinSize), plan, null);
+        }
+        return plan;
+    }
+
+    private static class Rewriter
+            extends PlanNodeRewriter<Void>
+    {
+        private final CardinalityEstimator estimator;
+        private final Map<Symbol, Type> types;
+        private final PlanNodeIdAllocator idAllocator;
+        private final double maxReplicatedJoinBytes;
+
+        private Rewriter(CardinalityEstimator estimator, Map<Symbol, Type> types, PlanNodeIdAllocator idAllocator, DataSize maxReplicatedJoinSize)
+        {
+            this.estimator = checkNotNull(estimator, "estimator is null");
+            this.types = checkNotNull(types, "types is null");
+            this.idAllocator = checkNotNull(idAllocator, "idAllocator is null");
+            this.maxReplicatedJoinBytes = maxReplicatedJoinSize.toBytes();
+        }
+
+        @Override
+        public PlanNode rewriteJoin(JoinNode node, Void context, PlanRewriter<Void> planRewriter)
+        {
+            JoinNode rewritten = planRewriter.defaultRewrite(node, context);
+
+            if (isReorderable(rewritten)) {
+                Optional<JoinNode> reordered = reorder(rewritten);
+                if (reordered.isPresent()) {
+                    return reordered.get();
+                }
+            }
+            return chooseDistribution(rewritten);
+        }
+
+        /**
+         * Joins the sources of a tree of inner joins in a new order: the largest source is the probe
+         * side of the bottom join, and each join above it adds the source that gives the smallest
+         * estimated result. Returns absent if a source has no estimate, or if the order would need a cross join.
+         */
+        private Optional<JoinNode> reorder(JoinNode node)
+        {
+            List<PlanNode> sources = new ArrayList<>();
+            List<JoinNode.EquiJoinClause> criteria = new ArrayList<>();
+            flatten(node, sources, criteria);
+
+            PlanNode largest = null;
+            for (PlanNode source : sources) {
+                CardinalityEstimator.Estimate estimate = estimator.estimate(source);
+                if (!estimate.isRowCountKnown()) {
+                    return Optional.absent();
+                }
+                if (largest == null || estimate.getRowCount() > estimator.estimate(largest).getRowCount()) {
+                    largest = source;
+                }
+            }
+
+            List<PlanNode> remaining = new ArrayList<>(sources);
+            remaining.remove(largest);
+
+            PlanNode current = largest;
+            while (!remaining.isEmpty()) {
+                JoinNode best = null;
+                for (PlanNode source : remaining) {
+                    List<JoinNode.EquiJoinClause> clauses = getJoinClauses(criteria, current.getOutputSymbols(), source.getOutputSymbols());
+                    if (clauses.isEmpty()) {
+                        continue;
+                    }
+                    JoinNode candidate = new JoinNode(idAllocator.getNextId(), JoinNode.Type.INNER, current, source, clauses, Optional.<Symbol>absent(), Optional.<Symbol>absent(), Optional.<JoinNode.DistributionType>absent());
+                    if (best == null || isCheaper(candidate, best)) {
+                        best = candidate;
+                    }
+                }
+                if (best == null) {
+                    return Optional.absent();
+                }
+                remaining.remove(best.getRight());
+                current = chooseDistribution(best);
+            }
+            return Optional.of((JoinNode) current);
+        }
+
+        private boolean isCheaper(JoinNode candidate, JoinNode best)
+        {
+            double candidateRows = estimator.estimate(candidate).getRowCount();
+            double bestRows = estimator.estimate(best).getRowCount();
+            if (candidateRows != bestRows) {
+                return candidateRows < bestRows;
+            }
+            return estimator.estimate(candidate.getRight()).getRowCount() < estimator.estimate(best.getRight()).getRowCount();
+        }
+
+        private JoinNode chooseDistribution(JoinNode node)
+        {
+            if (node.getCriteria().isEmpty()) {
+                // there are no keys to partition on
+                return node;
+            }
+
+            PlanNode build = (node.getType() == JoinNode.Type.RIGHT) ? node.getLeft() : node.getRight();
+            CardinalityEstimator.Estimate estimate = estimator.estimate(build);
+            if (!estimate.isRowCountKnown()) {
+                return node;
+            }
+
+            double buildBytes = estimate.getRowCount() * getRowSize(build.getOutputSymbols());
+            JoinNode.DistributionType distributionType = (buildBytes <= maxReplicatedJoinBytes) ? JoinNode.DistributionType.REPLICATED : JoinNode.DistributionType.PARTITIONED;
+            return new JoinNode(node.getId(), node.getType(), node.getLeft(), node.getRight(), node.getCriteria(), node.getLeftHashSymbol(), node.getRightHashSymbol(), Optional.of(distributionType));
+        }
+
+        private long getRowSize(List<Symbol> symbols)
+        {
+            long size = 0;
+            for (Symbol symbol : symbols) {
+                Type type = types.get(symbol);
+                if (type instanceof FixedWidthType) {
+                    size += ((FixedWidthType) type).getFixedSize();
+                }
+                else {
+                    size += VARIABLE_WIDTH_VALUE_SIZE;
+                }
+            }
+            return size;
+        }
+    }
+
+    private static boolean isReorderable(JoinNode node)
+    {
+        return node.getType() == JoinNode.Type.INNER &&
+                !node.getCriteria().isEmpty() &&
+                !node.getLeftHashSymbol().isPresent() &&
+                !node.getRightHashSymbol().isPresent();
+    }
+
+    private static void flatten(PlanNode node, List<PlanNode> sources, List<JoinNode.EquiJoinClause> criteria)
+    {
+        if (node instanceof JoinNode && isReorderable((JoinNode) node)) {
+            JoinNode join = (JoinNode) node;
+            flatten(join.getLeft(), sources, criteria);
+            flatten(join.getRight(), sources, criteria);
+            criteria.addAll(join.getCriteria());
+        }
+        else {
+            sources.add(node);
+        }
+    }
+
+    /**
+     * Returns the clauses that join the specified sides, with the left symbol of each clause on the left side.
+     */
+    private static List<JoinNode.EquiJoinClause> getJoinClauses(List<JoinNode.EquiJoinClause> criteria, List<Symbol> leftSymbols, List<Symbol> rightSymbols)
+    {
+        Set<Symbol> left = ImmutableSet.copyOf(leftSymbols);
+        Set<Symbol> right = ImmutableSet.copyOf(rightSymbols);
+
+        ImmutableList.Builder<JoinNode.EquiJoinClause> clauses = ImmutableList.builder();
+        for (JoinNode.EquiJoinClause clause : criteria) {
+            if (left.contains(clause.getLeft()) && right.contains(clause.getRight())) {
+                clauses.add(clause);
+            }
+            else if (left.contains(clause.getRight()) && right.contains(clause.getLeft())) {
+                clauses.add(new JoinNode.EquiJoinClause(clause.getRight(), clause.getLeft()));
+            }
+        }
+        return clauses.build();
+    }
+}
@@ -289,7 +289,7 @@ public class UnaliasSymbolReferences
             PlanNode left = planRewriter.rewrite(node.getLeft(), context);
             PlanNode right = planRewriter.rewrite(node.getRight(), context);
 
-            return new JoinNode(node.getId(), node.getType(), left, right, canonicalizeJoinCriteria(node.getCriteria()), node.getLeftHashSymbol(), node.getRightHashSymbol());
+            return new JoinNode(node.getId(), node.getType(), left, right, canonicalizeJoinCriteria(node.getCriteria()), node.getLeftHashSymbol(), node.getRightHashSymbol(), node.getDistributionType());
         }
 
         @Override
@@ -37,6 +37,7 @@ public class JoinNode
     private final List<EquiJoinClause> criteria;
     private final Optional<Symbol> leftHashSymbol;
     private final Optional<Symbol> rightHashSymbol;
+    private final Optional<DistributionType> distributionType;
 
     @JsonCreator
     public JoinNode(@JsonProperty("id") PlanNodeId id,
@@ -45,7 +46,8 @@ public class JoinNode
             @JsonProperty("right") PlanNode right,
             @JsonProperty("criteria") List<EquiJoinClause> criteria,
             @JsonProperty("leftHashSymbol") Optional<Symbol> leftHashSymbol,
-            @JsonProperty("rightHashSymbol") Optional<Symbol> rightHashSymbol)
+            @JsonProperty("rightHashSymbol") Optional<Symbol> rightHashSymbol,
+            @JsonProperty("distributionType") Optional<DistributionType> distributionType)
     {
         super(id);
         checkNotNull(type, "type is null");
@@ -54,6 +56,7 @@ public class JoinNode
         checkNotNull(criteria, "criteria is null");
         checkNotNull(leftHashSymbol, "leftHashSymbol is null");
         checkNotNull(rightHashSymbol, "rightHashSymbol is null");
+        checkNotNull(distributionType, "distributionType is null");
 
         this.type = type;
         this.left = left;
@@ -61,6 +64,18 @@ public class JoinNode
         this.criteria = ImmutableList.copyOf(criteria);
         this.leftHashSymbol = leftHashSymbol;
         this.rightHashSymbol = rightHashSymbol;
+        this.distributionType = distributionType;
+    }
+
+    /**
+     * How the sides of a distributed join are brought together: the build side is either
+     * sent in full to every node that runs the probe side, or both sides are hash partitioned
+     * on the join keys.
+     */
+    public enum DistributionType
+    {
+        REPLICATED,
+        PARTITIONED
     }
 
     public enum Type
@@ -137,6 +152,15 @@ public class JoinNode
         return rightHashSymbol;
     }
 
+    /**
+     * @return the distribution chosen by the optimizer, or absent to use the configured default
+     */
+    @JsonProperty("distributionType")
+    public Optional<DistributionType> getDistributionType()
+    {
+        return distributionType;
+    }
+
     @Override
     public List<PlanNode> getSources()
     {
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkBlockBuilder
+{
+    @Benchmark
+    public Block appendBigint(BenchmarkData data)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+        long[] values = data.getLongValues();
+        for (int i = 0; i < values.length; i++) {
+            BIGINT.writeLong(blockBuilder, values[i]);
+        }
+        return blockBuilder.build();
+    }
+
+    @Benchmark
+    public Block appendDouble(BenchmarkData data)
+    {
+        BlockBuilder blockBuilder = DOUBLE.createBlockBuilder(new BlockBuilderStatus());
+        long[] values = data.getLongValues();
+        for (int i = 0; i < values.length; i++) {
+            DOUBLE.writeDouble(blockBuilder, values[i]);
+        }
+        return blockBuilder.build();
+    }
+
+    @Benchmark
+    public Block appendVarchar(BenchmarkData data)
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(new BlockBuilderStatus());
+        Slice[] values = data.getSliceValues();
+        for (int i = 0; i < values.length; i++) {
+            VARCHAR.writeSlice(blockBuilder, values[i]);
+        }
+        return blockBuilder.build();
+    }
+
+    @Benchmark
+    public Block copyPositions(BenchmarkData data)
+    {
+        Block source = data.getVarcharBlock();
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(new BlockBuilderStatus());
+        for (int position = 0; position < source.getPositionCount(); position++) {
+            VARCHAR.appendTo(source, position, blockBuilder);
+        }
+        return blockBuilder.build();
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({ "1024", "16384" })
+        private int positionCount;
+
+        @Param({ "4", "32", "256" })
+        private int sliceLength;
+
+        private long[] longValues;
+        private Slice[] sliceValues;
+        private Block varcharBlock;
+
+        @Setup
+        public void setup()
+        {
+            longValues = new long[positionCount];
+            sliceValues = new Slice[positionCount];
+            for (int i = 0; i < positionCount; i++) {
+                longValues[i] = ThreadLocalRandom.current().nextLong();
+
+                byte[] bytes = new byte[sliceLength];
+                ThreadLocalRandom.current().nextBytes(bytes);
+                sliceValues[i] = Slices.wrappedBuffer(bytes);
+            }
+
+            BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(new BlockBuilderStatus());
+            for (Slice value : sliceValues) {
+                VARCHAR.writeSlice(blockBuilder, value);
+            }
+            varcharBlock = blockBuilder.build();
+        }
+
+        public long[] getLongValues()
+        {
+            return longValues;
+        }
+
+        public Slice[] getSliceValues()
+        {
+            return sliceValues;
+        }
+
+        public Block getVarcharBlock()
+        {
+            return varcharBlock;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBlockBuilder.class.getSimpleName() + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .result(BenchmarkBlockBuilder.class.getSimpleName() + ".json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.block.PagesSerde.readPages;
+import static com.facebook.presto.block.PagesSerde.writePages;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
+import static com.google.common.base.Charsets.UTF_8;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkPagesSerde
+{
+    private static final List<Type> TYPES = ImmutableList.<Type>of(BIGINT, DOUBLE, VARCHAR);
+
+    @Benchmark
+    public Slice write(BenchmarkData data)
+    {
+        return data.write();
+    }
+
+    @Benchmark
+    public int read(BenchmarkData data)
+    {
+        return data.read(data.getSerializedPages());
+    }
+
+    @Benchmark
+    public int roundTrip(BenchmarkData data)
+    {
+        return data.read(data.write());
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({ "NONE", "SNAPPY" })
+        private PagesCompression compression;
+
+        @Param({ "10", "1000", "1000000" })
+        private int distinctValues;
+
+        private final int pageCount = 20;
+        private final BlockEncodingSerde blockEncodingSerde = createTestingBlockEncodingManager();
+        private final PagesTransferStats stats = new PagesTransferStats();
+        private List<Page> pages;
+        private Slice serializedPages;
+
+        @Setup
+        public void setup()
+        {
+            pages = new ArrayList<>(pageCount);
+            PageBuilder pageBuilder = new PageBuilder(TYPES);
+            for (int numPage = 0; numPage < pageCount; numPage++) {
+                pageBuilder.reset();
+                while (!pageBuilder.isFull()) {
+                    int value = ThreadLocalRandom.current().nextInt(distinctValues);
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(0), value);
+                    DOUBLE.writeDouble(pageBuilder.getBlockBuilder(1), value * 0.5);
+                    VARCHAR.writeSlice(pageBuilder.getBlockBuilder(2), Slices.copiedBuffer("value" + value, UTF_8));
+                }
+                pages.add(pageBuilder.build());
+            }
+            serializedPages = write();
+        }
+
+        public Slice getSerializedPages()
+        {
+            return serializedPages;
+        }
+
+        public Slice write()
+        {
+            DynamicSliceOutput output = new DynamicSliceOutput(1024 * 1024);
+            writePages(blockEncodingSerde, compression, output, pages, stats);
+            return output.slice();
+        }
+
+        public int read(Slice slice)
+        {
+            int positionCount = 0;
+            Iterator<Page> iterator = readPages(blockEncodingSerde, compression, slice.getInput(), stats);
+            while (iterator.hasNext()) {
+                positionCount += iterator.next().getPositionCount();
+            }
+            return positionCount;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .result(BenchmarkPagesSerde.class.getSimpleName() + ".json")
+                .build();
+        new Runner(options).run();
+    }
+}
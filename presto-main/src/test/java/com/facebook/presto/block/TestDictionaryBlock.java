@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block;
+
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.SliceArrayBlock;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+public class TestDictionaryBlock
+        extends AbstractTestBlock
+{
+    @Test
+    public void test()
+    {
+        Slice[] dictionary = createDictionary(5);
+        assertDictionaryBlock(dictionary, 100);
+        assertDictionaryBlock((Slice[]) alternatingNullValues(dictionary), 100);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertDictionaryBlock(createDictionary(5), 0);
+    }
+
+    private static void assertDictionaryBlock(Slice[] dictionary, int positionCount)
+    {
+        int[] ids = new int[positionCount];
+        Slice[] expectedValues = new Slice[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = (position * 7) % dictionary.length;
+            expectedValues[position] = dictionary[ids[position]];
+        }
+
+        DictionaryBlock block = new DictionaryBlock(positionCount, new SliceArrayBlock(dictionary.length, dictionary), ids);
+        assertBlock(block, expectedValues);
+    }
+
+    private static Slice[] createDictionary(int size)
+    {
+        Slice[] dictionary = new Slice[size];
+        for (int i = 0; i < size; i++) {
+            dictionary[i] = createExpectedValue(i + 1);
+        }
+        return dictionary;
+    }
+}
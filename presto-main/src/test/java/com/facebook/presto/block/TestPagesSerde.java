@@ -26,6 +26,8 @@ import org.testng.annotations.Test;
 import java.util.Iterator;
 import java.util.List;
 
+import static com.facebook.presto.block.PagesCompression.NONE;
+import static com.facebook.presto.block.PagesCompression.SNAPPY;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.block.PagesSerde.readPages;
 import static com.facebook.presto.block.PagesSerde.writePages;
@@ -34,6 +36,7 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -60,6 +63,49 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testCompressedRoundTrip()
+    {
+        BlockBuilder expectedBlockBuilder = VARCHAR.createBlockBuilder(new BlockBuilderStatus());
+        for (int i = 0; i < 1000; i++) {
+            VARCHAR.writeString(expectedBlockBuilder, "alice");
+        }
+        Block expectedBlock = expectedBlockBuilder.build();
+        Page expectedPage = new Page(expectedBlock, expectedBlock);
+        List<Page> expectedPages = ImmutableList.of(expectedPage, expectedPage);
+
+        PagesTransferStats uncompressedStats = new PagesTransferStats();
+        DynamicSliceOutput uncompressedOutput = new DynamicSliceOutput(1024);
+        writePages(createTestingBlockEncodingManager(), NONE, uncompressedOutput, expectedPages, uncompressedStats);
+        assertEquals(uncompressedStats.getUncompressedBytes(), uncompressedOutput.size());
+        assertEquals(uncompressedStats.getCompressedBytes(), uncompressedOutput.size());
+
+        PagesTransferStats writeStats = new PagesTransferStats();
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        writePages(createTestingBlockEncodingManager(), SNAPPY, sliceOutput, expectedPages, writeStats);
+        assertEquals(writeStats.getUncompressedBytes(), uncompressedOutput.size());
+        assertEquals(writeStats.getCompressedBytes(), sliceOutput.size());
+        assertTrue(sliceOutput.size() < uncompressedOutput.size());
+
+        PagesTransferStats readStats = new PagesTransferStats();
+        List<Type> types = ImmutableList.<Type>of(VARCHAR, VARCHAR);
+        Iterator<Page> pageIterator = readPages(createTestingBlockEncodingManager(), SNAPPY, sliceOutput.slice().getInput(), readStats);
+        assertPageEquals(types, pageIterator.next(), expectedPage);
+        assertPageEquals(types, pageIterator.next(), expectedPage);
+        assertFalse(pageIterator.hasNext());
+        assertEquals(readStats.getUncompressedBytes(), writeStats.getUncompressedBytes());
+        assertEquals(readStats.getCompressedBytes(), writeStats.getCompressedBytes());
+    }
+
+    @Test
+    public void testCompressionFromHeader()
+    {
+        assertEquals(PagesCompression.fromHeader(null), NONE);
+        assertEquals(PagesCompression.fromHeader("snappy"), SNAPPY);
+        assertEquals(PagesCompression.fromHeader("SNAPPY"), SNAPPY);
+        assertEquals(PagesCompression.fromHeader("unknown"), NONE);
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
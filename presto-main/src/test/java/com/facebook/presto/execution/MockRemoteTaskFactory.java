@@ -44,6 +44,7 @@ import javax.annotation.concurrent.GuardedBy;
 import java.net.URI;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
@@ -54,6 +55,7 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.util.Failures.toFailures;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 public class MockRemoteTaskFactory
         implements RemoteTaskFactory
@@ -66,6 +68,11 @@ public class MockRemoteTaskFactory
     }
 
     public RemoteTask createTableScanTask(Node newNode, List<Split> splits)
+    {
+        return createTableScanTask(newNode, splits, 0);
+    }
+
+    public RemoteTask createTableScanTask(Node newNode, List<Split> splits, double partitionedSplitThroughput)
     {
         TaskId taskId = new TaskId(new StageId("test", "1"), "1");
         Symbol symbol = new Symbol("column");
@@ -92,7 +99,7 @@ public class MockRemoteTaskFactory
         for (Split sourceSplit : splits) {
             initialSplits.put(sourceId, sourceSplit);
         }
-        return createRemoteTask(TEST_SESSION, taskId, newNode, testFragment, initialSplits.build(), OutputBuffers.INITIAL_EMPTY_OUTPUT_BUFFERS);
+        return new MockRemoteTask(taskId, testFragment, newNode.getNodeIdentifier(), executor, initialSplits.build(), partitionedSplitThroughput);
     }
 
     @Override
@@ -104,7 +111,7 @@ public class MockRemoteTaskFactory
             Multimap<PlanNodeId, Split> initialSplits,
             OutputBuffers outputBuffers)
     {
-        return new MockRemoteTask(taskId, fragment, node.getNodeIdentifier(), executor, initialSplits);
+        return new MockRemoteTask(taskId, fragment, node.getNodeIdentifier(), executor, initialSplits, 0);
     }
 
     private class MockRemoteTask
@@ -117,6 +124,7 @@ public class MockRemoteTaskFactory
         private final TaskContext taskContext;
         private final SharedBuffer sharedBuffer;
         private final String nodeId;
+        private final double partitionedSplitThroughput;
 
         private final PlanFragment fragment;
 
@@ -130,7 +138,8 @@ public class MockRemoteTaskFactory
                 PlanFragment fragment,
                 String nodeId,
                 Executor executor,
-                Multimap<PlanNodeId, Split> initialSplits)
+                Multimap<PlanNodeId, Split> initialSplits,
+                double partitionedSplitThroughput)
         {
             this.taskStateMachine = new TaskStateMachine(checkNotNull(taskId, "taskId is null"), checkNotNull(executor, "executor is null"));
 
@@ -141,6 +150,7 @@ public class MockRemoteTaskFactory
             this.sharedBuffer = new SharedBuffer(taskId, executor, checkNotNull(new DataSize(1, DataSize.Unit.BYTE), "maxBufferSize is null"));
             this.fragment = checkNotNull(fragment, "fragment is null");
             this.nodeId = checkNotNull(nodeId, "nodeId is null");
+            this.partitionedSplitThroughput = partitionedSplitThroughput;
             splits.putAll(initialSplits);
         }
 
@@ -185,6 +195,35 @@ public class MockRemoteTaskFactory
             }
         }
 
+        @Override
+        public void addSpeculativeSplit(Split split)
+        {
+            checkNotNull(split, "split is null");
+            splits.put(fragment.getPartitionedSource(), split);
+        }
+
+        @Override
+        public void commitSplit(Split split)
+        {
+        }
+
+        @Override
+        public void abortSplit(Split split)
+        {
+        }
+
+        @Override
+        public Map<Split, SplitStatus> getStagedSplits()
+        {
+            return ImmutableMap.of();
+        }
+
+        @Override
+        public Duration getStagedSplitMedianTime()
+        {
+            return new Duration(0, MILLISECONDS);
+        }
+
         @Override
         public void noMoreSplits(PlanNodeId sourceId)
         {
@@ -213,6 +252,12 @@ public class MockRemoteTaskFactory
             });
         }
 
+        @Override
+        public void addStatusListener(StateChangeListener<TaskStatus> statusListener)
+        {
+            // the task never receives a status
+        }
+
         @Override
         public void cancel()
         {
@@ -237,6 +282,12 @@ public class MockRemoteTaskFactory
             return splits.size();
         }
 
+        @Override
+        public double getPartitionedSplitThroughput()
+        {
+            return partitionedSplitThroughput;
+        }
+
         @Override
         public Duration waitForTaskToFinish(Duration maxWait)
                 throws InterruptedException
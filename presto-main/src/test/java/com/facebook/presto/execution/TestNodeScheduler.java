@@ -17,6 +17,7 @@ import com.facebook.presto.metadata.InMemoryNodeManager;
 import com.facebook.presto.metadata.NodeVersion;
 import com.facebook.presto.metadata.PrestoNode;
 import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.AffinitySplit;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Node;
@@ -155,6 +156,38 @@ public class TestNodeScheduler
         assertEquals(assignments.size(), 1);
     }
 
+    @Test
+    public void testSplitAffinity()
+            throws Exception
+    {
+        NodeSchedulerConfig config = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerNodePerTask(10)
+                .setSplitAffinitySchedulingEnabled(true);
+
+        NodeScheduler scheduler = new NodeScheduler(nodeManager, config, nodeTaskMap);
+
+        // the same split is scheduled on the same node by every query
+        Set<Node> chosenNodes = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            NodeScheduler.NodeSelector selector = scheduler.createNodeSelector("foo");
+            Set<Split> splits = ImmutableSet.of(new Split("foo", new TestSplitAffinity("hdfs://table/file:0")));
+            chosenNodes.addAll(selector.computeAssignments(splits, taskMap.values()).keySet());
+        }
+        assertEquals(chosenNodes.size(), 1);
+        assertEquals(scheduler.getScheduleAffinity(), 10);
+
+        // different splits are spread over the nodes
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            splits.add(new Split("foo", new TestSplitAffinity("hdfs://table/file:" + i)));
+        }
+        Multimap<Node, Split> assignments = scheduler.createNodeSelector("foo").computeAssignments(splits, taskMap.values());
+        assertEquals(assignments.size(), 30);
+        assertEquals(assignments.keySet().size(), 3);
+    }
+
     @Test
     public void testBasicAssignment()
             throws Exception
@@ -236,6 +269,44 @@ public class TestNodeScheduler
         assertFalse(assignments.keySet().contains(newNode)); // No splits scheduled on the maxed out node
     }
 
+    @Test
+    public void testLoadAwarePlacement()
+            throws Exception
+    {
+        ImmutableList.Builder<Split> initialSplits = ImmutableList.builder();
+        for (int i = 0; i < 5; i++) {
+            initialSplits.add(new Split("foo", new TestSplitRemote()));
+        }
+
+        // every node has the same number of splits, but the last node completes them ten times slower
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor);
+        List<Node> nodes = ImmutableList.copyOf(nodeManager.getActiveDatasourceNodes("foo"));
+        Node slowNode = nodes.get(2);
+        for (Node node : nodes) {
+            RemoteTask remoteTask = remoteTaskFactory.createTableScanTask(node, initialSplits.build(), node.equals(slowNode) ? 1 : 10);
+            taskMap.put(node, remoteTask);
+            nodeTaskMap.addTask(node, remoteTask);
+        }
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            splits.add(new Split("foo", new TestSplitRemote()));
+        }
+        NodeSchedulerConfig config = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerNodePerTask(10)
+                .setSplitPlacementPolicy(SplitPlacementPolicyType.LOAD_AWARE);
+        NodeScheduler.NodeSelector selector = new NodeScheduler(nodeManager, config, nodeTaskMap).createNodeSelector("foo");
+        Multimap<Node, Split> assignments = selector.computeAssignments(splits, taskMap.values());
+        assertEquals(assignments.size(), 6);
+        assertFalse(assignments.keySet().contains(slowNode));
+
+        // the default split count policy ignores the throughput
+        assignments = nodeSelector.computeAssignments(splits, taskMap.values());
+        assertEquals(assignments.get(slowNode).size(), 2);
+    }
+
     @Test
     public void testTaskCompletion()
             throws Exception
@@ -294,4 +365,39 @@ public class TestNodeScheduler
             return this;
         }
     }
+
+    private class TestSplitAffinity
+            implements AffinitySplit
+    {
+        private final String affinityKey;
+
+        private TestSplitAffinity(String affinityKey)
+        {
+            this.affinityKey = affinityKey;
+        }
+
+        @Override
+        public String getAffinityKey()
+        {
+            return affinityKey;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return true;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of();
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+    }
 }
@@ -30,7 +30,9 @@ public class TestNodeSchedulerConfig
                 .setMaxPendingSplitsPerNodePerTask(10)
                 .setIncludeCoordinator(true)
                 .setLocationAwareSchedulingEnabled(true)
-                .setMultipleTasksPerNodeEnabled(false));
+                .setMultipleTasksPerNodeEnabled(false)
+                .setSplitAffinitySchedulingEnabled(false)
+                .setSplitPlacementPolicy(SplitPlacementPolicyType.SPLIT_COUNT));
     }
 
     @Test
@@ -43,6 +45,8 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.max-pending-splits-per-node-per-task", "11")
                 .put("node-scheduler.max-splits-per-node", "101")
                 .put("node-scheduler.multiple-tasks-per-node-enabled", "true")
+                .put("node-scheduler.split-affinity-scheduling-enabled", "true")
+                .put("node-scheduler.split-placement-policy", "LOAD_AWARE")
                 .build();
 
         NodeSchedulerConfig expected = new NodeSchedulerConfig()
@@ -51,7 +55,9 @@ public class TestNodeSchedulerConfig
                 .setMultipleTasksPerNodeEnabled(true)
                 .setMaxSplitsPerNode(101)
                 .setMaxPendingSplitsPerNodePerTask(11)
-                .setMinCandidates(11);
+                .setMinCandidates(11)
+                .setSplitAffinitySchedulingEnabled(true)
+                .setSplitPlacementPolicy(SplitPlacementPolicyType.LOAD_AWARE);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
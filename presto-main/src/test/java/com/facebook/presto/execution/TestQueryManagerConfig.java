@@ -41,7 +41,11 @@ public class TestQueryManagerConfig
                 .setQueryManagerExecutorPoolSize(5)
                 .setRemoteTaskMaxConsecutiveErrorCount(10)
                 .setRemoteTaskMinErrorDuration(new Duration(2, TimeUnit.MINUTES))
-                .setRemoteTaskMaxCallbackThreads(1000));
+                .setRemoteTaskMaxCallbackThreads(1000)
+                .setRemoteTaskInfoRefreshInterval(new Duration(1, TimeUnit.SECONDS))
+                .setRemoteTaskSmileEnabled(true)
+                .setSpeculativeExecutionCompletedSplitRatio(0.75)
+                .setSpeculativeExecutionSlowSplitMultiplier(1.5));
     }
 
     @Test
@@ -63,6 +67,10 @@ public class TestQueryManagerConfig
                 .put("query.remote-task.max-consecutive-error-count", "300")
                 .put("query.remote-task.min-error-duration", "30s")
                 .put("query.remote-task.max-callback-threads", "10")
+                .put("query.remote-task.info-refresh-interval", "5s")
+                .put("query.remote-task.smile-enabled", "false")
+                .put("query.speculative-execution.completed-split-ratio", "0.5")
+                .put("query.speculative-execution.slow-split-multiplier", "3.0")
                 .build();
 
         QueryManagerConfig expected = new QueryManagerConfig()
@@ -80,7 +88,11 @@ public class TestQueryManagerConfig
                 .setQueryManagerExecutorPoolSize(11)
                 .setRemoteTaskMaxConsecutiveErrorCount(300)
                 .setRemoteTaskMinErrorDuration(new Duration(30, TimeUnit.SECONDS))
-                .setRemoteTaskMaxCallbackThreads(10);
+                .setRemoteTaskMaxCallbackThreads(10)
+                .setRemoteTaskInfoRefreshInterval(new Duration(5, TimeUnit.SECONDS))
+                .setRemoteTaskSmileEnabled(false)
+                .setSpeculativeExecutionCompletedSplitRatio(0.5)
+                .setSpeculativeExecutionSlowSplitMultiplier(3.0);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
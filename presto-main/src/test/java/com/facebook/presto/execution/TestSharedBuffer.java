@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.execution;
 
+import com.facebook.presto.HashPagePartitionFunction;
 import com.facebook.presto.OutputBuffers;
 import com.facebook.presto.UnpartitionedPagePartitionFunction;
 import com.facebook.presto.block.BlockAssertions;
@@ -20,6 +21,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.operator.PageAssertions;
 import com.facebook.presto.spi.type.BigintType;
 import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -635,6 +637,86 @@ public class TestSharedBuffer
         assertTrue(secondEnqueuePage.isDone());
     }
 
+    @Test
+    public void testPartitionedBuffers()
+            throws Exception
+    {
+        // two partitions, each with room for two pages
+        SharedBuffer sharedBuffer = new SharedBuffer(TASK_ID, stateNotificationExecutor, sizeOfPages(4));
+        ListenableFuture<Integer> partitionCount = sharedBuffer.getPartitionCount();
+        assertFalse(partitionCount.isDone());
+
+        sharedBuffer.setOutputBuffers(INITIAL_EMPTY_OUTPUT_BUFFERS
+                .withBuffer(FIRST, createHashPartitionFunction(0, 2))
+                .withBuffer(SECOND, createHashPartitionFunction(1, 2))
+                .withNoMoreBufferIds());
+        assertTrue(partitionCount.isDone());
+        assertEquals(partitionCount.get(), (Integer) 2);
+
+        // fill the first partition
+        assertTrue(sharedBuffer.enqueue(0, createPage(0)).isDone());
+        assertTrue(sharedBuffer.enqueue(0, createPage(1)).isDone());
+        ListenableFuture<?> blocked = sharedBuffer.enqueue(0, createPage(2));
+        assertFalse(blocked.isDone());
+
+        // the second partition still accepts pages
+        assertTrue(sharedBuffer.enqueue(1, createPage(3)).isDone());
+        assertQueueState(sharedBuffer, FIRST, 3, 0);
+        assertQueueState(sharedBuffer, SECOND, 1, 0);
+
+        // each consumer only sees the pages of its partition
+        assertBufferResultEquals(TYPES, getBufferResult(sharedBuffer, FIRST, 0, sizeOfPages(10), NO_WAIT), bufferResult(0, createPage(0), createPage(1)));
+        assertBufferResultEquals(TYPES, getBufferResult(sharedBuffer, SECOND, 0, sizeOfPages(10), NO_WAIT), bufferResult(0, createPage(3)));
+
+        // acknowledging the pages of the first partition frees the writer
+        assertBufferResultEquals(TYPES, getBufferResult(sharedBuffer, FIRST, 2, sizeOfPages(10), NO_WAIT), bufferResult(2, createPage(2)));
+        assertTrue(blocked.isDone());
+        assertQueueState(sharedBuffer, FIRST, 1, 2);
+
+        sharedBuffer.setNoMorePages();
+        assertBufferResultEquals(TYPES, getBufferResult(sharedBuffer, FIRST, 3, sizeOfPages(10), NO_WAIT), emptyResults(3, true));
+        assertBufferResultEquals(TYPES, getBufferResult(sharedBuffer, SECOND, 1, sizeOfPages(10), NO_WAIT), emptyResults(1, true));
+        assertFinished(sharedBuffer);
+    }
+
+    @Test
+    public void testAbortPartitionFreesWriter()
+            throws Exception
+    {
+        SharedBuffer sharedBuffer = new SharedBuffer(TASK_ID, stateNotificationExecutor, sizeOfPages(2));
+        sharedBuffer.setOutputBuffers(INITIAL_EMPTY_OUTPUT_BUFFERS
+                .withBuffer(FIRST, createHashPartitionFunction(0, 2))
+                .withBuffer(SECOND, createHashPartitionFunction(1, 2))
+                .withNoMoreBufferIds());
+
+        assertTrue(sharedBuffer.enqueue(0, createPage(0)).isDone());
+        ListenableFuture<?> blocked = sharedBuffer.enqueue(0, createPage(1));
+        assertFalse(blocked.isDone());
+
+        // aborting the consumer discards its pages
+        sharedBuffer.abort(FIRST);
+        assertTrue(blocked.isDone());
+        assertQueueClosed(sharedBuffer, FIRST, 0);
+        assertTrue(sharedBuffer.enqueue(0, createPage(2)).isDone());
+    }
+
+    @Test
+    public void testDestroyCompletesPartitionCount()
+            throws Exception
+    {
+        SharedBuffer sharedBuffer = new SharedBuffer(TASK_ID, stateNotificationExecutor, sizeOfPages(2));
+        ListenableFuture<Integer> partitionCount = sharedBuffer.getPartitionCount();
+
+        sharedBuffer.destroy();
+        assertTrue(partitionCount.isDone());
+        assertEquals(partitionCount.get(), (Integer) 0);
+    }
+
+    private static HashPagePartitionFunction createHashPartitionFunction(int partition, int partitionCount)
+    {
+        return new HashPagePartitionFunction(partition, partitionCount, ImmutableList.of(0), Optional.<Integer>absent(), ImmutableList.<Type>copyOf(TYPES));
+    }
+
     private static ListenableFuture<?> enqueuePage(SharedBuffer sharedBuffer, Page page)
     {
         ListenableFuture<?> future = sharedBuffer.enqueue(page);
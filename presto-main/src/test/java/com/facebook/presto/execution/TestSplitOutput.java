@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.block.BlockAssertions;
+import com.facebook.presto.spi.Page;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestSplitOutput
+{
+    private static final TaskId TASK_ID = new TaskId("query", "stage", "task");
+
+    private ScheduledExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newScheduledThreadPool(2, daemonThreadsNamed("test-%s"));
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Test
+    public void testOriginalIsPublishedWhenFinished()
+    {
+        SharedBuffer sharedBuffer = createSharedBuffer();
+        SplitOutput splitOutput = new SplitOutput(1, false, sharedBuffer);
+
+        splitOutput.enqueue(createPage(1));
+        splitOutput.enqueue(createPage(2));
+        assertTrue(splitOutput.getStagedBytes() > 0);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 0);
+
+        ListenableFuture<?> future = splitOutput.finish();
+        assertTrue(future.isDone());
+        assertEquals(splitOutput.getState(), SplitOutput.State.PUBLISHED);
+        assertEquals(splitOutput.getStagedBytes(), 0);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 2);
+
+        // the output has been used, so it can not be discarded anymore
+        assertFalse(splitOutput.abort());
+        assertEquals(splitOutput.getState(), SplitOutput.State.PUBLISHED);
+    }
+
+    @Test
+    public void testAbortDiscardsOutput()
+    {
+        SharedBuffer sharedBuffer = createSharedBuffer();
+        SplitOutput splitOutput = new SplitOutput(1, false, sharedBuffer);
+
+        splitOutput.enqueue(createPage(1));
+        assertTrue(splitOutput.abort());
+        assertTrue(splitOutput.isAborted());
+        assertEquals(splitOutput.getStagedBytes(), 0);
+
+        // output produced after the abort is dropped
+        splitOutput.enqueue(createPage(2));
+        assertEquals(splitOutput.getStagedBytes(), 0);
+
+        assertTrue(splitOutput.finish().isDone());
+        assertEquals(splitOutput.getState(), SplitOutput.State.ABORTED);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 0);
+    }
+
+    @Test
+    public void testSpeculativeCopyIsPublishedWhenCommitted()
+    {
+        SharedBuffer sharedBuffer = createSharedBuffer();
+        SplitOutput splitOutput = new SplitOutput(1, true, sharedBuffer);
+
+        splitOutput.enqueue(createPage(1));
+        ListenableFuture<?> future = splitOutput.finish();
+        assertFalse(future.isDone());
+        assertEquals(splitOutput.getState(), SplitOutput.State.FINISHED);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 0);
+
+        assertTrue(splitOutput.commit());
+        assertTrue(future.isDone());
+        assertEquals(splitOutput.getState(), SplitOutput.State.PUBLISHED);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 1);
+
+        // a repeated commit is ignored
+        assertTrue(splitOutput.commit());
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 1);
+    }
+
+    @Test
+    public void testSpeculativeCopyIsAbortedWhenFinished()
+    {
+        SharedBuffer sharedBuffer = createSharedBuffer();
+        SplitOutput splitOutput = new SplitOutput(1, true, sharedBuffer);
+
+        splitOutput.enqueue(createPage(1));
+        ListenableFuture<?> future = splitOutput.finish();
+        assertTrue(splitOutput.abort());
+        assertTrue(future.isDone());
+
+        assertFalse(splitOutput.commit());
+        assertEquals(splitOutput.getState(), SplitOutput.State.ABORTED);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 0);
+    }
+
+    @Test
+    public void testOriginalIsPublishedWhenStagedOutputExceedsLimit()
+    {
+        SharedBuffer sharedBuffer = createSharedBuffer();
+        Page page = createPage(1);
+        SplitOutput splitOutput = new SplitOutput(1, false, sharedBuffer, page.getSizeInBytes());
+
+        assertTrue(splitOutput.enqueue(page).isDone());
+        assertEquals(splitOutput.getStagedBytes(), page.getSizeInBytes());
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 0);
+
+        // the staged output outgrows the limit, so the split stops staging and publishes its output
+        assertTrue(splitOutput.enqueue(createPage(2)).isDone());
+        assertEquals(splitOutput.getState(), SplitOutput.State.PUBLISHED);
+        assertEquals(splitOutput.getStagedBytes(), 0);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 2);
+
+        // the rest of the output goes directly to the shared buffer
+        assertTrue(splitOutput.enqueue(createPage(3)).isDone());
+        assertEquals(splitOutput.getStagedBytes(), 0);
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 3);
+
+        assertTrue(splitOutput.finish().isDone());
+        assertFalse(splitOutput.abort());
+        assertEquals(splitOutput.getState(), SplitOutput.State.PUBLISHED);
+    }
+
+    @Test
+    public void testPublishedOutputIsBlockedByTheSharedBuffer()
+    {
+        SharedBuffer sharedBuffer = new SharedBuffer(TASK_ID, executor, new DataSize(1, BYTE));
+        Page page = createPage(1);
+        SplitOutput splitOutput = new SplitOutput(1, false, sharedBuffer, page.getSizeInBytes());
+
+        assertTrue(splitOutput.enqueue(page).isDone());
+
+        // the shared buffer is full after the first page, so the writer must wait
+        ListenableFuture<?> blocked = splitOutput.enqueue(createPage(2));
+        assertFalse(blocked.isDone());
+        assertEquals(splitOutput.getState(), SplitOutput.State.PUBLISHED);
+
+        ListenableFuture<?> finished = splitOutput.finish();
+        assertFalse(finished.isDone());
+
+        sharedBuffer.destroy();
+        assertTrue(blocked.isDone());
+        assertTrue(finished.isDone());
+    }
+
+    @Test
+    public void testSpeculativeCopyIsAbortedWhenStagedOutputExceedsLimit()
+    {
+        SharedBuffer sharedBuffer = createSharedBuffer();
+        Page page = createPage(1);
+        SplitOutput splitOutput = new SplitOutput(1, true, sharedBuffer, page.getSizeInBytes());
+
+        assertTrue(splitOutput.enqueue(page).isDone());
+        assertFalse(splitOutput.isAborted());
+
+        // a copy can not publish before it is committed, so it gives up the race
+        assertTrue(splitOutput.enqueue(createPage(2)).isDone());
+        assertTrue(splitOutput.isAborted());
+        assertEquals(splitOutput.getStagedBytes(), 0);
+
+        assertTrue(splitOutput.finish().isDone());
+        assertFalse(splitOutput.commit());
+        assertEquals(sharedBuffer.getInfo().getPagesAdded(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCommitBeforeFinish()
+    {
+        SplitOutput splitOutput = new SplitOutput(1, true, createSharedBuffer());
+        splitOutput.enqueue(createPage(1));
+        splitOutput.commit();
+    }
+
+    private SharedBuffer createSharedBuffer()
+    {
+        return new SharedBuffer(TASK_ID, executor, new DataSize(1, MEGABYTE));
+    }
+
+    private static Page createPage(int value)
+    {
+        return new Page(BlockAssertions.createLongsBlock(value));
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.OutputBuffers;
+import com.facebook.presto.execution.StateMachine.StateChangeListener;
+import com.facebook.presto.metadata.Split;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestSplitSpeculator
+{
+    @Test
+    public void testCopyFinishesFirst()
+    {
+        Split split = new Split("test", new TestingConnectorSplit(true));
+        TestingRemoteTask original = new TestingRemoteTask("node1");
+        original.startSplit(0, split, new Duration(10, SECONDS));
+        TestingRemoteTask copy = new TestingRemoteTask("node2");
+        TestingRemoteTask other = new TestingRemoteTask("node3");
+        List<RemoteTask> tasks = ImmutableList.<RemoteTask>of(original, copy, other);
+
+        SplitSpeculator speculator = new SplitSpeculator(0.75, 1.5);
+        assertFalse(speculator.process(tasks, 10));
+        assertEquals(copy.getSpeculativeSplits(), ImmutableList.of(split));
+        assertEquals(other.getSpeculativeSplits(), ImmutableList.of());
+
+        // a split is copied only once
+        assertFalse(speculator.process(tasks, 10));
+        assertEquals(copy.getSpeculativeSplits(), ImmutableList.of(split));
+        assertEquals(other.getSpeculativeSplits(), ImmutableList.of());
+
+        // the copy is not committed before the task of the original has confirmed the abort
+        copy.setSplitStatus(split, new SplitStatus(0, SplitOutput.State.FINISHED, new Duration(1, SECONDS)));
+        assertFalse(speculator.process(tasks, 10));
+        assertEquals(original.getAbortedSplits(), ImmutableList.of(split));
+        assertEquals(copy.getCommittedSplits(), ImmutableList.of());
+
+        original.setSplitStatus(split, new SplitStatus(0, SplitOutput.State.ABORTED, new Duration(10, SECONDS)));
+        original.setPartitionedSplitCount(0);
+        assertFalse(speculator.process(tasks, 10));
+        assertEquals(copy.getCommittedSplits(), ImmutableList.of(split));
+        assertEquals(copy.getAbortedSplits(), ImmutableList.of());
+
+        copy.publishSplit(split);
+        assertTrue(speculator.process(tasks, 10));
+    }
+
+    @Test
+    public void testOriginalFinishesFirst()
+    {
+        Split split = new Split("test", new TestingConnectorSplit(true));
+        TestingRemoteTask original = new TestingRemoteTask("node1");
+        original.startSplit(0, split, new Duration(10, SECONDS));
+        TestingRemoteTask copy = new TestingRemoteTask("node2");
+        List<RemoteTask> tasks = ImmutableList.<RemoteTask>of(original, copy);
+
+        SplitSpeculator speculator = new SplitSpeculator(0.75, 1.5);
+        assertFalse(speculator.process(tasks, 10));
+        assertEquals(copy.getSpeculativeSplits(), ImmutableList.of(split));
+
+        // the original published its output, so the copy must never publish its own
+        copy.setSplitStatus(split, new SplitStatus(0, SplitOutput.State.RUNNING, new Duration(1, SECONDS)));
+        original.publishSplit(split);
+        assertFalse(speculator.process(tasks, 10));
+        assertEquals(copy.getAbortedSplits(), ImmutableList.of(split));
+        assertEquals(original.getAbortedSplits(), ImmutableList.of());
+
+        copy.setSplitStatus(split, new SplitStatus(0, SplitOutput.State.ABORTED, new Duration(1, SECONDS)));
+        copy.setPartitionedSplitCount(0);
+        assertTrue(speculator.process(tasks, 10));
+        assertEquals(copy.getCommittedSplits(), ImmutableList.of());
+    }
+
+    @Test
+    public void testNoCopy()
+    {
+        Split split = new Split("test", new TestingConnectorSplit(true));
+        TestingRemoteTask original = new TestingRemoteTask("node1");
+        original.startSplit(0, split, new Duration(10, SECONDS));
+        TestingRemoteTask sameNode = new TestingRemoteTask("node1");
+        TestingRemoteTask otherNode = new TestingRemoteTask("node2");
+        SplitSpeculator speculator = new SplitSpeculator(0.75, 1.5);
+
+        // most splits are still running
+        assertFalse(speculator.process(ImmutableList.<RemoteTask>of(original, otherNode), 2));
+        assertEquals(otherNode.getSpeculativeSplits(), ImmutableList.of());
+
+        // a copy on the same node would be as slow
+        assertFalse(speculator.process(ImmutableList.<RemoteTask>of(original, sameNode), 10));
+        assertEquals(sameNode.getSpeculativeSplits(), ImmutableList.of());
+
+        // the split is not slow compared to the median
+        otherNode.setStagedSplitMedianTime(new Duration(8, SECONDS));
+        assertFalse(speculator.process(ImmutableList.<RemoteTask>of(original, otherNode), 10));
+        assertEquals(otherNode.getSpeculativeSplits(), ImmutableList.of());
+
+        // the split can only run on its own node
+        Split localSplit = new Split("test", new TestingConnectorSplit(false));
+        TestingRemoteTask localOriginal = new TestingRemoteTask("node3");
+        localOriginal.startSplit(0, localSplit, new Duration(10, SECONDS));
+        TestingRemoteTask idle = new TestingRemoteTask("node4");
+        assertFalse(speculator.process(ImmutableList.<RemoteTask>of(localOriginal, idle), 10));
+        assertEquals(idle.getSpeculativeSplits(), ImmutableList.of());
+    }
+
+    private static class TestingRemoteTask
+            implements RemoteTask
+    {
+        private final String nodeId;
+        private final Map<Split, SplitStatus> stagedSplits = new HashMap<>();
+        private final List<Split> speculativeSplits = new ArrayList<>();
+        private final List<Split> committedSplits = new ArrayList<>();
+        private final List<Split> abortedSplits = new ArrayList<>();
+        private int partitionedSplitCount;
+        private Duration stagedSplitMedianTime = new Duration(1, SECONDS);
+
+        private TestingRemoteTask(String nodeId)
+        {
+            this.nodeId = nodeId;
+        }
+
+        public void startSplit(long splitId, Split split, Duration elapsedTime)
+        {
+            stagedSplits.put(split, new SplitStatus(splitId, SplitOutput.State.RUNNING, elapsedTime));
+            partitionedSplitCount++;
+        }
+
+        public void setSplitStatus(Split split, SplitStatus splitStatus)
+        {
+            stagedSplits.put(split, splitStatus);
+        }
+
+        public void publishSplit(Split split)
+        {
+            stagedSplits.remove(split);
+            partitionedSplitCount--;
+        }
+
+        public void setPartitionedSplitCount(int partitionedSplitCount)
+        {
+            this.partitionedSplitCount = partitionedSplitCount;
+        }
+
+        public void setStagedSplitMedianTime(Duration stagedSplitMedianTime)
+        {
+            this.stagedSplitMedianTime = stagedSplitMedianTime;
+        }
+
+        public List<Split> getSpeculativeSplits()
+        {
+            return speculativeSplits;
+        }
+
+        public List<Split> getCommittedSplits()
+        {
+            return committedSplits;
+        }
+
+        public List<Split> getAbortedSplits()
+        {
+            return abortedSplits;
+        }
+
+        @Override
+        public String getNodeId()
+        {
+            return nodeId;
+        }
+
+        @Override
+        public void addSpeculativeSplit(Split split)
+        {
+            speculativeSplits.add(split);
+            partitionedSplitCount++;
+        }
+
+        @Override
+        public void commitSplit(Split split)
+        {
+            committedSplits.add(split);
+        }
+
+        @Override
+        public void abortSplit(Split split)
+        {
+            abortedSplits.add(split);
+        }
+
+        @Override
+        public Map<Split, SplitStatus> getStagedSplits()
+        {
+            return ImmutableMap.copyOf(stagedSplits);
+        }
+
+        @Override
+        public Duration getStagedSplitMedianTime()
+        {
+            return stagedSplitMedianTime;
+        }
+
+        @Override
+        public int getPartitionedSplitCount()
+        {
+            return partitionedSplitCount;
+        }
+
+        @Override
+        public int getQueuedPartitionedSplitCount()
+        {
+            return 0;
+        }
+
+        @Override
+        public double getPartitionedSplitThroughput()
+        {
+            return 0;
+        }
+
+        @Override
+        public TaskInfo getTaskInfo()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void start()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addSplits(PlanNodeId sourceId, Iterable<Split> split)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void noMoreSplits(PlanNodeId sourceId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setOutputBuffers(OutputBuffers outputBuffers)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addStateChangeListener(StateChangeListener<TaskInfo> stateChangeListener)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addStatusListener(StateChangeListener<TaskStatus> statusListener)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void cancel()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Duration waitForTaskToFinish(Duration maxWait)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class TestingConnectorSplit
+            implements ConnectorSplit
+    {
+        private final boolean remotelyAccessible;
+
+        private TestingConnectorSplit(boolean remotelyAccessible)
+        {
+            this.remotelyAccessible = remotelyAccessible;
+        }
+
+        @Override
+        public boolean isRemotelyAccessible()
+        {
+            return remotelyAccessible;
+        }
+
+        @Override
+        public List<HostAddress> getAddresses()
+        {
+            return ImmutableList.of(HostAddress.fromString("127.0.0.1"));
+        }
+
+        @Override
+        public Object getInfo()
+        {
+            return this;
+        }
+    }
+}
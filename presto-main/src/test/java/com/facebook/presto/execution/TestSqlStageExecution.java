@@ -64,6 +64,7 @@ import javax.annotation.concurrent.GuardedBy;
 import java.net.URI;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
@@ -196,6 +197,8 @@ public class TestSqlStageExecution
                 TEST_SESSION,
                 splitBatchSize,
                 8,      // initialHashPartitions
+                0.75,   // speculativeExecutionCompletedSplitRatio
+                1.5,    // speculativeExecutionSlowSplitMultiplier
                 executor,
                 nodeTaskMap,
                 outputBuffers);
@@ -225,6 +228,8 @@ public class TestSqlStageExecution
                     TEST_SESSION,
                     1000,
                     8,
+                    0.75,
+                    1.5,
                     executor,
                     nodeTaskMap,
                     outputBuffers);
@@ -297,7 +302,7 @@ public class TestSqlStageExecution
         // join build and probe
         PlanFragment joinPlan = new PlanFragment(
                 new PlanFragmentId(planId),
-                new JoinNode(new PlanNodeId(planId), JoinNode.Type.INNER, probeExchange, buildExchange, ImmutableList.<EquiJoinClause>of(), Optional.<Symbol>absent(), Optional.<Symbol>absent()),
+                new JoinNode(new PlanNodeId(planId), JoinNode.Type.INNER, probeExchange, buildExchange, ImmutableList.<EquiJoinClause>of(), Optional.<Symbol>absent(), Optional.<Symbol>absent(), Optional.<JoinNode.DistributionType>absent()),
                 probe.getFragment().getSymbols(), // this is wrong, but it works
                 PlanDistribution.SOURCE,
                 new PlanNodeId(planId),
@@ -451,6 +456,35 @@ public class TestSqlStageExecution
                 }
             }
 
+            @Override
+            public void addSpeculativeSplit(Split split)
+            {
+                checkNotNull(split, "split is null");
+                splits.put(fragment.getPartitionedSource(), split);
+            }
+
+            @Override
+            public void commitSplit(Split split)
+            {
+            }
+
+            @Override
+            public void abortSplit(Split split)
+            {
+            }
+
+            @Override
+            public Map<Split, SplitStatus> getStagedSplits()
+            {
+                return ImmutableMap.of();
+            }
+
+            @Override
+            public Duration getStagedSplitMedianTime()
+            {
+                return new Duration(0, TimeUnit.MILLISECONDS);
+            }
+
             @Override
             public void noMoreSplits(PlanNodeId sourceId)
             {
@@ -476,6 +510,12 @@ public class TestSqlStageExecution
                 });
             }
 
+            @Override
+            public void addStatusListener(StateChangeListener<TaskStatus> statusListener)
+            {
+                // the task never receives a status
+            }
+
             @Override
             public void cancel()
             {
@@ -509,6 +549,12 @@ public class TestSqlStageExecution
             {
                 return 0;
             }
+
+            @Override
+            public double getPartitionedSplitThroughput()
+            {
+                return 0;
+            }
         }
     }
 }
@@ -20,7 +20,9 @@ import com.facebook.presto.UnpartitionedPagePartitionFunction;
 import com.facebook.presto.event.query.QueryMonitor;
 import com.facebook.presto.execution.SharedBuffer.BufferState;
 import com.facebook.presto.sql.planner.LocalExecutionPlanner;
+import com.facebook.presto.sql.planner.PlanFragment;
 import com.google.common.base.Functions;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -99,7 +101,7 @@ public class TestSqlTask
         SqlTask sqlTask = createInitialTask();
 
         TaskInfo taskInfo = sqlTask.updateTask(TEST_SESSION,
-                PLAN_FRAGMENT,
+                Optional.of(PLAN_FRAGMENT),
                 ImmutableList.<TaskSource>of(),
                 INITIAL_EMPTY_OUTPUT_BUFFERS);
         assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -108,7 +110,7 @@ public class TestSqlTask
         assertEquals(taskInfo.getState(), TaskState.RUNNING);
 
         taskInfo = sqlTask.updateTask(TEST_SESSION,
-                PLAN_FRAGMENT,
+                Optional.<PlanFragment>absent(),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.<ScheduledSplit>of(), true)),
                 INITIAL_EMPTY_OUTPUT_BUFFERS.withNoMoreBufferIds());
         assertEquals(taskInfo.getState(), TaskState.FINISHED);
@@ -117,6 +119,74 @@ public class TestSqlTask
         assertEquals(taskInfo.getState(), TaskState.FINISHED);
     }
 
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "fragment must be present for the first update of task .*")
+    public void testFirstUpdateRequiresFragment()
+            throws Exception
+    {
+        SqlTask sqlTask = createInitialTask();
+
+        sqlTask.updateTask(TEST_SESSION,
+                Optional.<PlanFragment>absent(),
+                ImmutableList.<TaskSource>of(),
+                INITIAL_EMPTY_OUTPUT_BUFFERS);
+    }
+
+    @Test
+    public void testTaskStatus()
+            throws Exception
+    {
+        SqlTask sqlTask = createInitialTask();
+
+        sqlTask.updateTask(TEST_SESSION,
+                Optional.of(PLAN_FRAGMENT),
+                ImmutableList.<TaskSource>of(),
+                INITIAL_EMPTY_OUTPUT_BUFFERS);
+
+        // the version changes with the state, not with each request
+        TaskStatus taskStatus = sqlTask.getTaskStatus(TaskStatus.MIN_VERSION).get(1, TimeUnit.SECONDS);
+        assertEquals(taskStatus.getState(), TaskState.RUNNING);
+        assertEquals(sqlTask.getTaskStatus().getVersion(), taskStatus.getVersion());
+
+        ListenableFuture<TaskStatus> futureTaskStatus = sqlTask.getTaskStatus(taskStatus.getVersion());
+        assertFalse(futureTaskStatus.isDone());
+
+        sqlTask.cancel();
+        TaskStatus canceledStatus = futureTaskStatus.get(1, TimeUnit.SECONDS);
+        assertTrue(canceledStatus.getVersion() > taskStatus.getVersion());
+        assertEquals(sqlTask.getTaskStatus().getState(), TaskState.CANCELED);
+    }
+
+    @Test
+    public void testTaskStatusChangesWithSplits()
+            throws Exception
+    {
+        SqlTask sqlTask = createInitialTask();
+
+        sqlTask.updateTask(TEST_SESSION,
+                Optional.of(PLAN_FRAGMENT),
+                ImmutableList.<TaskSource>of(),
+                INITIAL_EMPTY_OUTPUT_BUFFERS.withBuffer(OUT, new UnpartitionedPagePartitionFunction()).withNoMoreBufferIds());
+        TaskStatus taskStatus = sqlTask.getTaskStatus(TaskStatus.MIN_VERSION).get(1, TimeUnit.SECONDS);
+        assertEquals(taskStatus.getState(), TaskState.RUNNING);
+
+        ListenableFuture<TaskStatus> futureTaskStatus = sqlTask.getTaskStatus(taskStatus.getVersion());
+        assertFalse(futureTaskStatus.isDone());
+
+        // the split is added without no more splits, so the task stays running and only the split wakes the status requests
+        updateTask(sqlTask,
+                ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), false)),
+                INITIAL_EMPTY_OUTPUT_BUFFERS.withBuffer(OUT, new UnpartitionedPagePartitionFunction()).withNoMoreBufferIds());
+        taskStatus = futureTaskStatus.get(1, TimeUnit.SECONDS);
+
+        // wait for the status that reports the completion of the split
+        while (taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers() > 0) {
+            taskStatus = sqlTask.getTaskStatus(taskStatus.getVersion()).get(1, TimeUnit.SECONDS);
+        }
+        assertEquals(taskStatus.getState(), TaskState.RUNNING);
+
+        sqlTask.cancel();
+    }
+
     @Test
     public void testSimpleQuery()
             throws Exception
@@ -124,7 +194,7 @@ public class TestSqlTask
         SqlTask sqlTask = createInitialTask();
 
         TaskInfo taskInfo = sqlTask.updateTask(TEST_SESSION,
-                PLAN_FRAGMENT,
+                Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
                 INITIAL_EMPTY_OUTPUT_BUFFERS.withBuffer(OUT, new UnpartitionedPagePartitionFunction()).withNoMoreBufferIds());
         assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -154,7 +224,7 @@ public class TestSqlTask
         SqlTask sqlTask = createInitialTask();
 
         TaskInfo taskInfo = sqlTask.updateTask(TEST_SESSION,
-                PLAN_FRAGMENT,
+                Optional.of(PLAN_FRAGMENT),
                 ImmutableList.<TaskSource>of(),
                 INITIAL_EMPTY_OUTPUT_BUFFERS);
         assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -180,7 +250,7 @@ public class TestSqlTask
         SqlTask sqlTask = createInitialTask();
 
         TaskInfo taskInfo = sqlTask.updateTask(TEST_SESSION,
-                PLAN_FRAGMENT,
+                Optional.of(PLAN_FRAGMENT),
                 ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
                 INITIAL_EMPTY_OUTPUT_BUFFERS.withBuffer(OUT, new UnpartitionedPagePartitionFunction()).withNoMoreBufferIds());
         assertEquals(taskInfo.getState(), TaskState.RUNNING);
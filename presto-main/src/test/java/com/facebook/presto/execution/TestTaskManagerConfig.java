@@ -35,6 +35,9 @@ public class TestTaskManagerConfig
                 .setVerboseStats(false)
                 .setTaskCpuTimerEnabled(true)
                 .setMaxShardProcessorThreads(Runtime.getRuntime().availableProcessors() * 4)
+                .setTaskConcurrency(1)
+                .setWriterCount(1)
+                .setDynamicFilteringEnabled(false)
                 .setInfoMaxAge(new Duration(15, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(5, TimeUnit.MINUTES))
                 .setMaxTaskMemoryUsage(new DataSize(256, Unit.MEGABYTE))
@@ -57,6 +60,9 @@ public class TestTaskManagerConfig
                 .put("task.operator-pre-allocated-memory", "2MB")
                 .put("task.max-partial-aggregation-memory", "32MB")
                 .put("task.shard.max-threads", "3")
+                .put("task.concurrency", "8")
+                .put("task.writer-count", "4")
+                .put("experimental.dynamic-filtering-enabled", "true")
                 .put("task.info.max-age", "22m")
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
@@ -71,6 +77,9 @@ public class TestTaskManagerConfig
                 .setOperatorPreAllocatedMemory(new DataSize(2, Unit.MEGABYTE))
                 .setMaxPartialAggregationMemoryUsage(new DataSize(32, Unit.MEGABYTE))
                 .setMaxShardProcessorThreads(3)
+                .setTaskConcurrency(8)
+                .setWriterCount(4)
+                .setDynamicFilteringEnabled(true)
                 .setInfoMaxAge(new Duration(22, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setSinkMaxBufferSize(new DataSize(42, Unit.MEGABYTE));
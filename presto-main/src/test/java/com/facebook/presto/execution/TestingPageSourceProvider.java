@@ -19,6 +19,7 @@ import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.TupleDomain;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
@@ -40,4 +41,10 @@ public class TestingPageSourceProvider
 
         return new FixedPageSource(ImmutableList.of(new Page(1)));
     }
+
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns, TupleDomain<ConnectorColumnHandle> dynamicFilter)
+    {
+        return createPageSource(split, columns);
+    }
 }
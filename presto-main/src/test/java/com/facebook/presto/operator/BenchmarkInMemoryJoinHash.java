@@ -0,0 +1,165 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkInMemoryJoinHash
+{
+    private static final int PROBE_PAGE_COUNT = 20;
+
+    @Benchmark
+    public long probe(BenchmarkData data)
+    {
+        LookupSource lookupSource = data.getLookupSource();
+        long matches = 0;
+        for (Page page : data.getProbePages()) {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                long joinPosition = lookupSource.getJoinPosition(position, page);
+                while (joinPosition >= 0) {
+                    matches++;
+                    joinPosition = lookupSource.getNextJoinPosition(joinPosition);
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static List<Page> createPages(int pageCount, int positionCount, int keyCount)
+    {
+        List<Type> types = ImmutableList.<Type>of(BIGINT);
+        List<Page> pages = new ArrayList<>(pageCount);
+        PageBuilder pageBuilder = new PageBuilder(types);
+        for (int numPage = 0; numPage < pageCount; numPage++) {
+            pageBuilder.reset();
+            for (int i = 0; i < positionCount; i++) {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), ThreadLocalRandom.current().nextInt(keyCount));
+            }
+            pages.add(pageBuilder.build());
+        }
+        return pages;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({ "1000", "100000", "1000000" })
+        private int buildSize;
+
+        // number of distinct keys on the build side, as a fraction of the build size
+        @Param({ "0.01", "1" })
+        private double buildKeyRatio;
+
+        // fraction of the probe rows that find a match
+        @Param({ "0.1", "1" })
+        private double matchRate;
+
+        private ExecutorService executor;
+        private LookupSource lookupSource;
+        private List<Page> probePages;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test"));
+            OperatorContext operatorContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION, new DataSize(4, GIGABYTE))
+                    .addPipelineContext(true, true)
+                    .addDriverContext()
+                    .addOperatorContext(0, BenchmarkInMemoryJoinHash.class.getSimpleName());
+
+            int positionsPerPage = BlockBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES / 8;
+            int buildKeyCount = Math.max(1, (int) (buildSize * buildKeyRatio));
+
+            PagesIndex pagesIndex = new PagesIndex(ImmutableList.<Type>of(BIGINT), buildSize, operatorContext);
+            int remaining = buildSize;
+            while (remaining > 0) {
+                int positionCount = Math.min(remaining, positionsPerPage);
+                pagesIndex.addPage(createPages(1, positionCount, buildKeyCount).get(0));
+                remaining -= positionCount;
+            }
+            lookupSource = pagesIndex.createLookupSource(ImmutableList.of(0), Optional.<Integer>absent());
+
+            // keys at or above the build key count have no match
+            probePages = createPages(PROBE_PAGE_COUNT, positionsPerPage, (int) Math.ceil(buildKeyCount / matchRate));
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public LookupSource getLookupSource()
+        {
+            return lookupSource;
+        }
+
+        public List<Page> getProbePages()
+        {
+            return probePages;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkInMemoryJoinHash.class.getSimpleName() + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .result(BenchmarkInMemoryJoinHash.class.getSimpleName() + ".json")
+                .build();
+        new Runner(options).run();
+    }
+}
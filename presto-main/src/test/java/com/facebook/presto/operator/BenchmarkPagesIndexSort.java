@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Charsets.UTF_8;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkPagesIndexSort
+{
+    private static final List<Type> TYPES = ImmutableList.<Type>of(BIGINT, VARCHAR);
+
+    @Benchmark
+    public PagesIndex sortBigint(BenchmarkData data)
+    {
+        return data.sort(ImmutableList.<Type>of(BIGINT), ImmutableList.of(0));
+    }
+
+    @Benchmark
+    public PagesIndex sortVarchar(BenchmarkData data)
+    {
+        return data.sort(ImmutableList.<Type>of(VARCHAR), ImmutableList.of(1));
+    }
+
+    @Benchmark
+    public PagesIndex sortBigintVarchar(BenchmarkData data)
+    {
+        return data.sort(TYPES, ImmutableList.of(0, 1));
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({ "10000", "1000000" })
+        private int positionCount;
+
+        @Param({ "10", "1000", "1000000" })
+        private int distinctValues;
+
+        private ExecutorService executor;
+        private PagesIndex pagesIndex;
+        private long[] unsortedAddresses;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test"));
+            OperatorContext operatorContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION, new DataSize(4, GIGABYTE))
+                    .addPipelineContext(true, true)
+                    .addDriverContext()
+                    .addOperatorContext(0, BenchmarkPagesIndexSort.class.getSimpleName());
+
+            pagesIndex = new PagesIndex(TYPES, positionCount, operatorContext);
+            PageBuilder pageBuilder = new PageBuilder(TYPES);
+            for (int position = 0; position < positionCount; position++) {
+                int value = ThreadLocalRandom.current().nextInt(distinctValues);
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), value);
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), Slices.copiedBuffer("value" + value, UTF_8));
+                if (pageBuilder.isFull()) {
+                    pagesIndex.addPage(pageBuilder.build());
+                    pageBuilder.reset();
+                }
+            }
+            if (!pageBuilder.isEmpty()) {
+                pagesIndex.addPage(pageBuilder.build());
+            }
+            unsortedAddresses = pagesIndex.getValueAddresses().toLongArray();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public PagesIndex sort(List<Type> sortTypes, List<Integer> sortChannels)
+        {
+            // restore the original order, so every invocation sorts the same unsorted input
+            LongArrayList valueAddresses = pagesIndex.getValueAddresses();
+            valueAddresses.clear();
+            valueAddresses.addElements(0, unsortedAddresses);
+
+            ImmutableList.Builder<SortOrder> sortOrders = ImmutableList.builder();
+            for (int i = 0; i < sortChannels.size(); i++) {
+                sortOrders.add(ASC_NULLS_LAST);
+            }
+            pagesIndex.sort(sortTypes, sortChannels, sortOrders.build());
+            return pagesIndex;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesIndexSort.class.getSimpleName() + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .result(BenchmarkPagesIndexSort.class.getSimpleName() + ".json")
+                .build();
+        new Runner(options).run();
+    }
+}
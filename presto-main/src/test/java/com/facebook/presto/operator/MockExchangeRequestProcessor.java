@@ -13,7 +13,9 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PagesCompression;
 import com.facebook.presto.block.PagesSerde;
+import com.facebook.presto.block.PagesTransferStats;
 import com.facebook.presto.client.PrestoHeaders;
 import com.facebook.presto.execution.BufferResult;
 import com.facebook.presto.spi.Page;
@@ -39,6 +41,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
 import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
@@ -94,12 +97,21 @@ public class MockExchangeRequestProcessor
         BufferResult result = buffers.getUnchecked(location).getPages(requestLocation.getSequenceId(), maxSize);
         List<Page> pages = result.getPages();
 
+        ImmutableListMultimap.Builder<String, String> headers = ImmutableListMultimap.<String, String>builder()
+                .put(CONTENT_TYPE, PRESTO_PAGES)
+                .put(PRESTO_PAGE_TOKEN, String.valueOf(result.getToken()))
+                .put(PRESTO_PAGE_NEXT_TOKEN, String.valueOf(result.getNextToken()));
+
         byte[] bytes = new byte[0];
         HttpStatus status;
         if (!pages.isEmpty()) {
+            PagesCompression compression = PagesCompression.fromHeader(request.getHeader(PRESTO_PAGE_COMPRESSION));
             DynamicSliceOutput sliceOutput = new DynamicSliceOutput(64);
-            PagesSerde.writePages(createTestingBlockEncodingManager(), sliceOutput, pages);
+            PagesSerde.writePages(createTestingBlockEncodingManager(), compression, sliceOutput, pages, new PagesTransferStats());
             bytes = sliceOutput.slice().getBytes();
+            if (compression != PagesCompression.NONE) {
+                headers.put(PRESTO_PAGE_COMPRESSION, compression.name());
+            }
             status = HttpStatus.OK;
         }
         else if (result.isBufferClosed()) {
@@ -109,14 +121,7 @@ public class MockExchangeRequestProcessor
             status = HttpStatus.NO_CONTENT;
         }
 
-        return new TestingResponse(
-                status,
-                ImmutableListMultimap.of(
-                        CONTENT_TYPE, PRESTO_PAGES,
-                        PRESTO_PAGE_TOKEN, String.valueOf(result.getToken()),
-                        PRESTO_PAGE_NEXT_TOKEN, String.valueOf(result.getNextToken())
-                ),
-                bytes);
+        return new TestingResponse(status, headers.build(), bytes);
     }
 
     private class RequestLocation
@@ -23,6 +23,7 @@ import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.HostAddress;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
@@ -141,6 +142,12 @@ public class TestDriver
                                 .addSequencePage(10, 20, 30, 40)
                                 .build());
                     }
+
+                    @Override
+                    public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+                    {
+                        return createPageSource(split, columns);
+                    }
                 },
                 types,
                 ImmutableList.<ColumnHandle>of());
@@ -245,6 +252,12 @@ public class TestDriver
                                 .addSequencePage(10, 20, 30, 40)
                                 .build());
                     }
+
+                    @Override
+                    public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+                    {
+                        return createPageSource(split, columns);
+                    }
                 },
                 types,
                 ImmutableList.<ColumnHandle>of());
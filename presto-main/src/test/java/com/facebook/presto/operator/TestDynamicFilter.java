@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.ColumnHandle;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.sql.planner.TestingColumnHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicFilter
+{
+    private static final ColumnHandle COLUMN_A = new ColumnHandle("test", new TestingColumnHandle("a"));
+    private static final ColumnHandle COLUMN_B = new ColumnHandle("test", new TestingColumnHandle("b"));
+
+    @Test
+    public void testDistinctValues()
+            throws Exception
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableList.of(COLUMN_A, COLUMN_B), ImmutableList.of(BIGINT, VARCHAR));
+        DynamicFilter.Collector collector = dynamicFilter.createCollector(ImmutableList.of(1, 0));
+
+        for (Page page : rowPagesBuilder(VARCHAR, BIGINT)
+                .row("x", 3)
+                .row("y", 1)
+                .row(null, null)
+                .pageBreak()
+                .row("x", 3)
+                .build()) {
+            collector.addPage(page);
+        }
+        collector.finish();
+        assertFalse(dynamicFilter.getTupleDomain().isDone());
+
+        dynamicFilter.publish();
+        assertTrue(dynamicFilter.getTupleDomain().isDone());
+        assertEquals(dynamicFilter.getTupleDomain().get(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                COLUMN_A, Domain.create(SortedRangeSet.of(Range.equal(1L), Range.equal(3L)), false),
+                COLUMN_B, Domain.create(SortedRangeSet.of(Range.equal(utf8Slice("x")), Range.equal(utf8Slice("y"))), false))));
+    }
+
+    @Test
+    public void testRangeAboveDistinctLimit()
+            throws Exception
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableList.of(COLUMN_A), ImmutableList.of(BIGINT), 2);
+        DynamicFilter.Collector collector = dynamicFilter.createCollector(ImmutableList.of(0));
+        for (Page page : rowPagesBuilder(BIGINT).row(5).row(-2).row(10).row(7).build()) {
+            collector.addPage(page);
+        }
+        collector.finish();
+        dynamicFilter.publish();
+
+        assertEquals(dynamicFilter.getTupleDomain().get(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                COLUMN_A, Domain.create(SortedRangeSet.of(Range.range(-2L, true, 10L, true)), false))));
+    }
+
+    @Test
+    public void testMultipleCollectors()
+            throws Exception
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableList.of(COLUMN_A), ImmutableList.of(BIGINT), 3);
+
+        DynamicFilter.Collector first = dynamicFilter.createCollector(ImmutableList.of(0));
+        for (Page page : rowPagesBuilder(BIGINT).row(1).row(2).build()) {
+            first.addPage(page);
+        }
+        first.finish();
+
+        // the second operator receives no rows
+        dynamicFilter.createCollector(ImmutableList.of(0)).finish();
+
+        DynamicFilter.Collector third = dynamicFilter.createCollector(ImmutableList.of(0));
+        for (Page page : rowPagesBuilder(BIGINT).row(2).row(8).build()) {
+            third.addPage(page);
+        }
+        third.finish();
+        dynamicFilter.publish();
+
+        assertEquals(dynamicFilter.getTupleDomain().get(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                COLUMN_A, Domain.create(SortedRangeSet.of(Range.equal(1L), Range.equal(2L), Range.equal(8L)), false))));
+    }
+
+    @Test
+    public void testEmptyBuild()
+            throws Exception
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableList.of(COLUMN_A), ImmutableList.of(BIGINT));
+        DynamicFilter.Collector collector = dynamicFilter.createCollector(ImmutableList.of(0));
+        for (Page page : rowPagesBuilder(BIGINT).row((Object) null).build()) {
+            collector.addPage(page);
+        }
+        collector.finish();
+        dynamicFilter.publish();
+
+        assertTrue(dynamicFilter.getTupleDomain().get().isNone());
+    }
+
+    @Test
+    public void testIntersect()
+            throws Exception
+    {
+        DynamicFilter first = new DynamicFilter(ImmutableList.of(COLUMN_A), ImmutableList.of(BIGINT));
+        DynamicFilter second = new DynamicFilter(ImmutableList.of(COLUMN_B), ImmutableList.of(BIGINT));
+        ListenableFuture<TupleDomain<ColumnHandle>> intersection = DynamicFilter.intersect(ImmutableList.of(first, second));
+
+        DynamicFilter.Collector collector = first.createCollector(ImmutableList.of(0));
+        for (Page page : rowPagesBuilder(BIGINT).row(1).build()) {
+            collector.addPage(page);
+        }
+        collector.finish();
+        first.publish();
+        assertFalse(intersection.isDone());
+
+        collector = second.createCollector(ImmutableList.of(0));
+        for (Page page : rowPagesBuilder(BIGINT).row(2).build()) {
+            collector.addPage(page);
+        }
+        collector.finish();
+        second.publish();
+
+        assertEquals(intersection.get(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                COLUMN_A, Domain.singleValue(1L),
+                COLUMN_B, Domain.singleValue(2L))));
+        assertTrue(DynamicFilter.intersect(ImmutableList.<DynamicFilter>of()).get().isAll());
+    }
+
+    @Test
+    public void testSupportedTypes()
+    {
+        assertTrue(DynamicFilter.isSupportedType(BIGINT));
+        assertTrue(DynamicFilter.isSupportedType(VARCHAR));
+        // negative zero and zero are equal in a join, but not in a range
+        assertFalse(DynamicFilter.isSupportedType(DOUBLE));
+    }
+}
@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.block.BlockAssertions;
+import com.facebook.presto.block.PagesCompression;
 import com.facebook.presto.spi.Page;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.http.client.testing.TestingHttpClient;
@@ -76,6 +77,7 @@ public class TestExchangeClient
 
         @SuppressWarnings("resource")
         ExchangeClient exchangeClient = new ExchangeClient(createTestingBlockEncodingManager(),
+                PagesCompression.NONE,
                 new DataSize(32, Unit.MEGABYTE),
                 maxResponseSize,
                 1,
@@ -101,6 +103,45 @@ public class TestExchangeClient
 
         // client should have sent only 2 requests: one to get all pages and once to get the done signal
         assertStatus(exchangeClient.getStatus().getPageBufferClientStatuses().get(0), location, "closed", 3, 2, 2, "not scheduled");
+
+        // uncompressed pages have the same size on the wire
+        assertTrue(exchangeClient.getStatus().getUncompressedBytesReceived() > 0);
+        assertEquals(exchangeClient.getStatus().getCompressedBytesReceived(), exchangeClient.getStatus().getUncompressedBytesReceived());
+    }
+
+    @Test
+    public void testCompression()
+            throws Exception
+    {
+        DataSize maxResponseSize = new DataSize(10, Unit.MEGABYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxResponseSize);
+
+        URI location = URI.create("http://localhost:8080");
+        processor.addPage(location, createPage(1000));
+        processor.addPage(location, createPage(2000));
+        processor.setComplete(location);
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(createTestingBlockEncodingManager(),
+                PagesCompression.SNAPPY,
+                new DataSize(32, Unit.MEGABYTE),
+                maxResponseSize,
+                1,
+                new Duration(1, TimeUnit.MINUTES),
+                new TestingHttpClient(processor, executor),
+                executor);
+
+        exchangeClient.addLocation(location);
+        exchangeClient.noMoreLocations();
+
+        assertPageEquals(exchangeClient.getNextPage(new Duration(1, TimeUnit.SECONDS)), createPage(1000));
+        assertPageEquals(exchangeClient.getNextPage(new Duration(1, TimeUnit.SECONDS)), createPage(2000));
+        assertNull(exchangeClient.getNextPage(new Duration(1, TimeUnit.SECONDS)));
+        assertEquals(exchangeClient.isClosed(), true);
+
+        ExchangeClientStatus status = exchangeClient.getStatus();
+        assertTrue(status.getCompressedBytesReceived() > 0);
+        assertLessThan(status.getCompressedBytesReceived(), status.getUncompressedBytesReceived());
     }
 
     @Test
@@ -112,6 +153,7 @@ public class TestExchangeClient
 
         @SuppressWarnings("resource")
         ExchangeClient exchangeClient = new ExchangeClient(createTestingBlockEncodingManager(),
+                PagesCompression.NONE,
                 new DataSize(32, Unit.MEGABYTE),
                 maxResponseSize,
                 1,
@@ -178,6 +220,7 @@ public class TestExchangeClient
 
         @SuppressWarnings("resource")
         ExchangeClient exchangeClient = new ExchangeClient(createTestingBlockEncodingManager(),
+                PagesCompression.NONE,
                 new DataSize(1, Unit.BYTE),
                 maxResponseSize,
                 1,
@@ -257,6 +300,7 @@ public class TestExchangeClient
 
         @SuppressWarnings("resource")
         ExchangeClient exchangeClient = new ExchangeClient(createTestingBlockEncodingManager(),
+                PagesCompression.NONE,
                 new DataSize(1, Unit.BYTE),
                 maxResponseSize, 1,
                 new Duration(1, TimeUnit.MINUTES),
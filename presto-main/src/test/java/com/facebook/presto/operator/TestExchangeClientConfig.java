@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PagesCompression;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
@@ -36,7 +37,8 @@ public class TestExchangeClientConfig
                 .setMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
                 .setConcurrentRequestMultiplier(3)
                 .setMinErrorDuration(new Duration(1, TimeUnit.MINUTES))
-                .setMaxResponseSize(new HttpClientConfig().getMaxContentLength()));
+                .setMaxResponseSize(new HttpClientConfig().getMaxContentLength())
+                .setCompression(PagesCompression.NONE));
     }
 
     @Test
@@ -47,13 +49,15 @@ public class TestExchangeClientConfig
                 .put("exchange.concurrent-request-multiplier", "13")
                 .put("exchange.min-error-duration", "13s")
                 .put("exchange.max-response-size", "1kB")
+                .put("exchange.compression", "SNAPPY")
                 .build();
 
         ExchangeClientConfig expected = new ExchangeClientConfig()
                 .setMaxBufferSize(new DataSize(1, Unit.GIGABYTE))
                 .setConcurrentRequestMultiplier(13)
                 .setMinErrorDuration(new Duration(13, TimeUnit.SECONDS))
-                .setMaxResponseSize(new DataSize(1, Unit.KILOBYTE));
+                .setMaxResponseSize(new DataSize(1, Unit.KILOBYTE))
+                .setCompression(PagesCompression.SNAPPY);
 
         assertFullMapping(properties, expected);
     }
@@ -16,6 +16,7 @@ package com.facebook.presto.operator;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.operator.ExchangeOperator.ExchangeOperatorFactory;
+import com.facebook.presto.block.PagesCompression;
 import com.facebook.presto.block.PagesSerde;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
@@ -106,6 +107,7 @@ public class TestExchangeOperator
             {
                 return new ExchangeClient(
                         createTestingBlockEncodingManager(),
+                        PagesCompression.NONE,
                         new DataSize(32, MEGABYTE),
                         new DataSize(10, MEGABYTE),
                         3,
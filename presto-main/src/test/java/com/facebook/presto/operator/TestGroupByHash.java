@@ -17,6 +17,8 @@ import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
 import com.facebook.presto.type.TypeUtils;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
@@ -57,6 +59,48 @@ public class TestGroupByHash
         }
     }
 
+    @Test
+    public void testDictionaryGroupIds()
+            throws Exception
+    {
+        Block dictionary = BlockAssertions.createStringsBlock("a", "b", "c", null);
+        int[] ids = new int[100];
+        for (int position = 0; position < ids.length; position++) {
+            ids[position] = (position * 3) % 4;
+        }
+        Block dictionaryBlock = new DictionaryBlock(ids.length, dictionary, ids);
+
+        GroupByHash groupByHash = new GroupByHash(ImmutableList.of(VARCHAR), new int[] { 0 }, Optional.<Integer>absent(), 100);
+        GroupByIdBlock groupIds = groupByHash.getGroupIds(new Page(dictionaryBlock));
+        assertEquals(groupIds.getGroupCount(), 4);
+
+        // the dictionary values without the dictionary map to the same groups
+        GroupByIdBlock dictionaryGroupIds = groupByHash.getGroupIds(new Page(dictionary));
+        assertEquals(dictionaryGroupIds.getGroupCount(), 4);
+        for (int position = 0; position < ids.length; position++) {
+            assertEquals(groupIds.getGroupId(position), dictionaryGroupIds.getGroupId(ids[position]));
+        }
+    }
+
+    @Test
+    public void testRunLengthEncodedGroupIds()
+            throws Exception
+    {
+        GroupByHash groupByHash = new GroupByHash(ImmutableList.of(VARCHAR), new int[] { 0 }, Optional.<Integer>absent(), 100);
+        groupByHash.getGroupIds(new Page(BlockAssertions.createStringsBlock("a", "b")));
+
+        GroupByIdBlock groupIds = groupByHash.getGroupIds(new Page(new RunLengthEncodedBlock(BlockAssertions.createStringsBlock("b"), 50)));
+        assertEquals(groupIds.getGroupCount(), 2);
+        assertEquals(groupIds.getPositionCount(), 50);
+        for (int position = 0; position < groupIds.getPositionCount(); position++) {
+            assertEquals(groupIds.getGroupId(position), 1);
+        }
+
+        groupIds = groupByHash.getGroupIds(new Page(new RunLengthEncodedBlock(BlockAssertions.createStringsBlock("c"), 50)));
+        assertEquals(groupIds.getGroupCount(), 3);
+        assertEquals(groupIds.getGroupId(49), 2);
+    }
+
     @Test
     public void testTypes()
             throws Exception
@@ -18,27 +18,43 @@ import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerConfig;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrderWithoutHashes;
 import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
 import static com.google.common.collect.Iterables.concat;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestHashJoinOperator
@@ -78,7 +94,7 @@ public class TestHashJoinOperator
         Operator buildOperator = new ValuesOperator(operatorContext, buildTypes, rowPagesBuilder
                 .addSequencePage(10, 20, 30, 40)
                 .build());
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator sourceHashProvider = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, sourceHashProvider);
@@ -118,6 +134,95 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperator, probeInput, expected, hashEnabled, ImmutableList.of(buildTypes.size(), buildTypes.size() + probeTypes.size() + 1));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testParallelBuild(boolean hashEnabled)
+            throws Exception
+    {
+        // build in two drivers, each indexing one page
+        List<Type> buildTypes = ImmutableList.<Type>of(VARCHAR, BIGINT, BIGINT);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), buildTypes);
+        List<Page> buildPages = rowPagesBuilder
+                .addSequencePage(10, 20, 30, 40)
+                .addSequencePage(10, 30, 40, 50)
+                .build();
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent(), 2);
+        LookupSourceSupplier lookupSourceSupplier = hashBuilderOperatorFactory.getLookupSourceSupplier();
+
+        ListenableFuture<LookupSource> lookupSource = null;
+        for (Page buildPage : buildPages) {
+            DriverContext driverContext = taskContext.addPipelineContext(true, false).addDriverContext();
+            OperatorContext operatorContext = driverContext.addOperatorContext(0, ValuesOperator.class.getSimpleName());
+            Operator buildOperator = new ValuesOperator(operatorContext, rowPagesBuilder.getTypes(), ImmutableList.of(buildPage));
+            Driver driver = new Driver(driverContext, buildOperator, hashBuilderOperatorFactory.createOperator(driverContext));
+            lookupSource = lookupSourceSupplier.getLookupSource(operatorContext);
+            assertFalse(lookupSource.isDone());
+            while (!driver.isFinished()) {
+                driver.process();
+            }
+        }
+        assertTrue(lookupSource.isDone());
+
+        // probe
+        List<Type> probeTypes = ImmutableList.<Type>of(VARCHAR, BIGINT, BIGINT);
+        RowPagesBuilder rowPagesBuilderProbe = rowPagesBuilder(hashEnabled, Ints.asList(0), probeTypes);
+        List<Page> probeInput = rowPagesBuilderProbe
+                .addSequencePage(1000, 0, 1000, 2000)
+                .build();
+        OperatorFactory joinOperatorFactory = LookupJoinOperators.innerJoin(
+                0,
+                lookupSourceSupplier,
+                rowPagesBuilderProbe.getTypes(),
+                Ints.asList(0),
+                rowPagesBuilderProbe.getHashChannel());
+
+        Operator joinOperator = joinOperatorFactory.createOperator(taskContext.addPipelineContext(true, true).addDriverContext());
+
+        // expected
+        MaterializedResult.Builder expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probeTypes, buildTypes));
+        for (int key = 20; key < 40; key++) {
+            expected.row(String.valueOf(key), 1000 + key, 2000 + key, String.valueOf(key), 10 + key, 20 + key);
+        }
+
+        assertOperatorEquals(joinOperator, probeInput, expected.build(), hashEnabled, ImmutableList.of(buildTypes.size(), buildTypes.size() + probeTypes.size() + 1));
+    }
+
+    @Test
+    public void testParallelBuildMemoryReservation()
+            throws Exception
+    {
+        List<Type> buildTypes = ImmutableList.<Type>of(VARCHAR, BIGINT, BIGINT);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(false, Ints.asList(0), buildTypes);
+        List<Page> buildPages = rowPagesBuilder
+                .addSequencePage(1000, 0, 1000, 2000)
+                .addSequencePage(1000, 1000, 2000, 3000)
+                .addSequencePage(1000, 2000, 3000, 4000)
+                .build();
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent(), buildPages.size());
+
+        // every operator indexes one page; the drivers are not closed, so the operators keep their reservations
+        List<Operator> buildOperators = new ArrayList<>();
+        for (Page buildPage : buildPages) {
+            Operator buildOperator = hashBuilderOperatorFactory.createOperator(taskContext.addPipelineContext(true, false).addDriverContext());
+            buildOperator.addInput(buildPage);
+            buildOperators.add(buildOperator);
+        }
+        for (Operator buildOperator : buildOperators) {
+            buildOperator.finish();
+        }
+        assertTrue(hashBuilderOperatorFactory.getLookupSourceSupplier().getLookupSource(null).isDone());
+
+        // the last operator merges the other indexes into its own, so the pages are reserved once by the merged index
+        PagesIndex mergedIndex = new PagesIndex(
+                rowPagesBuilder.getTypes(),
+                100,
+                new TaskContext(new TaskId("query", "stage", "other"), executor, TEST_SESSION).addPipelineContext(true, false).addDriverContext().addOperatorContext(0, "test"));
+        mergedIndex.addPage(buildPages.get(buildPages.size() - 1));
+        for (Page buildPage : buildPages.subList(0, buildPages.size() - 1)) {
+            mergedIndex.addPage(buildPage);
+        }
+        assertEquals(taskContext.getTaskStats().getMemoryReservation(), new DataSize(mergedIndex.getEstimatedSize().toBytes(), BYTE).convertToMostSuccinctDataSize());
+    }
+
     @Test(dataProvider = "hashEnabledValues")
     public void testInnerJoinWithNullProbe(boolean hashEnabled)
             throws Exception
@@ -133,7 +238,7 @@ public class TestHashJoinOperator
                 .row("b")
                 .row("c")
                 .build());
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator sourceHashProvider = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, sourceHashProvider);
@@ -186,7 +291,7 @@ public class TestHashJoinOperator
                 .row("a")
                 .row("b")
                 .build());
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator sourceHashProvider = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, sourceHashProvider);
@@ -237,7 +342,7 @@ public class TestHashJoinOperator
                 .row("a")
                 .row("b")
                 .build());
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator sourceHashProvider = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, sourceHashProvider);
@@ -286,7 +391,7 @@ public class TestHashJoinOperator
                 .addSequencePage(10, 20, 30, 40)
                 .build());
 
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator hashBuilderOperator = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, hashBuilderOperator);
@@ -346,7 +451,7 @@ public class TestHashJoinOperator
                 .row("b")
                 .row("c")
                 .build());
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator sourceHashProvider = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, sourceHashProvider);
@@ -401,7 +506,7 @@ public class TestHashJoinOperator
                 .row("a")
                 .row("b")
                 .build());
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator sourceHashProvider = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, sourceHashProvider);
@@ -453,7 +558,7 @@ public class TestHashJoinOperator
                 .row("a")
                 .row("b")
                 .build());
-        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100);
+        HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.<SpillerFactory>absent());
         Operator sourceHashProvider = hashBuilderOperatorFactory.createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, sourceHashProvider);
@@ -490,6 +595,136 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperator, probeInput, expected, hashEnabled, ImmutableList.of(buildTypes.size() + probeTypes.size()));
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testSpillToDisk(boolean hashEnabled)
+            throws Exception
+    {
+        TaskContext spillTaskContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION, new DataSize(1, MEGABYTE));
+        DriverContext driverContext = spillTaskContext.addPipelineContext(true, true).addDriverContext();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new SpillerFactory(createTestingBlockEncodingManager(), new SpillerConfig().setSpillPath(spillPath));
+
+            // build side does not fit in the task memory
+            OperatorContext operatorContext = driverContext.addOperatorContext(0, ValuesOperator.class.getSimpleName());
+            List<Type> buildTypes = ImmutableList.<Type>of(BIGINT, BIGINT);
+            RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), buildTypes);
+            for (int page = 0; page < 10; page++) {
+                rowPagesBuilder.addSequencePage(10_000, page * 10_000, page * 10_000);
+            }
+            Operator buildOperator = new ValuesOperator(operatorContext, buildTypes, rowPagesBuilder.build());
+            HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.of(spillerFactory));
+            Operator hashBuilderOperator = hashBuilderOperatorFactory.createOperator(driverContext);
+
+            Driver driver = new Driver(driverContext, buildOperator, hashBuilderOperator);
+            while (!driver.isFinished()) {
+                driver.process();
+            }
+            assertTrue(hashBuilderOperator.getOperatorContext().getOperatorStats().getSpilledDataSize().toBytes() > 0);
+
+            // probe
+            List<Type> probeTypes = ImmutableList.<Type>of(BIGINT);
+            RowPagesBuilder rowPagesBuilderProbe = rowPagesBuilder(hashEnabled, Ints.asList(0), probeTypes);
+            for (int page = 0; page < 10; page++) {
+                rowPagesBuilderProbe.addSequencePage(10_000, page * 10_000);
+            }
+            List<Page> probeInput = rowPagesBuilderProbe.build();
+            OperatorFactory joinOperatorFactory = LookupJoinOperators.innerJoin(
+                    0,
+                    hashBuilderOperatorFactory.getLookupSourceSupplier(),
+                    rowPagesBuilderProbe.getTypes(),
+                    Ints.asList(0),
+                    rowPagesBuilderProbe.getHashChannel());
+            Operator joinOperator = joinOperatorFactory.createOperator(spillTaskContext.addPipelineContext(true, true).addDriverContext());
+
+            MaterializedResult.Builder expected = MaterializedResult.resultBuilder(spillTaskContext.getSession(), concat(probeTypes, buildTypes));
+            for (int i = 0; i < 100_000; i++) {
+                expected.row(i, i, i);
+            }
+
+            if (hashEnabled) {
+                assertOperatorEqualsIgnoreOrderWithoutHashes(joinOperator, probeInput, expected.build(), ImmutableList.of(probeTypes.size(), probeTypes.size() + 1 + buildTypes.size()));
+            }
+            else {
+                assertOperatorEqualsIgnoreOrder(joinOperator, probeInput, expected.build());
+            }
+            assertTrue(joinOperator.getOperatorContext().getOperatorStats().getSpilledDataSize().toBytes() > 0);
+
+            // the spilled partitions are released once the lookup source is no longer used
+            ((Closeable) joinOperator).close();
+            joinOperatorFactory.close();
+            assertEquals(spillerFactory.getSpilledBytes(), 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+
+    @Test
+    public void testSpilledPartitionIsSharedByProbeOperators()
+            throws Exception
+    {
+        TaskContext buildTaskContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION, new DataSize(1, MEGABYTE));
+        DriverContext driverContext = buildTaskContext.addPipelineContext(true, true).addDriverContext();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new SpillerFactory(createTestingBlockEncodingManager(), new SpillerConfig().setSpillPath(spillPath));
+
+            // build side does not fit in the task memory
+            OperatorContext operatorContext = driverContext.addOperatorContext(0, ValuesOperator.class.getSimpleName());
+            List<Type> buildTypes = ImmutableList.<Type>of(BIGINT, BIGINT);
+            RowPagesBuilder rowPagesBuilder = rowPagesBuilder(false, Ints.asList(0), buildTypes);
+            for (int page = 0; page < 10; page++) {
+                rowPagesBuilder.addSequencePage(10_000, page * 10_000, page * 10_000);
+            }
+            Operator buildOperator = new ValuesOperator(operatorContext, buildTypes, rowPagesBuilder.build());
+            HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 100, Optional.of(spillerFactory));
+            Operator hashBuilderOperator = hashBuilderOperatorFactory.createOperator(driverContext);
+
+            Driver driver = new Driver(driverContext, buildOperator, hashBuilderOperator);
+            while (!driver.isFinished()) {
+                driver.process();
+            }
+
+            TaskContext probeTaskContext = new TaskContext(new TaskId("query", "stage", "probe"), executor, TEST_SESSION);
+            OperatorContext firstProbe = probeTaskContext.addPipelineContext(true, true).addDriverContext().addOperatorContext(0, LookupJoinOperator.class.getSimpleName());
+            OperatorContext secondProbe = probeTaskContext.addPipelineContext(true, true).addDriverContext().addOperatorContext(0, LookupJoinOperator.class.getSimpleName());
+
+            LookupSourceSupplier lookupSourceSupplier = hashBuilderOperatorFactory.getLookupSourceSupplier();
+            lookupSourceSupplier.retain();
+            PartitionedLookupSource lookupSource = (PartitionedLookupSource) lookupSourceSupplier.getLookupSource(firstProbe).get();
+            int partition = 0;
+            while (!lookupSource.isSpilled(partition)) {
+                partition++;
+            }
+
+            // the first probe operator loads the partition, and the second one shares it
+            LookupSource firstPartition = lookupSource.acquireSpilledPartition(partition, firstProbe).get();
+            DataSize partitionSize = probeTaskContext.getTaskStats().getMemoryReservation();
+            assertTrue(partitionSize.toBytes() > 0);
+            assertEquals(firstProbe.getOperatorStats().getMemoryReservation().toBytes(), 0);
+
+            LookupSource secondPartition = lookupSource.acquireSpilledPartition(partition, secondProbe).get();
+            assertTrue(secondPartition == firstPartition);
+            assertEquals(probeTaskContext.getTaskStats().getMemoryReservation(), partitionSize);
+            assertEquals(secondProbe.getOperatorStats().getMemoryReservation().toBytes(), 0);
+
+            // the memory is freed when the last probe operator releases the partition
+            lookupSource.releaseSpilledPartition(partition);
+            assertEquals(probeTaskContext.getTaskStats().getMemoryReservation(), partitionSize);
+            lookupSource.releaseSpilledPartition(partition);
+            assertEquals(probeTaskContext.getTaskStats().getMemoryReservation().toBytes(), 0);
+
+            lookupSourceSupplier.release();
+            assertEquals(spillerFactory.getSpilledBytes(), 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Task exceeded max memory size.*", dataProvider = "hashEnabledValues")
     public void testMemoryLimit(boolean hashEnabled)
             throws Exception
@@ -505,7 +740,7 @@ public class TestHashJoinOperator
                 .addSequencePage(10, 20, 30, 40)
                 .build());
 
-        Operator hashBuilderOperator = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 1_500_000).createOperator(driverContext);
+        Operator hashBuilderOperator = new HashBuilderOperatorFactory(1, rowPagesBuilder.getTypes(), Ints.asList(0), rowPagesBuilder.getHashChannel(), 1_500_000, Optional.<SpillerFactory>absent()).createOperator(driverContext);
 
         Driver driver = new Driver(driverContext, buildOperator, hashBuilderOperator);
         while (!driver.isFinished()) {
@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.facebook.presto.operator.HashPartitions.getExchangePartition;
+import static com.facebook.presto.operator.HashPartitions.getSpillPartition;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestHashPartitions
+{
+    private static final int SPILL_PARTITIONS = 16;
+
+    @Test
+    public void testSpillPartitionsIndependentOfExchange()
+    {
+        for (int exchangePartitions : new int[] {2, 4, 8, 16}) {
+            for (int exchangePartition = 0; exchangePartition < exchangePartitions; exchangePartition++) {
+                Set<Integer> spillPartitions = new HashSet<>();
+                for (int rawHash = 0; rawHash < 10_000; rawHash++) {
+                    if (getExchangePartition(rawHash, exchangePartitions) == exchangePartition) {
+                        spillPartitions.add(getSpillPartition(rawHash, SPILL_PARTITIONS));
+                    }
+                }
+                assertEquals(spillPartitions.size(), SPILL_PARTITIONS);
+            }
+        }
+    }
+
+    @Test
+    public void testPartitionsInRange()
+    {
+        for (int rawHash : new int[] {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE}) {
+            for (int partitionCount = 1; partitionCount <= 17; partitionCount++) {
+                int exchangePartition = getExchangePartition(rawHash, partitionCount);
+                int spillPartition = getSpillPartition(rawHash, partitionCount);
+                assertTrue(exchangePartition >= 0 && exchangePartition < partitionCount);
+                assertTrue(spillPartition >= 0 && spillPartition < partitionCount);
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.operator.SequencePageBuilder.createSequencePage;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestLocalExchange
+{
+    private static final List<Type> TYPES = ImmutableList.<Type>of(BIGINT);
+
+    private ExecutorService executor;
+    private TaskContext taskContext;
+    private DriverContext driverContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test"));
+        taskContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION);
+        driverContext = taskContext
+                .addPipelineContext(true, true)
+                .addDriverContext();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testRoundRobin()
+            throws Exception
+    {
+        LocalExchange exchange = new LocalExchange(TYPES, 2, Optional.<List<Integer>>absent(), Optional.<Integer>absent());
+        OperatorFactory sinkFactory = exchange.createSinkFactory(0);
+        exchange.noMoreSinkFactories();
+        Operator sink = sinkFactory.createOperator(driverContext);
+        sinkFactory.close();
+
+        OperatorFactory sourceFactory = exchange.createSourceFactory(1);
+        Operator source0 = sourceFactory.createOperator(driverContext);
+        Operator source1 = sourceFactory.createOperator(driverContext);
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(sink.needsInput());
+            sink.addInput(createSequencePage(TYPES, 10, i * 10));
+        }
+        assertFalse(source0.isFinished());
+        assertFalse(source1.isFinished());
+
+        assertEquals(drain(source0), ImmutableList.of(0L, 20L));
+        assertEquals(drain(source1), ImmutableList.of(10L, 30L));
+        assertFalse(source0.isBlocked().isDone());
+
+        sink.finish();
+        assertTrue(source0.isBlocked().isDone());
+        assertTrue(source0.isFinished());
+        assertTrue(source1.isFinished());
+    }
+
+    @Test
+    public void testHashPartitioning()
+            throws Exception
+    {
+        LocalExchange exchange = new LocalExchange(TYPES, 3, Optional.<List<Integer>>of(ImmutableList.of(0)), Optional.<Integer>absent());
+        OperatorFactory sinkFactory = exchange.createSinkFactory(0);
+        exchange.noMoreSinkFactories();
+        Operator sink0 = sinkFactory.createOperator(driverContext);
+        Operator sink1 = sinkFactory.createOperator(driverContext);
+        sinkFactory.close();
+
+        // both sinks produce the same values, which must end up in the same partition
+        sink0.addInput(createSequencePage(TYPES, 100, 0));
+        sink1.addInput(createSequencePage(TYPES, 100, 0));
+        sink0.finish();
+        assertFalse(exchange.isFinishing());
+        sink1.finish();
+        assertTrue(exchange.isFinishing());
+
+        OperatorFactory sourceFactory = exchange.createSourceFactory(1);
+        Set<Long> seenValues = new HashSet<>();
+        int rowCount = 0;
+        for (int partition = 0; partition < 3; partition++) {
+            Operator source = sourceFactory.createOperator(driverContext);
+            Set<Long> partitionValues = new HashSet<>();
+            Page page;
+            while ((page = source.getOutput()) != null) {
+                Block block = page.getBlock(0);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    partitionValues.add(BIGINT.getLong(block, position));
+                    rowCount++;
+                }
+            }
+            assertTrue(source.isFinished());
+
+            for (long value : partitionValues) {
+                assertTrue(seenValues.add(value), "value " + value + " is in more than one partition");
+            }
+        }
+        assertEquals(rowCount, 200);
+        assertEquals(seenValues.size(), 100);
+    }
+
+    @Test
+    public void testFinishPartition()
+            throws Exception
+    {
+        LocalExchange exchange = new LocalExchange(TYPES, 2, Optional.<List<Integer>>absent(), Optional.<Integer>absent());
+        OperatorFactory sinkFactory = exchange.createSinkFactory(0);
+        exchange.noMoreSinkFactories();
+        Operator sink = sinkFactory.createOperator(driverContext);
+        sinkFactory.close();
+
+        OperatorFactory sourceFactory = exchange.createSourceFactory(1);
+        Operator source0 = sourceFactory.createOperator(driverContext);
+        Operator source1 = sourceFactory.createOperator(driverContext);
+
+        sink.addInput(createSequencePage(TYPES, 10, 0));
+        source0.finish();
+        assertTrue(source0.isFinished());
+        assertFalse(sink.isFinished());
+
+        // once a partition is finished, every page goes to the remaining partition
+        sink.addInput(createSequencePage(TYPES, 10, 10));
+        sink.addInput(createSequencePage(TYPES, 10, 20));
+        assertEquals(drain(source1), ImmutableList.of(10L, 20L));
+
+        source1.finish();
+        assertTrue(sink.isFinished());
+    }
+
+    @Test
+    public void testMemoryReservation()
+            throws Exception
+    {
+        LocalExchange exchange = new LocalExchange(TYPES, 2, Optional.<List<Integer>>absent(), Optional.<Integer>absent());
+        OperatorFactory sinkFactory = exchange.createSinkFactory(0);
+        exchange.noMoreSinkFactories();
+        Operator sink = sinkFactory.createOperator(driverContext);
+        sinkFactory.close();
+
+        OperatorFactory sourceFactory = exchange.createSourceFactory(1);
+        Operator source0 = sourceFactory.createOperator(driverContext);
+        Operator source1 = sourceFactory.createOperator(driverContext);
+
+        Page page = createSequencePage(TYPES, 10, 0);
+        sink.addInput(page);
+        sink.addInput(createSequencePage(TYPES, 10, 10));
+        assertEquals(getMemoryReservation(), 2 * page.getSizeInBytes());
+
+        // taking a page releases its memory
+        drain(source0);
+        assertEquals(getMemoryReservation(), page.getSizeInBytes());
+
+        // finishing a partition releases the memory of its buffered pages
+        source1.finish();
+        assertEquals(getMemoryReservation(), 0);
+    }
+
+    private long getMemoryReservation()
+    {
+        return taskContext.getTaskStats().getMemoryReservation().toBytes();
+    }
+
+    private static List<Long> drain(Operator source)
+    {
+        // returns the first value of each page
+        ImmutableList.Builder<Long> values = ImmutableList.builder();
+        Page page;
+        while ((page = source.getOutput()) != null) {
+            values.add(BIGINT.getLong(page.getBlock(0), 0));
+        }
+        return values.build();
+    }
+}
@@ -53,7 +53,10 @@ public class TestOperatorStats
             new Duration(17, NANOSECONDS),
 
             new DataSize(18, BYTE),
-            "19");
+            new DataSize(19, BYTE),
+            new DataSize(20, BYTE),
+            new DataSize(21, BYTE),
+            "22");
 
     public static final OperatorStats MERGEABLE = new OperatorStats(
             41,
@@ -81,7 +84,10 @@ public class TestOperatorStats
             new Duration(17, NANOSECONDS),
 
             new DataSize(18, BYTE),
-            new LongMergeable(19));
+            new DataSize(19, BYTE),
+            new DataSize(20, BYTE),
+            new DataSize(21, BYTE),
+            new LongMergeable(22));
 
     @Test
     public void testJson()
@@ -121,7 +127,10 @@ public class TestOperatorStats
         Assert.assertEquals(actual.getFinishUser(), new Duration(17, NANOSECONDS));
 
         Assert.assertEquals(actual.getMemoryReservation(), new DataSize(18, BYTE));
-        Assert.assertEquals(actual.getInfo(), "19");
+        Assert.assertEquals(actual.getSpilledDataSize(), new DataSize(19, BYTE));
+        Assert.assertEquals(actual.getPrefetchedDataSize(), new DataSize(20, BYTE));
+        Assert.assertEquals(actual.getWastedPrefetchDataSize(), new DataSize(21, BYTE));
+        Assert.assertEquals(actual.getInfo(), "22");
     }
 
     @Test
@@ -153,6 +162,9 @@ public class TestOperatorStats
         Assert.assertEquals(actual.getFinishCpu(), new Duration(3 * 16, NANOSECONDS));
         Assert.assertEquals(actual.getFinishUser(), new Duration(3 * 17, NANOSECONDS));
         Assert.assertEquals(actual.getMemoryReservation(), new DataSize(3 * 18, BYTE));
+        Assert.assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 19, BYTE));
+        Assert.assertEquals(actual.getPrefetchedDataSize(), new DataSize(3 * 20, BYTE));
+        Assert.assertEquals(actual.getWastedPrefetchDataSize(), new DataSize(3 * 21, BYTE));
         Assert.assertEquals(actual.getInfo(), null);
     }
 
@@ -185,7 +197,10 @@ public class TestOperatorStats
         Assert.assertEquals(actual.getFinishCpu(), new Duration(3 * 16, NANOSECONDS));
         Assert.assertEquals(actual.getFinishUser(), new Duration(3 * 17, NANOSECONDS));
         Assert.assertEquals(actual.getMemoryReservation(), new DataSize(3 * 18, BYTE));
-        Assert.assertEquals(actual.getInfo(), new LongMergeable(19 * 3));
+        Assert.assertEquals(actual.getSpilledDataSize(), new DataSize(3 * 19, BYTE));
+        Assert.assertEquals(actual.getPrefetchedDataSize(), new DataSize(3 * 20, BYTE));
+        Assert.assertEquals(actual.getWastedPrefetchDataSize(), new DataSize(3 * 21, BYTE));
+        Assert.assertEquals(actual.getInfo(), new LongMergeable(22 * 3));
     }
 
     private static class LongMergeable
@@ -17,14 +17,19 @@ import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spiller.SpillerConfig;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
@@ -38,8 +43,12 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestOrderByOperator
@@ -80,7 +89,8 @@ public class TestOrderByOperator
                 ImmutableList.of(1),
                 10,
                 ImmutableList.of(0),
-                ImmutableList.of(ASC_NULLS_LAST));
+                ImmutableList.of(ASC_NULLS_LAST),
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -112,7 +122,8 @@ public class TestOrderByOperator
                 ImmutableList.of(0, 1),
                 10,
                 ImmutableList.of(0, 1),
-                ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST));
+                ImmutableList.of(ASC_NULLS_LAST, DESC_NULLS_LAST),
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -144,7 +155,8 @@ public class TestOrderByOperator
                 ImmutableList.of(0),
                 10,
                 ImmutableList.of(0),
-                ImmutableList.of(DESC_NULLS_LAST));
+                ImmutableList.of(DESC_NULLS_LAST),
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -180,10 +192,59 @@ public class TestOrderByOperator
                 ImmutableList.of(1),
                 10,
                 ImmutableList.of(0),
-                ImmutableList.of(ASC_NULLS_LAST));
+                ImmutableList.of(ASC_NULLS_LAST),
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
         toPages(operator, input);
     }
+
+    @Test
+    public void testSpillToDisk()
+            throws Exception
+    {
+        // every value appears once in each half of the input
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(BIGINT, BIGINT);
+        for (int pass = 0; pass < 2; pass++) {
+            for (int page = 0; page < 10; page++) {
+                rowPagesBuilder.addSequencePage(10_000, page * 10_000, page * 10_000);
+            }
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        DriverContext driverContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION, new DataSize(2, Unit.MEGABYTE))
+                .addPipelineContext(true, true)
+                .addDriverContext();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new SpillerFactory(createTestingBlockEncodingManager(), new SpillerConfig().setSpillPath(spillPath));
+            OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                    0,
+                    ImmutableList.of(BIGINT, BIGINT),
+                    ImmutableList.of(1),
+                    10,
+                    ImmutableList.of(0),
+                    ImmutableList.of(DESC_NULLS_LAST),
+                    Optional.of(spillerFactory));
+
+            Operator operator = operatorFactory.createOperator(driverContext);
+
+            MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT);
+            for (int i = 99_999; i >= 0; i--) {
+                expected.row(i);
+                expected.row(i);
+            }
+
+            assertOperatorEquals(operator, input, expected.build());
+            assertTrue(operator.getOperatorContext().getOperatorStats().getSpilledDataSize().toBytes() > 0);
+
+            // all spill files are released once the runs have been merged
+            assertEquals(spillerFactory.getSpilledBytes(), 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.HashPagePartitionFunction;
+import com.facebook.presto.execution.BufferResult;
+import com.facebook.presto.execution.SharedBuffer;
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.OutputBuffers.INITIAL_EMPTY_OUTPUT_BUFFERS;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestPartitionedOutputOperator
+{
+    private static final List<Type> TYPES = ImmutableList.<Type>of(BIGINT);
+    private static final TaskId FIRST = new TaskId("query", "stage", "first_task");
+    private static final TaskId SECOND = new TaskId("query", "stage", "second_task");
+
+    private ExecutorService executor;
+    private DriverContext driverContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test"));
+
+        driverContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION)
+                .addPipelineContext(true, true)
+                .addDriverContext();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPartitionsRows()
+            throws Exception
+    {
+        SharedBuffer sharedBuffer = new SharedBuffer(new TaskId("query", "stage", "task"), executor, new DataSize(1, MEGABYTE));
+        Operator operator = new PartitionedOutputOperator.PartitionedOutputOperatorFactory(0, TYPES, ImmutableList.of(0), Optional.<Integer>absent(), sharedBuffer)
+                .createOperator(driverContext);
+
+        // rows can not be partitioned before the consumers are known
+        assertFalse(operator.needsInput());
+        assertFalse(operator.isBlocked().isDone());
+
+        sharedBuffer.setOutputBuffers(INITIAL_EMPTY_OUTPUT_BUFFERS
+                .withBuffer(FIRST, createPartitionFunction(0))
+                .withBuffer(SECOND, createPartitionFunction(1))
+                .withNoMoreBufferIds());
+        assertTrue(operator.needsInput());
+
+        for (Page page : rowPagesBuilder(BIGINT).addSequencePage(100, 0).addSequencePage(100, 100).build()) {
+            operator.addInput(page);
+        }
+        operator.finish();
+        assertTrue(operator.isFinished());
+        sharedBuffer.setNoMorePages();
+
+        List<Page> firstPages = getPages(sharedBuffer, FIRST);
+        List<Page> secondPages = getPages(sharedBuffer, SECOND);
+        assertEquals(getPositionCount(firstPages) + getPositionCount(secondPages), 200);
+
+        // rows are placed in the same partition as the read side partition function would place them
+        assertEquals(getPositionCount(createPartitionFunction(0).partition(firstPages)), getPositionCount(firstPages));
+        assertEquals(getPositionCount(createPartitionFunction(1).partition(secondPages)), getPositionCount(secondPages));
+    }
+
+    private static HashPagePartitionFunction createPartitionFunction(int partition)
+    {
+        return new HashPagePartitionFunction(partition, 2, ImmutableList.of(0), Optional.<Integer>absent(), TYPES);
+    }
+
+    private static List<Page> getPages(SharedBuffer sharedBuffer, TaskId bufferId)
+            throws Exception
+    {
+        BufferResult result = sharedBuffer.get(bufferId, 0, new DataSize(1, MEGABYTE)).get(1, SECONDS);
+        assertFalse(result.isBufferClosed());
+        return result.getPages();
+    }
+
+    private static int getPositionCount(List<Page> pages)
+    {
+        int positionCount = 0;
+        for (Page page : pages) {
+            positionCount += page.getPositionCount();
+        }
+        return positionCount;
+    }
+}
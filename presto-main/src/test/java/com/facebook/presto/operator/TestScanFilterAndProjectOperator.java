@@ -22,13 +22,16 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
+import com.facebook.presto.sql.planner.TestingColumnHandle;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
@@ -39,6 +42,8 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestScanFilterAndProjectOperator
@@ -66,6 +71,12 @@ public class TestScanFilterAndProjectOperator
                     {
                         return new FixedPageSource(ImmutableList.of(input));
                     }
+
+                    @Override
+                    public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+                    {
+                        return createPageSource(split, columns);
+                    }
                 },
                 new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
                 new GenericPageProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
@@ -99,6 +110,12 @@ public class TestScanFilterAndProjectOperator
                     {
                         return new RecordPageSource(new PageRecordSet(ImmutableList.<Type>of(VARCHAR), input));
                     }
+
+                    @Override
+                    public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+                    {
+                        return createPageSource(split, columns);
+                    }
                 },
                 new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
                 new GenericPageProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
@@ -116,6 +133,61 @@ public class TestScanFilterAndProjectOperator
         assertEquals(actual, expected);
     }
 
+    @Test
+    public void testDynamicFilter()
+            throws Exception
+    {
+        final Page input = SequencePageBuilder.createSequencePage(ImmutableList.of(VARCHAR), 100, 0);
+        final ColumnHandle column = new ColumnHandle("test", new TestingColumnHandle("column"));
+        final List<TupleDomain<ColumnHandle>> dynamicFilters = new ArrayList<>();
+        DriverContext driverContext = newDriverContext();
+
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableList.of(column), ImmutableList.<Type>of(VARCHAR));
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("0"),
+                new PageSourceProvider() {
+                    @Override
+                    public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns)
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+                    {
+                        dynamicFilters.add(dynamicFilter);
+                        return new FixedPageSource(ImmutableList.of(input));
+                    }
+                },
+                new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
+                new GenericPageProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
+                ImmutableList.of(column),
+                ImmutableList.<Type>of(VARCHAR),
+                ImmutableList.of(dynamicFilter));
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split("test", new TestingSplit()));
+        operator.noMoreSplits();
+
+        // the split is not read until the build side publishes the filter
+        assertFalse(operator.isBlocked().isDone());
+        assertNull(operator.getOutput());
+        assertFalse(operator.isFinished());
+        assertTrue(dynamicFilters.isEmpty());
+
+        DynamicFilter.Collector collector = dynamicFilter.createCollector(ImmutableList.of(0));
+        collector.addPage(SequencePageBuilder.createSequencePage(ImmutableList.of(VARCHAR), 2, 5));
+        collector.finish();
+        dynamicFilter.publish();
+        assertTrue(operator.isBlocked().isDone());
+
+        MaterializedResult expected = toMaterializedResult(driverContext.getSession(), ImmutableList.<Type>of(VARCHAR), ImmutableList.of(input));
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.<Type>of(VARCHAR), toPages(operator));
+        assertEquals(actual, expected);
+        assertEquals(dynamicFilters, ImmutableList.of(dynamicFilter.getTupleDomain().get()));
+    }
+
     public static List<Page> toPages(Operator operator)
     {
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
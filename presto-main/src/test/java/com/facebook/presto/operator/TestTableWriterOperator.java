@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.metadata.InsertTableHandle;
+import com.facebook.presto.metadata.OutputTableHandle;
+import com.facebook.presto.operator.TableWriterOperator.TableWriterOperatorFactory;
+import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorPageSink;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.plan.TableWriterNode.CreateHandle;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.operator.OperatorAssertion.toPages;
+import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+
+@Test(singleThreaded = true)
+public class TestTableWriterOperator
+{
+    private ExecutorService executor;
+    private TaskContext taskContext;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test"));
+        taskContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION);
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testOneFragmentPerWriter()
+            throws Exception
+    {
+        TestingPageSinkProvider pageSinkProvider = new TestingPageSinkProvider();
+        TableWriterOperatorFactory factory = new TableWriterOperatorFactory(
+                0,
+                pageSinkProvider,
+                new CreateHandle(new OutputTableHandle("test", new TestingOutputTableHandle())),
+                ImmutableList.<Type>of(VARCHAR),
+                ImmutableList.of(1),
+                Optional.of(0));
+
+        int writerCount = 3;
+        List<Operator> operators = new ArrayList<>();
+        for (int writer = 0; writer < writerCount; writer++) {
+            DriverContext driverContext = taskContext.addPipelineContext(true, true).addDriverContext();
+            operators.add(factory.createOperator(driverContext));
+        }
+        factory.close();
+
+        assertEquals(pageSinkProvider.getPageSinks().size(), writerCount);
+
+        for (int writer = 0; writer < writerCount; writer++) {
+            // each writer gets a different number of rows, so the row counts tell the writers apart
+            List<Page> input = rowPagesBuilder(BIGINT, VARCHAR)
+                    .addSequencePage(10 * (writer + 1), 1, 0)
+                    .build();
+
+            List<Page> output = toPages(operators.get(writer), input);
+
+            assertEquals(output.size(), 1);
+            Page page = output.get(0);
+            assertEquals(page.getPositionCount(), 1);
+            assertEquals(BIGINT.getLong(page.getBlock(0), 0), 10 * (writer + 1));
+            assertEquals(VARCHAR.getSlice(page.getBlock(1), 0).toStringUtf8(), "fragment" + writer);
+        }
+
+        for (int writer = 0; writer < writerCount; writer++) {
+            TestingPageSink pageSink = pageSinkProvider.getPageSinks().get(writer);
+            assertEquals(pageSink.isCommitted(), true);
+            assertEquals(pageSink.getChannelCount(), 1);
+            assertEquals(pageSink.getRowCount(), 10 * (writer + 1));
+            // the sample weights come from the first input channel, which starts at 1
+            assertEquals(pageSink.getSampleWeight(), (10 * (writer + 1)) * (10 * (writer + 1) + 1) / 2);
+        }
+    }
+
+    private static class TestingOutputTableHandle
+            implements ConnectorOutputTableHandle
+    {
+    }
+
+    private static class TestingPageSinkProvider
+            implements PageSinkProvider
+    {
+        private final List<TestingPageSink> pageSinks = new ArrayList<>();
+
+        public List<TestingPageSink> getPageSinks()
+        {
+            return pageSinks;
+        }
+
+        @Override
+        public ConnectorPageSink createPageSink(OutputTableHandle tableHandle, List<Type> types)
+        {
+            TestingPageSink pageSink = new TestingPageSink("fragment" + pageSinks.size());
+            pageSinks.add(pageSink);
+            return pageSink;
+        }
+
+        @Override
+        public ConnectorPageSink createPageSink(InsertTableHandle tableHandle, List<Type> types)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static class TestingPageSink
+            implements ConnectorPageSink
+    {
+        private final String fragment;
+        private int channelCount;
+        private long rowCount;
+        private long sampleWeight;
+        private boolean committed;
+
+        private TestingPageSink(String fragment)
+        {
+            this.fragment = fragment;
+        }
+
+        public int getChannelCount()
+        {
+            return channelCount;
+        }
+
+        public long getRowCount()
+        {
+            return rowCount;
+        }
+
+        public long getSampleWeight()
+        {
+            return sampleWeight;
+        }
+
+        public boolean isCommitted()
+        {
+            return committed;
+        }
+
+        @Override
+        public void appendPage(Page page, Block sampleWeightBlock)
+        {
+            channelCount = page.getChannelCount();
+            rowCount += page.getPositionCount();
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                sampleWeight += BIGINT.getLong(sampleWeightBlock, position);
+            }
+        }
+
+        @Override
+        public String commit()
+        {
+            committed = true;
+            return fragment;
+        }
+    }
+}
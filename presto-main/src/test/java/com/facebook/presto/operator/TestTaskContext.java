@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.execution.TaskId;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestTaskContext
+{
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test"));
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPartitionedSplitThroughputIgnoresIdleTime()
+            throws Exception
+    {
+        TaskContext taskContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION);
+        PipelineContext pipelineContext = taskContext.addPipelineContext(true, true);
+        assertEquals(taskContext.getPartitionedSplitThroughput(), 0.0);
+
+        // a driver that never ran is not a completed split
+        pipelineContext.addDriverContext(true).finished();
+        assertEquals(taskContext.getPartitionedSplitThroughput(), 0.0);
+
+        // unpartitioned drivers are not splits
+        DriverContext unpartitionedDriver = pipelineContext.addDriverContext(false);
+        unpartitionedDriver.startProcessTimer();
+        unpartitionedDriver.finished();
+        assertEquals(taskContext.getPartitionedSplitThroughput(), 0.0);
+
+        DriverContext driverContext = pipelineContext.addDriverContext(true);
+        driverContext.startProcessTimer();
+        MILLISECONDS.sleep(50);
+        driverContext.finished();
+        double throughput = taskContext.getPartitionedSplitThroughput();
+        assertTrue(throughput > 0 && throughput <= 20, "throughput is " + throughput);
+
+        // the task is idle without splits, which does not make it look slower
+        MILLISECONDS.sleep(100);
+        assertEquals(taskContext.getPartitionedSplitThroughput(), throughput);
+    }
+}
@@ -26,8 +26,12 @@ import com.facebook.presto.operator.window.RowNumberFunction;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerConfig;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.testing.MaterializedResult;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
@@ -35,6 +39,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
@@ -48,8 +53,12 @@ import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
+import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestWindowOperator
@@ -117,7 +126,8 @@ public class TestWindowOperator
                 Ints.asList(),
                 Ints.asList(0),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                10);
+                10,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -153,7 +163,8 @@ public class TestWindowOperator
                 Ints.asList(0),
                 Ints.asList(1),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                10);
+                10,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -192,7 +203,8 @@ public class TestWindowOperator
                 Ints.asList(),
                 Ints.asList(),
                 ImmutableList.copyOf(new SortOrder[] {}),
-                10);
+                10,
+                Optional.<SpillerFactory>absent());
         Operator operator = operatorFactory.createOperator(driverContext);
 
         MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
@@ -233,7 +245,8 @@ public class TestWindowOperator
                 Ints.asList(),
                 Ints.asList(0),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                10);
+                10,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -262,7 +275,8 @@ public class TestWindowOperator
                 Ints.asList(0),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                100);
+                100,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -300,7 +314,8 @@ public class TestWindowOperator
                 Ints.asList(0),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                100);
+                100,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -338,7 +353,8 @@ public class TestWindowOperator
                 Ints.asList(0),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                100);
+                100,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -376,7 +392,8 @@ public class TestWindowOperator
                 Ints.asList(0),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                100);
+                100,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -414,7 +431,8 @@ public class TestWindowOperator
                 Ints.asList(0),
                 Ints.asList(2),
                 ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
-                100);
+                100,
+                Optional.<SpillerFactory>absent());
 
         Operator operator = operatorFactory.createOperator(driverContext);
 
@@ -429,4 +447,56 @@ public class TestWindowOperator
 
         assertOperatorEquals(operator, input, expected);
     }
+
+    @Test
+    public void testSpillToDisk()
+            throws Exception
+    {
+        // 100 partitions, with the rows of every partition spread across all input pages
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(BIGINT, BIGINT);
+        for (int i = 0; i < 200_000; i++) {
+            if (i > 0 && i % 10_000 == 0) {
+                rowPagesBuilder.pageBreak();
+            }
+            rowPagesBuilder.row(i % 100, i);
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        DriverContext driverContext = new TaskContext(new TaskId("query", "stage", "task"), executor, TEST_SESSION, new DataSize(2, Unit.MEGABYTE))
+                .addPipelineContext(true, true)
+                .addDriverContext();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new SpillerFactory(createTestingBlockEncodingManager(), new SpillerConfig().setSpillPath(spillPath));
+            WindowOperatorFactory operatorFactory = new WindowOperatorFactory(
+                    0,
+                    ImmutableList.of(BIGINT, BIGINT),
+                    Ints.asList(0, 1),
+                    ROW_NUMBER,
+                    Ints.asList(0),
+                    Ints.asList(1),
+                    ImmutableList.copyOf(new SortOrder[] {SortOrder.ASC_NULLS_LAST}),
+                    10,
+                    Optional.of(spillerFactory));
+
+            Operator operator = operatorFactory.createOperator(driverContext);
+
+            MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+            for (int partition = 0; partition < 100; partition++) {
+                for (int rowNumber = 1; rowNumber <= 2_000; rowNumber++) {
+                    expected.row(partition, partition + (rowNumber - 1) * 100, rowNumber);
+                }
+            }
+
+            assertOperatorEquals(operator, input, expected.build());
+            assertTrue(operator.getOperatorContext().getOperatorStats().getSpilledDataSize().toBytes() > 0);
+
+            // all spill files are released once the runs have been merged
+            assertEquals(spillerFactory.getSpilledBytes(), 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
 }
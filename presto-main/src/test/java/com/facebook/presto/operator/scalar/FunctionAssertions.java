@@ -41,6 +41,7 @@ import com.facebook.presto.spi.InMemoryRecordSet;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.RecordPageSource;
 import com.facebook.presto.spi.RecordSet;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
@@ -636,6 +637,12 @@ public final class FunctionAssertions
                 return new FixedPageSource(ImmutableList.of(SOURCE_PAGE));
             }
         }
+
+        @Override
+        public ConnectorPageSource createPageSource(Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+        {
+            return createPageSource(split, columns);
+        }
     }
 
     static class TestSplit
@@ -30,7 +30,9 @@ import com.facebook.presto.execution.StageStats;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.PlanFragment;
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
@@ -119,7 +121,7 @@ public class MockQueryManager
 
         mockTaskManager.updateTask(session,
                 outputTaskId,
-                null,
+                Optional.<PlanFragment>absent(),
                 ImmutableList.<TaskSource>of(),
                 INITIAL_EMPTY_OUTPUT_BUFFERS.withBuffer(OUT, new UnpartitionedPagePartitionFunction()).withNoMoreBufferIds());
 
@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.server;
+
+import com.facebook.presto.execution.ExecutionFailureInfo;
+import com.facebook.presto.execution.SplitOutput;
+import com.facebook.presto.execution.SplitStatus;
+import com.facebook.presto.execution.TaskId;
+import com.facebook.presto.execution.TaskState;
+import com.facebook.presto.execution.TaskStatus;
+import com.facebook.presto.server.FullCodecResponseHandler.CodecResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.testing.TestingResponse;
+import io.airlift.json.JsonCodec;
+import io.airlift.json.ObjectMapperProvider;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+
+import static com.facebook.presto.PrestoMediaTypes.APPLICATION_JACKSON_SMILE;
+import static com.facebook.presto.server.FullCodecResponseHandler.createFullCodecResponseHandler;
+import static com.facebook.presto.server.SmileCodec.smileCodec;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestSmileCodec
+{
+    private static final TaskStatus TASK_STATUS = new TaskStatus(
+            new TaskId("query", "stage", "task"),
+            42,
+            TaskState.RUNNING,
+            URI.create("http://example.com/v1/task/query.stage.task"),
+            3,
+            7,
+            1.5,
+            ImmutableList.of(new SplitStatus(11, SplitOutput.State.RUNNING, new Duration(5, MILLISECONDS))),
+            new Duration(5, MILLISECONDS),
+            ImmutableList.<ExecutionFailureInfo>of());
+
+    private final ObjectMapper objectMapper = new ObjectMapperProvider().get();
+    private final JsonCodec<TaskStatus> jsonCodec = jsonCodec(TaskStatus.class);
+    private final SmileCodec<TaskStatus> smileCodec = smileCodec(objectMapper, TaskStatus.class);
+
+    @Test
+    public void testRoundTrip()
+    {
+        String json = jsonCodec.toJson(TASK_STATUS);
+        assertEquals(jsonCodec.toJson(jsonCodec.fromJson(json)), json);
+
+        byte[] smile = smileCodec.toSmile(TASK_STATUS);
+        assertTrue(smile.length < json.length());
+        assertEquals(jsonCodec.toJson(smileCodec.fromSmile(smile)), json);
+    }
+
+    @Test
+    public void testResponseHandlerDecodesBothEncodings()
+    {
+        String json = jsonCodec.toJson(TASK_STATUS);
+        FullCodecResponseHandler<TaskStatus> handler = createFullCodecResponseHandler(jsonCodec, smileCodec);
+
+        CodecResponse<TaskStatus> smileResponse = handler.handle(null, new TestingResponse(
+                HttpStatus.OK,
+                ImmutableListMultimap.of(CONTENT_TYPE, APPLICATION_JACKSON_SMILE),
+                smileCodec.toSmile(TASK_STATUS)));
+        assertTrue(smileResponse.hasValue());
+        assertEquals(jsonCodec.toJson(smileResponse.getValue()), json);
+
+        CodecResponse<TaskStatus> jsonResponse = handler.handle(null, new TestingResponse(
+                HttpStatus.OK,
+                ImmutableListMultimap.of(CONTENT_TYPE, "application/json; charset=UTF-8"),
+                json.getBytes(UTF_8)));
+        assertTrue(jsonResponse.hasValue());
+        assertEquals(jsonCodec.toJson(jsonResponse.getValue()), json);
+
+        CodecResponse<TaskStatus> textResponse = handler.handle(null, new TestingResponse(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                ImmutableListMultimap.of(CONTENT_TYPE, "text/plain"),
+                "failed".getBytes(UTF_8)));
+        assertFalse(textResponse.hasValue());
+        assertEquals(textResponse.getResponseBody(), "failed");
+    }
+
+    @Test
+    public void testSmileMapper()
+            throws Exception
+    {
+        SmileMapper mapper = new SmileMapper(objectMapper);
+        MediaType smileType = MediaType.valueOf(APPLICATION_JACKSON_SMILE);
+        assertTrue(mapper.isWriteable(TaskStatus.class, TaskStatus.class, new Annotation[0], smileType));
+        assertFalse(mapper.isWriteable(TaskStatus.class, TaskStatus.class, new Annotation[0], MediaType.APPLICATION_JSON_TYPE));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        mapper.writeTo(TASK_STATUS, TaskStatus.class, TaskStatus.class, new Annotation[0], smileType, null, output);
+        assertEquals(output.toByteArray(), smileCodec.toSmile(TASK_STATUS));
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object value = mapper.readFrom((Class) TaskStatus.class, TaskStatus.class, new Annotation[0], smileType, null, new ByteArrayInputStream(output.toByteArray()));
+        assertEquals(jsonCodec.toJson((TaskStatus) value), jsonCodec.toJson(TASK_STATUS));
+    }
+}
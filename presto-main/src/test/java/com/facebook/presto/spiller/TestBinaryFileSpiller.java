@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
+import static com.facebook.presto.operator.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.testing.TestingBlockEncodingManager.createTestingBlockEncodingManager;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestBinaryFileSpiller
+{
+    private File spillPath;
+    private BlockEncodingSerde blockEncodingSerde;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        spillPath = Files.createTempDir();
+        blockEncodingSerde = createTestingBlockEncodingManager();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(spillPath);
+    }
+
+    @Test
+    public void testSpillRoundTrip()
+    {
+        SpillSpaceTracker tracker = new SpillSpaceTracker(new DataSize(10, MEGABYTE));
+        List<Page> first = rowPagesBuilder(BIGINT, VARCHAR)
+                .addSequencePage(10, 0, 100)
+                .addSequencePage(20, 10, 200)
+                .build();
+        List<Page> second = rowPagesBuilder(BIGINT, VARCHAR)
+                .addSequencePage(5, 50, 500)
+                .build();
+
+        Spiller spiller = new BinaryFileSpiller(blockEncodingSerde, spillPath.toPath(), tracker);
+        long firstBytes = spiller.spill(first.iterator());
+        long secondBytes = spiller.spill(second.iterator());
+
+        assertTrue(firstBytes > 0);
+        assertTrue(secondBytes > 0);
+        assertEquals(spiller.getSpilledBytes(), firstBytes + secondBytes);
+        assertEquals(tracker.getCurrentBytes(), firstBytes + secondBytes);
+        // all runs are appended to the same file
+        assertEquals(spillPath.list().length, 1);
+
+        List<Iterator<Page>> spills = spiller.getSpills();
+        assertEquals(spills.size(), 2);
+        assertSpillEquals(spills.get(1), second);
+        assertSpillEquals(spills.get(0), first);
+
+        spiller.close();
+        assertEquals(tracker.getCurrentBytes(), 0);
+        assertEquals(spillPath.list().length, 0);
+    }
+
+    @Test
+    public void testManyRuns()
+    {
+        SpillSpaceTracker tracker = new SpillSpaceTracker(new DataSize(10, MEGABYTE));
+        List<Page> pages = rowPagesBuilder(BIGINT, VARCHAR)
+                .addSequencePage(3, 0, 100)
+                .build();
+
+        try (Spiller spiller = new BinaryFileSpiller(blockEncodingSerde, spillPath.toPath(), tracker)) {
+            for (int i = 0; i < 1000; i++) {
+                spiller.spill(pages.iterator());
+            }
+            // an empty run is still a run
+            assertEquals(spiller.spill(ImmutableList.<Page>of().iterator()), 0);
+            assertEquals(spillPath.list().length, 1);
+
+            List<Iterator<Page>> spills = spiller.getSpills();
+            assertEquals(spills.size(), 1001);
+            for (int i = 0; i < 1000; i++) {
+                assertSpillEquals(spills.get(i), pages);
+            }
+            assertFalse(spills.get(1000).hasNext());
+        }
+    }
+
+    @Test(expectedExceptions = PrestoException.class, expectedExceptionsMessageRegExp = "Worker exceeded max spill size of .*")
+    public void testSpillLimit()
+    {
+        SpillSpaceTracker tracker = new SpillSpaceTracker(new DataSize(10, BYTE));
+        List<Page> pages = rowPagesBuilder(BIGINT)
+                .addSequencePage(100, 0)
+                .build();
+
+        try (Spiller spiller = new BinaryFileSpiller(blockEncodingSerde, spillPath.toPath(), tracker)) {
+            spiller.spill(pages.iterator());
+        }
+    }
+
+    private static void assertSpillEquals(Iterator<Page> actual, List<Page> expected)
+    {
+        for (Page page : expected) {
+            assertTrue(actual.hasNext());
+            assertPageEquals(ImmutableList.of(BIGINT, VARCHAR), actual.next(), page);
+        }
+        assertFalse(actual.hasNext());
+    }
+}
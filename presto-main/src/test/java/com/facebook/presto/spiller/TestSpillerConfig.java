@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+
+public class TestSpillerConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(SpillerConfig.class)
+                .setSpillEnabled(false)
+                .setSpillPath(new File(System.getProperty("java.io.tmpdir"), "presto-spill"))
+                .setMaxSpillSize(new DataSize(100, GIGABYTE)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("experimental.spill-enabled", "true")
+                .put("experimental.spill-path", "/tmp/custom/spill/path")
+                .put("experimental.max-spill-size", "10GB")
+                .build();
+
+        SpillerConfig expected = new SpillerConfig()
+                .setSpillEnabled(true)
+                .setSpillPath(new File("/tmp/custom/spill/path"))
+                .setMaxSpillSize(new DataSize(10, GIGABYTE));
+
+        assertFullMapping(properties, expected);
+    }
+}
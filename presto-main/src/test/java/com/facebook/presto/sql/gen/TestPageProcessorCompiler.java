@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.Signature;
+import com.facebook.presto.operator.PageProcessor;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazySliceArrayBlock;
+import com.facebook.presto.spi.block.RunLengthEncodedBlock;
+import com.facebook.presto.spi.block.SelectiveLazyBlockLoader;
+import com.facebook.presto.spi.type.StandardTypes;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.block.BlockAssertions.assertBlockEquals;
+import static com.facebook.presto.block.BlockAssertions.createStringsBlock;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.comparisonExpressionSignature;
+import static com.facebook.presto.sql.tree.ComparisonExpression.Type.GREATER_THAN;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+
+public class TestPageProcessorCompiler
+{
+    // length(varchar)
+    private static final RowExpression LENGTH = call(new Signature("length", StandardTypes.BIGINT, StandardTypes.VARCHAR), BIGINT, field(0, VARCHAR));
+
+    // where length(varchar) > 1
+    private static final RowExpression FILTER = call(comparisonExpressionSignature(GREATER_THAN, BIGINT, BIGINT), BOOLEAN, LENGTH, constant(1L, BIGINT));
+
+    @Test
+    public void testDictionaryBlock()
+    {
+        PageProcessor processor = new ExpressionCompiler(new MetadataManager()).compilePageProcessor(FILTER, ImmutableList.of(LENGTH));
+
+        Block dictionary = createStringsBlock("a", "bb", "ccc", null);
+        int[] ids = new int[20];
+        for (int position = 0; position < ids.length; position++) {
+            ids[position] = position % 4;
+        }
+        Block dictionaryBlock = new DictionaryBlock(ids.length, dictionary, ids);
+
+        BlockBuilder expandedBlock = VARCHAR.createBlockBuilder(new BlockBuilderStatus());
+        for (int position = 0; position < ids.length; position++) {
+            VARCHAR.appendTo(dictionaryBlock, position, expandedBlock);
+        }
+
+        Page expected = process(processor, new Page(expandedBlock.build()));
+        Page actual = process(processor, new Page(dictionaryBlock));
+
+        assertEquals(actual.getPositionCount(), 10);
+        assertBlockEquals(BIGINT, actual.getBlock(0), expected.getBlock(0));
+    }
+
+    @Test
+    public void testRunLengthEncodedBlock()
+    {
+        PageProcessor processor = new ExpressionCompiler(new MetadataManager()).compilePageProcessor(FILTER, ImmutableList.of(LENGTH));
+
+        Page matching = process(processor, new Page(new RunLengthEncodedBlock(createStringsBlock("ccc"), 20)));
+        assertEquals(matching.getPositionCount(), 20);
+        for (int position = 0; position < matching.getPositionCount(); position++) {
+            assertEquals(BIGINT.getLong(matching.getBlock(0), position), 3);
+        }
+
+        Page filtered = process(processor, new Page(new RunLengthEncodedBlock(createStringsBlock("a"), 20)));
+        assertEquals(filtered.getPositionCount(), 0);
+    }
+
+    @Test
+    public void testLazyBlockLoadedForSelectedPositions()
+    {
+        PageProcessor processor = new ExpressionCompiler(new MetadataManager()).compilePageProcessor(FILTER, ImmutableList.<RowExpression>of(field(1, VARCHAR)));
+
+        Slice[] values = new Slice[] {utf8Slice("v0"), utf8Slice("v1"), utf8Slice("v2"), utf8Slice("v3"), utf8Slice("v4")};
+        RecordingLoader loader = new RecordingLoader(values);
+        Page page = new Page(createStringsBlock("a", "bb", "c", "dddd", null), new LazySliceArrayBlock(values.length, loader));
+
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(VARCHAR));
+        assertEquals(processor.process(null, page, 0, page.getPositionCount(), pageBuilder), page.getPositionCount());
+
+        assertEquals(loader.getLoadedPositions(), ImmutableList.of(1, 3));
+        assertBlockEquals(VARCHAR, pageBuilder.build().getBlock(0), createStringsBlock("v1", "v3"));
+    }
+
+    private static Page process(PageProcessor processor, Page page)
+    {
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT));
+        int end = processor.process(null, page, 0, page.getPositionCount(), pageBuilder);
+        assertEquals(end, page.getPositionCount());
+        return pageBuilder.build();
+    }
+
+    private static class RecordingLoader
+            implements SelectiveLazyBlockLoader<LazySliceArrayBlock>
+    {
+        private final Slice[] values;
+        private final List<Integer> loadedPositions = new ArrayList<>();
+
+        private RecordingLoader(Slice[] values)
+        {
+            this.values = values;
+        }
+
+        @Override
+        public void load(LazySliceArrayBlock block)
+        {
+            for (int position = 0; position < values.length; position++) {
+                loadedPositions.add(position);
+            }
+            block.setValues(values);
+        }
+
+        @Override
+        public void load(LazySliceArrayBlock block, int[] positions, int positionCount)
+        {
+            Slice[] selectedValues = new Slice[values.length];
+            for (int i = 0; i < positionCount; i++) {
+                loadedPositions.add(positions[i]);
+                selectedValues[positions[i]] = values[positions[i]];
+            }
+            block.setValues(selectedValues);
+        }
+
+        public List<Integer> getLoadedPositions()
+        {
+            return loadedPositions;
+        }
+    }
+}
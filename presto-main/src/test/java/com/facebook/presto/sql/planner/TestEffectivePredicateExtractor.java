@@ -492,7 +492,8 @@ public class TestEffectivePredicateExtractor
                                 lessThan(FE, number(100)))),
                 criteria,
                 Optional.<Symbol>absent(),
-                Optional.<Symbol>absent());
+                Optional.<Symbol>absent(),
+                Optional.<JoinNode.DistributionType>absent());
 
         Expression effectivePredicate = EffectivePredicateExtractor.extract(node, TYPES);
 
@@ -547,7 +548,8 @@ public class TestEffectivePredicateExtractor
                                 lessThan(FE, number(100)))),
                 criteria,
                 Optional.<Symbol>absent(),
-                Optional.<Symbol>absent());
+                Optional.<Symbol>absent(),
+                Optional.<JoinNode.DistributionType>absent());
 
         Expression effectivePredicate = EffectivePredicateExtractor.extract(node, TYPES);
 
@@ -602,7 +604,8 @@ public class TestEffectivePredicateExtractor
                                 lessThan(FE, number(100)))),
                 criteria,
                 Optional.<Symbol>absent(),
-                Optional.<Symbol>absent());
+                Optional.<Symbol>absent(),
+                Optional.<JoinNode.DistributionType>absent());
 
         Expression effectivePredicate = EffectivePredicateExtractor.extract(node, TYPES);
 
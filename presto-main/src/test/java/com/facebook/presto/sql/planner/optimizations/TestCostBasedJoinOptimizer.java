@@ -0,0 +1,231 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.metadata.ColumnHandle;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.TableHandle;
+import com.facebook.presto.metadata.TestingMetadata;
+import com.facebook.presto.spi.ColumnStatistics;
+import com.facebook.presto.spi.ConnectorColumnHandle;
+import com.facebook.presto.spi.ConnectorPartition;
+import com.facebook.presto.spi.ConnectorTableHandle;
+import com.facebook.presto.spi.TableStatistics;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.CardinalityEstimator;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.TestingColumnHandle;
+import com.facebook.presto.sql.planner.TestingTableHandle;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.sql.planner.plan.TableScanNode.GeneratedPartitions;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestCostBasedJoinOptimizer
+{
+    private static final Symbol ORDER_KEY = new Symbol("o_custkey");
+    private static final Symbol CUSTOMER_KEY = new Symbol("c_custkey");
+    private static final Symbol CUSTOMER_NATION = new Symbol("c_nationkey");
+    private static final Symbol NATION_KEY = new Symbol("n_nationkey");
+    private static final Symbol UNKNOWN_KEY = new Symbol("u_key");
+
+    private final Map<ConnectorTableHandle, TableStatistics> statistics = new IdentityHashMap<>();
+    private final Map<Symbol, Type> types = new HashMap<>();
+    private MetadataManager metadata;
+    private PlanNodeIdAllocator idAllocator;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        statistics.clear();
+        types.clear();
+        idAllocator = new PlanNodeIdAllocator();
+        metadata = new MetadataManager();
+        metadata.addConnectorMetadata("test", "test", new TestingMetadata()
+        {
+            @Override
+            public TableStatistics getTableStatistics(ConnectorTableHandle tableHandle, List<ConnectorPartition> partitionsOrNull)
+            {
+                TableStatistics tableStatistics = statistics.get(tableHandle);
+                if (tableStatistics == null) {
+                    return TableStatistics.unknown();
+                }
+                return tableStatistics;
+            }
+        });
+    }
+
+    @Test
+    public void testSmallerSideBecomesBuildSide()
+    {
+        PlanNode customers = tableScan(CUSTOMER_KEY, 1_000, 1_000);
+        PlanNode orders = tableScan(ORDER_KEY, 100_000, 1_000);
+        JoinNode join = join(customers, orders, CUSTOMER_KEY, ORDER_KEY);
+
+        JoinNode optimized = (JoinNode) optimize(join, new DataSize(1, MEGABYTE));
+
+        assertSame(optimized.getLeft(), orders);
+        assertSame(optimized.getRight(), customers);
+        assertEquals(optimized.getCriteria(), ImmutableList.of(new JoinNode.EquiJoinClause(ORDER_KEY, CUSTOMER_KEY)));
+        assertEquals(optimized.getDistributionType(), Optional.of(JoinNode.DistributionType.REPLICATED));
+
+        // every order matches one customer
+        assertEquals(new CardinalityEstimator(metadata).estimate(optimized).getRowCount(), 100_000.0);
+    }
+
+    @Test
+    public void testLargeBuildSideIsPartitioned()
+    {
+        PlanNode customers = tableScan(CUSTOMER_KEY, 1_000, 1_000);
+        PlanNode orders = tableScan(ORDER_KEY, 100_000, 1_000);
+        JoinNode join = join(orders, customers, ORDER_KEY, CUSTOMER_KEY);
+
+        // the customers need 8000 bytes
+        JoinNode optimized = (JoinNode) optimize(join, new DataSize(1, KILOBYTE));
+
+        assertSame(optimized.getLeft(), orders);
+        assertSame(optimized.getRight(), customers);
+        assertEquals(optimized.getDistributionType(), Optional.of(JoinNode.DistributionType.PARTITIONED));
+    }
+
+    @Test
+    public void testReorderThreeWayJoin()
+    {
+        PlanNode nations = tableScan(NATION_KEY, 25, 25);
+        PlanNode customers = tableScan(ImmutableMap.of(CUSTOMER_KEY, 1_000L, CUSTOMER_NATION, 25L), 1_000);
+        PlanNode orders = tableScan(ORDER_KEY, 100_000, 1_000);
+
+        // (nation JOIN customer) JOIN orders
+        JoinNode join = join(join(nations, customers, NATION_KEY, CUSTOMER_NATION), orders, CUSTOMER_KEY, ORDER_KEY);
+
+        JoinNode optimized = (JoinNode) optimize(join, new DataSize(1, MEGABYTE));
+
+        // (orders JOIN customer) JOIN nation
+        assertSame(optimized.getRight(), nations);
+        assertEquals(optimized.getCriteria(), ImmutableList.of(new JoinNode.EquiJoinClause(CUSTOMER_NATION, NATION_KEY)));
+        assertTrue(optimized.getLeft() instanceof JoinNode);
+
+        JoinNode bottom = (JoinNode) optimized.getLeft();
+        assertSame(bottom.getLeft(), orders);
+        assertSame(bottom.getRight(), customers);
+        assertEquals(bottom.getCriteria(), ImmutableList.of(new JoinNode.EquiJoinClause(ORDER_KEY, CUSTOMER_KEY)));
+        assertEquals(bottom.getDistributionType(), Optional.of(JoinNode.DistributionType.REPLICATED));
+    }
+
+    @Test
+    public void testUnknownStatistics()
+    {
+        PlanNode customers = tableScan(CUSTOMER_KEY, 1_000, 1_000);
+        PlanNode unknown = tableScan(UNKNOWN_KEY);
+        JoinNode join = join(customers, unknown, CUSTOMER_KEY, UNKNOWN_KEY);
+
+        JoinNode optimized = (JoinNode) optimize(join, new DataSize(1, MEGABYTE));
+
+        assertSame(optimized.getLeft(), customers);
+        assertSame(optimized.getRight(), unknown);
+        assertFalse(optimized.getDistributionType().isPresent());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        PlanNode customers = tableScan(CUSTOMER_KEY, 1_000, 1_000);
+        PlanNode orders = tableScan(ORDER_KEY, 100_000, 1_000);
+        JoinNode join = join(customers, orders, CUSTOMER_KEY, ORDER_KEY);
+
+        PlanNode optimized = new CostBasedJoinOptimizer(metadata, false, new DataSize(1, MEGABYTE))
+                .optimize(join, TEST_SESSION, types, new SymbolAllocator(), idAllocator);
+
+        assertSame(optimized, join);
+    }
+
+    private PlanNode optimize(PlanNode plan, DataSize maxReplicatedJoinSize)
+    {
+        return new CostBasedJoinOptimizer(metadata, true, maxReplicatedJoinSize)
+                .optimize(plan, TEST_SESSION, types, new SymbolAllocator(), idAllocator);
+    }
+
+    private JoinNode join(PlanNode left, PlanNode right, Symbol leftSymbol, Symbol rightSymbol)
+    {
+        return new JoinNode(
+                idAllocator.getNextId(),
+                JoinNode.Type.INNER,
+                left,
+                right,
+                ImmutableList.of(new JoinNode.EquiJoinClause(leftSymbol, rightSymbol)),
+                Optional.<Symbol>absent(),
+                Optional.<Symbol>absent(),
+                Optional.<JoinNode.DistributionType>absent());
+    }
+
+    private TableScanNode tableScan(Symbol symbol, long rowCount, long distinctValues)
+    {
+        return tableScan(ImmutableMap.of(symbol, distinctValues), rowCount);
+    }
+
+    private TableScanNode tableScan(Map<Symbol, Long> distinctValues, long rowCount)
+    {
+        TestingTableHandle tableHandle = new TestingTableHandle();
+        ImmutableMap.Builder<Symbol, ColumnHandle> assignments = ImmutableMap.builder();
+        ImmutableMap.Builder<ConnectorColumnHandle, ColumnStatistics> columnStatistics = ImmutableMap.builder();
+        for (Map.Entry<Symbol, Long> entry : distinctValues.entrySet()) {
+            TestingColumnHandle columnHandle = new TestingColumnHandle(entry.getKey().getName());
+            assignments.put(entry.getKey(), new ColumnHandle("test", columnHandle));
+            columnStatistics.put(columnHandle, new ColumnStatistics(entry.getValue(), null, null));
+            types.put(entry.getKey(), BIGINT);
+        }
+        statistics.put(tableHandle, new TableStatistics(rowCount, columnStatistics.build()));
+        return tableScan(tableHandle, assignments.build());
+    }
+
+    private TableScanNode tableScan(Symbol symbol)
+    {
+        types.put(symbol, BIGINT);
+        return tableScan(new TestingTableHandle(), ImmutableMap.<Symbol, ColumnHandle>of(symbol, new ColumnHandle("test", new TestingColumnHandle(symbol.getName()))));
+    }
+
+    private TableScanNode tableScan(TestingTableHandle tableHandle, Map<Symbol, ColumnHandle> assignments)
+    {
+        return new TableScanNode(
+                idAllocator.getNextId(),
+                new TableHandle("test", tableHandle),
+                ImmutableList.copyOf(assignments.keySet()),
+                assignments,
+                null,
+                Optional.<GeneratedPartitions>absent());
+    }
+}
@@ -35,7 +35,7 @@ public class FileOrcDataSource
     private final long size;
     private final RandomAccessFile input;
     private final DataSize maxMergeDistance;
-    private long readTimeNanos;
+    private volatile long readTimeNanos;
 
     public FileOrcDataSource(File path, DataSize maxMergeDistance)
             throws IOException
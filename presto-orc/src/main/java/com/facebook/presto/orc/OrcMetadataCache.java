@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.google.common.base.Throwables;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Source of the decoded metadata of a single ORC file. An implementation can
+ * share the metadata between readers of the same file, so the file tail and the
+ * stripe footers are only read once.
+ */
+public interface OrcMetadataCache
+{
+    OrcMetadataCache NONE = new OrcMetadataCache()
+    {
+        @Override
+        public OrcFileTail getFileTail(Callable<OrcFileTail> loader)
+                throws IOException
+        {
+            return load(loader);
+        }
+
+        @Override
+        public StripeFooter getStripeFooter(StripeInformation stripe, Callable<StripeFooter> loader)
+                throws IOException
+        {
+            return load(loader);
+        }
+
+        private <T> T load(Callable<T> loader)
+                throws IOException
+        {
+            try {
+                return loader.call();
+            }
+            catch (Exception e) {
+                Throwables.propagateIfInstanceOf(e, IOException.class);
+                throw Throwables.propagate(e);
+            }
+        }
+    };
+
+    /**
+     * Returns the tail of the file, calling the loader if it is not cached.
+     */
+    OrcFileTail getFileTail(Callable<OrcFileTail> loader)
+            throws IOException;
+
+    /**
+     * Returns the footer of the specified stripe, calling the loader if it is not cached.
+     */
+    StripeFooter getStripeFooter(StripeInformation stripe, Callable<StripeFooter> loader)
+            throws IOException;
+}
@@ -20,20 +20,25 @@ import com.facebook.presto.orc.metadata.MetadataReader;
 import com.facebook.presto.orc.metadata.PostScript;
 import com.facebook.presto.orc.stream.OrcInputStream;
 import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
 import com.google.common.primitives.Ints;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
 import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.units.DataSize.Unit.BYTE;
 
 public class OrcReader
 {
@@ -46,18 +51,44 @@ public class OrcReader
 
     private final OrcDataSource orcDataSource;
     private final MetadataReader metadataReader;
+    private final OrcMetadataCache metadataCache;
     private final CompressionKind compressionKind;
     private final int bufferSize;
     private final Footer footer;
     private final Metadata metadata;
 
-    // This is based on the Apache Hive ORC code
     public OrcReader(OrcDataSource orcDataSource, MetadataReader metadataReader)
             throws IOException
+    {
+        this(orcDataSource, metadataReader, OrcMetadataCache.NONE);
+    }
+
+    public OrcReader(final OrcDataSource orcDataSource, final MetadataReader metadataReader, OrcMetadataCache metadataCache)
+            throws IOException
     {
         this.orcDataSource = checkNotNull(orcDataSource, "orcDataSource is null");
         this.metadataReader = checkNotNull(metadataReader, "metadataReader is null");
+        this.metadataCache = checkNotNull(metadataCache, "metadataCache is null");
+
+        OrcFileTail fileTail = metadataCache.getFileTail(new Callable<OrcFileTail>()
+        {
+            @Override
+            public OrcFileTail call()
+                    throws IOException
+            {
+                return readFileTail(orcDataSource, metadataReader);
+            }
+        });
+        this.compressionKind = fileTail.getCompressionKind();
+        this.bufferSize = fileTail.getBufferSize();
+        this.footer = fileTail.getFooter();
+        this.metadata = fileTail.getMetadata();
+    }
 
+    // This is based on the Apache Hive ORC code
+    private static OrcFileTail readFileTail(OrcDataSource orcDataSource, MetadataReader metadataReader)
+            throws IOException
+    {
         //
         // Read the file tail:
         //
@@ -88,9 +119,9 @@ public class OrcReader
         checkOrcVersion(orcDataSource, postScript.getVersion());
 
         // check compression codec is supported
-        this.compressionKind = postScript.getCompression();
+        CompressionKind compressionKind = postScript.getCompression();
 
-        this.bufferSize = Ints.checkedCast(postScript.getCompressionBlockSize());
+        int bufferSize = Ints.checkedCast(postScript.getCompressionBlockSize());
 
         int footerSize = Ints.checkedCast(postScript.getFooterLength());
         int metadataSize = Ints.checkedCast(postScript.getMetadataLength());
@@ -117,12 +148,14 @@ public class OrcReader
         // read metadata
         Slice metadataSlice = completeFooterSlice.slice(0, metadataSize);
         InputStream metadataInputStream = new OrcInputStream(orcDataSource.toString(), metadataSlice.getInput(), compressionKind, bufferSize);
-        this.metadata = metadataReader.readMetadata(metadataInputStream);
+        Metadata metadata = metadataReader.readMetadata(metadataInputStream);
 
         // read footer
         Slice footerSlice = completeFooterSlice.slice(metadataSize, footerSize);
         InputStream footerInputStream = new OrcInputStream(orcDataSource.toString(), footerSlice.getInput(), compressionKind, bufferSize);
-        this.footer = metadataReader.readFooter(footerInputStream);
+        Footer footer = metadataReader.readFooter(footerInputStream);
+
+        return new OrcFileTail(compressionKind, bufferSize, footer, metadata, completeFooterSize);
     }
 
     public List<String> getColumnNames()
@@ -157,6 +190,23 @@ public class OrcReader
             long length,
             DateTimeZone hiveStorageTimeZone)
             throws IOException
+    {
+        return createRecordReader(includedColumns, predicate, offset, length, hiveStorageTimeZone, Optional.<Executor>absent(), new DataSize(0, BYTE));
+    }
+
+    /**
+     * @param readAheadExecutor if present, the next stripe is read on this executor while the current stripe is decoded
+     * @param maxReadAheadSize stripes larger than this are not read ahead
+     */
+    public OrcRecordReader createRecordReader(
+            Set<Integer> includedColumns,
+            OrcPredicate predicate,
+            long offset,
+            long length,
+            DateTimeZone hiveStorageTimeZone,
+            Optional<Executor> readAheadExecutor,
+            DataSize maxReadAheadSize)
+            throws IOException
     {
         return new OrcRecordReader(
                 checkNotNull(includedColumns, "includedColumns is null"),
@@ -173,7 +223,10 @@ public class OrcReader
                 bufferSize,
                 footer.getRowsInRowGroup(),
                 checkNotNull(hiveStorageTimeZone, "hiveStorageTimeZone is null"),
-                metadataReader);
+                metadataReader,
+                metadataCache,
+                checkNotNull(readAheadExecutor, "readAheadExecutor is null"),
+                checkNotNull(maxReadAheadSize, "maxReadAheadSize is null"));
     }
 
     /**
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.orc.StripeReader.StripeData;
 import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.metadata.ColumnStatistics;
 import com.facebook.presto.orc.metadata.CompressionKind;
@@ -21,13 +22,22 @@ import com.facebook.presto.orc.metadata.OrcType;
 import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
 import com.facebook.presto.orc.metadata.StripeInformation;
 import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.facebook.presto.orc.reader.SelectiveStreamReader;
+import com.facebook.presto.orc.reader.SliceStreamReader;
 import com.facebook.presto.orc.reader.StreamReader;
 import com.facebook.presto.orc.reader.StreamReaders;
 import com.facebook.presto.orc.stream.StreamSources;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import io.airlift.units.DataSize;
 import org.joda.time.DateTimeZone;
 
 import java.io.IOException;
@@ -35,12 +45,20 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 
 public class OrcRecordReader
 {
+    private static final ListenableFuture<?> NOT_BLOCKED = Futures.immediateFuture(null);
+
     private final OrcDataSource orcDataSource;
 
     private final StreamReader[] streamReaders;
@@ -58,6 +76,16 @@ public class OrcRecordReader
     private long currentGroupRowCount;
     private long nextRowInGroup;
 
+    // the next stripe is read on this executor while the row groups of the current stripe are decoded
+    // the stripe read ahead is not accounted in the memory of the operator, so it is bounded by the maximum read ahead size
+    private final Optional<Executor> readAheadExecutor;
+    private final long maxReadAheadBytes;
+    private ListenableFuture<StripeData> readAhead;
+    private int readAheadStripe = -1;
+    private final AtomicLong prefetchedBytes = new AtomicLong();
+    private final AtomicLong wastedPrefetchBytes = new AtomicLong();
+    private volatile boolean closed;
+
     public OrcRecordReader(
             Set<Integer> includedColumns,
             OrcPredicate predicate,
@@ -73,7 +101,10 @@ public class OrcRecordReader
             int bufferSize,
             int rowsInRowGroup,
             DateTimeZone hiveStorageTimeZone,
-            MetadataReader metadataReader)
+            MetadataReader metadataReader,
+            OrcMetadataCache metadataCache,
+            Optional<Executor> readAheadExecutor,
+            DataSize maxReadAheadSize)
             throws IOException
     {
         checkNotNull(includedColumns, "includedColumns is null");
@@ -99,6 +130,8 @@ public class OrcRecordReader
 
         this.orcDataSource = orcDataSource;
         this.splitLength = splitLength;
+        this.readAheadExecutor = checkNotNull(readAheadExecutor, "readAheadExecutor is null");
+        this.maxReadAheadBytes = checkNotNull(maxReadAheadSize, "maxReadAheadSize is null").toBytes();
 
         // it is possible that old versions of orc use 0 to mean there are no row groups
         checkArgument(rowsInRowGroup > 0, "rowsInRowGroup must be greater than zero");
@@ -126,7 +159,8 @@ public class OrcRecordReader
                 this.presentColumns,
                 rowsInRowGroup,
                 predicate,
-                metadataReader);
+                metadataReader,
+                metadataCache);
 
         streamReaders = createStreamReaders(orcDataSource, types, hiveStorageTimeZone, this.presentColumns);
     }
@@ -172,10 +206,89 @@ public class OrcRecordReader
         return splitLength;
     }
 
+    /**
+     * Bytes read ahead of the stripe being decoded.
+     */
+    public long getPrefetchedBytes()
+    {
+        return prefetchedBytes.get();
+    }
+
+    /**
+     * Bytes read ahead that were never decoded, because the reader was closed first.
+     */
+    public long getWastedPrefetchBytes()
+    {
+        return wastedPrefetchBytes.get();
+    }
+
+    /**
+     * Returns a future that is done when the next batch can be read without waiting for the
+     * read ahead of the next stripe.
+     */
+    public ListenableFuture<?> isBlocked()
+    {
+        if (readAhead == null || readAhead.isDone() || nextRowInGroup < currentGroupRowCount || rowGroups.hasNext()) {
+            return NOT_BLOCKED;
+        }
+        return readAhead;
+    }
+
     public void close()
             throws IOException
     {
-        orcDataSource.close();
+        closed = true;
+
+        ListenableFuture<StripeData> readAhead = this.readAhead;
+        this.readAhead = null;
+        if (readAhead == null) {
+            orcDataSource.close();
+            return;
+        }
+
+        if (readAhead.isDone()) {
+            try {
+                recordWastedPrefetch(getUninterruptibly(readAhead));
+            }
+            catch (ExecutionException ignored) {
+            }
+            orcDataSource.close();
+            return;
+        }
+
+        // the read ahead still uses the data source, so it is closed when the read completes
+        Futures.addCallback(readAhead, new FutureCallback<StripeData>()
+        {
+            @Override
+            public void onSuccess(StripeData stripeData)
+            {
+                recordWastedPrefetch(stripeData);
+                closeDataSource();
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                closeDataSource();
+            }
+        });
+    }
+
+    private void recordWastedPrefetch(StripeData stripeData)
+    {
+        if (stripeData != null) {
+            wastedPrefetchBytes.addAndGet(stripeData.getSizeInBytes());
+        }
+    }
+
+    private void closeDataSource()
+    {
+        try {
+            orcDataSource.close();
+        }
+        catch (IOException ignored) {
+            // nothing is read from the data source anymore
+        }
     }
 
     public boolean isColumnPresent(int hiveColumnIndex)
@@ -206,12 +319,39 @@ public class OrcRecordReader
         return batchSize;
     }
 
+    /**
+     * Is the specified string column dictionary encoded in the current stripe? When it is, a
+     * {@link SliceVector} read from the column also holds the dictionary and the id of each value.
+     */
+    public boolean isDictionaryEncoded(int columnIndex)
+    {
+        StreamReader streamReader = streamReaders[columnIndex];
+        return streamReader instanceof SliceStreamReader && ((SliceStreamReader) streamReader).isDictionaryEncoded();
+    }
+
     public void readVector(int columnIndex, Object vector)
             throws IOException
     {
         streamReaders[columnIndex].readBatch(vector);
     }
 
+    /**
+     * Reads only the values at the specified positions of the current batch, which must be in
+     * ascending order. Columns that do not support selective reads are read in full, so the
+     * values at the other positions of the vector are unspecified.
+     */
+    public void readVector(int columnIndex, Object vector, int[] positions, int positionCount)
+            throws IOException
+    {
+        StreamReader streamReader = streamReaders[columnIndex];
+        if (streamReader instanceof SelectiveStreamReader) {
+            ((SelectiveStreamReader) streamReader).readBatch(vector, positions, positionCount);
+        }
+        else {
+            streamReader.readBatch(vector);
+        }
+    }
+
     private boolean advanceToNextRowGroup()
             throws IOException
     {
@@ -249,7 +389,12 @@ public class OrcRecordReader
         }
 
         StripeInformation stripeInformation = stripes.get(currentStripe);
-        Stripe stripe = stripeReader.readStripe(stripeInformation);
+        StripeData stripeData = getStripeData(currentStripe);
+
+        // only one read is in flight at a time, so the data source is never used concurrently
+        startReadAhead(currentStripe + 1);
+
+        Stripe stripe = stripeReader.createStripe(stripeInformation, stripeData);
         if (stripe != null) {
             // Give readers access to dictionary streams
             StreamSources dictionaryStreamSources = stripe.getDictionaryStreamSources();
@@ -267,6 +412,55 @@ public class OrcRecordReader
         }
     }
 
+    private StripeData getStripeData(int stripeIndex)
+            throws IOException
+    {
+        if (readAhead == null) {
+            return stripeReader.readStripeData(stripes.get(stripeIndex));
+        }
+        checkState(readAheadStripe == stripeIndex, "Stripe %s was read ahead, but stripe %s is needed", readAheadStripe, stripeIndex);
+
+        ListenableFuture<StripeData> future = readAhead;
+        readAhead = null;
+        try {
+            return getUninterruptibly(future);
+        }
+        catch (ExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private void startReadAhead(int stripeIndex)
+    {
+        if (!readAheadExecutor.isPresent() || stripeIndex >= stripes.size()) {
+            return;
+        }
+
+        final StripeInformation stripe = stripes.get(stripeIndex);
+        if (stripe.getIndexLength() + stripe.getDataLength() + stripe.getFooterLength() > maxReadAheadBytes) {
+            return;
+        }
+
+        ListenableFutureTask<StripeData> task = ListenableFutureTask.create(new Callable<StripeData>()
+        {
+            @Override
+            public StripeData call()
+                    throws IOException
+            {
+                if (closed) {
+                    return null;
+                }
+                StripeData stripeData = stripeReader.readStripeData(stripe);
+                prefetchedBytes.addAndGet(stripeData.getSizeInBytes());
+                return stripeData;
+            }
+        });
+        readAhead = task;
+        readAheadStripe = stripeIndex;
+        readAheadExecutor.get().execute(task);
+    }
+
     private static StreamReader[] createStreamReaders(OrcDataSource orcDataSource,
             List<OrcType> types,
             DateTimeZone hiveStorageTimeZone,
@@ -0,0 +1,385 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.metadata.BloomFilter;
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.OrcMetadataWriter;
+import com.facebook.presto.orc.metadata.OrcType;
+import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
+import com.facebook.presto.orc.metadata.PostScript;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.Stream;
+import com.facebook.presto.orc.metadata.StripeFooter;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.facebook.presto.orc.stream.OrcOutputBuffer;
+import com.facebook.presto.orc.writer.ColumnWriter;
+import com.facebook.presto.orc.writer.StreamDataOutput;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.primitives.Ints;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.ColumnStatistics.mergeColumnStatistics;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_INDEX;
+import static com.facebook.presto.orc.writer.ColumnWriters.createColumnWriter;
+import static com.facebook.presto.orc.writer.ColumnWriters.getOrcTypeKind;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+/**
+ * Writes pages as an ORC file. All columns of a stripe are buffered in memory
+ * until the stripe is full, so that each column can pick its encoding and the
+ * row group indexes can be written before the data.
+ */
+public class OrcWriter
+        implements Closeable
+{
+    public static final DataSize DEFAULT_STRIPE_MAX_SIZE = new DataSize(64, MEGABYTE);
+    public static final int DEFAULT_STRIPE_MAX_ROW_COUNT = 10_000_000;
+    public static final int DEFAULT_ROW_GROUP_MAX_ROW_COUNT = 10_000;
+    public static final DataSize DEFAULT_COMPRESSION_BLOCK_SIZE = new DataSize(256, KILOBYTE);
+    public static final double DEFAULT_BLOOM_FILTER_FPP = 0.05;
+
+    private static final Slice MAGIC = Slices.utf8Slice("ORC");
+    private static final List<Integer> ORC_VERSION = ImmutableList.of(0, 12);
+
+    private final CountingOutputStream output;
+    private final List<String> columnNames;
+    private final List<Type> types;
+    private final CompressionKind compression;
+    private final long stripeMaxBytes;
+    private final int stripeMaxRowCount;
+    private final int rowGroupMaxRowCount;
+    private final int compressionBlockSize;
+    private final Set<Integer> bloomFilterColumns;
+    private final double bloomFilterFpp;
+    private final OrcMetadataWriter metadataWriter = new OrcMetadataWriter();
+
+    private final List<ColumnWriter> columnWriters;
+
+    private final List<StripeInformation> stripes = new ArrayList<>();
+    private final List<StripeStatistics> stripeStatistics = new ArrayList<>();
+    private final List<Integer> rowGroupRowCounts = new ArrayList<>();
+    private final List<List<BloomFilter>> rowGroupBloomFilters = new ArrayList<>();
+    private final List<BloomFilter> bloomFilters = new ArrayList<>();
+    private long fileRowCount;
+    private int stripeRowCount;
+    private int rowGroupRowCount;
+    private boolean closed;
+
+    public OrcWriter(OutputStream output, List<String> columnNames, List<Type> types, CompressionKind compression)
+            throws IOException
+    {
+        this(output, columnNames, types, compression, DEFAULT_STRIPE_MAX_SIZE, DEFAULT_STRIPE_MAX_ROW_COUNT, DEFAULT_ROW_GROUP_MAX_ROW_COUNT, DEFAULT_COMPRESSION_BLOCK_SIZE);
+    }
+
+    public OrcWriter(
+            OutputStream output,
+            List<String> columnNames,
+            List<Type> types,
+            CompressionKind compression,
+            DataSize stripeMaxSize,
+            int stripeMaxRowCount,
+            int rowGroupMaxRowCount,
+            DataSize compressionBlockSize)
+            throws IOException
+    {
+        this(output, columnNames, types, compression, stripeMaxSize, stripeMaxRowCount, rowGroupMaxRowCount, compressionBlockSize, ImmutableSet.<Integer>of(), DEFAULT_BLOOM_FILTER_FPP);
+    }
+
+    /**
+     * @param bloomFilterColumns channels for which a bloom filter is written for every row group;
+     * only bigint, double, varchar and varbinary columns are supported
+     * @param bloomFilterFpp the false positive probability of the bloom filters
+     */
+    public OrcWriter(
+            OutputStream output,
+            List<String> columnNames,
+            List<Type> types,
+            CompressionKind compression,
+            DataSize stripeMaxSize,
+            int stripeMaxRowCount,
+            int rowGroupMaxRowCount,
+            DataSize compressionBlockSize,
+            Set<Integer> bloomFilterColumns,
+            double bloomFilterFpp)
+            throws IOException
+    {
+        this.output = new CountingOutputStream(checkNotNull(output, "output is null"));
+        this.columnNames = ImmutableList.copyOf(checkNotNull(columnNames, "columnNames is null"));
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        checkArgument(columnNames.size() == types.size(), "columnNames and types must have the same size");
+        this.compression = checkNotNull(compression, "compression is null");
+        this.stripeMaxBytes = checkNotNull(stripeMaxSize, "stripeMaxSize is null").toBytes();
+        checkArgument(stripeMaxRowCount > 0, "stripeMaxRowCount must be positive");
+        this.stripeMaxRowCount = stripeMaxRowCount;
+        checkArgument(rowGroupMaxRowCount > 0, "rowGroupMaxRowCount must be positive");
+        this.rowGroupMaxRowCount = rowGroupMaxRowCount;
+        this.compressionBlockSize = Ints.checkedCast(checkNotNull(compressionBlockSize, "compressionBlockSize is null").toBytes());
+
+        ImmutableList.Builder<ColumnWriter> columnWriters = ImmutableList.builder();
+        for (Type type : types) {
+            columnWriters.add(createColumnWriter(type, compression, this.compressionBlockSize));
+        }
+        this.columnWriters = columnWriters.build();
+
+        this.bloomFilterColumns = ImmutableSet.copyOf(checkNotNull(bloomFilterColumns, "bloomFilterColumns is null"));
+        for (int channel : this.bloomFilterColumns) {
+            checkArgument(channel >= 0 && channel < types.size(), "Invalid bloom filter column %s", channel);
+            Type type = types.get(channel);
+            checkArgument(BIGINT.equals(type) || DOUBLE.equals(type) || VARCHAR.equals(type) || VARBINARY.equals(type), "Bloom filters are not supported for type %s", type);
+        }
+        checkArgument(bloomFilterFpp > 0.0 && bloomFilterFpp < 1.0, "bloomFilterFpp must be between 0 and 1");
+        this.bloomFilterFpp = bloomFilterFpp;
+        for (int channel = 0; channel < types.size(); channel++) {
+            rowGroupBloomFilters.add(new ArrayList<BloomFilter>());
+            bloomFilters.add(this.bloomFilterColumns.contains(channel) ? BloomFilter.create(rowGroupMaxRowCount, bloomFilterFpp) : null);
+        }
+
+        MAGIC.getBytes(0, this.output, MAGIC.length());
+    }
+
+    public void write(Page page)
+            throws IOException
+    {
+        checkState(!closed, "writer is closed");
+        checkArgument(page.getChannelCount() == columnWriters.size(), "Expected page with %s channels, but got %s", columnWriters.size(), page.getChannelCount());
+
+        // split the page so that row groups and stripes end on their configured row counts
+        int offset = 0;
+        while (offset < page.getPositionCount()) {
+            int length = Math.min(page.getPositionCount() - offset, rowGroupMaxRowCount - rowGroupRowCount);
+            length = Math.min(length, stripeMaxRowCount - stripeRowCount);
+            for (int channel = 0; channel < columnWriters.size(); channel++) {
+                Block block = page.getBlock(channel);
+                if (offset != 0 || length != block.getPositionCount()) {
+                    block = block.getRegion(offset, length);
+                }
+                columnWriters.get(channel).writeBlock(block);
+                if (bloomFilters.get(channel) != null) {
+                    addBloomFilterValues(bloomFilters.get(channel), types.get(channel), block);
+                }
+            }
+            offset += length;
+            rowGroupRowCount += length;
+            stripeRowCount += length;
+
+            if (rowGroupRowCount == rowGroupMaxRowCount) {
+                finishRowGroup();
+            }
+            if (stripeRowCount == stripeMaxRowCount || getBufferedBytes() >= stripeMaxBytes) {
+                flushStripe();
+            }
+        }
+    }
+
+    private static void addBloomFilterValues(BloomFilter bloomFilter, Type type, Block block)
+    {
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                continue;
+            }
+            if (BIGINT.equals(type)) {
+                bloomFilter.addLong(type.getLong(block, position));
+            }
+            else if (DOUBLE.equals(type)) {
+                bloomFilter.addDouble(type.getDouble(block, position));
+            }
+            else {
+                bloomFilter.addSlice(type.getSlice(block, position));
+            }
+        }
+    }
+
+    private long getBufferedBytes()
+    {
+        long bufferedBytes = 0;
+        for (ColumnWriter columnWriter : columnWriters) {
+            bufferedBytes += columnWriter.getBufferedBytes();
+        }
+        return bufferedBytes;
+    }
+
+    private void finishRowGroup()
+    {
+        for (ColumnWriter columnWriter : columnWriters) {
+            columnWriter.finishRowGroup();
+        }
+        for (int channel : bloomFilterColumns) {
+            rowGroupBloomFilters.get(channel).add(bloomFilters.get(channel));
+            bloomFilters.set(channel, BloomFilter.create(rowGroupMaxRowCount, bloomFilterFpp));
+        }
+        rowGroupRowCounts.add(rowGroupRowCount);
+        rowGroupRowCount = 0;
+    }
+
+    private void flushStripe()
+            throws IOException
+    {
+        if (rowGroupRowCount > 0) {
+            finishRowGroup();
+        }
+        if (stripeRowCount == 0) {
+            return;
+        }
+
+        long stripeOffset = output.getCount();
+
+        // the root struct column only has row counts in its index
+        ImmutableList.Builder<RowGroupIndex> rootRowGroupIndexes = ImmutableList.builder();
+        for (int rowCount : rowGroupRowCounts) {
+            rootRowGroupIndexes.add(new RowGroupIndex(ImmutableList.<Integer>of(), new ColumnStatistics((long) rowCount, null, null, null, null, null)));
+        }
+
+        ImmutableList.Builder<Stream> streams = ImmutableList.builder();
+        ImmutableList.Builder<ColumnEncoding> columnEncodings = ImmutableList.builder();
+        ImmutableList.Builder<ColumnStatistics> columnStatistics = ImmutableList.builder();
+
+        columnEncodings.add(new ColumnEncoding(DIRECT, 0));
+        columnStatistics.add(new ColumnStatistics((long) stripeRowCount, null, null, null, null, null));
+
+        // index streams of all columns are stored before the data streams
+        long indexLength = writeStream(streams, 0, ROW_INDEX, compress(metadataWriter.writeRowIndexes(rootRowGroupIndexes.build())));
+        for (int channel = 0; channel < columnWriters.size(); channel++) {
+            ColumnWriter columnWriter = columnWriters.get(channel);
+            columnWriter.close();
+            indexLength += writeStream(streams, channel + 1, ROW_INDEX, compress(metadataWriter.writeRowIndexes(columnWriter.getRowGroupIndexes())));
+            if (bloomFilterColumns.contains(channel)) {
+                indexLength += writeStream(streams, channel + 1, BLOOM_FILTER, compress(metadataWriter.writeBloomFilters(rowGroupBloomFilters.get(channel))));
+            }
+            columnEncodings.add(columnWriter.getColumnEncoding());
+            columnStatistics.add(columnWriter.getStripeStatistics());
+        }
+
+        long dataLength = 0;
+        for (int channel = 0; channel < columnWriters.size(); channel++) {
+            for (StreamDataOutput dataStream : columnWriters.get(channel).getDataStreams()) {
+                dataLength += writeStream(streams, channel + 1, dataStream.getStreamKind(), dataStream.getData());
+            }
+        }
+
+        Slice stripeFooter = compress(metadataWriter.writeStripeFooter(new StripeFooter(streams.build(), columnEncodings.build())));
+        stripeFooter.getBytes(0, output, stripeFooter.length());
+
+        stripes.add(new StripeInformation(stripeRowCount, stripeOffset, indexLength, dataLength, stripeFooter.length()));
+        stripeStatistics.add(new StripeStatistics(columnStatistics.build()));
+        fileRowCount += stripeRowCount;
+
+        for (ColumnWriter columnWriter : columnWriters) {
+            columnWriter.reset();
+        }
+        for (List<BloomFilter> columnBloomFilters : rowGroupBloomFilters) {
+            columnBloomFilters.clear();
+        }
+        rowGroupRowCounts.clear();
+        stripeRowCount = 0;
+    }
+
+    private long writeStream(ImmutableList.Builder<Stream> streams, int column, Stream.StreamKind streamKind, Slice data)
+            throws IOException
+    {
+        data.getBytes(0, output, data.length());
+        streams.add(new Stream(column, streamKind, data.length(), true));
+        return data.length();
+    }
+
+    private Slice compress(Slice data)
+    {
+        OrcOutputBuffer buffer = new OrcOutputBuffer(compression, compressionBlockSize);
+        buffer.writeBytes(data);
+        buffer.close();
+        return buffer.getOutput();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        flushStripe();
+
+        Slice metadata = compress(metadataWriter.writeMetadata(new Metadata(stripeStatistics)));
+        metadata.getBytes(0, output, metadata.length());
+
+        Slice footer = compress(metadataWriter.writeFooter(new Footer(fileRowCount, rowGroupMaxRowCount, stripes, createOrcTypes(), createFileStatistics())));
+        footer.getBytes(0, output, footer.length());
+
+        // the post script is never compressed
+        Slice postScript = metadataWriter.writePostScript(new PostScript(ORC_VERSION, footer.length(), metadata.length(), compression, compressionBlockSize));
+        postScript.getBytes(0, output, postScript.length());
+        output.write(postScript.length());
+
+        output.close();
+    }
+
+    private List<OrcType> createOrcTypes()
+    {
+        ImmutableList.Builder<Integer> fieldTypeIndexes = ImmutableList.builder();
+        for (int field = 0; field < types.size(); field++) {
+            fieldTypeIndexes.add(field + 1);
+        }
+
+        ImmutableList.Builder<OrcType> orcTypes = ImmutableList.builder();
+        orcTypes.add(new OrcType(OrcTypeKind.STRUCT, fieldTypeIndexes.build(), columnNames));
+        for (Type type : types) {
+            orcTypes.add(new OrcType(getOrcTypeKind(type), ImmutableList.<Integer>of(), ImmutableList.<String>of()));
+        }
+        return orcTypes.build();
+    }
+
+    private List<ColumnStatistics> createFileStatistics()
+    {
+        ImmutableList.Builder<ColumnStatistics> fileStatistics = ImmutableList.builder();
+        for (int column = 0; column <= types.size(); column++) {
+            ImmutableList.Builder<ColumnStatistics> columnStatistics = ImmutableList.builder();
+            for (StripeStatistics stripe : stripeStatistics) {
+                columnStatistics.add(stripe.getColumnStatistics().get(column));
+            }
+            fileStatistics.add(mergeColumnStatistics(columnStatistics.build()));
+        }
+        return fileStatistics.build();
+    }
+}
@@ -21,6 +21,13 @@ public class SliceVector
 {
     public final Slice[] vector = new Slice[MAX_VECTOR_LENGTH];
 
+    /**
+     * Values of a dictionary encoded column, with a null entry for null values, or null
+     * if the column is not dictionary encoded. Value {@code i} is {@code dictionary[ids[i]]}.
+     */
+    public Slice[] dictionary;
+    public final int[] ids = new int[MAX_VECTOR_LENGTH];
+
     @Override
     @VisibleForTesting
     public ObjectVector toObjectVector(int size)
@@ -14,6 +14,7 @@
 package com.facebook.presto.orc;
 
 import com.facebook.presto.orc.checkpoint.StreamCheckpoint;
+import com.facebook.presto.orc.metadata.BloomFilter;
 import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind;
 import com.facebook.presto.orc.metadata.ColumnStatistics;
@@ -48,11 +49,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import static com.facebook.presto.orc.checkpoint.Checkpoints.getDictionaryStreamCheckpoint;
 import static com.facebook.presto.orc.checkpoint.Checkpoints.getStreamCheckpoints;
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY;
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY_V2;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_COUNT;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_DATA;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.LENGTH;
@@ -71,6 +74,7 @@ public class StripeReader
     private final int rowsInRowGroup;
     private final OrcPredicate predicate;
     private final MetadataReader metadataReader;
+    private final OrcMetadataCache metadataCache;
 
     public StripeReader(OrcDataSource orcDataSource,
             CompressionKind compressionKind,
@@ -79,7 +83,8 @@ public class StripeReader
             Set<Integer> includedColumns,
             int rowsInRowGroup,
             OrcPredicate predicate,
-            MetadataReader metadataReader)
+            MetadataReader metadataReader,
+            OrcMetadataCache metadataCache)
     {
         this.orcDataSource = checkNotNull(orcDataSource, "orcDataSource is null");
         this.compressionKind = checkNotNull(compressionKind, "compressionKind is null");
@@ -89,14 +94,24 @@ public class StripeReader
         this.rowsInRowGroup = rowsInRowGroup;
         this.predicate = checkNotNull(predicate, "predicate is null");
         this.metadataReader = checkNotNull(metadataReader, "metadataReader is null");
+        this.metadataCache = checkNotNull(metadataCache, "metadataCache is null");
     }
 
     public Stripe readStripe(StripeInformation stripe)
             throws IOException
+    {
+        return createStripe(stripe, readStripeData(stripe));
+    }
+
+    /**
+     * Reads the footer and the streams of the included columns of the stripe. This is all
+     * of the I/O for a stripe, so it can be done on another thread ahead of the decoding.
+     */
+    public StripeData readStripeData(StripeInformation stripe)
+            throws IOException
     {
         // read the stripe footer
         StripeFooter stripeFooter = readStripeFooter(stripe);
-        List<ColumnEncoding> columnEncodings = stripeFooter.getColumnEncodings();
 
         // get streams for selected columns
         Map<StreamId, Stream> streams = new HashMap<>();
@@ -111,7 +126,18 @@ public class StripeReader
         diskRanges = Maps.filterKeys(diskRanges, Predicates.in(streams.keySet()));
 
         // read the file regions
-        Map<StreamId, OrcInputStream> streamsData = readDiskRanges(stripe.getOffset(), diskRanges);
+        return new StripeData(stripeFooter, streams, readDiskRangeSlices(stripe.getOffset(), diskRanges));
+    }
+
+    /**
+     * Decodes a stripe from data read by {@link #readStripeData}, or returns null if the predicate skips all row groups.
+     */
+    public Stripe createStripe(StripeInformation stripe, StripeData stripeData)
+            throws IOException
+    {
+        List<ColumnEncoding> columnEncodings = stripeData.getStripeFooter().getColumnEncodings();
+        Map<StreamId, Stream> streams = stripeData.getStreams();
+        Map<StreamId, OrcInputStream> streamsData = createInputStreams(stripeData.getStreamsData());
 
         // read the row index for each column
         Map<Integer, List<RowGroupIndex>> columnIndexes = readColumnIndexes(streams, streamsData);
@@ -142,7 +168,13 @@ public class StripeReader
         return new Stripe(stripe.getNumberOfRows(), columnEncodings, rowGroups, dictionaryStreamSources);
     }
 
-    public Map<StreamId, OrcInputStream> readDiskRanges(final long stripeOffset, Map<StreamId, DiskRange> diskRanges)
+    public Map<StreamId, OrcInputStream> readDiskRanges(long stripeOffset, Map<StreamId, DiskRange> diskRanges)
+            throws IOException
+    {
+        return createInputStreams(readDiskRangeSlices(stripeOffset, diskRanges));
+    }
+
+    private Map<StreamId, Slice> readDiskRangeSlices(final long stripeOffset, Map<StreamId, DiskRange> diskRanges)
             throws IOException
     {
         // transform ranges to have an absolute offset in file
@@ -154,8 +186,11 @@ public class StripeReader
             }
         });
 
-        Map<StreamId, Slice> streamsData = orcDataSource.readFully(diskRanges);
+        return orcDataSource.readFully(diskRanges);
+    }
 
+    private Map<StreamId, OrcInputStream> createInputStreams(Map<StreamId, Slice> streamsData)
+    {
         return ImmutableMap.copyOf(Maps.transformValues(streamsData, new Function<Slice, OrcInputStream>()
         {
             @Override
@@ -254,7 +289,21 @@ public class StripeReader
         return new RowGroup(groupId, rowCount, rowGroupStreams);
     }
 
-    public StripeFooter readStripeFooter(StripeInformation stripe)
+    public StripeFooter readStripeFooter(final StripeInformation stripe)
+            throws IOException
+    {
+        return metadataCache.getStripeFooter(stripe, new Callable<StripeFooter>()
+        {
+            @Override
+            public StripeFooter call()
+                    throws IOException
+            {
+                return loadStripeFooter(stripe);
+            }
+        });
+    }
+
+    private StripeFooter loadStripeFooter(StripeInformation stripe)
             throws IOException
     {
         long offset = stripe.getOffset() + stripe.getIndexLength() + stripe.getDataLength();
@@ -270,12 +319,33 @@ public class StripeReader
     private Map<Integer, List<RowGroupIndex>> readColumnIndexes(Map<StreamId, Stream> streams, Map<StreamId, OrcInputStream> streamsData)
             throws IOException
     {
+        Map<Integer, List<BloomFilter>> bloomFilters = new HashMap<>();
+        for (Entry<StreamId, Stream> entry : streams.entrySet()) {
+            Stream stream = entry.getValue();
+            if (stream.getStreamKind() == BLOOM_FILTER) {
+                OrcInputStream inputStream = streamsData.get(entry.getKey());
+                bloomFilters.put(stream.getColumn(), metadataReader.readBloomFilterIndexes(inputStream));
+            }
+        }
+
         ImmutableMap.Builder<Integer, List<RowGroupIndex>> columnIndexes = ImmutableMap.builder();
         for (Entry<StreamId, Stream> entry : streams.entrySet()) {
             Stream stream = entry.getValue();
             if (stream.getStreamKind() == ROW_INDEX) {
                 OrcInputStream inputStream = streamsData.get(entry.getKey());
-                columnIndexes.put(stream.getColumn(), metadataReader.readRowIndexes(inputStream));
+                List<RowGroupIndex> rowGroupIndexes = metadataReader.readRowIndexes(inputStream);
+
+                // the bloom filter of each row group is carried with its statistics
+                List<BloomFilter> columnBloomFilters = bloomFilters.get(stream.getColumn());
+                if (columnBloomFilters != null && columnBloomFilters.size() == rowGroupIndexes.size()) {
+                    ImmutableList.Builder<RowGroupIndex> indexesWithBloomFilters = ImmutableList.builder();
+                    for (int rowGroup = 0; rowGroup < rowGroupIndexes.size(); rowGroup++) {
+                        RowGroupIndex rowGroupIndex = rowGroupIndexes.get(rowGroup);
+                        indexesWithBloomFilters.add(new RowGroupIndex(rowGroupIndex.getPositions(), rowGroupIndex.getColumnStatistics().withBloomFilter(columnBloomFilters.get(rowGroup))));
+                    }
+                    rowGroupIndexes = indexesWithBloomFilters.build();
+                }
+                columnIndexes.put(stream.getColumn(), rowGroupIndexes);
             }
         }
         return columnIndexes.build();
@@ -319,7 +389,7 @@ public class StripeReader
 
     private static boolean isIndexStream(Stream stream)
     {
-        return stream.getStreamKind() == ROW_INDEX || stream.getStreamKind() == DICTIONARY_COUNT;
+        return stream.getStreamKind() == ROW_INDEX || stream.getStreamKind() == DICTIONARY_COUNT || stream.getStreamKind() == BLOOM_FILTER;
     }
 
     private static boolean isDictionary(Stream stream, ColumnEncodingKind columnEncoding)
@@ -361,6 +431,47 @@ public class StripeReader
         }
     }
 
+    /**
+     * The footer and the raw stream data of a stripe.
+     */
+    public static class StripeData
+    {
+        private final StripeFooter stripeFooter;
+        private final Map<StreamId, Stream> streams;
+        private final Map<StreamId, Slice> streamsData;
+
+        public StripeData(StripeFooter stripeFooter, Map<StreamId, Stream> streams, Map<StreamId, Slice> streamsData)
+        {
+            this.stripeFooter = checkNotNull(stripeFooter, "stripeFooter is null");
+            this.streams = ImmutableMap.copyOf(checkNotNull(streams, "streams is null"));
+            this.streamsData = ImmutableMap.copyOf(checkNotNull(streamsData, "streamsData is null"));
+        }
+
+        public StripeFooter getStripeFooter()
+        {
+            return stripeFooter;
+        }
+
+        public Map<StreamId, Stream> getStreams()
+        {
+            return streams;
+        }
+
+        public Map<StreamId, Slice> getStreamsData()
+        {
+            return streamsData;
+        }
+
+        public long getSizeInBytes()
+        {
+            long size = 0;
+            for (Slice slice : streamsData.values()) {
+                size += slice.length();
+            }
+            return size;
+        }
+    }
+
     /**
      * Ceiling of integer division
      */
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.orc.metadata.BloomFilter;
 import com.facebook.presto.orc.metadata.BooleanStatistics;
 import com.facebook.presto.orc.metadata.ColumnStatistics;
 import com.facebook.presto.orc.metadata.RangeStatistics;
@@ -42,6 +43,7 @@ public class TupleDomainOrcPredicate<C>
         implements OrcPredicate
 {
     private static final long MILLIS_IN_DAY = TimeUnit.DAYS.toMillis(1);
+    private static final int MAX_BLOOM_FILTER_PROBES = 32;
 
     private final TupleDomain<C> effectivePredicate;
     private final List<ColumnReference<C>> columnReferences;
@@ -72,7 +74,56 @@ public class TupleDomainOrcPredicate<C>
         }
         TupleDomain<C> stripeDomain = TupleDomain.withColumnDomains(domains.build());
 
-        return effectivePredicate.overlaps(stripeDomain);
+        if (!effectivePredicate.overlaps(stripeDomain)) {
+            return false;
+        }
+
+        // the value ranges overlap, so try the bloom filters for equality predicates
+        Map<C, Domain> predicateDomains = effectivePredicate.getDomains();
+        for (ColumnReference<C> columnReference : columnReferences) {
+            ColumnStatistics columnStatistics = statisticsByColumnIndex.get(columnReference.getOrdinal());
+            if (columnStatistics == null || columnStatistics.getBloomFilter() == null) {
+                continue;
+            }
+            Domain predicateDomain = predicateDomains.get(columnReference.getColumn());
+            if (predicateDomain != null && !mightContainAny(columnReference.getType(), predicateDomain, columnStatistics.getBloomFilter())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean mightContainAny(Type type, Domain domain, BloomFilter bloomFilter)
+    {
+        if (domain.isNullAllowed() || domain.getRanges().getRangeCount() > MAX_BLOOM_FILTER_PROBES) {
+            return true;
+        }
+        for (Range range : domain.getRanges()) {
+            if (!range.isSingleValue() || mightContain(type, range.getSingleValue(), bloomFilter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean mightContain(Type type, Object value, BloomFilter bloomFilter)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (type.getTypeSignature().getBase().equals(StandardTypes.DATE)) {
+            // TODO remove this when DATE type memory representation is changed to days instead of millis
+            return bloomFilter.mightContainLong(((Long) value) / MILLIS_IN_DAY);
+        }
+        if (type.getTypeSignature().getBase().equals(StandardTypes.BIGINT)) {
+            return bloomFilter.mightContainLong((Long) value);
+        }
+        if (javaType == double.class) {
+            return bloomFilter.mightContainDouble((Double) value);
+        }
+        if (javaType == Slice.class) {
+            return bloomFilter.mightContainSlice((Slice) value);
+        }
+        // bloom filters are not written for the remaining types
+        return true;
     }
 
     private static Domain getDomain(Type type, long rowCount, ColumnStatistics columnStatistics)
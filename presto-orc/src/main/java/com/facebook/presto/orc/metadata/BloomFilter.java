@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.metadata;
+
+import io.airlift.slice.Slice;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Bloom filter of the values in a row group, stored in the BLOOM_FILTER stream of a column.
+ * The hashing matches the Hive ORC writer: integers and doubles are mixed with Thomas Wang's
+ * 64 bit integer hash, strings are hashed with the 64 bit variant of Murmur3, and the two
+ * halves of the hash are combined to derive the position of each hash function.
+ */
+public class BloomFilter
+{
+    private static final int MURMUR3_SEED = 104729;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final int R1 = 31;
+    private static final int R2 = 27;
+    private static final int M = 5;
+    private static final int N1 = 0x52dce729;
+
+    private final int numHashFunctions;
+    private final long[] bitset;
+    private final int numBits;
+
+    public BloomFilter(int numHashFunctions, long[] bitset)
+    {
+        checkArgument(numHashFunctions > 0, "numHashFunctions must be positive");
+        checkNotNull(bitset, "bitset is null");
+        checkArgument(bitset.length > 0, "bitset is empty");
+        this.numHashFunctions = numHashFunctions;
+        this.bitset = bitset;
+        this.numBits = bitset.length * Long.SIZE;
+    }
+
+    /**
+     * Creates an empty filter sized for the expected number of distinct values and false positive rate.
+     */
+    public static BloomFilter create(long expectedEntries, double falsePositiveRate)
+    {
+        checkArgument(expectedEntries > 0, "expectedEntries must be positive");
+        checkArgument(falsePositiveRate > 0.0 && falsePositiveRate < 1.0, "falsePositiveRate must be between 0 and 1");
+        int numBits = (int) (-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedEntries * Math.log(2)));
+        return new BloomFilter(numHashFunctions, new long[(numBits / Long.SIZE) + 1]);
+    }
+
+    public int getNumHashFunctions()
+    {
+        return numHashFunctions;
+    }
+
+    public long[] getBitset()
+    {
+        return bitset;
+    }
+
+    public void addLong(long value)
+    {
+        addHash(getLongHash(value));
+    }
+
+    public void addDouble(double value)
+    {
+        addLong(Double.doubleToLongBits(value));
+    }
+
+    public void addSlice(Slice value)
+    {
+        addHash(murmur3Hash64(value));
+    }
+
+    public boolean mightContainLong(long value)
+    {
+        return mightContainHash(getLongHash(value));
+    }
+
+    public boolean mightContainDouble(double value)
+    {
+        return mightContainLong(Double.doubleToLongBits(value));
+    }
+
+    public boolean mightContainSlice(Slice value)
+    {
+        return mightContainHash(murmur3Hash64(value));
+    }
+
+    private void addHash(long hash64)
+    {
+        int hash1 = (int) hash64;
+        int hash2 = (int) (hash64 >>> 32);
+        for (int i = 1; i <= numHashFunctions; i++) {
+            int position = getBitPosition(hash1, hash2, i);
+            bitset[position >>> 6] |= (1L << position);
+        }
+    }
+
+    private boolean mightContainHash(long hash64)
+    {
+        int hash1 = (int) hash64;
+        int hash2 = (int) (hash64 >>> 32);
+        for (int i = 1; i <= numHashFunctions; i++) {
+            int position = getBitPosition(hash1, hash2, i);
+            if ((bitset[position >>> 6] & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getBitPosition(int hash1, int hash2, int function)
+    {
+        int combinedHash = hash1 + (function * hash2);
+        if (combinedHash < 0) {
+            combinedHash = ~combinedHash;
+        }
+        return combinedHash % numBits;
+    }
+
+    private static long getLongHash(long key)
+    {
+        key = (~key) + (key << 21);
+        key = key ^ (key >> 24);
+        key = (key + (key << 3)) + (key << 8);
+        key = key ^ (key >> 14);
+        key = (key + (key << 2)) + (key << 4);
+        key = key ^ (key >> 28);
+        key = key + (key << 31);
+        return key;
+    }
+
+    private static long murmur3Hash64(Slice data)
+    {
+        int length = data.length();
+        long hash = MURMUR3_SEED;
+
+        int blocks = length >> 3;
+        for (int i = 0; i < blocks; i++) {
+            long k = data.getLong(i << 3);
+            k *= C1;
+            k = Long.rotateLeft(k, R1);
+            k *= C2;
+            hash ^= k;
+            hash = Long.rotateLeft(hash, R2) * M + N1;
+        }
+
+        int tailStart = blocks << 3;
+        if (tailStart < length) {
+            long k = 0;
+            for (int i = length - 1; i >= tailStart; i--) {
+                k ^= (data.getByte(i) & 0xFFL) << ((i - tailStart) * 8);
+            }
+            k *= C1;
+            k = Long.rotateLeft(k, R1);
+            k *= C2;
+            hash ^= k;
+        }
+
+        hash ^= length;
+        return fmix64(hash);
+    }
+
+    private static long fmix64(long hash)
+    {
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("numHashFunctions", numHashFunctions)
+                .add("numBits", numBits)
+                .toString();
+    }
+}
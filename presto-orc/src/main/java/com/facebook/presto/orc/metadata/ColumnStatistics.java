@@ -13,6 +13,9 @@
  */
 package com.facebook.presto.orc.metadata;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ColumnStatistics
 {
     private final Long numberOfValues;
@@ -21,6 +24,7 @@ public class ColumnStatistics
     private final DoubleStatistics doubleStatistics;
     private final StringStatistics stringStatistics;
     private final DateStatistics dateStatistics;
+    private final BloomFilter bloomFilter;
 
     public ColumnStatistics(Long numberOfValues,
             BooleanStatistics booleanStatistics,
@@ -28,6 +32,17 @@ public class ColumnStatistics
             DoubleStatistics doubleStatistics,
             StringStatistics stringStatistics,
             DateStatistics dateStatistics)
+    {
+        this(numberOfValues, booleanStatistics, integerStatistics, doubleStatistics, stringStatistics, dateStatistics, null);
+    }
+
+    public ColumnStatistics(Long numberOfValues,
+            BooleanStatistics booleanStatistics,
+            IntegerStatistics integerStatistics,
+            DoubleStatistics doubleStatistics,
+            StringStatistics stringStatistics,
+            DateStatistics dateStatistics,
+            BloomFilter bloomFilter)
     {
         this.numberOfValues = numberOfValues;
         this.booleanStatistics = booleanStatistics;
@@ -35,6 +50,7 @@ public class ColumnStatistics
         this.doubleStatistics = doubleStatistics;
         this.stringStatistics = stringStatistics;
         this.dateStatistics = dateStatistics;
+        this.bloomFilter = bloomFilter;
     }
 
     public boolean hasNumberOfValues()
@@ -71,4 +87,94 @@ public class ColumnStatistics
     {
         return stringStatistics;
     }
+
+    /**
+     * Bloom filter of the values of a row group, or null if the file has none for the column.
+     */
+    public BloomFilter getBloomFilter()
+    {
+        return bloomFilter;
+    }
+
+    public ColumnStatistics withBloomFilter(BloomFilter bloomFilter)
+    {
+        return new ColumnStatistics(numberOfValues, booleanStatistics, integerStatistics, doubleStatistics, stringStatistics, dateStatistics, bloomFilter);
+    }
+
+    /**
+     * Combines the statistics of consecutive row groups or stripes. A range is only
+     * kept when every part that contains values has it. Bloom filters are not merged.
+     */
+    public static ColumnStatistics mergeColumnStatistics(List<ColumnStatistics> statistics)
+    {
+        long numberOfValues = 0;
+        int nonEmptyCount = 0;
+        long trueValueCount = 0;
+        int booleanCount = 0;
+        List<IntegerStatistics> integerStatistics = new ArrayList<>();
+        List<DoubleStatistics> doubleStatistics = new ArrayList<>();
+        List<StringStatistics> stringStatistics = new ArrayList<>();
+        List<DateStatistics> dateStatistics = new ArrayList<>();
+        for (ColumnStatistics columnStatistics : statistics) {
+            numberOfValues += columnStatistics.getNumberOfValues();
+            if (columnStatistics.getNumberOfValues() == 0) {
+                continue;
+            }
+            nonEmptyCount++;
+            if (columnStatistics.getBooleanStatistics() != null) {
+                trueValueCount += columnStatistics.getBooleanStatistics().getTrueValueCount();
+                booleanCount++;
+            }
+            if (columnStatistics.getIntegerStatistics() != null) {
+                integerStatistics.add(columnStatistics.getIntegerStatistics());
+            }
+            if (columnStatistics.getDoubleStatistics() != null) {
+                doubleStatistics.add(columnStatistics.getDoubleStatistics());
+            }
+            if (columnStatistics.getStringStatistics() != null) {
+                stringStatistics.add(columnStatistics.getStringStatistics());
+            }
+            if (columnStatistics.getDateStatistics() != null) {
+                dateStatistics.add(columnStatistics.getDateStatistics());
+            }
+        }
+
+        return new ColumnStatistics(
+                numberOfValues,
+                nonEmptyCount > 0 && booleanCount == nonEmptyCount ? new BooleanStatistics(trueValueCount) : null,
+                nonEmptyCount > 0 && integerStatistics.size() == nonEmptyCount ? new IntegerStatistics(mergeMin(integerStatistics), mergeMax(integerStatistics)) : null,
+                nonEmptyCount > 0 && doubleStatistics.size() == nonEmptyCount ? new DoubleStatistics(mergeMin(doubleStatistics), mergeMax(doubleStatistics)) : null,
+                nonEmptyCount > 0 && stringStatistics.size() == nonEmptyCount ? new StringStatistics(mergeMin(stringStatistics), mergeMax(stringStatistics)) : null,
+                nonEmptyCount > 0 && dateStatistics.size() == nonEmptyCount ? new DateStatistics(mergeMin(dateStatistics), mergeMax(dateStatistics)) : null);
+    }
+
+    private static <T extends Comparable<T>> T mergeMin(List<? extends RangeStatistics<T>> statistics)
+    {
+        T min = null;
+        for (RangeStatistics<T> rangeStatistics : statistics) {
+            T value = rangeStatistics.getMin();
+            if (value == null) {
+                return null;
+            }
+            if (min == null || value.compareTo(min) < 0) {
+                min = value;
+            }
+        }
+        return min;
+    }
+
+    private static <T extends Comparable<T>> T mergeMax(List<? extends RangeStatistics<T>> statistics)
+    {
+        T max = null;
+        for (RangeStatistics<T> rangeStatistics : statistics) {
+            T value = rangeStatistics.getMax();
+            if (value == null) {
+                return null;
+            }
+            if (max == null || value.compareTo(max) > 0) {
+                max = value;
+            }
+        }
+        return max;
+    }
 }
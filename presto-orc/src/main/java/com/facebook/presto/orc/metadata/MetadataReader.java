@@ -33,4 +33,10 @@ public interface MetadataReader
 
     List<RowGroupIndex> readRowIndexes(InputStream inputStream)
             throws IOException;
+
+    /**
+     * Reads the bloom filter of each row group from a BLOOM_FILTER stream.
+     */
+    List<BloomFilter> readBloomFilterIndexes(InputStream inputStream)
+            throws IOException;
 }
@@ -21,11 +21,13 @@ import com.google.common.base.Function;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
 import org.apache.hadoop.hive.ql.io.orc.OrcProto;
 import org.apache.hadoop.hive.ql.io.orc.OrcProto.RowIndexEntry;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 
 import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
@@ -36,6 +38,14 @@ import static com.google.common.base.Preconditions.checkState;
 public class OrcMetadataReader
         implements MetadataReader
 {
+    // the bundled protobuf classes predate bloom filters, so these parts of the format are decoded by hand
+    static final int STREAM_KIND_FIELD = 1;
+    static final long BLOOM_FILTER_STREAM_KIND = 7;
+    static final int BLOOM_FILTER_TAG = (1 << 3) | 2;
+    static final int NUM_HASH_FUNCTIONS_TAG = 1 << 3;
+    static final int BITSET_TAG = (2 << 3) | 1;
+    static final int PACKED_BITSET_TAG = (2 << 3) | 2;
+
     @Override
     public PostScript readPostScript(byte[] data, int offset, int length)
             throws IOException
@@ -124,7 +134,20 @@ public class OrcMetadataReader
 
     private static Stream toStream(OrcProto.Stream stream)
     {
-        return new Stream(stream.getColumn(), toStreamKind(stream.getKind()), Ints.checkedCast(stream.getLength()), true);
+        return new Stream(stream.getColumn(), toStreamKind(stream), Ints.checkedCast(stream.getLength()), true);
+    }
+
+    private static StreamKind toStreamKind(OrcProto.Stream stream)
+    {
+        // kinds unknown to the protobuf classes are kept in the unknown fields of the message
+        if (!stream.hasKind() && stream.getUnknownFields().hasField(STREAM_KIND_FIELD)) {
+            List<Long> kinds = stream.getUnknownFields().getField(STREAM_KIND_FIELD).getVarintList();
+            if (!kinds.isEmpty() && kinds.get(kinds.size() - 1) == BLOOM_FILTER_STREAM_KIND) {
+                return StreamKind.BLOOM_FILTER;
+            }
+            throw new IllegalStateException(kinds + " stream type not implemented yet");
+        }
+        return toStreamKind(stream.getKind());
     }
 
     private static List<Stream> toStream(List<OrcProto.Stream> streams)
@@ -172,6 +195,59 @@ public class OrcMetadataReader
         }));
     }
 
+    @Override
+    public List<BloomFilter> readBloomFilterIndexes(InputStream inputStream)
+            throws IOException
+    {
+        CodedInputStream input = CodedInputStream.newInstance(inputStream);
+        ImmutableList.Builder<BloomFilter> bloomFilters = ImmutableList.builder();
+        while (true) {
+            int tag = input.readTag();
+            if (tag == 0) {
+                break;
+            }
+            if (tag == BLOOM_FILTER_TAG) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                bloomFilters.add(readBloomFilter(input));
+                input.popLimit(limit);
+            }
+            else if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return bloomFilters.build();
+    }
+
+    private static BloomFilter readBloomFilter(CodedInputStream input)
+            throws IOException
+    {
+        int numHashFunctions = 0;
+        List<Long> bitset = new ArrayList<>();
+        while (true) {
+            int tag = input.readTag();
+            if (tag == 0) {
+                break;
+            }
+            if (tag == NUM_HASH_FUNCTIONS_TAG) {
+                numHashFunctions = input.readUInt32();
+            }
+            else if (tag == BITSET_TAG) {
+                bitset.add(input.readFixed64());
+            }
+            else if (tag == PACKED_BITSET_TAG) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                while (input.getBytesUntilLimit() > 0) {
+                    bitset.add(input.readFixed64());
+                }
+                input.popLimit(limit);
+            }
+            else if (!input.skipField(tag)) {
+                break;
+            }
+        }
+        return new BloomFilter(numHashFunctions, Longs.toArray(bitset));
+    }
+
     private static RowGroupIndex toRowGroupIndex(RowIndexEntry rowIndexEntry)
     {
         List<Long> positionsList = rowIndexEntry.getPositionsList();
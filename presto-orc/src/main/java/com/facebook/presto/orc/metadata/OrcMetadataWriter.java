@@ -0,0 +1,320 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.metadata;
+
+import com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind;
+import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
+import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.facebook.presto.hive.shaded.com.google.protobuf.CodedOutputStream;
+import com.facebook.presto.hive.shaded.com.google.protobuf.UnknownFieldSet;
+import com.google.common.base.Throwables;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.apache.hadoop.hive.ql.io.orc.OrcProto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static com.facebook.presto.orc.metadata.OrcMetadataReader.BLOOM_FILTER_STREAM_KIND;
+import static com.facebook.presto.orc.metadata.OrcMetadataReader.BLOOM_FILTER_TAG;
+import static com.facebook.presto.orc.metadata.OrcMetadataReader.STREAM_KIND_FIELD;
+
+/**
+ * Inverse of {@link OrcMetadataReader}; serializes the metadata model to the ORC protobuf messages.
+ */
+public class OrcMetadataWriter
+{
+    private static final String MAGIC = "ORC";
+
+    public Slice writePostScript(PostScript postScript)
+    {
+        OrcProto.PostScript postScriptProtobuf = OrcProto.PostScript.newBuilder()
+                .addAllVersion(postScript.getVersion())
+                .setFooterLength(postScript.getFooterLength())
+                .setMetadataLength(postScript.getMetadataLength())
+                .setCompression(toCompression(postScript.getCompression()))
+                .setCompressionBlockSize(postScript.getCompressionBlockSize())
+                .setMagic(MAGIC)
+                .build();
+        return Slices.wrappedBuffer(postScriptProtobuf.toByteArray());
+    }
+
+    public Slice writeMetadata(Metadata metadata)
+    {
+        OrcProto.Metadata.Builder builder = OrcProto.Metadata.newBuilder();
+        for (StripeStatistics stripeStatistics : metadata.getStripeStatsList()) {
+            OrcProto.StripeStatistics.Builder stripeBuilder = OrcProto.StripeStatistics.newBuilder();
+            for (ColumnStatistics columnStatistics : stripeStatistics.getColumnStatistics()) {
+                stripeBuilder.addColStats(toColumnStatistics(columnStatistics));
+            }
+            builder.addStripeStats(stripeBuilder);
+        }
+        return Slices.wrappedBuffer(builder.build().toByteArray());
+    }
+
+    public Slice writeFooter(Footer footer)
+    {
+        OrcProto.Footer.Builder builder = OrcProto.Footer.newBuilder()
+                .setNumberOfRows(footer.getNumberOfRows())
+                .setRowIndexStride(footer.getRowsInRowGroup());
+
+        for (StripeInformation stripe : footer.getStripes()) {
+            builder.addStripes(OrcProto.StripeInformation.newBuilder()
+                    .setOffset(stripe.getOffset())
+                    .setIndexLength(stripe.getIndexLength())
+                    .setDataLength(stripe.getDataLength())
+                    .setFooterLength(stripe.getFooterLength())
+                    .setNumberOfRows(stripe.getNumberOfRows()));
+        }
+
+        for (OrcType type : footer.getTypes()) {
+            OrcProto.Type.Builder typeBuilder = OrcProto.Type.newBuilder()
+                    .setKind(toTypeKind(type.getOrcTypeKind()));
+            for (int field = 0; field < type.getFieldCount(); field++) {
+                typeBuilder.addSubtypes(type.getFieldTypeIndex(field));
+            }
+            if (type.getFieldNames() != null) {
+                typeBuilder.addAllFieldNames(type.getFieldNames());
+            }
+            builder.addTypes(typeBuilder);
+        }
+
+        for (ColumnStatistics columnStatistics : footer.getFileStats()) {
+            builder.addStatistics(toColumnStatistics(columnStatistics));
+        }
+        return Slices.wrappedBuffer(builder.build().toByteArray());
+    }
+
+    public Slice writeStripeFooter(StripeFooter stripeFooter)
+    {
+        OrcProto.StripeFooter.Builder builder = OrcProto.StripeFooter.newBuilder();
+        for (Stream stream : stripeFooter.getStreams()) {
+            OrcProto.Stream.Builder streamBuilder = OrcProto.Stream.newBuilder()
+                    .setColumn(stream.getColumn())
+                    .setLength(stream.getLength());
+            if (stream.getStreamKind() == StreamKind.BLOOM_FILTER) {
+                // the protobuf classes do not know this kind, so it is written as an unknown field
+                streamBuilder.setUnknownFields(UnknownFieldSet.newBuilder()
+                        .addField(STREAM_KIND_FIELD, UnknownFieldSet.Field.newBuilder().addVarint(BLOOM_FILTER_STREAM_KIND).build())
+                        .build());
+            }
+            else {
+                streamBuilder.setKind(toStreamKind(stream.getStreamKind()));
+            }
+            builder.addStreams(streamBuilder);
+        }
+        for (ColumnEncoding columnEncoding : stripeFooter.getColumnEncodings()) {
+            builder.addColumns(OrcProto.ColumnEncoding.newBuilder()
+                    .setKind(toColumnEncodingKind(columnEncoding.getColumnEncodingKind()))
+                    .setDictionarySize(columnEncoding.getDictionarySize()));
+        }
+        return Slices.wrappedBuffer(builder.build().toByteArray());
+    }
+
+    public Slice writeRowIndexes(List<RowGroupIndex> rowGroupIndexes)
+    {
+        OrcProto.RowIndex.Builder builder = OrcProto.RowIndex.newBuilder();
+        for (RowGroupIndex rowGroupIndex : rowGroupIndexes) {
+            OrcProto.RowIndexEntry.Builder entryBuilder = OrcProto.RowIndexEntry.newBuilder();
+            for (int position : rowGroupIndex.getPositions()) {
+                entryBuilder.addPositions(position);
+            }
+            entryBuilder.setStatistics(toColumnStatistics(rowGroupIndex.getColumnStatistics()));
+            builder.addEntry(entryBuilder);
+        }
+        return Slices.wrappedBuffer(builder.build().toByteArray());
+    }
+
+    public Slice writeBloomFilters(List<BloomFilter> bloomFilters)
+    {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+            for (BloomFilter bloomFilter : bloomFilters) {
+                long[] bitset = bloomFilter.getBitset();
+                int messageSize = CodedOutputStream.computeUInt32Size(1, bloomFilter.getNumHashFunctions()) + bitset.length * CodedOutputStream.computeFixed64Size(2, 0);
+                output.writeRawVarint32(BLOOM_FILTER_TAG);
+                output.writeRawVarint32(messageSize);
+                output.writeUInt32(1, bloomFilter.getNumHashFunctions());
+                for (long word : bitset) {
+                    output.writeFixed64(2, word);
+                }
+            }
+            output.flush();
+            return Slices.wrappedBuffer(bytes.toByteArray());
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private static OrcProto.ColumnStatistics toColumnStatistics(ColumnStatistics statistics)
+    {
+        OrcProto.ColumnStatistics.Builder builder = OrcProto.ColumnStatistics.newBuilder();
+        if (statistics.hasNumberOfValues()) {
+            builder.setNumberOfValues(statistics.getNumberOfValues());
+        }
+
+        if (statistics.getBooleanStatistics() != null) {
+            builder.setBucketStatistics(OrcProto.BucketStatistics.newBuilder()
+                    .addCount(statistics.getBooleanStatistics().getTrueValueCount()));
+        }
+
+        IntegerStatistics integerStatistics = statistics.getIntegerStatistics();
+        if (integerStatistics != null) {
+            OrcProto.IntegerStatistics.Builder integerBuilder = OrcProto.IntegerStatistics.newBuilder();
+            if (integerStatistics.getMin() != null) {
+                integerBuilder.setMinimum(integerStatistics.getMin());
+            }
+            if (integerStatistics.getMax() != null) {
+                integerBuilder.setMaximum(integerStatistics.getMax());
+            }
+            builder.setIntStatistics(integerBuilder);
+        }
+
+        DoubleStatistics doubleStatistics = statistics.getDoubleStatistics();
+        if (doubleStatistics != null) {
+            OrcProto.DoubleStatistics.Builder doubleBuilder = OrcProto.DoubleStatistics.newBuilder();
+            if (doubleStatistics.getMin() != null) {
+                doubleBuilder.setMinimum(doubleStatistics.getMin());
+            }
+            if (doubleStatistics.getMax() != null) {
+                doubleBuilder.setMaximum(doubleStatistics.getMax());
+            }
+            builder.setDoubleStatistics(doubleBuilder);
+        }
+
+        StringStatistics stringStatistics = statistics.getStringStatistics();
+        if (stringStatistics != null) {
+            OrcProto.StringStatistics.Builder stringBuilder = OrcProto.StringStatistics.newBuilder();
+            if (stringStatistics.getMin() != null) {
+                stringBuilder.setMinimum(stringStatistics.getMin());
+            }
+            if (stringStatistics.getMax() != null) {
+                stringBuilder.setMaximum(stringStatistics.getMax());
+            }
+            builder.setStringStatistics(stringBuilder);
+        }
+
+        DateStatistics dateStatistics = statistics.getDateStatistics();
+        if (dateStatistics != null) {
+            OrcProto.DateStatistics.Builder dateBuilder = OrcProto.DateStatistics.newBuilder();
+            if (dateStatistics.getMin() != null) {
+                dateBuilder.setMinimum(dateStatistics.getMin());
+            }
+            if (dateStatistics.getMax() != null) {
+                dateBuilder.setMaximum(dateStatistics.getMax());
+            }
+            builder.setDateStatistics(dateBuilder);
+        }
+        return builder.build();
+    }
+
+    private static OrcProto.Type.Kind toTypeKind(OrcTypeKind typeKind)
+    {
+        switch (typeKind) {
+            case BOOLEAN:
+                return OrcProto.Type.Kind.BOOLEAN;
+            case BYTE:
+                return OrcProto.Type.Kind.BYTE;
+            case SHORT:
+                return OrcProto.Type.Kind.SHORT;
+            case INT:
+                return OrcProto.Type.Kind.INT;
+            case LONG:
+                return OrcProto.Type.Kind.LONG;
+            case FLOAT:
+                return OrcProto.Type.Kind.FLOAT;
+            case DOUBLE:
+                return OrcProto.Type.Kind.DOUBLE;
+            case STRING:
+                return OrcProto.Type.Kind.STRING;
+            case BINARY:
+                return OrcProto.Type.Kind.BINARY;
+            case TIMESTAMP:
+                return OrcProto.Type.Kind.TIMESTAMP;
+            case LIST:
+                return OrcProto.Type.Kind.LIST;
+            case MAP:
+                return OrcProto.Type.Kind.MAP;
+            case STRUCT:
+                return OrcProto.Type.Kind.STRUCT;
+            case UNION:
+                return OrcProto.Type.Kind.UNION;
+            case DECIMAL:
+                return OrcProto.Type.Kind.DECIMAL;
+            case DATE:
+                return OrcProto.Type.Kind.DATE;
+            case VARCHAR:
+                return OrcProto.Type.Kind.VARCHAR;
+            case CHAR:
+                return OrcProto.Type.Kind.CHAR;
+            default:
+                throw new IllegalArgumentException(typeKind + " type can not be written");
+        }
+    }
+
+    private static OrcProto.Stream.Kind toStreamKind(StreamKind streamKind)
+    {
+        switch (streamKind) {
+            case PRESENT:
+                return OrcProto.Stream.Kind.PRESENT;
+            case DATA:
+                return OrcProto.Stream.Kind.DATA;
+            case LENGTH:
+                return OrcProto.Stream.Kind.LENGTH;
+            case DICTIONARY_DATA:
+                return OrcProto.Stream.Kind.DICTIONARY_DATA;
+            case DICTIONARY_COUNT:
+                return OrcProto.Stream.Kind.DICTIONARY_COUNT;
+            case SECONDARY:
+                return OrcProto.Stream.Kind.SECONDARY;
+            case ROW_INDEX:
+                return OrcProto.Stream.Kind.ROW_INDEX;
+            default:
+                throw new IllegalArgumentException(streamKind + " stream can not be written");
+        }
+    }
+
+    private static OrcProto.ColumnEncoding.Kind toColumnEncodingKind(ColumnEncodingKind columnEncodingKind)
+    {
+        switch (columnEncodingKind) {
+            case DIRECT:
+                return OrcProto.ColumnEncoding.Kind.DIRECT;
+            case DIRECT_V2:
+                return OrcProto.ColumnEncoding.Kind.DIRECT_V2;
+            case DICTIONARY:
+                return OrcProto.ColumnEncoding.Kind.DICTIONARY;
+            case DICTIONARY_V2:
+                return OrcProto.ColumnEncoding.Kind.DICTIONARY_V2;
+            default:
+                throw new IllegalArgumentException(columnEncodingKind + " encoding can not be written");
+        }
+    }
+
+    private static OrcProto.CompressionKind toCompression(CompressionKind compression)
+    {
+        switch (compression) {
+            case UNCOMPRESSED:
+                return OrcProto.CompressionKind.NONE;
+            case ZLIB:
+                return OrcProto.CompressionKind.ZLIB;
+            case SNAPPY:
+                return OrcProto.CompressionKind.SNAPPY;
+            default:
+                throw new IllegalArgumentException(compression + " compression can not be written");
+        }
+    }
+}
@@ -30,6 +30,7 @@ public class Stream
         IN_DICTIONARY,
         ROW_GROUP_DICTIONARY,
         ROW_GROUP_DICTIONARY_LENGTH,
+        BLOOM_FILTER,
     }
 
     private final int column;
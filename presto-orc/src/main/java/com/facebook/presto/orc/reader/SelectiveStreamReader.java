@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.reader;
+
+import java.io.IOException;
+
+/**
+ * A stream reader that can decode a subset of the values in the next batch.
+ */
+public interface SelectiveStreamReader
+        extends StreamReader
+{
+    /**
+     * Reads the values at the specified positions of the next batch, which must be in ascending
+     * order. The values at the other positions are skipped, and their contents in the vector
+     * are unspecified.
+     */
+    void readBatch(Object vector, int[] positions, int positionCount)
+            throws IOException;
+}
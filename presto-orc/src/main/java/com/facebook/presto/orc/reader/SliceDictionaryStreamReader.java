@@ -86,6 +86,14 @@ public class SliceDictionaryStreamReader
     private StreamSource<RowGroupDictionaryLengthStream> rowGroupDictionaryLengthStreamSource = missingStreamSource(RowGroupDictionaryLengthStream.class);
     @Nonnull
     private int[] rowGroupDictionaryLength = new int[0];
+    private int rowGroupDictionarySize;
+
+    // stripe dictionary entries, followed by the row group dictionary entries and a null entry
+    @Nonnull
+    private Slice[] combinedDictionary = new Slice[1];
+    @Nonnull
+    private int[] batchDictionaryIdMap = new int[0];
+    private final int[] batchDictionaryIds = new int[Vector.MAX_VECTOR_LENGTH];
 
     @Nonnull
     private StreamSource<LongStream> dataStreamSource = missingStreamSource(LongStream.class);
@@ -153,25 +161,66 @@ public class SliceDictionaryStreamReader
             inDictionaryStream.getSetBits(nextBatchSize, inDictionary, isNullVector);
         }
 
+        int nullId = combinedDictionary.length - 1;
         for (int i = 0; i < nextBatchSize; i++) {
             if (isNullVector[i]) {
                 sliceVector.vector[i] = null;
+                sliceVector.ids[i] = nullId;
             }
             else if (inDictionary[i]) {
                 sliceVector.vector[i] = dictionary[dataVector[i]];
+                sliceVector.ids[i] = dataVector[i];
             }
             else {
                 sliceVector.vector[i] = rowGroupDictionary[dataVector[i]];
+                sliceVector.ids[i] = dictionarySize + dataVector[i];
             }
         }
+        sliceVector.dictionary = getBatchDictionary(sliceVector.ids, nextBatchSize);
 
         readOffset = 0;
         nextBatchSize = 0;
     }
 
+    private Slice[] getBatchDictionary(int[] ids, int batchSize)
+    {
+        if (combinedDictionary.length <= batchSize) {
+            return combinedDictionary;
+        }
+
+        // the dictionary is larger than the batch, so only hand out the entries used by the batch
+        if (batchDictionaryIdMap.length < combinedDictionary.length) {
+            batchDictionaryIdMap = new int[combinedDictionary.length];
+            Arrays.fill(batchDictionaryIdMap, -1);
+        }
+
+        int batchDictionarySize = 0;
+        for (int i = 0; i < batchSize; i++) {
+            int id = ids[i];
+            int batchId = batchDictionaryIdMap[id];
+            if (batchId < 0) {
+                batchId = batchDictionarySize;
+                batchDictionarySize++;
+                batchDictionaryIdMap[id] = batchId;
+                batchDictionaryIds[batchId] = id;
+            }
+            ids[i] = batchId;
+        }
+
+        Slice[] batchDictionary = new Slice[batchDictionarySize];
+        for (int batchId = 0; batchId < batchDictionarySize; batchId++) {
+            int id = batchDictionaryIds[batchId];
+            batchDictionary[batchId] = combinedDictionary[id];
+            batchDictionaryIdMap[id] = -1;
+        }
+        return batchDictionary;
+    }
+
     private void openRowGroup()
             throws IOException
     {
+        boolean combinedDictionaryStale = !dictionaryOpen;
+
         // read the dictionary
         if (!dictionaryOpen && dictionarySize > 0) {
             // resize the dictionary array if necessary
@@ -192,8 +241,13 @@ public class SliceDictionaryStreamReader
 
         // read row group dictionary
         RowGroupDictionaryLengthStream dictionaryLengthStream = rowGroupDictionaryLengthStreamSource.openStream();
+        if (rowGroupDictionarySize > 0) {
+            combinedDictionaryStale = true;
+        }
+        rowGroupDictionarySize = 0;
         if (dictionaryLengthStream != null) {
-            int rowGroupDictionarySize = dictionaryLengthStream.getEntryCount();
+            rowGroupDictionarySize = dictionaryLengthStream.getEntryCount();
+            combinedDictionaryStale = true;
 
             // resize the dictionary array if necessary
             if (rowGroupDictionary.length < rowGroupDictionarySize) {
@@ -209,6 +263,13 @@ public class SliceDictionaryStreamReader
         }
         dictionaryOpen = true;
 
+        if (combinedDictionaryStale) {
+            // blocks of earlier batches may still reference the old array, so always allocate a new one
+            combinedDictionary = new Slice[dictionarySize + rowGroupDictionarySize + 1];
+            System.arraycopy(dictionary, 0, combinedDictionary, 0, dictionarySize);
+            System.arraycopy(rowGroupDictionary, 0, combinedDictionary, dictionarySize, rowGroupDictionarySize);
+        }
+
         presentStream = presentStreamSource.openStream();
         inDictionaryStream = inDictionaryStreamSource.openStream();
         dataStream = dataStreamSource.openStream();
@@ -41,7 +41,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class SliceDirectStreamReader
-        implements StreamReader
+        implements SelectiveStreamReader
 {
     private final StreamDescriptor streamDescriptor;
 
@@ -87,6 +87,88 @@ public class SliceDirectStreamReader
             openRowGroup();
         }
 
+        skipToReadOffset();
+        readLengths();
+
+        int totalLength = 0;
+        for (int i = 0; i < nextBatchSize; i++) {
+            if (!isNullVector[i]) {
+                totalLength += lengthVector[i];
+            }
+        }
+
+        byte[] data = new byte[0];
+        if (totalLength > 0) {
+            verifyFormat(dataStream != null, "Value is not null but data stream is not present");
+            data = dataStream.next(totalLength);
+        }
+
+        SliceVector sliceVector = (SliceVector) vector;
+        int offset = 0;
+        for (int i = 0; i < nextBatchSize; i++) {
+            if (!isNullVector[i]) {
+                int length = lengthVector[i];
+                sliceVector.vector[i] = Slices.wrappedBuffer(data, offset, length);
+                offset += length;
+            }
+            else {
+                sliceVector.vector[i] = null;
+            }
+        }
+        sliceVector.dictionary = null;
+
+        readOffset = 0;
+        nextBatchSize = 0;
+    }
+
+    @Override
+    public void readBatch(Object vector, int[] positions, int positionCount)
+            throws IOException
+    {
+        if (!rowGroupOpen) {
+            openRowGroup();
+        }
+
+        skipToReadOffset();
+        readLengths();
+
+        int totalLength = 0;
+        for (int i = 0; i < positionCount; i++) {
+            if (!isNullVector[positions[i]]) {
+                totalLength += lengthVector[positions[i]];
+            }
+        }
+        byte[] data = new byte[totalLength];
+
+        // only the bytes of the selected values are copied, the rest of the data stream is skipped
+        SliceVector sliceVector = (SliceVector) vector;
+        Arrays.fill(sliceVector.vector, 0, nextBatchSize, null);
+        int offset = 0;
+        int position = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int selectedPosition = positions[i];
+            skipData(position, selectedPosition);
+            if (!isNullVector[selectedPosition]) {
+                int length = lengthVector[selectedPosition];
+                if (length > 0) {
+                    verifyFormat(dataStream != null, "Value is not null but data stream is not present");
+                    dataStream.next(length, data, offset);
+                }
+                sliceVector.vector[selectedPosition] = Slices.wrappedBuffer(data, offset, length);
+                offset += length;
+            }
+            position = selectedPosition + 1;
+        }
+        skipData(position, nextBatchSize);
+        sliceVector.dictionary = null;
+
+        readOffset = 0;
+        nextBatchSize = 0;
+    }
+
+    private void skipToReadOffset()
+            throws IOException
+    {
         if (readOffset > 0) {
             if (presentStream != null) {
                 // skip ahead the present bit reader, but count the set bits
@@ -102,8 +184,11 @@ public class SliceDirectStreamReader
                 }
             }
         }
+    }
 
-        SliceVector sliceVector = (SliceVector) vector;
+    private void readLengths()
+            throws IOException
+    {
         if (presentStream == null) {
             verifyFormat(lengthStream != null, "Value is not null but length stream is not present");
             lengthStream.nextIntVector(nextBatchSize, lengthVector);
@@ -115,34 +200,24 @@ public class SliceDirectStreamReader
                 lengthStream.nextIntVector(nextBatchSize, lengthVector, isNullVector);
             }
         }
+    }
 
-        int totalLength = 0;
-        for (int i = 0; i < nextBatchSize; i++) {
+    /**
+     * Skips the data of the values in the batch from {@code start} (inclusive) to {@code end} (exclusive).
+     */
+    private void skipData(int start, int end)
+            throws IOException
+    {
+        int skipSize = 0;
+        for (int i = start; i < end; i++) {
             if (!isNullVector[i]) {
-                totalLength += lengthVector[i];
+                skipSize += lengthVector[i];
             }
         }
-
-        byte[] data = new byte[0];
-        if (totalLength > 0) {
+        if (skipSize > 0) {
             verifyFormat(dataStream != null, "Value is not null but data stream is not present");
-            data = dataStream.next(totalLength);
+            dataStream.skip(skipSize);
         }
-
-        int offset = 0;
-        for (int i = 0; i < nextBatchSize; i++) {
-            if (!isNullVector[i]) {
-                int length = lengthVector[i];
-                sliceVector.vector[i] = Slices.wrappedBuffer(data, offset, length);
-                offset += length;
-            }
-            else {
-                sliceVector.vector[i] = null;
-            }
-        }
-
-        readOffset = 0;
-        nextBatchSize = 0;
     }
 
     private void openRowGroup()
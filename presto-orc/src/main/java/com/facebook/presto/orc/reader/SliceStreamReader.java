@@ -30,7 +30,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public class SliceStreamReader
-        implements StreamReader
+        implements SelectiveStreamReader
 {
     private final StreamDescriptor streamDescriptor;
     private final SliceDirectStreamReader directReader;
@@ -44,6 +44,11 @@ public class SliceStreamReader
         dictionaryReader = new SliceDictionaryStreamReader(streamDescriptor);
     }
 
+    public boolean isDictionaryEncoded()
+    {
+        return currentReader == dictionaryReader;
+    }
+
     @Override
     public void readBatch(Object vector)
             throws IOException
@@ -51,6 +56,19 @@ public class SliceStreamReader
         currentReader.readBatch(vector);
     }
 
+    @Override
+    public void readBatch(Object vector, int[] positions, int positionCount)
+            throws IOException
+    {
+        // dictionary ids are cheap to decode, so the dictionary reader always reads the whole batch
+        if (currentReader == directReader) {
+            directReader.readBatch(vector, positions, positionCount);
+        }
+        else {
+            currentReader.readBatch(vector);
+        }
+    }
+
     @Override
     public void prepareNextRead(int batchSize)
     {
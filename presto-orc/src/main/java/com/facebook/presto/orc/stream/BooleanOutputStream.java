@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+
+import java.util.List;
+
+/**
+ * Bits packed most significant bit first on top of a {@link ByteOutputStream}, read by {@link BooleanStream}.
+ */
+public class BooleanOutputStream
+        implements ValueOutputStream
+{
+    private final ByteOutputStream byteOutputStream;
+    private int data;
+    private int bitsInData;
+
+    public BooleanOutputStream(CompressionKind compression, int bufferSize)
+    {
+        this.byteOutputStream = new ByteOutputStream(compression, bufferSize);
+    }
+
+    public void writeBoolean(boolean value)
+    {
+        if (value) {
+            data |= 0x80 >>> bitsInData;
+        }
+        bitsInData++;
+        if (bitsInData == 8) {
+            flushData();
+        }
+    }
+
+    private void flushData()
+    {
+        byteOutputStream.writeByte((byte) data);
+        data = 0;
+        bitsInData = 0;
+    }
+
+    @Override
+    public List<Integer> getCheckpoint()
+    {
+        return ImmutableList.<Integer>builder()
+                .addAll(byteOutputStream.getCheckpoint())
+                .add(bitsInData)
+                .build();
+    }
+
+    @Override
+    public void close()
+    {
+        // the last byte is padded with zero bits
+        if (bitsInData > 0) {
+            flushData();
+        }
+        byteOutputStream.close();
+    }
+
+    @Override
+    public Slice getOutput()
+    {
+        return byteOutputStream.getOutput();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return byteOutputStream.getBufferedBytes() + 1;
+    }
+
+    @Override
+    public void reset()
+    {
+        byteOutputStream.reset();
+        data = 0;
+        bitsInData = 0;
+    }
+}
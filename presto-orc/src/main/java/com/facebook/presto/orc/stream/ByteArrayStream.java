@@ -45,6 +45,12 @@ public class ByteArrayStream
         readFully(inputStream, data, 0, length);
     }
 
+    public void next(int length, byte[] data, int offset)
+            throws IOException
+    {
+        readFully(inputStream, data, offset, length);
+    }
+
     @Override
     public Class<ByteArrayStreamCheckpoint> getCheckpointType()
     {
@@ -0,0 +1,207 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.stream;
+
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import org.iq80.snappy.Snappy;
+
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Inverse of {@link OrcInputStream}. Data is buffered until a full compression
+ * block is available, and each block is written with the three byte chunk
+ * header. Blocks that do not get smaller are stored as original.
+ */
+public final class OrcOutputBuffer
+        implements ValueOutputStream
+{
+    private final CompressionKind compressionKind;
+    private final int maxBufferSize;
+
+    private final DynamicSliceOutput compressedOutput;
+    private final byte[] buffer;
+    private int bufferPosition;
+    private byte[] compressionBuffer = new byte[0];
+
+    private boolean closed;
+
+    public OrcOutputBuffer(CompressionKind compressionKind, int maxBufferSize)
+    {
+        this.compressionKind = checkNotNull(compressionKind, "compressionKind is null");
+        checkArgument(compressionKind == UNCOMPRESSED || compressionKind == SNAPPY || compressionKind == ZLIB, "%s compression not supported", compressionKind);
+        checkArgument(maxBufferSize > 0, "maxBufferSize must be positive");
+        this.maxBufferSize = maxBufferSize;
+        this.compressedOutput = new DynamicSliceOutput(maxBufferSize);
+        this.buffer = compressionKind == UNCOMPRESSED ? new byte[0] : new byte[maxBufferSize];
+    }
+
+    /**
+     * Positions of the next byte written, in the layout expected by {@link com.facebook.presto.orc.checkpoint.InputStreamCheckpoint}.
+     */
+    @Override
+    public List<Integer> getCheckpoint()
+    {
+        if (compressionKind == UNCOMPRESSED) {
+            return ImmutableList.of(compressedOutput.size());
+        }
+        return ImmutableList.of(compressedOutput.size(), bufferPosition);
+    }
+
+    public void writeByte(int value)
+    {
+        checkState(!closed, "buffer is closed");
+        if (compressionKind == UNCOMPRESSED) {
+            compressedOutput.writeByte(value);
+            return;
+        }
+        buffer[bufferPosition++] = (byte) value;
+        if (bufferPosition == maxBufferSize) {
+            flushBuffer();
+        }
+    }
+
+    public void writeBytes(Slice source)
+    {
+        writeBytes(source, 0, source.length());
+    }
+
+    public void writeBytes(Slice source, int sourceIndex, int length)
+    {
+        checkState(!closed, "buffer is closed");
+        if (compressionKind == UNCOMPRESSED) {
+            compressedOutput.writeBytes(source, sourceIndex, length);
+            return;
+        }
+        while (length > 0) {
+            int chunk = Math.min(length, maxBufferSize - bufferPosition);
+            source.getBytes(sourceIndex, buffer, bufferPosition, chunk);
+            bufferPosition += chunk;
+            sourceIndex += chunk;
+            length -= chunk;
+            if (bufferPosition == maxBufferSize) {
+                flushBuffer();
+            }
+        }
+    }
+
+    public void writeDouble(double value)
+    {
+        long bits = Double.doubleToLongBits(value);
+        for (int i = 0; i < 8; i++) {
+            writeByte((int) (bits >>> (i * 8)));
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (bufferPosition > 0) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Size of the data written so far, before compressing the bytes still buffered.
+     */
+    @Override
+    public long getBufferedBytes()
+    {
+        return compressedOutput.size() + bufferPosition;
+    }
+
+    @Override
+    public Slice getOutput()
+    {
+        checkState(closed, "buffer is not closed");
+        return compressedOutput.slice();
+    }
+
+    @Override
+    public void reset()
+    {
+        compressedOutput.reset();
+        bufferPosition = 0;
+        closed = false;
+    }
+
+    private void flushBuffer()
+    {
+        int compressedLength = compressionKind == SNAPPY ? compressSnappy() : compressZlib();
+        if (compressedLength > 0 && compressedLength < bufferPosition) {
+            writeChunkHeader(compressedLength, false);
+            compressedOutput.writeBytes(compressionBuffer, 0, compressedLength);
+        }
+        else {
+            writeChunkHeader(bufferPosition, true);
+            compressedOutput.writeBytes(buffer, 0, bufferPosition);
+        }
+        bufferPosition = 0;
+    }
+
+    private int compressSnappy()
+    {
+        int maxLength = Snappy.maxCompressedLength(bufferPosition);
+        if (compressionBuffer.length < maxLength) {
+            compressionBuffer = new byte[maxLength];
+        }
+        return Snappy.compress(buffer, 0, bufferPosition, compressionBuffer, 0);
+    }
+
+    /**
+     * Returns -1 if the deflated data does not fit in the size of the input.
+     */
+    private int compressZlib()
+    {
+        if (compressionBuffer.length < bufferPosition) {
+            compressionBuffer = new byte[maxBufferSize];
+        }
+        // ORC uses raw deflate without the zlib header, matching the nowrap Inflater in OrcInputStream
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(buffer, 0, bufferPosition);
+            deflater.finish();
+            int length = deflater.deflate(compressionBuffer, 0, bufferPosition);
+            if (!deflater.finished()) {
+                return -1;
+            }
+            return length;
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    private void writeChunkHeader(int length, boolean isOriginal)
+    {
+        int header = (length << 1) | (isOriginal ? 1 : 0);
+        compressedOutput.writeByte(header & 0xFF);
+        compressedOutput.writeByte((header >>> 8) & 0xFF);
+        compressedOutput.writeByte((header >>> 16) & 0xFF);
+    }
+}
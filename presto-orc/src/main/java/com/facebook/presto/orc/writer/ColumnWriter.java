@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.spi.block.Block;
+
+import java.util.List;
+
+/**
+ * Encodes one column of a stripe. Values are appended with {@link #writeBlock},
+ * row groups are ended with {@link #finishRowGroup}, and once the stripe is
+ * {@link #close closed} the encoding, indexes and streams can be fetched.
+ * {@link #reset} prepares the writer for the next stripe.
+ */
+public interface ColumnWriter
+{
+    void writeBlock(Block block);
+
+    void finishRowGroup();
+
+    void close();
+
+    ColumnEncoding getColumnEncoding();
+
+    List<RowGroupIndex> getRowGroupIndexes();
+
+    ColumnStatistics getStripeStatistics();
+
+    /**
+     * Data streams in the order they are stored in the stripe.
+     */
+    List<StreamDataOutput> getDataStreams();
+
+    long getBufferedBytes();
+
+    void reset();
+}
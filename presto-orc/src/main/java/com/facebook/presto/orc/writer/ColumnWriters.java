@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.OrcType.OrcTypeKind;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+
+public final class ColumnWriters
+{
+    private ColumnWriters()
+    {
+    }
+
+    public static ColumnWriter createColumnWriter(Type type, CompressionKind compression, int bufferSize)
+    {
+        if (BOOLEAN.equals(type)) {
+            return new BooleanColumnWriter(type, compression, bufferSize);
+        }
+        if (BIGINT.equals(type) || DATE.equals(type)) {
+            return new LongColumnWriter(type, compression, bufferSize);
+        }
+        if (DOUBLE.equals(type)) {
+            return new DoubleColumnWriter(type, compression, bufferSize);
+        }
+        if (VARCHAR.equals(type) || VARBINARY.equals(type)) {
+            return new SliceColumnWriter(type, compression, bufferSize);
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    public static OrcTypeKind getOrcTypeKind(Type type)
+    {
+        if (BOOLEAN.equals(type)) {
+            return OrcTypeKind.BOOLEAN;
+        }
+        if (BIGINT.equals(type)) {
+            return OrcTypeKind.LONG;
+        }
+        if (DATE.equals(type)) {
+            return OrcTypeKind.DATE;
+        }
+        if (DOUBLE.equals(type)) {
+            return OrcTypeKind.DOUBLE;
+        }
+        if (VARCHAR.equals(type)) {
+            return OrcTypeKind.STRING;
+        }
+        if (VARBINARY.equals(type)) {
+            return OrcTypeKind.BINARY;
+        }
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    /**
+     * The present stream is omitted from stripes without nulls, and so are its positions.
+     */
+    static List<RowGroupIndex> createRowGroupIndexes(
+            List<ColumnStatistics> rowGroupStatistics,
+            List<List<Integer>> presentCheckpoints,
+            List<List<Integer>> dataCheckpoints,
+            boolean hasNulls)
+    {
+        ImmutableList.Builder<RowGroupIndex> rowGroupIndexes = ImmutableList.builder();
+        for (int rowGroup = 0; rowGroup < rowGroupStatistics.size(); rowGroup++) {
+            ImmutableList.Builder<Integer> positions = ImmutableList.builder();
+            if (hasNulls) {
+                positions.addAll(presentCheckpoints.get(rowGroup));
+            }
+            positions.addAll(dataCheckpoints.get(rowGroup));
+            rowGroupIndexes.add(new RowGroupIndex(positions.build(), rowGroupStatistics.get(rowGroup)));
+        }
+        return rowGroupIndexes.build();
+    }
+}
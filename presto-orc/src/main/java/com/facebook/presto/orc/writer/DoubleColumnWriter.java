@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.DoubleStatistics;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.stream.BooleanOutputStream;
+import com.facebook.presto.orc.stream.OrcOutputBuffer;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.ColumnStatistics.mergeColumnStatistics;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.facebook.presto.orc.writer.ColumnWriters.createRowGroupIndexes;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+public class DoubleColumnWriter
+        implements ColumnWriter
+{
+    private final Type type;
+    private final BooleanOutputStream presentStream;
+    private final OrcOutputBuffer dataStream;
+
+    private final List<List<Integer>> presentCheckpoints = new ArrayList<>();
+    private final List<List<Integer>> dataCheckpoints = new ArrayList<>();
+    private final List<ColumnStatistics> rowGroupStatistics = new ArrayList<>();
+    private boolean hasNulls;
+    private boolean closed;
+
+    private long nonNullValueCount;
+    private double minimum = Double.POSITIVE_INFINITY;
+    private double maximum = Double.NEGATIVE_INFINITY;
+    private boolean hasNaN;
+
+    public DoubleColumnWriter(Type type, CompressionKind compression, int bufferSize)
+    {
+        this.type = checkNotNull(type, "type is null");
+        this.presentStream = new BooleanOutputStream(compression, bufferSize);
+        this.dataStream = new OrcOutputBuffer(compression, bufferSize);
+        recordCheckpoints();
+    }
+
+    @Override
+    public void writeBlock(Block block)
+    {
+        checkState(!closed, "writer is closed");
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                presentStream.writeBoolean(false);
+                hasNulls = true;
+                continue;
+            }
+            presentStream.writeBoolean(true);
+            double value = type.getDouble(block, position);
+            dataStream.writeDouble(value);
+            nonNullValueCount++;
+            if (Double.isNaN(value)) {
+                hasNaN = true;
+            }
+            else {
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+            }
+        }
+    }
+
+    @Override
+    public void finishRowGroup()
+    {
+        checkState(!closed, "writer is closed");
+        // a range can not describe NaN, so row groups containing one have no range
+        DoubleStatistics doubleStatistics = null;
+        if (nonNullValueCount > 0 && !hasNaN) {
+            doubleStatistics = new DoubleStatistics(minimum, maximum);
+        }
+        rowGroupStatistics.add(new ColumnStatistics(nonNullValueCount, null, null, doubleStatistics, null, null));
+
+        nonNullValueCount = 0;
+        minimum = Double.POSITIVE_INFINITY;
+        maximum = Double.NEGATIVE_INFINITY;
+        hasNaN = false;
+        recordCheckpoints();
+    }
+
+    private void recordCheckpoints()
+    {
+        presentCheckpoints.add(presentStream.getCheckpoint());
+        dataCheckpoints.add(dataStream.getCheckpoint());
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        presentStream.close();
+        dataStream.close();
+    }
+
+    @Override
+    public ColumnEncoding getColumnEncoding()
+    {
+        return new ColumnEncoding(DIRECT, 0);
+    }
+
+    @Override
+    public List<RowGroupIndex> getRowGroupIndexes()
+    {
+        checkState(closed, "writer is not closed");
+        return createRowGroupIndexes(rowGroupStatistics, presentCheckpoints, dataCheckpoints, hasNulls);
+    }
+
+    @Override
+    public ColumnStatistics getStripeStatistics()
+    {
+        checkState(closed, "writer is not closed");
+        return mergeColumnStatistics(rowGroupStatistics);
+    }
+
+    @Override
+    public List<StreamDataOutput> getDataStreams()
+    {
+        checkState(closed, "writer is not closed");
+        ImmutableList.Builder<StreamDataOutput> streams = ImmutableList.builder();
+        if (hasNulls) {
+            streams.add(new StreamDataOutput(PRESENT, presentStream.getOutput()));
+        }
+        streams.add(new StreamDataOutput(DATA, dataStream.getOutput()));
+        return streams.build();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return presentStream.getBufferedBytes() + dataStream.getBufferedBytes();
+    }
+
+    @Override
+    public void reset()
+    {
+        closed = false;
+        presentStream.reset();
+        dataStream.reset();
+        presentCheckpoints.clear();
+        dataCheckpoints.clear();
+        rowGroupStatistics.clear();
+        hasNulls = false;
+        nonNullValueCount = 0;
+        minimum = Double.POSITIVE_INFINITY;
+        maximum = Double.NEGATIVE_INFINITY;
+        hasNaN = false;
+        recordCheckpoints();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.DateStatistics;
+import com.facebook.presto.orc.metadata.IntegerStatistics;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.stream.BooleanOutputStream;
+import com.facebook.presto.orc.stream.LongOutputStreamV1;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.ColumnStatistics.mergeColumnStatistics;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.facebook.presto.orc.writer.ColumnWriters.createRowGroupIndexes;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+public class LongColumnWriter
+        implements ColumnWriter
+{
+    private final Type type;
+    private final boolean isDate;
+    private final BooleanOutputStream presentStream;
+    private final LongOutputStreamV1 dataStream;
+
+    private final List<List<Integer>> presentCheckpoints = new ArrayList<>();
+    private final List<List<Integer>> dataCheckpoints = new ArrayList<>();
+    private final List<ColumnStatistics> rowGroupStatistics = new ArrayList<>();
+    private boolean hasNulls;
+    private boolean closed;
+
+    private long nonNullValueCount;
+    private long minimum = Long.MAX_VALUE;
+    private long maximum = Long.MIN_VALUE;
+
+    public LongColumnWriter(Type type, CompressionKind compression, int bufferSize)
+    {
+        this.type = checkNotNull(type, "type is null");
+        this.isDate = DATE.equals(type);
+        this.presentStream = new BooleanOutputStream(compression, bufferSize);
+        this.dataStream = new LongOutputStreamV1(compression, bufferSize, true);
+        recordCheckpoints();
+    }
+
+    @Override
+    public void writeBlock(Block block)
+    {
+        checkState(!closed, "writer is closed");
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                presentStream.writeBoolean(false);
+                hasNulls = true;
+                continue;
+            }
+            presentStream.writeBoolean(true);
+            long value = type.getLong(block, position);
+            dataStream.writeLong(value);
+            nonNullValueCount++;
+            minimum = Math.min(minimum, value);
+            maximum = Math.max(maximum, value);
+        }
+    }
+
+    @Override
+    public void finishRowGroup()
+    {
+        checkState(!closed, "writer is closed");
+        IntegerStatistics integerStatistics = null;
+        DateStatistics dateStatistics = null;
+        if (nonNullValueCount > 0) {
+            if (isDate) {
+                dateStatistics = new DateStatistics((int) minimum, (int) maximum);
+            }
+            else {
+                integerStatistics = new IntegerStatistics(minimum, maximum);
+            }
+        }
+        rowGroupStatistics.add(new ColumnStatistics(nonNullValueCount, null, integerStatistics, null, null, dateStatistics));
+
+        nonNullValueCount = 0;
+        minimum = Long.MAX_VALUE;
+        maximum = Long.MIN_VALUE;
+        recordCheckpoints();
+    }
+
+    private void recordCheckpoints()
+    {
+        presentCheckpoints.add(presentStream.getCheckpoint());
+        dataCheckpoints.add(dataStream.getCheckpoint());
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        presentStream.close();
+        dataStream.close();
+    }
+
+    @Override
+    public ColumnEncoding getColumnEncoding()
+    {
+        return new ColumnEncoding(DIRECT, 0);
+    }
+
+    @Override
+    public List<RowGroupIndex> getRowGroupIndexes()
+    {
+        checkState(closed, "writer is not closed");
+        return createRowGroupIndexes(rowGroupStatistics, presentCheckpoints, dataCheckpoints, hasNulls);
+    }
+
+    @Override
+    public ColumnStatistics getStripeStatistics()
+    {
+        checkState(closed, "writer is not closed");
+        return mergeColumnStatistics(rowGroupStatistics);
+    }
+
+    @Override
+    public List<StreamDataOutput> getDataStreams()
+    {
+        checkState(closed, "writer is not closed");
+        ImmutableList.Builder<StreamDataOutput> streams = ImmutableList.builder();
+        if (hasNulls) {
+            streams.add(new StreamDataOutput(PRESENT, presentStream.getOutput()));
+        }
+        streams.add(new StreamDataOutput(DATA, dataStream.getOutput()));
+        return streams.build();
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return presentStream.getBufferedBytes() + dataStream.getBufferedBytes();
+    }
+
+    @Override
+    public void reset()
+    {
+        closed = false;
+        presentStream.reset();
+        dataStream.reset();
+        presentCheckpoints.clear();
+        dataCheckpoints.clear();
+        rowGroupStatistics.clear();
+        hasNulls = false;
+        nonNullValueCount = 0;
+        minimum = Long.MAX_VALUE;
+        maximum = Long.MIN_VALUE;
+        recordCheckpoints();
+    }
+}
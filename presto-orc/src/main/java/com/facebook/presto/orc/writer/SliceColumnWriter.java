@@ -0,0 +1,324 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.ColumnEncoding;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.RowGroupIndex;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.facebook.presto.orc.stream.BooleanOutputStream;
+import com.facebook.presto.orc.stream.LongOutputStreamV1;
+import com.facebook.presto.orc.stream.OrcOutputBuffer;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY;
+import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static com.facebook.presto.orc.metadata.ColumnStatistics.mergeColumnStatistics;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_DATA;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.LENGTH;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.PRESENT;
+import static com.facebook.presto.orc.writer.ColumnWriters.createRowGroupIndexes;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Values are collected in a dictionary for the whole stripe. When the stripe is
+ * closed the column is written with dictionary encoding if the dictionary is
+ * small compared to the number of values, and with direct encoding otherwise.
+ */
+public class SliceColumnWriter
+        implements ColumnWriter
+{
+    // same threshold as the Hive ORC writer
+    private static final double DICTIONARY_KEY_SIZE_THRESHOLD = 0.8;
+    private static final int NULL_ID = -1;
+
+    private final Type type;
+    private final boolean isVarchar;
+
+    private final BooleanOutputStream presentStream;
+    private final LongOutputStreamV1 dataStream;
+    private final LongOutputStreamV1 lengthStream;
+    private final OrcOutputBuffer bytesStream;
+
+    private final Map<Slice, Integer> dictionary = new HashMap<>();
+    private final List<Slice> dictionaryValues = new ArrayList<>();
+    private long dictionaryBytes;
+    private int[] ids = new int[1024];
+    private int rowCount;
+    private long nonNullValueCount;
+
+    // row offset at which each row group starts
+    private final List<Integer> rowGroupOffsets = new ArrayList<>();
+    private final List<ColumnStatistics> rowGroupStatistics = new ArrayList<>();
+    private long rowGroupNonNullValueCount;
+    private Slice minimum;
+    private Slice maximum;
+
+    private boolean closed;
+    private boolean hasNulls;
+    private ColumnEncoding columnEncoding;
+    private List<RowGroupIndex> rowGroupIndexes;
+    private List<StreamDataOutput> dataStreams;
+
+    public SliceColumnWriter(Type type, CompressionKind compression, int bufferSize)
+    {
+        this.type = checkNotNull(type, "type is null");
+        this.isVarchar = VARCHAR.equals(type);
+        this.presentStream = new BooleanOutputStream(compression, bufferSize);
+        this.dataStream = new LongOutputStreamV1(compression, bufferSize, false);
+        this.lengthStream = new LongOutputStreamV1(compression, bufferSize, false);
+        this.bytesStream = new OrcOutputBuffer(compression, bufferSize);
+        rowGroupOffsets.add(0);
+    }
+
+    @Override
+    public void writeBlock(Block block)
+    {
+        checkState(!closed, "writer is closed");
+        if (rowCount + block.getPositionCount() > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(ids.length * 2, rowCount + block.getPositionCount()));
+        }
+
+        for (int position = 0; position < block.getPositionCount(); position++) {
+            if (block.isNull(position)) {
+                ids[rowCount++] = NULL_ID;
+                hasNulls = true;
+                continue;
+            }
+
+            Slice value = type.getSlice(block, position);
+            Integer id = dictionary.get(value);
+            if (id == null) {
+                // the block may be a view over a larger buffer, so keep a copy
+                value = Slices.copyOf(value);
+                id = dictionaryValues.size();
+                dictionary.put(value, id);
+                dictionaryValues.add(value);
+                dictionaryBytes += value.length();
+            }
+            else {
+                value = dictionaryValues.get(id);
+            }
+            ids[rowCount++] = id;
+            nonNullValueCount++;
+
+            rowGroupNonNullValueCount++;
+            if (minimum == null || value.compareTo(minimum) < 0) {
+                minimum = value;
+            }
+            if (maximum == null || value.compareTo(maximum) > 0) {
+                maximum = value;
+            }
+        }
+    }
+
+    @Override
+    public void finishRowGroup()
+    {
+        checkState(!closed, "writer is closed");
+        StringStatistics stringStatistics = null;
+        if (isVarchar && rowGroupNonNullValueCount > 0) {
+            stringStatistics = new StringStatistics(minimum.toStringUtf8(), maximum.toStringUtf8());
+        }
+        rowGroupStatistics.add(new ColumnStatistics(rowGroupNonNullValueCount, null, null, null, stringStatistics, null));
+        rowGroupOffsets.add(rowCount);
+
+        rowGroupNonNullValueCount = 0;
+        minimum = null;
+        maximum = null;
+    }
+
+    @Override
+    public void close()
+    {
+        checkState(!closed, "writer is closed");
+        closed = true;
+
+        // Hive only supports direct encoding for binary columns
+        if (isVarchar && nonNullValueCount > 0 && dictionaryValues.size() <= DICTIONARY_KEY_SIZE_THRESHOLD * nonNullValueCount) {
+            writeDictionary();
+        }
+        else {
+            writeDirect();
+        }
+    }
+
+    private void writeDictionary()
+    {
+        // readers expect the dictionary to be sorted
+        Integer[] sortedIds = new Integer[dictionaryValues.size()];
+        for (int id = 0; id < sortedIds.length; id++) {
+            sortedIds[id] = id;
+        }
+        Arrays.sort(sortedIds, new Comparator<Integer>()
+        {
+            @Override
+            public int compare(Integer left, Integer right)
+            {
+                return dictionaryValues.get(left).compareTo(dictionaryValues.get(right));
+            }
+        });
+
+        int[] sortedIndexes = new int[sortedIds.length];
+        for (int index = 0; index < sortedIds.length; index++) {
+            Slice value = dictionaryValues.get(sortedIds[index]);
+            sortedIndexes[sortedIds[index]] = index;
+            bytesStream.writeBytes(value);
+            lengthStream.writeLong(value.length());
+        }
+
+        List<List<Integer>> presentCheckpoints = new ArrayList<>();
+        List<List<Integer>> dataCheckpoints = new ArrayList<>();
+        for (int rowGroup = 0; rowGroup < rowGroupStatistics.size(); rowGroup++) {
+            presentCheckpoints.add(presentStream.getCheckpoint());
+            dataCheckpoints.add(dataStream.getCheckpoint());
+            for (int row = rowGroupOffsets.get(rowGroup); row < rowGroupOffsets.get(rowGroup + 1); row++) {
+                int id = ids[row];
+                presentStream.writeBoolean(id != NULL_ID);
+                if (id != NULL_ID) {
+                    dataStream.writeLong(sortedIndexes[id]);
+                }
+            }
+        }
+        presentStream.close();
+        dataStream.close();
+        lengthStream.close();
+        bytesStream.close();
+
+        columnEncoding = new ColumnEncoding(DICTIONARY, dictionaryValues.size());
+        rowGroupIndexes = createRowGroupIndexes(rowGroupStatistics, presentCheckpoints, dataCheckpoints, hasNulls);
+
+        ImmutableList.Builder<StreamDataOutput> streams = ImmutableList.builder();
+        if (hasNulls) {
+            streams.add(new StreamDataOutput(PRESENT, presentStream.getOutput()));
+        }
+        streams.add(new StreamDataOutput(DATA, dataStream.getOutput()));
+        streams.add(new StreamDataOutput(LENGTH, lengthStream.getOutput()));
+        streams.add(new StreamDataOutput(DICTIONARY_DATA, bytesStream.getOutput()));
+        dataStreams = streams.build();
+    }
+
+    private void writeDirect()
+    {
+        List<List<Integer>> presentCheckpoints = new ArrayList<>();
+        List<List<Integer>> dataCheckpoints = new ArrayList<>();
+        for (int rowGroup = 0; rowGroup < rowGroupStatistics.size(); rowGroup++) {
+            presentCheckpoints.add(presentStream.getCheckpoint());
+            dataCheckpoints.add(ImmutableList.<Integer>builder()
+                    .addAll(bytesStream.getCheckpoint())
+                    .addAll(lengthStream.getCheckpoint())
+                    .build());
+            for (int row = rowGroupOffsets.get(rowGroup); row < rowGroupOffsets.get(rowGroup + 1); row++) {
+                int id = ids[row];
+                presentStream.writeBoolean(id != NULL_ID);
+                if (id != NULL_ID) {
+                    Slice value = dictionaryValues.get(id);
+                    bytesStream.writeBytes(value);
+                    lengthStream.writeLong(value.length());
+                }
+            }
+        }
+        presentStream.close();
+        bytesStream.close();
+        lengthStream.close();
+
+        columnEncoding = new ColumnEncoding(DIRECT, 0);
+        rowGroupIndexes = createRowGroupIndexes(rowGroupStatistics, presentCheckpoints, dataCheckpoints, hasNulls);
+
+        ImmutableList.Builder<StreamDataOutput> streams = ImmutableList.builder();
+        if (hasNulls) {
+            streams.add(new StreamDataOutput(PRESENT, presentStream.getOutput()));
+        }
+        streams.add(new StreamDataOutput(DATA, bytesStream.getOutput()));
+        streams.add(new StreamDataOutput(LENGTH, lengthStream.getOutput()));
+        dataStreams = streams.build();
+    }
+
+    @Override
+    public ColumnEncoding getColumnEncoding()
+    {
+        checkState(closed, "writer is not closed");
+        return columnEncoding;
+    }
+
+    @Override
+    public List<RowGroupIndex> getRowGroupIndexes()
+    {
+        checkState(closed, "writer is not closed");
+        return rowGroupIndexes;
+    }
+
+    @Override
+    public ColumnStatistics getStripeStatistics()
+    {
+        checkState(closed, "writer is not closed");
+        return mergeColumnStatistics(rowGroupStatistics);
+    }
+
+    @Override
+    public List<StreamDataOutput> getDataStreams()
+    {
+        checkState(closed, "writer is not closed");
+        return dataStreams;
+    }
+
+    @Override
+    public long getBufferedBytes()
+    {
+        return dictionaryBytes + rowCount * 4L;
+    }
+
+    @Override
+    public void reset()
+    {
+        closed = false;
+        presentStream.reset();
+        dataStream.reset();
+        lengthStream.reset();
+        bytesStream.reset();
+
+        dictionary.clear();
+        dictionaryValues.clear();
+        dictionaryBytes = 0;
+        rowCount = 0;
+        nonNullValueCount = 0;
+        hasNulls = false;
+
+        rowGroupOffsets.clear();
+        rowGroupOffsets.add(0);
+        rowGroupStatistics.clear();
+        rowGroupNonNullValueCount = 0;
+        minimum = null;
+        maximum = null;
+
+        columnEncoding = null;
+        rowGroupIndexes = null;
+        dataStreams = null;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.writer;
+
+import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import io.airlift.slice.Slice;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class StreamDataOutput
+{
+    private final StreamKind streamKind;
+    private final Slice data;
+
+    public StreamDataOutput(StreamKind streamKind, Slice data)
+    {
+        this.streamKind = checkNotNull(streamKind, "streamKind is null");
+        this.data = checkNotNull(data, "data is null");
+    }
+
+    public StreamKind getStreamKind()
+    {
+        return streamKind;
+    }
+
+    public Slice getData()
+    {
+        return data;
+    }
+
+    public int getLength()
+    {
+        return data.length();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("streamKind", streamKind)
+                .add("length", data.length())
+                .toString();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.metadata.OrcMetadataReader;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import io.airlift.units.DataSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.orc.OrcTester.Compression.NONE;
+import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.OrcTester.writeOrcColumn;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaStringObjectInspector;
+
+/**
+ * Decodes a bigint column, which ORC 0.12 writes with {@link com.facebook.presto.orc.stream.LongStreamV2},
+ * and a low cardinality varchar column, which is read by {@link com.facebook.presto.orc.reader.SliceDictionaryStreamReader}.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(3)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkOrcReader
+{
+    @Benchmark
+    public long readBigint(BenchmarkData data)
+            throws IOException
+    {
+        OrcRecordReader recordReader = createRecordReader(data.getBigintFile());
+        LongVector vector = new LongVector();
+        long sum = 0;
+        for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+            recordReader.readVector(0, vector);
+            for (int i = 0; i < batchSize; i++) {
+                sum += vector.vector[i];
+            }
+        }
+        recordReader.close();
+        return sum;
+    }
+
+    @Benchmark
+    public long readDictionaryVarchar(BenchmarkData data)
+            throws IOException
+    {
+        OrcRecordReader recordReader = createRecordReader(data.getVarcharFile());
+        SliceVector vector = new SliceVector();
+        long length = 0;
+        for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+            recordReader.readVector(0, vector);
+            for (int i = 0; i < batchSize; i++) {
+                length += vector.vector[i].length();
+            }
+        }
+        recordReader.close();
+        return length;
+    }
+
+    private static OrcRecordReader createRecordReader(File file)
+            throws IOException
+    {
+        OrcDataSource dataSource = new FileOrcDataSource(file, new DataSize(1, MEGABYTE));
+        OrcReader orcReader = new OrcReader(dataSource, new OrcMetadataReader());
+        return orcReader.createRecordReader(ImmutableSet.of(0), OrcPredicate.TRUE, 0, file.length(), HIVE_STORAGE_TIME_ZONE);
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({ "10000", "1000000" })
+        private int rowCount;
+
+        @Param({ "10", "1000", "100000" })
+        private int distinctValues;
+
+        private File temporaryDirectory;
+        private File bigintFile;
+        private File varcharFile;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            temporaryDirectory = Files.createTempDir();
+            bigintFile = new File(temporaryDirectory, "bigint");
+            varcharFile = new File(temporaryDirectory, "varchar");
+
+            Random random = new Random(0);
+            List<Long> longValues = new ArrayList<>(rowCount);
+            List<String> stringValues = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                int value = random.nextInt(distinctValues);
+                longValues.add((long) value);
+                stringValues.add("value" + value);
+            }
+
+            writeOrcColumn(bigintFile, ORC_12, NONE, javaLongObjectInspector, longValues.iterator());
+            writeOrcColumn(varcharFile, ORC_12, NONE, javaStringObjectInspector, stringValues.iterator());
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            deleteRecursively(temporaryDirectory);
+        }
+
+        public File getBigintFile()
+        {
+            return bigintFile;
+        }
+
+        public File getVarcharFile()
+        {
+            return varcharFile;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkOrcReader.class.getSimpleName() + ".*")
+                .resultFormat(ResultFormatType.JSON)
+                .result(BenchmarkOrcReader.class.getSimpleName() + ".json")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.TupleDomainOrcPredicate.ColumnReference;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.OrcMetadataReader;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
+import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcWriter
+{
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("bigint", "double", "boolean", "low_cardinality", "high_cardinality");
+    private static final List<Type> TYPES = ImmutableList.<Type>of(BIGINT, DOUBLE, BOOLEAN, VARCHAR, VARCHAR);
+    private static final int ROW_COUNT = 25_000;
+    private static final int ROW_GROUP_ROW_COUNT = 1_000;
+    private static final int STRIPE_ROW_COUNT = 12_000;
+
+    @DataProvider(name = "compression")
+    public Object[][] compression()
+    {
+        return new Object[][] {{UNCOMPRESSED}, {ZLIB}, {SNAPPY}};
+    }
+
+    @Test(dataProvider = "compression")
+    public void testRoundTrip(CompressionKind compression)
+            throws Exception
+    {
+        File file = File.createTempFile("test", ".orc");
+        try {
+            writeFile(file, compression);
+
+            OrcRecordReader recordReader = createRecordReader(file, OrcPredicate.TRUE);
+            assertEquals(recordReader.getTotalRowCount(), ROW_COUNT);
+
+            LongVector longVector = new LongVector();
+            DoubleVector doubleVector = new DoubleVector();
+            BooleanVector booleanVector = new BooleanVector();
+            SliceVector lowCardinalityVector = new SliceVector();
+            SliceVector highCardinalityVector = new SliceVector();
+
+            int row = 0;
+            for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+                // every stripe picks dictionary encoding for the repeated values only
+                assertTrue(recordReader.isDictionaryEncoded(3));
+                assertFalse(recordReader.isDictionaryEncoded(4));
+
+                recordReader.readVector(0, longVector);
+                recordReader.readVector(1, doubleVector);
+                recordReader.readVector(2, booleanVector);
+                recordReader.readVector(3, lowCardinalityVector);
+                recordReader.readVector(4, highCardinalityVector);
+                for (int i = 0; i < batchSize; i++) {
+                    assertEquals(longVector.isNull[i], isNull(row));
+                    if (!isNull(row)) {
+                        assertEquals(longVector.vector[i], (long) row);
+                    }
+                    assertEquals(doubleVector.vector[i], row * 0.5);
+                    assertEquals(booleanVector.vector[i], row % 3 == 0);
+                    assertEquals(lowCardinalityVector.vector[i], isNull(row) ? null : lowCardinalityValue(row));
+                    assertEquals(highCardinalityVector.vector[i], highCardinalityValue(row));
+                    row++;
+                }
+            }
+            assertEquals(row, ROW_COUNT);
+            recordReader.close();
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testReadAhead()
+            throws Exception
+    {
+        File file = File.createTempFile("test", ".orc");
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            writeFile(file, ZLIB);
+
+            OrcRecordReader recordReader = createRecordReader(file, OrcPredicate.TRUE, Optional.<Executor>of(executor), new DataSize(1, MEGABYTE));
+            LongVector longVector = new LongVector();
+            int row = 0;
+            for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+                recordReader.readVector(0, longVector);
+                for (int i = 0; i < batchSize; i++) {
+                    if (!isNull(row)) {
+                        assertEquals(longVector.vector[i], (long) row);
+                    }
+                    row++;
+                }
+                recordReader.isBlocked().get();
+            }
+            assertEquals(row, ROW_COUNT);
+            recordReader.close();
+
+            // the second and third stripe are read ahead, and all of it is used
+            assertTrue(recordReader.getPrefetchedBytes() > 0);
+            assertEquals(recordReader.getWastedPrefetchBytes(), 0);
+        }
+        finally {
+            executor.shutdownNow();
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testReadAheadDiscardedOnClose()
+            throws Exception
+    {
+        File file = File.createTempFile("test", ".orc");
+        try {
+            writeFile(file, ZLIB);
+
+            OrcRecordReader recordReader = createRecordReader(file, OrcPredicate.TRUE, Optional.<Executor>of(sameThreadExecutor()), new DataSize(1, MEGABYTE));
+            assertTrue(recordReader.nextBatch() > 0);
+            recordReader.close();
+
+            assertTrue(recordReader.getPrefetchedBytes() > 0);
+            assertEquals(recordReader.getWastedPrefetchBytes(), recordReader.getPrefetchedBytes());
+
+            // stripes larger than the limit are read when they are needed
+            recordReader = createRecordReader(file, OrcPredicate.TRUE, Optional.<Executor>of(sameThreadExecutor()), new DataSize(1, KILOBYTE));
+            assertTrue(recordReader.nextBatch() > 0);
+            recordReader.close();
+            assertEquals(recordReader.getPrefetchedBytes(), 0);
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testRowGroupStatistics()
+            throws Exception
+    {
+        File file = File.createTempFile("test", ".orc");
+        try {
+            writeFile(file, SNAPPY);
+
+            // only the row group containing the value can match
+            long value = 13_500;
+            TupleDomainOrcPredicate<String> predicate = new TupleDomainOrcPredicate<>(
+                    TupleDomain.withColumnDomains(ImmutableMap.of("bigint", Domain.singleValue(value))),
+                    ImmutableList.of(new ColumnReference<>("bigint", 0, BIGINT)));
+            OrcRecordReader recordReader = createRecordReader(file, predicate);
+
+            LongVector longVector = new LongVector();
+            int rows = 0;
+            boolean found = false;
+            for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+                recordReader.readVector(0, longVector);
+                for (int i = 0; i < batchSize; i++) {
+                    found |= !longVector.isNull[i] && longVector.vector[i] == value;
+                }
+                rows += batchSize;
+            }
+            assertTrue(found);
+            assertEquals(rows, ROW_GROUP_ROW_COUNT);
+            recordReader.close();
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testRowGroupBloomFilters()
+            throws Exception
+    {
+        File file = File.createTempFile("test", ".orc");
+        try {
+            writeFile(file, SNAPPY, ImmutableSet.of(4));
+
+            // the value is within the string range of most row groups, so only the bloom filters can skip them
+            Slice value = highCardinalityValue(13_500);
+            TupleDomainOrcPredicate<String> predicate = new TupleDomainOrcPredicate<>(
+                    TupleDomain.withColumnDomains(ImmutableMap.of("high_cardinality", Domain.singleValue(value))),
+                    ImmutableList.of(new ColumnReference<>("high_cardinality", 4, VARCHAR)));
+            OrcRecordReader recordReader = createRecordReader(file, predicate);
+
+            SliceVector sliceVector = new SliceVector();
+            int rows = 0;
+            boolean found = false;
+            for (int batchSize = recordReader.nextBatch(); batchSize >= 0; batchSize = recordReader.nextBatch()) {
+                recordReader.readVector(4, sliceVector);
+                for (int i = 0; i < batchSize; i++) {
+                    found |= value.equals(sliceVector.vector[i]);
+                }
+                rows += batchSize;
+            }
+            assertTrue(found);
+            // allow for a few false positives
+            assertTrue(rows <= 3 * ROW_GROUP_ROW_COUNT, "read " + rows + " rows");
+            recordReader.close();
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    private static void writeFile(File file, CompressionKind compression)
+            throws IOException
+    {
+        writeFile(file, compression, ImmutableSet.<Integer>of());
+    }
+
+    private static void writeFile(File file, CompressionKind compression, Set<Integer> bloomFilterColumns)
+            throws IOException
+    {
+        List<Page> pages = new ArrayList<>();
+        PageBuilder pageBuilder = new PageBuilder(TYPES);
+        for (int row = 0; row < ROW_COUNT; row++) {
+            if (isNull(row)) {
+                pageBuilder.getBlockBuilder(0).appendNull();
+            }
+            else {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), row);
+            }
+            DOUBLE.writeDouble(pageBuilder.getBlockBuilder(1), row * 0.5);
+            BOOLEAN.writeBoolean(pageBuilder.getBlockBuilder(2), row % 3 == 0);
+            if (isNull(row)) {
+                pageBuilder.getBlockBuilder(3).appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(3), lowCardinalityValue(row));
+            }
+            VARCHAR.writeSlice(pageBuilder.getBlockBuilder(4), highCardinalityValue(row));
+            pageBuilder.declarePosition();
+
+            // pages do not line up with row groups
+            if (pageBuilder.getPositionCount() == 777) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+
+        try (OrcWriter writer = new OrcWriter(
+                new FileOutputStream(file),
+                COLUMN_NAMES,
+                TYPES,
+                compression,
+                new DataSize(64, MEGABYTE),
+                STRIPE_ROW_COUNT,
+                ROW_GROUP_ROW_COUNT,
+                new DataSize(16, KILOBYTE),
+                bloomFilterColumns,
+                0.01)) {
+            for (Page page : pages) {
+                writer.write(page);
+            }
+        }
+    }
+
+    private static OrcRecordReader createRecordReader(File file, OrcPredicate predicate)
+            throws IOException
+    {
+        return createRecordReader(file, predicate, Optional.<Executor>absent(), new DataSize(0, BYTE));
+    }
+
+    private static OrcRecordReader createRecordReader(File file, OrcPredicate predicate, Optional<Executor> readAheadExecutor, DataSize maxReadAheadSize)
+            throws IOException
+    {
+        OrcDataSource dataSource = new FileOrcDataSource(file, new DataSize(1, MEGABYTE));
+        OrcReader orcReader = new OrcReader(dataSource, new OrcMetadataReader());
+        assertEquals(orcReader.getColumnNames(), COLUMN_NAMES);
+        return orcReader.createRecordReader(ImmutableSet.of(0, 1, 2, 3, 4), predicate, 0, file.length(), HIVE_STORAGE_TIME_ZONE, readAheadExecutor, maxReadAheadSize);
+    }
+
+    private static boolean isNull(int row)
+    {
+        return row % 11 == 0;
+    }
+
+    private static Slice lowCardinalityValue(int row)
+    {
+        return utf8Slice("value" + (row % 17));
+    }
+
+    private static Slice highCardinalityValue(int row)
+    {
+        return utf8Slice("value" + row);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.metadata;
+
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestBloomFilter
+{
+    @Test
+    public void testAddedValuesAreContained()
+    {
+        BloomFilter bloomFilter = BloomFilter.create(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            bloomFilter.addLong(i * 7L);
+            bloomFilter.addDouble(i * 0.25);
+            bloomFilter.addSlice(utf8Slice("value" + i));
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(bloomFilter.mightContainLong(i * 7L));
+            assertTrue(bloomFilter.mightContainDouble(i * 0.25));
+            assertTrue(bloomFilter.mightContainSlice(utf8Slice("value" + i)));
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRate()
+    {
+        BloomFilter longBloomFilter = BloomFilter.create(10_000, 0.05);
+        BloomFilter sliceBloomFilter = BloomFilter.create(10_000, 0.05);
+        for (int i = 0; i < 10_000; i++) {
+            longBloomFilter.addLong(i);
+            sliceBloomFilter.addSlice(utf8Slice("value" + i));
+        }
+
+        int longFalsePositives = 0;
+        int sliceFalsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (longBloomFilter.mightContainLong(i)) {
+                longFalsePositives++;
+            }
+            if (sliceBloomFilter.mightContainSlice(utf8Slice("value" + i))) {
+                sliceFalsePositives++;
+            }
+        }
+        assertTrue(longFalsePositives < 1_000, "long false positives: " + longFalsePositives);
+        assertTrue(sliceFalsePositives < 1_000, "slice false positives: " + sliceFalsePositives);
+    }
+
+    @Test
+    public void testEmptyFilterContainsNothing()
+    {
+        BloomFilter bloomFilter = BloomFilter.create(100, 0.05);
+        assertFalse(bloomFilter.mightContainLong(0));
+        assertFalse(bloomFilter.mightContainDouble(1.5));
+        assertFalse(bloomFilter.mightContainSlice(utf8Slice("")));
+    }
+
+    @Test
+    public void testSliceHashIgnoresOffset()
+    {
+        Slice value = utf8Slice("prefix-value");
+        BloomFilter bloomFilter = BloomFilter.create(100, 0.05);
+        bloomFilter.addSlice(value.slice(7, 5));
+        assertTrue(bloomFilter.mightContainSlice(utf8Slice("value")));
+
+        BloomFilter copy = new BloomFilter(bloomFilter.getNumHashFunctions(), bloomFilter.getBitset().clone());
+        assertTrue(copy.mightContainSlice(utf8Slice("value")));
+        assertEquals(copy.getBitset(), bloomFilter.getBitset());
+    }
+}
@@ -22,16 +22,19 @@ import com.facebook.presto.raptor.metadata.Table;
 import com.facebook.presto.raptor.metadata.TableColumn;
 import com.facebook.presto.raptor.metadata.ViewResult;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ColumnStatistics;
 import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
+import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.ViewNotFoundException;
 import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
@@ -193,6 +196,19 @@ public class RaptorMetadata
         return tableColumn.toColumnMetadata();
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorTableHandle tableHandle, List<ConnectorPartition> partitionsOrNull)
+    {
+        long tableId = checkType(tableHandle, RaptorTableHandle.class, "tableHandle").getTableId();
+
+        // shards only record their row count, so there are no column statistics
+        Optional<Long> rowCount = shardManager.getTableRowCount(tableId);
+        if (!rowCount.isPresent()) {
+            return TableStatistics.unknown();
+        }
+        return new TableStatistics(rowCount.get(), ImmutableMap.<ConnectorColumnHandle, ColumnStatistics>of());
+    }
+
     @Override
     public Map<SchemaTableName, List<ColumnMetadata>> listTableColumns(ConnectorSession session, SchemaTablePrefix prefix)
     {
@@ -335,7 +351,7 @@ public class RaptorMetadata
             }
         });
 
-        shardManager.commitTable(tableId, parseFragments(fragments), Optional.<String>absent());
+        shardManager.commitTable(tableId, parseFragments(fragments), parseShardRowCounts(fragments), Optional.<String>absent());
     }
 
     @Override
@@ -362,7 +378,7 @@ public class RaptorMetadata
         long tableId = handle.getTableId();
         Optional<String> externalBatchId = Optional.fromNullable(handle.getExternalBatchId());
 
-        shardManager.commitTable(tableId, parseFragments(fragments), externalBatchId);
+        shardManager.commitTable(tableId, parseFragments(fragments), parseShardRowCounts(fragments), externalBatchId);
     }
 
     @Override
@@ -444,6 +460,19 @@ public class RaptorMetadata
         return shards.build();
     }
 
+    private static Map<UUID, Long> parseShardRowCounts(Collection<String> fragments)
+    {
+        ImmutableMap.Builder<UUID, Long> rowCounts = ImmutableMap.builder();
+        for (String fragment : fragments) {
+            List<String> split = Splitter.on(':').splitToList(fragment);
+            // fragments written by older workers do not have a row count
+            if (split.size() > 2) {
+                rowCounts.put(UUID.fromString(split.get(1)), Long.parseLong(split.get(2)));
+            }
+        }
+        return rowCounts.build();
+    }
+
     private static Predicate<ColumnMetadata> isSampleWeightColumn()
     {
         return new Predicate<ColumnMetadata>()
@@ -18,6 +18,7 @@ import com.facebook.presto.spi.ConnectorColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
@@ -42,6 +43,12 @@ public class RaptorPageSourceProvider
 
     @Override
     public ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns)
+    {
+        return createPageSource(split, columns, TupleDomain.<ConnectorColumnHandle>all());
+    }
+
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns, TupleDomain<ConnectorColumnHandle> dynamicFilter)
     {
         RaptorSplit raptorSplit = checkType(split, RaptorSplit.class, "split");
 
@@ -50,7 +57,21 @@ public class RaptorPageSourceProvider
         List<Long> columnIds = FluentIterable.from(columnHandles).transform(raptorColumnId()).toList();
         List<Type> columnTypes = FluentIterable.from(columnHandles).transform(raptorColumnType()).toList();
 
-        return storageManager.getPageSource(shardUuid, columnIds, columnTypes, raptorSplit.getEffectivePredicate());
+        TupleDomain<RaptorColumnHandle> effectivePredicate = raptorSplit.getEffectivePredicate().intersect(dynamicFilter.transform(toRaptorColumnHandleFunction()));
+
+        return storageManager.getPageSource(shardUuid, columnIds, columnTypes, effectivePredicate);
+    }
+
+    private static TupleDomain.Function<ConnectorColumnHandle, RaptorColumnHandle> toRaptorColumnHandleFunction()
+    {
+        return new TupleDomain.Function<ConnectorColumnHandle, RaptorColumnHandle>()
+        {
+            @Override
+            public RaptorColumnHandle apply(ConnectorColumnHandle handle)
+            {
+                return checkType(handle, RaptorColumnHandle.class, "columnHandle");
+            }
+        };
     }
 
     private static Function<ConnectorColumnHandle, RaptorColumnHandle> toRaptorColumnHandle()
@@ -50,6 +50,7 @@ public class RaptorRecordSink
     private final List<Type> columnTypes;
     private final OutputHandle outputHandle;
     private final RowSink rowSink;
+    private long rowCount;
 
     public RaptorRecordSink(
             String nodeId,
@@ -75,6 +76,7 @@ public class RaptorRecordSink
     public void finishRecord()
     {
         rowSink.finishRecord();
+        rowCount++;
     }
 
     @Override
@@ -148,7 +150,7 @@ public class RaptorRecordSink
     {
         storageManager.commit(outputHandle);
 
-        return Joiner.on(':').join(nodeId, outputHandle.getShardUuid());
+        return Joiner.on(':').join(nodeId, outputHandle.getShardUuid(), rowCount);
     }
 
     private Type currentType()
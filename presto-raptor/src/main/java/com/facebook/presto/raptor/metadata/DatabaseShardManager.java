@@ -16,6 +16,7 @@ package com.facebook.presto.raptor.metadata;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.SetMultimap;
@@ -54,7 +55,13 @@ public class DatabaseShardManager
     }
 
     @Override
-    public void commitTable(final long tableId, final Iterable<ShardNode> shardNodes, final Optional<String> externalBatchId)
+    public void commitTable(long tableId, Iterable<ShardNode> shardNodes, Optional<String> externalBatchId)
+    {
+        commitTable(tableId, shardNodes, ImmutableMap.<UUID, Long>of(), externalBatchId);
+    }
+
+    @Override
+    public void commitTable(final long tableId, final Iterable<ShardNode> shardNodes, final Map<UUID, Long> shardRowCounts, final Optional<String> externalBatchId)
     {
         // attempt to fail up front with a proper exception
         if (externalBatchId.isPresent() && dao.externalBatchExists(externalBatchId.get())) {
@@ -79,6 +86,10 @@ public class DatabaseShardManager
                 for (ShardNode shardNode : shardNodes) {
                     long nodeId = nodeIds.get(shardNode.getNodeIdentifier());
                     long shardId = dao.insertShard(shardNode.getShardUuid());
+                    Long rowCount = shardRowCounts.get(shardNode.getShardUuid());
+                    if (rowCount != null) {
+                        dao.updateShardRowCount(shardId, rowCount);
+                    }
                     dao.insertShardNode(shardId, nodeId);
                     dao.insertTableShard(tableId, shardId);
                 }
@@ -109,6 +120,15 @@ public class DatabaseShardManager
         return list.build();
     }
 
+    @Override
+    public Optional<Long> getTableRowCount(long tableId)
+    {
+        if (dao.getShardCountWithoutRowCount(tableId) > 0) {
+            return Optional.absent();
+        }
+        return Optional.of(dao.getTableRowCount(tableId));
+    }
+
     @Override
     public void dropTableShards(long tableId)
     {
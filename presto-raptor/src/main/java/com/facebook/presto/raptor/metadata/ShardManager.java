@@ -15,6 +15,7 @@ package com.facebook.presto.raptor.metadata;
 
 import com.google.common.base.Optional;
 
+import java.util.Map;
 import java.util.UUID;
 
 public interface ShardManager
@@ -24,11 +25,21 @@ public interface ShardManager
      */
     void commitTable(long tableId, Iterable<ShardNode> shardNodes, Optional<String> externalBatchId);
 
+    /**
+     * Commit an unpartitioned table, recording the row counts of the shards that have one.
+     */
+    void commitTable(long tableId, Iterable<ShardNode> shardNodes, Map<UUID, Long> shardRowCounts, Optional<String> externalBatchId);
+
     /**
      * Return the shard nodes a given table.
      */
     Iterable<ShardNodes> getShardNodes(long tableId);
 
+    /**
+     * Return the number of rows in a given table, if every shard of the table has a recorded row count.
+     */
+    Optional<Long> getTableRowCount(long tableId);
+
     /**
      * Drop all shards in a given table.
      */
@@ -43,10 +43,14 @@ public interface ShardManagerDao
             "  shard_id BIGINT PRIMARY KEY AUTO_INCREMENT,\n" +
             "  shard_uuid BINARY(16) NOT NULL,\n" +
             "  create_time DATETIME NOT NULL,\n" +
+            "  row_count BIGINT,\n" +
             "  UNIQUE (shard_uuid)\n" +
             ")")
     void createTableShards();
 
+    @SqlUpdate("ALTER TABLE shards ADD COLUMN row_count BIGINT")
+    void alterTableShardsAddRowCount();
+
     @SqlUpdate("CREATE TABLE IF NOT EXISTS shard_nodes (\n" +
             "  shard_id BIGINT NOT NULL,\n" +
             "  node_id BIGINT NOT NULL,\n" +
@@ -79,6 +83,9 @@ public interface ShardManagerDao
     @GetGeneratedKeys
     long insertShard(@Bind("shardUuid") UUID shardUuid);
 
+    @SqlUpdate("UPDATE shards SET row_count = :rowCount WHERE shard_id = :shardId")
+    void updateShardRowCount(@Bind("shardId") long shardId, @Bind("rowCount") long rowCount);
+
     @SqlUpdate("INSERT INTO shard_nodes (shard_id, node_id)\n" +
             "VALUES (:shardId, :nodeId)\n")
     void insertShardNode(@Bind("shardId") long shardId, @Bind("nodeId") long nodeId);
@@ -109,6 +116,19 @@ public interface ShardManagerDao
     @Mapper(ShardNode.Mapper.class)
     List<ShardNode> getShardNodes(@Bind("tableId") long tableId);
 
+    @SqlQuery("SELECT count(*)\n" +
+            "FROM table_shards ts\n" +
+            "JOIN shards s ON (ts.shard_id = s.shard_id)\n" +
+            "WHERE ts.table_id = :tableId\n" +
+            "  AND s.row_count IS NULL")
+    long getShardCountWithoutRowCount(@Bind("tableId") long tableId);
+
+    @SqlQuery("SELECT COALESCE(SUM(s.row_count), 0)\n" +
+            "FROM table_shards ts\n" +
+            "JOIN shards s ON (ts.shard_id = s.shard_id)\n" +
+            "WHERE ts.table_id = :tableId")
+    long getTableRowCount(@Bind("tableId") long tableId);
+
     @VisibleForTesting
     @SqlQuery("SELECT node_identifier FROM nodes")
     Set<String> getAllNodesInUse();
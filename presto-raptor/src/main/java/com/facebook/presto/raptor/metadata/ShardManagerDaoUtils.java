@@ -16,14 +16,19 @@ package com.facebook.presto.raptor.metadata;
 import com.google.common.base.Throwables;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
+import org.skife.jdbi.v2.exceptions.UnableToExecuteStatementException;
 import org.skife.jdbi.v2.exceptions.UnableToObtainConnectionException;
 
+import java.sql.SQLException;
 import java.util.concurrent.TimeUnit;
 
 public final class ShardManagerDaoUtils
 {
     public static final Logger log = Logger.get(ShardManagerDaoUtils.class);
 
+    // SQL state for a column that already exists, used by both MySQL and H2
+    private static final String DUPLICATE_COLUMN_SQL_STATE = "42S21";
+
     private ShardManagerDaoUtils() {}
 
     public static void createShardTablesWithRetry(ShardManagerDao dao)
@@ -45,11 +50,27 @@ public final class ShardManagerDaoUtils
     {
         dao.createTableNodes();
         dao.createTableShards();
+        addShardsRowCountColumn(dao);
         dao.createTableShardNodes();
         dao.createTableTableShards();
         dao.createTableExternalBatches();
     }
 
+    /**
+     * Adds the row count column to a shards table created by an older version.
+     */
+    private static void addShardsRowCountColumn(ShardManagerDao dao)
+    {
+        try {
+            dao.alterTableShardsAddRowCount();
+        }
+        catch (UnableToExecuteStatementException e) {
+            if (!(e.getCause() instanceof SQLException) || !DUPLICATE_COLUMN_SQL_STATE.equals(((SQLException) e.getCause()).getSQLState())) {
+                throw e;
+            }
+        }
+    }
+
     private static void sleep(Duration duration)
     {
         try {
@@ -13,67 +13,68 @@
  */
 package com.facebook.presto.raptor.storage;
 
+import com.facebook.presto.orc.OrcWriter;
+import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.PrestoException;
-import com.facebook.presto.spi.classloader.ThreadContextClassLoader;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.Type;
 import com.google.common.base.Function;
-import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
-import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
-import org.apache.hadoop.conf.Configuration;
-import org.apache.hadoop.fs.FileSystem;
-import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.hive.ql.exec.FileSinkOperator.RecordWriter;
-import org.apache.hadoop.hive.ql.io.orc.OrcFile;
-import org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat;
-import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
-import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
-import org.apache.hadoop.hive.serde2.objectinspector.SettableStructObjectInspector;
-import org.apache.hadoop.hive.serde2.objectinspector.StructField;
-import org.apache.hadoop.mapred.JobConf;
+import com.google.common.collect.ImmutableSet;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Properties;
-
+import java.util.Set;
+
+import static com.facebook.presto.orc.OrcWriter.DEFAULT_BLOOM_FILTER_FPP;
+import static com.facebook.presto.orc.OrcWriter.DEFAULT_COMPRESSION_BLOCK_SIZE;
+import static com.facebook.presto.orc.OrcWriter.DEFAULT_ROW_GROUP_MAX_ROW_COUNT;
+import static com.facebook.presto.orc.OrcWriter.DEFAULT_STRIPE_MAX_ROW_COUNT;
+import static com.facebook.presto.orc.OrcWriter.DEFAULT_STRIPE_MAX_SIZE;
+import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
 import static com.facebook.presto.raptor.RaptorErrorCode.RAPTOR_ERROR;
 import static com.facebook.presto.spi.StandardErrorCode.INTERNAL_ERROR;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.base.Functions.toStringFunction;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.FluentIterable.from;
 import static com.google.common.collect.Iterables.transform;
-import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMNS;
-import static org.apache.hadoop.hive.metastore.api.hive_metastoreConstants.META_TABLE_COLUMN_TYPES;
-import static org.apache.hadoop.hive.ql.io.orc.CompressionKind.SNAPPY;
-import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory.getStandardStructObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaBooleanObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaByteArrayObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaDoubleObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
-import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaStringObjectInspector;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
 
+/**
+ * Collects records into pages, which are written with the native {@link OrcWriter}.
+ */
 public class OrcRowSink
         implements RowSink
 {
-    private static final JobConf JOB_CONF = createJobConf();
-    private static final Constructor<? extends RecordWriter> WRITER_CONSTRUCTOR = getOrcWriterConstructor();
-
     private final int fieldCount;
-    private final OrcSerde serializer;
-    private final RecordWriter recordWriter;
-    private final SettableStructObjectInspector tableInspector;
-    private final List<StructField> structFields;
-    private final Object row;
+    private final PageBuilder pageBuilder;
+    private final OrcWriter writer;
     private final int sampleWeightField;
 
     private int field = -1;
 
     public OrcRowSink(List<Long> columnIds, List<StorageType> columnTypes, Optional<Long> sampleWeightColumnId, File target)
+    {
+        this(columnIds, columnTypes, sampleWeightColumnId, target, false);
+    }
+
+    /**
+     * @param bloomFilters write row group bloom filters for the long and string columns,
+     * which are the columns that are typically looked up by id
+     */
+    public OrcRowSink(List<Long> columnIds, List<StorageType> columnTypes, Optional<Long> sampleWeightColumnId, File target, boolean bloomFilters)
     {
         checkArgument(columnIds.size() == columnTypes.size(), "ids and types mismatch");
         checkArgument(isUnique(columnIds), "ids must be unique");
@@ -81,19 +82,11 @@ public class OrcRowSink
         fieldCount = columnIds.size();
         sampleWeightField = columnIds.indexOf(sampleWeightColumnId.or(-1L));
 
-        Iterable<String> hiveTypeNames = ImmutableList.copyOf(transform(columnTypes, hiveTypeName()));
         List<String> columnNames = ImmutableList.copyOf(transform(columnIds, toStringFunction()));
+        List<Type> types = getTypes(columnTypes);
 
-        Properties properties = new Properties();
-        properties.setProperty(META_TABLE_COLUMNS, Joiner.on(',').join(columnNames));
-        properties.setProperty(META_TABLE_COLUMN_TYPES, Joiner.on(':').join(hiveTypeNames));
-
-        serializer = createSerializer(JOB_CONF, properties);
-        recordWriter = createRecordWriter(new Path(target.toURI()), JOB_CONF);
-
-        tableInspector = getStandardStructObjectInspector(columnNames, getJavaObjectInspectors(columnTypes));
-        structFields = ImmutableList.copyOf(tableInspector.getAllStructFieldRefs());
-        row = tableInspector.create();
+        pageBuilder = new PageBuilder(types);
+        writer = createWriter(target, columnNames, types, bloomFilters ? getBloomFilterColumns(columnTypes, sampleWeightField) : ImmutableSet.<Integer>of());
     }
 
     @Override
@@ -101,7 +94,7 @@ public class OrcRowSink
     {
         checkState(field == -1, "already in record");
         if (sampleWeightField >= 0) {
-            tableInspector.setStructFieldData(row, structFields.get(sampleWeightField), sampleWeight);
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(sampleWeightField), sampleWeight);
         }
         field = (sampleWeightField == 0) ? 1 : 0;
     }
@@ -113,11 +106,9 @@ public class OrcRowSink
         checkState(field == fieldCount, "not all fields set");
         field = -1;
 
-        try {
-            recordWriter.write(serializer.serialize(row, tableInspector));
-        }
-        catch (IOException e) {
-            throw new PrestoException(RAPTOR_ERROR, "Failed to write record", e);
+        pageBuilder.declarePosition();
+        if (pageBuilder.isFull()) {
+            flushPage();
         }
     }
 
@@ -131,37 +122,37 @@ public class OrcRowSink
     @Override
     public void appendNull()
     {
-        append(null);
+        nextBlockBuilder().appendNull();
     }
 
     @Override
     public void appendBoolean(boolean value)
     {
-        append(value);
+        BOOLEAN.writeBoolean(nextBlockBuilder(), value);
     }
 
     @Override
     public void appendLong(long value)
     {
-        append(value);
+        BIGINT.writeLong(nextBlockBuilder(), value);
     }
 
     @Override
     public void appendDouble(double value)
     {
-        append(value);
+        DOUBLE.writeDouble(nextBlockBuilder(), value);
     }
 
     @Override
     public void appendString(String value)
     {
-        append(value);
+        VARCHAR.writeSlice(nextBlockBuilder(), utf8Slice(value));
     }
 
     @Override
     public void appendBytes(byte[] value)
     {
-        append(value);
+        VARBINARY.writeSlice(nextBlockBuilder(), wrappedBuffer(value));
     }
 
     @Override
@@ -170,112 +161,104 @@ public class OrcRowSink
         checkState(field == -1, "record not finished");
 
         try {
-            recordWriter.close(false);
+            flushPage();
+            writer.close();
         }
         catch (IOException e) {
             throw new PrestoException(RAPTOR_ERROR, "Failed to close writer", e);
         }
     }
 
-    private void append(Object value)
+    private BlockBuilder nextBlockBuilder()
     {
         checkState(field != -1, "not in record");
         checkState(field < fieldCount, "all fields already set");
 
-        tableInspector.setStructFieldData(row, structFields.get(field), value);
+        BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(field);
         field++;
         if (field == sampleWeightField) {
             field++;
         }
+        return blockBuilder;
     }
 
-    private static OrcSerde createSerializer(Configuration conf, Properties properties)
-    {
-        OrcSerde serde = new OrcSerde();
-        serde.initialize(conf, properties);
-        return serde;
-    }
-
-    private static RecordWriter createRecordWriter(Path target, JobConf conf)
+    private void flushPage()
     {
-        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(FileSystem.class.getClassLoader())) {
-            FileSystem fileSystem = target.getFileSystem(conf);
-            fileSystem.setWriteChecksum(false);
-            OrcFile.WriterOptions options = OrcFile.writerOptions(conf)
-                    .fileSystem(fileSystem)
-                    .compress(SNAPPY);
-            return WRITER_CONSTRUCTOR.newInstance(target, options);
+        if (pageBuilder.isEmpty()) {
+            return;
         }
-        catch (ReflectiveOperationException | IOException e) {
-            throw new PrestoException(RAPTOR_ERROR, "Failed to create writer", e);
+        try {
+            writer.write(pageBuilder.build());
         }
+        catch (IOException e) {
+            throw new PrestoException(RAPTOR_ERROR, "Failed to write records", e);
+        }
+        pageBuilder.reset();
     }
 
-    private static Constructor<? extends RecordWriter> getOrcWriterConstructor()
+    private static OrcWriter createWriter(File target, List<String> columnNames, List<Type> types, Set<Integer> bloomFilterColumns)
     {
         try {
-            String writerClassName = OrcOutputFormat.class.getName() + "$OrcRecordWriter";
-            Constructor<? extends RecordWriter> constructor = OrcOutputFormat.class.getClassLoader()
-                    .loadClass(writerClassName).asSubclass(RecordWriter.class)
-                    .getDeclaredConstructor(Path.class, OrcFile.WriterOptions.class);
-            constructor.setAccessible(true);
-            return constructor;
+            return new OrcWriter(
+                    new FileOutputStream(target),
+                    columnNames,
+                    types,
+                    SNAPPY,
+                    DEFAULT_STRIPE_MAX_SIZE,
+                    DEFAULT_STRIPE_MAX_ROW_COUNT,
+                    DEFAULT_ROW_GROUP_MAX_ROW_COUNT,
+                    DEFAULT_COMPRESSION_BLOCK_SIZE,
+                    bloomFilterColumns,
+                    DEFAULT_BLOOM_FILTER_FPP);
         }
-        catch (ReflectiveOperationException e) {
-            throw Throwables.propagate(e);
+        catch (IOException e) {
+            throw new PrestoException(RAPTOR_ERROR, "Failed to create writer", e);
         }
     }
 
-    private static JobConf createJobConf()
+    private static Set<Integer> getBloomFilterColumns(List<StorageType> types, int sampleWeightField)
     {
-        JobConf jobConf = new JobConf();
-        jobConf.setClassLoader(JobConf.class.getClassLoader());
-        return new JobConf();
+        ImmutableSet.Builder<Integer> columns = ImmutableSet.builder();
+        for (int field = 0; field < types.size(); field++) {
+            StorageType type = types.get(field);
+            if (field != sampleWeightField && (type == StorageType.LONG || type == StorageType.STRING)) {
+                columns.add(field);
+            }
+        }
+        return columns.build();
     }
 
-    private static List<ObjectInspector> getJavaObjectInspectors(List<StorageType> types)
+    private static List<Type> getTypes(List<StorageType> types)
     {
         return from(types)
-                .transform(new Function<StorageType, ObjectInspector>()
+                .transform(new Function<StorageType, Type>()
                 {
                     @Override
-                    public ObjectInspector apply(StorageType type)
+                    public Type apply(StorageType type)
                     {
-                        return getJavaObjectInspector(type);
+                        return getType(type);
                     }
                 })
                 .toList();
     }
 
-    private static ObjectInspector getJavaObjectInspector(StorageType type)
+    private static Type getType(StorageType type)
     {
         switch (type) {
             case BOOLEAN:
-                return javaBooleanObjectInspector;
+                return BOOLEAN;
             case LONG:
-                return javaLongObjectInspector;
+                return BIGINT;
             case DOUBLE:
-                return javaDoubleObjectInspector;
+                return DOUBLE;
             case STRING:
-                return javaStringObjectInspector;
+                return VARCHAR;
             case BYTES:
-                return javaByteArrayObjectInspector;
+                return VARBINARY;
         }
         throw new PrestoException(INTERNAL_ERROR, "Unhandled storage type: " + type);
     }
 
-    private static Function<StorageType, String> hiveTypeName()
-    {
-        return new Function<StorageType, String>()
-        {
-            @Override
-            public String apply(StorageType type)
-            {
-                return type.getHiveTypeName();
-            }
-        };
-    }
-
     private static <T> boolean isUnique(Collection<T> items)
     {
         return new HashSet<>(items).size() == items.size();
@@ -73,20 +73,27 @@ public class OrcStorageManager
     private final File baseStagingDir;
     private final Optional<File> baseBackupDir;
     private final DataSize orcMaxMergeDistance;
+    private final boolean orcBloomFiltersEnabled;
 
     @Inject
     public OrcStorageManager(StorageManagerConfig config)
     {
-        this(config.getDataDirectory(), Optional.fromNullable(config.getBackupDirectory()), config.getOrcMaxMergeDistance());
+        this(config.getDataDirectory(), Optional.fromNullable(config.getBackupDirectory()), config.getOrcMaxMergeDistance(), config.isOrcBloomFiltersEnabled());
     }
 
     public OrcStorageManager(File dataDirectory, Optional<File> backupDirectory, DataSize orcMaxMergeDistance)
+    {
+        this(dataDirectory, backupDirectory, orcMaxMergeDistance, true);
+    }
+
+    public OrcStorageManager(File dataDirectory, Optional<File> backupDirectory, DataSize orcMaxMergeDistance, boolean orcBloomFiltersEnabled)
     {
         File baseDataDir = checkNotNull(dataDirectory, "dataDirectory is null");
         this.baseStorageDir = new File(baseDataDir, "storage");
         this.baseStagingDir = new File(baseDataDir, "staging");
         this.baseBackupDir = checkNotNull(backupDirectory, "backupDirectory is null");
         this.orcMaxMergeDistance = checkNotNull(orcMaxMergeDistance, "orcMaxMergeDistance is null");
+        this.orcBloomFiltersEnabled = orcBloomFiltersEnabled;
     }
 
     @PostConstruct
@@ -163,7 +170,7 @@ public class OrcStorageManager
         File stagingFile = getStagingFile(shardUuid);
         createParents(stagingFile);
 
-        RowSink rowSink = new OrcRowSink(columnIds, storageTypes, sampleWeightColumnId, stagingFile);
+        RowSink rowSink = new OrcRowSink(columnIds, storageTypes, sampleWeightColumnId, stagingFile, orcBloomFiltersEnabled);
 
         return new OutputHandle(shardUuid, rowSink);
     }
@@ -30,6 +30,7 @@ public class StorageManagerConfig
     private File backupDirectory;
 
     private DataSize orcMaxMergeDistance = new DataSize(1, MEGABYTE);
+    private boolean orcBloomFiltersEnabled = true;
 
     @NotNull
     public File getDataDirectory()
@@ -71,4 +72,17 @@ public class StorageManagerConfig
         this.orcMaxMergeDistance = orcMaxMergeDistance;
         return this;
     }
+
+    public boolean isOrcBloomFiltersEnabled()
+    {
+        return orcBloomFiltersEnabled;
+    }
+
+    @Config("storage.orc.bloom-filters-enabled")
+    @ConfigDescription("Write row group bloom filters for bigint and varchar columns of new shards")
+    public StorageManagerConfig setOrcBloomFiltersEnabled(boolean orcBloomFiltersEnabled)
+    {
+        this.orcBloomFiltersEnabled = orcBloomFiltersEnabled;
+        return this;
+    }
 }
@@ -16,6 +16,7 @@ package com.facebook.presto.raptor.metadata;
 import com.facebook.presto.spi.PrestoException;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.io.Files;
@@ -102,6 +103,24 @@ public class TestDatabaseShardManager
         assertEquals(actual, new ShardNodes(shard, ImmutableSet.of("node1", "node2")));
     }
 
+    @Test
+    public void testTableRowCount()
+    {
+        long tableId = 1;
+        UUID shard1 = UUID.randomUUID();
+        UUID shard2 = UUID.randomUUID();
+        List<ShardNode> shards = ImmutableList.of(new ShardNode(shard1, "node1"), new ShardNode(shard2, "node2"));
+
+        assertEquals(shardManager.getTableRowCount(tableId), Optional.of(0L));
+
+        shardManager.commitTable(tableId, shards, ImmutableMap.of(shard1, 10L, shard2, 32L), Optional.<String>absent());
+        assertEquals(shardManager.getTableRowCount(tableId), Optional.of(42L));
+
+        // a shard without a row count makes the row count of the table unknown
+        shardManager.commitTable(tableId, ImmutableList.of(new ShardNode(UUID.randomUUID(), "node1")), Optional.<String>absent());
+        assertEquals(shardManager.getTableRowCount(tableId), Optional.<Long>absent());
+    }
+
     @Test
     public void testExternalBatches()
             throws Exception
@@ -91,6 +91,36 @@ public class TestShardManagerDao
             throws Exception
     {
         assertEquals(dao.getAllNodesInUse(), ImmutableSet.of());
+
+        // creating the tables again does not fail
+        createShardTablesWithRetry(dao);
+    }
+
+    @Test
+    public void testRowCountAddedToExistingShardsTable()
+            throws Exception
+    {
+        DBI dbi = new DBI(new H2EmbeddedDataSource(new H2EmbeddedDataSourceConfig().setFilename("mem:")));
+        try (Handle handle = dbi.open()) {
+            // shards table as created before row counts were recorded
+            handle.execute("CREATE TABLE shards (\n" +
+                    "  shard_id BIGINT PRIMARY KEY AUTO_INCREMENT,\n" +
+                    "  shard_uuid BINARY(16) NOT NULL,\n" +
+                    "  create_time DATETIME NOT NULL,\n" +
+                    "  UNIQUE (shard_uuid)\n" +
+                    ")");
+            ShardManagerDao dao = handle.attach(ShardManagerDao.class);
+            createShardTablesWithRetry(dao);
+
+            long tableId = 1;
+            long shardId = dao.insertShard(UUID.randomUUID());
+            dao.insertTableShard(tableId, shardId);
+            assertEquals(dao.getShardCountWithoutRowCount(tableId), 1);
+
+            dao.updateShardRowCount(shardId, 42);
+            assertEquals(dao.getShardCountWithoutRowCount(tableId), 0);
+            assertEquals(dao.getTableRowCount(tableId), 42);
+        }
     }
 
     @Test
@@ -36,7 +36,8 @@ public class TestDatabaseStorageManagerConfig
         assertRecordedDefaults(recordDefaults(StorageManagerConfig.class)
                 .setDataDirectory(new File("var/data"))
                 .setBackupDirectory(null)
-                .setOrcMaxMergeDistance(new DataSize(1, Unit.MEGABYTE)));
+                .setOrcMaxMergeDistance(new DataSize(1, Unit.MEGABYTE))
+                .setOrcBloomFiltersEnabled(true));
     }
 
     @Test
@@ -46,12 +47,14 @@ public class TestDatabaseStorageManagerConfig
                 .put("storage.data-directory", "/data")
                 .put("storage.backup-directory", "/backup")
                 .put("storage.orc.max-merge-distance", "16kB")
+                .put("storage.orc.bloom-filters-enabled", "false")
                 .build();
 
         StorageManagerConfig expected = new StorageManagerConfig()
                 .setDataDirectory(new File("/data"))
                 .setBackupDirectory(new File("/backup"))
-                .setOrcMaxMergeDistance(new DataSize(16, Unit.KILOBYTE));
+                .setOrcMaxMergeDistance(new DataSize(16, Unit.KILOBYTE))
+                .setOrcBloomFiltersEnabled(false);
 
         assertFullMapping(properties, expected);
     }
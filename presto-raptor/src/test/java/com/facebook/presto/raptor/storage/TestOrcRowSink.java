@@ -77,7 +77,7 @@ public class TestOrcRowSink
         byte[] bytes3 = octets(0x01, 0x02, 0x19, 0x80);
 
         try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(new EmptyClassLoader());
-                RowSink sink = new OrcRowSink(columnIds, columnTypes, sampleWeightColumnId, file)) {
+                RowSink sink = new OrcRowSink(columnIds, columnTypes, sampleWeightColumnId, file, true)) {
             sink.beginRecord(1);
             sink.appendLong(123);
             sink.appendString("hello");
@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+/**
+ * A split that benefits from running on the same nodes every time it is read, for example
+ * because the nodes keep a local copy of the data it reads.
+ */
+public interface AffinitySplit
+        extends ConnectorSplit
+{
+    /**
+     * Identifies the data read by this split. Splits reading the same data must return the
+     * same key, regardless of the query they belong to.
+     */
+    String getAffinityKey();
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+/**
+ * Statistics of a single column. The minimum and maximum are in the native
+ * representation of the column type, as in {@link Domain}, and are null when unknown.
+ */
+public final class ColumnStatistics
+{
+    public static final long UNKNOWN_DISTINCT_VALUES_COUNT = -1;
+
+    private final long distinctValuesCount;
+    /* nullable */
+    private final Comparable<?> min;
+    /* nullable */
+    private final Comparable<?> max;
+
+    public ColumnStatistics(long distinctValuesCount, Comparable<?> min, Comparable<?> max)
+    {
+        if (distinctValuesCount < 0 && distinctValuesCount != UNKNOWN_DISTINCT_VALUES_COUNT) {
+            throw new IllegalArgumentException("distinctValuesCount is negative");
+        }
+
+        this.distinctValuesCount = distinctValuesCount;
+        this.min = min;
+        this.max = max;
+    }
+
+    public boolean isDistinctValuesCountKnown()
+    {
+        return distinctValuesCount != UNKNOWN_DISTINCT_VALUES_COUNT;
+    }
+
+    /**
+     * @return the number of distinct non-null values, or {@link #UNKNOWN_DISTINCT_VALUES_COUNT}
+     */
+    public long getDistinctValuesCount()
+    {
+        return distinctValuesCount;
+    }
+
+    /**
+     * @return the smallest value or null
+     */
+    public Comparable<?> getMin()
+    {
+        return min;
+    }
+
+    /**
+     * @return the largest value or null
+     */
+    public Comparable<?> getMax()
+    {
+        return max;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("ColumnStatistics{");
+        sb.append("distinctValuesCount=").append(distinctValuesCount);
+        sb.append(", min=").append(min);
+        sb.append(", max=").append(max);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -36,5 +36,10 @@ public interface Connector
      */
     ConnectorRecordSinkProvider getRecordSinkProvider();
 
+    /**
+     * @throws UnsupportedOperationException if this connector does not support writing tables page at a time
+     */
+    ConnectorPageSinkProvider getPageSinkProvider();
+
     ConnectorIndexResolver getIndexResolver();
 }
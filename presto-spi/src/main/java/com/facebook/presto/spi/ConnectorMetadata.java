@@ -67,6 +67,14 @@ public interface ConnectorMetadata
      */
     ColumnMetadata getColumnMetadata(ConnectorTableHandle tableHandle, ConnectorColumnHandle columnHandle);
 
+    /**
+     * Gets the statistics of the specified partitions of a table, or {@link TableStatistics#unknown()} if the connector has none.
+     * The statistics cover the whole table if the partitions are null.
+     *
+     * @throws RuntimeException if table handle is no longer valid
+     */
+    TableStatistics getTableStatistics(ConnectorTableHandle tableHandle, List<ConnectorPartition> partitionsOrNull);
+
     /**
      * Gets the metadata for all columns that match the specified table prefix.
      */
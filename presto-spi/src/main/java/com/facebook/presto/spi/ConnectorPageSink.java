@@ -11,15 +11,16 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.facebook.presto.operator;
+package com.facebook.presto.spi;
 
-import com.facebook.presto.metadata.InsertTableHandle;
-import com.facebook.presto.metadata.OutputTableHandle;
-import com.facebook.presto.spi.RecordSink;
+import com.facebook.presto.spi.block.Block;
 
-public interface RecordSinkProvider
+public interface ConnectorPageSink
 {
-    RecordSink getRecordSink(OutputTableHandle tableHandle);
+    /**
+     * @param sampleWeightBlock the sample weight of each position in the page, or null if the table is not sampled
+     */
+    void appendPage(Page page, Block sampleWeightBlock);
 
-    RecordSink getRecordSink(InsertTableHandle tableHandle);
+    String commit();
 }
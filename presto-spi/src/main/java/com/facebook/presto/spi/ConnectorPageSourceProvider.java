@@ -18,4 +18,12 @@ import java.util.List;
 public interface ConnectorPageSourceProvider
 {
     ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns);
+
+    /**
+     * Creates a page source for the split that only needs to return the rows matching the
+     * dynamic filter. The filter is derived at runtime from the build side of a join, and
+     * rows outside of it will be discarded by the join, so a connector that can not use the
+     * filter may ignore it.
+     */
+    ConnectorPageSource createPageSource(ConnectorSplit split, List<ConnectorColumnHandle> columns, TupleDomain<ConnectorColumnHandle> dynamicFilter);
 }
@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+/**
+ * A page source that reads its input ahead on another thread. The engine asks the
+ * page source whether it is ready before asking for a page, so a driver that would
+ * wait for a read in progress gives up its thread instead.
+ */
+public interface ReadAheadPageSource
+        extends ConnectorPageSource
+{
+    /**
+     * Returns true if the next page can be produced without waiting for a read in progress.
+     * Otherwise returns false, and runs the listener once the read completes. The listener
+     * may be run on another thread.
+     */
+    boolean isReady(Runnable listener);
+
+    /**
+     * Gets the number of input bytes read ahead so far.
+     */
+    long getPrefetchedBytes();
+
+    /**
+     * Gets the number of input bytes read ahead that were never used.
+     */
+    long getWastedPrefetchBytes();
+}
@@ -23,6 +23,12 @@ import static java.util.Collections.emptyMap;
 public abstract class ReadOnlyConnectorMetadata
         implements ConnectorMetadata
 {
+    @Override
+    public TableStatistics getTableStatistics(ConnectorTableHandle tableHandle, List<ConnectorPartition> partitionsOrNull)
+    {
+        return TableStatistics.unknown();
+    }
+
     @Override
     public final ConnectorTableHandle createTable(ConnectorSession session, ConnectorTableMetadata tableMetadata)
     {
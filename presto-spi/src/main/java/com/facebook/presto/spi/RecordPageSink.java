@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import io.airlift.slice.Slice;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes pages to a connector that accepts one record at a time.
+ */
+public class RecordPageSink
+        implements ConnectorPageSink
+{
+    private final RecordSink recordSink;
+    private final List<Type> types;
+
+    public RecordPageSink(RecordSink recordSink, List<Type> types)
+    {
+        this.recordSink = requireNonNull(recordSink, "recordSink is null");
+        this.types = unmodifiableList(new ArrayList<>(requireNonNull(types, "types is null")));
+    }
+
+    public RecordSink getRecordSink()
+    {
+        return recordSink;
+    }
+
+    @Override
+    public void appendPage(Page page, Block sampleWeightBlock)
+    {
+        requireNonNull(page, "page is null");
+        if (page.getChannelCount() != types.size()) {
+            throw new IllegalArgumentException("Expected page with " + types.size() + " channels, but got " + page.getChannelCount());
+        }
+
+        Block[] blocks = page.getBlocks();
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            long sampleWeight = 1;
+            if (sampleWeightBlock != null) {
+                sampleWeight = BIGINT.getLong(sampleWeightBlock, position);
+            }
+            recordSink.beginRecord(sampleWeight);
+            for (int channel = 0; channel < blocks.length; channel++) {
+                writeField(position, blocks[channel], types.get(channel));
+            }
+            recordSink.finishRecord();
+        }
+    }
+
+    private void writeField(int position, Block block, Type type)
+    {
+        if (block.isNull(position)) {
+            recordSink.appendNull();
+            return;
+        }
+
+        Class<?> javaType = type.getJavaType();
+        if (javaType == boolean.class) {
+            recordSink.appendBoolean(type.getBoolean(block, position));
+        }
+        else if (javaType == long.class) {
+            recordSink.appendLong(type.getLong(block, position));
+        }
+        else if (javaType == double.class) {
+            recordSink.appendDouble(type.getDouble(block, position));
+        }
+        else if (javaType == Slice.class) {
+            recordSink.appendString(type.getSlice(block, position).getBytes());
+        }
+        else {
+            throw new AssertionError("unimplemented type: " + type);
+        }
+    }
+
+    @Override
+    public String commit()
+    {
+        return recordSink.commit();
+    }
+}
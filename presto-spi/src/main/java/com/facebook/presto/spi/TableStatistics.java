@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistics of a table that the engine uses to estimate the cost of a query plan.
+ * Every statistic is optional, so a connector reports only what it knows cheaply.
+ */
+public final class TableStatistics
+{
+    public static final long UNKNOWN_ROW_COUNT = -1;
+
+    private static final TableStatistics UNKNOWN = new TableStatistics(UNKNOWN_ROW_COUNT, Collections.<ConnectorColumnHandle, ColumnStatistics>emptyMap());
+
+    private final long rowCount;
+    private final Map<ConnectorColumnHandle, ColumnStatistics> columnStatistics;
+
+    public TableStatistics(long rowCount, Map<ConnectorColumnHandle, ColumnStatistics> columnStatistics)
+    {
+        if (rowCount < 0 && rowCount != UNKNOWN_ROW_COUNT) {
+            throw new IllegalArgumentException("rowCount is negative");
+        }
+        if (columnStatistics == null) {
+            throw new NullPointerException("columnStatistics is null");
+        }
+
+        this.rowCount = rowCount;
+        this.columnStatistics = Collections.unmodifiableMap(new LinkedHashMap<>(columnStatistics));
+    }
+
+    public static TableStatistics unknown()
+    {
+        return UNKNOWN;
+    }
+
+    public boolean isRowCountKnown()
+    {
+        return rowCount != UNKNOWN_ROW_COUNT;
+    }
+
+    /**
+     * @return the number of rows in the table, or {@link #UNKNOWN_ROW_COUNT}
+     */
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * @return the statistics of the columns that have any, keyed by column handle
+     */
+    public Map<ConnectorColumnHandle, ColumnStatistics> getColumnStatistics()
+    {
+        return columnStatistics;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("TableStatistics{");
+        sb.append("rowCount=").append(rowCount);
+        sb.append(", columnStatistics=").append(columnStatistics);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import io.airlift.slice.Slice;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+
+/**
+ * Block that stores each value once in a dictionary block, and each position as an id into the dictionary.
+ * A null position refers to a null entry of the dictionary.
+ */
+public class DictionaryBlock
+        implements Block
+{
+    private final int positionCount;
+    private final Block dictionary;
+    private final int[] ids;
+
+    public DictionaryBlock(int positionCount, Block dictionary, int[] ids)
+    {
+        if (positionCount < 0) {
+            throw new IllegalArgumentException("positionCount is negative");
+        }
+        this.positionCount = positionCount;
+
+        this.dictionary = Objects.requireNonNull(dictionary, "dictionary is null");
+        if (dictionary instanceof DictionaryBlock) {
+            throw new IllegalArgumentException("dictionary can not be a DictionaryBlock");
+        }
+
+        Objects.requireNonNull(ids, "ids is null");
+        if (ids.length < positionCount) {
+            throw new IllegalArgumentException("ids length is less than positionCount");
+        }
+        this.ids = ids;
+    }
+
+    public Block getDictionary()
+    {
+        return dictionary;
+    }
+
+    /**
+     * Returns the id array backing this block. Only the first {@code positionCount} entries are valid.
+     */
+    public int[] getIds()
+    {
+        return ids;
+    }
+
+    public int getId(int position)
+    {
+        checkReadablePosition(position);
+        return ids[position];
+    }
+
+    @Override
+    public int getPositionCount()
+    {
+        return positionCount;
+    }
+
+    @Override
+    public int getSizeInBytes()
+    {
+        long sizeInBytes = dictionary.getSizeInBytes() + (long) positionCount * SIZE_OF_INT;
+        if (sizeInBytes > Integer.MAX_VALUE) {
+            sizeInBytes = Integer.MAX_VALUE;
+        }
+        return (int) sizeInBytes;
+    }
+
+    @Override
+    public DictionaryBlockEncoding getEncoding()
+    {
+        return new DictionaryBlockEncoding(dictionary.getEncoding());
+    }
+
+    @Override
+    public Block getRegion(int positionOffset, int length)
+    {
+        if (positionOffset < 0 || length < 0 || positionOffset + length > positionCount) {
+            throw new IndexOutOfBoundsException("Invalid position " + positionOffset + " in block with " + positionCount + " positions");
+        }
+        return new DictionaryBlock(length, dictionary, Arrays.copyOfRange(ids, positionOffset, positionOffset + length));
+    }
+
+    @Override
+    public int getLength(int position)
+    {
+        return dictionary.getLength(getId(position));
+    }
+
+    @Override
+    public byte getByte(int position, int offset)
+    {
+        return dictionary.getByte(getId(position), offset);
+    }
+
+    @Override
+    public short getShort(int position, int offset)
+    {
+        return dictionary.getShort(getId(position), offset);
+    }
+
+    @Override
+    public int getInt(int position, int offset)
+    {
+        return dictionary.getInt(getId(position), offset);
+    }
+
+    @Override
+    public long getLong(int position, int offset)
+    {
+        return dictionary.getLong(getId(position), offset);
+    }
+
+    @Override
+    public float getFloat(int position, int offset)
+    {
+        return dictionary.getFloat(getId(position), offset);
+    }
+
+    @Override
+    public double getDouble(int position, int offset)
+    {
+        return dictionary.getDouble(getId(position), offset);
+    }
+
+    @Override
+    public Slice getSlice(int position, int offset, int length)
+    {
+        return dictionary.getSlice(getId(position), offset, length);
+    }
+
+    @Override
+    public boolean bytesEqual(int position, int offset, Slice otherSlice, int otherOffset, int length)
+    {
+        return dictionary.bytesEqual(getId(position), offset, otherSlice, otherOffset, length);
+    }
+
+    @Override
+    public int bytesCompare(int position, int offset, int length, Slice otherSlice, int otherOffset, int otherLength)
+    {
+        return dictionary.bytesCompare(getId(position), offset, length, otherSlice, otherOffset, otherLength);
+    }
+
+    @Override
+    public void writeBytesTo(int position, int offset, int length, BlockBuilder blockBuilder)
+    {
+        dictionary.writeBytesTo(getId(position), offset, length, blockBuilder);
+    }
+
+    @Override
+    public boolean equals(int position, int offset, Block otherBlock, int otherPosition, int otherOffset, int length)
+    {
+        return dictionary.equals(getId(position), offset, otherBlock, otherPosition, otherOffset, length);
+    }
+
+    @Override
+    public int hash(int position, int offset, int length)
+    {
+        return dictionary.hash(getId(position), offset, length);
+    }
+
+    @Override
+    public int compareTo(int leftPosition, int leftOffset, int leftLength, Block rightBlock, int rightPosition, int rightOffset, int rightLength)
+    {
+        return dictionary.compareTo(getId(leftPosition), leftOffset, leftLength, rightBlock, rightPosition, rightOffset, rightLength);
+    }
+
+    @Override
+    public Block getSingleValueBlock(int position)
+    {
+        return dictionary.getSingleValueBlock(getId(position));
+    }
+
+    @Override
+    public boolean isNull(int position)
+    {
+        return dictionary.isNull(getId(position));
+    }
+
+    @Override
+    public void assureLoaded()
+    {
+        dictionary.assureLoaded();
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder("DictionaryBlock{");
+        sb.append("positionCount=").append(positionCount);
+        sb.append(", dictionaryPositionCount=").append(dictionary.getPositionCount());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private void checkReadablePosition(int position)
+    {
+        if (position < 0 || position >= positionCount) {
+            throw new IllegalArgumentException("position is not valid");
+        }
+    }
+}
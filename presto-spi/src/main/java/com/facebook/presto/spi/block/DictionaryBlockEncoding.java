@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+import com.facebook.presto.spi.type.TypeManager;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import java.util.Objects;
+
+public class DictionaryBlockEncoding
+        implements BlockEncoding
+{
+    public static final BlockEncodingFactory<DictionaryBlockEncoding> FACTORY = new DictionaryBlockEncodingFactory();
+    private static final String NAME = "DICTIONARY";
+
+    private final BlockEncoding dictionaryEncoding;
+
+    public DictionaryBlockEncoding(BlockEncoding dictionaryEncoding)
+    {
+        this.dictionaryEncoding = Objects.requireNonNull(dictionaryEncoding, "dictionaryEncoding is null");
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public BlockEncoding getDictionaryEncoding()
+    {
+        return dictionaryEncoding;
+    }
+
+    @Override
+    public void writeBlock(SliceOutput sliceOutput, Block block)
+    {
+        // The down casts here are safe because it is the block itself the provides this encoding implementation.
+        DictionaryBlock dictionaryBlock = (DictionaryBlock) block;
+
+        int positionCount = dictionaryBlock.getPositionCount();
+        sliceOutput.appendInt(positionCount);
+
+        // ids
+        int[] ids = dictionaryBlock.getIds();
+        for (int position = 0; position < positionCount; position++) {
+            sliceOutput.appendInt(ids[position]);
+        }
+
+        // dictionary
+        dictionaryEncoding.writeBlock(sliceOutput, dictionaryBlock.getDictionary());
+    }
+
+    @Override
+    public Block readBlock(SliceInput sliceInput)
+    {
+        int positionCount = sliceInput.readInt();
+
+        int[] ids = new int[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = sliceInput.readInt();
+        }
+
+        Block dictionary = dictionaryEncoding.readBlock(sliceInput);
+
+        return new DictionaryBlock(positionCount, dictionary, ids);
+    }
+
+    public static class DictionaryBlockEncodingFactory
+            implements BlockEncodingFactory<DictionaryBlockEncoding>
+    {
+        @Override
+        public String getName()
+        {
+            return NAME;
+        }
+
+        @Override
+        public DictionaryBlockEncoding readEncoding(TypeManager manager, BlockEncodingSerde serde, SliceInput input)
+        {
+            BlockEncoding dictionaryEncoding = serde.readBlockEncoding(input);
+            return new DictionaryBlockEncoding(dictionaryEncoding);
+        }
+
+        @Override
+        public void writeEncoding(BlockEncodingSerde serde, SliceOutput output, DictionaryBlockEncoding blockEncoding)
+        {
+            serde.writeBlockEncoding(output, blockEncoding.getDictionaryEncoding());
+        }
+    }
+}
@@ -104,6 +104,34 @@ public class LazyFixedWidthBlock
         }
     }
 
+    public boolean isLoaded()
+    {
+        return slice != null;
+    }
+
+    /**
+     * Loads only the values at the specified positions, which must be in ascending order, when
+     * the loader supports it. The values at the other positions are unspecified afterwards, so
+     * this may only be called by the sole reader of the block, and only for every position it
+     * will read.
+     */
+    @SuppressWarnings("unchecked")
+    public void assureLoaded(int[] positions, int positionCount)
+    {
+        if (slice != null) {
+            return;
+        }
+        if (!(loader instanceof SelectiveLazyBlockLoader)) {
+            assureLoaded();
+            return;
+        }
+        ((SelectiveLazyBlockLoader<LazyFixedWidthBlock>) loader).load(this, positions, positionCount);
+
+        if (slice == null) {
+            throw new IllegalArgumentException("Lazy block loader did not load this block");
+        }
+    }
+
     public void setRawSlice(Slice slice)
     {
         if (slice.length() < positionCount * fixedSize) {
@@ -126,6 +126,34 @@ public class LazySliceArrayBlock
         }
     }
 
+    public boolean isLoaded()
+    {
+        return values != null;
+    }
+
+    /**
+     * Loads only the values at the specified positions, which must be in ascending order, when
+     * the loader supports it. The values at the other positions are unspecified afterwards, so
+     * this may only be called by the sole reader of the block, and only for every position it
+     * will read.
+     */
+    @SuppressWarnings("unchecked")
+    public void assureLoaded(int[] positions, int positionCount)
+    {
+        if (values != null) {
+            return;
+        }
+        if (!(loader instanceof SelectiveLazyBlockLoader)) {
+            assureLoaded();
+            return;
+        }
+        ((SelectiveLazyBlockLoader<LazySliceArrayBlock>) loader).load(this, positions, positionCount);
+
+        if (values == null) {
+            throw new IllegalArgumentException("Lazy block loader did not load this block");
+        }
+    }
+
     @Override
     public String toString()
     {
@@ -11,17 +11,15 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.facebook.presto.testing;
+package com.facebook.presto.spi.block;
 
-import com.facebook.presto.spi.block.Block;
-import com.facebook.presto.spi.block.BlockBuilder;
 import io.airlift.slice.Slice;
 
-import static com.google.common.base.MoreObjects.toStringHelper;
-import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Preconditions.checkPositionIndexes;
+import java.util.Objects;
 
+/**
+ * Block that repeats a single value for every position, such as a partition key or a constant.
+ */
 public class RunLengthEncodedBlock
         implements Block
 {
@@ -30,14 +28,20 @@ public class RunLengthEncodedBlock
 
     public RunLengthEncodedBlock(Block value, int positionCount)
     {
-        this.value = checkNotNull(value, "value is null");
-        checkArgument(value.getPositionCount() == 1, "Expected value to contain a single position but has %s positions", value.getPositionCount());
+        this.value = Objects.requireNonNull(value, "value is null");
+        if (value.getPositionCount() != 1) {
+            throw new IllegalArgumentException("Expected value to contain a single position but has " + value.getPositionCount() + " positions");
+        }
 
         // value can not be a RunLengthEncodedBlock because this could cause stack overflow in some of the methods
-        checkArgument(!(value instanceof RunLengthEncodedBlock), "Value can not be an instance of a %s", getClass().getName());
+        if (value instanceof RunLengthEncodedBlock) {
+            throw new IllegalArgumentException("Value can not be an instance of a " + getClass().getName());
+        }
 
-        checkArgument(positionCount >= 0, "positionCount is negative");
-        this.positionCount = checkNotNull(positionCount, "positionCount is null");
+        if (positionCount < 0) {
+            throw new IllegalArgumentException("positionCount is negative");
+        }
+        this.positionCount = positionCount;
     }
 
     public Block getValue()
@@ -66,7 +70,9 @@ public class RunLengthEncodedBlock
     @Override
     public Block getRegion(int positionOffset, int length)
     {
-        checkPositionIndexes(positionOffset, positionOffset + length, positionCount);
+        if (positionOffset < 0 || length < 0 || positionOffset + length > positionCount) {
+            throw new IndexOutOfBoundsException("Invalid position " + positionOffset + " in block with " + positionCount + " positions");
+        }
         return new RunLengthEncodedBlock(value, length);
     }
 
@@ -171,10 +177,11 @@ public class RunLengthEncodedBlock
     @Override
     public String toString()
     {
-        return toStringHelper(this)
-                .add("value", value)
-                .add("positionCount", positionCount)
-                .toString();
+        StringBuilder sb = new StringBuilder("RunLengthEncodedBlock{");
+        sb.append("positionCount=").append(positionCount);
+        sb.append(", value=").append(value);
+        sb.append('}');
+        return sb.toString();
     }
 
     @Override
@@ -185,6 +192,8 @@ public class RunLengthEncodedBlock
 
     private void checkReadablePosition(int position)
     {
-        checkArgument(position >= 0 && position < positionCount, "position is not valid");
+        if (position < 0 || position >= positionCount) {
+            throw new IllegalArgumentException("position is not valid");
+        }
     }
 }
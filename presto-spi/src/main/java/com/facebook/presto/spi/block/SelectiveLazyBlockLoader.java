@@ -0,0 +1,27 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi.block;
+
+/**
+ * A lazy block loader that can load only some of the positions of a block.
+ */
+public interface SelectiveLazyBlockLoader<T extends Block>
+        extends LazyBlockLoader<T>
+{
+    /**
+     * Loads the values at the specified positions, which are in ascending order. The values
+     * at the other positions may be left unset.
+     */
+    void load(T block, int[] positions, int positionCount);
+}
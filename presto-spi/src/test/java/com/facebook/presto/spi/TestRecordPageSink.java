@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.facebook.presto.spi.type.VarbinaryType.VARBINARY;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static org.testng.Assert.assertEquals;
+
+public class TestRecordPageSink
+{
+    private static final List<Type> TYPES = ImmutableList.<Type>of(BOOLEAN, BIGINT, DOUBLE, VARCHAR, VARBINARY, TIMESTAMP);
+
+    @Test
+    public void testTypes()
+    {
+        RecordingRecordSink recordSink = new RecordingRecordSink();
+        RecordPageSink pageSink = new RecordPageSink(recordSink, TYPES);
+
+        PageBuilder pageBuilder = new PageBuilder(TYPES);
+        pageBuilder.declarePosition();
+        BOOLEAN.writeBoolean(pageBuilder.getBlockBuilder(0), true);
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(1), 42);
+        DOUBLE.writeDouble(pageBuilder.getBlockBuilder(2), 1.5);
+        VARCHAR.writeSlice(pageBuilder.getBlockBuilder(3), utf8Slice("abc"));
+        VARBINARY.writeSlice(pageBuilder.getBlockBuilder(4), wrappedBuffer(new byte[] {1, 2}));
+        TIMESTAMP.writeLong(pageBuilder.getBlockBuilder(5), 1000);
+
+        pageSink.appendPage(pageBuilder.build(), null);
+        assertEquals(pageSink.commit(), "fragment");
+
+        assertEquals(recordSink.getEvents(), ImmutableList.of(
+                "begin 1",
+                "boolean true",
+                "long 42",
+                "double 1.5",
+                "string abc",
+                "string \u0001\u0002",
+                "long 1000",
+                "finish",
+                "commit"));
+    }
+
+    @Test
+    public void testNulls()
+    {
+        RecordingRecordSink recordSink = new RecordingRecordSink();
+        RecordPageSink pageSink = new RecordPageSink(recordSink, TYPES);
+
+        PageBuilder pageBuilder = new PageBuilder(TYPES);
+        for (int row = 0; row < 2; row++) {
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < TYPES.size(); channel++) {
+                pageBuilder.getBlockBuilder(channel).appendNull();
+            }
+        }
+
+        pageSink.appendPage(pageBuilder.build(), createSampleWeightBlock(3, 5));
+
+        ImmutableList.Builder<String> expected = ImmutableList.builder();
+        for (long sampleWeight : new long[] {3, 5}) {
+            expected.add("begin " + sampleWeight);
+            for (int channel = 0; channel < TYPES.size(); channel++) {
+                expected.add("null");
+            }
+            expected.add("finish");
+        }
+        assertEquals(recordSink.getEvents(), expected.build());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Expected page with 6 channels, but got 1")
+    public void testChannelCountMismatch()
+    {
+        RecordPageSink pageSink = new RecordPageSink(new RecordingRecordSink(), TYPES);
+
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT));
+        pageBuilder.declarePosition();
+        BIGINT.writeLong(pageBuilder.getBlockBuilder(0), 1);
+        pageSink.appendPage(pageBuilder.build(), null);
+    }
+
+    private static Block createSampleWeightBlock(long... sampleWeights)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus());
+        for (long sampleWeight : sampleWeights) {
+            BIGINT.writeLong(blockBuilder, sampleWeight);
+        }
+        return blockBuilder.build();
+    }
+
+    private static class RecordingRecordSink
+            implements RecordSink
+    {
+        private final List<String> events = new ArrayList<>();
+
+        public List<String> getEvents()
+        {
+            return events;
+        }
+
+        @Override
+        public void beginRecord(long sampleWeight)
+        {
+            events.add("begin " + sampleWeight);
+        }
+
+        @Override
+        public void finishRecord()
+        {
+            events.add("finish");
+        }
+
+        @Override
+        public void appendNull()
+        {
+            events.add("null");
+        }
+
+        @Override
+        public void appendBoolean(boolean value)
+        {
+            events.add("boolean " + value);
+        }
+
+        @Override
+        public void appendLong(long value)
+        {
+            events.add("long " + value);
+        }
+
+        @Override
+        public void appendDouble(double value)
+        {
+            events.add("double " + value);
+        }
+
+        @Override
+        public void appendString(byte[] value)
+        {
+            events.add("string " + new String(value, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String commit()
+        {
+            events.add("commit");
+            return "fragment";
+        }
+    }
+}
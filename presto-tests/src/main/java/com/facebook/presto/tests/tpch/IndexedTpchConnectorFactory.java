@@ -18,6 +18,7 @@ import com.facebook.presto.spi.ConnectorFactory;
 import com.facebook.presto.spi.ConnectorHandleResolver;
 import com.facebook.presto.spi.ConnectorIndexResolver;
 import com.facebook.presto.spi.ConnectorMetadata;
+import com.facebook.presto.spi.ConnectorPageSinkProvider;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorRecordSetProvider;
 import com.facebook.presto.spi.ConnectorRecordSinkProvider;
@@ -95,6 +96,12 @@ public class IndexedTpchConnectorFactory
                 throw new UnsupportedOperationException();
             }
 
+            @Override
+            public ConnectorPageSinkProvider getPageSinkProvider()
+            {
+                throw new UnsupportedOperationException();
+            }
+
             @Override
             public ConnectorIndexResolver getIndexResolver()
             {